@@ -0,0 +1,226 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.facebook.presto.spi.block.ArrayBlockEncoding;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockEncoding;
+import com.facebook.presto.spi.block.BlockEncodingFactory;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.block.ByteArrayBlockEncoding;
+import com.facebook.presto.spi.block.DictionaryBlockEncoding;
+import com.facebook.presto.spi.block.FixedWidthBlockEncoding;
+import com.facebook.presto.spi.block.IntArrayBlockEncoding;
+import com.facebook.presto.spi.block.InterleavedBlockEncoding;
+import com.facebook.presto.spi.block.LongArrayBlockEncoding;
+import com.facebook.presto.spi.block.RunLengthBlockEncoding;
+import com.facebook.presto.spi.block.ShortArrayBlockEncoding;
+import com.facebook.presto.spi.block.SliceArrayBlockEncoding;
+import com.facebook.presto.spi.block.VariableWidthBlockEncoding;
+import com.facebook.presto.spi.type.StandardTypes;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.BasicSliceInput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+
+import static com.facebook.presto.client.SerializedPageHeader.UNCOMPRESSED_CODEC_MARKER;
+import static com.facebook.presto.client.SerializedPageHeader.computeChecksum;
+import static com.facebook.presto.client.SerializedPageHeader.getCodecMarker;
+import static com.facebook.presto.client.SerializedPageHeader.hasChecksum;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decoder for the binary result format, in which the server ships the
+ * output pages of a query in the serialized page format used by exchanges
+ * instead of encoding every value as JSON.
+ */
+public final class BinaryResults
+{
+    /**
+     * Client capability advertised in {@link PrestoHeaders#PRESTO_CLIENT_CAPABILITIES}
+     * by clients which can decode binary results.
+     */
+    public static final String BINARY_RESULTS = "BINARY_RESULTS";
+
+    private static final Set<String> SUPPORTED_TYPES = ImmutableSet.of(
+            StandardTypes.BOOLEAN,
+            StandardTypes.TINYINT,
+            StandardTypes.SMALLINT,
+            StandardTypes.INTEGER,
+            StandardTypes.BIGINT,
+            StandardTypes.REAL,
+            StandardTypes.DOUBLE,
+            StandardTypes.VARCHAR,
+            StandardTypes.VARBINARY);
+
+    private static final BlockEncodingSerde BLOCK_ENCODING_SERDE = new BuiltInBlockEncodingSerde();
+
+    private BinaryResults() {}
+
+    /**
+     * Returns true if values of the type can be decoded from binary results.
+     * Values of other types depend on the session (e.g. time zone of timestamps)
+     * or on types unknown to the client, and are only sent as JSON.
+     */
+    public static boolean isSupportedType(ClientTypeSignature typeSignature)
+    {
+        return SUPPORTED_TYPES.contains(typeSignature.getRawType());
+    }
+
+    public static List<List<Object>> decodeRows(List<Column> columns, byte[] binaryData)
+    {
+        requireNonNull(columns, "columns is null");
+        requireNonNull(binaryData, "binaryData is null");
+
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        SliceInput input = new BasicSliceInput(Slices.wrappedBuffer(binaryData));
+        while (input.isReadable()) {
+            int positionCount = input.readInt();
+            byte marker = input.readByte();
+            checkArgument(getCodecMarker(marker) == UNCOMPRESSED_CODEC_MARKER, "Binary results must not be compressed");
+            int uncompressedSizeInBytes = input.readInt();
+            int sizeInBytes = input.readInt();
+            OptionalLong checksum = hasChecksum(marker) ? OptionalLong.of(input.readLong()) : OptionalLong.empty();
+            Slice data = input.readSlice(sizeInBytes);
+            if (checksum.isPresent()) {
+                checkArgument(computeChecksum(positionCount, uncompressedSizeInBytes, UNCOMPRESSED_CODEC_MARKER, data) == checksum.getAsLong(), "Checksum of binary results page does not match");
+            }
+            Block[] blocks = readRawPage(data.getInput());
+            checkArgument(blocks.length == columns.size(), "block/column size mismatch");
+
+            for (int position = 0; position < positionCount; position++) {
+                List<Object> row = new ArrayList<>(blocks.length);
+                for (int channel = 0; channel < blocks.length; channel++) {
+                    row.add(getValue(columns.get(channel).getTypeSignature(), blocks[channel], position));
+                }
+                rows.add(unmodifiableList(row)); // allow nulls in list
+            }
+        }
+        return rows.build();
+    }
+
+    private static Block[] readRawPage(SliceInput input)
+    {
+        Block[] blocks = new Block[input.readInt()];
+        for (int i = 0; i < blocks.length; i++) {
+            BlockEncoding encoding = BLOCK_ENCODING_SERDE.readBlockEncoding(input);
+            blocks[i] = encoding.readBlock(input);
+        }
+        return blocks;
+    }
+
+    /**
+     * Returns the value as the same object type as {@link QueryResults} produces for JSON data.
+     */
+    private static Object getValue(ClientTypeSignature typeSignature, Block block, int position)
+    {
+        if (block.isNull(position)) {
+            return null;
+        }
+        switch (typeSignature.getRawType()) {
+            case StandardTypes.BOOLEAN:
+                return BOOLEAN.getBoolean(block, position);
+            case StandardTypes.TINYINT:
+                return (byte) TINYINT.getLong(block, position);
+            case StandardTypes.SMALLINT:
+                return (short) SMALLINT.getLong(block, position);
+            case StandardTypes.INTEGER:
+                return (int) INTEGER.getLong(block, position);
+            case StandardTypes.BIGINT:
+                return BIGINT.getLong(block, position);
+            case StandardTypes.REAL:
+                return Float.intBitsToFloat((int) REAL.getLong(block, position));
+            case StandardTypes.DOUBLE:
+                return DOUBLE.getDouble(block, position);
+            case StandardTypes.VARCHAR:
+                return VARCHAR.getSlice(block, position).toStringUtf8();
+            case StandardTypes.VARBINARY:
+                return VARBINARY.getSlice(block, position).getBytes();
+            default:
+                throw new IllegalArgumentException("Unsupported type for binary results: " + typeSignature);
+        }
+    }
+
+    /**
+     * Reads the block encodings built into the SPI. Other encodings are only
+     * used by types which are not supported in binary results.
+     */
+    private static class BuiltInBlockEncodingSerde
+            implements BlockEncodingSerde
+    {
+        private final Map<String, BlockEncodingFactory<?>> blockEncodings;
+
+        public BuiltInBlockEncodingSerde()
+        {
+            ImmutableMap.Builder<String, BlockEncodingFactory<?>> blockEncodings = ImmutableMap.builder();
+            for (BlockEncodingFactory<?> factory : ImmutableList.<BlockEncodingFactory<?>>of(
+                    VariableWidthBlockEncoding.FACTORY,
+                    FixedWidthBlockEncoding.FACTORY,
+                    ByteArrayBlockEncoding.FACTORY,
+                    ShortArrayBlockEncoding.FACTORY,
+                    IntArrayBlockEncoding.FACTORY,
+                    LongArrayBlockEncoding.FACTORY,
+                    SliceArrayBlockEncoding.FACTORY,
+                    DictionaryBlockEncoding.FACTORY,
+                    ArrayBlockEncoding.FACTORY,
+                    InterleavedBlockEncoding.FACTORY,
+                    RunLengthBlockEncoding.FACTORY)) {
+                blockEncodings.put(factory.getName(), factory);
+            }
+            this.blockEncodings = blockEncodings.build();
+        }
+
+        @Override
+        public BlockEncoding readBlockEncoding(SliceInput input)
+        {
+            byte[] name = new byte[input.readInt()];
+            input.readBytes(name);
+            String encodingName = new String(name, UTF_8);
+
+            BlockEncodingFactory<?> blockEncoding = blockEncodings.get(encodingName);
+            checkArgument(blockEncoding != null, "Unknown block encoding %s", encodingName);
+
+            // none of the built-in encodings use the type manager
+            return blockEncoding.readEncoding(null, this, input);
+        }
+
+        @Override
+        public void writeBlockEncoding(SliceOutput output, BlockEncoding encoding)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.HttpClient.HttpResponseFuture;
+import io.airlift.http.client.HttpStatus;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_SIZE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.Request.Builder.prepareDelete;
+import static io.airlift.http.client.Request.Builder.prepareGet;
+import static io.airlift.http.client.ResponseHandlerUtils.propagate;
+import static io.airlift.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads query results directly from the output buffers of the tasks producing
+ * them, so the coordinator only tracks the progress of the query. The output
+ * buffers are polled in parallel and every buffer is released once it is
+ * complete, which allows the tasks to finish.
+ */
+@ThreadSafe
+public class DirectResultReader
+{
+    /**
+     * Client capability advertised in {@link PrestoHeaders#PRESTO_CLIENT_CAPABILITIES}
+     * by clients which read results from {@link QueryResults#getResultLocations()}.
+     */
+    public static final String DIRECT_RESULTS = "DIRECT_RESULTS";
+
+    private static final DataSize MAX_RESPONSE_SIZE = new DataSize(16, MEGABYTE);
+
+    private final HttpClient httpClient;
+    private final Map<URI, ResultLocation> locations = new LinkedHashMap<>();
+
+    public DirectResultReader(HttpClient httpClient)
+    {
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+    }
+
+    /**
+     * Returns true if some known output buffer is not complete yet.
+     */
+    public synchronized boolean isActive()
+    {
+        return locations.values().stream().anyMatch(location -> !location.isComplete());
+    }
+
+    /**
+     * Reads the data available in the output buffers of the results, and
+     * returns the results with this data.
+     */
+    public synchronized QueryResults readResults(QueryResults results)
+    {
+        requireNonNull(results.getResultLocations(), "resultLocations is null");
+        for (URI uri : results.getResultLocations()) {
+            locations.computeIfAbsent(uri, ResultLocation::new);
+        }
+
+        List<ResultLocation> activeLocations = new ArrayList<>();
+        List<HttpResponseFuture<ResultsResponse>> responses = new ArrayList<>();
+        for (ResultLocation location : locations.values()) {
+            if (!location.isComplete()) {
+                activeLocations.add(location);
+                responses.add(httpClient.executeAsync(location.createRequest(), new ResultsResponseHandler()));
+            }
+        }
+
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        for (int i = 0; i < responses.size(); i++) {
+            ResultsResponse response = getResponse(responses.get(i));
+            if (response.getData() != null) {
+                rows.addAll(BinaryResults.decodeRows(results.getColumns(), response.getData()));
+            }
+            activeLocations.get(i).update(response);
+        }
+
+        List<List<Object>> data = rows.build();
+        if (data.isEmpty()) {
+            return results;
+        }
+        return new QueryResults(
+                results.getId(),
+                results.getInfoUri(),
+                results.getPartialCancelUri(),
+                results.getNextUri(),
+                results.getColumns(),
+                data,
+                null,
+                results.getResultLocations(),
+                results.getStats(),
+                results.getError(),
+                results.getUpdateType(),
+                results.getUpdateCount());
+    }
+
+    private static ResultsResponse getResponse(HttpResponseFuture<ResultsResponse> response)
+    {
+        try {
+            return response.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Throwables.propagate(e);
+        }
+        catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private class ResultLocation
+    {
+        private final URI uri;
+        private long token;
+        private boolean complete;
+
+        public ResultLocation(URI uri)
+        {
+            this.uri = requireNonNull(uri, "uri is null");
+        }
+
+        public boolean isComplete()
+        {
+            return complete;
+        }
+
+        public Request createRequest()
+        {
+            return prepareGet()
+                    .setUri(uriBuilderFrom(uri).appendPath(String.valueOf(token)).build())
+                    .setHeader(PRESTO_MAX_SIZE, MAX_RESPONSE_SIZE.toString())
+                    .build();
+        }
+
+        public void update(ResultsResponse response)
+        {
+            // requesting the next token acknowledges the data received so far
+            token = response.getNextToken();
+            if (response.isBufferComplete() && response.getData() == null) {
+                complete = true;
+                // release the buffer so the task can finish
+                httpClient.executeAsync(prepareDelete().setUri(uri).build(), createStatusResponseHandler());
+            }
+        }
+    }
+
+    private static class ResultsResponse
+    {
+        private final long nextToken;
+        private final boolean bufferComplete;
+        private final byte[] data;
+
+        public ResultsResponse(long nextToken, boolean bufferComplete, byte[] data)
+        {
+            this.nextToken = nextToken;
+            this.bufferComplete = bufferComplete;
+            this.data = data;
+        }
+
+        public long getNextToken()
+        {
+            return nextToken;
+        }
+
+        public boolean isBufferComplete()
+        {
+            return bufferComplete;
+        }
+
+        public byte[] getData()
+        {
+            return data;
+        }
+    }
+
+    private static class ResultsResponseHandler
+            implements ResponseHandler<ResultsResponse, RuntimeException>
+    {
+        @Override
+        public ResultsResponse handleException(Request request, Exception exception)
+        {
+            throw propagate(request, exception);
+        }
+
+        @Override
+        public ResultsResponse handle(Request request, Response response)
+        {
+            if (response.getStatusCode() != HttpStatus.OK.code() && response.getStatusCode() != HttpStatus.NO_CONTENT.code()) {
+                throw new RuntimeException(format("Error fetching results from %s returned %s: %s", request.getUri(), response.getStatusCode(), response.getStatusMessage()));
+            }
+
+            String nextToken = response.getHeader(PRESTO_PAGE_NEXT_TOKEN);
+            String bufferComplete = response.getHeader(PRESTO_BUFFER_COMPLETE);
+            if (nextToken == null || bufferComplete == null) {
+                throw new RuntimeException(format("Error fetching results from %s returned an invalid response: missing %s or %s header", request.getUri(), PRESTO_PAGE_NEXT_TOKEN, PRESTO_BUFFER_COMPLETE));
+            }
+
+            byte[] data = null;
+            if (response.getStatusCode() == HttpStatus.OK.code()) {
+                try {
+                    data = ByteStreams.toByteArray(response.getInputStream());
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return new ResultsResponse(Long.parseLong(nextToken), Boolean.parseBoolean(bufferComplete), data);
+        }
+    }
+}
@@ -72,6 +72,8 @@ public class QueryResults
     private final URI nextUri;
     private final List<Column> columns;
     private final Iterable<List<Object>> data;
+    private final byte[] binaryData;
+    private final List<URI> resultLocations;
     private final StatementStats stats;
     private final QueryError error;
     private final String updateType;
@@ -85,12 +87,14 @@ public class QueryResults
             @JsonProperty("nextUri") URI nextUri,
             @JsonProperty("columns") List<Column> columns,
             @JsonProperty("data") List<List<Object>> data,
+            @JsonProperty("binaryData") byte[] binaryData,
+            @JsonProperty("resultLocations") List<URI> resultLocations,
             @JsonProperty("stats") StatementStats stats,
             @JsonProperty("error") QueryError error,
             @JsonProperty("updateType") String updateType,
             @JsonProperty("updateCount") Long updateCount)
     {
-        this(id, infoUri, partialCancelUri, nextUri, columns, fixData(columns, data), stats, error, updateType, updateCount);
+        this(id, infoUri, partialCancelUri, nextUri, columns, decodeData(columns, data, binaryData), binaryData, resultLocations, stats, error, updateType, updateCount);
     }
 
     public QueryResults(
@@ -104,6 +108,23 @@ public class QueryResults
             QueryError error,
             String updateType,
             Long updateCount)
+    {
+        this(id, infoUri, partialCancelUri, nextUri, columns, data, null, null, stats, error, updateType, updateCount);
+    }
+
+    public QueryResults(
+            String id,
+            URI infoUri,
+            URI partialCancelUri,
+            URI nextUri,
+            List<Column> columns,
+            Iterable<List<Object>> data,
+            byte[] binaryData,
+            List<URI> resultLocations,
+            StatementStats stats,
+            QueryError error,
+            String updateType,
+            Long updateCount)
     {
         this.id = requireNonNull(id, "id is null");
         this.infoUri = requireNonNull(infoUri, "infoUri is null");
@@ -111,6 +132,8 @@ public class QueryResults
         this.nextUri = nextUri;
         this.columns = (columns != null) ? ImmutableList.copyOf(columns) : null;
         this.data = (data != null) ? unmodifiableIterable(data) : null;
+        this.binaryData = binaryData;
+        this.resultLocations = (resultLocations != null) ? ImmutableList.copyOf(resultLocations) : null;
         this.stats = requireNonNull(stats, "stats is null");
         this.error = error;
         this.updateType = updateType;
@@ -159,6 +182,31 @@ public class QueryResults
         return data;
     }
 
+    /**
+     * Returns the data in the binary result format, which is only sent
+     * to clients that advertise {@link BinaryResults#BINARY_RESULTS}.
+     * It is decoded into {@link #getData()} on the client.
+     */
+    @Nullable
+    @JsonProperty
+    public byte[] getBinaryData()
+    {
+        return binaryData;
+    }
+
+    /**
+     * Returns the locations of the output buffers of the tasks producing the
+     * results, which are only sent to clients that advertise
+     * {@link DirectResultReader#DIRECT_RESULTS}. Such clients read the data
+     * from these locations instead of receiving it from the coordinator.
+     */
+    @Nullable
+    @JsonProperty
+    public List<URI> getResultLocations()
+    {
+        return resultLocations;
+    }
+
     @NotNull
     @JsonProperty
     public StatementStats getStats()
@@ -197,6 +245,8 @@ public class QueryResults
                 .add("nextUri", nextUri)
                 .add("columns", columns)
                 .add("hasData", data != null)
+                .add("hasBinaryData", binaryData != null)
+                .add("resultLocations", resultLocations)
                 .add("stats", stats)
                 .add("error", error)
                 .add("updateType", updateType)
@@ -204,6 +254,16 @@ public class QueryResults
                 .toString();
     }
 
+    private static Iterable<List<Object>> decodeData(List<Column> columns, List<List<Object>> data, byte[] binaryData)
+    {
+        if (binaryData == null) {
+            return fixData(columns, data);
+        }
+        checkArgument(data == null, "data and binaryData are both set");
+        requireNonNull(columns, "columns is null");
+        return BinaryResults.decodeRows(columns, binaryData);
+    }
+
     private static Iterable<List<Object>> fixData(List<Column> columns, List<List<Object>> data)
     {
         if (data == null) {
@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.client;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.XxHash64;
+
+/**
+ * Header of a serialized page, shared by exchanges and the binary result format.
+ * A page starts with its position count, a marker, its uncompressed size and its size.
+ * The marker names the codec of the page data. If {@link #CHECKSUM_FLAG} is set in the
+ * marker, the header is followed by a checksum of the page.
+ */
+public final class SerializedPageHeader
+{
+    // position count, marker, uncompressed size and size
+    public static final int PAGE_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Integer.BYTES + Integer.BYTES;
+    public static final int CHECKSUM_SIZE = Long.BYTES;
+
+    public static final byte UNCOMPRESSED_CODEC_MARKER = 0;
+    public static final byte CHECKSUM_FLAG = (byte) 0x80;
+
+    private SerializedPageHeader() {}
+
+    public static boolean hasChecksum(byte marker)
+    {
+        return (marker & CHECKSUM_FLAG) != 0;
+    }
+
+    public static byte getCodecMarker(byte marker)
+    {
+        return (byte) (marker & ~CHECKSUM_FLAG);
+    }
+
+    public static byte withChecksumFlag(byte codecMarker)
+    {
+        return (byte) (codecMarker | CHECKSUM_FLAG);
+    }
+
+    public static long computeChecksum(int positionCount, int uncompressedSizeInBytes, byte codecMarker, Slice data)
+    {
+        // the header is part of the seed, so a corrupted position count or size is detected as well
+        long seed = ((long) positionCount << 32 | uncompressedSizeInBytes) ^ codecMarker;
+        return XxHash64.hash(seed, data);
+    }
+}
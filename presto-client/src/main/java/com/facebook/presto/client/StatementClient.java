@@ -80,6 +80,7 @@ public class StatementClient
 
     private final HttpClient httpClient;
     private final FullJsonResponseHandler<QueryResults> responseHandler;
+    private final DirectResultReader directResultReader;
     private final boolean debug;
     private final String query;
     private final AtomicReference<QueryResults> currentResults = new AtomicReference<>();
@@ -105,6 +106,7 @@ public class StatementClient
 
         this.httpClient = httpClient;
         this.responseHandler = createFullJsonResponseHandler(queryResultsCodec);
+        this.directResultReader = new DirectResultReader(httpClient);
         this.debug = session.isDebug();
         this.timeZoneId = session.getTimeZoneId();
         this.query = query;
@@ -155,6 +157,8 @@ public class StatementClient
 
         builder.setHeader(PrestoHeaders.PRESTO_TRANSACTION_ID, session.getTransactionId() == null ? "NONE" : session.getTransactionId());
 
+        builder.setHeader(PrestoHeaders.PRESTO_CLIENT_CAPABILITIES, BinaryResults.BINARY_RESULTS + "," + DirectResultReader.DIRECT_RESULTS);
+
         return builder.build();
     }
 
@@ -257,6 +261,10 @@ public class StatementClient
             return false;
         }
 
+        if (directResultReader.isActive()) {
+            // the coordinator must not delay reading more results from the tasks
+            nextUri = uriBuilderFrom(nextUri).replaceParameter("maxWait", "0ms").build();
+        }
         Request request = prepareRequest(prepareGet(), nextUri).build();
 
         Exception cause = null;
@@ -337,7 +345,11 @@ public class StatementClient
             clearTransactionId.set(true);
         }
 
-        currentResults.set(response.getValue());
+        QueryResults results = response.getValue();
+        if (results.getResultLocations() != null) {
+            results = directResultReader.readResults(results);
+        }
+        currentResults.set(results);
     }
 
     private RuntimeException requestFailedException(String task, Request request, JsonResponse<QueryResults> response)
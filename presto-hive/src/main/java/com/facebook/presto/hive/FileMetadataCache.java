@@ -0,0 +1,268 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.orc.OrcFileTail;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.StringStatistics;
+import com.facebook.presto.orc.metadata.StripeStatistics;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.FileStatus;
+import org.weakref.jmx.Managed;
+import parquet.hadoop.metadata.BlockMetaData;
+import parquet.hadoop.metadata.ParquetMetadata;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Throwables.propagateIfPossible;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Caches the decoded footers of ORC, DWRF and Parquet files, so splits of the same file
+ * do not read and decode the footer again. Entries are keyed by the path, length and
+ * modification time of the file, so a rewritten file is never served a stale footer.
+ */
+public class FileMetadataCache
+{
+    // rough sizes of the decoded ORC footer and metadata, which are many times larger than their compressed form in the file
+    private static final int ORC_FILE_TAIL_SIZE = 1024;
+    private static final int ORC_STRIPE_SIZE = 64;
+    private static final int ORC_TYPE_SIZE = 128;
+    private static final int ORC_COLUMN_STATISTICS_SIZE = 256;
+
+    // rough size of a decoded Parquet column chunk including its statistics
+    private static final int PARQUET_COLUMN_CHUNK_SIZE = 512;
+
+    private final Cache<FileKey, CacheEntry> cache;
+
+    @Inject
+    public FileMetadataCache(HiveClientConfig config)
+    {
+        this(requireNonNull(config, "config is null").getFileMetadataCacheMaxSize());
+    }
+
+    public FileMetadataCache(DataSize maxSize)
+    {
+        requireNonNull(maxSize, "maxSize is null");
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((FileKey key, CacheEntry entry) -> entry.getSize())
+                .recordStats()
+                .build();
+    }
+
+    public OrcFileTail getOrcFileTail(FileStatus file, Callable<OrcFileTail> loader)
+            throws IOException
+    {
+        return get(file, OrcFileTail.class, () -> {
+            OrcFileTail fileTail = loader.call();
+            return new CacheEntry(fileTail, getSize(fileTail));
+        });
+    }
+
+    public ParquetMetadata getParquetMetadata(FileStatus file, Callable<ParquetMetadata> loader)
+            throws IOException
+    {
+        return get(file, ParquetMetadata.class, () -> {
+            ParquetMetadata parquetMetadata = loader.call();
+            return new CacheEntry(parquetMetadata, getSize(parquetMetadata));
+        });
+    }
+
+    private <T> T get(FileStatus file, Class<T> type, Callable<CacheEntry> loader)
+            throws IOException
+    {
+        FileKey key = new FileKey(file.getPath().toString(), file.getLen(), file.getModificationTime(), type);
+        try {
+            return type.cast(cache.get(key, loader).getValue());
+        }
+        catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            propagateIfPossible(e.getCause(), IOException.class);
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getLoadExceptionCount()
+    {
+        return cache.stats().loadExceptionCount();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public void flush()
+    {
+        cache.invalidateAll();
+    }
+
+    private static int getSize(OrcFileTail fileTail)
+    {
+        Footer footer = fileTail.getFooter();
+        long size = ORC_FILE_TAIL_SIZE;
+        size += (long) footer.getStripes().size() * ORC_STRIPE_SIZE;
+        size += (long) footer.getTypes().size() * ORC_TYPE_SIZE;
+        size += getSize(footer.getFileStats());
+        for (StripeStatistics stripeStatistics : fileTail.getMetadata().getStripeStatsList()) {
+            size += getSize(stripeStatistics.getColumnStatistics());
+        }
+        for (Map.Entry<String, Slice> entry : footer.getUserMetadata().entrySet()) {
+            size += entry.getKey().length() * 2 + entry.getValue().length();
+        }
+        return toIntExact(min(Integer.MAX_VALUE, size));
+    }
+
+    private static long getSize(List<ColumnStatistics> columnStatistics)
+    {
+        long size = 0;
+        for (ColumnStatistics statistics : columnStatistics) {
+            size += ORC_COLUMN_STATISTICS_SIZE;
+            // string minimums and maximums can be arbitrarily long
+            StringStatistics stringStatistics = statistics.getStringStatistics();
+            if (stringStatistics != null) {
+                size += getLength(stringStatistics.getMin()) + getLength(stringStatistics.getMax());
+            }
+        }
+        return size;
+    }
+
+    private static int getLength(Slice slice)
+    {
+        return slice == null ? 0 : slice.length();
+    }
+
+    private static int getSize(ParquetMetadata parquetMetadata)
+    {
+        long columnChunks = 0;
+        for (BlockMetaData block : parquetMetadata.getBlocks()) {
+            columnChunks += block.getColumns().size();
+        }
+        return toIntExact(min(Integer.MAX_VALUE, columnChunks * PARQUET_COLUMN_CHUNK_SIZE));
+    }
+
+    private static final class FileKey
+    {
+        private final String path;
+        private final long length;
+        private final long modificationTime;
+        private final Class<?> type;
+
+        public FileKey(String path, long length, long modificationTime, Class<?> type)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.length = length;
+            this.modificationTime = modificationTime;
+            this.type = requireNonNull(type, "type is null");
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            FileKey other = (FileKey) obj;
+            return Objects.equals(path, other.path) &&
+                    length == other.length &&
+                    modificationTime == other.modificationTime &&
+                    Objects.equals(type, other.type);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, length, modificationTime, type);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("path", path)
+                    .add("length", length)
+                    .add("modificationTime", modificationTime)
+                    .add("type", type.getSimpleName())
+                    .toString();
+        }
+    }
+
+    private static final class CacheEntry
+    {
+        private final Object value;
+        private final int size;
+
+        public CacheEntry(Object value, int size)
+        {
+            this.value = requireNonNull(value, "value is null");
+            this.size = size;
+        }
+
+        public Object getValue()
+        {
+            return value;
+        }
+
+        public int getSize()
+        {
+            return size;
+        }
+    }
+}
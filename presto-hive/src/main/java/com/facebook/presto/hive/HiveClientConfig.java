@@ -92,11 +92,15 @@ public class HiveClientConfig
 
     private boolean useOrcColumnNames;
     private boolean orcBloomFiltersEnabled;
+    private boolean orcOptimizedWriterEnabled;
     private DataSize orcMaxMergeDistance = new DataSize(1, MEGABYTE);
     private DataSize orcMaxBufferSize = new DataSize(8, MEGABYTE);
     private DataSize orcStreamBufferSize = new DataSize(8, MEGABYTE);
 
     private boolean rcfileOptimizedReaderEnabled;
+    private boolean rcfileOptimizedWriterEnabled;
+
+    private DataSize fileMetadataCacheMaxSize = new DataSize(64, MEGABYTE);
 
     private HiveMetastoreAuthenticationType hiveMetastoreAuthenticationType = HiveMetastoreAuthenticationType.NONE;
     private String hiveMetastoreServicePrincipal;
@@ -651,6 +655,19 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isOrcOptimizedWriterEnabled()
+    {
+        return orcOptimizedWriterEnabled;
+    }
+
+    @Config("hive.orc.optimized-writer.enabled")
+    @ConfigDescription("Write ORC files with the native writer instead of the Hive writer")
+    public HiveClientConfig setOrcOptimizedWriterEnabled(boolean orcOptimizedWriterEnabled)
+    {
+        this.orcOptimizedWriterEnabled = orcOptimizedWriterEnabled;
+        return this;
+    }
+
     @Deprecated
     public boolean isRcfileOptimizedReaderEnabled()
     {
@@ -665,6 +682,33 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isRcfileOptimizedWriterEnabled()
+    {
+        return rcfileOptimizedWriterEnabled;
+    }
+
+    @Config("hive.rcfile-optimized-writer.enabled")
+    @ConfigDescription("Write RCFile files with the native writer instead of the Hive writer")
+    public HiveClientConfig setRcfileOptimizedWriterEnabled(boolean rcfileOptimizedWriterEnabled)
+    {
+        this.rcfileOptimizedWriterEnabled = rcfileOptimizedWriterEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getFileMetadataCacheMaxSize()
+    {
+        return fileMetadataCacheMaxSize;
+    }
+
+    @Config("hive.file-metadata-cache.max-size")
+    @ConfigDescription("Maximum size of the ORC and Parquet file footers cached on each worker")
+    public HiveClientConfig setFileMetadataCacheMaxSize(DataSize fileMetadataCacheMaxSize)
+    {
+        this.fileMetadataCacheMaxSize = fileMetadataCacheMaxSize;
+        return this;
+    }
+
     public boolean isAssumeCanonicalPartitionKeys()
     {
         return assumeCanonicalPartitionKeys;
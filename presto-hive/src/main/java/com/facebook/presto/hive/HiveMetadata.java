@@ -49,6 +49,8 @@ import com.facebook.presto.spi.predicate.Domain;
 import com.facebook.presto.spi.predicate.NullableValue;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.security.Privilege;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.statistics.TableStatistics;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.annotations.VisibleForTesting;
@@ -148,6 +150,8 @@ public class HiveMetadata
     public static final String PRESTO_VERSION_NAME = "presto_version";
     public static final String PRESTO_QUERY_ID_NAME = "presto_query_id";
 
+    private static final String NUM_ROWS_PARAMETER = "numRows";
+
     private final String connectorId;
     private final boolean allowCorruptWritesForTesting;
     private final SemiTransactionalHiveMetastore metastore;
@@ -269,6 +273,52 @@ public class HiveMetadata
         return new ConnectorTableMetadata(tableName, columns.build(), properties.build());
     }
 
+    @Override
+    public TableStatistics getTableStatistics(ConnectorSession session, ConnectorTableHandle tableHandle, Constraint<ColumnHandle> constraint)
+    {
+        SchemaTableName tableName = schemaTableName(tableHandle);
+        Table table = metastore.getTable(tableName.getSchemaName(), tableName.getTableName())
+                .orElseThrow(() -> new TableNotFoundException(tableName));
+
+        if (table.getPartitionColumns().isEmpty()) {
+            return new TableStatistics(getRowCount(table.getParameters()), ImmutableMap.of());
+        }
+
+        List<String> partitionNames = partitionManager.getPartitions(metastore, tableHandle, constraint).getPartitions().stream()
+                .map(HivePartition::getPartitionId)
+                .collect(toList());
+        if (partitionNames.isEmpty()) {
+            return new TableStatistics(Estimate.zeroValue(), ImmutableMap.of());
+        }
+
+        // the row count is only known if it was recorded for every matching partition
+        double rowCount = 0;
+        for (Optional<Partition> partition : metastore.getPartitionsByNames(tableName.getSchemaName(), tableName.getTableName(), partitionNames).values()) {
+            Estimate partitionRowCount = partition.map(value -> getRowCount(value.getParameters())).orElse(Estimate.unknownValue());
+            if (partitionRowCount.isValueUnknown()) {
+                return TableStatistics.EMPTY_STATISTICS;
+            }
+            rowCount += partitionRowCount.getValue();
+        }
+        return new TableStatistics(new Estimate(rowCount), ImmutableMap.of());
+    }
+
+    private static Estimate getRowCount(Map<String, String> parameters)
+    {
+        String rowCount = parameters.get(NUM_ROWS_PARAMETER);
+        if (rowCount == null) {
+            return Estimate.unknownValue();
+        }
+        try {
+            long value = Long.parseLong(rowCount);
+            // Hive stores -1 when the statistics were not gathered
+            return value < 0 ? Estimate.unknownValue() : new Estimate(value);
+        }
+        catch (NumberFormatException e) {
+            return Estimate.unknownValue();
+        }
+    }
+
     @Override
     public Optional<Object> getInfo(ConnectorTableLayoutHandle layoutHandle)
     {
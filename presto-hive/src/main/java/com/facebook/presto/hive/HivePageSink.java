@@ -21,6 +21,7 @@ import com.facebook.presto.spi.PageIndexerFactory;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
 import com.facebook.presto.spi.block.IntArrayBlockBuilder;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
@@ -182,7 +183,7 @@ public class HivePageSink
         }
 
         // Must be wrapped in doAs entirely
-        // Implicit FileSystem initializations are possible in HiveRecordWriter#addRow or #createWriter
+        // Implicit FileSystem initializations are possible in HiveFileWriter#appendRows or #createWriter
         return hdfsEnvironment.doAs(session.getUser(), () -> doAppend(page));
     }
 
@@ -190,11 +191,43 @@ public class HivePageSink
     {
         int[] writerIndexes = getWriterIndexes(page);
 
+        // position count for each writer
+        int[] sizes = new int[writers.size()];
+        for (int index : writerIndexes) {
+            sizes[index]++;
+        }
+
         Block[] dataBlocks = getDataBlocks(page);
+
+        // common case: all rows go to the same writer
+        if (sizes[writerIndexes[0]] == page.getPositionCount()) {
+            writers.get(writerIndexes[0]).append(new Page(page.getPositionCount(), dataBlocks));
+            return NOT_BLOCKED;
+        }
+
+        // positions for each writer
+        int[][] writerPositions = new int[writers.size()][];
+        int[] writerPositionCounts = new int[writers.size()];
         for (int position = 0; position < page.getPositionCount(); position++) {
             int writerIndex = writerIndexes[position];
-            HiveWriter writer = writers.get(writerIndex);
-            writer.addRow(dataBlocks, position);
+            if (writerPositions[writerIndex] == null) {
+                writerPositions[writerIndex] = new int[sizes[writerIndex]];
+            }
+            writerPositions[writerIndex][writerPositionCounts[writerIndex]] = position;
+            writerPositionCounts[writerIndex]++;
+        }
+
+        for (int writerIndex = 0; writerIndex < writerPositions.length; writerIndex++) {
+            int[] positions = writerPositions[writerIndex];
+            if (positions == null) {
+                continue;
+            }
+
+            Block[] blocks = new Block[dataBlocks.length];
+            for (int channel = 0; channel < dataBlocks.length; channel++) {
+                blocks[channel] = new DictionaryBlock(positions.length, dataBlocks[channel], positions);
+            }
+            writers.get(writerIndex).append(new Page(positions.length, blocks));
         }
 
         return NOT_BLOCKED;
@@ -456,5 +456,20 @@ public class HivePageSource
             // clear reference to loader to free resources, since load was successful
             block = null;
         }
+
+        @Override
+        public Block loadPositions(LazyBlock lazyBlock, int[] positions, int positionCount)
+        {
+            if (!(block instanceof LazyBlock)) {
+                return null;
+            }
+
+            Block selected = ((LazyBlock) block).loadPositions(positions, positionCount);
+            if (selected == null) {
+                return null;
+            }
+            // the inner block stays loadable, so this block can still be coerced in full
+            return coercer.apply(selected);
+        }
     }
 }
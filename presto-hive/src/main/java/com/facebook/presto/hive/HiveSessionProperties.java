@@ -33,11 +33,13 @@ public final class HiveSessionProperties
     private static final String ORC_MAX_MERGE_DISTANCE = "orc_max_merge_distance";
     private static final String ORC_MAX_BUFFER_SIZE = "orc_max_buffer_size";
     private static final String ORC_STREAM_BUFFER_SIZE = "orc_stream_buffer_size";
+    private static final String ORC_OPTIMIZED_WRITER_ENABLED = "orc_optimized_writer_enabled";
     private static final String PARQUET_PREDICATE_PUSHDOWN_ENABLED = "parquet_predicate_pushdown_enabled";
     private static final String PARQUET_OPTIMIZED_READER_ENABLED = "parquet_optimized_reader_enabled";
     private static final String MAX_SPLIT_SIZE = "max_split_size";
     private static final String MAX_INITIAL_SPLIT_SIZE = "max_initial_split_size";
     private static final String RCFILE_OPTIMIZED_READER_ENABLED = "rcfile_optimized_reader_enabled";
+    private static final String RCFILE_OPTIMIZED_WRITER_ENABLED = "rcfile_optimized_writer_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -75,6 +77,11 @@ public final class HiveSessionProperties
                         "ORC: Size of buffer for streaming reads",
                         config.getOrcStreamBufferSize(),
                         false),
+                booleanSessionProperty(
+                        ORC_OPTIMIZED_WRITER_ENABLED,
+                        "Experimental: ORC: Enable optimized writer",
+                        config.isOrcOptimizedWriterEnabled(),
+                        false),
                 booleanSessionProperty(
                         PARQUET_OPTIMIZED_READER_ENABLED,
                         "Experimental: Parquet: Enable optimized reader",
@@ -99,6 +106,11 @@ public final class HiveSessionProperties
                         RCFILE_OPTIMIZED_READER_ENABLED,
                         "Experimental: RCFile: Enable optimized reader",
                         config.isRcfileOptimizedReaderEnabled(),
+                        false),
+                booleanSessionProperty(
+                        RCFILE_OPTIMIZED_WRITER_ENABLED,
+                        "Experimental: RCFile: Enable optimized writer",
+                        config.isRcfileOptimizedWriterEnabled(),
                         false));
     }
 
@@ -142,6 +154,11 @@ public final class HiveSessionProperties
         return session.getProperty(ORC_STREAM_BUFFER_SIZE, DataSize.class);
     }
 
+    public static boolean isOrcOptimizedWriterEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_OPTIMIZED_WRITER_ENABLED, Boolean.class);
+    }
+
     public static boolean isParquetPredicatePushdownEnabled(ConnectorSession session)
     {
         return session.getProperty(PARQUET_PREDICATE_PUSHDOWN_ENABLED, Boolean.class);
@@ -162,6 +179,11 @@ public final class HiveSessionProperties
         return session.getProperty(RCFILE_OPTIMIZED_READER_ENABLED, Boolean.class);
     }
 
+    public static boolean isRcfileOptimizedWriterEnabled(ConnectorSession session)
+    {
+        return session.getProperty(RCFILE_OPTIMIZED_WRITER_ENABLED, Boolean.class);
+    }
+
     public static PropertyMetadata<DataSize> dataSizeSessionProperty(String name, String description, DataSize defaultValue, boolean hidden)
     {
         return new PropertyMetadata<>(
@@ -26,6 +26,7 @@ import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.common.FileUtils;
@@ -88,6 +89,7 @@ public class HiveWriterFactory
     private final String filePrefix;
 
     private final HivePageSinkMetadataProvider pageSinkMetadataProvider;
+    private final Set<HiveFileWriterFactory> fileWriterFactories;
     private final TypeManager typeManager;
     private final HdfsEnvironment hdfsEnvironment;
     private final JobConf conf;
@@ -110,6 +112,7 @@ public class HiveWriterFactory
             LocationService locationService,
             String filePrefix,
             HivePageSinkMetadataProvider pageSinkMetadataProvider,
+            Set<HiveFileWriterFactory> fileWriterFactories,
             TypeManager typeManager,
             HdfsEnvironment hdfsEnvironment,
             boolean immutablePartitions,
@@ -125,6 +128,7 @@ public class HiveWriterFactory
         this.filePrefix = requireNonNull(filePrefix, "filePrefix is null");
 
         this.pageSinkMetadataProvider = requireNonNull(pageSinkMetadataProvider, "pageSinkMetadataProvider is null");
+        this.fileWriterFactories = ImmutableSet.copyOf(requireNonNull(fileWriterFactories, "fileWriterFactories is null"));
 
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
 
@@ -314,16 +318,24 @@ public class HiveWriterFactory
         validateSchema(partitionName, schema);
 
         String fileNameWithExtension = fileName + getFileExtension(conf, outputStorageFormat);
-        HiveRecordWriter hiveRecordWriter = new HiveRecordWriter(
-                new Path(write, fileNameWithExtension),
-                dataColumns.stream()
-                        .map(DataColumn::getName)
-                        .collect(toList()),
-                outputStorageFormat,
-                schema,
-                typeManager,
-                conf);
-        return new HiveWriter(hiveRecordWriter, partitionName, isNew, fileNameWithExtension, write.toString(), target.toString());
+        Path path = new Path(write, fileNameWithExtension);
+        List<String> inputColumnNames = dataColumns.stream()
+                .map(DataColumn::getName)
+                .collect(toList());
+
+        HiveFileWriter fileWriter = null;
+        for (HiveFileWriterFactory fileWriterFactory : fileWriterFactories) {
+            Optional<HiveFileWriter> writer = fileWriterFactory.createFileWriter(path, inputColumnNames, outputStorageFormat, schema, conf, session);
+            if (writer.isPresent()) {
+                fileWriter = writer.get();
+                break;
+            }
+        }
+
+        if (fileWriter == null) {
+            fileWriter = new HiveRecordWriter(path, inputColumnNames, outputStorageFormat, schema, typeManager, conf);
+        }
+        return new HiveWriter(fileWriter, partitionName, isNew, fileNameWithExtension, write.toString(), target.toString());
     }
 
     private void validateSchema(Optional<String> partitionName, Properties schema)
@@ -0,0 +1,183 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.presto.hive.HdfsEnvironment;
+import com.facebook.presto.hive.HiveFileWriter;
+import com.facebook.presto.hive.HiveFileWriterFactory;
+import com.facebook.presto.hive.metastore.StorageFormat;
+import com.facebook.presto.orc.OrcWriter;
+import com.facebook.presto.orc.OrcWriterOptions;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.orc.OrcFile.OrcTableProperties;
+import org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat;
+import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
+import org.apache.hadoop.mapred.JobConf;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNSUPPORTED_FORMAT;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_OPEN_ERROR;
+import static com.facebook.presto.hive.HiveSessionProperties.isOrcOptimizedWriterEnabled;
+import static com.facebook.presto.hive.HiveType.toHiveTypes;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMNS;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMN_TYPES;
+
+public class OrcFileWriterFactory
+        implements HiveFileWriterFactory
+{
+    private final HdfsEnvironment hdfsEnvironment;
+    private final TypeManager typeManager;
+
+    @Inject
+    public OrcFileWriterFactory(HdfsEnvironment hdfsEnvironment, TypeManager typeManager)
+    {
+        this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
+    }
+
+    @Override
+    public Optional<HiveFileWriter> createFileWriter(
+            Path path,
+            List<String> inputColumnNames,
+            StorageFormat storageFormat,
+            Properties schema,
+            JobConf conf,
+            ConnectorSession session)
+    {
+        if (!isOrcOptimizedWriterEnabled(session)) {
+            return Optional.empty();
+        }
+
+        if (!OrcOutputFormat.class.getName().equals(storageFormat.getOutputFormat()) || !OrcSerde.class.getName().equals(storageFormat.getSerDe())) {
+            return Optional.empty();
+        }
+
+        Optional<CompressionKind> compression = getCompression(schema, conf);
+        if (!compression.isPresent()) {
+            return Optional.empty();
+        }
+
+        // existing tables may have columns in a different order
+        List<String> fileColumnNames = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(schema.getProperty(META_TABLE_COLUMNS, ""));
+        List<Type> fileColumnTypes = toHiveTypes(schema.getProperty(META_TABLE_COLUMN_TYPES, "")).stream()
+                .map(hiveType -> hiveType.getType(typeManager))
+                .collect(toList());
+
+        // types not supported by the native writer are written with the Hive writer
+        if (!fileColumnTypes.stream().allMatch(OrcWriter::isSupportedType)) {
+            return Optional.empty();
+        }
+
+        int[] fileInputColumnIndexes = fileColumnNames.stream()
+                .mapToInt(inputColumnNames::indexOf)
+                .toArray();
+
+        OrcWriterOptions options = new OrcWriterOptions()
+                .withBloomFilterColumns(getBloomFilterColumns(schema, conf));
+        String bloomFilterFpp = getProperty(schema, conf, OrcTableProperties.BLOOM_FILTER_FPP.getPropName());
+        if (bloomFilterFpp != null) {
+            options = options.withBloomFilterFpp(parseBloomFilterFpp(bloomFilterFpp));
+        }
+
+        try {
+            FileSystem fileSystem = hdfsEnvironment.getFileSystem(session.getUser(), path, conf);
+            OutputStream outputStream = fileSystem.create(path);
+            OrcWriter orcWriter = new OrcWriter(
+                    outputStream,
+                    fileColumnNames,
+                    fileColumnTypes,
+                    compression.get(),
+                    options,
+                    ImmutableMap.of());
+            return Optional.of(new OrcFileWriter(orcWriter, fileSystem, path, fileInputColumnIndexes));
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_WRITER_OPEN_ERROR, "Error creating ORC file", e);
+        }
+    }
+
+    private static Optional<CompressionKind> getCompression(Properties schema, JobConf conf)
+    {
+        String compressionName = getProperty(schema, conf, OrcTableProperties.COMPRESSION.getPropName());
+        if (compressionName == null) {
+            return Optional.of(CompressionKind.ZLIB);
+        }
+
+        switch (compressionName.toUpperCase(ENGLISH)) {
+            case "NONE":
+                return Optional.of(CompressionKind.UNCOMPRESSED);
+            case "ZLIB":
+                return Optional.of(CompressionKind.ZLIB);
+            case "SNAPPY":
+                return Optional.of(CompressionKind.SNAPPY);
+            case "LZO":
+                // not supported by the native writer
+                return Optional.empty();
+            default:
+                throw new PrestoException(HIVE_UNSUPPORTED_FORMAT, "Unknown ORC compression type " + compressionName);
+        }
+    }
+
+    private static Set<String> getBloomFilterColumns(Properties schema, JobConf conf)
+    {
+        String columns = getProperty(schema, conf, OrcTableProperties.BLOOM_FILTER_COLUMNS.getPropName());
+        if (columns == null) {
+            return ImmutableSet.of();
+        }
+        return ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(columns));
+    }
+
+    private static double parseBloomFilterFpp(String value)
+    {
+        try {
+            double fpp = Double.parseDouble(value);
+            if (fpp > 0.0 && fpp < 1.0) {
+                return fpp;
+            }
+        }
+        catch (NumberFormatException ignored) {
+        }
+        throw new PrestoException(HIVE_UNSUPPORTED_FORMAT, "Invalid ORC bloom filter false positive probability: " + value);
+    }
+
+    private static String getProperty(Properties schema, JobConf conf, String name)
+    {
+        // table properties take precedence over the session wide configuration
+        String value = schema.getProperty(name);
+        if (value == null) {
+            value = conf.get(name);
+        }
+        return value;
+    }
+}
@@ -59,13 +59,15 @@ public class OrcPageSource
     private boolean closed;
 
     private final AggregatedMemoryContext systemMemoryContext;
+    private final OrcPageSourceStats stats;
 
     public OrcPageSource(
             OrcRecordReader recordReader,
             OrcDataSource orcDataSource,
             List<HiveColumnHandle> columns,
             TypeManager typeManager,
-            AggregatedMemoryContext systemMemoryContext)
+            AggregatedMemoryContext systemMemoryContext,
+            OrcPageSourceStats stats)
     {
         this.recordReader = requireNonNull(recordReader, "recordReader is null");
         this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
@@ -101,6 +103,7 @@ public class OrcPageSource
         columnNames = namesBuilder.build();
 
         this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
+        this.stats = requireNonNull(stats, "stats is null");
     }
 
     @Override
@@ -169,6 +172,7 @@ public class OrcPageSource
         }
         closed = true;
 
+        stats.addPrunedRowGroups(recordReader.getPrunedRowGroupCount());
         try {
             recordReader.close();
         }
@@ -183,6 +187,7 @@ public class OrcPageSource
         return toStringHelper(this)
                 .add("columnNames", columnNames)
                 .add("types", types)
+                .add("prunedRowGroups", recordReader.getPrunedRowGroupCount())
                 .toString();
     }
 
@@ -213,6 +218,7 @@ public class OrcPageSource
         private final int columnIndex;
         private final Type type;
         private boolean loaded;
+        private boolean positionsLoaded;
 
         public OrcBlockLoader(int columnIndex, Type type)
         {
@@ -230,7 +236,14 @@ public class OrcPageSource
             checkState(batchId == expectedBatchId);
 
             try {
-                Block block = recordReader.readBlock(type, columnIndex);
+                Block block;
+                if (positionsLoaded) {
+                    // the column streams are past the batch, since the selected positions were read
+                    block = recordReader.rereadBlock(type, columnIndex);
+                }
+                else {
+                    block = recordReader.readBlock(type, columnIndex);
+                }
                 lazyBlock.setBlock(block);
             }
             catch (IOException e) {
@@ -242,5 +255,29 @@ public class OrcPageSource
 
             loaded = true;
         }
+
+        @Override
+        public Block loadPositions(LazyBlock lazyBlock, int[] positions, int positionCount)
+        {
+            checkState(!loaded);
+            checkState(batchId == expectedBatchId);
+
+            // the whole block must stay loadable, so only read the positions if the batch can be read again
+            if (positionsLoaded || !recordReader.canRereadBlock()) {
+                return null;
+            }
+
+            try {
+                Block block = recordReader.readBlock(type, columnIndex, positions, positionCount);
+                positionsLoaded = true;
+                return block;
+            }
+            catch (IOException e) {
+                if (e instanceof OrcCorruptionException) {
+                    throw new PrestoException(HIVE_BAD_DATA, e);
+                }
+                throw new PrestoException(HIVE_CURSOR_ERROR, e);
+            }
+        }
     }
 }
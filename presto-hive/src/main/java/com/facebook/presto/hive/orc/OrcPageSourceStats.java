@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import io.airlift.stats.CounterStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+public class OrcPageSourceStats
+{
+    private final CounterStat prunedRowGroups = new CounterStat();
+
+    public void addPrunedRowGroups(long count)
+    {
+        prunedRowGroups.update(count);
+    }
+
+    /**
+     * Row groups skipped because their statistics or bloom filters do not match the predicate.
+     */
+    @Managed
+    @Nested
+    public CounterStat getPrunedRowGroups()
+    {
+        return prunedRowGroups;
+    }
+}
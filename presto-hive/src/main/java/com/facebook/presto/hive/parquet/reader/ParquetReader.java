@@ -21,6 +21,7 @@ import com.facebook.presto.hive.parquet.memory.LocalMemoryContext;
 import com.facebook.presto.spi.block.ArrayBlock;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.InterleavedBlock;
+import com.facebook.presto.spi.block.MapBlock;
 import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.NamedTypeSignature;
 import com.facebook.presto.spi.type.Type;
@@ -203,14 +204,13 @@ public class ParquetReader
             }
             return RunLengthEncodedBlock.create(parameters.get(0), null, batchSize);
         }
-        InterleavedBlock interleavedBlock = new InterleavedBlock(new Block[] {blocks[0], blocks[1]});
         int[] offsets = new int[batchSize + 1];
         for (int i = 1; i < offsets.length; i++) {
-            int elementPositionCount = keyOffsets.getInt(i - 1) * 2;
-            elementOffsets.add(elementPositionCount);
-            offsets[i] = offsets[i - 1] + elementPositionCount;
+            int entryCount = keyOffsets.getInt(i - 1);
+            elementOffsets.add(entryCount * 2);
+            offsets[i] = offsets[i - 1] + entryCount;
         }
-        return new ArrayBlock(batchSize, new boolean[batchSize], offsets, interleavedBlock);
+        return new MapBlock(batchSize, new boolean[batchSize], offsets, blocks[0], blocks[1], parameters.get(0));
     }
 
     public Block readStruct(Type type, List<String> path)
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.rcfile;
+
+import com.facebook.presto.hive.HiveFileWriter;
+import com.facebook.presto.rcfile.RcFileWriter;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.Type;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_CLOSE_ERROR;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_DATA_ERROR;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+public class RcFileFileWriter
+        implements HiveFileWriter
+{
+    private final RcFileWriter rcFileWriter;
+    private final FileSystem fileSystem;
+    private final Path path;
+    private final int[] fileInputColumnIndexes;
+    private final Block[] nullBlocks;
+
+    /**
+     * @param fileInputColumnIndexes index of the input column for each file column, or -1 if the input does not contain the column
+     */
+    public RcFileFileWriter(RcFileWriter rcFileWriter, FileSystem fileSystem, Path path, int[] fileInputColumnIndexes)
+    {
+        this.rcFileWriter = requireNonNull(rcFileWriter, "rcFileWriter is null");
+        this.fileSystem = requireNonNull(fileSystem, "fileSystem is null");
+        this.path = requireNonNull(path, "path is null");
+        this.fileInputColumnIndexes = requireNonNull(fileInputColumnIndexes, "fileInputColumnIndexes is null");
+
+        this.nullBlocks = new Block[fileInputColumnIndexes.length];
+        for (int fileColumn = 0; fileColumn < fileInputColumnIndexes.length; fileColumn++) {
+            if (fileInputColumnIndexes[fileColumn] < 0) {
+                Type type = rcFileWriter.getTypes().get(fileColumn);
+                BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), 1, 0);
+                blockBuilder.appendNull();
+                nullBlocks[fileColumn] = blockBuilder.build();
+            }
+        }
+    }
+
+    @Override
+    public void appendRows(Page dataPage)
+    {
+        Block[] blocks = new Block[fileInputColumnIndexes.length];
+        for (int fileColumn = 0; fileColumn < fileInputColumnIndexes.length; fileColumn++) {
+            int inputColumnIndex = fileInputColumnIndexes[fileColumn];
+            if (inputColumnIndex < 0) {
+                blocks[fileColumn] = new RunLengthEncodedBlock(nullBlocks[fileColumn], dataPage.getPositionCount());
+            }
+            else {
+                blocks[fileColumn] = dataPage.getBlock(inputColumnIndex);
+            }
+        }
+
+        try {
+            rcFileWriter.write(new Page(dataPage.getPositionCount(), blocks));
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_WRITER_DATA_ERROR, e);
+        }
+    }
+
+    @Override
+    public void commit()
+    {
+        try {
+            rcFileWriter.close();
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_WRITER_CLOSE_ERROR, "Error committing write to Hive", e);
+        }
+    }
+
+    @Override
+    public void rollback()
+    {
+        try {
+            try {
+                rcFileWriter.close();
+            }
+            finally {
+                // the file may be partially written
+                fileSystem.delete(path, false);
+            }
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_WRITER_CLOSE_ERROR, "Error rolling back write to Hive", e);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("path", path)
+                .toString();
+    }
+}
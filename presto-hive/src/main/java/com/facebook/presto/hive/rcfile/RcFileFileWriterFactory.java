@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.rcfile;
+
+import com.facebook.presto.hive.HdfsEnvironment;
+import com.facebook.presto.hive.HiveClientConfig;
+import com.facebook.presto.hive.HiveFileWriter;
+import com.facebook.presto.hive.HiveFileWriterFactory;
+import com.facebook.presto.hive.metastore.StorageFormat;
+import com.facebook.presto.rcfile.AircompressorCodecFactory;
+import com.facebook.presto.rcfile.HadoopCodecFactory;
+import com.facebook.presto.rcfile.RcFileEncoding;
+import com.facebook.presto.rcfile.RcFileWriter;
+import com.facebook.presto.rcfile.binary.BinaryRcFileEncoding;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.io.RCFileOutputFormat;
+import org.apache.hadoop.hive.serde2.columnar.ColumnarSerDe;
+import org.apache.hadoop.hive.serde2.columnar.LazyBinaryColumnarSerDe;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.hadoop.mapred.JobConf;
+import org.joda.time.DateTimeZone;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_OPEN_ERROR;
+import static com.facebook.presto.hive.HiveSessionProperties.isRcfileOptimizedWriterEnabled;
+import static com.facebook.presto.hive.HiveType.toHiveTypes;
+import static com.facebook.presto.hive.rcfile.RcFilePageSourceFactory.createTextVectorEncoding;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static org.apache.hadoop.hive.conf.HiveConf.ConfVars.COMPRESSRESULT;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMNS;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMN_TYPES;
+
+public class RcFileFileWriterFactory
+        implements HiveFileWriterFactory
+{
+    private final HdfsEnvironment hdfsEnvironment;
+    private final TypeManager typeManager;
+    private final DateTimeZone hiveStorageTimeZone;
+
+    @Inject
+    public RcFileFileWriterFactory(HdfsEnvironment hdfsEnvironment, TypeManager typeManager, HiveClientConfig hiveClientConfig)
+    {
+        this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.hiveStorageTimeZone = requireNonNull(hiveClientConfig, "hiveClientConfig is null").getDateTimeZone();
+    }
+
+    @Override
+    public Optional<HiveFileWriter> createFileWriter(
+            Path path,
+            List<String> inputColumnNames,
+            StorageFormat storageFormat,
+            Properties schema,
+            JobConf conf,
+            ConnectorSession session)
+    {
+        if (!isRcfileOptimizedWriterEnabled(session)) {
+            return Optional.empty();
+        }
+
+        if (!RCFileOutputFormat.class.getName().equals(storageFormat.getOutputFormat())) {
+            return Optional.empty();
+        }
+
+        RcFileEncoding rcFileEncoding;
+        if (LazyBinaryColumnarSerDe.class.getName().equals(storageFormat.getSerDe())) {
+            rcFileEncoding = new BinaryRcFileEncoding();
+        }
+        else if (ColumnarSerDe.class.getName().equals(storageFormat.getSerDe())) {
+            rcFileEncoding = createTextVectorEncoding(schema, hiveStorageTimeZone);
+        }
+        else {
+            return Optional.empty();
+        }
+
+        // same codec selection as the Hive RCFile output format
+        Optional<String> codecName = Optional.empty();
+        if (HiveConf.getBoolVar(conf, COMPRESSRESULT)) {
+            codecName = Optional.of(conf.get("mapred.output.compression.codec", DefaultCodec.class.getName()));
+        }
+
+        // existing tables and partitions may have columns in a different order than the writer is providing, so build
+        // an index to rearrange columns in the proper order
+        List<String> fileColumnNames = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(schema.getProperty(META_TABLE_COLUMNS, ""));
+        List<Type> fileColumnTypes = toHiveTypes(schema.getProperty(META_TABLE_COLUMN_TYPES, "")).stream()
+                .map(hiveType -> hiveType.getType(typeManager))
+                .collect(toList());
+
+        int[] fileInputColumnIndexes = fileColumnNames.stream()
+                .mapToInt(inputColumnNames::indexOf)
+                .toArray();
+
+        try {
+            FileSystem fileSystem = hdfsEnvironment.getFileSystem(session.getUser(), path, conf);
+            OutputStream outputStream = fileSystem.create(path);
+            RcFileWriter rcFileWriter = new RcFileWriter(
+                    outputStream,
+                    fileColumnTypes,
+                    rcFileEncoding,
+                    codecName,
+                    new AircompressorCodecFactory(new HadoopCodecFactory(conf.getClassLoader())),
+                    ImmutableMap.of());
+            return Optional.of(new RcFileFileWriter(rcFileWriter, fileSystem, path, fileInputColumnIndexes));
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_WRITER_OPEN_ERROR, "Error creating RCFile file", e);
+        }
+    }
+}
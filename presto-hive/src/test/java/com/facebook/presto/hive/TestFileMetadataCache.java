@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.orc.OrcFileTail;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.Metadata;
+import com.facebook.presto.orc.metadata.StripeStatistics;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion.ORC_HIVE_8732;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.util.Collections.nCopies;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestFileMetadataCache
+{
+    private static final Path PATH = new Path("/tmp/test.orc");
+
+    @Test
+    public void testHitAndMiss()
+            throws Exception
+    {
+        FileMetadataCache cache = new FileMetadataCache(new DataSize(64, KILOBYTE));
+        AtomicInteger loads = new AtomicInteger();
+
+        OrcFileTail tail = cache.getOrcFileTail(fileStatus(PATH, 100, 1), () -> createFileTail(loads, 1, 1));
+        assertSame(cache.getOrcFileTail(fileStatus(PATH, 100, 1), () -> createFileTail(loads, 1, 1)), tail);
+        assertEquals(loads.get(), 1);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+
+        // a rewritten file must not be served the old footer
+        cache.getOrcFileTail(fileStatus(PATH, 100, 2), () -> createFileTail(loads, 1, 1));
+        cache.getOrcFileTail(fileStatus(PATH, 200, 2), () -> createFileTail(loads, 1, 1));
+        assertEquals(loads.get(), 3);
+        assertEquals(cache.getMissCount(), 3);
+    }
+
+    @Test
+    public void testEviction()
+            throws Exception
+    {
+        FileMetadataCache cache = new FileMetadataCache(new DataSize(64, KILOBYTE));
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            cache.getOrcFileTail(fileStatus(new Path("/tmp/test" + i + ".orc"), 1000, 1), () -> createFileTail(loads, 10, 10));
+        }
+        assertEquals(loads.get(), 10);
+        assertTrue(cache.getEvictionCount() >= 8);
+        assertTrue(cache.getSize() <= 2);
+    }
+
+    @Test
+    public void testWeighsDecodedTail()
+            throws Exception
+    {
+        FileMetadataCache cache = new FileMetadataCache(new DataSize(64, KILOBYTE));
+        AtomicInteger loads = new AtomicInteger();
+
+        // the statistics of many stripes and columns are much larger on the heap than in the file
+        cache.getOrcFileTail(fileStatus(PATH, 100, 1), () -> createFileTail(loads, 100, 10));
+        assertEquals(cache.getSize(), 0);
+        assertEquals(cache.getEvictionCount(), 1);
+
+        cache.getOrcFileTail(fileStatus(PATH, 100, 2), () -> createFileTail(loads, 1, 1));
+        assertEquals(cache.getSize(), 1);
+    }
+
+    @Test
+    public void testDisabled()
+            throws Exception
+    {
+        FileMetadataCache cache = new FileMetadataCache(new DataSize(0, BYTE));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrcFileTail(fileStatus(PATH, 100, 1), () -> createFileTail(loads, 1, 1));
+        cache.getOrcFileTail(fileStatus(PATH, 100, 1), () -> createFileTail(loads, 1, 1));
+        assertEquals(loads.get(), 2);
+        assertEquals(cache.getSize(), 0);
+    }
+
+    @Test
+    public void testLoadFailure()
+            throws Exception
+    {
+        FileMetadataCache cache = new FileMetadataCache(new DataSize(64, KILOBYTE));
+        try {
+            cache.getOrcFileTail(fileStatus(PATH, 100, 1), () -> {
+                throw new IOException("read failed");
+            });
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertEquals(e.getMessage(), "read failed");
+        }
+
+        // failures are not cached
+        AtomicInteger loads = new AtomicInteger();
+        cache.getOrcFileTail(fileStatus(PATH, 100, 1), () -> createFileTail(loads, 1, 1));
+        assertEquals(loads.get(), 1);
+    }
+
+    private static FileStatus fileStatus(Path path, long length, long modificationTime)
+    {
+        return new FileStatus(length, false, 1, 64 * 1024 * 1024, modificationTime, path);
+    }
+
+    private static OrcFileTail createFileTail(AtomicInteger loads, int stripeCount, int columnCount)
+    {
+        loads.incrementAndGet();
+        ColumnStatistics columnStatistics = new ColumnStatistics(10_000L, null, null, null, null, null, null, null);
+        Metadata metadata = new Metadata(nCopies(stripeCount, new StripeStatistics(nCopies(columnCount, columnStatistics))));
+        Footer footer = new Footer(0, 10_000, ImmutableList.of(), ImmutableList.of(), ImmutableList.of(), ImmutableMap.of());
+        return new OrcFileTail(UNCOMPRESSED, ORC_HIVE_8732, 256 * 1024, footer, metadata);
+    }
+}
@@ -73,10 +73,13 @@ public class TestHiveClientConfig
                 .setParquetOptimizedReaderEnabled(false)
                 .setAssumeCanonicalPartitionKeys(false)
                 .setOrcBloomFiltersEnabled(false)
+                .setOrcOptimizedWriterEnabled(false)
                 .setOrcMaxMergeDistance(new DataSize(1, Unit.MEGABYTE))
                 .setOrcMaxBufferSize(new DataSize(8, Unit.MEGABYTE))
                 .setOrcStreamBufferSize(new DataSize(8, Unit.MEGABYTE))
                 .setRcfileOptimizedReaderEnabled(false)
+                .setRcfileOptimizedWriterEnabled(false)
+                .setFileMetadataCacheMaxSize(new DataSize(64, Unit.MEGABYTE))
                 .setHiveMetastoreAuthenticationType(HiveClientConfig.HiveMetastoreAuthenticationType.NONE)
                 .setHiveMetastoreServicePrincipal(null)
                 .setHiveMetastoreClientPrincipal(null)
@@ -134,10 +137,13 @@ public class TestHiveClientConfig
                 .put("hive.parquet-predicate-pushdown.enabled", "true")
                 .put("hive.parquet-optimized-reader.enabled", "true")
                 .put("hive.orc.bloom-filters.enabled", "true")
+                .put("hive.orc.optimized-writer.enabled", "true")
                 .put("hive.orc.max-merge-distance", "22kB")
                 .put("hive.orc.max-buffer-size", "44kB")
                 .put("hive.orc.stream-buffer-size", "55kB")
                 .put("hive.rcfile-optimized-reader.enabled", "true")
+                .put("hive.rcfile-optimized-writer.enabled", "true")
+                .put("hive.file-metadata-cache.max-size", "16MB")
                 .put("hive.metastore.authentication.type", "KERBEROS")
                 .put("hive.metastore.service.principal", "hive/_HOST@EXAMPLE.COM")
                 .put("hive.metastore.client.principal", "metastore@EXAMPLE.COM")
@@ -192,10 +198,13 @@ public class TestHiveClientConfig
                 .setParquetOptimizedReaderEnabled(true)
                 .setAssumeCanonicalPartitionKeys(true)
                 .setOrcBloomFiltersEnabled(true)
+                .setOrcOptimizedWriterEnabled(true)
                 .setOrcMaxMergeDistance(new DataSize(22, Unit.KILOBYTE))
                 .setOrcMaxBufferSize(new DataSize(44, Unit.KILOBYTE))
                 .setOrcStreamBufferSize(new DataSize(55, Unit.KILOBYTE))
                 .setRcfileOptimizedReaderEnabled(true)
+                .setRcfileOptimizedWriterEnabled(true)
+                .setFileMetadataCacheMaxSize(new DataSize(16, Unit.MEGABYTE))
                 .setHiveMetastoreAuthenticationType(HiveClientConfig.HiveMetastoreAuthenticationType.KERBEROS)
                 .setHiveMetastoreServicePrincipal("hive/_HOST@EXAMPLE.COM")
                 .setHiveMetastoreClientPrincipal("metastore@EXAMPLE.COM")
@@ -57,6 +57,7 @@ import static com.facebook.presto.hive.HiveCompressionCodec.NONE;
 import static com.facebook.presto.hive.HiveTestUtils.TYPE_MANAGER;
 import static com.facebook.presto.hive.HiveTestUtils.createTestHdfsEnvironment;
 import static com.facebook.presto.hive.HiveTestUtils.getDefaultHiveDataStreamFactories;
+import static com.facebook.presto.hive.HiveTestUtils.getDefaultHiveFileWriterFactories;
 import static com.facebook.presto.hive.HiveTestUtils.getDefaultHiveRecordCursorProvider;
 import static com.facebook.presto.hive.HiveType.HIVE_DATE;
 import static com.facebook.presto.hive.HiveType.HIVE_DOUBLE;
@@ -114,6 +115,50 @@ public class TestHivePageSink
         }
     }
 
+    @Test
+    public void testOptimizedOrcWriter()
+            throws Exception
+    {
+        HiveClientConfig config = new HiveClientConfig()
+                .setHiveStorageFormat(HiveStorageFormat.ORC)
+                .setOrcOptimizedWriterEnabled(true);
+        File tempDir = Files.createTempDir();
+        try {
+            ExtendedHiveMetastore metastore = new TestingHiveMetastore(new File(tempDir, "metastore"));
+            for (HiveCompressionCodec codec : HiveCompressionCodec.values()) {
+                config.setHiveCompressionCodec(codec);
+                long length = writeTestFile(config, metastore, makeFileName(tempDir, config));
+                assertGreaterThan(length, 0L);
+            }
+        }
+        finally {
+            FileUtils.deleteRecursively(tempDir);
+        }
+    }
+
+    @Test
+    public void testOptimizedRcFileWriter()
+            throws Exception
+    {
+        HiveClientConfig config = new HiveClientConfig()
+                .setRcfileOptimizedWriterEnabled(true);
+        File tempDir = Files.createTempDir();
+        try {
+            ExtendedHiveMetastore metastore = new TestingHiveMetastore(new File(tempDir, "metastore"));
+            for (HiveStorageFormat format : ImmutableList.of(HiveStorageFormat.RCBINARY, HiveStorageFormat.RCTEXT)) {
+                config.setHiveStorageFormat(format);
+                for (HiveCompressionCodec codec : HiveCompressionCodec.values()) {
+                    config.setHiveCompressionCodec(codec);
+                    long length = writeTestFile(config, metastore, makeFileName(tempDir, config));
+                    assertGreaterThan(length, 0L);
+                }
+            }
+        }
+        finally {
+            FileUtils.deleteRecursively(tempDir);
+        }
+    }
+
     private static String makeFileName(File tempDir, HiveClientConfig config)
     {
         return tempDir.getAbsolutePath() + "/" + config.getHiveStorageFormat().name() + "." + config.getHiveCompressionCodec().name();
@@ -228,7 +273,7 @@ public class TestHivePageSink
                 ImmutableMap.of());
         JsonCodec<PartitionUpdate> partitionUpdateCodec = JsonCodec.jsonCodec(PartitionUpdate.class);
         HdfsEnvironment hdfsEnvironment = createTestHdfsEnvironment(config);
-        HivePageSinkProvider provider = new HivePageSinkProvider(hdfsEnvironment, metastore, new GroupByHashPageIndexerFactory(new JoinCompiler()), TYPE_MANAGER, config, new HiveLocationService(hdfsEnvironment), partitionUpdateCodec);
+        HivePageSinkProvider provider = new HivePageSinkProvider(getDefaultHiveFileWriterFactories(config), hdfsEnvironment, metastore, new GroupByHashPageIndexerFactory(new JoinCompiler()), TYPE_MANAGER, config, new HiveLocationService(hdfsEnvironment), partitionUpdateCodec);
         return provider.createPageSink(transaction, getSession(config), handle);
     }
 
@@ -15,6 +15,7 @@ package com.facebook.presto;
 
 import com.facebook.presto.execution.QueryManagerConfig;
 import com.facebook.presto.execution.TaskManagerConfig;
+import com.facebook.presto.execution.buffer.PageCompression;
 import com.facebook.presto.memory.MemoryManagerConfig;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.StandardErrorCode;
@@ -26,15 +27,18 @@ import io.airlift.units.Duration;
 
 import javax.inject.Inject;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static com.facebook.presto.spi.session.PropertyMetadata.booleanSessionProperty;
+import static com.facebook.presto.spi.session.PropertyMetadata.doubleSessionProperty;
 import static com.facebook.presto.spi.session.PropertyMetadata.integerSessionProperty;
 import static com.facebook.presto.spi.session.PropertyMetadata.stringSessionProperty;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
 
 public final class SystemSessionProperties
 {
@@ -69,6 +73,17 @@ public final class SystemSessionProperties
     public static final String REORDER_WINDOWS = "reorder_windows";
     public static final String ITERATIVE_OPTIMIZER = "iterative_optimizer_enabled";
     public static final String EXCHANGE_COMPRESSION = "exchange_compression";
+    public static final String EXCHANGE_COMPRESSION_CODEC = "exchange_compression_codec";
+    public static final String EXCHANGE_COMPRESSION_ADAPTIVE = "exchange_compression_adaptive";
+    public static final String DYNAMIC_FILTERING = "dynamic_filtering_enabled";
+    public static final String COST_BASED_JOIN = "cost_based_join_enabled";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION = "adaptive_partial_aggregation_enabled";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD = "adaptive_partial_aggregation_unique_rows_ratio_threshold";
+    public static final String AUTOMATIC_JOIN_DISTRIBUTION = "automatic_join_distribution_enabled";
+    public static final String JOIN_MAX_BROADCAST_TABLE_SIZE = "join_max_broadcast_table_size";
+    public static final String DIRECT_RESULT_STREAMING = "direct_result_streaming";
+    public static final String OPEN_ADDRESSING_JOIN_HASH = "open_addressing_join_hash_enabled";
+    public static final String PARALLEL_HASH_BUILD = "parallel_hash_build_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -283,6 +298,79 @@ public final class SystemSessionProperties
                         EXCHANGE_COMPRESSION,
                         "Enable compression in exchanges",
                         featuresConfig.isExchangeCompressionEnabled(),
+                        false),
+                new PropertyMetadata<>(
+                        EXCHANGE_COMPRESSION_CODEC,
+                        "Codec used to compress pages in exchanges, when exchange compression is enabled",
+                        VARCHAR,
+                        PageCompression.class,
+                        featuresConfig.getExchangeCompressionCodec(),
+                        false,
+                        value -> {
+                            String codec = ((String) value).toUpperCase(ENGLISH);
+                            try {
+                                return PageCompression.valueOf(codec);
+                            }
+                            catch (IllegalArgumentException e) {
+                                throw new PrestoException(
+                                        StandardErrorCode.INVALID_SESSION_PROPERTY,
+                                        format("%s must be one of %s: %s", EXCHANGE_COMPRESSION_CODEC, Arrays.toString(PageCompression.values()), value));
+                            }
+                        },
+                        PageCompression::name),
+                booleanSessionProperty(
+                        EXCHANGE_COMPRESSION_ADAPTIVE,
+                        "Send pages uncompressed for a while after pages that do not compress well",
+                        featuresConfig.isExchangeCompressionAdaptive(),
+                        false),
+                booleanSessionProperty(
+                        DYNAMIC_FILTERING,
+                        "Experimental: Prune probe side table scans using the join keys of the build side",
+                        featuresConfig.isDynamicFilteringEnabled(),
+                        false),
+                booleanSessionProperty(
+                        COST_BASED_JOIN,
+                        "Experimental: Use table statistics to choose the join order",
+                        featuresConfig.isCostBasedJoinEnabled(),
+                        false),
+                booleanSessionProperty(
+                        AUTOMATIC_JOIN_DISTRIBUTION,
+                        "Choose between broadcast and partitioned distribution per join using the estimated table sizes",
+                        featuresConfig.isAutomaticJoinDistributionEnabled(),
+                        false),
+                new PropertyMetadata<>(
+                        JOIN_MAX_BROADCAST_TABLE_SIZE,
+                        "Maximum estimated size of the build side of a broadcast join, when the join distribution is chosen based on table statistics",
+                        VARCHAR,
+                        DataSize.class,
+                        featuresConfig.getJoinMaxBroadcastTableSize(),
+                        false,
+                        value -> DataSize.valueOf((String) value),
+                        DataSize::toString),
+                booleanSessionProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION,
+                        "Stop partial aggregation when it does not reduce the number of rows",
+                        featuresConfig.isAdaptivePartialAggregationEnabled(),
+                        false),
+                doubleSessionProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD,
+                        "Ratio of groups to input rows above which partial aggregation passes rows through",
+                        featuresConfig.getAdaptivePartialAggregationUniqueRowsRatioThreshold(),
+                        false),
+                booleanSessionProperty(
+                        DIRECT_RESULT_STREAMING,
+                        "Distribute the output stage and let clients read results directly from its tasks",
+                        featuresConfig.isDirectResultStreamingEnabled(),
+                        false),
+                booleanSessionProperty(
+                        OPEN_ADDRESSING_JOIN_HASH,
+                        "Experimental: Build join hash tables which keep the key hashes inline with the row addresses",
+                        featuresConfig.isOpenAddressingJoinHashEnabled(),
+                        false),
+                booleanSessionProperty(
+                        PARALLEL_HASH_BUILD,
+                        "Experimental: Build large join hash tables using multiple threads",
+                        featuresConfig.isParallelHashBuildEnabled(),
                         false));
     }
 
@@ -449,4 +537,68 @@ public final class SystemSessionProperties
     {
         return session.getSystemProperty(EXCHANGE_COMPRESSION, Boolean.class);
     }
+
+    /**
+     * Returns the codec for pages sent through exchanges, which is
+     * {@code UNCOMPRESSED} unless exchange compression is enabled.
+     */
+    public static PageCompression getExchangeCompression(Session session)
+    {
+        if (!isExchangeCompressionEnabled(session)) {
+            return PageCompression.UNCOMPRESSED;
+        }
+        return session.getSystemProperty(EXCHANGE_COMPRESSION_CODEC, PageCompression.class);
+    }
+
+    public static boolean isExchangeCompressionAdaptive(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_COMPRESSION_ADAPTIVE, Boolean.class);
+    }
+
+    public static boolean isDynamicFilteringEnabled(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING, Boolean.class);
+    }
+
+    public static boolean isCostBasedJoinEnabled(Session session)
+    {
+        return session.getSystemProperty(COST_BASED_JOIN, Boolean.class);
+    }
+
+    public static boolean isAutomaticJoinDistributionEnabled(Session session)
+    {
+        return session.getSystemProperty(AUTOMATIC_JOIN_DISTRIBUTION, Boolean.class);
+    }
+
+    public static DataSize getJoinMaxBroadcastTableSize(Session session)
+    {
+        return session.getSystemProperty(JOIN_MAX_BROADCAST_TABLE_SIZE, DataSize.class);
+    }
+
+    public static boolean isAdaptivePartialAggregationEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION, Boolean.class);
+    }
+
+    public static double getAdaptivePartialAggregationUniqueRowsRatioThreshold(Session session)
+    {
+        double threshold = session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD, Double.class);
+        checkArgument(threshold >= 0 && threshold <= 1, "%s must be between 0 and 1", ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD);
+        return threshold;
+    }
+
+    public static boolean isDirectResultStreaming(Session session)
+    {
+        return session.getSystemProperty(DIRECT_RESULT_STREAMING, Boolean.class);
+    }
+
+    public static boolean isOpenAddressingJoinHashEnabled(Session session)
+    {
+        return session.getSystemProperty(OPEN_ADDRESSING_JOIN_HASH, Boolean.class);
+    }
+
+    public static boolean isParallelHashBuildEnabled(Session session)
+    {
+        return session.getSystemProperty(PARALLEL_HASH_BUILD, Boolean.class);
+    }
 }
@@ -0,0 +1,269 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.Constraint;
+import com.facebook.presto.spi.statistics.ColumnStatistics;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.statistics.TableStatistics;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.AggregationNode;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.LimitNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanVisitor;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.SemiJoinNode;
+import com.facebook.presto.sql.planner.plan.SortNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.SymbolReference;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Estimates the number of rows produced by a plan, based on the table
+ * statistics provided by the connectors.
+ */
+public class StatsCalculator
+{
+    // selectivity assumed for any filter, as predicates are not analyzed yet
+    private static final double FILTER_SELECTIVITY = 0.5;
+
+    private final Metadata metadata;
+
+    public StatsCalculator(Metadata metadata)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+    }
+
+    public PlanNodeStatsEstimate calculateStats(PlanNode node, Session session)
+    {
+        return node.accept(new Visitor(session), null);
+    }
+
+    private class Visitor
+            extends PlanVisitor<Void, PlanNodeStatsEstimate>
+    {
+        private final Session session;
+
+        public Visitor(Session session)
+        {
+            this.session = requireNonNull(session, "session is null");
+        }
+
+        @Override
+        protected PlanNodeStatsEstimate visitPlan(PlanNode node, Void context)
+        {
+            return PlanNodeStatsEstimate.UNKNOWN_STATS;
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitTableScan(TableScanNode node, Void context)
+        {
+            Constraint<ColumnHandle> constraint = new Constraint<>(node.getCurrentConstraint(), bindings -> true);
+            TableStatistics tableStatistics = metadata.getTableStatistics(session, node.getTable(), constraint);
+
+            Map<Symbol, Estimate> distinctValuesCounts = new HashMap<>();
+            for (Map.Entry<Symbol, ColumnHandle> entry : node.getAssignments().entrySet()) {
+                ColumnStatistics columnStatistics = tableStatistics.getColumnStatistics().get(entry.getValue());
+                if (columnStatistics != null) {
+                    distinctValuesCounts.put(entry.getKey(), columnStatistics.getDistinctValuesCount());
+                }
+            }
+            return new PlanNodeStatsEstimate(tableStatistics.getRowCount(), distinctValuesCounts);
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitValues(ValuesNode node, Void context)
+        {
+            return new PlanNodeStatsEstimate(new Estimate(node.getRows().size()), ImmutableMap.of());
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitFilter(FilterNode node, Void context)
+        {
+            PlanNodeStatsEstimate sourceStats = node.getSource().accept(this, context);
+            return withOutputRowCount(sourceStats.getDistinctValuesCounts(), sourceStats.getOutputRowCount().map(rowCount -> rowCount * FILTER_SELECTIVITY));
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitProject(ProjectNode node, Void context)
+        {
+            PlanNodeStatsEstimate sourceStats = node.getSource().accept(this, context);
+
+            Map<Symbol, Estimate> distinctValuesCounts = new HashMap<>();
+            for (Map.Entry<Symbol, Expression> entry : node.getAssignments().entrySet()) {
+                if (entry.getValue() instanceof SymbolReference) {
+                    Estimate distinctValuesCount = sourceStats.getDistinctValuesCount(Symbol.from(entry.getValue()));
+                    if (!distinctValuesCount.isValueUnknown()) {
+                        distinctValuesCounts.put(entry.getKey(), distinctValuesCount);
+                    }
+                }
+            }
+            return new PlanNodeStatsEstimate(sourceStats.getOutputRowCount(), distinctValuesCounts);
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitExchange(ExchangeNode node, Void context)
+        {
+            double rowCount = 0;
+            Map<Symbol, Estimate> distinctValuesCounts = new HashMap<>();
+            for (int i = 0; i < node.getSources().size(); i++) {
+                PlanNodeStatsEstimate sourceStats = node.getSources().get(i).accept(this, context);
+                if (sourceStats.getOutputRowCount().isValueUnknown()) {
+                    return PlanNodeStatsEstimate.UNKNOWN_STATS;
+                }
+                rowCount += sourceStats.getOutputRowCount().getValue();
+
+                // distinct values of different sources may overlap, so they are only known for a single source
+                if (node.getSources().size() == 1) {
+                    List<Symbol> inputs = node.getInputs().get(i);
+                    for (int symbol = 0; symbol < inputs.size(); symbol++) {
+                        distinctValuesCounts.put(node.getOutputSymbols().get(symbol), sourceStats.getDistinctValuesCount(inputs.get(symbol)));
+                    }
+                }
+            }
+            return new PlanNodeStatsEstimate(new Estimate(rowCount), distinctValuesCounts);
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitSort(SortNode node, Void context)
+        {
+            return node.getSource().accept(this, context);
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitLimit(LimitNode node, Void context)
+        {
+            PlanNodeStatsEstimate sourceStats = node.getSource().accept(this, context);
+            Estimate rowCount = sourceStats.getOutputRowCount();
+            if (rowCount.isValueUnknown() || rowCount.getValue() > node.getCount()) {
+                rowCount = new Estimate(node.getCount());
+            }
+            return withOutputRowCount(sourceStats.getDistinctValuesCounts(), rowCount);
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitAggregation(AggregationNode node, Void context)
+        {
+            PlanNodeStatsEstimate sourceStats = node.getSource().accept(this, context);
+            if (node.getGroupingSets().size() != 1) {
+                return PlanNodeStatsEstimate.UNKNOWN_STATS;
+            }
+            if (node.getGroupingKeys().isEmpty()) {
+                return new PlanNodeStatsEstimate(new Estimate(1), ImmutableMap.of());
+            }
+
+            // there can be no more groups than the product of the distinct values counts of the keys
+            double groupCount = 1;
+            for (Symbol groupingKey : node.getGroupingKeys()) {
+                Estimate distinctValuesCount = sourceStats.getDistinctValuesCount(groupingKey);
+                if (distinctValuesCount.isValueUnknown()) {
+                    return PlanNodeStatsEstimate.UNKNOWN_STATS;
+                }
+                groupCount *= distinctValuesCount.getValue();
+            }
+            double maxGroupCount = groupCount;
+            return withOutputRowCount(sourceStats.getDistinctValuesCounts(), sourceStats.getOutputRowCount().map(rowCount -> Math.min(rowCount, maxGroupCount)));
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitSemiJoin(SemiJoinNode node, Void context)
+        {
+            return node.getSource().accept(this, context);
+        }
+
+        @Override
+        public PlanNodeStatsEstimate visitJoin(JoinNode node, Void context)
+        {
+            PlanNodeStatsEstimate leftStats = node.getLeft().accept(this, context);
+            PlanNodeStatsEstimate rightStats = node.getRight().accept(this, context);
+            if (leftStats.getOutputRowCount().isValueUnknown() || rightStats.getOutputRowCount().isValueUnknown()) {
+                return PlanNodeStatsEstimate.UNKNOWN_STATS;
+            }
+            double leftRowCount = leftStats.getOutputRowCount().getValue();
+            double rightRowCount = rightStats.getOutputRowCount().getValue();
+
+            double innerRowCount;
+            if (node.getCriteria().isEmpty()) {
+                innerRowCount = leftRowCount * rightRowCount;
+            }
+            else {
+                // Every equi-join clause limits the output by the larger of the distinct values counts of its sides.
+                // Without any distinct values count, assume a join of a foreign key with a unique key.
+                double maxDistinctValuesCount = 0;
+                for (JoinNode.EquiJoinClause clause : node.getCriteria()) {
+                    maxDistinctValuesCount = Math.max(maxDistinctValuesCount, knownValueOrZero(leftStats.getDistinctValuesCount(clause.getLeft())));
+                    maxDistinctValuesCount = Math.max(maxDistinctValuesCount, knownValueOrZero(rightStats.getDistinctValuesCount(clause.getRight())));
+                }
+                if (maxDistinctValuesCount > 0) {
+                    innerRowCount = leftRowCount * rightRowCount / maxDistinctValuesCount;
+                }
+                else {
+                    innerRowCount = Math.max(leftRowCount, rightRowCount);
+                }
+            }
+
+            double rowCount;
+            switch (node.getType()) {
+                case INNER:
+                    rowCount = innerRowCount;
+                    break;
+                case LEFT:
+                    rowCount = Math.max(innerRowCount, leftRowCount);
+                    break;
+                case RIGHT:
+                    rowCount = Math.max(innerRowCount, rightRowCount);
+                    break;
+                case FULL:
+                    rowCount = Math.max(innerRowCount, leftRowCount + rightRowCount);
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unsupported join type: " + node.getType());
+            }
+
+            Map<Symbol, Estimate> distinctValuesCounts = new HashMap<>();
+            distinctValuesCounts.putAll(leftStats.getDistinctValuesCounts());
+            distinctValuesCounts.putAll(rightStats.getDistinctValuesCounts());
+            return withOutputRowCount(distinctValuesCounts, new Estimate(rowCount));
+        }
+    }
+
+    private static double knownValueOrZero(Estimate estimate)
+    {
+        return estimate.isValueUnknown() ? 0 : estimate.getValue();
+    }
+
+    private static PlanNodeStatsEstimate withOutputRowCount(Map<Symbol, Estimate> sourceDistinctValuesCounts, Estimate rowCount)
+    {
+        // a node can not produce more distinct values than rows
+        Map<Symbol, Estimate> distinctValuesCounts = new HashMap<>();
+        for (Map.Entry<Symbol, Estimate> entry : sourceDistinctValuesCounts.entrySet()) {
+            distinctValuesCounts.put(entry.getKey(), entry.getValue().map(value -> rowCount.isValueUnknown() ? value : Math.min(value, rowCount.getValue())));
+        }
+        return new PlanNodeStatsEstimate(rowCount, distinctValuesCounts);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.memory.LocalMemoryManager;
+import com.facebook.presto.memory.MemoryPool;
+import com.facebook.presto.memory.QueryContext;
+import com.facebook.presto.operator.OperatorContext;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Asks operators to release their revocable memory (e.g. by spilling), when a memory pool
+ * is filled above the revoking threshold. Operators holding the most revocable memory are
+ * asked first, until enough memory is being revoked to get the pool back to the revoking target.
+ */
+public class MemoryRevokingScheduler
+{
+    private static final Logger log = Logger.get(MemoryRevokingScheduler.class);
+
+    private final List<MemoryPool> memoryPools;
+    private final Supplier<? extends Collection<QueryContext>> queryContextsSupplier;
+    private final ScheduledExecutorService executor;
+    private final double memoryRevokingThreshold;
+    private final double memoryRevokingTarget;
+
+    private final Consumer<MemoryPool> memoryPoolListener = this::onMemoryReserved;
+    private final AtomicBoolean checkPending = new AtomicBoolean();
+
+    @Inject
+    public MemoryRevokingScheduler(LocalMemoryManager localMemoryManager, SqlTaskManager sqlTaskManager, FeaturesConfig config)
+    {
+        this(
+                requireNonNull(localMemoryManager, "localMemoryManager is null").getPools(),
+                requireNonNull(sqlTaskManager, "sqlTaskManager is null")::getQueryContexts,
+                newSingleThreadScheduledExecutor(daemonThreadsNamed("memory-revoking-%s")),
+                requireNonNull(config, "config is null").getMemoryRevokingThreshold(),
+                config.getMemoryRevokingTarget());
+    }
+
+    @VisibleForTesting
+    MemoryRevokingScheduler(
+            List<MemoryPool> memoryPools,
+            Supplier<? extends Collection<QueryContext>> queryContextsSupplier,
+            ScheduledExecutorService executor,
+            double memoryRevokingThreshold,
+            double memoryRevokingTarget)
+    {
+        this.memoryPools = ImmutableList.copyOf(requireNonNull(memoryPools, "memoryPools is null"));
+        this.queryContextsSupplier = requireNonNull(queryContextsSupplier, "queryContextsSupplier is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        checkArgument(memoryRevokingTarget <= memoryRevokingThreshold, "memoryRevokingTarget must not be above memoryRevokingThreshold");
+        this.memoryRevokingThreshold = memoryRevokingThreshold;
+        this.memoryRevokingTarget = memoryRevokingTarget;
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        // reservations trigger a check as soon as a pool crosses the threshold, the periodic check
+        // catches up with operators which did not release enough memory the first time
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                requestMemoryRevokingIfNeeded();
+            }
+            catch (Throwable e) {
+                log.warn(e, "Error requesting memory revoking");
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+
+        memoryPools.forEach(memoryPool -> memoryPool.addListener(memoryPoolListener));
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        memoryPools.forEach(memoryPool -> memoryPool.removeListener(memoryPoolListener));
+        executor.shutdownNow();
+    }
+
+    private void onMemoryReserved(MemoryPool memoryPool)
+    {
+        if (!memoryRevokingNeeded(memoryPool) || !checkPending.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            checkPending.set(false);
+            try {
+                requestMemoryRevokingIfNeeded();
+            }
+            catch (Throwable e) {
+                log.warn(e, "Error requesting memory revoking");
+            }
+        });
+    }
+
+    @VisibleForTesting
+    synchronized void requestMemoryRevokingIfNeeded()
+    {
+        for (MemoryPool memoryPool : memoryPools) {
+            if (memoryRevokingNeeded(memoryPool)) {
+                requestMemoryRevoking(memoryPool);
+            }
+        }
+    }
+
+    private boolean memoryRevokingNeeded(MemoryPool memoryPool)
+    {
+        return memoryPool.getReservedRevocableBytes() > 0
+                && memoryPool.getFreeBytes() <= memoryPool.getMaxBytes() * (1.0 - memoryRevokingThreshold);
+    }
+
+    private void requestMemoryRevoking(MemoryPool memoryPool)
+    {
+        long remainingBytesToRevoke = (long) (-memoryPool.getFreeBytes() + memoryPool.getMaxBytes() * (1.0 - memoryRevokingTarget));
+
+        // snapshot the reservations, as they keep changing while the operators run
+        Map<OperatorContext, Long> revocableBytes = queryContextsSupplier.get().stream()
+                .filter(queryContext -> queryContext.getMemoryPool() == memoryPool)
+                .flatMap(queryContext -> queryContext.getTaskContexts().stream())
+                .flatMap(taskContext -> taskContext.getPipelineContexts().stream())
+                .flatMap(pipelineContext -> pipelineContext.getDriverContexts().stream())
+                .flatMap(driverContext -> driverContext.getOperatorContexts().stream())
+                .collect(toMap(identity(), OperatorContext::getRevocableMemoryReservation));
+
+        List<OperatorContext> operatorContexts = new ArrayList<>();
+        for (Map.Entry<OperatorContext, Long> entry : revocableBytes.entrySet()) {
+            if (entry.getValue() == 0) {
+                continue;
+            }
+            if (entry.getKey().isMemoryRevokingRequested()) {
+                // memory of operators which were asked before is going to be released soon
+                remainingBytesToRevoke -= entry.getValue();
+            }
+            else {
+                operatorContexts.add(entry.getKey());
+            }
+        }
+
+        operatorContexts.sort(Comparator.comparing(revocableBytes::get, Comparator.reverseOrder()));
+        for (OperatorContext operatorContext : operatorContexts) {
+            if (remainingBytesToRevoke <= 0) {
+                break;
+            }
+            remainingBytesToRevoke -= operatorContext.requestMemoryRevoking();
+        }
+    }
+}
@@ -225,6 +225,11 @@ public class SqlTaskManager
         taskManagementExecutor.shutdownNow();
     }
 
+    public List<QueryContext> getQueryContexts()
+    {
+        return ImmutableList.copyOf(queryContexts.asMap().values());
+    }
+
     @Managed
     @Flatten
     public SqlTaskIoStats getIoStats()
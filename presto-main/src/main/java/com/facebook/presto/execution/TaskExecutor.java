@@ -49,7 +49,6 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -80,8 +79,9 @@ public class TaskExecutor
     // each time we run a split, run it for this length before returning to the pool
     private static final Duration SPLIT_RUN_QUANTA = new Duration(1, TimeUnit.SECONDS);
 
+    private static final int PRIORITY_LEVELS = 5;
+
     private static final AtomicLong NEXT_RUNNER_ID = new AtomicLong();
-    private static final AtomicLong NEXT_WORKER_ID = new AtomicLong();
 
     private final ExecutorService executor;
     private final ThreadPoolExecutorMBean executorMBean;
@@ -109,9 +109,10 @@ public class TaskExecutor
     private final Set<PrioritizedSplitRunner> forcedRunningSplits = new HashSet<>();
 
     /**
-     * Splits waiting for a runner thread.
+     * Splits waiting for a runner thread. Splits of destroyed tasks are not
+     * removed, but skipped by the runners.
      */
-    private final PriorityBlockingQueue<PrioritizedSplitRunner> pendingSplits;
+    private final WorkStealingSplitQueue<PrioritizedSplitRunner> pendingSplits;
 
     /**
      * Splits running on a thread.
@@ -123,7 +124,7 @@ public class TaskExecutor
      */
     private final Map<PrioritizedSplitRunner, Future<?>> blockedSplits = new ConcurrentHashMap<>();
 
-    private final AtomicLongArray completedTasksPerLevel = new AtomicLongArray(5);
+    private final AtomicLongArray completedTasksPerLevel = new AtomicLongArray(PRIORITY_LEVELS);
 
     private final TimeStat queuedTime = new TimeStat(NANOSECONDS);
     private final TimeStat wallTime = new TimeStat(NANOSECONDS);
@@ -159,7 +160,7 @@ public class TaskExecutor
         this.ticker = requireNonNull(ticker, "ticker is null");
 
         this.minimumNumberOfDrivers = minDrivers;
-        this.pendingSplits = new PriorityBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 10);
+        this.pendingSplits = new WorkStealingSplitQueue<>(runnerThreads, PRIORITY_LEVELS);
         this.tasks = new LinkedList<>();
     }
 
@@ -168,7 +169,7 @@ public class TaskExecutor
     {
         checkState(!closed, "TaskExecutor is closed");
         for (int i = 0; i < runnerThreads; i++) {
-            addRunnerThread();
+            addRunnerThread(i);
         }
     }
 
@@ -192,10 +193,10 @@ public class TaskExecutor
                 .toString();
     }
 
-    private synchronized void addRunnerThread()
+    private synchronized void addRunnerThread(int runnerIndex)
     {
         try {
-            executor.execute(new Runner());
+            executor.execute(new Runner(runnerIndex));
         }
         catch (RejectedExecutionException ignored) {
         }
@@ -221,7 +222,6 @@ public class TaskExecutor
             allSplits.removeAll(splits);
             forcedRunningSplits.removeAll(splits);
             blockedSplits.keySet().removeAll(splits);
-            pendingSplits.removeAll(splits);
         }
 
         // call destroy outside of synchronized block as it is expensive and doesn't need a lock on the task executor
@@ -247,7 +247,6 @@ public class TaskExecutor
                 PrioritizedSplitRunner prioritizedSplitRunner = new PrioritizedSplitRunner(
                         taskHandle,
                         taskSplit,
-                        ticker,
                         overallQuantaWallTime,
                         blockedQuantaWallTime,
                         unblockedQuantaWallTime);
@@ -343,7 +342,7 @@ public class TaskExecutor
     private synchronized void startSplit(PrioritizedSplitRunner split)
     {
         allSplits.add(split);
-        pendingSplits.put(split);
+        pendingSplits.offer(split, split.getPriorityLevel());
     }
 
     private synchronized PrioritizedSplitRunner pollNextSplitWorker()
@@ -488,25 +487,19 @@ public class TaskExecutor
     }
 
     private static class PrioritizedSplitRunner
-            implements Comparable<PrioritizedSplitRunner>
     {
         private final long createdNanos = System.nanoTime();
 
         private final TaskHandle taskHandle;
         private final int splitId;
-        private final long workerId;
         private final SplitRunner split;
 
-        private final Ticker ticker;
-
         private final SettableFuture<?> finishedFuture = SettableFuture.create();
 
         private final AtomicBoolean destroyed = new AtomicBoolean();
 
         private final AtomicInteger priorityLevel = new AtomicInteger();
-        private final AtomicLong threadUsageNanos = new AtomicLong();
         private final AtomicLong splitThreadUsageNanos = new AtomicLong();
-        private final AtomicLong lastRun = new AtomicLong();
         private final AtomicLong start = new AtomicLong();
 
         private final AtomicLong cpuTime = new AtomicLong();
@@ -519,7 +512,6 @@ public class TaskExecutor
         private PrioritizedSplitRunner(
                 TaskHandle taskHandle,
                 SplitRunner split,
-                Ticker ticker,
                 TimeStat overallQuantaWallTime,
                 TimeStat blockedQuantaWallTime,
                 TimeStat unblockedQuantaWallTime)
@@ -527,8 +519,6 @@ public class TaskExecutor
             this.taskHandle = taskHandle;
             this.splitId = taskHandle.getNextSplitId();
             this.split = split;
-            this.ticker = ticker;
-            this.workerId = NEXT_WORKER_ID.getAndIncrement();
             this.overallQuantaWallTime = overallQuantaWallTime;
             this.blockedQuantaWallTime = blockedQuantaWallTime;
             this.unblockedQuantaWallTime = unblockedQuantaWallTime;
@@ -569,6 +559,11 @@ public class TaskExecutor
             return finished || destroyed.get() || taskHandle.isDestroyed();
         }
 
+        public int getPriorityLevel()
+        {
+            return priorityLevel.get();
+        }
+
         public long getSplitThreadUsageNanos()
         {
             return splitThreadUsageNanos.get();
@@ -590,7 +585,6 @@ public class TaskExecutor
                 long durationNanos = elapsed.getWall().roundTo(NANOSECONDS);
                 this.splitThreadUsageNanos.addAndGet(durationNanos);
                 long threadUsageNanos = taskHandle.addThreadUsageNanos(durationNanos);
-                this.threadUsageNanos.set(threadUsageNanos);
                 priorityLevel.set(calculatePriorityLevel(threadUsageNanos));
 
                 long durationMicros = elapsed.getWall().roundTo(MICROSECONDS);
@@ -606,9 +600,6 @@ public class TaskExecutor
                     }
                 }
 
-                // record last run for prioritization within a level
-                lastRun.set(ticker.read());
-
                 cpuTime.addAndGet(elapsed.getCpu().roundTo(NANOSECONDS));
                 return blocked;
             }
@@ -621,36 +612,7 @@ public class TaskExecutor
         public boolean updatePriorityLevel()
         {
             int newPriority = calculatePriorityLevel(taskHandle.getThreadUsageNanos());
-            if (newPriority == priorityLevel.getAndSet(newPriority)) {
-                return false;
-            }
-
-            // update thread usage while if level changed
-            threadUsageNanos.set(taskHandle.getThreadUsageNanos());
-            return true;
-        }
-
-        @Override
-        public int compareTo(PrioritizedSplitRunner o)
-        {
-            int level = priorityLevel.get();
-
-            int result = Integer.compare(level, o.priorityLevel.get());
-            if (result != 0) {
-                return result;
-            }
-
-            if (level < 4) {
-                result = Long.compare(threadUsageNanos.get(), o.threadUsageNanos.get());
-            }
-            else {
-                result = Long.compare(lastRun.get(), o.lastRun.get());
-            }
-            if (result != 0) {
-                return result;
-            }
-
-            return Long.compare(workerId, o.workerId);
+            return newPriority != priorityLevel.getAndSet(newPriority);
         }
 
         public int getSplitId()
@@ -704,6 +666,13 @@ public class TaskExecutor
             implements Runnable
     {
         private final long runnerId = NEXT_RUNNER_ID.getAndIncrement();
+        // position of the local queue of this runner in pendingSplits, reused by the replacement runner
+        private final int runnerIndex;
+
+        private Runner(int runnerIndex)
+        {
+            this.runnerIndex = runnerIndex;
+        }
 
         @Override
         public void run()
@@ -713,10 +682,14 @@ public class TaskExecutor
                     // select next worker
                     final PrioritizedSplitRunner split;
                     try {
-                        split = pendingSplits.take();
+                        split = pendingSplits.take(runnerIndex);
+                        if (split.isDestroyed() || split.getTaskHandle().isDestroyed()) {
+                            // task was removed while the split was queued
+                            continue;
+                        }
                         if (split.updatePriorityLevel()) {
                             // priority level changed, return split to queue for re-prioritization
-                            pendingSplits.put(split);
+                            pendingSplits.offer(split, split.getPriorityLevel(), runnerIndex);
                             continue;
                         }
                     }
@@ -746,7 +719,7 @@ public class TaskExecutor
                         }
                         else {
                             if (blocked.isDone()) {
-                                pendingSplits.put(split);
+                                pendingSplits.offer(split, split.getPriorityLevel(), runnerIndex);
                             }
                             else {
                                 blockedSplits.put(split, blocked);
@@ -757,7 +730,7 @@ public class TaskExecutor
                                     {
                                         blockedSplits.remove(split);
                                         split.updatePriorityLevel();
-                                        pendingSplits.put(split);
+                                        pendingSplits.offer(split, split.getPriorityLevel());
                                     }
                                 }, executor);
                             }
@@ -781,7 +754,7 @@ public class TaskExecutor
             finally {
                 // unless we have been closed, we need to replace this thread
                 if (!closed) {
-                    addRunnerThread();
+                    addRunnerThread(runnerIndex);
                 }
             }
         }
@@ -859,6 +832,42 @@ public class TaskExecutor
         return pendingSplits.size();
     }
 
+    @Managed
+    public int getPendingSplitsLevel0()
+    {
+        return pendingSplits.size(0);
+    }
+
+    @Managed
+    public int getPendingSplitsLevel1()
+    {
+        return pendingSplits.size(1);
+    }
+
+    @Managed
+    public int getPendingSplitsLevel2()
+    {
+        return pendingSplits.size(2);
+    }
+
+    @Managed
+    public int getPendingSplitsLevel3()
+    {
+        return pendingSplits.size(3);
+    }
+
+    @Managed
+    public int getPendingSplitsLevel4()
+    {
+        return pendingSplits.size(4);
+    }
+
+    @Managed(description = "Number of splits a runner thread took from the queue of another runner")
+    public long getSplitSteals()
+    {
+        return pendingSplits.getSteals();
+    }
+
     @Managed
     public int getRunningSplits()
     {
@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Run queue of the task executor. Every runner thread owns one FIFO queue
+ * per priority level. A runner takes the first item of the lowest non-empty
+ * level, preferring its own queue and stealing from the other runners when
+ * its own queue of that level is empty. A runner without any work blocks on a
+ * semaphore. The queues are not locked, so a runner holding a permit can miss
+ * the items in a scan when they are taken by others while new items are
+ * offered. It then waits for the offer in progress on a condition, which is
+ * the only time a lock is taken.
+ */
+@ThreadSafe
+class WorkStealingSplitQueue<T>
+{
+    private final int levels;
+    // indexed by runner, then by level
+    private final List<List<ConcurrentLinkedDeque<T>>> queues;
+    private final AtomicIntegerArray queuedPerLevel;
+    // one permit per queued item
+    private final Semaphore queuedItems = new Semaphore(0);
+
+    private final AtomicLong offerCount = new AtomicLong();
+    private final AtomicInteger waitingRunners = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition itemOffered = lock.newCondition();
+
+    private final AtomicInteger nextRunner = new AtomicInteger();
+    private final AtomicLong steals = new AtomicLong();
+
+    public WorkStealingSplitQueue(int runners, int levels)
+    {
+        checkArgument(runners > 0, "runners must be at least 1");
+        checkArgument(levels > 0, "levels must be at least 1");
+        this.levels = levels;
+
+        ImmutableList.Builder<List<ConcurrentLinkedDeque<T>>> queues = ImmutableList.builder();
+        for (int runner = 0; runner < runners; runner++) {
+            ImmutableList.Builder<ConcurrentLinkedDeque<T>> runnerQueues = ImmutableList.builder();
+            for (int level = 0; level < levels; level++) {
+                runnerQueues.add(new ConcurrentLinkedDeque<>());
+            }
+            queues.add(runnerQueues.build());
+        }
+        this.queues = queues.build();
+        this.queuedPerLevel = new AtomicIntegerArray(levels);
+    }
+
+    /**
+     * Adds the item to the queue of the next runner in round robin order.
+     */
+    public void offer(T item, int level)
+    {
+        offer(item, level, Math.floorMod(nextRunner.getAndIncrement(), queues.size()));
+    }
+
+    /**
+     * Adds the item to the queue of the given runner, e.g. the runner which
+     * last processed it.
+     */
+    public void offer(T item, int level, int runner)
+    {
+        requireNonNull(item, "item is null");
+        checkArgument(level >= 0 && level < levels, "invalid level %s", level);
+        queues.get(runner).get(level).addLast(item);
+        queuedPerLevel.incrementAndGet(level);
+        offerCount.incrementAndGet();
+        if (waitingRunners.get() > 0) {
+            lock.lock();
+            try {
+                itemOffered.signalAll();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        queuedItems.release();
+    }
+
+    /**
+     * Removes the first item of the lowest non-empty level, waiting for an item if the queue is empty.
+     */
+    public T take(int runner)
+            throws InterruptedException
+    {
+        queuedItems.acquire();
+        // the permit guarantees an item, but other runners may be racing for the same items
+        while (true) {
+            long offersBeforeScan = offerCount.get();
+            for (int level = 0; level < levels; level++) {
+                if (queuedPerLevel.get(level) == 0) {
+                    continue;
+                }
+                T item = poll(runner, level);
+                if (item != null) {
+                    queuedPerLevel.decrementAndGet(level);
+                    return item;
+                }
+            }
+            // every permit holder takes one item, so without an offer during the scan at least one item
+            // would have stayed in its queue until the scan reached it
+            awaitOffer(offersBeforeScan);
+        }
+    }
+
+    private void awaitOffer(long offersBeforeScan)
+    {
+        waitingRunners.incrementAndGet();
+        lock.lock();
+        try {
+            // the offer is already in progress, so the permit is not given up on interrupt
+            while (offerCount.get() == offersBeforeScan) {
+                itemOffered.awaitUninterruptibly();
+            }
+        }
+        finally {
+            lock.unlock();
+            waitingRunners.decrementAndGet();
+        }
+    }
+
+    private T poll(int runner, int level)
+    {
+        T item = queues.get(runner).get(level).pollFirst();
+        if (item != null) {
+            return item;
+        }
+
+        // the owners consume their queues in FIFO order, so steal from the head as well to keep the order within a level
+        for (int i = 1; i < queues.size(); i++) {
+            item = queues.get((runner + i) % queues.size()).get(level).pollFirst();
+            if (item != null) {
+                steals.incrementAndGet();
+                return item;
+            }
+        }
+        return null;
+    }
+
+    public int size()
+    {
+        return queuedItems.availablePermits();
+    }
+
+    public int size(int level)
+    {
+        return queuedPerLevel.get(level);
+    }
+
+    public long getSteals()
+    {
+        return steals.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("runners", queues.size())
+                .add("levels", levels)
+                .add("size", size())
+                .add("steals", getSteals())
+                .toString();
+    }
+}
@@ -15,19 +15,41 @@
 package com.facebook.presto.execution.buffer;
 
 import com.facebook.presto.spi.PrestoException;
+import io.airlift.compress.Compressor;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.lzo.LzoCompressor;
+import io.airlift.compress.lzo.LzoDecompressor;
+import io.airlift.compress.snappy.SnappyCompressor;
+import io.airlift.compress.snappy.SnappyDecompressor;
 
+import java.util.function.Supplier;
+
+import static com.facebook.presto.client.SerializedPageHeader.UNCOMPRESSED_CODEC_MARKER;
 import static com.facebook.presto.spi.StandardErrorCode.CORRUPT_PAGE;
+import static com.google.common.base.Preconditions.checkState;
 
+/**
+ * Codec of a serialized page. The marker is written in front of every page,
+ * so the receiver can decompress pages without knowing how the sender was configured.
+ */
 public enum PageCompression
 {
-    UNCOMPRESSED((byte) 0),
-    COMPRESSED((byte) 1);
+    UNCOMPRESSED(UNCOMPRESSED_CODEC_MARKER, null, null),
+    LZ4((byte) 1, Lz4Compressor::new, Lz4Decompressor::new),
+    SNAPPY((byte) 2, SnappyCompressor::new, SnappyDecompressor::new),
+    LZO((byte) 3, LzoCompressor::new, LzoDecompressor::new);
 
     private final byte marker;
+    private final Supplier<Compressor> compressorSupplier;
+    private final Supplier<Decompressor> decompressorSupplier;
 
-    PageCompression(byte marker)
+    PageCompression(byte marker, Supplier<Compressor> compressorSupplier, Supplier<Decompressor> decompressorSupplier)
     {
         this.marker = marker;
+        this.compressorSupplier = compressorSupplier;
+        this.decompressorSupplier = decompressorSupplier;
     }
 
     public byte getMarker()
@@ -35,11 +57,30 @@ public enum PageCompression
         return marker;
     }
 
+    public boolean isCompressed()
+    {
+        return this != UNCOMPRESSED;
+    }
+
+    public Compressor createCompressor()
+    {
+        checkState(isCompressed(), "%s does not have a compressor", this);
+        return compressorSupplier.get();
+    }
+
+    public Decompressor createDecompressor()
+    {
+        checkState(isCompressed(), "%s does not have a decompressor", this);
+        return decompressorSupplier.get();
+    }
+
     public static PageCompression lookupCodecFromMarker(byte marker)
     {
-        if (marker != UNCOMPRESSED.getMarker() && marker != COMPRESSED.getMarker()) {
-            throw new PrestoException(CORRUPT_PAGE, "Page marker did not contain expected value");
+        for (PageCompression compression : values()) {
+            if (compression.getMarker() == marker) {
+                return compression;
+            }
         }
-        return UNCOMPRESSED.getMarker() == marker ? UNCOMPRESSED : COMPRESSED;
+        throw new PrestoException(CORRUPT_PAGE, "Page marker did not contain expected value");
     }
 }
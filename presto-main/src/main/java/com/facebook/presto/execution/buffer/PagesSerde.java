@@ -24,15 +24,17 @@ import io.airlift.slice.Slices;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 
-import static com.facebook.presto.execution.buffer.PageCompression.COMPRESSED;
 import static com.facebook.presto.execution.buffer.PageCompression.UNCOMPRESSED;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readRawPage;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeRawPage;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
-import static io.airlift.compress.lz4.Lz4RawCompressor.maxCompressedLength;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -40,17 +42,24 @@ import static java.util.Objects.requireNonNull;
 public class PagesSerde
 {
     private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    private static final int MAX_SKIPPED_PAGES = 64;
 
     private final BlockEncodingSerde blockEncodingSerde;
+    private final PageCompression compression;
     private final Optional<Compressor> compressor;
-    private final Optional<Decompressor> decompressor;
+    private final boolean adaptiveCompression;
+    private final Map<PageCompression, Decompressor> decompressors = new EnumMap<>(PageCompression.class);
 
-    public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor)
+    // number of pages to send uncompressed after a page did not compress well, when compression is adaptive
+    private int skipPages;
+    private int remainingSkippedPages;
+
+    public PagesSerde(BlockEncodingSerde blockEncodingSerde, PageCompression compression, boolean adaptiveCompression)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
-        this.compressor = requireNonNull(compressor, "compressor is null");
-        this.decompressor = requireNonNull(decompressor, "decompressor is null");
-        checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
+        this.compression = requireNonNull(compression, "compression is null");
+        this.compressor = compression.isCompressed() ? Optional.of(compression.createCompressor()) : Optional.empty();
+        this.adaptiveCompression = adaptiveCompression;
     }
 
     public SerializedPage serialize(Page page)
@@ -62,17 +71,28 @@ public class PagesSerde
             return new SerializedPage(serializationBuffer.slice(), UNCOMPRESSED, page.getPositionCount(), serializationBuffer.size());
         }
 
-        int maxCompressedLength = maxCompressedLength(serializationBuffer.size());
+        if (remainingSkippedPages > 0) {
+            remainingSkippedPages--;
+            return new SerializedPage(serializationBuffer.slice(), UNCOMPRESSED, page.getPositionCount(), serializationBuffer.size());
+        }
+
+        int maxCompressedLength = compressor.get().maxCompressedLength(serializationBuffer.size());
         byte[] compressionBuffer = new byte[maxCompressedLength];
         int actualCompressedLength = compressor.get().compress(serializationBuffer.slice().getBytes(), 0, serializationBuffer.size(), compressionBuffer, 0, maxCompressedLength);
 
         if (((1.0 * actualCompressedLength) / serializationBuffer.size()) > MINIMUM_COMPRESSION_RATIO) {
+            if (adaptiveCompression) {
+                // the data does not compress, so back off exponentially before trying again
+                skipPages = min(max(skipPages * 2, 1), MAX_SKIPPED_PAGES);
+                remainingSkippedPages = skipPages;
+            }
             return new SerializedPage(serializationBuffer.slice(), UNCOMPRESSED, page.getPositionCount(), serializationBuffer.size());
         }
+        skipPages = 0;
 
         return new SerializedPage(
                 Slices.copyOf(Slices.wrappedBuffer(compressionBuffer, 0, actualCompressedLength)),
-                COMPRESSED,
+                compression,
                 page.getPositionCount(),
                 serializationBuffer.size());
     }
@@ -81,13 +101,14 @@ public class PagesSerde
     {
         checkArgument(serializedPage != null, "serializedPage is null");
 
-        if (!decompressor.isPresent() || serializedPage.getCompression() == UNCOMPRESSED) {
+        if (!serializedPage.getCompression().isCompressed()) {
             return readRawPage(serializedPage.getPositionCount(), serializedPage.getSlice().getInput(), blockEncodingSerde);
         }
 
+        Decompressor decompressor = decompressors.computeIfAbsent(serializedPage.getCompression(), PageCompression::createDecompressor);
         int uncompressedSize = serializedPage.getUncompressedSizeInBytes();
         byte[] decompressed = new byte[uncompressedSize];
-        int actualUncompressedSize = decompressor.get().decompress(serializedPage.getSlice().getBytes(), 0, serializedPage.getSlice().length(), decompressed, 0, uncompressedSize);
+        int actualUncompressedSize = decompressor.decompress(serializedPage.getSlice().getBytes(), 0, serializedPage.getSlice().length(), decompressed, 0, uncompressedSize);
         checkState(uncompressedSize == actualUncompressedSize);
 
         return readRawPage(serializedPage.getPositionCount(), Slices.wrappedBuffer(decompressed, 0, uncompressedSize).getInput(), blockEncodingSerde);
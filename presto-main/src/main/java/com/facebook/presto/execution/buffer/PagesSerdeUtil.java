@@ -14,20 +14,34 @@
 
 package com.facebook.presto.execution.buffer;
 
+import com.facebook.presto.client.SerializedPageHeader;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.google.common.collect.AbstractIterator;
+import com.google.common.io.ByteStreams;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 
 import static com.facebook.presto.block.BlockSerdeUtil.readBlock;
 import static com.facebook.presto.block.BlockSerdeUtil.writeBlock;
+import static com.facebook.presto.client.SerializedPageHeader.CHECKSUM_SIZE;
+import static com.facebook.presto.client.SerializedPageHeader.PAGE_HEADER_SIZE;
+import static com.facebook.presto.client.SerializedPageHeader.getCodecMarker;
+import static com.facebook.presto.client.SerializedPageHeader.hasChecksum;
+import static com.facebook.presto.client.SerializedPageHeader.withChecksumFlag;
 import static com.facebook.presto.execution.buffer.PageCompression.lookupCodecFromMarker;
 import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
 import static java.util.Arrays.asList;
 import static java.util.Objects.requireNonNull;
 
@@ -72,8 +86,27 @@ public class PagesSerdeUtil
         byte codecMarker = sliceInput.readByte();
         int uncompressedSizeInBytes = sliceInput.readInt();
         int sizeInBytes = sliceInput.readInt();
+        if (!hasChecksum(codecMarker)) {
+            Slice slice = sliceInput.readSlice(toIntExact((sizeInBytes)));
+            return new SerializedPage(slice, lookupCodecFromMarker(codecMarker), positionCount, uncompressedSizeInBytes);
+        }
+        long checksum = sliceInput.readLong();
         Slice slice = sliceInput.readSlice(toIntExact((sizeInBytes)));
-        return new SerializedPage(slice, lookupCodecFromMarker(codecMarker), positionCount, uncompressedSizeInBytes);
+        return verifyChecksum(new SerializedPage(slice, lookupCodecFromMarker(getCodecMarker(codecMarker)), positionCount, uncompressedSizeInBytes), checksum);
+    }
+
+    static long computeChecksum(SerializedPage page)
+    {
+        return SerializedPageHeader.computeChecksum(page.getPositionCount(), page.getUncompressedSizeInBytes(), page.getCompression().getMarker(), page.getSlice());
+    }
+
+    private static SerializedPage verifyChecksum(SerializedPage page, long expectedChecksum)
+    {
+        long actualChecksum = computeChecksum(page);
+        if (actualChecksum != expectedChecksum) {
+            throw new PageChecksumMismatchException(format("Checksum of page with %s positions does not match: expected %016x, but was %016x", page.getPositionCount(), expectedChecksum, actualChecksum));
+        }
+        return page;
     }
 
     public static long writeSerializedPages(SliceOutput sliceOutput, Iterable<SerializedPage> pages)
@@ -88,6 +121,37 @@ public class PagesSerdeUtil
         return size;
     }
 
+    /**
+     * Writes the pages directly to the stream, without copying the page data into an intermediate buffer.
+     *
+     * @param checksumEnabled whether to follow each page header with a checksum, which the reader verifies
+     */
+    public static long writeSerializedPages(OutputStream output, Iterable<SerializedPage> pages, boolean checksumEnabled)
+            throws IOException
+    {
+        byte[] header = new byte[PAGE_HEADER_SIZE + CHECKSUM_SIZE];
+        Slice headerSlice = Slices.wrappedBuffer(header);
+        long size = 0;
+        for (SerializedPage page : pages) {
+            headerSlice.setInt(0, page.getPositionCount());
+            headerSlice.setInt(Integer.BYTES + Byte.BYTES, page.getUncompressedSizeInBytes());
+            headerSlice.setInt(Integer.BYTES + Byte.BYTES + Integer.BYTES, page.getSizeInBytes());
+            int headerSize = PAGE_HEADER_SIZE;
+            if (checksumEnabled) {
+                headerSlice.setByte(Integer.BYTES, withChecksumFlag(page.getCompression().getMarker()));
+                headerSlice.setLong(PAGE_HEADER_SIZE, computeChecksum(page));
+                headerSize += CHECKSUM_SIZE;
+            }
+            else {
+                headerSlice.setByte(Integer.BYTES, page.getCompression().getMarker());
+            }
+            output.write(header, 0, headerSize);
+            page.getSlice().getBytes(0, output, page.getSizeInBytes());
+            size += page.getSizeInBytes();
+        }
+        return size;
+    }
+
     public static long writePages(PagesSerde serde, SliceOutput sliceOutput, Page... pages)
     {
         return writePages(serde, sliceOutput, asList(pages).iterator());
@@ -157,4 +221,60 @@ public class PagesSerdeUtil
             return readSerializedPage(input);
         }
     }
+
+    /**
+     * Reads the pages directly from the stream into arrays of the exact page size,
+     * verifying the checksum of every page which has one.
+     */
+    public static Iterator<SerializedPage> readSerializedPages(InputStream inputStream)
+    {
+        return new InputStreamSerializedPageReader(inputStream);
+    }
+
+    private static class InputStreamSerializedPageReader
+            extends AbstractIterator<SerializedPage>
+    {
+        private final InputStream input;
+        private final byte[] header = new byte[PAGE_HEADER_SIZE + CHECKSUM_SIZE];
+        private final Slice headerSlice = Slices.wrappedBuffer(header);
+
+        InputStreamSerializedPageReader(InputStream input)
+        {
+            this.input = requireNonNull(input, "input is null");
+        }
+
+        @Override
+        protected SerializedPage computeNext()
+        {
+            try {
+                int headerBytes = ByteStreams.read(input, header, 0, PAGE_HEADER_SIZE);
+                if (headerBytes == 0) {
+                    return endOfData();
+                }
+                if (headerBytes < PAGE_HEADER_SIZE) {
+                    throw new EOFException("Stream ended in the middle of a page header");
+                }
+
+                int positionCount = headerSlice.getInt(0);
+                byte codecMarker = headerSlice.getByte(Integer.BYTES);
+                int uncompressedSizeInBytes = headerSlice.getInt(Integer.BYTES + Byte.BYTES);
+                int sizeInBytes = headerSlice.getInt(Integer.BYTES + Byte.BYTES + Integer.BYTES);
+                boolean hasChecksum = hasChecksum(codecMarker);
+                if (hasChecksum) {
+                    ByteStreams.readFully(input, header, PAGE_HEADER_SIZE, CHECKSUM_SIZE);
+                }
+
+                byte[] data = new byte[sizeInBytes];
+                ByteStreams.readFully(input, data);
+                SerializedPage page = new SerializedPage(Slices.wrappedBuffer(data), lookupCodecFromMarker(getCodecMarker(codecMarker)), positionCount, uncompressedSizeInBytes);
+                if (hasChecksum) {
+                    return verifyChecksum(page, headerSlice.getLong(PAGE_HEADER_SIZE));
+                }
+                return page;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
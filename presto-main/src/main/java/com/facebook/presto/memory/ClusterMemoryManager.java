@@ -18,6 +18,8 @@ import com.facebook.presto.execution.LocationFactory;
 import com.facebook.presto.execution.QueryExecution;
 import com.facebook.presto.execution.QueryIdGenerator;
 import com.facebook.presto.execution.QueryManagerConfig;
+import com.facebook.presto.execution.QueryStats;
+import com.facebook.presto.memory.LowMemoryKiller.QueryMemoryInfo;
 import com.facebook.presto.metadata.InternalNodeManager;
 import com.facebook.presto.server.ServerConfig;
 import com.facebook.presto.spi.Node;
@@ -89,6 +91,7 @@ public class ClusterMemoryManager
     private final boolean enabled;
     private final boolean killOnOutOfMemory;
     private final Duration killOnOutOfMemoryDelay;
+    private final LowMemoryKiller lowMemoryKiller;
     private final String coordinatorId;
     private final AtomicLong memoryPoolAssignmentsVersion = new AtomicLong();
     private final AtomicLong clusterMemoryUsageBytes = new AtomicLong();
@@ -119,7 +122,8 @@ public class ClusterMemoryManager
             QueryIdGenerator queryIdGenerator,
             ServerConfig serverConfig,
             MemoryManagerConfig config,
-            QueryManagerConfig queryManagerConfig)
+            QueryManagerConfig queryManagerConfig,
+            LowMemoryKiller lowMemoryKiller)
     {
         requireNonNull(config, "config is null");
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
@@ -134,6 +138,7 @@ public class ClusterMemoryManager
         this.enabled = serverConfig.isCoordinator();
         this.killOnOutOfMemoryDelay = config.getKillOnOutOfMemoryDelay();
         this.killOnOutOfMemory = config.isKillOnOutOfMemory();
+        this.lowMemoryKiller = requireNonNull(lowMemoryKiller, "lowMemoryKiller is null");
     }
 
     @Override
@@ -182,25 +187,32 @@ public class ClusterMemoryManager
             if (!lastKilledQueryIsGone) {
                 ClusterMemoryPool generalPool = pools.get(GENERAL_POOL);
                 if (generalPool != null) {
-                    lastKilledQueryIsGone = generalPool.getQueryMemoryReservations().containsKey(lastKilledQuery);
+                    lastKilledQueryIsGone = !generalPool.getQueryMemoryReservations().containsKey(lastKilledQuery);
                 }
             }
 
             if (shouldKillQuery && lastKilledQueryIsGone && !queryKilled) {
-                // Kill the biggest query in the general pool
-                QueryExecution biggestQuery = null;
-                long maxMemory = -1;
+                Map<QueryId, QueryExecution> generalPoolQueries = new HashMap<>();
                 for (QueryExecution query : queries) {
-                    long bytesUsed = query.getTotalMemoryReservation();
-                    if (bytesUsed > maxMemory && query.getMemoryPool().getId().equals(GENERAL_POOL)) {
-                        biggestQuery = query;
-                        maxMemory = bytesUsed;
+                    if (query.getMemoryPool().getId().equals(GENERAL_POOL)) {
+                        generalPoolQueries.put(query.getQueryId(), query);
                     }
                 }
-                if (biggestQuery != null) {
-                    biggestQuery.fail(new PrestoException(CLUSTER_OUT_OF_MEMORY, "The cluster is out of memory, and your query was killed. Please try again in a few minutes."));
+                List<QueryMemoryInfo> candidates = generalPoolQueries.values().stream()
+                        .map(ClusterMemoryManager::createQueryMemoryInfo)
+                        .collect(toImmutableList());
+                List<MemoryPoolInfo> blockedNodes = nodes.values().stream()
+                        .map(node -> node.getBlockedPoolInfo(GENERAL_POOL))
+                        .filter(Optional::isPresent)
+                        .map(Optional::get)
+                        .collect(toImmutableList());
+
+                Optional<QueryId> chosenQuery = lowMemoryKiller.chooseQueryToKill(candidates, blockedNodes);
+                if (chosenQuery.isPresent()) {
+                    log.debug("Low memory killer chose %s", chosenQuery.get());
+                    generalPoolQueries.get(chosenQuery.get()).fail(new PrestoException(CLUSTER_OUT_OF_MEMORY, "The cluster is out of memory, and your query was killed. Please try again in a few minutes."));
                     queriesKilledDueToOutOfMemory.incrementAndGet();
-                    lastKilledQuery = biggestQuery.getQueryId();
+                    lastKilledQuery = chosenQuery.get();
                 }
             }
         }
@@ -226,6 +238,16 @@ public class ClusterMemoryManager
         }
     }
 
+    private static QueryMemoryInfo createQueryMemoryInfo(QueryExecution query)
+    {
+        QueryStats queryStats = query.getQueryInfo().getQueryStats();
+        double progress = 0;
+        if (queryStats.getTotalDrivers() > 0) {
+            progress = (double) queryStats.getCompletedDrivers() / queryStats.getTotalDrivers();
+        }
+        return new QueryMemoryInfo(query.getQueryId(), query.getTotalMemoryReservation(), progress);
+    }
+
     @VisibleForTesting
     synchronized Map<MemoryPoolId, ClusterMemoryPool> getPools()
     {
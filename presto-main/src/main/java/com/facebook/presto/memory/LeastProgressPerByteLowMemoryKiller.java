@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Kills the query which made the least progress for the memory it holds, so that large queries
+ * which are almost done are spared in favor of queries which would lose little work.
+ */
+public class LeastProgressPerByteLowMemoryKiller
+        implements LowMemoryKiller
+{
+    @Override
+    public Optional<QueryId> chooseQueryToKill(List<QueryMemoryInfo> candidates, List<MemoryPoolInfo> blockedNodes)
+    {
+        return candidates.stream()
+                .filter(query -> query.getMemoryReservation() > 0)
+                // among queries without any progress, kill the one releasing the most memory
+                .min(Comparator.comparingDouble(LeastProgressPerByteLowMemoryKiller::progressPerByte)
+                        .thenComparing(Comparator.comparingLong(QueryMemoryInfo::getMemoryReservation).reversed()))
+                .map(QueryMemoryInfo::getQueryId);
+    }
+
+    private static double progressPerByte(QueryMemoryInfo query)
+    {
+        return query.getProgress() / query.getMemoryReservation();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Chooses the query to kill, when the cluster has been out of memory for longer than the low memory killer delay.
+ */
+public interface LowMemoryKiller
+{
+    /**
+     * @param candidates queries running in the general pool
+     * @param blockedNodes the general pool of every node on which it is out of memory
+     */
+    Optional<QueryId> chooseQueryToKill(List<QueryMemoryInfo> candidates, List<MemoryPoolInfo> blockedNodes);
+
+    class QueryMemoryInfo
+    {
+        private final QueryId queryId;
+        private final long memoryReservation;
+        private final double progress;
+
+        public QueryMemoryInfo(QueryId queryId, long memoryReservation, double progress)
+        {
+            this.queryId = requireNonNull(queryId, "queryId is null");
+            checkArgument(memoryReservation >= 0, "memoryReservation is negative");
+            checkArgument(progress >= 0 && progress <= 1, "progress must be between 0 and 1");
+            this.memoryReservation = memoryReservation;
+            this.progress = progress;
+        }
+
+        public QueryId getQueryId()
+        {
+            return queryId;
+        }
+
+        public long getMemoryReservation()
+        {
+            return memoryReservation;
+        }
+
+        /**
+         * Fraction of the drivers of the query that are completed.
+         */
+        public double getProgress()
+        {
+            return progress;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("queryId", queryId)
+                    .add("memoryReservation", memoryReservation)
+                    .add("progress", progress)
+                    .toString();
+        }
+    }
+}
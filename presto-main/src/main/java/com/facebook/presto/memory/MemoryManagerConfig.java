@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.memory;
 
+import com.google.common.collect.ImmutableList;
 import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
@@ -20,8 +21,11 @@ import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.NotNull;
 
+import java.util.List;
+
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static java.util.concurrent.TimeUnit.MINUTES;
 
@@ -31,6 +35,7 @@ public class MemoryManagerConfig
     private DataSize maxQueryMemory = new DataSize(20, GIGABYTE);
     private boolean killOnOutOfMemory;
     private Duration killOnOutOfMemoryDelay = new Duration(5, MINUTES);
+    private String lowMemoryKillerPolicy = LowMemoryKillerPolicy.TOTAL_RESERVATION;
 
     public boolean isKillOnOutOfMemory()
     {
@@ -60,6 +65,29 @@ public class MemoryManagerConfig
         return this;
     }
 
+    @NotNull
+    public String getLowMemoryKillerPolicy()
+    {
+        return lowMemoryKillerPolicy;
+    }
+
+    @Config("query.low-memory-killer.policy")
+    @ConfigDescription("Policy used by the low memory killer to choose the query to kill")
+    public MemoryManagerConfig setLowMemoryKillerPolicy(String lowMemoryKillerPolicy)
+    {
+        this.lowMemoryKillerPolicy = lowMemoryKillerPolicy;
+        return this;
+    }
+
+    @AssertTrue(message = "query.low-memory-killer.policy must be one of " +
+            LowMemoryKillerPolicy.TOTAL_RESERVATION + ", " +
+            LowMemoryKillerPolicy.TOTAL_RESERVATION_ON_BLOCKED_NODES + " or " +
+            LowMemoryKillerPolicy.LEAST_PROGRESS_PER_BYTE)
+    public boolean isLowMemoryKillerPolicyValid()
+    {
+        return lowMemoryKillerPolicy == null || LowMemoryKillerPolicy.POLICIES.stream().anyMatch(lowMemoryKillerPolicy::equalsIgnoreCase);
+    }
+
     @NotNull
     public DataSize getMaxQueryMemory()
     {
@@ -72,4 +100,15 @@ public class MemoryManagerConfig
         this.maxQueryMemory = maxQueryMemory;
         return this;
     }
+
+    public static class LowMemoryKillerPolicy
+    {
+        public static final String TOTAL_RESERVATION = "total-reservation";
+        public static final String TOTAL_RESERVATION_ON_BLOCKED_NODES = "total-reservation-on-blocked-nodes";
+        public static final String LEAST_PROGRESS_PER_BYTE = "least-progress-per-byte";
+
+        public static final List<String> POLICIES = ImmutableList.of(TOTAL_RESERVATION, TOTAL_RESERVATION_ON_BLOCKED_NODES, LEAST_PROGRESS_PER_BYTE);
+
+        private LowMemoryKillerPolicy() {}
+    }
 }
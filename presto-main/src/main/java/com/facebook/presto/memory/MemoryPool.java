@@ -25,7 +25,10 @@ import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -41,6 +44,9 @@ public class MemoryPool
     @GuardedBy("this")
     private long freeBytes;
 
+    @GuardedBy("this")
+    private long reservedRevocableBytes;
+
     @Nullable
     @GuardedBy("this")
     private SettableFuture<?> future;
@@ -49,6 +55,8 @@ public class MemoryPool
     // TODO: It would be better if we just tracked QueryContexts, but their lifecycle is managed by a weak reference, so we can't do that
     private final Map<QueryId, Long> queryMemoryReservations = new HashMap<>();
 
+    private final List<Consumer<MemoryPool>> listeners = new CopyOnWriteArrayList<>();
+
     public MemoryPool(MemoryPoolId id, DataSize size)
     {
         this.id = requireNonNull(id, "name is null");
@@ -70,21 +78,82 @@ public class MemoryPool
     /**
      * Reserves the given number of bytes. Caller should wait on the returned future, before allocating more memory.
      */
-    public synchronized ListenableFuture<?> reserve(QueryId queryId, long bytes)
+    public ListenableFuture<?> reserve(QueryId queryId, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
+        ListenableFuture<?> result;
+        synchronized (this) {
+            if (bytes != 0) {
+                queryMemoryReservations.merge(queryId, bytes, Long::sum);
+            }
+            freeBytes -= bytes;
+            if (freeBytes <= 0) {
+                if (future == null) {
+                    future = SettableFuture.create();
+                }
+                checkState(!future.isDone(), "future is already completed");
+                result = future;
+            }
+            else {
+                result = NOT_BLOCKED;
+            }
+        }
         if (bytes != 0) {
-            queryMemoryReservations.merge(queryId, bytes, Long::sum);
+            onMemoryReserved();
         }
-        freeBytes -= bytes;
-        if (freeBytes <= 0) {
-            if (future == null) {
-                future = SettableFuture.create();
-            }
-            checkState(!future.isDone(), "future is already completed");
-            return future;
+        return result;
+    }
+
+    /**
+     * Reserves the given number of bytes of revocable memory, which the owner releases when asked to.
+     * Revocable reservations never block, and are not attributed to the query, since they do not count
+     * towards its memory limit.
+     */
+    public void reserveRevocable(long bytes)
+    {
+        checkArgument(bytes >= 0, "bytes is negative");
+        if (bytes == 0) {
+            return;
+        }
+        synchronized (this) {
+            reservedRevocableBytes += bytes;
+            freeBytes -= bytes;
+        }
+        onMemoryReserved();
+    }
+
+    public synchronized void freeRevocable(long bytes)
+    {
+        checkArgument(bytes >= 0, "bytes is negative");
+        checkArgument(reservedRevocableBytes - bytes >= 0, "tried to free more revocable memory than is reserved");
+        if (bytes == 0) {
+            return;
+        }
+        reservedRevocableBytes -= bytes;
+        freeBytes += bytes;
+        if (freeBytes > 0 && future != null) {
+            future.set(null);
+            future = null;
         }
-        return NOT_BLOCKED;
+    }
+
+    /**
+     * Adds a listener, which is called after memory is reserved in this pool.
+     */
+    public void addListener(Consumer<MemoryPool> listener)
+    {
+        listeners.add(requireNonNull(listener, "listener is null"));
+    }
+
+    public void removeListener(Consumer<MemoryPool> listener)
+    {
+        listeners.remove(requireNonNull(listener, "listener is null"));
+    }
+
+    private void onMemoryReserved()
+    {
+        // called without holding the lock, so listeners can inspect the pool
+        listeners.forEach(listener -> listener.accept(this));
     }
 
     /**
@@ -138,6 +207,12 @@ public class MemoryPool
         return freeBytes;
     }
 
+    @Managed
+    public synchronized long getReservedRevocableBytes()
+    {
+        return reservedRevocableBytes;
+    }
+
     @Managed
     public synchronized long getMaxBytes()
     {
@@ -151,6 +226,7 @@ public class MemoryPool
                 .add("id", id)
                 .add("maxBytes", maxBytes)
                 .add("freeBytes", freeBytes)
+                .add("reservedRevocableBytes", reservedRevocableBytes)
                 .add("future", future)
                 .toString();
     }
@@ -17,6 +17,7 @@ import com.facebook.presto.Session;
 import com.facebook.presto.execution.TaskStateMachine;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.spi.QueryId;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -59,6 +60,9 @@ public class QueryContext
     @GuardedBy("this")
     private long systemReserved;
 
+    @GuardedBy("this")
+    private long revocableReserved;
+
     public QueryContext(QueryId queryId, DataSize maxMemory, MemoryPool memoryPool, MemoryPool systemMemoryPool, Executor executor)
     {
         this.queryId = requireNonNull(queryId, "queryId is null");
@@ -92,6 +96,16 @@ public class QueryContext
         return future;
     }
 
+    /**
+     * Revocable memory is not limited by the query memory limit, as its owner releases it when the pool runs low.
+     */
+    public synchronized void reserveRevocableMemory(long bytes)
+    {
+        checkArgument(bytes >= 0, "bytes is negative");
+        memoryPool.reserveRevocable(bytes);
+        revocableReserved += bytes;
+    }
+
     public synchronized ListenableFuture<?> reserveSystemMemory(long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
@@ -122,6 +136,14 @@ public class QueryContext
         memoryPool.free(queryId, bytes);
     }
 
+    public synchronized void freeRevocableMemory(long bytes)
+    {
+        checkArgument(bytes >= 0, "bytes is negative");
+        checkArgument(revocableReserved - bytes >= 0, "tried to free more revocable memory than is reserved");
+        revocableReserved -= bytes;
+        memoryPool.freeRevocable(bytes);
+    }
+
     public synchronized void freeSystemMemory(long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
@@ -140,6 +162,9 @@ public class QueryContext
         MemoryPool originalPool = memoryPool;
         long originalReserved = reserved;
         memoryPool = pool;
+        // revocable memory never blocks, so it is moved right away
+        pool.reserveRevocable(revocableReserved);
+        originalPool.freeRevocable(revocableReserved);
         ListenableFuture<?> future = pool.reserve(queryId, reserved);
         Futures.addCallback(future, new FutureCallback<Object>() {
             @Override
@@ -160,6 +185,16 @@ public class QueryContext
         });
     }
 
+    public synchronized MemoryPool getMemoryPool()
+    {
+        return memoryPool;
+    }
+
+    public List<TaskContext> getTaskContexts()
+    {
+        return ImmutableList.copyOf(taskContexts);
+    }
+
     public TaskContext addTaskContext(TaskStateMachine taskStateMachine, Session session, boolean verboseStats, boolean cpuTimerEnabled)
     {
         TaskContext taskContext = new TaskContext(this, taskStateMachine, executor, session, verboseStats, cpuTimerEnabled);
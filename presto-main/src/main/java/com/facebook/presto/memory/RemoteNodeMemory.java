@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.memory;
 
+import com.facebook.presto.spi.memory.MemoryPoolId;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import io.airlift.http.client.FullJsonResponseHandler.JsonResponse;
@@ -77,6 +79,16 @@ public class RemoteNodeMemory
         return memoryInfo.get();
     }
 
+    /**
+     * Returns the info of the given pool, if the pool was out of memory on this node at the last refresh.
+     */
+    public Optional<MemoryPoolInfo> getBlockedPoolInfo(MemoryPoolId poolId)
+    {
+        return memoryInfo.get()
+                .map(info -> info.getPools().get(poolId))
+                .filter(poolInfo -> poolInfo.getFreeBytes() <= 0);
+    }
+
     public void asyncRefresh(MemoryPoolAssignmentsRequest assignments)
     {
         Duration sinceUpdate = nanosSince(lastUpdateNanos.get());
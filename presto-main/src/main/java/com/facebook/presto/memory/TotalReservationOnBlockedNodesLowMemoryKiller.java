@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.util.ImmutableCollectors.toImmutableSet;
+
+/**
+ * Kills the query with the largest memory reservation on the nodes on which the general pool is out of memory,
+ * as these are the queries which keep the query in the reserved pool from making progress.
+ */
+public class TotalReservationOnBlockedNodesLowMemoryKiller
+        implements LowMemoryKiller
+{
+    @Override
+    public Optional<QueryId> chooseQueryToKill(List<QueryMemoryInfo> candidates, List<MemoryPoolInfo> blockedNodes)
+    {
+        Set<QueryId> candidateIds = candidates.stream()
+                .map(QueryMemoryInfo::getQueryId)
+                .collect(toImmutableSet());
+
+        Map<QueryId, Long> memoryOnBlockedNodes = new HashMap<>();
+        for (MemoryPoolInfo poolInfo : blockedNodes) {
+            for (Map.Entry<QueryId, Long> entry : poolInfo.getQueryMemoryReservations().entrySet()) {
+                if (candidateIds.contains(entry.getKey())) {
+                    memoryOnBlockedNodes.merge(entry.getKey(), entry.getValue(), Long::sum);
+                }
+            }
+        }
+
+        return memoryOnBlockedNodes.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey);
+    }
+}
@@ -26,6 +26,7 @@ import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.facebook.presto.spi.connector.ConnectorOutputMetadata;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.security.Privilege;
+import com.facebook.presto.spi.statistics.TableStatistics;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.spi.type.TypeSignature;
@@ -73,6 +74,11 @@ public interface Metadata
      */
     TableMetadata getTableMetadata(Session session, TableHandle tableHandle);
 
+    /**
+     * Return statistics for the specified table, restricted to the data that may satisfy the given constraint.
+     */
+    TableStatistics getTableStatistics(Session session, TableHandle tableHandle, Constraint<ColumnHandle> constraint);
+
     /**
      * Get the names that match the specified table prefix (never null).
      */
@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+
+/**
+ * Looks up the join positions of all rows of a probe page at once. When the page has a
+ * single join channel which is dictionary encoded, every dictionary entry is looked up only
+ * once, and a run length encoded join key is looked up once for the whole page. Otherwise,
+ * when the page has a precomputed hash, all the rows are passed to the lookup source together.
+ */
+public final class BatchedJoinPositions
+{
+    // dictionary entry which has not been looked up yet
+    private static final long NOT_LOOKED_UP = -2;
+
+    private BatchedJoinPositions()
+    {
+    }
+
+    public static long[] getJoinPositions(LookupSource lookupSource, Page page, List<Integer> probeJoinChannels, Optional<Integer> probeHashChannel)
+    {
+        int positionCount = page.getPositionCount();
+        Block[] joinBlocks = new Block[probeJoinChannels.size()];
+        for (int i = 0; i < joinBlocks.length; i++) {
+            joinBlocks[i] = page.getBlock(probeJoinChannels.get(i));
+        }
+        Page joinPage = new Page(positionCount, joinBlocks);
+        Block hashBlock = probeHashChannel.map(page::getBlock).orElse(null);
+
+        long[] joinPositions = new long[positionCount];
+        if (positionCount == 0) {
+            return joinPositions;
+        }
+
+        if (joinBlocks.length == 1 && joinBlocks[0] instanceof DictionaryBlock) {
+            DictionaryBlock dictionaryBlock = (DictionaryBlock) joinBlocks[0];
+            // a dictionary larger than the page is likely shared by many pages, so most of its entries are not referenced here
+            if (dictionaryBlock.getDictionary().getPositionCount() <= positionCount) {
+                long[] dictionaryJoinPositions = new long[dictionaryBlock.getDictionary().getPositionCount()];
+                Arrays.fill(dictionaryJoinPositions, NOT_LOOKED_UP);
+                for (int position = 0; position < positionCount; position++) {
+                    int id = dictionaryBlock.getId(position);
+                    long joinPosition = dictionaryJoinPositions[id];
+                    if (joinPosition == NOT_LOOKED_UP) {
+                        joinPosition = getJoinPosition(lookupSource, position, joinPage, page, joinBlocks, hashBlock);
+                        dictionaryJoinPositions[id] = joinPosition;
+                    }
+                    joinPositions[position] = joinPosition;
+                }
+                return joinPositions;
+            }
+        }
+
+        if (joinBlocks.length > 0 && Arrays.stream(joinBlocks).allMatch(RunLengthEncodedBlock.class::isInstance)) {
+            Arrays.fill(joinPositions, getJoinPosition(lookupSource, 0, joinPage, page, joinBlocks, hashBlock));
+            return joinPositions;
+        }
+
+        if (hashBlock == null) {
+            for (int position = 0; position < positionCount; position++) {
+                joinPositions[position] = rowContainsNull(joinBlocks, position) ? -1 : lookupSource.getJoinPosition(position, joinPage, page);
+            }
+            return joinPositions;
+        }
+
+        // read all the hashes first, so the lookup loop does not alternate between the blocks and the hash table
+        long[] rawHashes = new long[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            rawHashes[position] = BIGINT.getLong(hashBlock, position);
+        }
+        int[] nonNullPositions = new int[positionCount];
+        int nonNullPositionCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (rowContainsNull(joinBlocks, position)) {
+                joinPositions[position] = -1;
+            }
+            else {
+                nonNullPositions[nonNullPositionCount++] = position;
+            }
+        }
+        lookupSource.getJoinPositions(nonNullPositions, 0, nonNullPositionCount, joinPage, page, rawHashes, joinPositions);
+        return joinPositions;
+    }
+
+    private static long getJoinPosition(LookupSource lookupSource, int position, Page joinPage, Page page, Block[] joinBlocks, @Nullable Block hashBlock)
+    {
+        if (rowContainsNull(joinBlocks, position)) {
+            return -1;
+        }
+        if (hashBlock != null) {
+            return lookupSource.getJoinPosition(position, joinPage, page, BIGINT.getLong(hashBlock, position));
+        }
+        return lookupSource.getJoinPosition(position, joinPage, page);
+    }
+
+    private static boolean rowContainsNull(Block[] joinBlocks, int position)
+    {
+        for (Block joinBlock : joinBlocks) {
+            if (joinBlock.isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
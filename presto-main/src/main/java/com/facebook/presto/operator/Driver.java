@@ -78,6 +78,9 @@ public class Driver
     @GuardedBy("exclusiveLock")
     private final Map<PlanNodeId, TaskSource> currentSources = new ConcurrentHashMap<>();
 
+    // operators releasing their revocable memory, only accessed while holding the driver lock
+    private final Map<Operator, ListenableFuture<?>> revokingOperators = new HashMap<>();
+
     private enum State
     {
         ALIVE, NEED_DESTRUCTION, DESTROYED
@@ -337,6 +340,8 @@ public class Driver
                 processNewSources();
             }
 
+            startMemoryRevoking();
+
             // special handling for drivers with a single operator
             if (operators.size() == 1) {
                 if (driverContext.isDone()) {
@@ -409,6 +414,14 @@ public class Driver
                 }
 
                 if (!blockedFutures.isEmpty()) {
+                    // wake up to spill, when memory revoking is requested while blocked
+                    for (Operator operator : operators) {
+                        OperatorContext operatorContext = operator.getOperatorContext();
+                        if (operatorContext.getRevocableMemoryReservation() > 0 && !revokingOperators.containsKey(operator)) {
+                            blockedFutures.add(operatorContext.getMemoryRevokingRequestedFuture());
+                        }
+                    }
+
                     // unblock when the first future is complete
                     ListenableFuture<?> blocked = firstFinishedFuture(blockedFutures);
                     // driver records serial blocked time
@@ -514,8 +527,30 @@ public class Driver
         }
     }
 
-    private static ListenableFuture<?> isBlocked(Operator operator)
+    private void startMemoryRevoking()
     {
+        checkLockHeld("Lock must be held to call startMemoryRevoking");
+
+        for (Operator operator : operators) {
+            if (operator.getOperatorContext().isMemoryRevokingRequested() && !revokingOperators.containsKey(operator)) {
+                revokingOperators.put(operator, operator.startMemoryRevoking());
+            }
+        }
+    }
+
+    private ListenableFuture<?> isBlocked(Operator operator)
+    {
+        ListenableFuture<?> revoking = revokingOperators.get(operator);
+        if (revoking != null) {
+            if (!revoking.isDone()) {
+                return revoking;
+            }
+            // the operator must not be used before memory revoking is finished
+            revokingOperators.remove(operator);
+            operator.finishMemoryRevoking();
+            operator.getOperatorContext().resetMemoryRevokingRequested();
+        }
+
         ListenableFuture<?> blocked = operator.isBlocked();
         if (blocked.isDone()) {
             blocked = operator.getOperatorContext().isWaitingForMemory();
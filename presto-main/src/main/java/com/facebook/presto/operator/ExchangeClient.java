@@ -26,23 +26,23 @@ import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.io.Closeable;
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.presto.execution.buffer.PageCompression.UNCOMPRESSED;
@@ -50,7 +50,15 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.airlift.slice.Slices.EMPTY_SLICE;
 import static java.util.Objects.requireNonNull;
-
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Buffers pages fetched from many upstream tasks for the operators of a stage.
+ * Page buffer clients deliver pages from their own threads while operators poll,
+ * so no operation here holds a monitor: pages are kept in a concurrent queue,
+ * buffered bytes are accounted atomically, and request scheduling is run by
+ * a single caller at a time while concurrent callers only ask it to run again.
+ */
 @ThreadSafe
 public class ExchangeClient
         implements Closeable
@@ -65,29 +73,26 @@ public class ExchangeClient
     private final HttpClient httpClient;
     private final ScheduledExecutorService executor;
 
-    @GuardedBy("this")
-    private final Set<URI> locations = new HashSet<>();
-
-    @GuardedBy("this")
-    private boolean noMoreLocations;
+    private final Set<URI> locations = newConcurrentHashSet();
+    private volatile boolean noMoreLocations;
 
     private final ConcurrentMap<URI, HttpPageBufferClient> allClients = new ConcurrentHashMap<>();
-
-    @GuardedBy("this")
-    private final Deque<HttpPageBufferClient> queuedClients = new LinkedList<>();
-
+    private final Queue<HttpPageBufferClient> queuedClients = new ConcurrentLinkedQueue<>();
+    // size and membership of the queue are tracked separately, since they are linear time operations of the queue
+    private final AtomicInteger queuedClientCount = new AtomicInteger();
+    private final ConcurrentMap<HttpPageBufferClient, AtomicBoolean> clientQueued = new ConcurrentHashMap<>();
     private final Set<HttpPageBufferClient> completedClients = newConcurrentHashSet();
-    private final LinkedBlockingDeque<SerializedPage> pageBuffer = new LinkedBlockingDeque<>();
 
-    @GuardedBy("this")
-    private final List<SettableFuture<?>> blockedCallers = new ArrayList<>();
+    private final ConcurrentLinkedDeque<SerializedPage> pageBuffer = new ConcurrentLinkedDeque<>();
+    private final Queue<SettableFuture<?>> blockedCallers = new ConcurrentLinkedQueue<>();
 
-    @GuardedBy("this")
-    private long bufferBytes;
-    @GuardedBy("this")
-    private long successfulRequests;
-    @GuardedBy("this")
-    private long averageBytesPerRequest;
+    // number of times scheduling was requested since the running scheduler started, see scheduleRequestIfNecessary
+    private final AtomicInteger scheduleRequests = new AtomicInteger();
+
+    private final AtomicLong bufferBytes = new AtomicLong();
+    private final AtomicLong successfulRequests = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong receivedUncompressedBytes = new AtomicLong();
 
     private final AtomicBoolean closed = new AtomicBoolean();
     private final AtomicReference<Throwable> failure = new AtomicReference<>();
@@ -114,7 +119,7 @@ public class ExchangeClient
         this.systemMemoryUsageListener = systemMemoryUsageListener;
     }
 
-    public synchronized ExchangeClientStatus getStatus()
+    public ExchangeClientStatus getStatus()
     {
         int bufferedPages = pageBuffer.size();
         if (bufferedPages > 0 && pageBuffer.peekLast() == NO_MORE_PAGES) {
@@ -125,10 +130,17 @@ public class ExchangeClient
         for (HttpPageBufferClient client : allClients.values()) {
             exchangeStatus.add(client.getStatus());
         }
-        return new ExchangeClientStatus(bufferBytes, averageBytesPerRequest, bufferedPages, noMoreLocations, exchangeStatus.build());
+        return new ExchangeClientStatus(
+                bufferBytes.get(),
+                getAverageBytesPerRequest(),
+                receivedBytes.get(),
+                receivedUncompressedBytes.get(),
+                bufferedPages,
+                noMoreLocations,
+                exchangeStatus.build());
     }
 
-    public synchronized void addLocation(URI location)
+    public void addLocation(URI location)
     {
         requireNonNull(location, "location is null");
         if (locations.contains(location)) {
@@ -139,7 +151,7 @@ public class ExchangeClient
         scheduleRequestIfNecessary();
     }
 
-    public synchronized void noMoreLocations()
+    public void noMoreLocations()
     {
         noMoreLocations = true;
         scheduleRequestIfNecessary();
@@ -148,8 +160,6 @@ public class ExchangeClient
     @Nullable
     public SerializedPage pollPage()
     {
-        checkState(!Thread.holdsLock(this), "Can not get next page while holding a lock on this");
-
         throwIfFailed();
 
         if (closed.get()) {
@@ -164,8 +174,6 @@ public class ExchangeClient
     public SerializedPage getNextPage(Duration maxWaitTime)
             throws InterruptedException
     {
-        checkState(!Thread.holdsLock(this), "Can not get next page while holding a lock on this");
-
         throwIfFailed();
 
         if (closed.get()) {
@@ -177,7 +185,21 @@ public class ExchangeClient
         SerializedPage page = pageBuffer.poll();
         // only wait for a page if we have remote clients
         if (page == null && maxWaitTime.toMillis() >= 1 && !allClients.isEmpty()) {
-            page = pageBuffer.poll(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS);
+            long deadline = System.nanoTime() + maxWaitTime.roundTo(NANOSECONDS);
+            while (page == null && !isClosed() && !isFailed()) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    break;
+                }
+                try {
+                    isBlocked().get(remainingNanos, NANOSECONDS);
+                }
+                catch (ExecutionException | TimeoutException ignored) {
+                    // a failure is reported below, and a timeout returns no page
+                }
+                page = pageBuffer.poll();
+            }
+            throwIfFailed();
         }
 
         return postProcessPage(page);
@@ -185,8 +207,6 @@ public class ExchangeClient
 
     private SerializedPage postProcessPage(SerializedPage page)
     {
-        checkState(!Thread.holdsLock(this), "Can not get next page while holding a lock on this");
-
         if (page == NO_MORE_PAGES) {
             // mark client closed
             closed.set(true);
@@ -200,12 +220,8 @@ public class ExchangeClient
         }
 
         if (page != null) {
-            synchronized (this) {
-                if (!closed.get()) {
-                    bufferBytes -= page.getRetainedSizeInBytes();
-                    systemMemoryUsageListener.updateSystemMemoryUsage(-page.getRetainedSizeInBytes());
-                }
-            }
+            // the page was removed from the buffer by this thread, so it is released exactly once
+            releasePage(page);
             if (!closed.get() && pageBuffer.peek() == NO_MORE_PAGES) {
                 closed.set(true);
             }
@@ -226,7 +242,7 @@ public class ExchangeClient
     }
 
     @Override
-    public synchronized void close()
+    public void close()
     {
         if (!closed.compareAndSet(false, true)) {
             return;
@@ -235,16 +251,36 @@ public class ExchangeClient
         for (HttpPageBufferClient client : allClients.values()) {
             closeQuietly(client);
         }
-        pageBuffer.clear();
-        systemMemoryUsageListener.updateSystemMemoryUsage(-bufferBytes);
-        bufferBytes = 0;
-        if (pageBuffer.peekLast() != NO_MORE_PAGES) {
-            checkState(pageBuffer.add(NO_MORE_PAGES), "Could not add no more pages marker");
-        }
+        releaseBufferedPages();
         notifyBlockedCallers();
     }
 
-    public synchronized void scheduleRequestIfNecessary()
+    /**
+     * Schedules requests for more pages if there is room in the buffer. Only one caller
+     * runs the scheduling at a time; a call made while another caller is scheduling
+     * returns immediately, and the running caller schedules again on its behalf.
+     */
+    public void scheduleRequestIfNecessary()
+    {
+        if (scheduleRequests.getAndIncrement() > 0) {
+            return;
+        }
+
+        int requests = 1;
+        do {
+            try {
+                scheduleRequests();
+            }
+            catch (RuntimeException e) {
+                scheduleRequests.set(0);
+                throw e;
+            }
+            requests = scheduleRequests.addAndGet(-requests);
+        }
+        while (requests > 0);
+    }
+
+    private void scheduleRequests()
     {
         if (isFinished() || isFailed()) {
             return;
@@ -274,23 +310,24 @@ public class ExchangeClient
                         new ExchangeClientCallback(),
                         executor);
                 allClients.put(location, client);
-                queuedClients.add(client);
+                clientQueued.put(client, new AtomicBoolean());
+                enqueueClient(client);
             }
         }
 
-        long neededBytes = maxBufferedBytes - bufferBytes;
+        long neededBytes = maxBufferedBytes - bufferBytes.get();
         if (neededBytes <= 0) {
             return;
         }
 
-        int clientCount = (int) ((1.0 * neededBytes / averageBytesPerRequest) * concurrentRequestMultiplier);
+        int clientCount = (int) ((1.0 * neededBytes / getAverageBytesPerRequest()) * concurrentRequestMultiplier);
         clientCount = Math.max(clientCount, 1);
 
-        int pendingClients = allClients.size() - queuedClients.size() - completedClients.size();
+        int pendingClients = allClients.size() - queuedClientCount.get() - completedClients.size();
         clientCount -= pendingClients;
 
         for (int i = 0; i < clientCount; i++) {
-            HttpPageBufferClient client = queuedClients.poll();
+            HttpPageBufferClient client = dequeueClient();
             if (client == null) {
                 // no more clients available
                 return;
@@ -299,70 +336,134 @@ public class ExchangeClient
         }
     }
 
-    public synchronized ListenableFuture<?> isBlocked()
+    public ListenableFuture<?> isBlocked()
     {
-        if (isClosed() || isFailed() || pageBuffer.peek() != null) {
+        if (isReadyToPoll()) {
             return Futures.immediateFuture(true);
         }
         SettableFuture<?> future = SettableFuture.create();
         blockedCallers.add(future);
+        // pages may have been added before the future was registered
+        if (isReadyToPoll()) {
+            notifyBlockedCallers();
+        }
         return future;
     }
 
-    private synchronized boolean addPages(List<SerializedPage> pages)
+    private boolean isReadyToPoll()
+    {
+        return isClosed() || isFailed() || pageBuffer.peek() != null;
+    }
+
+    private boolean addPages(List<SerializedPage> pages)
     {
         if (isClosed() || isFailed()) {
             return false;
         }
 
-        pageBuffer.addAll(pages);
-
-        // notify all blocked callers
-        notifyBlockedCallers();
-
         long memorySize = pages.stream()
                 .mapToLong(SerializedPage::getRetainedSizeInBytes)
                 .sum();
 
-        bufferBytes += memorySize;
+        // account for the pages before they can be polled, so the buffered bytes never go negative
+        bufferBytes.addAndGet(memorySize);
         systemMemoryUsageListener.updateSystemMemoryUsage(memorySize);
-        successfulRequests++;
+        pageBuffer.addAll(pages);
+
+        if (isClosed()) {
+            // closed concurrently, after the buffer was released
+            releaseBufferedPages();
+        }
+
+        if (!pages.isEmpty()) {
+            // notify all blocked callers
+            notifyBlockedCallers();
+        }
 
         long responseSize = pages.stream()
                 .mapToLong(SerializedPage::getSizeInBytes)
                 .sum();
-        // AVG_n = AVG_(n-1) * (n-1)/n + VALUE_n / n
-        averageBytesPerRequest = (long) (1.0 * averageBytesPerRequest * (successfulRequests - 1) / successfulRequests + responseSize / successfulRequests);
+        successfulRequests.incrementAndGet();
+        receivedBytes.addAndGet(responseSize);
+        receivedUncompressedBytes.addAndGet(pages.stream()
+                .mapToLong(SerializedPage::getUncompressedSizeInBytes)
+                .sum());
 
         scheduleRequestIfNecessary();
         return true;
     }
 
-    private synchronized void notifyBlockedCallers()
+    private long getAverageBytesPerRequest()
+    {
+        long requests = successfulRequests.get();
+        if (requests == 0) {
+            return 0;
+        }
+        return receivedBytes.get() / requests;
+    }
+
+    private void releasePage(SerializedPage page)
+    {
+        bufferBytes.addAndGet(-page.getRetainedSizeInBytes());
+        systemMemoryUsageListener.updateSystemMemoryUsage(-page.getRetainedSizeInBytes());
+    }
+
+    private void releaseBufferedPages()
+    {
+        SerializedPage page = pageBuffer.poll();
+        while (page != null) {
+            if (page != NO_MORE_PAGES) {
+                releasePage(page);
+            }
+            page = pageBuffer.poll();
+        }
+        if (pageBuffer.peekLast() != NO_MORE_PAGES) {
+            checkState(pageBuffer.add(NO_MORE_PAGES), "Could not add no more pages marker");
+        }
+    }
+
+    private void notifyBlockedCallers()
     {
-        List<SettableFuture<?>> callers = ImmutableList.copyOf(blockedCallers);
-        blockedCallers.clear();
-        for (SettableFuture<?> blockedCaller : callers) {
+        SettableFuture<?> blockedCaller = blockedCallers.poll();
+        while (blockedCaller != null) {
             blockedCaller.set(null);
+            blockedCaller = blockedCallers.poll();
         }
     }
 
-    private synchronized void requestComplete(HttpPageBufferClient client)
+    private void requestComplete(HttpPageBufferClient client)
     {
-        if (!queuedClients.contains(client)) {
+        enqueueClient(client);
+        scheduleRequestIfNecessary();
+    }
+
+    private void enqueueClient(HttpPageBufferClient client)
+    {
+        if (clientQueued.get(client).compareAndSet(false, true)) {
+            queuedClientCount.incrementAndGet();
             queuedClients.add(client);
         }
-        scheduleRequestIfNecessary();
     }
 
-    private synchronized void clientFinished(HttpPageBufferClient client)
+    @Nullable
+    private HttpPageBufferClient dequeueClient()
+    {
+        HttpPageBufferClient client = queuedClients.poll();
+        if (client != null) {
+            queuedClientCount.decrementAndGet();
+            clientQueued.get(client).set(false);
+        }
+        return client;
+    }
+
+    private void clientFinished(HttpPageBufferClient client)
     {
         requireNonNull(client, "client is null");
         completedClients.add(client);
         scheduleRequestIfNecessary();
     }
 
-    private synchronized void clientFailed(Throwable cause)
+    private void clientFailed(Throwable cause)
     {
         // TODO: properly handle the failed vs closed state
         // it is important not to treat failures as a successful close
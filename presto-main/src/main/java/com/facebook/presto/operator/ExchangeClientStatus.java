@@ -27,6 +27,8 @@ public class ExchangeClientStatus
 {
     private final long bufferedBytes;
     private final long averageBytesPerRequest;
+    private final long receivedBytes;
+    private final long receivedUncompressedBytes;
     private final int bufferedPages;
     private final boolean noMoreLocations;
     private final List<PageBufferClientStatus> pageBufferClientStatuses;
@@ -35,12 +37,16 @@ public class ExchangeClientStatus
     public ExchangeClientStatus(
             @JsonProperty("bufferedBytes") long bufferedBytes,
             @JsonProperty("averageBytesPerRequest") long averageBytesPerRequest,
+            @JsonProperty("receivedBytes") long receivedBytes,
+            @JsonProperty("receivedUncompressedBytes") long receivedUncompressedBytes,
             @JsonProperty("bufferedPages") int bufferedPages,
             @JsonProperty("noMoreLocations") boolean noMoreLocations,
             @JsonProperty("pageBufferClientStatuses") List<PageBufferClientStatus> pageBufferClientStatuses)
     {
         this.bufferedBytes = bufferedBytes;
         this.averageBytesPerRequest = averageBytesPerRequest;
+        this.receivedBytes = receivedBytes;
+        this.receivedUncompressedBytes = receivedUncompressedBytes;
         this.bufferedPages = bufferedPages;
         this.noMoreLocations = noMoreLocations;
         this.pageBufferClientStatuses = ImmutableList.copyOf(requireNonNull(pageBufferClientStatuses, "pageBufferClientStatuses is null"));
@@ -58,6 +64,24 @@ public class ExchangeClientStatus
         return averageBytesPerRequest;
     }
 
+    /**
+     * Size of the pages received so far, as they were sent over the network.
+     */
+    @JsonProperty
+    public long getReceivedBytes()
+    {
+        return receivedBytes;
+    }
+
+    /**
+     * Size the pages received so far would have had without compression.
+     */
+    @JsonProperty
+    public long getReceivedUncompressedBytes()
+    {
+        return receivedUncompressedBytes;
+    }
+
     @JsonProperty
     public int getBufferedPages()
     {
@@ -83,6 +107,8 @@ public class ExchangeClientStatus
         return toStringHelper(this)
                 .add("bufferBytes", bufferedBytes)
                 .add("averageBytesPerRequest", averageBytesPerRequest)
+                .add("receivedBytes", receivedBytes)
+                .add("receivedUncompressedBytes", receivedUncompressedBytes)
                 .add("bufferedPages", bufferedPages)
                 .add("noMoreLocations", noMoreLocations)
                 .add("pageBufferClientStatuses", pageBufferClientStatuses)
@@ -228,6 +228,7 @@ public class ExchangeOperator
         }
 
         operatorContext.recordGeneratedInput(page.getSizeInBytes(), page.getPositionCount());
+        operatorContext.recordExchangeData(page.getSizeInBytes(), page.getUncompressedSizeInBytes());
         return serde.deserialize(page);
     }
 
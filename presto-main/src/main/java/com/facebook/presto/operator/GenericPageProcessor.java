@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.operator.LazyBlocks.loadSelectedPositions;
 import static com.facebook.presto.spi.block.DictionaryId.randomDictionaryId;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.Iterables.getOnlyElement;
@@ -92,6 +93,13 @@ public class GenericPageProcessor
         PageBuilder pageBuilder = new PageBuilder(types);
         Block[] inputBlocks = page.getBlocks();
 
+        // columns that are not used by the filter only need to be decoded at the selected positions
+        for (ProjectionFunction projection : projections) {
+            for (int channel : projection.getInputChannels()) {
+                inputBlocks[channel] = loadSelectedPositions(inputBlocks[channel], selectedPositions);
+            }
+        }
+
         for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
             ProjectionFunction projection = projections.get(projectionIndex);
             projectColumnar(selectedPositions, pageBuilder.getBlockBuilder(projectionIndex), inputBlocks, projection);
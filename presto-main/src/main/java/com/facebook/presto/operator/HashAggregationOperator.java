@@ -17,6 +17,7 @@ import com.facebook.presto.operator.aggregation.Accumulator;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.operator.aggregation.builder.HashAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import com.facebook.presto.operator.aggregation.builder.SkipAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.SpillableHashAggregationBuilder;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
@@ -38,6 +39,7 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder.toTypes;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.concurrent.MoreFutures.toListenableFuture;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -64,6 +66,7 @@ public class HashAggregationOperator
         private final int expectedGroups;
         private final List<Type> types;
         private final DataSize maxPartialMemory;
+        private final Optional<PartialAggregationController> partialAggregationController;
         private final boolean spillEnabled;
         private final DataSize memoryLimitBeforeSpill;
         private final DataSize memoryLimitForMergeWithMemory;
@@ -97,6 +100,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    Optional.empty(),
                     false,
                     new DataSize(0, MEGABYTE),
                     new DataSize(0, MEGABYTE),
@@ -128,6 +132,7 @@ public class HashAggregationOperator
                 Optional<Integer> groupIdChannel,
                 int expectedGroups,
                 DataSize maxPartialMemory,
+                Optional<PartialAggregationController> partialAggregationController,
                 boolean spillEnabled,
                 DataSize memoryLimitBeforeSpill,
                 SpillerFactory spillerFactory,
@@ -144,6 +149,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    partialAggregationController,
                     spillEnabled,
                     memoryLimitBeforeSpill,
                     DataSize.succinctBytes((long) (memoryLimitBeforeSpill.toBytes() * MERGE_WITH_MEMORY_RATIO)),
@@ -164,6 +170,7 @@ public class HashAggregationOperator
                 Optional<Integer> groupIdChannel,
                 int expectedGroups,
                 DataSize maxPartialMemory,
+                Optional<PartialAggregationController> partialAggregationController,
                 boolean spillEnabled,
                 DataSize memoryLimitBeforeSpill,
                 DataSize memoryLimitForMergeWithMemory,
@@ -181,6 +188,7 @@ public class HashAggregationOperator
             this.accumulatorFactories = ImmutableList.copyOf(accumulatorFactories);
             this.expectedGroups = expectedGroups;
             this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+            this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
             this.spillEnabled = spillEnabled;
             this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null");
             this.memoryLimitForMergeWithMemory = requireNonNull(memoryLimitForMergeWithMemory, "memoryLimitForMergeWithMemory is null");
@@ -213,6 +221,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    partialAggregationController,
                     spillEnabled,
                     memoryLimitBeforeSpill,
                     memoryLimitForMergeWithMemory,
@@ -242,6 +251,7 @@ public class HashAggregationOperator
                     groupIdChannel,
                     expectedGroups,
                     maxPartialMemory,
+                    partialAggregationController,
                     spillEnabled,
                     memoryLimitBeforeSpill,
                     memoryLimitForMergeWithMemory,
@@ -260,6 +270,7 @@ public class HashAggregationOperator
     private final Optional<Integer> groupIdChannel;
     private final int expectedGroups;
     private final DataSize maxPartialMemory;
+    private final Optional<PartialAggregationController> partialAggregationController;
     private final boolean spillEnabled;
     private final DataSize memoryLimitBeforeSpill;
     private final DataSize memoryLimitForMergeWithMemory;
@@ -272,6 +283,8 @@ public class HashAggregationOperator
     private HashAggregationBuilder aggregationBuilder;
     private Iterator<Page> outputIterator;
     private boolean inputProcessed;
+    private long builderInputPositions;
+    private boolean passThrough;
     private boolean finishing;
     private boolean finished;
 
@@ -286,6 +299,7 @@ public class HashAggregationOperator
             Optional<Integer> groupIdChannel,
             int expectedGroups,
             DataSize maxPartialMemory,
+            Optional<PartialAggregationController> partialAggregationController,
             boolean spillEnabled,
             DataSize memoryLimitBeforeSpill,
             DataSize memoryLimitForMergeWithMemory,
@@ -306,6 +320,8 @@ public class HashAggregationOperator
         this.step = step;
         this.expectedGroups = expectedGroups;
         this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+        this.partialAggregationController = requireNonNull(partialAggregationController, "partialAggregationController is null");
+        checkArgument(!partialAggregationController.isPresent() || step == Step.PARTIAL, "partialAggregationController is only supported for a partial aggregation");
         this.types = toTypes(groupByTypes, step, accumulatorFactories, hashChannel);
         this.spillEnabled = spillEnabled;
         this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null");
@@ -370,8 +386,15 @@ public class HashAggregationOperator
         requireNonNull(page, "page is null");
         inputProcessed = true;
 
+        if (passThrough) {
+            operatorContext.recordPassThroughPositions(page.getPositionCount());
+        }
+
         if (aggregationBuilder == null) {
-            if (step.isOutputPartial() || !spillEnabled) {
+            if (passThrough) {
+                aggregationBuilder = new SkipAggregationBuilder(groupByChannels, hashChannel, accumulatorFactories);
+            }
+            else if (step.isOutputPartial() || !spillEnabled) {
                 aggregationBuilder = new InMemoryHashAggregationBuilder(
                         accumulatorFactories,
                         step,
@@ -405,6 +428,34 @@ public class HashAggregationOperator
         }
         aggregationBuilder.processPage(page);
         aggregationBuilder.updateMemory();
+
+        // the groups can only be counted for an in memory builder, which partial aggregations use
+        if (partialAggregationController.isPresent() && !passThrough && aggregationBuilder instanceof InMemoryHashAggregationBuilder) {
+            builderInputPositions += page.getPositionCount();
+            long groupCount = ((InMemoryHashAggregationBuilder) aggregationBuilder).getGroupCount();
+            if (partialAggregationController.get().shouldPassThrough(builderInputPositions, groupCount)) {
+                // flush the groups collected so far, subsequent pages are passed through
+                passThrough = true;
+                outputIterator = aggregationBuilder.buildResult();
+            }
+        }
+    }
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoking()
+    {
+        if (aggregationBuilder == null || outputIterator != null) {
+            return NOT_BLOCKED;
+        }
+        return toListenableFuture(aggregationBuilder.startMemoryRevoking());
+    }
+
+    @Override
+    public void finishMemoryRevoking()
+    {
+        if (aggregationBuilder != null) {
+            aggregationBuilder.finishMemoryRevoking();
+        }
     }
 
     @Override
@@ -461,6 +512,7 @@ public class HashAggregationOperator
     private void closeAggregationBuilder()
     {
         outputIterator = null;
+        builderInputPositions = 0;
         if (aggregationBuilder != null) {
             aggregationBuilder.recordHashCollisions(hashCollisionsCounter);
             aggregationBuilder.close();
@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.units.Duration;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Hash collisions of a join build, together with the time spent building its hash table.
+ */
+public class HashBuilderInfo
+        extends HashCollisionsInfo
+{
+    private final Duration buildTime;
+
+    public static HashBuilderInfo createHashBuilderInfo(HashCollisionsInfo hashCollisionsInfo, long buildNanos)
+    {
+        return new HashBuilderInfo(
+                hashCollisionsInfo.getWeightedHashCollisions(),
+                hashCollisionsInfo.getWeightedSumSquaredHashCollisions(),
+                hashCollisionsInfo.getWeightedExpectedHashCollisions(),
+                new Duration(buildNanos, NANOSECONDS).convertToMostSuccinctTimeUnit());
+    }
+
+    @JsonCreator
+    public HashBuilderInfo(
+            @JsonProperty(WEIGHTED_HASH_COLLISIONS_PROPERTY) double weightedHashCollisions,
+            @JsonProperty(WEIGHTED_SUM_SQUARED_HASH_COLLISIONS) double weightedSumSquaredHashCollisions,
+            @JsonProperty(WEIGHTED_EXPECTED_HASH_COLLISIONS) double weightedExpectedHashCollisions,
+            @JsonProperty("buildTime") Duration buildTime)
+    {
+        super(weightedHashCollisions, weightedSumSquaredHashCollisions, weightedExpectedHashCollisions);
+        this.buildTime = buildTime;
+    }
+
+    @JsonProperty
+    public Duration getBuildTime()
+    {
+        return buildTime;
+    }
+
+    @Override
+    public HashCollisionsInfo mergeWith(HashCollisionsInfo other)
+    {
+        HashCollisionsInfo hashCollisionsInfo = super.mergeWith(other);
+        if (!(other instanceof HashBuilderInfo)) {
+            return hashCollisionsInfo;
+        }
+        long buildNanos = buildTime.roundTo(NANOSECONDS) + ((HashBuilderInfo) other).getBuildTime().roundTo(NANOSECONDS);
+        return createHashBuilderInfo(hashCollisionsInfo, buildNanos);
+    }
+}
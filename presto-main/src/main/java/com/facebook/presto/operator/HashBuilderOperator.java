@@ -13,8 +13,11 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.memory.LocalMemoryContext;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
 import com.facebook.presto.sql.planner.Symbol;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
@@ -22,15 +25,20 @@ import com.facebook.presto.util.ImmutableCollectors;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.MoreFutures;
+import io.airlift.units.DataSize;
 
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import static com.facebook.presto.operator.HashBuilderInfo.createHashBuilderInfo;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -50,6 +58,10 @@ public class HashBuilderOperator
         private final PagesIndex.Factory pagesIndexFactory;
 
         private final int expectedPositions;
+        private final boolean spillEnabled;
+        private final DataSize memoryLimitBeforeSpill;
+        private final SpillerFactory spillerFactory;
+        private final Optional<LocalDynamicFilter> dynamicFilter;
 
         private int partitionIndex;
         private boolean closed;
@@ -67,11 +79,64 @@ public class HashBuilderOperator
                 int expectedPositions,
                 int partitionCount,
                 PagesIndex.Factory pagesIndexFactory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    types,
+                    outputChannels,
+                    layout,
+                    hashChannels,
+                    preComputedHashChannel,
+                    outer,
+                    filterFunctionFactory,
+                    expectedPositions,
+                    partitionCount,
+                    pagesIndexFactory,
+                    false,
+                    new DataSize(0, MEGABYTE),
+                    new SpillerFactory()
+                    {
+                        @Override
+                        public Spiller create(List<Type> types)
+                        {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        public long getTotalSpilledBytes()
+                        {
+                            return 0;
+                        }
+                    },
+                    Optional.empty());
+        }
+
+        public HashBuilderOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<Type> types,
+                List<Integer> outputChannels,
+                Map<Symbol, Integer> layout,
+                List<Integer> hashChannels,
+                Optional<Integer> preComputedHashChannel,
+                boolean outer,
+                Optional<JoinFilterFunctionFactory> filterFunctionFactory,
+                int expectedPositions,
+                int partitionCount,
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                DataSize memoryLimitBeforeSpill,
+                SpillerFactory spillerFactory,
+                Optional<LocalDynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
 
             checkArgument(Integer.bitCount(partitionCount) == 1, "partitionCount must be a power of 2");
+            // outer joins need to track visited build positions across all partitions, so they can not spill
+            this.spillEnabled = spillEnabled && !outer;
+            this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null");
+            this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
             lookupSourceFactory = new PartitionedLookupSourceFactory(
                     types,
                     outputChannels.stream()
@@ -80,7 +145,10 @@ public class HashBuilderOperator
                     hashChannels,
                     partitionCount,
                     requireNonNull(layout, "layout is null"),
-                    outer);
+                    outer,
+                    this.spillEnabled ? Optional.of(spillerFactory) : Optional.empty(),
+                    // probe rows of spilled partitions are buffered up to the same limit as the build rows
+                    this.memoryLimitBeforeSpill);
 
             this.outputChannels = ImmutableList.copyOf(requireNonNull(outputChannels, "outputChannels is null"));
             this.hashChannels = ImmutableList.copyOf(requireNonNull(hashChannels, "hashChannels is null"));
@@ -89,6 +157,9 @@ public class HashBuilderOperator
             this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
 
             this.expectedPositions = expectedPositions;
+
+            this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+            dynamicFilter.ifPresent(filter -> filter.setPartitionCount(partitionCount));
         }
 
         public LookupSourceFactory getLookupSourceFactory()
@@ -116,7 +187,11 @@ public class HashBuilderOperator
                     preComputedHashChannel,
                     filterFunctionFactory,
                     expectedPositions,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    spillEnabled,
+                    memoryLimitBeforeSpill,
+                    spillerFactory,
+                    dynamicFilter.map(filter -> filter.createCollector(lookupSourceFactory.getTypes(), hashChannels)));
 
             partitionIndex++;
             return operator;
@@ -135,6 +210,13 @@ public class HashBuilderOperator
         }
     }
 
+    private enum State
+    {
+        CONSUMING_INPUT,
+        SPILLING_INPUT,
+        LOOKUP_SOURCE_BUILT,
+    }
+
     private final OperatorContext operatorContext;
     private final PartitionedLookupSourceFactory lookupSourceFactory;
     private final int partitionIndex;
@@ -144,10 +226,21 @@ public class HashBuilderOperator
     private final Optional<Integer> preComputedHashChannel;
     private final Optional<JoinFilterFunctionFactory> filterFunctionFactory;
 
+    private final PagesIndex.Factory pagesIndexFactory;
+    private final int expectedPositions;
     private final PagesIndex index;
 
-    private boolean finishing;
+    private final boolean spillEnabled;
+    private final long memoryLimitBeforeSpill;
+    private final SpillerFactory spillerFactory;
+    private final LocalMemoryContext spillMemoryContext;
+    private final Optional<LocalDynamicFilter.Collector> dynamicFilterCollector;
+
+    private State state = State.CONSUMING_INPUT;
+    private Optional<Spiller> spiller = Optional.empty();
+    private CompletableFuture<?> spillInProgress = CompletableFuture.completedFuture(null);
     private final HashCollisionsCounter hashCollisionsCounter;
+    private long buildNanos;
 
     public HashBuilderOperator(
             OperatorContext operatorContext,
@@ -158,7 +251,11 @@ public class HashBuilderOperator
             Optional<Integer> preComputedHashChannel,
             Optional<JoinFilterFunctionFactory> filterFunctionFactory,
             int expectedPositions,
-            PagesIndex.Factory pagesIndexFactory)
+            PagesIndex.Factory pagesIndexFactory,
+            boolean spillEnabled,
+            DataSize memoryLimitBeforeSpill,
+            SpillerFactory spillerFactory,
+            Optional<LocalDynamicFilter.Collector> dynamicFilterCollector)
     {
         requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
 
@@ -166,6 +263,8 @@ public class HashBuilderOperator
         this.partitionIndex = partitionIndex;
         this.filterFunctionFactory = filterFunctionFactory;
 
+        this.pagesIndexFactory = pagesIndexFactory;
+        this.expectedPositions = expectedPositions;
         this.index = pagesIndexFactory.newPagesIndex(lookupSourceFactory.getTypes(), expectedPositions);
         this.lookupSourceFactory = lookupSourceFactory;
 
@@ -173,8 +272,14 @@ public class HashBuilderOperator
         this.hashChannels = hashChannels;
         this.preComputedHashChannel = preComputedHashChannel;
 
+        this.spillEnabled = spillEnabled;
+        this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null").toBytes();
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.spillMemoryContext = operatorContext.getSystemMemoryContext().newLocalMemoryContext();
+        this.dynamicFilterCollector = requireNonNull(dynamicFilterCollector, "dynamicFilterCollector is null");
+
         this.hashCollisionsCounter = new HashCollisionsCounter(operatorContext);
-        operatorContext.setInfoSupplier(hashCollisionsCounter);
+        operatorContext.setInfoSupplier(() -> createHashBuilderInfo(hashCollisionsCounter.get(), buildNanos));
     }
 
     @Override
@@ -192,34 +297,91 @@ public class HashBuilderOperator
     @Override
     public void finish()
     {
-        if (finishing) {
+        if (state == State.LOOKUP_SOURCE_BUILT || !spillInProgress.isDone()) {
+            return;
+        }
+        // check for exception from previous spill for early failure
+        getFutureValue(spillInProgress);
+
+        if (state == State.CONSUMING_INPUT) {
+            // publish the dynamic filter before the lookup source, so that probe side scans see it when the join starts
+            dynamicFilterCollector.ifPresent(LocalDynamicFilter.Collector::finish);
+            // the index can not be revoked anymore once it is turned into a lookup source
+            operatorContext.setRevocableMemoryReservation(0);
+            if (!spiller.isPresent()) {
+                buildLookupSource();
+                return;
+            }
+            // partition is already partially on disk, so spill the rest of it as well
+            spillIndex();
+            state = State.SPILLING_INPUT;
             return;
         }
-        finishing = true;
 
+        checkState(state == State.SPILLING_INPUT, "Unexpected state %s", state);
+        spillMemoryContext.setBytes(0);
+        lookupSourceFactory.setPartitionSpilledLookupSourceHandle(partitionIndex, createSpilledLookupSourceHandle());
+        state = State.LOOKUP_SOURCE_BUILT;
+    }
+
+    private void buildLookupSource()
+    {
+        // the index stays in memory while the lookup source is built, and the build may need temporary memory on top of it
+        operatorContext.setMemoryReservation(index.getEstimatedSize().toBytes() + index.getEstimatedLookupSourceBuildSize(operatorContext.getSession()).toBytes());
+
+        long start = System.nanoTime();
         LookupSourceSupplier partition = index.createLookupSourceSupplier(operatorContext.getSession(), hashChannels, preComputedHashChannel, filterFunctionFactory, Optional.of(outputChannels));
+        buildNanos = System.nanoTime() - start;
         lookupSourceFactory.setPartitionLookupSourceSupplier(partitionIndex, partition);
 
         operatorContext.setMemoryReservation(partition.get().getInMemorySizeInBytes());
         hashCollisionsCounter.recordHashCollision(partition.getHashCollisions(), partition.getExpectedHashCollisions());
+        state = State.LOOKUP_SOURCE_BUILT;
+    }
+
+    private SpilledLookupSourceHandle createSpilledLookupSourceHandle()
+    {
+        Spiller spiller = this.spiller.get();
+        LookupSourceSupplier emptyPartition = index.createLookupSourceSupplier(operatorContext.getSession(), hashChannels, preComputedHashChannel, filterFunctionFactory, Optional.of(outputChannels));
+        return new SpilledLookupSourceHandle(
+                spiller,
+                emptyPartition,
+                // the pages are read and the lookup source is built on the spiller threads, not on the driver threads
+                () -> spiller.getAllSpilledPages().thenApply(pages -> {
+                    PagesIndex unspilledIndex = pagesIndexFactory.newPagesIndex(lookupSourceFactory.getTypes(), expectedPositions);
+                    pages.forEach(unspilledIndex::addPage);
+                    return unspilledIndex.createLookupSourceSupplier(operatorContext.getSession(), hashChannels, preComputedHashChannel, filterFunctionFactory, Optional.of(outputChannels));
+                }),
+                // this operator stays alive until the lookup source is destroyed, so it owns the unspilled partition memory
+                bytes -> {
+                    if (bytes > 0) {
+                        operatorContext.reserveMemory(bytes);
+                    }
+                    else {
+                        operatorContext.freeMemory(-bytes);
+                    }
+                });
     }
 
     @Override
     public boolean isFinished()
     {
-        return finishing && lookupSourceFactory.isDestroyed().isDone();
+        return state == State.LOOKUP_SOURCE_BUILT && lookupSourceFactory.isDestroyed().isDone();
     }
 
     @Override
     public boolean needsInput()
     {
-        return !finishing;
+        return state == State.CONSUMING_INPUT && spillInProgress.isDone();
     }
 
     @Override
     public ListenableFuture<?> isBlocked()
     {
-        if (!finishing) {
+        if (!spillInProgress.isDone()) {
+            return MoreFutures.toListenableFuture(spillInProgress);
+        }
+        if (state != State.LOOKUP_SOURCE_BUILT) {
             return NOT_BLOCKED;
         }
         return MoreFutures.toListenableFuture(lookupSourceFactory.isDestroyed());
@@ -229,19 +391,85 @@ public class HashBuilderOperator
     public void addInput(Page page)
     {
         requireNonNull(page, "page is null");
-        checkState(!isFinished(), "Operator is already finished");
+        checkState(needsInput(), "Operator is not accepting input");
+        // check for exception from previous spill for early failure
+        getFutureValue(spillInProgress);
+        spillMemoryContext.setBytes(0);
 
+        dynamicFilterCollector.ifPresent(collector -> collector.addPage(page));
         index.addPage(page);
-        if (!operatorContext.trySetMemoryReservation(index.getEstimatedSize().toBytes())) {
-            index.compact();
+        if (spillEnabled) {
+            if (index.getEstimatedSize().toBytes() > memoryLimitBeforeSpill) {
+                spillIndex();
+            }
+            // the index can be spilled at any time until the lookup source is built, so the memory pool may revoke it
+            operatorContext.setRevocableMemoryReservation(index.getEstimatedSize().toBytes());
+        }
+        else {
+            if (!operatorContext.trySetMemoryReservation(index.getEstimatedSize().toBytes())) {
+                index.compact();
+            }
+            operatorContext.setMemoryReservation(index.getEstimatedSize().toBytes());
         }
-        operatorContext.setMemoryReservation(index.getEstimatedSize().toBytes());
         operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
     }
 
+    @Override
+    public ListenableFuture<?> startMemoryRevoking()
+    {
+        if (state != State.CONSUMING_INPUT || !spillInProgress.isDone() || index.getPositionCount() == 0) {
+            return NOT_BLOCKED;
+        }
+        // check for exception from previous spill for early failure
+        getFutureValue(spillInProgress);
+        spillMemoryContext.setBytes(0);
+
+        spillIndex();
+        operatorContext.setRevocableMemoryReservation(index.getEstimatedSize().toBytes());
+        return MoreFutures.toListenableFuture(spillInProgress);
+    }
+
+    @Override
+    public void finishMemoryRevoking()
+    {
+        // check for exception from the spill
+        getFutureValue(spillInProgress);
+        spillMemoryContext.setBytes(0);
+    }
+
+    private void spillIndex()
+    {
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(spillerFactory.create(lookupSourceFactory.getTypes()));
+        }
+
+        // transfer ownership of the indexed pages to the spilling thread
+        long spilledBytes = index.getEstimatedSize().toBytes();
+        List<Page> pages = index.getPages();
+        index.clear();
+        spillMemoryContext.setBytes(spilledBytes);
+        operatorContext.recordSpill(spilledBytes);
+
+        spillInProgress = spiller.get().spill(pages.iterator());
+    }
+
     @Override
     public Page getOutput()
     {
         return null;
     }
+
+    @Override
+    public void close()
+    {
+        // once the lookup source is built, the spilled lookup source handle owns the spiller
+        if (state != State.LOOKUP_SOURCE_BUILT && spiller.isPresent()) {
+            // the spiller can not remove its files while a spill is still writing them
+            spillInProgress.exceptionally(failure -> null).join();
+            spiller.get().close();
+            spiller = Optional.empty();
+        }
+        spillMemoryContext.setBytes(0);
+        operatorContext.setRevocableMemoryReservation(0);
+    }
 }
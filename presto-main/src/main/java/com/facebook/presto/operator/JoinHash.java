@@ -27,14 +27,14 @@ import static java.util.Objects.requireNonNull;
 public final class JoinHash
         implements LookupSource
 {
-    private final PagesHash pagesHash;
+    private final PagesHashTable pagesHash;
 
     // we unwrap Optional<JoinFilterFunction> to actual verifier or null in constructor for performance reasons
     // we do quick check for `filterFunction == null` in `isJoinPositionEligible` to avoid calls to applyFilterFunction
     @Nullable
     private final JoinFilterFunction filterFunction;
 
-    public JoinHash(PagesHash pagesHash, Optional<JoinFilterFunction> filterFunction)
+    public JoinHash(PagesHashTable pagesHash, Optional<JoinFilterFunction> filterFunction)
     {
         this.pagesHash = requireNonNull(pagesHash, "pagesHash is null");
         this.filterFunction = requireNonNull(filterFunction, "filterFunction can not be null").orElse(null);
@@ -76,6 +76,12 @@ public final class JoinHash
         return pagesHash.getAddressIndex(position, hashChannelsPage, allChannelsPage, rawHash);
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int offset, int length, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes, long[] joinPositions)
+    {
+        pagesHash.getAddressIndexes(positions, offset, length, hashChannelsPage, allChannelsPage, rawHashes, joinPositions);
+    }
+
     @Override
     public final long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
@@ -27,7 +27,7 @@ public class JoinHashSupplier
         implements LookupSourceSupplier
 {
     private final ConnectorSession session;
-    private final PagesHash pagesHash;
+    private final PagesHashTable pagesHash;
     private final LongArrayList addresses;
     private final List<List<Block>> channels;
     private final Optional<JoinFilterFunctionFactory> filterFunctionFactory;
@@ -37,7 +37,9 @@ public class JoinHashSupplier
             PagesHashStrategy pagesHashStrategy,
             LongArrayList addresses,
             List<List<Block>> channels,
-            Optional<JoinFilterFunctionFactory> filterFunctionFactory)
+            Optional<JoinFilterFunctionFactory> filterFunctionFactory,
+            boolean openAddressingHashEnabled,
+            boolean parallelBuildEnabled)
     {
         requireNonNull(session, "session is null");
         requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
@@ -46,7 +48,12 @@ public class JoinHashSupplier
         requireNonNull(filterFunctionFactory, "filterFunctionFactory is null");
 
         this.session = session;
-        this.pagesHash = new PagesHash(addresses, pagesHashStrategy);
+        if (openAddressingHashEnabled) {
+            this.pagesHash = new OpenAddressingPagesHash(addresses, pagesHashStrategy);
+        }
+        else {
+            this.pagesHash = new PagesHash(addresses, pagesHashStrategy, parallelBuildEnabled);
+        }
         this.addresses = addresses;
         this.channels = channels;
         this.filterFunctionFactory = filterFunctionFactory;
@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.LazyBlock;
+
+public final class LazyBlocks
+{
+    private LazyBlocks() {}
+
+    /**
+     * Returns a block that can be read at the selected positions of the specified block.
+     * If the block is not loaded yet, only the values at the selected positions are decoded
+     * (when the loader supports it), and the other positions of the returned block must not
+     * be read. The specified block can still be loaded in full. Otherwise the block is
+     * returned as is.
+     */
+    public static Block loadSelectedPositions(Block block, int[] selectedPositions)
+    {
+        if (!(block instanceof LazyBlock) || selectedPositions.length == 0 || selectedPositions.length == block.getPositionCount()) {
+            return block;
+        }
+
+        Block selected = ((LazyBlock) block).loadPositions(selectedPositions, selectedPositions.length);
+        if (selected == null) {
+            return block;
+        }
+
+        // map the selected positions to the loaded values, so the block is still addressed by the original positions
+        int[] ids = new int[block.getPositionCount()];
+        for (int i = 0; i < selectedPositions.length; i++) {
+            ids[selectedPositions[i]] = i;
+        }
+        return new DictionaryBlock(block.getPositionCount(), selected, ids);
+    }
+}
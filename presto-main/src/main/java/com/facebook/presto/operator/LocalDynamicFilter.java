@@ -0,0 +1,224 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.TypeUtils.readNativeValue;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Summary of the join keys seen by all hash build operators of a join in a task.
+ * Once every build partition has reported, the probe side table scan of the same
+ * task can use it to skip data which can not match any build row.
+ */
+@ThreadSafe
+public class LocalDynamicFilter
+{
+    private final Map<Integer, ColumnHandle> probeColumns;
+    private final int maxDistinctValues;
+
+    @GuardedBy("this")
+    private int partitionCount;
+
+    @GuardedBy("this")
+    private final List<TupleDomain<ColumnHandle>> partitions = new ArrayList<>();
+
+    private volatile TupleDomain<ColumnHandle> predicate = TupleDomain.all();
+
+    /**
+     * @param probeColumns probe side columns to filter, by position of the join clause
+     * @param maxDistinctValues number of distinct build keys above which only their range is kept
+     */
+    public LocalDynamicFilter(Map<Integer, ColumnHandle> probeColumns, int maxDistinctValues)
+    {
+        this.probeColumns = ImmutableMap.copyOf(requireNonNull(probeColumns, "probeColumns is null"));
+        checkArgument(!probeColumns.isEmpty(), "probeColumns is empty");
+        checkArgument(maxDistinctValues >= 0, "maxDistinctValues is negative");
+        this.maxDistinctValues = maxDistinctValues;
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        // floating point values are not collected, as NaN can not be represented in a range
+        Class<?> javaType = type.getJavaType();
+        return type.isOrderable() && !type.equals(REAL) && (javaType == long.class || javaType == boolean.class || javaType == Slice.class);
+    }
+
+    public synchronized void setPartitionCount(int partitionCount)
+    {
+        checkArgument(partitionCount > 0, "partitionCount must be positive");
+        checkState(this.partitionCount == 0, "partitionCount is already set");
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Returns the predicate on the probe columns, which is {@code TupleDomain.all()}
+     * until all build partitions are complete.
+     */
+    public TupleDomain<ColumnHandle> getCurrentPredicate()
+    {
+        return predicate;
+    }
+
+    public Collector createCollector(List<Type> types, List<Integer> hashChannels)
+    {
+        return new Collector(types, hashChannels);
+    }
+
+    private synchronized void addPartition(TupleDomain<ColumnHandle> partition)
+    {
+        checkState(partitionCount > 0, "partitionCount is not set");
+        checkState(partitions.size() < partitionCount, "All partitions are already set");
+        partitions.add(partition);
+        if (partitions.size() == partitionCount) {
+            predicate = TupleDomain.columnWiseUnion(partitions);
+            partitions.clear();
+        }
+    }
+
+    /**
+     * Collects the join keys of a single build partition.
+     */
+    public class Collector
+    {
+        private final Map<ColumnHandle, ValueCollector> valueCollectors;
+        private boolean finished;
+
+        private Collector(List<Type> types, List<Integer> hashChannels)
+        {
+            ImmutableMap.Builder<ColumnHandle, ValueCollector> valueCollectors = ImmutableMap.builder();
+            for (Map.Entry<Integer, ColumnHandle> entry : probeColumns.entrySet()) {
+                int channel = hashChannels.get(entry.getKey());
+                valueCollectors.put(entry.getValue(), new ValueCollector(types.get(channel), channel));
+            }
+            this.valueCollectors = valueCollectors.build();
+        }
+
+        public void addPage(Page page)
+        {
+            checkState(!finished, "Collector is already finished");
+            for (ValueCollector valueCollector : valueCollectors.values()) {
+                valueCollector.add(page);
+            }
+        }
+
+        public void finish()
+        {
+            checkState(!finished, "Collector is already finished");
+            finished = true;
+
+            ImmutableMap.Builder<ColumnHandle, Domain> domains = ImmutableMap.builder();
+            for (Map.Entry<ColumnHandle, ValueCollector> entry : valueCollectors.entrySet()) {
+                domains.put(entry.getKey(), entry.getValue().getDomain());
+            }
+            addPartition(TupleDomain.withColumnDomains(domains.build()));
+        }
+    }
+
+    private class ValueCollector
+    {
+        private final Type type;
+        private final int channel;
+
+        private Set<Object> values = new HashSet<>();
+        private Block min;
+        private Block max;
+
+        private ValueCollector(Type type, int channel)
+        {
+            this.type = requireNonNull(type, "type is null");
+            this.channel = channel;
+        }
+
+        private void add(Page page)
+        {
+            Block block = page.getBlock(channel);
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                // null keys never match in an equi-join
+                if (block.isNull(position)) {
+                    continue;
+                }
+                if (min == null || type.compareTo(block, position, min, 0) < 0) {
+                    min = copyValue(block, position);
+                }
+                if (max == null || type.compareTo(block, position, max, 0) > 0) {
+                    max = copyValue(block, position);
+                }
+                if (values != null) {
+                    Object value = readNativeValue(type, block, position);
+                    if (!values.contains(value)) {
+                        values.add(copyNativeValue(value));
+                    }
+                    if (values.size() > maxDistinctValues) {
+                        // too many values, fall back to the range
+                        values = null;
+                    }
+                }
+            }
+        }
+
+        private Block copyValue(Block block, int position)
+        {
+            BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), 1);
+            type.appendTo(block, position, blockBuilder);
+            return blockBuilder.build();
+        }
+
+        private Domain getDomain()
+        {
+            if (min == null) {
+                return Domain.none(type);
+            }
+            if (values != null) {
+                return Domain.multipleValues(type, ImmutableList.copyOf(values));
+            }
+            return Domain.create(ValueSet.ofRanges(Range.range(type, readNativeValue(type, min, 0), true, readNativeValue(type, max, 0), true)), false);
+        }
+    }
+
+    private static Object copyNativeValue(Object value)
+    {
+        // do not retain the whole block the slice was read from
+        if (value instanceof Slice) {
+            return Slices.copyOf((Slice) value);
+        }
+        return value;
+    }
+}
@@ -14,18 +14,25 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.operator.LookupJoinOperators.JoinType;
+import com.facebook.presto.operator.exchange.LocalPartitionGenerator;
 import com.facebook.presto.spi.Page;
-import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.Closeable;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.FULL_OUTER;
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.PROBE_OUTER;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.concurrent.MoreFutures.toListenableFuture;
 import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static java.util.Objects.requireNonNull;
 
@@ -36,16 +43,23 @@ public class LookupJoinOperator
 
     private final OperatorContext operatorContext;
     private final List<Type> types;
+    private final List<Type> probeTypes;
+    private final LookupSourceFactory lookupSourceFactory;
     private final ListenableFuture<? extends LookupSource> lookupSourceFuture;
     private final JoinProbeFactory joinProbeFactory;
+    private final List<Integer> probeJoinChannels;
+    private final Optional<Integer> probeHashChannel;
+    private final HashGenerator probeHashGenerator;
     private final Runnable onClose;
 
-    private final PageBuilder pageBuilder;
+    private final LookupJoinPageBuilder pageBuilder;
 
     private final boolean probeOnOuterSide;
 
     private LookupSource lookupSource;
     private JoinProbe probe;
+    // join positions of all rows of the current probe page, if the lookup source supports looking them up in a batch
+    private long[] probeJoinPositions;
 
     private boolean closed;
     private boolean finishing;
@@ -53,26 +67,46 @@ public class LookupJoinOperator
 
     private boolean currentProbePositionProducedRow;
 
+    // state of joining the probe rows of partitions spilled on the build side
+    private PartitionedProbeSpiller probeSpiller;
+    private CompletableFuture<?> spillInProgress = CompletableFuture.completedFuture(null);
+    private Iterator<Integer> unspilledPartitions;
+    private int currentUnspilledPartition = -1;
+    private boolean probeOperatorFinished;
+    private ListenableFuture<Supplier<LookupSource>> unspilledLookupSourceFuture;
+    private Iterator<Page> unspilledProbePages;
+
     public LookupJoinOperator(
             OperatorContext operatorContext,
             List<Type> types,
+            List<Type> probeTypes,
             JoinType joinType,
-            ListenableFuture<LookupSource> lookupSourceFuture,
+            LookupSourceFactory lookupSourceFactory,
             JoinProbeFactory joinProbeFactory,
+            List<Integer> probeOutputChannels,
+            List<Integer> probeJoinChannels,
+            Optional<Integer> probeHashChannel,
+            HashGenerator probeHashGenerator,
             Runnable onClose)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.probeTypes = ImmutableList.copyOf(requireNonNull(probeTypes, "probeTypes is null"));
 
         requireNonNull(joinType, "joinType is null");
         // Cannot use switch case here, because javac will synthesize an inner class and cause IllegalAccessError
         probeOnOuterSide = joinType == PROBE_OUTER || joinType == FULL_OUTER;
 
-        this.lookupSourceFuture = requireNonNull(lookupSourceFuture, "lookupSourceFuture is null");
+        this.lookupSourceFactory = requireNonNull(lookupSourceFactory, "lookupSourceFactory is null");
+        this.lookupSourceFuture = lookupSourceFactory.createLookupSource();
         this.joinProbeFactory = requireNonNull(joinProbeFactory, "joinProbeFactory is null");
+        this.probeJoinChannels = ImmutableList.copyOf(requireNonNull(probeJoinChannels, "probeJoinChannels is null"));
+        this.probeHashChannel = requireNonNull(probeHashChannel, "probeHashChannel is null");
+        this.probeHashGenerator = requireNonNull(probeHashGenerator, "probeHashGenerator is null");
         this.onClose = requireNonNull(onClose, "onClose is null");
 
-        this.pageBuilder = new PageBuilder(types);
+        requireNonNull(probeOutputChannels, "probeOutputChannels is null");
+        this.pageBuilder = new LookupJoinPageBuilder(probeOutputChannels, this.types.subList(probeOutputChannels.size(), this.types.size()));
     }
 
     @Override
@@ -96,7 +130,8 @@ public class LookupJoinOperator
     @Override
     public boolean isFinished()
     {
-        boolean finished = (finishing && probe == null && pageBuilder.isEmpty()) || (!probeOnOuterSide && lookupSource != null && lookupSource.isEmpty());
+        boolean finished = (finishing && probe == null && pageBuilder.isEmpty() && !hasSpilledProbeRowsToJoin())
+                || (!probeOnOuterSide && lookupSource != null && probeSpiller == null && lookupSource.isEmpty());
 
         // if finished drop references so memory is freed early
         if (finished) {
@@ -108,6 +143,12 @@ public class LookupJoinOperator
     @Override
     public ListenableFuture<?> isBlocked()
     {
+        if (!spillInProgress.isDone()) {
+            return toListenableFuture(spillInProgress);
+        }
+        if (unspilledLookupSourceFuture != null && !unspilledLookupSourceFuture.isDone()) {
+            return unspilledLookupSourceFuture;
+        }
         return lookupSourceFuture;
     }
 
@@ -120,8 +161,26 @@ public class LookupJoinOperator
 
         if (lookupSource == null) {
             lookupSource = tryGetFutureValue(lookupSourceFuture).orElse(null);
+            if (lookupSource != null) {
+                createProbeSpillerIfNecessary();
+            }
+        }
+        return lookupSource != null && probe == null && spillInProgress.isDone() && (probeOnOuterSide || probeSpiller != null || !lookupSource.isEmpty());
+    }
+
+    private void createProbeSpillerIfNecessary()
+    {
+        Set<Integer> spilledPartitions = lookupSourceFactory.getSpilledPartitions();
+        if (spilledPartitions.isEmpty()) {
+            return;
         }
-        return lookupSource != null && probe == null && (probeOnOuterSide || !lookupSource.isEmpty());
+        probeSpiller = new PartitionedProbeSpiller(
+                probeTypes,
+                spilledPartitions,
+                new LocalPartitionGenerator(probeHashGenerator, lookupSourceFactory.getPartitionCount()),
+                lookupSourceFactory::createProbeSpiller,
+                operatorContext.getSystemMemoryContext().newLocalMemoryContext(),
+                lookupSourceFactory.getProbeMemoryLimitBeforeSpill());
     }
 
     @Override
@@ -131,9 +190,24 @@ public class LookupJoinOperator
         checkState(!finishing, "Operator is finishing");
         checkState(lookupSource != null, "Lookup source has not been built yet");
         checkState(probe == null, "Current page has not been completely processed yet");
+        // check for exception from previous spill for early failure
+        getFutureValue(spillInProgress);
+
+        if (probeSpiller != null) {
+            // rows of partitions spilled on the build side are joined after all input is consumed
+            page = probeSpiller.partitionPage(page);
+            if (probeSpiller.isMemoryLimitExceeded()) {
+                spillInProgress = probeSpiller.spillBufferedPages();
+            }
+        }
 
-        // create probe
+        createProbe(page);
+    }
+
+    private void createProbe(Page page)
+    {
         probe = joinProbeFactory.createJoinProbe(lookupSource, page);
+        probeJoinPositions = lookupSource.isBatchedProbeSupported() ? BatchedJoinPositions.getJoinPositions(lookupSource, page, probeJoinChannels, probeHashChannel) : null;
 
         // initialize to invalid join position to force output code to advance the cursors
         joinPosition = -1;
@@ -146,6 +220,16 @@ public class LookupJoinOperator
             return null;
         }
 
+        if (finishing && probe == null && hasSpilledProbeRowsToJoin()) {
+            // finish the current output page before switching to the next spilled partition
+            if (!pageBuilder.isEmpty()) {
+                return pageBuilder.build();
+            }
+            if (!advanceUnspilledProbe()) {
+                return null;
+            }
+        }
+
         // join probe page with the lookup source
         Counter lookupPositionsConsidered = new Counter();
         if (probe != null) {
@@ -168,11 +252,9 @@ public class LookupJoinOperator
             }
         }
 
-        // only flush full pages unless we are done
-        if (pageBuilder.isFull() || (finishing && !pageBuilder.isEmpty() && probe == null)) {
-            Page page = pageBuilder.build();
-            pageBuilder.reset();
-            return page;
+        // output pages reference the probe page, so they are flushed before moving to the next probe page
+        if (!pageBuilder.isEmpty() && (pageBuilder.isFull() || probe == null)) {
+            return pageBuilder.build();
         }
 
         return null;
@@ -187,14 +269,96 @@ public class LookupJoinOperator
         }
         closed = true;
         probe = null;
+        probeJoinPositions = null;
         pageBuilder.reset();
         // closing lookup source is only here for index join
         if (lookupSource != null) {
             lookupSource.close();
         }
+        releaseUnspilledPartition();
+        if (unspilledPartitions != null) {
+            // the remaining partitions are released as well, so the other operators can load them
+            unspilledPartitions.forEachRemaining(lookupSourceFactory::releaseUnspilledPartition);
+        }
+        finishProbeOperator(false);
+        if (probeSpiller != null) {
+            probeSpiller.close();
+        }
         onClose.run();
     }
 
+    private boolean hasSpilledProbeRowsToJoin()
+    {
+        return probeSpiller != null && (unspilledPartitions == null || unspilledPartitions.hasNext() || currentUnspilledPartition >= 0);
+    }
+
+    /**
+     * Loads the next spilled build partition together with its probe rows and creates the next probe.
+     *
+     * @return whether a probe has been created
+     */
+    private boolean advanceUnspilledProbe()
+    {
+        if (unspilledPartitions == null) {
+            if (!spillInProgress.isDone()) {
+                return false;
+            }
+            // check for exception from previous spill
+            getFutureValue(spillInProgress);
+            finishProbeOperator(true);
+            unspilledPartitions = probeSpiller.getSpilledPartitions().iterator();
+        }
+
+        while (true) {
+            if (currentUnspilledPartition < 0) {
+                if (!unspilledPartitions.hasNext()) {
+                    return false;
+                }
+                currentUnspilledPartition = unspilledPartitions.next();
+                unspilledLookupSourceFuture = lookupSourceFactory.unspillPartition(currentUnspilledPartition);
+                unspilledProbePages = null;
+            }
+
+            if (!unspilledLookupSourceFuture.isDone()) {
+                return false;
+            }
+
+            if (unspilledProbePages == null) {
+                // from now on probe rows are joined against the unspilled partition
+                lookupSource.close();
+                lookupSource = getFutureValue(unspilledLookupSourceFuture).get();
+                unspilledProbePages = probeSpiller.getPartitionPages(currentUnspilledPartition);
+            }
+
+            if (unspilledProbePages.hasNext()) {
+                createProbe(unspilledProbePages.next());
+                return true;
+            }
+
+            releaseUnspilledPartition();
+        }
+    }
+
+    private void finishProbeOperator(boolean joinsSpilledPartitions)
+    {
+        if (probeOperatorFinished) {
+            return;
+        }
+        probeOperatorFinished = true;
+        lookupSourceFactory.finishProbeOperator(joinsSpilledPartitions);
+    }
+
+    private void releaseUnspilledPartition()
+    {
+        if (currentUnspilledPartition < 0) {
+            return;
+        }
+        lookupSourceFactory.releaseUnspilledPartition(currentUnspilledPartition);
+        currentUnspilledPartition = -1;
+        unspilledLookupSourceFuture = null;
+        unspilledProbePages = null;
+    }
+
     /**
      * Produce rows matching join condition for the current probe position. If this method was called previously
      * for the current probe position, calling this again will produce rows that wasn't been produced in previous
@@ -209,12 +373,7 @@ public class LookupJoinOperator
             lookupPositionsConsidered.increment();
             if (lookupSource.isJoinPositionEligible(joinPosition, probe.getPosition(), probe.getPage())) {
                 currentProbePositionProducedRow = true;
-
-                pageBuilder.declarePosition();
-                // write probe columns
-                probe.appendTo(pageBuilder);
-                // write build columns
-                lookupSource.appendTo(joinPosition, pageBuilder, probe.getOutputChannelCount());
+                pageBuilder.appendRow(probe, lookupSource, joinPosition);
             }
 
             // get next position on lookup side for this probe row
@@ -237,11 +396,12 @@ public class LookupJoinOperator
     {
         if (!probe.advanceNextPosition()) {
             probe = null;
+            probeJoinPositions = null;
             return false;
         }
 
         // update join position
-        joinPosition = probe.getCurrentJoinPosition();
+        joinPosition = probeJoinPositions != null ? probeJoinPositions[probe.getPosition()] : probe.getCurrentJoinPosition();
         return true;
     }
 
@@ -253,16 +413,7 @@ public class LookupJoinOperator
     private boolean outerJoinCurrentPosition()
     {
         if (probeOnOuterSide && joinPosition < 0) {
-            // write probe columns
-            pageBuilder.declarePosition();
-            probe.appendTo(pageBuilder);
-
-            // write nulls into build columns
-            int outputIndex = probe.getOutputChannelCount();
-            for (int buildChannel = 0; buildChannel < lookupSource.getChannelCount(); buildChannel++) {
-                pageBuilder.getBlockBuilder(outputIndex).appendNull();
-                outputIndex++;
-            }
+            pageBuilder.appendNullForBuild(probe);
             if (pageBuilder.isFull()) {
                 return false;
             }
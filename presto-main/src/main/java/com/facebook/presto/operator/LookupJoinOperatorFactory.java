@@ -19,6 +19,7 @@ import com.facebook.presto.operator.LookupSource.OuterPositionIterator;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.SettableFuture;
@@ -29,6 +30,7 @@ import java.util.function.Consumer;
 
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.INNER;
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.PROBE_OUTER;
+import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
@@ -45,8 +47,12 @@ public class LookupJoinOperatorFactory
     private final JoinType joinType;
     private final LookupSourceFactory lookupSourceFactory;
     private final JoinProbeFactory joinProbeFactory;
+    private final List<Integer> probeOutputChannels;
+    private final List<Integer> probeJoinChannels;
+    private final Optional<Integer> probeHashChannel;
     private final Optional<OperatorFactory> outerOperatorFactory;
     private final ReferenceCount referenceCount;
+    private final ReferenceCount factoryReferenceCount;
     private boolean closed;
 
     public LookupJoinOperatorFactory(int operatorId,
@@ -55,7 +61,10 @@ public class LookupJoinOperatorFactory
             List<Type> probeTypes,
             List<Type> probeOutputTypes,
             JoinType joinType,
-            JoinProbeFactory joinProbeFactory)
+            JoinProbeFactory joinProbeFactory,
+            List<Integer> probeOutputChannels,
+            List<Integer> probeJoinChannels,
+            Optional<Integer> probeHashChannel)
     {
         this.operatorId = operatorId;
         this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -66,9 +75,16 @@ public class LookupJoinOperatorFactory
         this.buildOutputTypes = ImmutableList.copyOf(lookupSourceFactory.getOutputTypes());
         this.joinType = requireNonNull(joinType, "joinType is null");
         this.joinProbeFactory = requireNonNull(joinProbeFactory, "joinProbeFactory is null");
+        this.probeOutputChannels = ImmutableList.copyOf(requireNonNull(probeOutputChannels, "probeOutputChannels is null"));
+        this.probeJoinChannels = ImmutableList.copyOf(requireNonNull(probeJoinChannels, "probeJoinChannels is null"));
+        this.probeHashChannel = requireNonNull(probeHashChannel, "probeHashChannel is null");
 
         this.referenceCount = new ReferenceCount();
 
+        // when all factories are closed, no more probe operators will be created
+        this.factoryReferenceCount = new ReferenceCount();
+        this.factoryReferenceCount.getFreeFuture().addListener(lookupSourceFactory::noMoreProbeOperators, directExecutor());
+
         if (joinType == INNER || joinType == PROBE_OUTER) {
             // when all join operators finish, destroy the lookup source (freeing the memory)
             this.referenceCount.getFreeFuture().addListener(lookupSourceFactory::destroy, directExecutor());
@@ -105,10 +121,15 @@ public class LookupJoinOperatorFactory
         joinType = other.joinType;
         lookupSourceFactory = other.lookupSourceFactory;
         joinProbeFactory = other.joinProbeFactory;
+        probeOutputChannels = other.probeOutputChannels;
+        probeJoinChannels = other.probeJoinChannels;
+        probeHashChannel = other.probeHashChannel;
         referenceCount = other.referenceCount;
+        factoryReferenceCount = other.factoryReferenceCount;
         outerOperatorFactory = other.outerOperatorFactory;
 
         referenceCount.retain();
+        factoryReferenceCount.retain();
     }
 
     public int getOperatorId()
@@ -134,15 +155,33 @@ public class LookupJoinOperatorFactory
         lookupSourceFactory.setTaskContext(driverContext.getPipelineContext().getTaskContext());
 
         referenceCount.retain();
+        lookupSourceFactory.registerProbeOperator();
         return new LookupJoinOperator(
                 operatorContext,
                 getTypes(),
+                probeTypes,
                 joinType,
-                lookupSourceFactory.createLookupSource(),
+                lookupSourceFactory,
                 joinProbeFactory,
+                probeOutputChannels,
+                probeJoinChannels,
+                probeHashChannel,
+                createProbeHashGenerator(),
                 referenceCount::release);
     }
 
+    // the probe rows have to be assigned to the same local partitions as the build rows
+    private HashGenerator createProbeHashGenerator()
+    {
+        if (probeHashChannel.isPresent()) {
+            return new PrecomputedHashGenerator(probeHashChannel.get());
+        }
+        List<Type> probeJoinTypes = probeJoinChannels.stream()
+                .map(probeTypes::get)
+                .collect(toImmutableList());
+        return new InterpretedHashGenerator(probeJoinTypes, Ints.toArray(probeJoinChannels));
+    }
+
     @Override
     public void close()
     {
@@ -150,6 +189,7 @@ public class LookupJoinOperatorFactory
             return;
         }
         closed = true;
+        factoryReferenceCount.release();
         referenceCount.release();
     }
 
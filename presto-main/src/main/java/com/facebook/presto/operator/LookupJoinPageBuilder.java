@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.facebook.presto.spi.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builds the output of a lookup join from a single probe page. Only the build columns are
+ * copied, the probe columns are the matching probe positions wrapped in dictionary blocks.
+ */
+public class LookupJoinPageBuilder
+{
+    private final List<Integer> probeOutputChannels;
+    private final PageBuilder buildPageBuilder;
+    private final int buildOutputChannelCount;
+    private final IntArrayList probePositions = new IntArrayList();
+
+    private Page probePage;
+    private long estimatedProbeRowSize;
+    private boolean sequentialProbePositions = true;
+
+    public LookupJoinPageBuilder(List<Integer> probeOutputChannels, List<Type> buildOutputTypes)
+    {
+        this.probeOutputChannels = ImmutableList.copyOf(requireNonNull(probeOutputChannels, "probeOutputChannels is null"));
+        this.buildPageBuilder = new PageBuilder(requireNonNull(buildOutputTypes, "buildOutputTypes is null"));
+        this.buildOutputChannelCount = buildOutputTypes.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return probePositions.isEmpty();
+    }
+
+    public boolean isFull()
+    {
+        return buildPageBuilder.isFull() || estimatedProbeRowSize * probePositions.size() + buildPageBuilder.getSizeInBytes() >= DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+    }
+
+    /**
+     * Appends the current probe row joined with the build row at the join position.
+     */
+    public void appendRow(JoinProbe probe, LookupSource lookupSource, long joinPosition)
+    {
+        appendProbePosition(probe);
+        lookupSource.appendTo(joinPosition, buildPageBuilder, 0);
+    }
+
+    /**
+     * Appends the current probe row with nulls for all build columns.
+     */
+    public void appendNullForBuild(JoinProbe probe)
+    {
+        appendProbePosition(probe);
+        for (int channel = 0; channel < buildOutputChannelCount; channel++) {
+            buildPageBuilder.getBlockBuilder(channel).appendNull();
+        }
+    }
+
+    private void appendProbePosition(JoinProbe probe)
+    {
+        if (probePage == null) {
+            probePage = probe.getPage();
+            estimatedProbeRowSize = probePage.getPositionCount() == 0 ? 0 : probePage.getSizeInBytes() / probePage.getPositionCount();
+        }
+        checkState(probePage == probe.getPage(), "Rows of a single output page must come from the same probe page");
+
+        int position = probe.getPosition();
+        if (!probePositions.isEmpty() && position != probePositions.getInt(probePositions.size() - 1) + 1) {
+            sequentialProbePositions = false;
+        }
+        probePositions.add(position);
+        buildPageBuilder.declarePosition();
+    }
+
+    public Page build()
+    {
+        checkState(!isEmpty(), "No rows to build a page from");
+        int positionCount = probePositions.size();
+        int[] positions = probePositions.elements();
+        Block[] blocks = new Block[probeOutputChannels.size() + buildOutputChannelCount];
+        for (int i = 0; i < probeOutputChannels.size(); i++) {
+            blocks[i] = selectPositions(probePage.getBlock(probeOutputChannels.get(i)), positions, positionCount);
+        }
+
+        Page buildPage = buildPageBuilder.build();
+        for (int i = 0; i < buildOutputChannelCount; i++) {
+            blocks[probeOutputChannels.size() + i] = buildPage.getBlock(i);
+        }
+        Page page = new Page(positionCount, blocks);
+        reset();
+        return page;
+    }
+
+    public void reset()
+    {
+        buildPageBuilder.reset();
+        probePositions.clear();
+        probePage = null;
+        estimatedProbeRowSize = 0;
+        sequentialProbePositions = true;
+    }
+
+    private Block selectPositions(Block block, int[] positions, int positionCount)
+    {
+        if (sequentialProbePositions) {
+            return block.getRegion(positions[0], positionCount);
+        }
+        if (block instanceof RunLengthEncodedBlock) {
+            return new RunLengthEncodedBlock(((RunLengthEncodedBlock) block).getValue(), positionCount);
+        }
+        if (block instanceof DictionaryBlock) {
+            // point directly into the dictionary, instead of nesting dictionaries
+            DictionaryBlock dictionaryBlock = (DictionaryBlock) block;
+            int[] ids = new int[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                ids[i] = dictionaryBlock.getId(positions[i]);
+            }
+            return new DictionaryBlock(positionCount, dictionaryBlock.getDictionary(), ids);
+        }
+        return new DictionaryBlock(positionCount, block, Arrays.copyOf(positions, positionCount));
+    }
+}
@@ -36,6 +36,19 @@ public interface LookupSource
 
     long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage);
 
+    /**
+     * Looks up the join positions of the probe rows {@code positions[offset]} to
+     * {@code positions[offset + length - 1]} at once, storing them into {@code joinPositions}
+     * at the position of the row. The raw hashes are indexed by position as well.
+     */
+    default void getJoinPositions(int[] positions, int offset, int length, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes, long[] joinPositions)
+    {
+        for (int i = offset; i < offset + length; i++) {
+            int position = positions[i];
+            joinPositions[position] = getJoinPosition(position, hashChannelsPage, allChannelsPage, rawHashes[position]);
+        }
+    }
+
     long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage);
 
     void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset);
@@ -47,6 +60,15 @@ public interface LookupSource
 
     boolean isJoinPositionEligible(long currentJoinPosition, int probePosition, Page allProbeChannelsPage);
 
+    /**
+     * Whether the join positions of all rows of a probe page can be looked up before any of
+     * them is joined, i.e. a lookup does not invalidate the join positions returned before.
+     */
+    default boolean isBatchedProbeSupported()
+    {
+        return true;
+    }
+
     @Override
     void close();
 
@@ -14,11 +14,16 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
 import com.facebook.presto.sql.planner.Symbol;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public interface LookupSourceFactory
 {
@@ -34,4 +39,66 @@ public interface LookupSourceFactory
     default void setTaskContext(TaskContext taskContext) {}
 
     void destroy();
+
+    default int getPartitionCount()
+    {
+        return 1;
+    }
+
+    /**
+     * Returns partitions of the lookup source which were spilled to disk during the build.
+     * Can only be called after the future returned by {@link #createLookupSource()} is done.
+     */
+    default Set<Integer> getSpilledPartitions()
+    {
+        return ImmutableSet.of();
+    }
+
+    default Spiller createProbeSpiller(List<Type> probeTypes)
+    {
+        throw new UnsupportedOperationException("Spilling is not supported");
+    }
+
+    /**
+     * Returns how much memory probe rows of spilled partitions may use before they are spilled as well.
+     */
+    default DataSize getProbeMemoryLimitBeforeSpill()
+    {
+        throw new UnsupportedOperationException("Spilling is not supported");
+    }
+
+    /**
+     * Called for every probe operator created for this lookup source.
+     */
+    default void registerProbeOperator() {}
+
+    /**
+     * Called once no more probe operators will be registered.
+     */
+    default void noMoreProbeOperators() {}
+
+    /**
+     * Called exactly once by every registered probe operator, either when it starts
+     * joining the spilled partitions or when it is closed. An operator which joins
+     * the spilled partitions has to release all of them, in ascending order, whether
+     * it unspilled them or not.
+     */
+    default void finishProbeOperator(boolean joinsSpilledPartitions) {}
+
+    /**
+     * Loads a spilled partition back into memory. Partitions are loaded one at a time
+     * and only once for all probe operators, so the returned future completes after
+     * all probe operators are finished and the previous spilled partition was released
+     * by all of them. Every call has to be followed by {@link #releaseUnspilledPartition}
+     * once the partition is no longer needed.
+     */
+    default ListenableFuture<Supplier<LookupSource>> unspillPartition(int partition)
+    {
+        throw new UnsupportedOperationException("Spilling is not supported");
+    }
+
+    default void releaseUnspilledPartition(int partition)
+    {
+        throw new UnsupportedOperationException("Spilling is not supported");
+    }
 }
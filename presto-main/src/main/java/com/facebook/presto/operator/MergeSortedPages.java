@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.operator.MergeHashSort.PagePosition;
+import com.facebook.presto.operator.MergeHashSort.SingleChannelPagePositions;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * This class performs a k-way merge of previously sorted page streams,
+ * e.g. sorted runs spilled to disk.
+ */
+public final class MergeSortedPages
+{
+    private MergeSortedPages()
+    {
+    }
+
+    public static Iterator<Page> mergeSortedPages(List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders, List<Iterator<Page>> sortedStreams)
+    {
+        requireNonNull(types, "types is null");
+        requireNonNull(sortChannels, "sortChannels is null");
+        requireNonNull(sortOrders, "sortOrders is null");
+        checkArgument(sortChannels.size() == sortOrders.size(), "sortChannels and sortOrders must have the same size");
+
+        List<Iterator<PagePosition>> streamPositions = sortedStreams.stream()
+                .map(stream -> Iterators.filter(stream, page -> page.getPositionCount() > 0))
+                .map(SingleChannelPagePositions::new)
+                .collect(toList());
+
+        Comparator<PagePosition> comparator = new PagePositionComparator(types, sortChannels, sortOrders);
+        return new PagePositionsToPages(types, Iterators.mergeSorted(streamPositions, comparator));
+    }
+
+    private static class PagePositionComparator
+            implements Comparator<PagePosition>
+    {
+        private final List<Type> sortTypes;
+        private final List<Integer> sortChannels;
+        private final List<SortOrder> sortOrders;
+
+        public PagePositionComparator(List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders)
+        {
+            this.sortTypes = sortChannels.stream()
+                    .map(types::get)
+                    .collect(toList());
+            this.sortChannels = ImmutableList.copyOf(sortChannels);
+            this.sortOrders = ImmutableList.copyOf(sortOrders);
+        }
+
+        @Override
+        public int compare(PagePosition left, PagePosition right)
+        {
+            for (int i = 0; i < sortChannels.size(); i++) {
+                int sortChannel = sortChannels.get(i);
+                int compare = sortOrders.get(i).compareBlockValue(
+                        sortTypes.get(i),
+                        left.getPage().getBlock(sortChannel),
+                        left.getPosition(),
+                        right.getPage().getBlock(sortChannel),
+                        right.getPosition());
+                if (compare != 0) {
+                    return compare;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static class PagePositionsToPages
+            extends AbstractIterator<Page>
+    {
+        private final List<Type> types;
+        private final Iterator<PagePosition> pagePositions;
+        private final PageBuilder pageBuilder;
+
+        public PagePositionsToPages(List<Type> types, Iterator<PagePosition> pagePositions)
+        {
+            this.types = ImmutableList.copyOf(types);
+            this.pagePositions = pagePositions;
+            this.pageBuilder = new PageBuilder(types);
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            if (!pagePositions.hasNext()) {
+                return endOfData();
+            }
+
+            pageBuilder.reset();
+            while (!pageBuilder.isFull() && pagePositions.hasNext()) {
+                PagePosition pagePosition = pagePositions.next();
+                pageBuilder.declarePosition();
+                for (int channel = 0; channel < types.size(); channel++) {
+                    types.get(channel).appendTo(pagePosition.getPage().getBlock(channel), pagePosition.getPosition(), pageBuilder.getBlockBuilder(channel));
+                }
+            }
+            return pageBuilder.build();
+        }
+    }
+}
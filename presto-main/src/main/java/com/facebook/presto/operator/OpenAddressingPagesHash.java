@@ -0,0 +1,287 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import io.airlift.units.DataSize;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.Arrays;
+
+import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
+import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
+import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Alternative to {@link PagesHash} which keeps the hash bits of a key next to its address
+ * index in a single array of slots. Every slot packs the upper 32 bits of the (mixed) hash
+ * of the key with the index of the last added address having that key. The lower bits of
+ * the hash pick the slot, so probing a slot compares practically the full hash with a single
+ * memory access, and the pages are read only when the hash matches. Addresses with the same
+ * key are chained through {@code positionLinks}, like in {@link PagesHash}.
+ * <p>
+ * Batched lookups first load the slots of all the probe rows of a batch and only then resolve
+ * them, so the cache misses of the independent loads overlap instead of being serialized
+ * behind the key comparisons.
+ */
+// This implementation assumes arrays used in the hash are always a power of 2
+public final class OpenAddressingPagesHash
+        implements PagesHashTable
+{
+    private static final DataSize CACHE_SIZE = new DataSize(128, KILOBYTE);
+    private static final int LOOKUP_BATCH_SIZE = 64;
+    // the address index of a used slot is never negative
+    private static final long EMPTY_SLOT = -1;
+
+    private final LongArrayList addresses;
+    private final PagesHashStrategy pagesHashStrategy;
+
+    private final int channelCount;
+    private final int mask;
+    private final long[] slots;
+    private final int[] positionLinks;
+    private final long size;
+
+    private final long hashCollisions;
+    private final double expectedHashCollisions;
+
+    public OpenAddressingPagesHash(LongArrayList addresses, PagesHashStrategy pagesHashStrategy)
+    {
+        this.addresses = requireNonNull(addresses, "addresses is null");
+        this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
+        this.channelCount = pagesHashStrategy.getChannelCount();
+
+        // reserve memory for the arrays
+        int hashSize = HashCommon.arraySize(addresses.size(), 0.75f);
+
+        mask = hashSize - 1;
+        slots = new long[hashSize];
+        Arrays.fill(slots, EMPTY_SLOT);
+
+        this.positionLinks = new int[addresses.size()];
+        Arrays.fill(positionLinks, -1);
+
+        // We will process addresses in batches, to save memory on array of hashes.
+        int positionsInStep = min(addresses.size() + 1, (int) CACHE_SIZE.toBytes() / Long.BYTES);
+        long[] positionToMixedHashes = new long[positionsInStep];
+        long hashCollisionsLocal = 0;
+
+        for (int step = 0; step * positionsInStep <= addresses.size(); step++) {
+            int stepBeginPosition = step * positionsInStep;
+            int stepEndPosition = min((step + 1) * positionsInStep, addresses.size());
+            int stepSize = stepEndPosition - stepBeginPosition;
+
+            // First extract all hashes from blocks to native array, so the loop
+            // below does not alternate between the blocks and the slots.
+            for (int position = 0; position < stepSize; position++) {
+                positionToMixedHashes[position] = HashCommon.murmurHash3(readHashPosition(position + stepBeginPosition));
+            }
+
+            // index pages
+            for (int position = 0; position < stepSize; position++) {
+                int realPosition = position + stepBeginPosition;
+                if (isPositionNull(realPosition)) {
+                    continue;
+                }
+
+                long mixedHash = positionToMixedHashes[position];
+                int fingerprint = fingerprint(mixedHash);
+                int pos = (int) (mixedHash & mask);
+
+                // look for an empty slot or a slot containing this key
+                while (slots[pos] != EMPTY_SLOT) {
+                    long slot = slots[pos];
+                    int currentKey = addressIndex(slot);
+                    if (fingerprint(slot) == fingerprint && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
+                        // found a slot for this key
+                        // link the new key position to the current key position
+                        positionLinks[realPosition] = currentKey;
+
+                        // slots[pos] updated outside of this loop
+                        break;
+                    }
+                    // increment position and mask to handler wrap around
+                    pos = (pos + 1) & mask;
+                    hashCollisionsLocal++;
+                }
+
+                slots[pos] = packSlot(fingerprint, realPosition);
+            }
+        }
+
+        size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
+                sizeOf(slots) + sizeOf(positionLinks);
+        hashCollisions = hashCollisionsLocal;
+        expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
+    }
+
+    @Override
+    public int getChannelCount()
+    {
+        return channelCount;
+    }
+
+    @Override
+    public int getPositionCount()
+    {
+        return positionLinks.length;
+    }
+
+    @Override
+    public long getInMemorySizeInBytes()
+    {
+        return size;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions;
+    }
+
+    @Override
+    public int getAddressIndex(int position, Page hashChannelsPage, Page allChannelsPage)
+    {
+        return getAddressIndex(position, hashChannelsPage, allChannelsPage, pagesHashStrategy.hashRow(position, hashChannelsPage));
+    }
+
+    @Override
+    public int getAddressIndex(int rightPosition, Page hashChannelsPage, Page allChannelsPage, long rawHash)
+    {
+        long mixedHash = HashCommon.murmurHash3(rawHash);
+        int pos = (int) (mixedHash & mask);
+        return findAddressIndex(pos, slots[pos], fingerprint(mixedHash), rightPosition, hashChannelsPage);
+    }
+
+    @Override
+    public void getAddressIndexes(int[] positions, int offset, int length, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes, long[] addressIndexes)
+    {
+        int[] batchSlotPositions = new int[min(length, LOOKUP_BATCH_SIZE)];
+        long[] batchSlots = new long[batchSlotPositions.length];
+
+        for (int batchStart = offset; batchStart < offset + length; batchStart += LOOKUP_BATCH_SIZE) {
+            int batchSize = min(LOOKUP_BATCH_SIZE, offset + length - batchStart);
+
+            // load the first slot of every row before resolving any of them, these loads
+            // do not depend on each other so their cache misses are overlapped
+            for (int i = 0; i < batchSize; i++) {
+                int pos = (int) (HashCommon.murmurHash3(rawHashes[positions[batchStart + i]]) & mask);
+                batchSlotPositions[i] = pos;
+                batchSlots[i] = slots[pos];
+            }
+
+            for (int i = 0; i < batchSize; i++) {
+                int position = positions[batchStart + i];
+                int fingerprint = fingerprint(HashCommon.murmurHash3(rawHashes[position]));
+                addressIndexes[position] = findAddressIndex(batchSlotPositions[i], batchSlots[i], fingerprint, position, hashChannelsPage);
+            }
+        }
+    }
+
+    @Override
+    public int getNextAddressIndex(int currentAddressIndex)
+    {
+        return positionLinks[currentAddressIndex];
+    }
+
+    @Override
+    public void appendTo(int position, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        long pageAddress = addresses.getLong(position);
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        pagesHashStrategy.appendTo(blockIndex, blockPosition, pageBuilder, outputChannelOffset);
+    }
+
+    private int findAddressIndex(int pos, long slot, int fingerprint, int rightPosition, Page rightPage)
+    {
+        while (slot != EMPTY_SLOT) {
+            if (fingerprint(slot) == fingerprint && positionEqualsCurrentRowIgnoreNulls(addressIndex(slot), rightPosition, rightPage)) {
+                return addressIndex(slot);
+            }
+            // increment position and mask to handler wrap around
+            pos = (pos + 1) & mask;
+            slot = slots[pos];
+        }
+        return -1;
+    }
+
+    private boolean isPositionNull(int position)
+    {
+        long pageAddress = addresses.getLong(position);
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        return pagesHashStrategy.isPositionNull(blockIndex, blockPosition);
+    }
+
+    private long readHashPosition(int position)
+    {
+        long pageAddress = addresses.getLong(position);
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        return pagesHashStrategy.hashPosition(blockIndex, blockPosition);
+    }
+
+    private boolean positionEqualsCurrentRowIgnoreNulls(int leftPosition, int rightPosition, Page rightPage)
+    {
+        long pageAddress = addresses.getLong(leftPosition);
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        return pagesHashStrategy.positionEqualsRowIgnoreNulls(blockIndex, blockPosition, rightPosition, rightPage);
+    }
+
+    private boolean positionEqualsPositionIgnoreNulls(int leftPosition, int rightPosition)
+    {
+        long leftPageAddress = addresses.getLong(leftPosition);
+        int leftBlockIndex = decodeSliceIndex(leftPageAddress);
+        int leftBlockPosition = decodePosition(leftPageAddress);
+
+        long rightPageAddress = addresses.getLong(rightPosition);
+        int rightBlockIndex = decodeSliceIndex(rightPageAddress);
+        int rightBlockPosition = decodePosition(rightPageAddress);
+
+        return pagesHashStrategy.positionEqualsPositionIgnoreNulls(leftBlockIndex, leftBlockPosition, rightBlockIndex, rightBlockPosition);
+    }
+
+    private static long packSlot(int fingerprint, int addressIndex)
+    {
+        return (((long) fingerprint) << 32) | addressIndex;
+    }
+
+    private static int fingerprint(long mixedHashOrSlot)
+    {
+        return (int) (mixedHashOrSlot >>> 32);
+    }
+
+    private static int addressIndex(long slot)
+    {
+        return (int) slot;
+    }
+}
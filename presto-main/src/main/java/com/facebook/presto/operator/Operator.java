@@ -72,6 +72,23 @@ public interface Operator
      */
     Page getOutput();
 
+    /**
+     * Releases the revocable memory of the operator, usually by spilling it, after the memory
+     * pool ran low. The driver does not call other methods of the operator until the returned
+     * future completes, and then calls {@link #finishMemoryRevoking()}.
+     */
+    default ListenableFuture<?> startMemoryRevoking()
+    {
+        return NOT_BLOCKED;
+    }
+
+    /**
+     * Completes the memory revoking started by {@link #startMemoryRevoking()}.
+     */
+    default void finishMemoryRevoking()
+    {
+    }
+
     /**
      * This method will always be called before releasing the Operator reference.
      */
@@ -29,6 +29,7 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.util.Optional;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -84,6 +85,16 @@ public class OperatorContext
     private final AtomicLong memoryReservation = new AtomicLong();
     private final OperatorSystemMemoryContext systemMemoryContext;
 
+    private final AtomicLong revocableMemoryReservation = new AtomicLong();
+    private final AtomicBoolean memoryRevokingRequested = new AtomicBoolean();
+    private final AtomicReference<SettableFuture<?>> memoryRevokingRequestedFuture = new AtomicReference<>(SettableFuture.create());
+
+    private final AtomicLong spilledDataSize = new AtomicLong();
+    private final AtomicLong spilledRuns = new AtomicLong();
+    private final AtomicLong passThroughPositions = new AtomicLong();
+    private final AtomicLong exchangeDataSize = new AtomicLong();
+    private final AtomicLong exchangeUncompressedDataSize = new AtomicLong();
+
     private final AtomicReference<Supplier<OperatorInfo>> infoSupplier = new AtomicReference<>();
     private final boolean collectTimings;
 
@@ -256,6 +267,68 @@ public class OperatorContext
         memoryReservation.getAndAdd(-bytes);
     }
 
+    /**
+     * Sets the memory the operator can release by spilling. Unlike regular reservations,
+     * revocable reservations never block and do not count towards the query memory limit.
+     */
+    public void setRevocableMemoryReservation(long newRevocableMemoryReservation)
+    {
+        checkArgument(newRevocableMemoryReservation >= 0, "newRevocableMemoryReservation is negative");
+
+        long delta = newRevocableMemoryReservation - revocableMemoryReservation.get();
+
+        if (delta > 0) {
+            driverContext.reserveRevocableMemory(delta);
+        }
+        else {
+            driverContext.freeRevocableMemory(-delta);
+        }
+        revocableMemoryReservation.addAndGet(delta);
+    }
+
+    public long getRevocableMemoryReservation()
+    {
+        return revocableMemoryReservation.get();
+    }
+
+    /**
+     * Asks the operator to release its revocable memory, the next time its driver runs.
+     *
+     * @return the number of bytes which will be released, or zero if the operator does not
+     * hold revocable memory or was already asked to release it
+     */
+    public long requestMemoryRevoking()
+    {
+        long revocableBytes = revocableMemoryReservation.get();
+        if (revocableBytes == 0 || !memoryRevokingRequested.compareAndSet(false, true)) {
+            return 0;
+        }
+        memoryRevokingRequestedFuture.get().set(null);
+        return revocableBytes;
+    }
+
+    public boolean isMemoryRevokingRequested()
+    {
+        return memoryRevokingRequested.get();
+    }
+
+    /**
+     * Returns a future which completes when memory revoking is requested, so a blocked driver can wake up to spill.
+     */
+    public ListenableFuture<?> getMemoryRevokingRequestedFuture()
+    {
+        return memoryRevokingRequestedFuture.get();
+    }
+
+    public void resetMemoryRevokingRequested()
+    {
+        SettableFuture<?> currentFuture = memoryRevokingRequestedFuture.get();
+        if (currentFuture.isDone()) {
+            memoryRevokingRequestedFuture.compareAndSet(currentFuture, SettableFuture.create());
+        }
+        memoryRevokingRequested.set(false);
+    }
+
     public AbstractAggregatedMemoryContext getSystemMemoryContext()
     {
         return systemMemoryContext;
@@ -266,6 +339,36 @@ public class OperatorContext
         systemMemoryContext.close();
     }
 
+    /**
+     * Records a run of pages written to disk by the operator.
+     */
+    public void recordSpill(long sizeInBytes)
+    {
+        checkArgument(sizeInBytes >= 0, "sizeInBytes is negative");
+        spilledDataSize.addAndGet(sizeInBytes);
+        spilledRuns.incrementAndGet();
+    }
+
+    /**
+     * Records input positions forwarded by the operator without processing them.
+     */
+    public void recordPassThroughPositions(long positions)
+    {
+        checkArgument(positions >= 0, "positions is negative");
+        passThroughPositions.addAndGet(positions);
+    }
+
+    /**
+     * Records a serialized page sent to or received from an exchange.
+     */
+    public void recordExchangeData(long sizeInBytes, long uncompressedSizeInBytes)
+    {
+        checkArgument(sizeInBytes >= 0, "sizeInBytes is negative");
+        checkArgument(uncompressedSizeInBytes >= 0, "uncompressedSizeInBytes is negative");
+        exchangeDataSize.addAndGet(sizeInBytes);
+        exchangeUncompressedDataSize.addAndGet(uncompressedSizeInBytes);
+    }
+
     public void moreMemoryAvailable()
     {
         memoryFuture.get().set(null);
@@ -389,6 +492,12 @@ public class OperatorContext
 
                 succinctBytes(memoryReservation.get()),
                 succinctBytes(systemMemoryContext.getReservedBytes()),
+                succinctBytes(spilledDataSize.get()),
+                spilledRuns.get(),
+                passThroughPositions.get(),
+                succinctBytes(exchangeDataSize.get()),
+                succinctBytes(exchangeUncompressedDataSize.get()),
+                succinctBytes(revocableMemoryReservation.get()),
                 memoryFuture.get().isDone() ? Optional.empty() : Optional.of(WAITING_FOR_MEMORY),
                 info);
     }
@@ -64,6 +64,12 @@ public class OperatorStats
 
     private final DataSize memoryReservation;
     private final DataSize systemMemoryReservation;
+    private final DataSize spilledDataSize;
+    private final long spilledRuns;
+    private final long passThroughPositions;
+    private final DataSize exchangeDataSize;
+    private final DataSize exchangeUncompressedDataSize;
+    private final DataSize revocableMemoryReservation;
     private final Optional<BlockedReason> blockedReason;
 
     private final OperatorInfo info;
@@ -101,6 +107,12 @@ public class OperatorStats
 
             @JsonProperty("memoryReservation") DataSize memoryReservation,
             @JsonProperty("systemMemoryReservation") DataSize systemMemoryReservation,
+            @JsonProperty("spilledDataSize") DataSize spilledDataSize,
+            @JsonProperty("spilledRuns") long spilledRuns,
+            @JsonProperty("passThroughPositions") long passThroughPositions,
+            @JsonProperty("exchangeDataSize") DataSize exchangeDataSize,
+            @JsonProperty("exchangeUncompressedDataSize") DataSize exchangeUncompressedDataSize,
+            @JsonProperty("revocableMemoryReservation") DataSize revocableMemoryReservation,
             @JsonProperty("blockedReason") Optional<BlockedReason> blockedReason,
 
             @JsonProperty("info") OperatorInfo info)
@@ -140,6 +152,14 @@ public class OperatorStats
 
         this.memoryReservation = requireNonNull(memoryReservation, "memoryReservation is null");
         this.systemMemoryReservation = requireNonNull(systemMemoryReservation, "systemMemoryReservation is null");
+        this.spilledDataSize = requireNonNull(spilledDataSize, "spilledDataSize is null");
+        checkArgument(spilledRuns >= 0, "spilledRuns is negative");
+        this.spilledRuns = spilledRuns;
+        checkArgument(passThroughPositions >= 0, "passThroughPositions is negative");
+        this.passThroughPositions = passThroughPositions;
+        this.exchangeDataSize = requireNonNull(exchangeDataSize, "exchangeDataSize is null");
+        this.exchangeUncompressedDataSize = requireNonNull(exchangeUncompressedDataSize, "exchangeUncompressedDataSize is null");
+        this.revocableMemoryReservation = requireNonNull(revocableMemoryReservation, "revocableMemoryReservation is null");
         this.blockedReason = blockedReason;
 
         this.info = info;
@@ -295,6 +315,56 @@ public class OperatorStats
         return systemMemoryReservation;
     }
 
+    @JsonProperty
+    public DataSize getSpilledDataSize()
+    {
+        return spilledDataSize;
+    }
+
+    @JsonProperty
+    public long getSpilledRuns()
+    {
+        return spilledRuns;
+    }
+
+    /**
+     * Number of input positions the operator forwarded without processing them,
+     * e.g. rows a partial aggregation passed through because grouping them did
+     * not reduce their number.
+     */
+    @JsonProperty
+    public long getPassThroughPositions()
+    {
+        return passThroughPositions;
+    }
+
+    /**
+     * Size of the serialized pages the operator sent to or received from an exchange.
+     */
+    @JsonProperty
+    public DataSize getExchangeDataSize()
+    {
+        return exchangeDataSize;
+    }
+
+    /**
+     * Size the serialized pages sent to or received from an exchange would have had without compression.
+     */
+    @JsonProperty
+    public DataSize getExchangeUncompressedDataSize()
+    {
+        return exchangeUncompressedDataSize;
+    }
+
+    /**
+     * Memory the operator releases by spilling when the memory pool runs low.
+     */
+    @JsonProperty
+    public DataSize getRevocableMemoryReservation()
+    {
+        return revocableMemoryReservation;
+    }
+
     @JsonProperty
     public Optional<BlockedReason> getBlockedReason()
     {
@@ -341,6 +411,12 @@ public class OperatorStats
 
         long memoryReservation = this.memoryReservation.toBytes();
         long systemMemoryReservation = this.systemMemoryReservation.toBytes();
+        long spilledDataSize = this.spilledDataSize.toBytes();
+        long spilledRuns = this.spilledRuns;
+        long passThroughPositions = this.passThroughPositions;
+        long exchangeDataSize = this.exchangeDataSize.toBytes();
+        long exchangeUncompressedDataSize = this.exchangeUncompressedDataSize.toBytes();
+        long revocableMemoryReservation = this.revocableMemoryReservation.toBytes();
         Optional<BlockedReason> blockedReason = this.blockedReason;
 
         Mergeable<OperatorInfo> base = getMergeableInfoOrNull(info);
@@ -373,6 +449,12 @@ public class OperatorStats
 
             memoryReservation += operator.getMemoryReservation().toBytes();
             systemMemoryReservation += operator.getSystemMemoryReservation().toBytes();
+            spilledDataSize += operator.getSpilledDataSize().toBytes();
+            spilledRuns += operator.getSpilledRuns();
+            passThroughPositions += operator.getPassThroughPositions();
+            exchangeDataSize += operator.getExchangeDataSize().toBytes();
+            exchangeUncompressedDataSize += operator.getExchangeUncompressedDataSize().toBytes();
+            revocableMemoryReservation += operator.getRevocableMemoryReservation().toBytes();
             if (operator.getBlockedReason().isPresent()) {
                 blockedReason = operator.getBlockedReason();
             }
@@ -415,6 +497,12 @@ public class OperatorStats
 
                 succinctBytes(memoryReservation),
                 succinctBytes(systemMemoryReservation),
+                succinctBytes(spilledDataSize),
+                spilledRuns,
+                passThroughPositions,
+                succinctBytes(exchangeDataSize),
+                succinctBytes(exchangeUncompressedDataSize),
+                succinctBytes(revocableMemoryReservation),
                 blockedReason,
 
                 (OperatorInfo) base);
@@ -464,6 +552,12 @@ public class OperatorStats
                 finishUser,
                 memoryReservation,
                 systemMemoryReservation,
+                spilledDataSize,
+                spilledRuns,
+                passThroughPositions,
+                exchangeDataSize,
+                exchangeUncompressedDataSize,
+                revocableMemoryReservation,
                 blockedReason,
                 (info != null && info.isFinal()) ? info : null);
     }
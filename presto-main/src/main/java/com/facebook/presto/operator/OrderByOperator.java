@@ -13,17 +13,30 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.memory.LocalMemoryContext;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.concurrent.MoreFutures;
+import io.airlift.units.DataSize;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import static com.facebook.presto.operator.MergeSortedPages.mergeSortedPages;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.Objects.requireNonNull;
 
 public class OrderByOperator
@@ -42,6 +55,9 @@ public class OrderByOperator
         private final List<Type> types;
         private boolean closed;
         private final PagesIndex.Factory pagesIndexFactory;
+        private final boolean spillEnabled;
+        private final DataSize memoryLimitBeforeSpill;
+        private final SpillerFactory spillerFactory;
 
         public OrderByOperatorFactory(
                 int operatorId,
@@ -52,6 +68,45 @@ public class OrderByOperator
                 List<Integer> sortChannels,
                 List<SortOrder> sortOrder,
                 PagesIndex.Factory pagesIndexFactory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    outputChannels,
+                    expectedPositions,
+                    sortChannels,
+                    sortOrder,
+                    pagesIndexFactory,
+                    false,
+                    new DataSize(0, MEGABYTE),
+                    new SpillerFactory()
+                    {
+                        @Override
+                        public Spiller create(List<Type> types)
+                        {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        public long getTotalSpilledBytes()
+                        {
+                            return 0;
+                        }
+                    });
+        }
+
+        public OrderByOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                int expectedPositions,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrder,
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                DataSize memoryLimitBeforeSpill,
+                SpillerFactory spillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -63,6 +118,9 @@ public class OrderByOperator
 
             this.types = toTypes(sourceTypes, outputChannels);
             this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
+            this.spillEnabled = spillEnabled;
+            this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null");
+            this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
         }
 
         @Override
@@ -84,7 +142,10 @@ public class OrderByOperator
                     expectedPositions,
                     sortChannels,
                     sortOrder,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    spillEnabled,
+                    memoryLimitBeforeSpill,
+                    spillerFactory);
         }
 
         @Override
@@ -96,7 +157,18 @@ public class OrderByOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new OrderByOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, expectedPositions, sortChannels, sortOrder, pagesIndexFactory);
+            return new OrderByOperatorFactory(
+                    operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    outputChannels,
+                    expectedPositions,
+                    sortChannels,
+                    sortOrder,
+                    pagesIndexFactory,
+                    spillEnabled,
+                    memoryLimitBeforeSpill,
+                    spillerFactory);
         }
     }
 
@@ -108,16 +180,28 @@ public class OrderByOperator
     }
 
     private final OperatorContext operatorContext;
+    private final List<Type> sourceTypes;
     private final List<Integer> sortChannels;
     private final List<SortOrder> sortOrder;
     private final int[] outputChannels;
     private final List<Type> types;
+    private final int expectedPositions;
+    private final PagesIndex.Factory pagesIndexFactory;
 
-    private final PagesIndex pageIndex;
+    private PagesIndex pageIndex;
 
     private final PageBuilder pageBuilder;
     private int currentPosition;
 
+    private final boolean spillEnabled;
+    private final long memoryLimitBeforeSpill;
+    private final SpillerFactory spillerFactory;
+    private final LocalMemoryContext spillMemoryContext;
+
+    private Optional<Spiller> spiller = Optional.empty();
+    private CompletableFuture<?> spillInProgress = CompletableFuture.completedFuture(null);
+    private Optional<Iterator<Page>> mergedPages = Optional.empty();
+
     private State state = State.NEEDS_INPUT;
 
     public OrderByOperator(
@@ -127,19 +211,28 @@ public class OrderByOperator
             int expectedPositions,
             List<Integer> sortChannels,
             List<SortOrder> sortOrder,
-            PagesIndex.Factory pagesIndexFactory)
+            PagesIndex.Factory pagesIndexFactory,
+            boolean spillEnabled,
+            DataSize memoryLimitBeforeSpill,
+            SpillerFactory spillerFactory)
     {
-        requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
-
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.sourceTypes = ImmutableList.copyOf(requireNonNull(sourceTypes, "sourceTypes is null"));
         this.outputChannels = Ints.toArray(requireNonNull(outputChannels, "outputChannels is null"));
         this.types = toTypes(sourceTypes, outputChannels);
         this.sortChannels = ImmutableList.copyOf(requireNonNull(sortChannels, "sortChannels is null"));
         this.sortOrder = ImmutableList.copyOf(requireNonNull(sortOrder, "sortOrder is null"));
+        this.expectedPositions = expectedPositions;
+        this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
 
         this.pageIndex = pagesIndexFactory.newPagesIndex(sourceTypes, expectedPositions);
 
         this.pageBuilder = new PageBuilder(this.types);
+
+        this.spillEnabled = spillEnabled;
+        this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null").toBytes();
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.spillMemoryContext = operatorContext.getSystemMemoryContext().newLocalMemoryContext();
     }
 
     @Override
@@ -157,11 +250,29 @@ public class OrderByOperator
     @Override
     public void finish()
     {
-        if (state == State.NEEDS_INPUT) {
-            state = State.HAS_OUTPUT;
+        if (state != State.NEEDS_INPUT || !spillInProgress.isDone()) {
+            return;
+        }
+        // check for exception from previous spill for early failure
+        getFutureValue(spillInProgress);
+        spillMemoryContext.setBytes(0);
+
+        state = State.HAS_OUTPUT;
+
+        // the last run is not spilled anymore, so its memory is no longer revocable
+        operatorContext.setRevocableMemoryReservation(0);
+        operatorContext.setMemoryReservation(pageIndex.getEstimatedSize().toBytes());
 
-            // sort the index
-            pageIndex.sort(sortChannels, sortOrder);
+        // sort the index
+        pageIndex.sort(sortChannels, sortOrder);
+
+        if (spiller.isPresent()) {
+            // merge the spilled runs with the last run, which is still in memory
+            List<Iterator<Page>> sortedRuns = ImmutableList.<Iterator<Page>>builder()
+                    .addAll(spiller.get().getSpills())
+                    .add(pageIndex.getSortedPages())
+                    .build();
+            mergedPages = Optional.of(mergeSortedPages(sourceTypes, sortChannels, sortOrder, sortedRuns));
         }
     }
 
@@ -174,17 +285,78 @@ public class OrderByOperator
     @Override
     public boolean needsInput()
     {
-        return state == State.NEEDS_INPUT;
+        return state == State.NEEDS_INPUT && spillInProgress.isDone();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return MoreFutures.toListenableFuture(spillInProgress);
+        }
+        return NOT_BLOCKED;
     }
 
     @Override
     public void addInput(Page page)
     {
-        checkState(state == State.NEEDS_INPUT, "Operator is already finishing");
+        checkState(needsInput(), "Operator is already finishing");
         requireNonNull(page, "page is null");
+        // check for exception from previous spill for early failure
+        getFutureValue(spillInProgress);
+        spillMemoryContext.setBytes(0);
 
         pageIndex.addPage(page);
-        operatorContext.setMemoryReservation(pageIndex.getEstimatedSize().toBytes());
+        if (!spillEnabled) {
+            operatorContext.setMemoryReservation(pageIndex.getEstimatedSize().toBytes());
+            return;
+        }
+        if (pageIndex.getEstimatedSize().toBytes() > memoryLimitBeforeSpill) {
+            spillSortedRun();
+        }
+        // the index can be spilled at any time, so the memory pool may revoke it
+        operatorContext.setRevocableMemoryReservation(pageIndex.getEstimatedSize().toBytes());
+    }
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoking()
+    {
+        if (state != State.NEEDS_INPUT || !spillInProgress.isDone() || pageIndex.getPositionCount() == 0) {
+            return NOT_BLOCKED;
+        }
+        // check for exception from previous spill for early failure
+        getFutureValue(spillInProgress);
+        spillMemoryContext.setBytes(0);
+
+        spillSortedRun();
+        operatorContext.setRevocableMemoryReservation(pageIndex.getEstimatedSize().toBytes());
+        return MoreFutures.toListenableFuture(spillInProgress);
+    }
+
+    @Override
+    public void finishMemoryRevoking()
+    {
+        // check for exception from the spill
+        getFutureValue(spillInProgress);
+        spillMemoryContext.setBytes(0);
+    }
+
+    private void spillSortedRun()
+    {
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(spillerFactory.create(sourceTypes));
+        }
+
+        pageIndex.sort(sortChannels, sortOrder);
+
+        // transfer ownership of the sorted run to the spilling thread and continue with an empty index
+        PagesIndex sortedRun = pageIndex;
+        pageIndex = pagesIndexFactory.newPagesIndex(sourceTypes, expectedPositions);
+        long spilledBytes = sortedRun.getEstimatedSize().toBytes();
+        spillMemoryContext.setBytes(spilledBytes);
+        operatorContext.recordSpill(spilledBytes);
+
+        spillInProgress = spiller.get().spill(sortedRun.getSortedPages());
     }
 
     @Override
@@ -194,6 +366,14 @@ public class OrderByOperator
             return null;
         }
 
+        if (mergedPages.isPresent()) {
+            if (!mergedPages.get().hasNext()) {
+                state = State.FINISHED;
+                return null;
+            }
+            return selectOutputChannels(mergedPages.get().next());
+        }
+
         if (currentPosition >= pageIndex.getPositionCount()) {
             state = State.FINISHED;
             return null;
@@ -213,6 +393,23 @@ public class OrderByOperator
         return page;
     }
 
+    @Override
+    public void close()
+    {
+        spiller.ifPresent(Spiller::close);
+        spillMemoryContext.setBytes(0);
+        operatorContext.setRevocableMemoryReservation(0);
+    }
+
+    private Page selectOutputChannels(Page page)
+    {
+        Block[] blocks = new Block[outputChannels.length];
+        for (int i = 0; i < outputChannels.length; i++) {
+            blocks[i] = page.getBlock(outputChannels[i]);
+        }
+        return new Page(page.getPositionCount(), blocks);
+    }
+
     private static List<Type> toTypes(List<? extends Type> sourceTypes, List<Integer> outputChannels)
     {
         ImmutableList.Builder<Type> types = ImmutableList.builder();
@@ -17,21 +17,37 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import io.airlift.units.DataSize;
 import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
 import static com.facebook.presto.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.slice.SizeOf.sizeOf;
+import static io.airlift.slice.SizeOf.sizeOfIntArray;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.lang.Integer.numberOfTrailingZeros;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.ForkJoinPool.defaultForkJoinWorkerThreadFactory;
+import static java.util.stream.Collectors.toList;
 
 // This implementation assumes arrays used in the hash are always a power of 2
 public final class PagesHash
+        implements PagesHashTable
 {
     private static final DataSize CACHE_SIZE = new DataSize(128, KILOBYTE);
+    private static final int PARALLEL_BUILD_MIN_POSITIONS = 128 * 1024;
+    private static final int MIN_SLOTS_PER_RANGE = 16 * 1024;
     private final LongArrayList addresses;
     private final PagesHashStrategy pagesHashStrategy;
 
@@ -49,6 +65,11 @@ public final class PagesHash
     private final double expectedHashCollisions;
 
     public PagesHash(LongArrayList addresses, PagesHashStrategy pagesHashStrategy)
+    {
+        this(addresses, pagesHashStrategy, false);
+    }
+
+    public PagesHash(LongArrayList addresses, PagesHashStrategy pagesHashStrategy, boolean parallelBuildEnabled)
     {
         this.addresses = requireNonNull(addresses, "addresses is null");
         this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
@@ -66,6 +87,34 @@ public final class PagesHash
 
         positionToHashes = new byte[addresses.size()];
 
+        if (parallelBuildEnabled && addresses.size() >= PARALLEL_BUILD_MIN_POSITIONS) {
+            hashCollisions = indexPositionsInParallel(hashSize);
+        }
+        else {
+            hashCollisions = indexPositions();
+        }
+
+        size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
+                sizeOf(key) + sizeOf(positionLinks) + sizeOf(positionToHashes);
+        expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
+    }
+
+    /**
+     * Returns the size of the temporary arrays of a parallel build of a hash of the given
+     * number of positions, or zero if the hash is built serially. The caller should reserve
+     * it in addition to the memory of the positions before building the hash.
+     */
+    public static long getParallelBuildTemporarySizeInBytes(int positionCount, boolean parallelBuildEnabled)
+    {
+        if (!parallelBuildEnabled || positionCount < PARALLEL_BUILD_MIN_POSITIONS) {
+            return 0;
+        }
+        // the first slot of every position, and the positions grouped by range
+        return 2 * sizeOfIntArray(positionCount);
+    }
+
+    private long indexPositions()
+    {
         // We will process addresses in batches, to save memory on array of hashes.
         int positionsInStep = Math.min(addresses.size() + 1, (int) CACHE_SIZE.toBytes() / Integer.SIZE);
         long[] positionToFullHashes = new long[positionsInStep];
@@ -93,65 +142,210 @@ public final class PagesHash
                     continue;
                 }
 
-                long hash = positionToFullHashes[position];
-                int pos = getHashPosition(hash, mask);
-
-                // look for an empty slot or a slot containing this key
-                while (key[pos] != -1) {
-                    int currentKey = key[pos];
-                    if (((byte) hash) == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
-                        // found a slot for this key
-                        // link the new key position to the current key position
-                        positionLinks[realPosition] = currentKey;
-
-                        // key[pos] updated outside of this loop
-                        break;
-                    }
-                    // increment position and mask to handler wrap around
-                    pos = (pos + 1) & mask;
-                    hashCollisionsLocal++;
+                hashCollisionsLocal += addPosition(realPosition, getHashPosition(positionToFullHashes[position], mask));
+            }
+        }
+        return hashCollisionsLocal;
+    }
+
+    /**
+     * Splits the slots of the hash into ranges, which are filled in parallel. The positions
+     * are first grouped by the range of their first slot, and a position whose probe sequence
+     * reaches the end of its range is added after all the ranges are filled. The positions of
+     * a key always end up in the same range or all overflow it, so they are linked in the same
+     * order as in {@link #indexPositions}.
+     */
+    private long indexPositionsInParallel(int hashSize)
+    {
+        int positionCount = addresses.size();
+        int rangeCount = (int) Math.max(Math.min(HashCommon.nextPowerOfTwo(BuildExecutorHolder.EXECUTOR.getParallelism() * 4L), hashSize / MIN_SLOTS_PER_RANGE), 1);
+        int rangeShift = numberOfTrailingZeros(hashSize) - numberOfTrailingZeros(rangeCount);
+
+        // the positions are split in as many chunks as there are ranges
+        int chunkSize = (positionCount + rangeCount - 1) / rangeCount;
+        int[] firstSlots = new int[positionCount];
+        int[][] chunkRangeCounts = new int[rangeCount][rangeCount];
+
+        // compute the hashes and count the positions of every chunk in every range
+        runInParallel(rangeCount, chunk -> {
+            int[] rangeCounts = chunkRangeCounts[chunk];
+            int chunkEndPosition = chunkEndPosition(chunk, chunkSize, positionCount);
+            for (int position = chunkStartPosition(chunk, chunkSize, positionCount); position < chunkEndPosition; position++) {
+                long hash = readHashPosition(position);
+                positionToHashes[position] = (byte) hash;
+                if (isPositionNull(position)) {
+                    firstSlots[position] = -1;
+                    continue;
+                }
+                int slot = getHashPosition(hash, mask);
+                firstSlots[position] = slot;
+                rangeCounts[slot >>> rangeShift]++;
+            }
+        });
+
+        // group the positions by range, keeping them in order within a range
+        int[] rangeOffsets = new int[rangeCount + 1];
+        int[][] chunkRangeOffsets = new int[rangeCount][rangeCount];
+        int offset = 0;
+        for (int range = 0; range < rangeCount; range++) {
+            rangeOffsets[range] = offset;
+            for (int chunk = 0; chunk < rangeCount; chunk++) {
+                chunkRangeOffsets[chunk][range] = offset;
+                offset += chunkRangeCounts[chunk][range];
+            }
+        }
+        rangeOffsets[rangeCount] = offset;
+
+        int[] rangePositions = new int[offset];
+        runInParallel(rangeCount, chunk -> {
+            int[] nextOffsets = chunkRangeOffsets[chunk];
+            int chunkEndPosition = chunkEndPosition(chunk, chunkSize, positionCount);
+            for (int position = chunkStartPosition(chunk, chunkSize, positionCount); position < chunkEndPosition; position++) {
+                if (firstSlots[position] >= 0) {
+                    rangePositions[nextOffsets[firstSlots[position] >>> rangeShift]++] = position;
+                }
+            }
+        });
+
+        // fill the ranges, no two tasks ever touch the same slot
+        long[] rangeHashCollisions = new long[rangeCount];
+        IntArrayList[] rangeOverflowPositions = new IntArrayList[rangeCount];
+        runInParallel(rangeCount, range -> {
+            int endSlot = (range + 1) << rangeShift;
+            IntArrayList overflowPositions = new IntArrayList();
+            long hashCollisionsLocal = 0;
+            for (int i = rangeOffsets[range]; i < rangeOffsets[range + 1]; i++) {
+                int realPosition = rangePositions[i];
+                int positionHashCollisions = addPositionBefore(realPosition, firstSlots[realPosition], endSlot);
+                if (positionHashCollisions < 0) {
+                    overflowPositions.add(realPosition);
                 }
+                else {
+                    hashCollisionsLocal += positionHashCollisions;
+                }
+            }
+            rangeHashCollisions[range] = hashCollisionsLocal;
+            rangeOverflowPositions[range] = overflowPositions;
+        });
 
-                key[pos] = realPosition;
+        long hashCollisionsLocal = 0;
+        for (int range = 0; range < rangeCount; range++) {
+            hashCollisionsLocal += rangeHashCollisions[range];
+            IntArrayList overflowPositions = rangeOverflowPositions[range];
+            for (int i = 0; i < overflowPositions.size(); i++) {
+                int realPosition = overflowPositions.getInt(i);
+                hashCollisionsLocal += addPosition(realPosition, firstSlots[realPosition]);
             }
         }
+        return hashCollisionsLocal;
+    }
 
-        size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
-                sizeOf(key) + sizeOf(positionLinks) + sizeOf(positionToHashes);
-        hashCollisions = hashCollisionsLocal;
-        expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
+    private static void runInParallel(int taskCount, IntConsumer task)
+    {
+        List<Callable<Void>> tasks = IntStream.range(0, taskCount)
+                .mapToObj(index -> (Callable<Void>) () -> {
+                    task.accept(index);
+                    return null;
+                })
+                .collect(toList());
+        List<Future<Void>> futures = BuildExecutorHolder.EXECUTOR.invokeAll(tasks);
+        futures.forEach(future -> getFutureValue(future));
+    }
+
+    // Links the position to the other positions with the same key, starting the search at the
+    // given slot, and returns the number of hash collisions
+    private int addPosition(int realPosition, int pos)
+    {
+        int hashCollisionsLocal = 0;
+
+        // look for an empty slot or a slot containing this key
+        while (key[pos] != -1) {
+            int currentKey = key[pos];
+            if (positionToHashes[realPosition] == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
+                // found a slot for this key
+                // link the new key position to the current key position
+                positionLinks[realPosition] = currentKey;
+
+                // key[pos] updated outside of this loop
+                break;
+            }
+            // increment position and mask to handler wrap around
+            pos = (pos + 1) & mask;
+            hashCollisionsLocal++;
+        }
+
+        key[pos] = realPosition;
+        return hashCollisionsLocal;
     }
 
+    // Same as addPosition, but returns -1 without adding the position if the search reaches endSlot
+    private int addPositionBefore(int realPosition, int pos, int endSlot)
+    {
+        int hashCollisionsLocal = 0;
+        while (key[pos] != -1) {
+            int currentKey = key[pos];
+            if (positionToHashes[realPosition] == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
+                positionLinks[realPosition] = currentKey;
+                break;
+            }
+            pos++;
+            if (pos == endSlot) {
+                return -1;
+            }
+            hashCollisionsLocal++;
+        }
+
+        key[pos] = realPosition;
+        return hashCollisionsLocal;
+    }
+
+    private static int chunkStartPosition(int chunk, int chunkSize, int positionCount)
+    {
+        return (int) Math.min((long) chunk * chunkSize, positionCount);
+    }
+
+    private static int chunkEndPosition(int chunk, int chunkSize, int positionCount)
+    {
+        return chunkStartPosition(chunk + 1, chunkSize, positionCount);
+    }
+
+    @Override
     public final int getChannelCount()
     {
         return channelCount;
     }
 
+    @Override
     public int getPositionCount()
     {
         return positionLinks.length;
     }
 
+    @Override
     public long getInMemorySizeInBytes()
     {
         return size;
     }
 
+    @Override
     public long getHashCollisions()
     {
         return hashCollisions;
     }
 
+    @Override
     public double getExpectedHashCollisions()
     {
         return expectedHashCollisions;
     }
 
+    @Override
     public int getAddressIndex(int position, Page hashChannelsPage, Page allChannelsPage)
     {
         return getAddressIndex(position, hashChannelsPage, allChannelsPage, pagesHashStrategy.hashRow(position, hashChannelsPage));
     }
 
+    @Override
     public int getAddressIndex(int rightPosition, Page hashChannelsPage, Page allChannelsPage, long rawHash)
     {
         int pos = getHashPosition(rawHash, mask);
@@ -166,11 +360,13 @@ public final class PagesHash
         return -1;
     }
 
+    @Override
     public int getNextAddressIndex(int currentAddressIndex)
     {
         return positionLinks[currentAddressIndex];
     }
 
+    @Override
     public void appendTo(int position, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long pageAddress = addresses.getLong(position);
@@ -241,4 +437,20 @@ public final class PagesHash
 
         return (int) (rawHash & mask);
     }
+
+    // the parallel builds run on their own pool, so they do not compete with other users of the common pool
+    private static final class BuildExecutorHolder
+    {
+        private static final ForkJoinPool EXECUTOR = new ForkJoinPool(
+                Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("pages-hash-build-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null,
+                false);
+
+        private BuildExecutorHolder() {}
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+
+/**
+ * Hash table over the rows of a {@link PagesIndex}, which maps the join key of a probe row
+ * to the index of the address of a build row with the same key. The other build rows with
+ * that key are reached through {@link #getNextAddressIndex}.
+ */
+public interface PagesHashTable
+{
+    int getChannelCount();
+
+    int getPositionCount();
+
+    long getInMemorySizeInBytes();
+
+    long getHashCollisions();
+
+    double getExpectedHashCollisions();
+
+    int getAddressIndex(int position, Page hashChannelsPage, Page allChannelsPage);
+
+    int getAddressIndex(int rightPosition, Page hashChannelsPage, Page allChannelsPage, long rawHash);
+
+    /**
+     * Looks up the rows {@code positions[offset]} to {@code positions[offset + length - 1]}
+     * of the probe page, storing the address index of every row into {@code addressIndexes}
+     * at the position of the row. The raw hashes are indexed by position as well.
+     */
+    default void getAddressIndexes(int[] positions, int offset, int length, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes, long[] addressIndexes)
+    {
+        for (int i = offset; i < offset + length; i++) {
+            int position = positions[i];
+            addressIndexes[position] = getAddressIndex(position, hashChannelsPage, allChannelsPage, rawHashes[position]);
+        }
+    }
+
+    int getNextAddressIndex(int currentAddressIndex);
+
+    void appendTo(int position, PageBuilder pageBuilder, int outputChannelOffset);
+}
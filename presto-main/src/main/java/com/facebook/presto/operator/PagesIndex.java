@@ -24,6 +24,7 @@ import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.gen.JoinCompiler.LookupSourceSupplierFactory;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
 import com.facebook.presto.sql.gen.OrderingCompiler;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
@@ -34,11 +35,14 @@ import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
 import javax.inject.Inject;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
+import static com.facebook.presto.SystemSessionProperties.isOpenAddressingJoinHashEnabled;
+import static com.facebook.presto.SystemSessionProperties.isParallelHashBuildEnabled;
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
 import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
@@ -182,11 +186,66 @@ public class PagesIndex
         estimatedSize = calculateEstimatedSize();
     }
 
+    /**
+     * Returns the pages added to this index in insertion order. The returned
+     * pages share blocks with this index, so they remain valid after the
+     * index is cleared.
+     */
+    public List<Page> getPages()
+    {
+        int pageCount = (channels.length > 0) ? channels[0].size() : 0;
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        for (int pageIndex = 0; pageIndex < pageCount; pageIndex++) {
+            Block[] blocks = new Block[channels.length];
+            for (int channel = 0; channel < channels.length; channel++) {
+                blocks[channel] = channels[channel].get(pageIndex);
+            }
+            pages.add(new Page(blocks));
+        }
+        return pages.build();
+    }
+
+    /**
+     * Returns the rows of this index in the current (e.g. sorted) position order
+     * with all channels. Pages are built lazily, so the index must not be modified
+     * while the iterator is in use.
+     */
+    public Iterator<Page> getSortedPages()
+    {
+        return new AbstractIterator<Page>()
+        {
+            private final int[] outputChannels = IntStream.range(0, types.size()).toArray();
+            private final PageBuilder pageBuilder = new PageBuilder(types);
+            private int currentPosition;
+
+            @Override
+            protected Page computeNext()
+            {
+                if (currentPosition >= positionCount) {
+                    return endOfData();
+                }
+                pageBuilder.reset();
+                currentPosition = buildPage(currentPosition, outputChannels, pageBuilder);
+                return pageBuilder.build();
+            }
+        };
+    }
+
     public DataSize getEstimatedSize()
     {
         return new DataSize(estimatedSize, BYTE);
     }
 
+    /**
+     * Returns the estimated size of the temporary memory needed to build a lookup source
+     * of this index, in addition to the index itself.
+     */
+    public DataSize getEstimatedLookupSourceBuildSize(Session session)
+    {
+        boolean parallelBuildEnabled = isParallelHashBuildEnabled(session) && !isOpenAddressingJoinHashEnabled(session);
+        return new DataSize(PagesHash.getParallelBuildTemporarySizeInBytes(valueAddresses.size(), parallelBuildEnabled), BYTE);
+    }
+
     public void compact()
     {
         for (int channel = 0; channel < types.size(); channel++) {
@@ -398,7 +457,9 @@ public class PagesIndex
                         valueAddresses,
                         channels,
                         hashChannel,
-                        filterFunctionFactory);
+                        filterFunctionFactory,
+                        isOpenAddressingJoinHashEnabled(session),
+                        isParallelHashBuildEnabled(session));
             }
             catch (Exception e) {
                 log.error(e, "Lookup source compile failed for types=%s error=%s", types, e);
@@ -418,7 +479,9 @@ public class PagesIndex
                 hashStrategy,
                 valueAddresses,
                 channels,
-                filterFunctionFactory);
+                filterFunctionFactory,
+                isOpenAddressingJoinHashEnabled(session),
+                isParallelHashBuildEnabled(session));
     }
 
     private List<Integer> rangeList(int endExclusive)
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Decides when a partial aggregation should stop grouping its input. Once
+ * enough rows were added to a hash table, the ratio of groups to input rows
+ * shows how much the partial aggregation reduces the data sent to the final
+ * aggregation. If nearly every row is a distinct group, hashing is pure
+ * overhead and the rows are better passed through in the intermediate layout.
+ */
+public class PartialAggregationController
+{
+    public static final long DEFAULT_MIN_ROWS = 100_000;
+
+    private final long minRows;
+    private final double uniqueRowsRatioThreshold;
+
+    public PartialAggregationController(long minRows, double uniqueRowsRatioThreshold)
+    {
+        checkArgument(minRows > 0, "minRows must be positive");
+        checkArgument(uniqueRowsRatioThreshold >= 0 && uniqueRowsRatioThreshold <= 1, "uniqueRowsRatioThreshold must be between 0 and 1");
+        this.minRows = minRows;
+        this.uniqueRowsRatioThreshold = uniqueRowsRatioThreshold;
+    }
+
+    public boolean shouldPassThrough(long inputRows, long uniqueRows)
+    {
+        return inputRows >= minRows && uniqueRows >= inputRows * uniqueRowsRatioThreshold;
+    }
+}
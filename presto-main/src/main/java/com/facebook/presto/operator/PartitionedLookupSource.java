@@ -22,6 +22,7 @@ import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
@@ -121,6 +122,41 @@ public class PartitionedLookupSource
         return encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
     }
 
+    @Override
+    public void getJoinPositions(int[] positions, int offset, int length, Page hashChannelsPage, Page allChannelsPage, long[] rawHashes, long[] joinPositions)
+    {
+        // group the rows by partition, so every partition looks up all its rows in a single batch
+        int[] partitionOffsets = new int[lookupSources.length + 1];
+        for (int i = offset; i < offset + length; i++) {
+            partitionOffsets[partitionGenerator.getPartition(rawHashes[positions[i]]) + 1]++;
+        }
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+
+        int[] partitionedPositions = new int[length];
+        int[] nextPartitionOffsets = Arrays.copyOf(partitionOffsets, lookupSources.length);
+        for (int i = offset; i < offset + length; i++) {
+            int partition = partitionGenerator.getPartition(rawHashes[positions[i]]);
+            partitionedPositions[nextPartitionOffsets[partition]++] = positions[i];
+        }
+
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            int partitionOffset = partitionOffsets[partition];
+            int partitionLength = partitionOffsets[partition + 1] - partitionOffset;
+            if (partitionLength == 0) {
+                continue;
+            }
+            lookupSources[partition].getJoinPositions(partitionedPositions, partitionOffset, partitionLength, hashChannelsPage, allChannelsPage, rawHashes, joinPositions);
+            for (int i = partitionOffset; i < partitionOffset + partitionLength; i++) {
+                int position = partitionedPositions[i];
+                if (joinPositions[position] >= 0) {
+                    joinPositions[position] = encodePartitionedJoinPosition(partition, toIntExact(joinPositions[position]));
+                }
+            }
+        }
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
@@ -14,26 +14,38 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.planner.Symbol;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.concurrent.MoreFutures;
+import io.airlift.units.DataSize;
 
 import javax.annotation.concurrent.GuardedBy;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import static com.facebook.presto.operator.OuterLookupSource.createOuterLookupSourceSupplier;
 import static com.facebook.presto.operator.PartitionedLookupSource.createPartitionedLookupSourceSupplier;
 import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.Objects.requireNonNull;
 
 public final class PartitionedLookupSourceFactory
@@ -45,7 +57,10 @@ public final class PartitionedLookupSourceFactory
     private final List<Type> hashChannelTypes;
     private final Supplier<LookupSource>[] partitions;
     private final boolean outer;
+    private final Optional<SpillerFactory> spillerFactory;
+    private final DataSize probeMemoryLimitBeforeSpill;
     private final CompletableFuture<?> destroyed = new CompletableFuture<>();
+    private final SettableFuture<?> probeOperatorsFinished = SettableFuture.create();
 
     @GuardedBy("this")
     private int partitionsSet;
@@ -56,13 +71,44 @@ public final class PartitionedLookupSourceFactory
     @GuardedBy("this")
     private final List<SettableFuture<LookupSource>> lookupSourceFutures = new ArrayList<>();
 
+    @GuardedBy("this")
+    private final NavigableMap<Integer, SpilledLookupSourceHandle> spilledPartitions = new TreeMap<>();
+
+    @GuardedBy("this")
+    private int activeProbeOperators;
+
+    @GuardedBy("this")
+    private boolean noMoreProbeOperators;
+
+    @GuardedBy("this")
+    private boolean allProbeOperatorsFinished;
+
+    @GuardedBy("this")
+    private int spilledPartitionConsumers;
+
     public PartitionedLookupSourceFactory(List<Type> types, List<Type> outputTypes, List<Integer> hashChannels, int partitionCount, Map<Symbol, Integer> layout, boolean outer)
+    {
+        this(types, outputTypes, hashChannels, partitionCount, layout, outer, Optional.empty(), new DataSize(0, BYTE));
+    }
+
+    public PartitionedLookupSourceFactory(
+            List<Type> types,
+            List<Type> outputTypes,
+            List<Integer> hashChannels,
+            int partitionCount,
+            Map<Symbol, Integer> layout,
+            boolean outer,
+            Optional<SpillerFactory> spillerFactory,
+            DataSize probeMemoryLimitBeforeSpill)
     {
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.outputTypes = ImmutableList.copyOf(requireNonNull(outputTypes, "outputTypes is null"));
         this.layout = ImmutableMap.copyOf(layout);
         this.partitions = (Supplier<LookupSource>[]) new Supplier<?>[partitionCount];
         this.outer = outer;
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.probeMemoryLimitBeforeSpill = requireNonNull(probeMemoryLimitBeforeSpill, "probeMemoryLimitBeforeSpill is null");
+        checkArgument(!outer || !spillerFactory.isPresent(), "Spilling is not supported for outer lookup sources");
 
         hashChannelTypes = hashChannels.stream()
                 .map(types::get)
@@ -139,10 +185,143 @@ public final class PartitionedLookupSourceFactory
         }
     }
 
+    /**
+     * Marks the partition as spilled to disk. Until all partitions are set the
+     * spilled partition is represented by an empty lookup source; probe rows
+     * belonging to it have to be joined using {@link #unspillPartition}.
+     */
+    public void setPartitionSpilledLookupSourceHandle(int partitionIndex, SpilledLookupSourceHandle spilledLookupSourceHandle)
+    {
+        requireNonNull(spilledLookupSourceHandle, "spilledLookupSourceHandle is null");
+
+        OptionalInt spilledPartitionConsumers = OptionalInt.empty();
+        synchronized (this) {
+            if (destroyed.isDone()) {
+                spilledLookupSourceHandle.dispose();
+                return;
+            }
+            checkState(spillerFactory.isPresent(), "Spilling is not enabled for this lookup source");
+            checkState(!spilledPartitions.containsKey(partitionIndex), "Partition already spilled");
+            spilledPartitions.put(partitionIndex, spilledLookupSourceHandle);
+            if (allProbeOperatorsFinished) {
+                spilledPartitionConsumers = OptionalInt.of(this.spilledPartitionConsumers);
+            }
+        }
+        spilledPartitionConsumers.ifPresent(spilledLookupSourceHandle::setConsumerCount);
+
+        setPartitionLookupSourceSupplier(partitionIndex, spilledLookupSourceHandle.getEmptyLookupSourceSupplier());
+    }
+
+    @Override
+    public int getPartitionCount()
+    {
+        return partitions.length;
+    }
+
+    @Override
+    public synchronized Set<Integer> getSpilledPartitions()
+    {
+        checkState(lookupSourceSupplier != null, "Lookup source is not ready yet");
+        return ImmutableSet.copyOf(spilledPartitions.keySet());
+    }
+
+    @Override
+    public Spiller createProbeSpiller(List<Type> probeTypes)
+    {
+        checkState(spillerFactory.isPresent(), "Spilling is not enabled for this lookup source");
+        return spillerFactory.get().create(probeTypes);
+    }
+
+    @Override
+    public DataSize getProbeMemoryLimitBeforeSpill()
+    {
+        checkState(spillerFactory.isPresent(), "Spilling is not enabled for this lookup source");
+        return probeMemoryLimitBeforeSpill;
+    }
+
+    @Override
+    public synchronized void registerProbeOperator()
+    {
+        checkState(!noMoreProbeOperators, "No more probe operators already set");
+        activeProbeOperators++;
+    }
+
+    @Override
+    public void noMoreProbeOperators()
+    {
+        synchronized (this) {
+            noMoreProbeOperators = true;
+        }
+        checkAllProbeOperatorsFinished();
+    }
+
+    @Override
+    public void finishProbeOperator(boolean joinsSpilledPartitions)
+    {
+        synchronized (this) {
+            checkState(activeProbeOperators > 0, "No active probe operators");
+            activeProbeOperators--;
+            if (joinsSpilledPartitions) {
+                spilledPartitionConsumers++;
+            }
+        }
+        checkAllProbeOperatorsFinished();
+    }
+
+    private void checkAllProbeOperatorsFinished()
+    {
+        List<SpilledLookupSourceHandle> spilledLookupSourceHandles;
+        int spilledPartitionConsumers;
+        synchronized (this) {
+            if (!noMoreProbeOperators || activeProbeOperators > 0 || allProbeOperatorsFinished) {
+                return;
+            }
+            allProbeOperatorsFinished = true;
+            spilledLookupSourceHandles = ImmutableList.copyOf(spilledPartitions.values());
+            spilledPartitionConsumers = this.spilledPartitionConsumers;
+        }
+        // every spilled partition is kept in memory until all operators joining spilled partitions released it
+        for (SpilledLookupSourceHandle spilledLookupSourceHandle : spilledLookupSourceHandles) {
+            spilledLookupSourceHandle.setConsumerCount(spilledPartitionConsumers);
+        }
+        probeOperatorsFinished.set(null);
+    }
+
+    @Override
+    public ListenableFuture<Supplier<LookupSource>> unspillPartition(int partition)
+    {
+        SpilledLookupSourceHandle spilledLookupSourceHandle;
+        ListenableFuture<?> previousPartitionReleased;
+        synchronized (this) {
+            spilledLookupSourceHandle = spilledPartitions.get(partition);
+            checkState(spilledLookupSourceHandle != null, "Partition %s is not spilled", partition);
+            Map.Entry<Integer, SpilledLookupSourceHandle> previousPartition = spilledPartitions.lowerEntry(partition);
+            previousPartitionReleased = previousPartition == null ? probeOperatorsFinished : previousPartition.getValue().getReleasedFuture();
+        }
+        // partitions are loaded one at a time, once the number of operators joining them is known
+        return Futures.transformAsync(previousPartitionReleased, ignored -> spilledLookupSourceHandle.acquireLookupSource(), directExecutor());
+    }
+
+    @Override
+    public void releaseUnspilledPartition(int partition)
+    {
+        SpilledLookupSourceHandle spilledLookupSourceHandle;
+        synchronized (this) {
+            spilledLookupSourceHandle = spilledPartitions.get(partition);
+        }
+        checkState(spilledLookupSourceHandle != null, "Partition %s is not spilled", partition);
+        spilledLookupSourceHandle.releaseLookupSource();
+    }
+
     @Override
     public void destroy()
     {
-        destroyed.complete(null);
+        List<SpilledLookupSourceHandle> spilledLookupSourceHandles;
+        synchronized (this) {
+            destroyed.complete(null);
+            spilledLookupSourceHandles = ImmutableList.copyOf(spilledPartitions.values());
+        }
+        spilledLookupSourceHandles.forEach(SpilledLookupSourceHandle::dispose);
     }
 
     public CompletableFuture<?> isDestroyed()
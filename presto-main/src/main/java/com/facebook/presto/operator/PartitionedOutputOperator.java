@@ -206,6 +206,7 @@ public class PartitionedOutputOperator
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
         this.partitionFunction = new PagePartitioner(
+                operatorContext,
                 partitionFunction,
                 partitionChannels,
                 partitionConstants,
@@ -291,6 +292,7 @@ public class PartitionedOutputOperator
 
     private static class PagePartitioner
     {
+        private final OperatorContext operatorContext;
         private final OutputBuffer outputBuffer;
         private final List<Type> sourceTypes;
         private final PartitionFunction partitionFunction;
@@ -303,6 +305,7 @@ public class PartitionedOutputOperator
         private final AtomicLong pagesAdded = new AtomicLong();
 
         public PagePartitioner(
+                OperatorContext operatorContext,
                 PartitionFunction partitionFunction,
                 List<Integer> partitionChannels,
                 List<Optional<NullableValue>> partitionConstants,
@@ -312,6 +315,7 @@ public class PartitionedOutputOperator
                 List<Type> sourceTypes,
                 DataSize maxMemory)
         {
+            this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
             this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
             this.partitionChannels = requireNonNull(partitionChannels, "partitionChannels is null");
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null").stream()
@@ -404,6 +408,9 @@ public class PartitionedOutputOperator
                     List<SerializedPage> serializedPages = splitPage(pagePartition, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
                             .map(serde::serialize)
                             .collect(toImmutableList());
+                    for (SerializedPage serializedPage : serializedPages) {
+                        operatorContext.recordExchangeData(serializedPage.getSizeInBytes(), serializedPage.getUncompressedSizeInBytes());
+                    }
 
                     blockedFutures.add(outputBuffer.enqueue(partition, serializedPages));
                     pagesAdded.incrementAndGet();
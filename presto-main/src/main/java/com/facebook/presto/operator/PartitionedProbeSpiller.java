@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.memory.LocalMemoryContext;
+import com.facebook.presto.operator.exchange.LocalPartitionGenerator;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Iterators;
+import io.airlift.units.DataSize;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Splits probe pages of a hash join between the build partitions kept in memory
+ * and the build partitions which were spilled to disk. Rows of the spilled
+ * partitions are buffered and spilled per partition, so they can be joined later
+ * once the matching build partition is loaded back into memory.
+ * <p>
+ * This class needs to be public because LookupJoinOperator is isolated.
+ */
+@NotThreadSafe
+public class PartitionedProbeSpiller
+{
+    private final List<Type> probeTypes;
+    private final SortedSet<Integer> spilledPartitions;
+    private final LocalPartitionGenerator partitionGenerator;
+    private final Function<List<Type>, Spiller> spillerFactory;
+    private final LocalMemoryContext memoryContext;
+    private final long memoryLimitBeforeSpill;
+
+    private final Map<Integer, List<Page>> bufferedPages = new HashMap<>();
+    private final Map<Integer, Spiller> spillers = new HashMap<>();
+    private final IntArrayList inMemoryPositions = new IntArrayList();
+    private final Map<Integer, IntArrayList> spilledPositions = new HashMap<>();
+
+    private long bufferedBytes;
+    private CompletableFuture<?> spillInProgress = CompletableFuture.completedFuture(null);
+
+    public PartitionedProbeSpiller(
+            List<Type> probeTypes,
+            Set<Integer> spilledPartitions,
+            LocalPartitionGenerator partitionGenerator,
+            Function<List<Type>, Spiller> spillerFactory,
+            LocalMemoryContext memoryContext,
+            DataSize memoryLimitBeforeSpill)
+    {
+        this.probeTypes = ImmutableList.copyOf(requireNonNull(probeTypes, "probeTypes is null"));
+        this.spilledPartitions = ImmutableSortedSet.copyOf(requireNonNull(spilledPartitions, "spilledPartitions is null"));
+        checkArgument(!spilledPartitions.isEmpty(), "spilledPartitions is empty");
+        this.partitionGenerator = requireNonNull(partitionGenerator, "partitionGenerator is null");
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null").toBytes();
+
+        for (int partition : spilledPartitions) {
+            spilledPositions.put(partition, new IntArrayList());
+            bufferedPages.put(partition, new ArrayList<>());
+        }
+    }
+
+    public SortedSet<Integer> getSpilledPartitions()
+    {
+        return spilledPartitions;
+    }
+
+    /**
+     * Buffers rows of the spilled partitions and returns a page with the remaining rows.
+     */
+    public Page partitionPage(Page page)
+    {
+        inMemoryPositions.clear();
+        for (IntArrayList positions : spilledPositions.values()) {
+            positions.clear();
+        }
+
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            IntArrayList positions = spilledPositions.get(partitionGenerator.getPartition(position, page));
+            if (positions == null) {
+                inMemoryPositions.add(position);
+            }
+            else {
+                positions.add(position);
+            }
+        }
+
+        for (Map.Entry<Integer, IntArrayList> entry : spilledPositions.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                Page spilledPage = copyPositions(page, entry.getValue());
+                bufferedPages.get(entry.getKey()).add(spilledPage);
+                bufferedBytes += spilledPage.getRetainedSizeInBytes();
+            }
+        }
+        memoryContext.setBytes(bufferedBytes);
+
+        if (inMemoryPositions.size() == page.getPositionCount()) {
+            return page;
+        }
+        return copyPositions(page, inMemoryPositions);
+    }
+
+    public long getBufferedBytes()
+    {
+        return bufferedBytes;
+    }
+
+    /**
+     * Returns whether the buffered rows exceed the memory limit, so they should be spilled.
+     */
+    public boolean isMemoryLimitExceeded()
+    {
+        return bufferedBytes > memoryLimitBeforeSpill;
+    }
+
+    /**
+     * Starts spilling all buffered rows. Only one spill can be in progress at a time.
+     */
+    public CompletableFuture<?> spillBufferedPages()
+    {
+        checkState(spillInProgress.isDone(), "Previous spill hasn't yet finished");
+
+        List<CompletableFuture<?>> spills = new ArrayList<>();
+        for (Map.Entry<Integer, List<Page>> entry : bufferedPages.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            Spiller spiller = spillers.computeIfAbsent(entry.getKey(), partition -> spillerFactory.apply(probeTypes));
+            spills.add(spiller.spill(ImmutableList.copyOf(entry.getValue()).iterator()));
+            entry.getValue().clear();
+        }
+        bufferedBytes = 0;
+        memoryContext.setBytes(0);
+
+        spillInProgress = CompletableFuture.allOf(spills.toArray(new CompletableFuture<?>[spills.size()]));
+        return spillInProgress;
+    }
+
+    /**
+     * Returns all probe rows of the partition, both spilled to disk and still buffered in memory.
+     */
+    public Iterator<Page> getPartitionPages(int partition)
+    {
+        checkArgument(spilledPartitions.contains(partition), "Partition %s is not spilled", partition);
+        checkState(spillInProgress.isDone(), "Spill hasn't yet finished");
+
+        List<Iterator<Page>> pages = new ArrayList<>();
+        Spiller spiller = spillers.get(partition);
+        if (spiller != null) {
+            pages.addAll(spiller.getSpills());
+        }
+        pages.add(ImmutableList.copyOf(bufferedPages.get(partition)).iterator());
+        return Iterators.concat(pages.iterator());
+    }
+
+    public void close()
+    {
+        spillers.values().forEach(Spiller::close);
+        spillers.clear();
+        bufferedPages.clear();
+        bufferedBytes = 0;
+        memoryContext.setBytes(0);
+    }
+
+    private static Page copyPositions(Page page, List<Integer> positions)
+    {
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            blocks[channel] = page.getBlock(channel).copyPositions(positions);
+        }
+        return new Page(positions.size(), blocks);
+    }
+}
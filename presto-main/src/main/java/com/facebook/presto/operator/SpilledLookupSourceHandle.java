@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spiller.Spiller;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.unwrapCompletionException;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Build side partition of a hash join which was spilled to disk.
+ * <p>
+ * The partition is loaded back into memory on the first {@link #acquireLookupSource()}
+ * call and kept until every probe operator joining spilled partitions has called
+ * {@link #releaseLookupSource()}, so it is read from disk only once.
+ */
+@ThreadSafe
+public final class SpilledLookupSourceHandle
+{
+    private final Spiller spiller;
+    private final Supplier<LookupSource> emptyLookupSourceSupplier;
+    private final Supplier<CompletableFuture<LookupSourceSupplier>> unspiller;
+    private final LongConsumer memoryTracker;
+
+    private final SettableFuture<?> released = SettableFuture.create();
+
+    @GuardedBy("this")
+    private int consumerCount = -1;
+
+    @GuardedBy("this")
+    private int releaseCount;
+
+    @GuardedBy("this")
+    private SettableFuture<Supplier<LookupSource>> unspilledLookupSource;
+
+    @GuardedBy("this")
+    private long unspilledSizeInBytes;
+
+    @GuardedBy("this")
+    private boolean disposed;
+
+    /**
+     * @param spiller spiller holding the pages of the partition, all of its spills must be completed
+     * @param emptyLookupSourceSupplier lookup source used for the partition while it is on disk
+     * @param unspiller asynchronously reads the spilled pages back and builds the lookup source of the partition
+     * @param memoryTracker receives memory reservation deltas of the unspilled lookup source
+     */
+    public SpilledLookupSourceHandle(
+            Spiller spiller,
+            Supplier<LookupSource> emptyLookupSourceSupplier,
+            Supplier<CompletableFuture<LookupSourceSupplier>> unspiller,
+            LongConsumer memoryTracker)
+    {
+        this.spiller = requireNonNull(spiller, "spiller is null");
+        this.emptyLookupSourceSupplier = requireNonNull(emptyLookupSourceSupplier, "emptyLookupSourceSupplier is null");
+        this.unspiller = requireNonNull(unspiller, "unspiller is null");
+        this.memoryTracker = requireNonNull(memoryTracker, "memoryTracker is null");
+    }
+
+    public Supplier<LookupSource> getEmptyLookupSourceSupplier()
+    {
+        return emptyLookupSourceSupplier;
+    }
+
+    public ListenableFuture<Supplier<LookupSource>> acquireLookupSource()
+    {
+        SettableFuture<Supplier<LookupSource>> future;
+        synchronized (this) {
+            checkState(!disposed, "Spilled lookup source is already disposed");
+            checkState(consumerCount < 0 || releaseCount < consumerCount, "Spilled lookup source is already released by all consumers");
+            if (unspilledLookupSource != null) {
+                return unspilledLookupSource;
+            }
+            unspilledLookupSource = SettableFuture.create();
+            future = unspilledLookupSource;
+        }
+
+        // the first acquirer starts loading the partition on the spiller threads, all acquirers wait on the future
+        CompletableFuture<LookupSourceSupplier> unspilled;
+        try {
+            unspilled = unspiller.get();
+        }
+        catch (RuntimeException e) {
+            future.setException(e);
+            throw e;
+        }
+        unspilled.whenComplete((lookupSourceSupplier, throwable) -> {
+            if (throwable != null) {
+                future.setException(unwrapCompletionException(throwable));
+                return;
+            }
+            long sizeInBytes = lookupSourceSupplier.get().getInMemorySizeInBytes();
+            synchronized (this) {
+                if (unspilledLookupSource != future) {
+                    // the partition was released or disposed while it was loaded
+                    future.set(lookupSourceSupplier);
+                    return;
+                }
+                unspilledSizeInBytes = sizeInBytes;
+            }
+            memoryTracker.accept(sizeInBytes);
+            future.set(lookupSourceSupplier);
+        });
+        return future;
+    }
+
+    /**
+     * Sets the number of probe operators which release the partition. Releases
+     * which happened before the count is known are taken into account.
+     */
+    public void setConsumerCount(int consumerCount)
+    {
+        synchronized (this) {
+            checkState(this.consumerCount < 0, "Consumer count is already set");
+            checkArgument(consumerCount >= releaseCount, "Spilled lookup source was released %s times, which is more than %s consumers", releaseCount, consumerCount);
+            this.consumerCount = consumerCount;
+            if (releaseCount < consumerCount) {
+                return;
+            }
+        }
+        unload();
+    }
+
+    public void releaseLookupSource()
+    {
+        synchronized (this) {
+            releaseCount++;
+            checkState(consumerCount < 0 || releaseCount <= consumerCount, "Spilled lookup source is released more times than it has consumers");
+            if (releaseCount != consumerCount) {
+                return;
+            }
+        }
+        unload();
+    }
+
+    /**
+     * Returns a future which completes once all consumers released the partition.
+     */
+    public ListenableFuture<?> getReleasedFuture()
+    {
+        return released;
+    }
+
+    private void unload()
+    {
+        long freedBytes;
+        synchronized (this) {
+            unspilledLookupSource = null;
+            freedBytes = unspilledSizeInBytes;
+            unspilledSizeInBytes = 0;
+        }
+        memoryTracker.accept(-freedBytes);
+        released.set(null);
+    }
+
+    public void dispose()
+    {
+        long freedBytes;
+        synchronized (this) {
+            if (disposed) {
+                return;
+            }
+            disposed = true;
+            unspilledLookupSource = null;
+            freedBytes = unspilledSizeInBytes;
+            unspilledSizeInBytes = 0;
+        }
+        memoryTracker.accept(-freedBytes);
+        released.set(null);
+        spiller.close();
+    }
+}
@@ -170,6 +170,9 @@ public class TaskOutputOperator
         List<SerializedPage> serializedPages = splitPage(page, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
                 .map(serde::serialize)
                 .collect(toImmutableList());
+        for (SerializedPage serializedPage : serializedPages) {
+            operatorContext.recordExchangeData(serializedPage.getSizeInBytes(), serializedPage.getUncompressedSizeInBytes());
+        }
 
         ListenableFuture<?> future = outputBuffer.enqueue(serializedPages);
         if (!future.isDone()) {
@@ -13,29 +13,42 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.memory.LocalMemoryContext;
 import com.facebook.presto.operator.window.FramedWindowFunction;
 import com.facebook.presto.operator.window.WindowPartition;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.concurrent.MoreFutures;
+import io.airlift.units.DataSize;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
+import static com.facebook.presto.operator.MergeSortedPages.mergeSortedPages;
 import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
 import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkPositionIndex;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.concat;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.Collections.nCopies;
 import static java.util.Objects.requireNonNull;
 
@@ -59,6 +72,9 @@ public class WindowOperator
         private final List<Type> types;
         private boolean closed;
         private final PagesIndex.Factory pagesIndexFactory;
+        private final boolean spillEnabled;
+        private final DataSize memoryLimitBeforeSpill;
+        private final SpillerFactory spillerFactory;
 
         public WindowOperatorFactory(
                 int operatorId,
@@ -73,6 +89,53 @@ public class WindowOperator
                 int preSortedChannelPrefix,
                 int expectedPositions,
                 PagesIndex.Factory pagesIndexFactory)
+        {
+            this(operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    outputChannels,
+                    windowFunctionDefinitions,
+                    partitionChannels,
+                    preGroupedChannels,
+                    sortChannels,
+                    sortOrder,
+                    preSortedChannelPrefix,
+                    expectedPositions,
+                    pagesIndexFactory,
+                    false,
+                    new DataSize(0, MEGABYTE),
+                    new SpillerFactory()
+                    {
+                        @Override
+                        public Spiller create(List<Type> types)
+                        {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        public long getTotalSpilledBytes()
+                        {
+                            return 0;
+                        }
+                    });
+        }
+
+        public WindowOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                List<WindowFunctionDefinition> windowFunctionDefinitions,
+                List<Integer> partitionChannels,
+                List<Integer> preGroupedChannels,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrder,
+                int preSortedChannelPrefix,
+                int expectedPositions,
+                PagesIndex.Factory pagesIndexFactory,
+                boolean spillEnabled,
+                DataSize memoryLimitBeforeSpill,
+                SpillerFactory spillerFactory)
         {
             requireNonNull(sourceTypes, "sourceTypes is null");
             requireNonNull(planNodeId, "planNodeId is null");
@@ -89,6 +152,9 @@ public class WindowOperator
             checkArgument(preSortedChannelPrefix == 0 || ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)), "preSortedChannelPrefix can only be greater than zero if all partition channels are pre-grouped");
 
             this.pagesIndexFactory = pagesIndexFactory;
+            this.spillEnabled = spillEnabled;
+            this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null");
+            this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
             this.operatorId = operatorId;
             this.planNodeId = planNodeId;
             this.sourceTypes = ImmutableList.copyOf(sourceTypes);
@@ -131,7 +197,10 @@ public class WindowOperator
                     sortOrder,
                     preSortedChannelPrefix,
                     expectedPositions,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    spillEnabled,
+                    memoryLimitBeforeSpill,
+                    spillerFactory);
         }
 
         @Override
@@ -155,7 +224,10 @@ public class WindowOperator
                 sortOrder,
                 preSortedChannelPrefix,
                 expectedPositions,
-                pagesIndexFactory);
+                pagesIndexFactory,
+                spillEnabled,
+                memoryLimitBeforeSpill,
+                spillerFactory);
         }
     }
 
@@ -168,6 +240,7 @@ public class WindowOperator
     }
 
     private final OperatorContext operatorContext;
+    private final List<Type> sourceTypes;
     private final int[] outputChannels;
     private final List<FramedWindowFunction> windowFunctions;
     private final List<Integer> orderChannels;
@@ -175,6 +248,7 @@ public class WindowOperator
     private final List<Type> types;
 
     private final int[] preGroupedChannels;
+    private final int[] unGroupedPartitionChannels;
 
     private final PagesHashStrategy preGroupedPartitionHashStrategy;
     private final PagesHashStrategy unGroupedPartitionHashStrategy;
@@ -191,6 +265,22 @@ public class WindowOperator
 
     private Page pendingInput;
 
+    private final boolean spillEnabled;
+    private final long memoryLimitBeforeSpill;
+    private final SpillerFactory spillerFactory;
+    private final LocalMemoryContext spillMemoryContext;
+
+    private Optional<Spiller> spiller = Optional.empty();
+    private CompletableFuture<?> spillInProgress = CompletableFuture.completedFuture(null);
+    // pagesIndex holds a sorted run which is being written to disk and must be cleared once the spill is done
+    private boolean pagesIndexSpilled;
+    // pre-grouped channel values of the group which is partially spilled
+    private Page spilledGroupKey;
+
+    // sorted rows of a spilled group, consumed one partition at a time
+    private Optional<Iterator<Page>> unspilledPages = Optional.empty();
+    private Page pendingUnspilledPage;
+
     public WindowOperator(
             OperatorContext operatorContext,
             List<Type> sourceTypes,
@@ -202,7 +292,10 @@ public class WindowOperator
             List<SortOrder> sortOrder,
             int preSortedChannelPrefix,
             int expectedPositions,
-            PagesIndex.Factory pagesIndexFactory)
+            PagesIndex.Factory pagesIndexFactory,
+            boolean spillEnabled,
+            DataSize memoryLimitBeforeSpill,
+            SpillerFactory spillerFactory)
     {
         requireNonNull(operatorContext, "operatorContext is null");
         requireNonNull(outputChannels, "outputChannels is null");
@@ -218,6 +311,7 @@ public class WindowOperator
         checkArgument(preSortedChannelPrefix == 0 || ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)), "preSortedChannelPrefix can only be greater than zero if all partition channels are pre-grouped");
 
         this.operatorContext = operatorContext;
+        this.sourceTypes = ImmutableList.copyOf(sourceTypes);
         this.outputChannels = Ints.toArray(outputChannels);
         this.windowFunctions = windowFunctionDefinitions.stream()
                 .map(functionDefinition -> new FramedWindowFunction(functionDefinition.createWindowFunction(), functionDefinition.getFrameInfo()))
@@ -236,6 +330,7 @@ public class WindowOperator
         List<Integer> unGroupedPartitionChannels = partitionChannels.stream()
                 .filter(channel -> !preGroupedChannels.contains(channel))
                 .collect(toImmutableList());
+        this.unGroupedPartitionChannels = Ints.toArray(unGroupedPartitionChannels);
         this.unGroupedPartitionHashStrategy = pagesIndex.createPagesHashStrategy(unGroupedPartitionChannels, Optional.empty());
         List<Integer> preSortedChannels = sortChannels.stream()
                 .limit(preSortedChannelPrefix)
@@ -255,6 +350,12 @@ public class WindowOperator
             this.orderChannels = ImmutableList.copyOf(concat(unGroupedPartitionChannels, sortChannels));
             this.ordering = ImmutableList.copyOf(concat(nCopies(unGroupedPartitionChannels.size(), ASC_NULLS_LAST), sortOrder));
         }
+
+        // pre-sorted input is only buffered one partition at a time, so there is nothing to gain from spilling
+        this.spillEnabled = spillEnabled && preSortedChannelPrefix == 0;
+        this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null").toBytes();
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.spillMemoryContext = operatorContext.getSystemMemoryContext().newLocalMemoryContext();
     }
 
     @Override
@@ -272,12 +373,13 @@ public class WindowOperator
     @Override
     public void finish()
     {
-        if (state == State.FINISHING || state == State.FINISHED) {
+        if (state == State.FINISHING || state == State.FINISHED || !spillInProgress.isDone()) {
             return;
         }
         if (state == State.NEEDS_INPUT) {
             // Since was waiting for more input, prepare what we have for output since we will not be getting any more input
-            sortPagesIndexIfNecessary();
+            clearSpilledPagesIndex();
+            prepareGroupForOutput();
         }
         state = State.FINISHING;
     }
@@ -291,27 +393,80 @@ public class WindowOperator
     @Override
     public boolean needsInput()
     {
-        return state == State.NEEDS_INPUT;
+        return state == State.NEEDS_INPUT && spillInProgress.isDone();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (!spillInProgress.isDone()) {
+            return MoreFutures.toListenableFuture(spillInProgress);
+        }
+        return NOT_BLOCKED;
     }
 
     @Override
     public void addInput(Page page)
     {
-        checkState(state == State.NEEDS_INPUT, "Operator can not take input at this time");
+        checkState(needsInput(), "Operator can not take input at this time");
         requireNonNull(page, "page is null");
         checkState(pendingInput == null, "Operator already has pending input");
 
         if (page.getPositionCount() == 0) {
             return;
         }
+        clearSpilledPagesIndex();
 
         pendingInput = page;
         if (processPendingInput()) {
             state = State.HAS_OUTPUT;
         }
+        else if (spillEnabled && pagesIndex.getEstimatedSize().toBytes() > memoryLimitBeforeSpill) {
+            spillSortedRun();
+        }
         operatorContext.setMemoryReservation(pagesIndex.getEstimatedSize().toBytes());
     }
 
+    private void spillSortedRun()
+    {
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(spillerFactory.create(sourceTypes));
+            spilledGroupKey = getPreGroupedKey();
+        }
+
+        // pagesIndex only contains rows of the current pre-grouped group here
+        if (!orderChannels.isEmpty()) {
+            pagesIndex.sort(orderChannels, ordering);
+        }
+        operatorContext.recordSpill(pagesIndex.getEstimatedSize().toBytes());
+
+        // the index is released once all of its rows are written
+        spillInProgress = spiller.get().spill(pagesIndex.getSortedPages());
+        pagesIndexSpilled = true;
+    }
+
+    private void clearSpilledPagesIndex()
+    {
+        // check for exception from previous spill for early failure
+        getFutureValue(spillInProgress);
+        if (pagesIndexSpilled) {
+            pagesIndex.clear();
+            pagesIndexSpilled = false;
+            operatorContext.setMemoryReservation(pagesIndex.getEstimatedSize().toBytes());
+        }
+    }
+
+    private Page getPreGroupedKey()
+    {
+        Block[] blocks = new Block[preGroupedChannels.length];
+        for (int i = 0; i < preGroupedChannels.length; i++) {
+            BlockBuilder blockBuilder = pagesIndex.getType(preGroupedChannels[i]).createBlockBuilder(new BlockBuilderStatus(), 1);
+            pagesIndex.appendTo(preGroupedChannels[i], 0, blockBuilder);
+            blocks[i] = blockBuilder.build();
+        }
+        return new Page(1, blocks);
+    }
+
     /**
      * @return true if a full group has been buffered after processing the pendingInput, false otherwise
      */
@@ -322,7 +477,7 @@ public class WindowOperator
 
         // If we have unused input or are finishing, then we have buffered a full group
         if (pendingInput != null || state == State.FINISHING) {
-            sortPagesIndexIfNecessary();
+            prepareGroupForOutput();
             return true;
         }
         else {
@@ -330,9 +485,85 @@ public class WindowOperator
         }
     }
 
+    /**
+     * Sorts the fully buffered group, or if parts of the group were spilled, starts
+     * merging the sorted runs and loads the first partition of the group into pagesIndex.
+     */
+    private void prepareGroupForOutput()
+    {
+        if (!spiller.isPresent()) {
+            sortPagesIndexIfNecessary();
+            return;
+        }
+
+        if (!orderChannels.isEmpty()) {
+            pagesIndex.sort(orderChannels, ordering);
+        }
+        // the last run is kept in memory, but it needs to be copied as pagesIndex is reused for the unspilled partitions
+        List<Page> lastRun = ImmutableList.copyOf(pagesIndex.getSortedPages());
+        spillMemoryContext.setBytes(pagesIndex.getEstimatedSize().toBytes());
+        pagesIndex.clear();
+
+        List<Iterator<Page>> sortedRuns = ImmutableList.<Iterator<Page>>builder()
+                .addAll(spiller.get().getSpills())
+                .add(lastRun.iterator())
+                .build();
+        unspilledPages = Optional.of(mergeSortedPages(sourceTypes, orderChannels, ordering, sortedRuns));
+        checkState(loadNextUnspilledPartition(), "Spilled group has no rows");
+    }
+
+    /**
+     * Loads the next partition of the spilled group into the (empty) pagesIndex.
+     *
+     * @return false if there are no more partitions in the spilled group
+     */
+    private boolean loadNextUnspilledPartition()
+    {
+        if (!unspilledPages.isPresent()) {
+            return false;
+        }
+        checkState(pagesIndex.getPositionCount() == 0, "pagesIndex is not empty");
+
+        while (true) {
+            if (pendingUnspilledPage == null) {
+                if (!unspilledPages.get().hasNext()) {
+                    break;
+                }
+                pendingUnspilledPage = unspilledPages.get().next();
+            }
+
+            Page partitionPage = rearrangePage(pendingUnspilledPage, unGroupedPartitionChannels);
+            if (pagesIndex.getPositionCount() > 0 && !pagesIndex.positionEqualsRow(unGroupedPartitionHashStrategy, 0, 0, partitionPage)) {
+                // next partition starts
+                break;
+            }
+
+            int partitionEnd = findGroupEnd(partitionPage, unGroupedPartitionHashStrategy, 0);
+            pagesIndex.addPage(pendingUnspilledPage.getRegion(0, partitionEnd));
+            if (partitionEnd < pendingUnspilledPage.getPositionCount()) {
+                pendingUnspilledPage = pendingUnspilledPage.getRegion(partitionEnd, pendingUnspilledPage.getPositionCount() - partitionEnd);
+                break;
+            }
+            pendingUnspilledPage = null;
+        }
+
+        if (pagesIndex.getPositionCount() > 0) {
+            return true;
+        }
+
+        // all partitions of the spilled group were processed
+        unspilledPages = Optional.empty();
+        spiller.get().close();
+        spiller = Optional.empty();
+        spilledGroupKey = null;
+        spillMemoryContext.setBytes(0);
+        return false;
+    }
+
     /**
      * @return the unused section of the page, or null if fully applied.
-     * pagesIndex guaranteed to have at least one row after this method returns
+     * pagesIndex guaranteed to have at least one row after this method returns,
+     * unless rows of the current group were spilled
      */
     private Page updatePagesIndex(Page page)
     {
@@ -340,7 +571,7 @@ public class WindowOperator
 
         // TODO: Fix pagesHashStrategy to allow specifying channels for comparison, it currently requires us to rearrange the right side blocks in consecutive channel order
         Page preGroupedPage = rearrangePage(page, preGroupedChannels);
-        if (pagesIndex.getPositionCount() == 0 || pagesIndex.positionEqualsRow(preGroupedPartitionHashStrategy, 0, 0, preGroupedPage)) {
+        if (isCurrentGroup(preGroupedPage)) {
             // Find the position where the pre-grouped columns change
             int groupEnd = findGroupEnd(preGroupedPage, preGroupedPartitionHashStrategy, 0);
 
@@ -362,6 +593,17 @@ public class WindowOperator
         }
     }
 
+    private boolean isCurrentGroup(Page preGroupedPage)
+    {
+        if (pagesIndex.getPositionCount() > 0) {
+            return pagesIndex.positionEqualsRow(preGroupedPartitionHashStrategy, 0, 0, preGroupedPage);
+        }
+        if (spilledGroupKey != null) {
+            return preGroupedPartitionHashStrategy.rowEqualsRow(0, spilledGroupKey, 0, preGroupedPage);
+        }
+        return true;
+    }
+
     private static Page rearrangePage(Page page, int[] channels)
     {
         Block[] newBlocks = new Block[channels.length];
@@ -397,8 +639,11 @@ public class WindowOperator
                     partition = null;
                     pagesIndex.clear();
 
+                    if (loadNextUnspilledPartition()) {
+                        partitionStart = 0;
+                    }
                     // Try to extract more partitions from the pendingInput
-                    if (pendingInput != null && processPendingInput()) {
+                    else if (pendingInput != null && processPendingInput()) {
                         partitionStart = 0;
                     }
                     else if (state == State.FINISHING) {
@@ -429,6 +674,13 @@ public class WindowOperator
         return page;
     }
 
+    @Override
+    public void close()
+    {
+        spiller.ifPresent(Spiller::close);
+        spillMemoryContext.setBytes(0);
+    }
+
     private void sortPagesIndexIfNecessary()
     {
         if (pagesIndex.getPositionCount() > 1 && !orderChannels.isEmpty()) {
@@ -34,6 +34,21 @@ public interface HashAggregationBuilder
 
     void recordHashCollisions(HashCollisionsCounter hashCollisionsCounter);
 
+    /**
+     * Starts releasing the revocable memory of this builder, e.g. by spilling it to disk.
+     */
+    default CompletableFuture<?> startMemoryRevoking()
+    {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Called once the future returned by {@link #startMemoryRevoking()} is done.
+     */
+    default void finishMemoryRevoking()
+    {
+    }
+
     @Override
     void close();
 }
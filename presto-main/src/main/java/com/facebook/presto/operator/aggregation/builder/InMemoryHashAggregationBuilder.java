@@ -118,6 +118,9 @@ public class InMemoryHashAggregationBuilder
     @Override
     public void close()
     {
+        if (partial) {
+            systemMemoryContext.setBytes(0);
+        }
     }
 
     @Override
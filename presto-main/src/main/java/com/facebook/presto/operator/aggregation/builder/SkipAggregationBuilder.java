@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.aggregation.builder;
+
+import com.facebook.presto.operator.GroupByIdBlock;
+import com.facebook.presto.operator.HashCollisionsCounter;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.operator.aggregation.GroupedAccumulator;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.LongArrayBlock;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Partial aggregation which does not group its input. Every input row becomes
+ * its own group, so the output has the intermediate layout of a partial
+ * aggregation, but contains one row per input row.
+ */
+public class SkipAggregationBuilder
+        implements HashAggregationBuilder
+{
+    private final List<Integer> groupByChannels;
+    private final Optional<Integer> hashChannel;
+    private final List<AccumulatorFactory> accumulatorFactories;
+
+    private Page currentPage;
+
+    public SkipAggregationBuilder(
+            List<Integer> groupByChannels,
+            Optional<Integer> hashChannel,
+            List<AccumulatorFactory> accumulatorFactories)
+    {
+        this.groupByChannels = ImmutableList.copyOf(requireNonNull(groupByChannels, "groupByChannels is null"));
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.accumulatorFactories = ImmutableList.copyOf(requireNonNull(accumulatorFactories, "accumulatorFactories is null"));
+    }
+
+    @Override
+    public void processPage(Page page)
+    {
+        checkState(currentPage == null, "Previous page has not been consumed");
+        currentPage = requireNonNull(page, "page is null");
+    }
+
+    @Override
+    public Iterator<Page> buildResult()
+    {
+        if (currentPage == null) {
+            return ImmutableList.<Page>of().iterator();
+        }
+        Page result = buildOutputPage(currentPage);
+        currentPage = null;
+        return ImmutableList.of(result).iterator();
+    }
+
+    @Override
+    public boolean isFull()
+    {
+        return currentPage != null;
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        return completedFuture(null);
+    }
+
+    @Override
+    public void updateMemory()
+    {
+        // the buffered page is already accounted for by the operator which produced it
+    }
+
+    @Override
+    public void recordHashCollisions(HashCollisionsCounter hashCollisionsCounter)
+    {
+        // no hashing
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    private Page buildOutputPage(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        int outputChannels = groupByChannels.size() + (hashChannel.isPresent() ? 1 : 0) + accumulatorFactories.size();
+        Block[] outputBlocks = new Block[outputChannels];
+
+        int outputChannel = 0;
+        for (int channel : groupByChannels) {
+            outputBlocks[outputChannel++] = page.getBlock(channel);
+        }
+        if (hashChannel.isPresent()) {
+            outputBlocks[outputChannel++] = page.getBlock(hashChannel.get());
+        }
+
+        GroupByIdBlock groupIds = consecutiveGroupIds(positionCount);
+        for (AccumulatorFactory accumulatorFactory : accumulatorFactories) {
+            GroupedAccumulator accumulator = accumulatorFactory.createGroupedAccumulator();
+            accumulator.addInput(groupIds, page);
+            BlockBuilder output = accumulator.getIntermediateType().createBlockBuilder(new BlockBuilderStatus(), positionCount);
+            for (int groupId = 0; groupId < positionCount; groupId++) {
+                accumulator.evaluateIntermediate(groupId, output);
+            }
+            outputBlocks[outputChannel++] = output.build();
+        }
+        return new Page(positionCount, outputBlocks);
+    }
+
+    private static GroupByIdBlock consecutiveGroupIds(int positionCount)
+    {
+        long[] groupIds = new long[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            groupIds[position] = position;
+        }
+        return new GroupByIdBlock(positionCount, new LongArrayBlock(positionCount, new boolean[positionCount], groupIds));
+    }
+}
@@ -60,6 +60,7 @@ public class SpillableHashAggregationBuilder
     private final LocalMemoryContext spillMemoryContext;
     private final JoinCompiler joinCompiler;
 
+    private boolean producingOutput;
     private long hashCollisions;
     private double expectedHashCollisions;
 
@@ -110,13 +111,24 @@ public class SpillableHashAggregationBuilder
     @Override
     public void updateMemory()
     {
-        aggregationMemoryContext.setBytes(getSizeInMemory());
+        updateInMemoryReservation();
 
         if (spillInProgress.isDone()) {
             spillMemoryContext.setBytes(0L);
         }
     }
 
+    private void updateInMemoryReservation()
+    {
+        if (producingOutput) {
+            aggregationMemoryContext.setBytes(getSizeInMemory());
+        }
+        else {
+            // the in memory state can be spilled at any time until the result is built, so the memory pool may revoke it
+            operatorContext.setRevocableMemoryReservation(getSizeInMemory());
+        }
+    }
+
     public long getSizeInMemory()
     {
         // TODO: we could skip memory reservation for hashAggregationBuilder.getGroupIdsSortingSize()
@@ -168,11 +180,31 @@ public class SpillableHashAggregationBuilder
         return memorySize < memoryLimitForMergeWithMemory;
     }
 
+    @Override
+    public CompletableFuture<?> startMemoryRevoking()
+    {
+        if (producingOutput || !spillInProgress.isDone()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return spillToDisk();
+    }
+
+    @Override
+    public void finishMemoryRevoking()
+    {
+        checkState(hasPreviousSpillCompletedSuccessfully(), "Previous spill hasn't yet finished");
+        spillMemoryContext.setBytes(0L);
+    }
+
     @Override
     public Iterator<Page> buildResult()
     {
         checkState(hasPreviousSpillCompletedSuccessfully(), "Previous spill hasn't yet finished");
 
+        producingOutput = true;
+        operatorContext.setRevocableMemoryReservation(0);
+        updateInMemoryReservation();
+
         if (!spiller.isPresent()) {
             return hashAggregationBuilder.buildResult();
         }
@@ -195,6 +227,7 @@ public class SpillableHashAggregationBuilder
     @Override
     public void close()
     {
+        operatorContext.setRevocableMemoryReservation(0);
         if (merger.isPresent()) {
             merger.get().close();
         }
@@ -220,10 +253,11 @@ public class SpillableHashAggregationBuilder
         rebuildHashAggregationBuilder();
 
         // First decrease memory usage of aggregation context...
-        aggregationMemoryContext.setBytes(getSizeInMemory());
+        updateInMemoryReservation();
         // And then transfer this memory to spill context
         // TODO: is there an easy way to do this atomically?
         spillMemoryContext.setBytes(spillMemoryUsage);
+        operatorContext.recordSpill(spillMemoryUsage);
 
         return spillInProgress;
     }
@@ -85,6 +85,13 @@ public class IndexLookupSource
         return joinPosition;
     }
 
+    @Override
+    public boolean isBatchedProbeSupported()
+    {
+        // loading the index for a key replaces the indexed data the previous join positions point into
+        return false;
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
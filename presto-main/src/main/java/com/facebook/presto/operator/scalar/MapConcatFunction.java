@@ -17,13 +17,13 @@ import com.facebook.presto.operator.aggregation.TypedSet;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
-import com.facebook.presto.spi.block.InterleavedBlockBuilder;
+import com.facebook.presto.spi.block.MapBlockBuilder;
+import com.facebook.presto.spi.block.SingleMapBlock;
 import com.facebook.presto.spi.function.Description;
 import com.facebook.presto.spi.function.ScalarFunction;
 import com.facebook.presto.spi.function.SqlType;
 import com.facebook.presto.spi.function.TypeParameter;
 import com.facebook.presto.spi.type.Type;
-import com.google.common.collect.ImmutableList;
 
 @ScalarFunction("map_concat")
 @Description("Concatenates given maps")
@@ -47,19 +47,32 @@ public final class MapConcatFunction
             return leftMap;
         }
 
-        TypedSet typedSet = new TypedSet(keyType, rightMap.getPositionCount());
-        BlockBuilder blockBuilder = new InterleavedBlockBuilder(ImmutableList.of(keyType, valueType), new BlockBuilderStatus(), leftMap.getPositionCount() + rightMap.getPositionCount());
+        // the keys of the right map are looked up in its hash table, if it has one
+        TypedSet typedSet = rightMap instanceof SingleMapBlock ? null : new TypedSet(keyType, rightMap.getPositionCount());
+        MapBlockBuilder mapBlockBuilder = new MapBlockBuilder(keyType, valueType, new BlockBuilderStatus(), (leftMap.getPositionCount() + rightMap.getPositionCount()) / 2);
+        BlockBuilder blockBuilder = mapBlockBuilder.beginBlockEntry();
         for (int i = 0; i < rightMap.getPositionCount(); i += 2) {
-            typedSet.add(rightMap, i);
+            if (typedSet != null) {
+                typedSet.add(rightMap, i);
+            }
             keyType.appendTo(rightMap, i, blockBuilder);
             valueType.appendTo(rightMap, i + 1, blockBuilder);
         }
         for (int i = 0; i < leftMap.getPositionCount(); i += 2) {
-            if (!typedSet.contains(leftMap, i)) {
+            if (!containsKey(rightMap, typedSet, leftMap, i)) {
                 keyType.appendTo(leftMap, i, blockBuilder);
                 valueType.appendTo(leftMap, i + 1, blockBuilder);
             }
         }
-        return blockBuilder.build();
+        mapBlockBuilder.closeEntry();
+        return mapBlockBuilder.build().getObject(0, Block.class);
+    }
+
+    private static boolean containsKey(Block map, TypedSet mapKeys, Block block, int position)
+    {
+        if (mapKeys != null) {
+            return mapKeys.contains(block, position);
+        }
+        return ((SingleMapBlock) map).seekKey(block, position) != -1;
     }
 }
@@ -21,6 +21,7 @@ import com.facebook.presto.metadata.Signature;
 import com.facebook.presto.metadata.SqlScalarFunction;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.SingleMapBlock;
 import com.facebook.presto.spi.function.OperatorType;
 import com.facebook.presto.spi.type.BooleanType;
 import com.facebook.presto.spi.type.Type;
@@ -120,6 +121,9 @@ public class MapElementAtFunction
     @UsedByGeneratedCode
     public static Object elementAt(MethodHandle keyEqualsMethod, Type keyType, Type valueType, Block map, boolean key)
     {
+        if (map instanceof SingleMapBlock) {
+            return readValue(valueType, map, ((SingleMapBlock) map).seekKeyExact(key));
+        }
         for (int position = 0; position < map.getPositionCount(); position += 2) {
             try {
                 if ((boolean) keyEqualsMethod.invokeExact(keyType.getBoolean(map, position), key)) {
@@ -138,6 +142,9 @@ public class MapElementAtFunction
     @UsedByGeneratedCode
     public static Object elementAt(MethodHandle keyEqualsMethod, Type keyType, Type valueType, Block map, long key)
     {
+        if (map instanceof SingleMapBlock) {
+            return readValue(valueType, map, ((SingleMapBlock) map).seekKeyExact(key));
+        }
         for (int position = 0; position < map.getPositionCount(); position += 2) {
             try {
                 if ((boolean) keyEqualsMethod.invokeExact(keyType.getLong(map, position), key)) {
@@ -156,6 +163,9 @@ public class MapElementAtFunction
     @UsedByGeneratedCode
     public static Object elementAt(MethodHandle keyEqualsMethod, Type keyType, Type valueType, Block map, double key)
     {
+        if (map instanceof SingleMapBlock) {
+            return readValue(valueType, map, ((SingleMapBlock) map).seekKeyExact(key));
+        }
         for (int position = 0; position < map.getPositionCount(); position += 2) {
             try {
                 if ((boolean) keyEqualsMethod.invokeExact(keyType.getDouble(map, position), key)) {
@@ -174,6 +184,9 @@ public class MapElementAtFunction
     @UsedByGeneratedCode
     public static Object elementAt(MethodHandle keyEqualsMethod, Type keyType, Type valueType, Block map, Slice key)
     {
+        if (map instanceof SingleMapBlock) {
+            return readValue(valueType, map, ((SingleMapBlock) map).seekKeyExact(key));
+        }
         for (int position = 0; position < map.getPositionCount(); position += 2) {
             try {
                 if ((boolean) keyEqualsMethod.invokeExact(keyType.getSlice(map, position), key)) {
@@ -192,6 +205,9 @@ public class MapElementAtFunction
     @UsedByGeneratedCode
     public static Object elementAt(MethodHandle keyEqualsMethod, Type keyType, Type valueType, Block map, Object key)
     {
+        if (map instanceof SingleMapBlock) {
+            return readValue(valueType, map, ((SingleMapBlock) map).seekKey(key));
+        }
         for (int position = 0; position < map.getPositionCount(); position += 2) {
             try {
                 if ((boolean) keyEqualsMethod.invokeExact(keyType.getObject(map, position), key)) {
@@ -206,4 +222,12 @@ public class MapElementAtFunction
         }
         return null;
     }
+
+    private static Object readValue(Type valueType, Block map, int valuePosition)
+    {
+        if (valuePosition == -1) {
+            return null;
+        }
+        return readNativeValue(valueType, map, valuePosition);
+    }
 }
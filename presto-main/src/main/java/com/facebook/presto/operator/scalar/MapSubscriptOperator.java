@@ -20,6 +20,7 @@ import com.facebook.presto.metadata.SqlOperator;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.SingleMapBlock;
 import com.facebook.presto.spi.function.OperatorType;
 import com.facebook.presto.spi.type.BooleanType;
 import com.facebook.presto.spi.type.Type;
@@ -108,6 +109,13 @@ public class MapSubscriptOperator
     @UsedByGeneratedCode
     public static Object subscript(boolean legacyMissingKey, FunctionInvoker functionInvoker, MethodHandle keyEqualsMethod, Type keyType, Type valueType, ConnectorSession session, Block map, boolean key)
     {
+        if (map instanceof SingleMapBlock) {
+            int valuePosition = ((SingleMapBlock) map).seekKeyExact(key);
+            if (valuePosition != -1) {
+                return readNativeValue(valueType, map, valuePosition);
+            }
+            return missingKey(legacyMissingKey, functionInvoker, keyType, session, key);
+        }
         for (int position = 0; position < map.getPositionCount(); position += 2) {
             try {
                 if ((boolean) keyEqualsMethod.invokeExact(keyType.getBoolean(map, position), key)) {
@@ -129,6 +137,13 @@ public class MapSubscriptOperator
     @UsedByGeneratedCode
     public static Object subscript(boolean legacyMissingKey, FunctionInvoker functionInvoker, MethodHandle keyEqualsMethod, Type keyType, Type valueType, ConnectorSession session, Block map, long key)
     {
+        if (map instanceof SingleMapBlock) {
+            int valuePosition = ((SingleMapBlock) map).seekKeyExact(key);
+            if (valuePosition != -1) {
+                return readNativeValue(valueType, map, valuePosition);
+            }
+            return missingKey(legacyMissingKey, functionInvoker, keyType, session, key);
+        }
         for (int position = 0; position < map.getPositionCount(); position += 2) {
             try {
                 if ((boolean) keyEqualsMethod.invokeExact(keyType.getLong(map, position), key)) {
@@ -150,6 +165,13 @@ public class MapSubscriptOperator
     @UsedByGeneratedCode
     public static Object subscript(boolean legacyMissingKey, FunctionInvoker functionInvoker, MethodHandle keyEqualsMethod, Type keyType, Type valueType, ConnectorSession session, Block map, double key)
     {
+        if (map instanceof SingleMapBlock) {
+            int valuePosition = ((SingleMapBlock) map).seekKeyExact(key);
+            if (valuePosition != -1) {
+                return readNativeValue(valueType, map, valuePosition);
+            }
+            return missingKey(legacyMissingKey, functionInvoker, keyType, session, key);
+        }
         for (int position = 0; position < map.getPositionCount(); position += 2) {
             try {
                 if ((boolean) keyEqualsMethod.invokeExact(keyType.getDouble(map, position), key)) {
@@ -171,6 +193,13 @@ public class MapSubscriptOperator
     @UsedByGeneratedCode
     public static Object subscript(boolean legacyMissingKey, FunctionInvoker functionInvoker, MethodHandle keyEqualsMethod, Type keyType, Type valueType, ConnectorSession session, Block map, Slice key)
     {
+        if (map instanceof SingleMapBlock) {
+            int valuePosition = ((SingleMapBlock) map).seekKeyExact(key);
+            if (valuePosition != -1) {
+                return readNativeValue(valueType, map, valuePosition);
+            }
+            return missingKey(legacyMissingKey, functionInvoker, keyType, session, key);
+        }
         for (int position = 0; position < map.getPositionCount(); position += 2) {
             try {
                 if ((boolean) keyEqualsMethod.invokeExact(keyType.getSlice(map, position), key)) {
@@ -192,6 +221,13 @@ public class MapSubscriptOperator
     @UsedByGeneratedCode
     public static Object subscript(boolean legacyMissingKey, FunctionInvoker functionInvoker, MethodHandle keyEqualsMethod, Type keyType, Type valueType, ConnectorSession session, Block map, Object key)
     {
+        if (map instanceof SingleMapBlock) {
+            int valuePosition = ((SingleMapBlock) map).seekKey(key);
+            if (valuePosition != -1) {
+                return readNativeValue(valueType, map, valuePosition);
+            }
+            return missingKey(legacyMissingKey, functionInvoker, keyType, session, key);
+        }
         for (int position = 0; position < map.getPositionCount(); position += 2) {
             try {
                 if ((boolean) keyEqualsMethod.invoke(keyType.getObject(map, position), key)) {
@@ -210,6 +246,14 @@ public class MapSubscriptOperator
         throw throwMissingKeyException(keyType, functionInvoker, key, session);
     }
 
+    private static Object missingKey(boolean legacyMissingKey, FunctionInvoker functionInvoker, Type keyType, ConnectorSession session, Object key)
+    {
+        if (legacyMissingKey) {
+            return null;
+        }
+        throw throwMissingKeyException(keyType, functionInvoker, key, session);
+    }
+
     private static RuntimeException throwMissingKeyException(Type type, FunctionInvoker functionInvoker, Object value, ConnectorSession session)
     {
         String stringValue;
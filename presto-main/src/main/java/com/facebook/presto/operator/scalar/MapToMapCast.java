@@ -20,7 +20,7 @@ import com.facebook.presto.spi.StandardErrorCode;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
-import com.facebook.presto.spi.block.InterleavedBlockBuilder;
+import com.facebook.presto.spi.block.MapBlockBuilder;
 import com.facebook.presto.spi.function.OperatorDependency;
 import com.facebook.presto.spi.function.ScalarOperator;
 import com.facebook.presto.spi.function.SqlType;
@@ -28,7 +28,6 @@ import com.facebook.presto.spi.function.TypeParameter;
 import com.facebook.presto.spi.type.StandardTypes;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.base.Throwables;
-import com.google.common.collect.ImmutableList;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
@@ -94,7 +93,8 @@ public final class MapToMapCast
             }
         }
         Block keyBlock = keyBlockBuilder.build();
-        BlockBuilder blockBuilder = new InterleavedBlockBuilder(ImmutableList.of(toKeyType, toValueType), new BlockBuilderStatus(), fromMap.getPositionCount());
+        MapBlockBuilder mapBlockBuilder = new MapBlockBuilder(toKeyType, toValueType, new BlockBuilderStatus(), fromMap.getPositionCount() / 2);
+        BlockBuilder blockBuilder = mapBlockBuilder.beginBlockEntry();
         for (int i = 0; i < fromMap.getPositionCount(); i += 2) {
             if (!typedSet.contains(keyBlock, i / 2)) {
                 typedSet.add(keyBlock, i / 2);
@@ -120,6 +120,8 @@ public final class MapToMapCast
                 throw new PrestoException(StandardErrorCode.INVALID_CAST_ARGUMENT, "duplicate keys");
             }
         }
-        return blockBuilder.build();
+        mapBlockBuilder.closeEntry();
+        // return the map as part of a map block, so that its keys can be looked up by hash
+        return mapBlockBuilder.build().getObject(0, Block.class);
     }
 }
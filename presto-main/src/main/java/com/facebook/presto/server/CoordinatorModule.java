@@ -57,6 +57,12 @@ import com.facebook.presto.execution.scheduler.PhasedExecutionPolicy;
 import com.facebook.presto.execution.scheduler.SplitSchedulerStats;
 import com.facebook.presto.memory.ClusterMemoryManager;
 import com.facebook.presto.memory.ForMemoryManager;
+import com.facebook.presto.memory.LeastProgressPerByteLowMemoryKiller;
+import com.facebook.presto.memory.LowMemoryKiller;
+import com.facebook.presto.memory.MemoryManagerConfig;
+import com.facebook.presto.memory.MemoryManagerConfig.LowMemoryKillerPolicy;
+import com.facebook.presto.memory.TotalReservationLowMemoryKiller;
+import com.facebook.presto.memory.TotalReservationOnBlockedNodesLowMemoryKiller;
 import com.facebook.presto.operator.ForScheduler;
 import com.facebook.presto.server.remotetask.RemoteTaskStats;
 import com.facebook.presto.spi.memory.ClusterMemoryPoolManager;
@@ -100,12 +106,15 @@ import com.facebook.presto.sql.tree.StartTransaction;
 import com.facebook.presto.sql.tree.Statement;
 import com.facebook.presto.sql.tree.Use;
 import com.google.inject.Binder;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.MapBinder;
 import io.airlift.configuration.AbstractConfigurationAwareModule;
 import io.airlift.units.Duration;
 
+import javax.inject.Singleton;
+
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
@@ -119,6 +128,7 @@ import static io.airlift.http.client.HttpClientBinder.httpClientBinder;
 import static io.airlift.http.server.HttpServerBinder.httpServerBinder;
 import static io.airlift.jaxrs.JaxrsBinder.jaxrsBinder;
 import static io.airlift.json.JsonCodecBinder.jsonCodecBinder;
+import static java.lang.String.format;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.weakref.jmx.ObjectNames.generatedNameOf;
@@ -249,6 +259,24 @@ public class CoordinatorModule
         executionPolicyBinder.addBinding("phased").to(PhasedExecutionPolicy.class);
     }
 
+    // the killer is always bound, so an unknown policy only fails the validation of the config, which lists the policies
+    @Provides
+    @Singleton
+    public static LowMemoryKiller createLowMemoryKiller(MemoryManagerConfig config)
+    {
+        String policy = config.getLowMemoryKillerPolicy();
+        if (LowMemoryKillerPolicy.TOTAL_RESERVATION.equalsIgnoreCase(policy)) {
+            return new TotalReservationLowMemoryKiller();
+        }
+        if (LowMemoryKillerPolicy.TOTAL_RESERVATION_ON_BLOCKED_NODES.equalsIgnoreCase(policy)) {
+            return new TotalReservationOnBlockedNodesLowMemoryKiller();
+        }
+        if (LowMemoryKillerPolicy.LEAST_PROGRESS_PER_BYTE.equalsIgnoreCase(policy)) {
+            return new LeastProgressPerByteLowMemoryKiller();
+        }
+        throw new IllegalArgumentException(format("Unknown low memory killer policy '%s', the supported policies are %s", policy, LowMemoryKillerPolicy.POLICIES));
+    }
+
     private static <T extends Statement> void bindDataDefinitionTask(
             Binder binder,
             MapBinder<Class<? extends Statement>, QueryExecutionFactory<?>> executionBinder,
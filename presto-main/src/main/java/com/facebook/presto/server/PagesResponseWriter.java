@@ -15,12 +15,11 @@ package com.facebook.presto.server;
 
 import com.facebook.presto.execution.buffer.SerializedPage;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.google.common.base.Throwables;
 import com.google.common.reflect.TypeToken;
-import io.airlift.slice.OutputStreamSliceOutput;
-import io.airlift.slice.RuntimeIOException;
-import io.airlift.slice.SliceOutput;
 
+import javax.inject.Inject;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
@@ -55,6 +54,14 @@ public class PagesResponseWriter
         }
     }
 
+    private final boolean checksumEnabled;
+
+    @Inject
+    public PagesResponseWriter(FeaturesConfig featuresConfig)
+    {
+        this.checksumEnabled = featuresConfig.isExchangeChecksumEnabled();
+    }
+
     @Override
     public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
     {
@@ -80,17 +87,12 @@ public class PagesResponseWriter
             throws IOException, WebApplicationException
     {
         try {
-            SliceOutput sliceOutput = new OutputStreamSliceOutput(output);
-            writeSerializedPages(sliceOutput, serializedPages);
-            // We use flush instead of close, because the underlying stream would be closed and that is not allowed.
-            sliceOutput.flush();
+            // pages are written straight from the output buffer to the response
+            writeSerializedPages(output, serializedPages, checksumEnabled);
         }
-        catch (RuntimeIOException e) {
+        catch (EOFException e) {
             // EOF exception occurs when the client disconnects while writing data
             // This is not a "server" problem so we don't want to log this
-            if (!(e.getCause() instanceof EOFException)) {
-                throw e;
-            }
         }
     }
 }
@@ -15,8 +15,10 @@ package com.facebook.presto.server;
 
 import com.facebook.presto.OutputBuffers.OutputBufferId;
 import com.facebook.presto.Session;
+import com.facebook.presto.client.BinaryResults;
 import com.facebook.presto.client.ClientTypeSignature;
 import com.facebook.presto.client.Column;
+import com.facebook.presto.client.DirectResultReader;
 import com.facebook.presto.client.FailureInfo;
 import com.facebook.presto.client.QueryError;
 import com.facebook.presto.client.QueryResults;
@@ -46,6 +48,7 @@ import com.facebook.presto.spi.type.StandardTypes;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeSignature;
 import com.facebook.presto.transaction.TransactionId;
+import com.google.common.base.Splitter;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -53,6 +56,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
 import io.airlift.log.Logger;
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 
@@ -81,8 +85,10 @@ import java.net.URI;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -93,13 +99,17 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 
-import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
+import static com.facebook.presto.SystemSessionProperties.getExchangeCompression;
+import static com.facebook.presto.SystemSessionProperties.isDirectResultStreaming;
+import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionAdaptive;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_ADDED_PREPARE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_SESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLEAR_TRANSACTION_ID;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_CAPABILITIES;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_DEALLOCATED_PREPARE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SET_SESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_STARTED_TRANSACTION_ID;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeSerializedPages;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.facebook.presto.util.Failures.toFailure;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -107,6 +117,7 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 import static io.airlift.concurrent.Threads.threadsNamed;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
@@ -176,7 +187,8 @@ public class StatementResource
                 queryManager,
                 sessionPropertyManager,
                 exchangeClient,
-                blockEncodingSerde);
+                blockEncodingSerde,
+                getClientCapabilities(servletRequest));
         queries.put(query.getQueryId(), query);
 
         return getQueryResults(query, Optional.empty(), uriInfo, new Duration(1, MILLISECONDS));
@@ -260,6 +272,16 @@ public class StatementResource
         return Response.noContent().build();
     }
 
+    private static Set<String> getClientCapabilities(HttpServletRequest servletRequest)
+    {
+        ImmutableSet.Builder<String> capabilities = ImmutableSet.builder();
+        Enumeration<String> headers = servletRequest.getHeaders(PRESTO_CLIENT_CAPABILITIES);
+        while (headers.hasMoreElements()) {
+            capabilities.addAll(Splitter.on(',').trimResults().omitEmptyStrings().split(headers.nextElement()));
+        }
+        return capabilities.build();
+    }
+
     private static String urlEncode(String value)
     {
         try {
@@ -277,6 +299,8 @@ public class StatementResource
         private final QueryId queryId;
         private final ExchangeClient exchangeClient;
         private final PagesSerde serde;
+        private final PagesSerde binaryResultsSerde;
+        private final Set<String> clientCapabilities;
 
         private final AtomicLong resultId = new AtomicLong();
         private final Session session;
@@ -290,6 +314,18 @@ public class StatementResource
         @GuardedBy("this")
         private List<Column> columns;
 
+        @GuardedBy("this")
+        private List<Type> types;
+
+        @GuardedBy("this")
+        private boolean binaryResults;
+
+        @GuardedBy("this")
+        private boolean directResults;
+
+        @GuardedBy("this")
+        private final Set<URI> resultLocations = new LinkedHashSet<>();
+
         @GuardedBy("this")
         private Map<String, String> setSessionProperties;
 
@@ -317,7 +353,8 @@ public class StatementResource
                 QueryManager queryManager,
                 SessionPropertyManager sessionPropertyManager,
                 ExchangeClient exchangeClient,
-                BlockEncodingSerde blockEncodingSerde)
+                BlockEncodingSerde blockEncodingSerde,
+                Set<String> clientCapabilities)
         {
             requireNonNull(sessionSupplier, "sessionFactory is null");
             requireNonNull(query, "query is null");
@@ -331,7 +368,10 @@ public class StatementResource
             session = queryInfo.getSession().toSession(sessionPropertyManager);
             this.exchangeClient = exchangeClient;
             requireNonNull(blockEncodingSerde, "serde is null");
-            this.serde = new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)).createPagesSerde();
+            this.serde = new PagesSerdeFactory(blockEncodingSerde, getExchangeCompression(session), isExchangeCompressionAdaptive(session)).createPagesSerde();
+            // clients decode binary results without a decompressor
+            this.binaryResultsSerde = new PagesSerdeFactory(blockEncodingSerde, false).createPagesSerde();
+            this.clientCapabilities = ImmutableSet.copyOf(requireNonNull(clientCapabilities, "clientCapabilities is null"));
         }
 
         public void cancel()
@@ -408,7 +448,12 @@ public class StatementResource
         public synchronized QueryResults getNextResults(UriInfo uriInfo, Duration maxWaitTime)
                 throws InterruptedException
         {
-            Iterable<List<Object>> data = getData(maxWaitTime);
+            List<Page> pages = getPages(maxWaitTime);
+            Iterable<List<Object>> data = null;
+            byte[] binaryData = null;
+            if (pages != null) {
+                data = Iterables.concat(Lists.transform(pages, page -> new RowIterable(session.toConnectorSession(), types, page)));
+            }
 
             // get the query info before returning
             // force update if query manager is closed
@@ -450,6 +495,11 @@ public class StatementResource
                 }
             }
 
+            if (pages != null && binaryResults) {
+                binaryData = toBinaryData(pages);
+                data = null;
+            }
+
             // only return a next if the query is not done or there is more data to send (due to buffering)
             URI nextResultsUri = null;
             if ((!queryInfo.isFinalQueryInfo()) || (!exchangeClient.isClosed())) {
@@ -476,6 +526,8 @@ public class StatementResource
                     nextResultsUri,
                     columns,
                     data,
+                    binaryData,
+                    directResults ? ImmutableList.copyOf(resultLocations) : null,
                     toStatementStats(queryInfo),
                     toQueryError(queryInfo),
                     queryInfo.getUpdateType(),
@@ -492,7 +544,7 @@ public class StatementResource
             return queryResults;
         }
 
-        private synchronized Iterable<List<Object>> getData(Duration maxWait)
+        private synchronized List<Page> getPages(Duration maxWait)
                 throws InterruptedException
         {
             // wait for query to start
@@ -511,13 +563,31 @@ public class StatementResource
 
             if (columns == null) {
                 columns = createColumnsList(queryInfo);
+                binaryResults = clientCapabilities.contains(BinaryResults.BINARY_RESULTS) && columns.stream()
+                        .allMatch(column -> BinaryResults.isSupportedType(column.getTypeSignature()));
+                // the coordinator needs the data of statements with an update count
+                directResults = binaryResults &&
+                        clientCapabilities.contains(DirectResultReader.DIRECT_RESULTS) &&
+                        isDirectResultStreaming(session) &&
+                        queryInfo.getUpdateType() == null;
+                if (directResults) {
+                    // results are read by the client, so the query can finish as soon as they are consumed
+                    exchangeClient.close();
+                }
             }
 
-            List<Type> types = outputStage.getTypes();
+            if (types == null) {
+                types = outputStage.getTypes();
+            }
+
+            if (directResults) {
+                updateResultLocations(outputStage);
+                return null;
+            }
 
             updateExchangeClient(outputStage);
 
-            ImmutableList.Builder<RowIterable> pages = ImmutableList.builder();
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
             // wait up to max wait for data to arrive; then try to return at least DESIRED_RESULT_BYTES
             long bytes = 0;
             while (bytes < DESIRED_RESULT_BYTES) {
@@ -528,7 +598,7 @@ public class StatementResource
 
                 Page page = serde.deserialize(serializedPage);
                 bytes += page.getSizeInBytes();
-                pages.add(new RowIterable(session.toConnectorSession(), types, page));
+                pages.add(page);
 
                 // only wait on first call
                 maxWait = new Duration(0, MILLISECONDS);
@@ -538,7 +608,14 @@ public class StatementResource
                 return null;
             }
 
-            return Iterables.concat(pages.build());
+            return pages.build();
+        }
+
+        private byte[] toBinaryData(List<Page> pages)
+        {
+            DynamicSliceOutput output = new DynamicSliceOutput(toIntExact(pages.stream().mapToLong(Page::getSizeInBytes).sum()));
+            writeSerializedPages(output, Lists.transform(pages, binaryResultsSerde::serialize));
+            return output.slice().getBytes();
         }
 
         private static boolean isQueryStarted(QueryInfo queryInfo)
@@ -557,9 +634,7 @@ public class StatementResource
                         // output buffer are still being created
                         continue;
                     }
-                    OutputBufferId bufferId = new OutputBufferId(0);
-                    URI uri = uriBuilderFrom(taskInfo.getTaskStatus().getSelf()).appendPath("results").appendPath(bufferId.toString()).build();
-                    exchangeClient.addLocation(uri);
+                    exchangeClient.addLocation(createResultLocation(taskInfo));
                 }
             }
 
@@ -568,6 +643,24 @@ public class StatementResource
             }
         }
 
+        private synchronized void updateResultLocations(StageInfo outputStage)
+        {
+            // the client reads the output buffers directly; same locations as used by the exchange client
+            if (!outputStage.getState().isDone()) {
+                for (TaskInfo taskInfo : outputStage.getTasks()) {
+                    if (!taskInfo.getOutputBuffers().getState().canAddBuffers()) {
+                        resultLocations.add(createResultLocation(taskInfo));
+                    }
+                }
+            }
+        }
+
+        private static URI createResultLocation(TaskInfo taskInfo)
+        {
+            OutputBufferId bufferId = new OutputBufferId(0);
+            return uriBuilderFrom(taskInfo.getTaskStatus().getSelf()).appendPath("results").appendPath(bufferId.toString()).build();
+        }
+
         private static boolean allOutputBuffersCreated(StageInfo outputStage)
         {
             StageState stageState = outputStage.getState();
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.io.ByteStreams;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static java.util.Objects.requireNonNull;
+import static javax.crypto.Cipher.DECRYPT_MODE;
+import static javax.crypto.Cipher.ENCRYPT_MODE;
+
+/**
+ * Encrypts the spill files of a single spiller. The key is generated randomly and is
+ * never written anywhere, so the files can not be read once the spiller is gone.
+ */
+final class AesSpillCipher
+{
+    private static final String TRANSFORMATION = "AES/CTR/NoPadding";
+    private static final int KEY_SIZE_BITS = 128;
+    private static final int IV_SIZE_BYTES = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKey key;
+
+    AesSpillCipher()
+    {
+        try {
+            KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+            keyGenerator.init(KEY_SIZE_BITS, RANDOM);
+            this.key = keyGenerator.generateKey();
+        }
+        catch (GeneralSecurityException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create spill encryption key", e);
+        }
+    }
+
+    /**
+     * Writes a random initialization vector to the output and returns a stream which encrypts into it.
+     */
+    public OutputStream encrypt(OutputStream output)
+            throws IOException
+    {
+        requireNonNull(output, "output is null");
+        byte[] iv = new byte[IV_SIZE_BYTES];
+        RANDOM.nextBytes(iv);
+        output.write(iv);
+        return new CipherOutputStream(output, createCipher(ENCRYPT_MODE, iv));
+    }
+
+    public InputStream decrypt(InputStream input)
+            throws IOException
+    {
+        requireNonNull(input, "input is null");
+        byte[] iv = new byte[IV_SIZE_BYTES];
+        ByteStreams.readFully(input, iv);
+        return new CipherInputStream(input, createCipher(DECRYPT_MODE, iv));
+    }
+
+    private Cipher createCipher(int mode, byte[] iv)
+    {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(mode, key, new IvParameterSpec(iv));
+            return cipher;
+        }
+        catch (GeneralSecurityException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to initialize spill cipher", e);
+        }
+    }
+}
@@ -17,6 +17,8 @@ import com.facebook.presto.execution.buffer.PagesSerde;
 import com.facebook.presto.execution.buffer.PagesSerdeUtil;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.concurrent.MoreFutures;
@@ -33,19 +35,21 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.units.Duration.nanosSince;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -56,7 +60,8 @@ public class BinaryFileSpiller
     private final Path targetDirectory;
     private final Closer closer = Closer.create();
     private final PagesSerde serde;
-    private final AtomicLong totalSpilledDataSize;
+    private final SpillerStats stats;
+    private final Optional<AesSpillCipher> cipher;
 
     private final ListeningExecutorService executor;
 
@@ -67,11 +72,13 @@ public class BinaryFileSpiller
             PagesSerde serde,
             ListeningExecutorService executor,
             Path spillPath,
-            AtomicLong totalSpilledDataSize)
+            SpillerStats stats,
+            boolean encryptionEnabled)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
-        this.totalSpilledDataSize = requireNonNull(totalSpilledDataSize, "totalSpilledDataSize is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        this.cipher = encryptionEnabled ? Optional.of(new AesSpillCipher()) : Optional.empty();
         try {
             this.targetDirectory = Files.createTempDirectory(spillPath, "presto-spill");
         }
@@ -93,8 +100,15 @@ public class BinaryFileSpiller
 
     private void writePages(Iterator<Page> pageIterator, Path spillPath)
     {
-        try (SliceOutput output = new OutputStreamSliceOutput(new BufferedOutputStream(new FileOutputStream(spillPath.toFile())))) {
-            totalSpilledDataSize.addAndGet(PagesSerdeUtil.writePages(serde, output, pageIterator));
+        long start = System.nanoTime();
+        long spilledBytes;
+        try {
+            // the file is closed even if the cipher fails to wrap it
+            try (OutputStream fileOutput = new FileOutputStream(spillPath.toFile());
+                    SliceOutput output = new OutputStreamSliceOutput(new BufferedOutputStream(encrypt(fileOutput)))) {
+                spilledBytes = PagesSerdeUtil.writePages(serde, output, pageIterator);
+            }
+            stats.recordSpill(spilledBytes, Files.size(spillPath), nanosSince(start));
         }
         catch (RuntimeIOException | IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
@@ -110,18 +124,62 @@ public class BinaryFileSpiller
                 .collect(toImmutableList());
     }
 
+    @Override
+    public CompletableFuture<List<Page>> getAllSpilledPages()
+    {
+        checkState(previousSpill.isDone());
+        return MoreFutures.toCompletableFuture(executor.submit(() -> {
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            for (int i = 0; i < spillsCount; i++) {
+                readPages(getPath(i)).forEachRemaining(pages::add);
+            }
+            return pages.build();
+        }));
+    }
+
     private Iterator<Page> readPages(Path spillPath)
     {
         try {
-            InputStream input = new BufferedInputStream(new FileInputStream(spillPath.toFile()));
-            closer.register(input);
-            return PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input));
+            InputStream fileInput = new FileInputStream(spillPath.toFile());
+            try {
+                InputStream input = new BufferedInputStream(decrypt(fileInput));
+                closer.register(input);
+                return new TimedPageIterator(PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input)), stats);
+            }
+            catch (IOException | RuntimeException e) {
+                // the file is closed right away if the cipher fails to wrap it, instead of when the spiller is closed
+                try {
+                    fileInput.close();
+                }
+                catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+                throw e;
+            }
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read spilled pages", e);
         }
     }
 
+    private OutputStream encrypt(OutputStream output)
+            throws IOException
+    {
+        if (!cipher.isPresent()) {
+            return output;
+        }
+        return cipher.get().encrypt(output);
+    }
+
+    private InputStream decrypt(InputStream input)
+            throws IOException
+    {
+        if (!cipher.isPresent()) {
+            return input;
+        }
+        return cipher.get().decrypt(input);
+    }
+
     @Override
     public void close()
     {
@@ -144,4 +202,29 @@ public class BinaryFileSpiller
     {
         return Paths.get(targetDirectory.toAbsolutePath().toString(), String.format("%d.bin", spillNumber));
     }
+
+    private static class TimedPageIterator
+            extends AbstractIterator<Page>
+    {
+        private final Iterator<Page> pages;
+        private final SpillerStats stats;
+
+        public TimedPageIterator(Iterator<Page> pages, SpillerStats stats)
+        {
+            this.pages = requireNonNull(pages, "pages is null");
+            this.stats = requireNonNull(stats, "stats is null");
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            long start = System.nanoTime();
+            if (!pages.hasNext()) {
+                return endOfData();
+            }
+            Page page = pages.next();
+            stats.recordPageRead(nanosSince(start));
+            return page;
+        }
+    }
 }
@@ -15,20 +15,29 @@
 package com.facebook.presto.spiller;
 
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import javax.inject.Inject;
 
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.facebook.presto.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.lang.Math.floorMod;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 
@@ -39,24 +48,43 @@ public class BinarySpillerFactory
 
     private final ListeningExecutorService executor;
     private final PagesSerdeFactory serde;
-    private final Path spillPath;
+    private final List<Path> spillPaths;
+    private final double maxUsedSpaceThreshold;
+    private final boolean encryptionEnabled;
+    private final AtomicInteger nextSpillPath = new AtomicInteger();
 
     @Inject
     public BinarySpillerFactory(BlockEncodingSerde blockEncodingSerde, FeaturesConfig featuresConfig)
     {
         this(createExecutorServiceOfSize(requireNonNull(featuresConfig, "featuresConfig is null").getSpillerThreads()),
                 blockEncodingSerde,
-                requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPath());
+                featuresConfig.getSpillerSpillPaths(),
+                featuresConfig.getSpillMaxUsedSpaceThreshold(),
+                featuresConfig.isSpillCompressionEnabled(),
+                featuresConfig.isSpillEncryptionEnabled());
     }
 
     public BinarySpillerFactory(ListeningExecutorService executor, BlockEncodingSerde blockEncodingSerde, Path spillPath)
+    {
+        this(executor, blockEncodingSerde, ImmutableList.of(spillPath), 1.0, false, false);
+    }
+
+    public BinarySpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean compressionEnabled,
+            boolean encryptionEnabled)
     {
         requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
-        // TODO: add separate config for spill compression
-        this.serde = new PagesSerdeFactory(blockEncodingSerde, false);
+        this.serde = new PagesSerdeFactory(blockEncodingSerde, compressionEnabled);
         this.executor = requireNonNull(executor, "executor is null");
-        this.spillPath = requireNonNull(spillPath, "spillPath is null");
-        this.spillPath.toFile().mkdirs();
+        this.spillPaths = ImmutableList.copyOf(requireNonNull(spillPaths, "spillPaths is null"));
+        checkArgument(!spillPaths.isEmpty(), "spillPaths is empty");
+        this.maxUsedSpaceThreshold = maxUsedSpaceThreshold;
+        this.encryptionEnabled = encryptionEnabled;
+        this.spillPaths.forEach(path -> path.toFile().mkdirs());
     }
 
     private static ListeningExecutorService createExecutorServiceOfSize(int nThreads)
@@ -69,6 +97,31 @@ public class BinarySpillerFactory
     @Override
     public Spiller create(List<Type> types)
     {
-        return new BinaryFileSpiller(serde.createPagesSerde(), executor, spillPath, totalSpilledBytes);
+        return new BinaryFileSpiller(serde.createPagesSerde(), executor, getNextSpillPath(), stats, encryptionEnabled);
+    }
+
+    private Path getNextSpillPath()
+    {
+        // round robin over the paths, skipping the ones whose disk is too full
+        int start = nextSpillPath.getAndIncrement();
+        for (int i = 0; i < spillPaths.size(); i++) {
+            Path path = spillPaths.get(floorMod(start + i, spillPaths.size()));
+            if (hasEnoughDiskSpace(path)) {
+                return path;
+            }
+        }
+        throw new PrestoException(OUT_OF_SPILL_SPACE, "No spill path has enough free space: " + spillPaths);
+    }
+
+    private boolean hasEnoughDiskSpace(Path path)
+    {
+        try {
+            FileStore fileStore = Files.getFileStore(path);
+            return fileStore.getUsableSpace() > fileStore.getTotalSpace() * (1.0 - maxUsedSpaceThreshold);
+        }
+        catch (IOException e) {
+            // the path is not usable, e.g. the disk was unmounted
+            return false;
+        }
     }
 }
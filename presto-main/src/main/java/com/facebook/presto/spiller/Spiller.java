@@ -14,6 +14,7 @@
 package com.facebook.presto.spiller;
 
 import com.facebook.presto.spi.Page;
+import com.google.common.collect.ImmutableList;
 
 import java.io.Closeable;
 import java.util.Iterator;
@@ -33,6 +34,17 @@ public interface Spiller
      */
     List<Iterator<Page>> getSpills();
 
+    /**
+     * Reads all previously spilled pages into memory. Spillers which write pages
+     * asynchronously also read them asynchronously, so the calling thread is not blocked.
+     */
+    default CompletableFuture<List<Page>> getAllSpilledPages()
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        getSpills().forEach(spill -> spill.forEachRemaining(pages::add));
+        return CompletableFuture.completedFuture(pages.build());
+    }
+
     /**
      * Close releases/removes all underlying resources used during spilling
      * like for example all created temporary files.
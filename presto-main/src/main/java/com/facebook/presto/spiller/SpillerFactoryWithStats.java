@@ -13,19 +13,25 @@
  */
 package com.facebook.presto.spiller;
 
+import org.weakref.jmx.Flatten;
 import org.weakref.jmx.Managed;
 
-import java.util.concurrent.atomic.AtomicLong;
-
 public abstract class SpillerFactoryWithStats
         implements SpillerFactory
 {
-    protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    protected final SpillerStats stats = new SpillerStats();
 
     @Override
     @Managed
     public long getTotalSpilledBytes()
     {
-        return totalSpilledBytes.get();
+        return stats.getSpilledBytes();
+    }
+
+    @Managed
+    @Flatten
+    public SpillerStats getStats()
+    {
+        return stats;
     }
 }
@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import io.airlift.stats.DistributionStat;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.Duration;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+@ThreadSafe
+public class SpillerStats
+{
+    private final AtomicLong spilledBytes = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final TimeStat writeTime = new TimeStat(MILLISECONDS);
+    private final DistributionStat writeThroughput = new DistributionStat();
+    private final TimeStat readTime = new TimeStat(MILLISECONDS);
+
+    /**
+     * @param spilledBytes size of the spilled pages in memory
+     * @param writtenBytes size of the spill file, after compression
+     */
+    public void recordSpill(long spilledBytes, long writtenBytes, Duration duration)
+    {
+        this.spilledBytes.addAndGet(spilledBytes);
+        this.writtenBytes.addAndGet(writtenBytes);
+        writeTime.add(duration);
+        if (duration.toMillis() > 0) {
+            writeThroughput.add((long) (writtenBytes / duration.getValue(MILLISECONDS) * 1000));
+        }
+    }
+
+    public void recordPageRead(Duration duration)
+    {
+        readTime.add(duration);
+    }
+
+    public long getSpilledBytes()
+    {
+        return spilledBytes.get();
+    }
+
+    @Managed
+    public long getWrittenBytes()
+    {
+        return writtenBytes.get();
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getWriteTime()
+    {
+        return writeTime;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getWriteThroughputBytesPerSecond()
+    {
+        return writeThroughput;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getPageReadTime()
+    {
+        return readTime;
+    }
+}
@@ -13,19 +13,25 @@
  */
 package com.facebook.presto.sql.analyzer;
 
+import com.facebook.presto.execution.buffer.PageCompression;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.units.DataSize;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
 import static com.facebook.presto.sql.analyzer.RegexLibrary.JONI;
+import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
 
 @DefunctConfig({
         "resource-group-manager",
@@ -54,6 +60,9 @@ public class FeaturesConfig
     private boolean optimizerReorderWindows = false;
     private boolean pushTableWriteThroughUnion = true;
     private boolean exchangeCompressionEnabled = false;
+    private PageCompression exchangeCompressionCodec = PageCompression.LZ4;
+    private boolean exchangeCompressionAdaptive;
+    private boolean exchangeChecksumEnabled;
     private boolean legacyArrayAgg;
     private boolean legacyOrderBy;
     private boolean legacyMapSubscript;
@@ -68,9 +77,23 @@ public class FeaturesConfig
     private RegexLibrary regexLibrary = JONI;
     private boolean spillEnabled;
     private DataSize operatorMemoryLimitBeforeSpill = new DataSize(4, DataSize.Unit.MEGABYTE);
-    private Path spillerSpillPath = Paths.get(System.getProperty("java.io.tmpdir"), "presto", "spills");
+    private List<Path> spillerSpillPaths = ImmutableList.of(Paths.get(System.getProperty("java.io.tmpdir"), "presto", "spills"));
     private int spillerThreads = 4;
+    private double spillMaxUsedSpaceThreshold = 0.9;
+    private boolean spillCompressionEnabled;
+    private boolean spillEncryptionEnabled;
+    private double memoryRevokingThreshold = 0.9;
+    private double memoryRevokingTarget = 0.5;
     private boolean iterativeOptimizerEnabled;
+    private boolean dynamicFilteringEnabled;
+    private boolean costBasedJoinEnabled;
+    private boolean automaticJoinDistributionEnabled;
+    private DataSize joinMaxBroadcastTableSize = new DataSize(100, DataSize.Unit.MEGABYTE);
+    private boolean adaptivePartialAggregationEnabled;
+    private double adaptivePartialAggregationUniqueRowsRatioThreshold = 0.8;
+    private boolean directResultStreamingEnabled;
+    private boolean openAddressingJoinHashEnabled;
+    private boolean parallelHashBuildEnabled;
 
     public boolean isResourceGroupsEnabled()
     {
@@ -319,6 +342,122 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isDynamicFilteringEnabled()
+    {
+        return dynamicFilteringEnabled;
+    }
+
+    @Config("experimental.dynamic-filtering-enabled")
+    public FeaturesConfig setDynamicFilteringEnabled(boolean dynamicFilteringEnabled)
+    {
+        this.dynamicFilteringEnabled = dynamicFilteringEnabled;
+        return this;
+    }
+
+    public boolean isCostBasedJoinEnabled()
+    {
+        return costBasedJoinEnabled;
+    }
+
+    @Config("experimental.cost-based-join-enabled")
+    public FeaturesConfig setCostBasedJoinEnabled(boolean costBasedJoinEnabled)
+    {
+        this.costBasedJoinEnabled = costBasedJoinEnabled;
+        return this;
+    }
+
+    public boolean isAutomaticJoinDistributionEnabled()
+    {
+        return automaticJoinDistributionEnabled;
+    }
+
+    @Config("automatic-join-distribution-enabled")
+    @ConfigDescription("Choose between broadcast and partitioned distribution per join using the estimated table sizes")
+    public FeaturesConfig setAutomaticJoinDistributionEnabled(boolean automaticJoinDistributionEnabled)
+    {
+        this.automaticJoinDistributionEnabled = automaticJoinDistributionEnabled;
+        return this;
+    }
+
+    public DataSize getJoinMaxBroadcastTableSize()
+    {
+        return joinMaxBroadcastTableSize;
+    }
+
+    @Config("join-max-broadcast-table-size")
+    @ConfigDescription("Maximum estimated size of the build side of a broadcast join")
+    public FeaturesConfig setJoinMaxBroadcastTableSize(DataSize joinMaxBroadcastTableSize)
+    {
+        this.joinMaxBroadcastTableSize = joinMaxBroadcastTableSize;
+        return this;
+    }
+
+    public boolean isAdaptivePartialAggregationEnabled()
+    {
+        return adaptivePartialAggregationEnabled;
+    }
+
+    @Config("adaptive-partial-aggregation.enabled")
+    public FeaturesConfig setAdaptivePartialAggregationEnabled(boolean adaptivePartialAggregationEnabled)
+    {
+        this.adaptivePartialAggregationEnabled = adaptivePartialAggregationEnabled;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getAdaptivePartialAggregationUniqueRowsRatioThreshold()
+    {
+        return adaptivePartialAggregationUniqueRowsRatioThreshold;
+    }
+
+    @Config("adaptive-partial-aggregation.unique-rows-ratio-threshold")
+    @ConfigDescription("Ratio of groups to input rows above which partial aggregation passes rows through")
+    public FeaturesConfig setAdaptivePartialAggregationUniqueRowsRatioThreshold(double adaptivePartialAggregationUniqueRowsRatioThreshold)
+    {
+        this.adaptivePartialAggregationUniqueRowsRatioThreshold = adaptivePartialAggregationUniqueRowsRatioThreshold;
+        return this;
+    }
+
+    public boolean isDirectResultStreamingEnabled()
+    {
+        return directResultStreamingEnabled;
+    }
+
+    @Config("direct-result-streaming.enabled")
+    @ConfigDescription("Let clients read query results directly from the workers running the output stage")
+    public FeaturesConfig setDirectResultStreamingEnabled(boolean directResultStreamingEnabled)
+    {
+        this.directResultStreamingEnabled = directResultStreamingEnabled;
+        return this;
+    }
+
+    public boolean isOpenAddressingJoinHashEnabled()
+    {
+        return openAddressingJoinHashEnabled;
+    }
+
+    @Config("experimental.open-addressing-join-hash-enabled")
+    @ConfigDescription("Build join hash tables which keep the key hashes inline with the row addresses")
+    public FeaturesConfig setOpenAddressingJoinHashEnabled(boolean openAddressingJoinHashEnabled)
+    {
+        this.openAddressingJoinHashEnabled = openAddressingJoinHashEnabled;
+        return this;
+    }
+
+    public boolean isParallelHashBuildEnabled()
+    {
+        return parallelHashBuildEnabled;
+    }
+
+    @Config("experimental.parallel-hash-build-enabled")
+    @ConfigDescription("Build large join hash tables using a dedicated pool of threads")
+    public FeaturesConfig setParallelHashBuildEnabled(boolean parallelHashBuildEnabled)
+    {
+        this.parallelHashBuildEnabled = parallelHashBuildEnabled;
+        return this;
+    }
+
     public boolean isIterativeOptimizerEnabled()
     {
         return iterativeOptimizerEnabled;
@@ -343,15 +482,49 @@ public class FeaturesConfig
         return this;
     }
 
-    public Path getSpillerSpillPath()
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getMemoryRevokingThreshold()
+    {
+        return memoryRevokingThreshold;
+    }
+
+    @Config("experimental.memory-revoking-threshold")
+    @ConfigDescription("Revoke memory when memory pool is filled over threshold")
+    public FeaturesConfig setMemoryRevokingThreshold(double memoryRevokingThreshold)
+    {
+        this.memoryRevokingThreshold = memoryRevokingThreshold;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getMemoryRevokingTarget()
+    {
+        return memoryRevokingTarget;
+    }
+
+    @Config("experimental.memory-revoking-target")
+    @ConfigDescription("When revoking memory, try to revoke so much that pool is filled below target at the end")
+    public FeaturesConfig setMemoryRevokingTarget(double memoryRevokingTarget)
+    {
+        this.memoryRevokingTarget = memoryRevokingTarget;
+        return this;
+    }
+
+    @NotNull
+    public List<Path> getSpillerSpillPaths()
     {
-        return spillerSpillPath;
+        return spillerSpillPaths;
     }
 
     @Config("experimental.spiller-spill-path")
-    public FeaturesConfig setSpillerSpillPath(String spillPath)
+    @ConfigDescription("Comma separated list of directories to spill to, used in round robin order")
+    public FeaturesConfig setSpillerSpillPaths(String spillPaths)
     {
-        this.spillerSpillPath = Paths.get(spillPath);
+        this.spillerSpillPaths = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(spillPaths).stream()
+                .map(Paths::get)
+                .collect(toImmutableList());
         return this;
     }
 
@@ -367,6 +540,47 @@ public class FeaturesConfig
         return this;
     }
 
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getSpillMaxUsedSpaceThreshold()
+    {
+        return spillMaxUsedSpaceThreshold;
+    }
+
+    @Config("experimental.spiller-max-used-space-threshold")
+    @ConfigDescription("Spill path is not used for new spills once this fraction of its disk is used")
+    public FeaturesConfig setSpillMaxUsedSpaceThreshold(double spillMaxUsedSpaceThreshold)
+    {
+        this.spillMaxUsedSpaceThreshold = spillMaxUsedSpaceThreshold;
+        return this;
+    }
+
+    public boolean isSpillCompressionEnabled()
+    {
+        return spillCompressionEnabled;
+    }
+
+    @Config("experimental.spill-compression-enabled")
+    @ConfigDescription("Compress spilled pages")
+    public FeaturesConfig setSpillCompressionEnabled(boolean spillCompressionEnabled)
+    {
+        this.spillCompressionEnabled = spillCompressionEnabled;
+        return this;
+    }
+
+    public boolean isSpillEncryptionEnabled()
+    {
+        return spillEncryptionEnabled;
+    }
+
+    @Config("experimental.spill-encryption-enabled")
+    @ConfigDescription("Encrypt spill files with a key that is kept in memory only")
+    public FeaturesConfig setSpillEncryptionEnabled(boolean spillEncryptionEnabled)
+    {
+        this.spillEncryptionEnabled = spillEncryptionEnabled;
+        return this;
+    }
+
     public boolean isOptimizeMixedDistinctAggregations()
     {
         return optimizeMixedDistinctAggregations;
@@ -390,4 +604,44 @@ public class FeaturesConfig
         this.exchangeCompressionEnabled = exchangeCompressionEnabled;
         return this;
     }
+
+    @NotNull
+    public PageCompression getExchangeCompressionCodec()
+    {
+        return exchangeCompressionCodec;
+    }
+
+    @Config("exchange.compression-codec")
+    @ConfigDescription("Codec used to compress pages in exchanges, when exchange compression is enabled")
+    public FeaturesConfig setExchangeCompressionCodec(PageCompression exchangeCompressionCodec)
+    {
+        this.exchangeCompressionCodec = exchangeCompressionCodec;
+        return this;
+    }
+
+    public boolean isExchangeCompressionAdaptive()
+    {
+        return exchangeCompressionAdaptive;
+    }
+
+    @Config("exchange.compression-adaptive")
+    @ConfigDescription("Send pages uncompressed for a while after pages that do not compress well")
+    public FeaturesConfig setExchangeCompressionAdaptive(boolean exchangeCompressionAdaptive)
+    {
+        this.exchangeCompressionAdaptive = exchangeCompressionAdaptive;
+        return this;
+    }
+
+    public boolean isExchangeChecksumEnabled()
+    {
+        return exchangeChecksumEnabled;
+    }
+
+    @Config("exchange.checksum-enabled")
+    @ConfigDescription("Send a checksum with every page in exchanges, so corrupted pages are detected and fetched again")
+    public FeaturesConfig setExchangeChecksumEnabled(boolean exchangeChecksumEnabled)
+    {
+        this.exchangeChecksumEnabled = exchangeChecksumEnabled;
+        return this;
+    }
 }
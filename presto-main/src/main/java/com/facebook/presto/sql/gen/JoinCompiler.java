@@ -29,6 +29,7 @@ import com.facebook.presto.bytecode.instruction.LabelNode;
 import com.facebook.presto.operator.JoinHash;
 import com.facebook.presto.operator.JoinHashSupplier;
 import com.facebook.presto.operator.LookupSourceSupplier;
+import com.facebook.presto.operator.OpenAddressingPagesHash;
 import com.facebook.presto.operator.PagesHash;
 import com.facebook.presto.operator.PagesHashStrategy;
 import com.facebook.presto.spi.ConnectorSession;
@@ -174,7 +175,8 @@ public class JoinCompiler
                 LookupSourceSupplier.class,
                 JoinHashSupplier.class,
                 JoinHash.class,
-                PagesHash.class);
+                PagesHash.class,
+                OpenAddressingPagesHash.class);
 
         return new LookupSourceSupplierFactory(joinHashSupplierClass, new PagesHashStrategyFactory(pagesHashStrategyClass));
     }
@@ -726,7 +728,7 @@ public class JoinCompiler
         {
             this.pagesHashStrategyFactory = pagesHashStrategyFactory;
             try {
-                constructor = joinHashSupplierClass.getConstructor(ConnectorSession.class, PagesHashStrategy.class, LongArrayList.class, List.class, Optional.class);
+                constructor = joinHashSupplierClass.getConstructor(ConnectorSession.class, PagesHashStrategy.class, LongArrayList.class, List.class, Optional.class, boolean.class, boolean.class);
             }
             catch (NoSuchMethodException e) {
                 throw Throwables.propagate(e);
@@ -738,11 +740,13 @@ public class JoinCompiler
                 LongArrayList addresses,
                 List<List<Block>> channels,
                 Optional<Integer> hashChannel,
-                Optional<JoinFilterFunctionFactory> filterFunctionFactory)
+                Optional<JoinFilterFunctionFactory> filterFunctionFactory,
+                boolean openAddressingHashEnabled,
+                boolean parallelBuildEnabled)
         {
             PagesHashStrategy pagesHashStrategy = pagesHashStrategyFactory.createPagesHashStrategy(channels, hashChannel);
             try {
-                return constructor.newInstance(session, pagesHashStrategy, addresses, channels, filterFunctionFactory);
+                return constructor.newInstance(session, pagesHashStrategy, addresses, channels, filterFunctionFactory, openAddressingHashEnabled, parallelBuildEnabled);
             }
             catch (Exception e) {
                 throw Throwables.propagate(e);
@@ -26,6 +26,7 @@ import com.facebook.presto.bytecode.control.IfStatement;
 import com.facebook.presto.bytecode.expression.BytecodeExpression;
 import com.facebook.presto.bytecode.instruction.LabelNode;
 import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.operator.LazyBlocks;
 import com.facebook.presto.operator.PageProcessor;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.Page;
@@ -299,7 +300,12 @@ public class PageProcessorCompiler
         Variable blockBuilder = scope.declareVariable("blockBuilder", body, pageBuilder.invoke("getBlockBuilder", BlockBuilder.class, projectionIndex));
         Variable type = scope.declareVariable("type", body, pageBuilder.invoke("getType", Type.class, projectionIndex));
 
-        BytecodeBlock projectBlock = new BytecodeBlock()
+        BytecodeBlock projectBlock = new BytecodeBlock();
+        // columns that are not used by the filter only need to be decoded at the selected positions
+        for (Variable input : inputs) {
+            projectBlock.append(input.set(invokeStatic(LazyBlocks.class, "loadSelectedPositions", Block.class, input, selectedPositions)));
+        }
+        projectBlock
                 .append(new ForLoop()
                         .initialize(position.set(constantInt(0)))
                         .condition(lessThan(position, cardinality))
@@ -18,6 +18,7 @@ import com.facebook.presto.SystemSessionProperties;
 import com.facebook.presto.execution.QueryPerformanceFetcher;
 import com.facebook.presto.execution.TaskManagerConfig;
 import com.facebook.presto.execution.buffer.OutputBuffer;
+import com.facebook.presto.execution.buffer.PageCompression;
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.index.IndexManager;
 import com.facebook.presto.metadata.Metadata;
@@ -42,6 +43,7 @@ import com.facebook.presto.operator.HashBuilderOperator.HashBuilderOperatorFacto
 import com.facebook.presto.operator.HashSemiJoinOperator.HashSemiJoinOperatorFactory;
 import com.facebook.presto.operator.JoinOperatorFactory;
 import com.facebook.presto.operator.LimitOperator.LimitOperatorFactory;
+import com.facebook.presto.operator.LocalDynamicFilter;
 import com.facebook.presto.operator.LocalPlannerAware;
 import com.facebook.presto.operator.LookupJoinOperators;
 import com.facebook.presto.operator.LookupSourceFactory;
@@ -53,6 +55,7 @@ import com.facebook.presto.operator.OrderByOperator.OrderByOperatorFactory;
 import com.facebook.presto.operator.OutputFactory;
 import com.facebook.presto.operator.PageProcessor;
 import com.facebook.presto.operator.PagesIndex;
+import com.facebook.presto.operator.PartialAggregationController;
 import com.facebook.presto.operator.PartitionFunction;
 import com.facebook.presto.operator.PartitionedOutputOperator.PartitionedOutputFactory;
 import com.facebook.presto.operator.ProjectionFunction;
@@ -92,6 +95,7 @@ import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.connector.ConnectorOutputMetadata;
 import com.facebook.presto.spi.predicate.NullableValue;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.split.MappedRecordSet;
@@ -181,15 +185,22 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.facebook.presto.SystemSessionProperties.getAdaptivePartialAggregationUniqueRowsRatioThreshold;
+import static com.facebook.presto.SystemSessionProperties.getExchangeCompression;
 import static com.facebook.presto.SystemSessionProperties.getOperatorMemoryLimitBeforeSpill;
 import static com.facebook.presto.SystemSessionProperties.getTaskConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
-import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
+import static com.facebook.presto.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
+import static com.facebook.presto.SystemSessionProperties.isDirectResultStreaming;
+import static com.facebook.presto.SystemSessionProperties.isDynamicFilteringEnabled;
+import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionAdaptive;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
+import static com.facebook.presto.execution.buffer.PageCompression.UNCOMPRESSED;
 import static com.facebook.presto.metadata.FunctionKind.SCALAR;
 import static com.facebook.presto.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
 import static com.facebook.presto.operator.NestedLoopBuildOperator.NestedLoopBuildOperatorFactory;
 import static com.facebook.presto.operator.NestedLoopJoinOperator.NestedLoopJoinOperatorFactory;
+import static com.facebook.presto.operator.PartialAggregationController.DEFAULT_MIN_ROWS;
 import static com.facebook.presto.operator.TableFinishOperator.TableFinishOperatorFactory;
 import static com.facebook.presto.operator.TableFinishOperator.TableFinisher;
 import static com.facebook.presto.operator.TableWriterOperator.TableWriterOperatorFactory;
@@ -206,6 +217,7 @@ import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_BRO
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.LOCAL;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.FULL;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.RIGHT;
 import static com.facebook.presto.sql.planner.plan.TableWriterNode.CreateHandle;
 import static com.facebook.presto.sql.planner.plan.TableWriterNode.InsertHandle;
@@ -228,6 +240,7 @@ import static java.util.stream.IntStream.range;
 public class LocalExecutionPlanner
 {
     private static final Logger log = Logger.get(LocalExecutionPlanner.class);
+    private static final int DYNAMIC_FILTER_MAX_DISTINCT_VALUES = 1_000;
 
     private final Metadata metadata;
     private final SqlParser sqlParser;
@@ -377,6 +390,9 @@ public class LocalExecutionPlanner
                 .map(types::get)
                 .collect(toImmutableList());
 
+        // clients reading results directly from the root fragment can not decompress pages
+        PageCompression outputCompression = isDirectResultStreaming(session) && plan instanceof OutputNode ? UNCOMPRESSED : getExchangeCompression(session);
+
         context.addDriverFactory(context.isInputDriver(),
                 true,
                 ImmutableList.<OperatorFactory>builder()
@@ -386,7 +402,7 @@ public class LocalExecutionPlanner
                                 plan.getId(),
                                 outputTypes,
                                 pagePreprocessor,
-                                new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session))))
+                                new PagesSerdeFactory(blockEncodingSerde, outputCompression, isExchangeCompressionAdaptive(session))))
                         .build(),
                 context.getDriverInstanceCount());
 
@@ -440,8 +456,9 @@ public class LocalExecutionPlanner
         private final List<DriverFactory> driverFactories;
         private final Optional<IndexSourceContext> indexSourceContext;
 
-        // this is shared with all subContexts
+        // these are shared with all subContexts
         private AtomicInteger nextPipelineId;
+        private final Map<PlanNodeId, LocalDynamicFilter> dynamicFilters;
 
         private int nextOperatorId;
         private boolean inputDriver = true;
@@ -449,7 +466,7 @@ public class LocalExecutionPlanner
 
         public LocalExecutionPlanContext(Session session, Map<Symbol, Type> types)
         {
-            this(session, types, new ArrayList<>(), Optional.empty(), new AtomicInteger(0));
+            this(session, types, new ArrayList<>(), Optional.empty(), new AtomicInteger(0), new HashMap<>());
         }
 
         private LocalExecutionPlanContext(
@@ -457,13 +474,15 @@ public class LocalExecutionPlanner
                 Map<Symbol, Type> types,
                 List<DriverFactory> driverFactories,
                 Optional<IndexSourceContext> indexSourceContext,
-                AtomicInteger nextPipelineId)
+                AtomicInteger nextPipelineId,
+                Map<PlanNodeId, LocalDynamicFilter> dynamicFilters)
         {
             this.session = session;
             this.types = types;
             this.driverFactories = driverFactories;
             this.indexSourceContext = indexSourceContext;
             this.nextPipelineId = nextPipelineId;
+            this.dynamicFilters = dynamicFilters;
         }
 
         public void addDriverFactory(boolean inputDriver, boolean outputDriver, List<OperatorFactory> operatorFactories, OptionalInt driverInstances)
@@ -514,12 +533,26 @@ public class LocalExecutionPlanner
         public LocalExecutionPlanContext createSubContext()
         {
             checkState(!indexSourceContext.isPresent(), "index build plan can not have sub-contexts");
-            return new LocalExecutionPlanContext(session, types, driverFactories, indexSourceContext, nextPipelineId);
+            return new LocalExecutionPlanContext(session, types, driverFactories, indexSourceContext, nextPipelineId, dynamicFilters);
         }
 
         public LocalExecutionPlanContext createIndexSourceSubContext(IndexSourceContext indexSourceContext)
         {
-            return new LocalExecutionPlanContext(session, types, driverFactories, Optional.of(indexSourceContext), nextPipelineId);
+            return new LocalExecutionPlanContext(session, types, driverFactories, Optional.of(indexSourceContext), nextPipelineId, dynamicFilters);
+        }
+
+        public void registerDynamicFilter(PlanNodeId tableScanId, LocalDynamicFilter dynamicFilter)
+        {
+            checkState(dynamicFilters.putIfAbsent(tableScanId, dynamicFilter) == null, "Dynamic filter for %s is already registered", tableScanId);
+        }
+
+        public Supplier<TupleDomain<ColumnHandle>> getDynamicFilter(PlanNodeId tableScanId)
+        {
+            LocalDynamicFilter dynamicFilter = dynamicFilters.get(tableScanId);
+            if (dynamicFilter == null) {
+                return TupleDomain::all;
+            }
+            return dynamicFilter::getCurrentPredicate;
         }
 
         public OptionalInt getDriverInstanceCount()
@@ -590,7 +623,7 @@ public class LocalExecutionPlanner
                     context.getNextOperatorId(),
                     node.getId(),
                     exchangeClientSupplier,
-                    new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)),
+                    new PagesSerdeFactory(blockEncodingSerde, getExchangeCompression(session), isExchangeCompressionAdaptive(session)),
                     types);
 
             return new PhysicalOperation(operatorFactory, makeLayout(node));
@@ -780,7 +813,10 @@ public class LocalExecutionPlanner
                     sortOrder,
                     node.getPreSortedOrderPrefix(),
                     10_000,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    isSpillEnabled(context.getSession()),
+                    getOperatorMemoryLimitBeforeSpill(context.getSession()),
+                    spillerFactory);
 
             return new PhysicalOperation(operatorFactory, outputMappings.build(), source);
         }
@@ -839,7 +875,10 @@ public class LocalExecutionPlanner
                     10_000,
                     orderByChannels,
                     sortOrder.build(),
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    isSpillEnabled(context.getSession()),
+                    getOperatorMemoryLimitBeforeSpill(context.getSession()),
+                    spillerFactory);
 
             return new PhysicalOperation(operator, source.getLayout(), source);
         }
@@ -934,7 +973,13 @@ public class LocalExecutionPlanner
             boolean spillEnabled = isSpillEnabled(context.getSession());
             DataSize memoryLimitBeforeSpill = getOperatorMemoryLimitBeforeSpill(context.getSession());
 
-            return planGroupByAggregation(node, source, context.getNextOperatorId(), spillEnabled, memoryLimitBeforeSpill);
+            Optional<PartialAggregationController> partialAggregationController = Optional.empty();
+            if (node.getStep() == AggregationNode.Step.PARTIAL && isAdaptivePartialAggregationEnabled(context.getSession())) {
+                double uniqueRowsRatioThreshold = getAdaptivePartialAggregationUniqueRowsRatioThreshold(context.getSession());
+                partialAggregationController = Optional.of(new PartialAggregationController(DEFAULT_MIN_ROWS, uniqueRowsRatioThreshold));
+            }
+
+            return planGroupByAggregation(node, source, context.getNextOperatorId(), partialAggregationController, spillEnabled, memoryLimitBeforeSpill);
         }
 
         @Override
@@ -1075,7 +1120,8 @@ public class LocalExecutionPlanner
                             cursorProcessor,
                             pageProcessor,
                             columns,
-                            Lists.transform(rewrittenProjections, forMap(expressionTypes)));
+                            Lists.transform(rewrittenProjections, forMap(expressionTypes)),
+                            context.getDynamicFilter(sourceNode.getId()));
 
                     return new PhysicalOperation(operatorFactory, outputMappings);
                 }
@@ -1139,7 +1185,8 @@ public class LocalExecutionPlanner
                         () -> new GenericCursorProcessor(filterFunction, projectionFunctions),
                         () -> new GenericPageProcessor(filterFunction, projectionFunctions),
                         columns,
-                        toTypes(projectionFunctions));
+                        toTypes(projectionFunctions),
+                        context.getDynamicFilter(sourceNode.getId()));
 
                 return new PhysicalOperation(operatorFactory, outputMappings);
             }
@@ -1177,7 +1224,7 @@ public class LocalExecutionPlanner
             }
 
             List<Type> types = getSourceOperatorTypes(node, context.getTypes());
-            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, types, columns);
+            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, types, columns, context.getDynamicFilter(node.getId()));
             return new PhysicalOperation(operatorFactory, makeLayout(node));
         }
 
@@ -1522,11 +1569,14 @@ public class LocalExecutionPlanner
                 Optional<Symbol> buildHashSymbol,
                 LocalExecutionPlanContext context)
         {
+            // the dynamic filter must be registered before the probe side table scan is planned
+            Optional<LocalDynamicFilter> dynamicFilter = createDynamicFilter(node, probeNode, probeSymbols, context);
+
             // Plan probe
             PhysicalOperation probeSource = probeNode.accept(this, context);
 
             // Plan build
-            LookupSourceFactory lookupSourceFactory = createLookupSourceFactory(node, buildNode, buildSymbols, buildHashSymbol, probeSource.getLayout(), context);
+            LookupSourceFactory lookupSourceFactory = createLookupSourceFactory(node, buildNode, buildSymbols, buildHashSymbol, probeSource.getLayout(), dynamicFilter, context);
 
             OperatorFactory operator = createLookupJoin(node, probeSource, probeSymbols, probeHashSymbol, lookupSourceFactory, context);
 
@@ -1546,6 +1596,7 @@ public class LocalExecutionPlanner
                 List<Symbol> buildSymbols,
                 Optional<Symbol> buildHashSymbol,
                 Map<Symbol, Integer> probeLayout,
+                Optional<LocalDynamicFilter> dynamicFilter,
                 LocalExecutionPlanContext context)
         {
             LocalExecutionPlanContext buildContext = context.createSubContext();
@@ -1572,7 +1623,11 @@ public class LocalExecutionPlanner
                     filterFunctionFactory,
                     10_000,
                     buildContext.getDriverInstanceCount().orElse(1),
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    isSpillEnabled(context.getSession()),
+                    getOperatorMemoryLimitBeforeSpill(context.getSession()),
+                    spillerFactory,
+                    dynamicFilter);
 
             context.addDriverFactory(
                     buildContext.isInputDriver(),
@@ -1586,6 +1641,58 @@ public class LocalExecutionPlanner
             return hashBuilderOperatorFactory.getLookupSourceFactory();
         }
 
+        /**
+         * Creates a filter on the probe side table scan from the join keys of the build side, if the probe side
+         * is a table scan in this task and the join can only output probe rows which have a match.
+         */
+        private Optional<LocalDynamicFilter> createDynamicFilter(JoinNode node, PlanNode probeNode, List<Symbol> probeSymbols, LocalExecutionPlanContext context)
+        {
+            if (!isDynamicFilteringEnabled(context.getSession()) || (node.getType() != INNER && node.getType() != RIGHT)) {
+                return Optional.empty();
+            }
+
+            // trace the probe symbols through filters and identity projections down to the table scan
+            List<Optional<Symbol>> sourceSymbols = probeSymbols.stream()
+                    .map(Optional::of)
+                    .collect(toImmutableList());
+            PlanNode source = probeNode;
+            while (!(source instanceof TableScanNode)) {
+                if (source instanceof FilterNode) {
+                    source = ((FilterNode) source).getSource();
+                }
+                else if (source instanceof ProjectNode) {
+                    Assignments assignments = ((ProjectNode) source).getAssignments();
+                    sourceSymbols = sourceSymbols.stream()
+                            .map(symbol -> symbol
+                                    .map(assignments::get)
+                                    .filter(SymbolReference.class::isInstance)
+                                    .map(Symbol::from))
+                            .collect(toImmutableList());
+                    source = ((ProjectNode) source).getSource();
+                }
+                else {
+                    return Optional.empty();
+                }
+            }
+
+            TableScanNode tableScan = (TableScanNode) source;
+            ImmutableMap.Builder<Integer, ColumnHandle> probeColumns = ImmutableMap.builder();
+            for (int i = 0; i < probeSymbols.size(); i++) {
+                Optional<Symbol> symbol = sourceSymbols.get(i);
+                if (symbol.isPresent() && LocalDynamicFilter.isSupportedType(context.getTypes().get(probeSymbols.get(i)))) {
+                    probeColumns.put(i, tableScan.getAssignments().get(symbol.get()));
+                }
+            }
+            Map<Integer, ColumnHandle> columns = probeColumns.build();
+            if (columns.isEmpty()) {
+                return Optional.empty();
+            }
+
+            LocalDynamicFilter dynamicFilter = new LocalDynamicFilter(columns, DYNAMIC_FILTER_MAX_DISTINCT_VALUES);
+            context.registerDynamicFilter(tableScan.getId(), dynamicFilter);
+            return Optional.of(dynamicFilter);
+        }
+
         private JoinFilterFunctionFactory compileJoinFilterFunction(
                 Expression filterExpression,
                 Map<Symbol, Integer> probeLayout,
@@ -1906,6 +2013,7 @@ public class LocalExecutionPlanner
                 AggregationNode node,
                 PhysicalOperation source,
                 int operatorId,
+                Optional<PartialAggregationController> partialAggregationController,
                 boolean spillEnabled,
                 DataSize memoryLimitBeforeSpill)
         {
@@ -1970,6 +2078,7 @@ public class LocalExecutionPlanner
                     node.getGroupIdSymbol().map(mappings::get),
                     10_000,
                     maxPartialAggregationMemorySize,
+                    partialAggregationController,
                     spillEnabled,
                     memoryLimitBeforeSpill,
                     spillerFactory,
@@ -39,6 +39,7 @@ import com.facebook.presto.sql.planner.optimizations.AddExchanges;
 import com.facebook.presto.sql.planner.optimizations.AddLocalExchanges;
 import com.facebook.presto.sql.planner.optimizations.BeginTableWrite;
 import com.facebook.presto.sql.planner.optimizations.CanonicalizeExpressions;
+import com.facebook.presto.sql.planner.optimizations.CostBasedJoinReordering;
 import com.facebook.presto.sql.planner.optimizations.CountConstantOptimizer;
 import com.facebook.presto.sql.planner.optimizations.DesugaringOptimizer;
 import com.facebook.presto.sql.planner.optimizations.EliminateCrossJoins;
@@ -193,6 +194,7 @@ public class PlanOptimizers
                 ),
                 new MetadataQueryOptimizer(metadata),
                 new EliminateCrossJoins(), // This can pull up Filter and Project nodes from between Joins, so we need to push them down again
+                new CostBasedJoinReordering(metadata), // Also pulls up Filter and Project nodes from between Joins
                 new PredicatePushDown(metadata, sqlParser),
                 new ProjectionPushDown());
 
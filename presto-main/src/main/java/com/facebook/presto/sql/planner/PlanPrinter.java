@@ -14,6 +14,7 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.cost.StatsCalculator;
 import com.facebook.presto.execution.StageInfo;
 import com.facebook.presto.execution.StageStats;
 import com.facebook.presto.execution.TaskInfo;
@@ -33,6 +34,7 @@ import com.facebook.presto.spi.predicate.Marker;
 import com.facebook.presto.spi.predicate.NullableValue;
 import com.facebook.presto.spi.predicate.Range;
 import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.statistics.Estimate;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.FunctionInvoker;
 import com.facebook.presto.sql.planner.plan.AggregationNode;
@@ -141,6 +143,7 @@ public class PlanPrinter
 {
     private final StringBuilder output = new StringBuilder();
     private final Metadata metadata;
+    private final StatsCalculator statsCalculator;
     private final Optional<Map<PlanNodeId, PlanNodeStats>> stats;
 
     private PlanPrinter(PlanNode plan, Map<Symbol, Type> types, Metadata metadata, Session sesion)
@@ -155,6 +158,7 @@ public class PlanPrinter
         requireNonNull(metadata, "metadata is null");
 
         this.metadata = metadata;
+        this.statsCalculator = new StatsCalculator(metadata);
         this.stats = Optional.empty();
 
         Visitor visitor = new Visitor(types, session);
@@ -168,6 +172,7 @@ public class PlanPrinter
         requireNonNull(metadata, "metadata is null");
 
         this.metadata = metadata;
+        this.statsCalculator = new StatsCalculator(metadata);
         this.stats = Optional.of(stats);
 
         Visitor visitor = new Visitor(types, session);
@@ -611,6 +616,7 @@ public class PlanPrinter
                         formatOutputs(node.getOutputSymbols()));
             }
 
+            node.getDistributionType().ifPresent(distributionType -> printDistribution(indent + 2, distributionType, node.getRight()));
             printStats(indent + 2, node.getId());
             node.getLeft().accept(this, indent + 1);
             node.getRight().accept(this, indent + 1);
@@ -626,6 +632,7 @@ public class PlanPrinter
                     node.getFilteringSourceJoinSymbol(),
                     formatHash(node.getSourceHashSymbol(), node.getFilteringSourceHashSymbol()),
                     formatOutputs(node.getOutputSymbols()));
+            node.getDistributionType().ifPresent(distributionType -> printDistribution(indent + 2, distributionType, node.getFilteringSource()));
             printStats(indent + 2, node.getId());
             node.getSource().accept(this, indent + 1);
             node.getFilteringSource().accept(this, indent + 1);
@@ -633,6 +640,18 @@ public class PlanPrinter
             return null;
         }
 
+        private void printDistribution(int indent, JoinNode.DistributionType distributionType, PlanNode buildSource)
+        {
+            Estimate buildSize = statsCalculator.calculateStats(buildSource, session)
+                    .getOutputSizeInBytes(buildSource.getOutputSymbols(), types);
+            if (buildSize.isValueUnknown()) {
+                print(indent, "Distribution: %s", distributionType);
+            }
+            else {
+                print(indent, "Distribution: %s, estimated build size: %s", distributionType, succinctBytes((long) buildSize.getValue()));
+            }
+        }
+
         @Override
         public Void visitIndexSource(IndexSourceNode node, Integer indent)
         {
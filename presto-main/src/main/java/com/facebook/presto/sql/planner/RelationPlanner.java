@@ -302,6 +302,7 @@ class RelationPlanner
                         .build(),
                 Optional.empty(),
                 Optional.empty(),
+                Optional.empty(),
                 Optional.empty());
 
         if (node.getType() != INNER) {
@@ -338,6 +339,7 @@ class RelationPlanner
                             .build(),
                     Optional.of(rewritenFilterCondition),
                     Optional.empty(),
+                    Optional.empty(),
                     Optional.empty());
         }
 
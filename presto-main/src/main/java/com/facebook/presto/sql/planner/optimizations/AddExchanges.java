@@ -15,6 +15,7 @@ package com.facebook.presto.sql.planner.optimizations;
 
 import com.facebook.presto.Session;
 import com.facebook.presto.SystemSessionProperties;
+import com.facebook.presto.cost.StatsCalculator;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.metadata.TableLayoutResult;
 import com.facebook.presto.spi.ColumnHandle;
@@ -24,6 +25,7 @@ import com.facebook.presto.spi.LocalProperty;
 import com.facebook.presto.spi.SortingProperty;
 import com.facebook.presto.spi.predicate.NullableValue;
 import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.statistics.Estimate;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.planner.DependencyExtractor;
@@ -98,7 +100,10 @@ import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+import static com.facebook.presto.SystemSessionProperties.getHashPartitionCount;
+import static com.facebook.presto.SystemSessionProperties.getJoinMaxBroadcastTableSize;
 import static com.facebook.presto.SystemSessionProperties.isColocatedJoinEnabled;
+import static com.facebook.presto.SystemSessionProperties.isDirectResultStreaming;
 import static com.facebook.presto.sql.ExpressionUtils.combineConjuncts;
 import static com.facebook.presto.sql.ExpressionUtils.extractConjuncts;
 import static com.facebook.presto.sql.ExpressionUtils.stripDeterministicConjuncts;
@@ -117,6 +122,8 @@ import static com.facebook.presto.sql.planner.plan.ExchangeNode.Type.GATHER;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.gatheringExchange;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.partitionedExchange;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.replicatedExchange;
+import static com.facebook.presto.sql.planner.plan.JoinNode.DistributionType.PARTITIONED;
+import static com.facebook.presto.sql.planner.plan.JoinNode.DistributionType.REPLICATED;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.FULL;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.RIGHT;
@@ -135,11 +142,13 @@ public class AddExchanges
 {
     private final SqlParser parser;
     private final Metadata metadata;
+    private final StatsCalculator statsCalculator;
 
     public AddExchanges(Metadata metadata, SqlParser parser)
     {
         this.metadata = metadata;
         this.parser = parser;
+        this.statsCalculator = new StatsCalculator(metadata);
     }
 
     @Override
@@ -205,6 +214,7 @@ public class AddExchanges
         private final Session session;
         private final boolean distributedIndexJoins;
         private final boolean distributedJoins;
+        private final boolean automaticJoinDistribution;
         private final boolean preferStreamingOperators;
         private final boolean redistributeWrites;
 
@@ -215,6 +225,7 @@ public class AddExchanges
             this.types = ImmutableMap.copyOf(symbolAllocator.getTypes());
             this.session = session;
             this.distributedJoins = SystemSessionProperties.isDistributedJoinEnabled(session);
+            this.automaticJoinDistribution = SystemSessionProperties.isAutomaticJoinDistributionEnabled(session);
             this.distributedIndexJoins = SystemSessionProperties.isDistributedIndexJoinEnabled(session);
             this.redistributeWrites = SystemSessionProperties.isRedistributeWrites(session);
             this.preferStreamingOperators = SystemSessionProperties.preferStreamingOperators(session);
@@ -247,7 +258,8 @@ public class AddExchanges
         {
             PlanWithProperties child = planChild(node, context.withPreferredProperties(PreferredProperties.any()));
 
-            if (!child.getProperties().isSingleNode()) {
+            // with direct result streaming, clients read the output from every task of the root fragment
+            if (!child.getProperties().isSingleNode() && !isDirectResultStreaming(session)) {
                 child = withDerivedProperties(
                         gatheringExchange(idAllocator.getNextId(), REMOTE, child.getNode()),
                         child.getProperties());
@@ -763,7 +775,9 @@ public class AddExchanges
             PlanWithProperties right;
 
             boolean isCrossJoin = type == INNER && leftSymbols.isEmpty();
-            if ((distributedJoins && !isCrossJoin && !isScalar(node.getRight())) || (type == FULL) || (type == RIGHT)) {
+            boolean distributedJoin = isDistributedJoin(node.getLeft(), node.getRight());
+            boolean partitioned = (distributedJoin && !isCrossJoin && !isScalar(node.getRight())) || (type == FULL) || (type == RIGHT);
+            if (partitioned) {
                 // The implementation of full outer join only works if the data is hash partitioned. See LookupJoinOperators#buildSideOuterJoinUnvisitedPositions
 
                 SetMultimap<Symbol, Symbol> rightToLeft = createMapping(rightSymbols, leftSymbols);
@@ -771,7 +785,7 @@ public class AddExchanges
 
                 left = node.getLeft().accept(this, context.withPreferredProperties(PreferredProperties.partitioned(ImmutableSet.copyOf(leftSymbols))));
 
-                if (left.getProperties().isNodePartitionedOn(leftSymbols) && !(left.getProperties().isSingleNode() && distributedJoins)) {
+                if (left.getProperties().isNodePartitionedOn(leftSymbols) && !(left.getProperties().isSingleNode() && distributedJoin)) {
                     Partitioning rightPartitioning = left.getProperties().translate(createTranslator(leftToRight)).getNodePartitioning().get();
                     right = node.getRight().accept(this, context.withPreferredProperties(PreferredProperties.partitioned(rightPartitioning)));
                     if (!right.getProperties().isNodePartitionedWith(left.getProperties(), rightToLeft::get)) {
@@ -783,7 +797,7 @@ public class AddExchanges
                 else {
                     right = node.getRight().accept(this, context.withPreferredProperties(PreferredProperties.partitioned(ImmutableSet.copyOf(rightSymbols))));
 
-                    if (right.getProperties().isNodePartitionedOn(rightSymbols) && !(right.getProperties().isSingleNode() && distributedJoins)) {
+                    if (right.getProperties().isNodePartitionedOn(rightSymbols) && !(right.getProperties().isSingleNode() && distributedJoin)) {
                         Partitioning leftPartitioning = right.getProperties().translate(createTranslator(rightToLeft)).getNodePartitioning().get();
                         left = withDerivedProperties(
                                 partitionedExchange(idAllocator.getNextId(), REMOTE, left.getNode(), new PartitioningScheme(leftPartitioning, left.getNode().getOutputSymbols())),
@@ -838,11 +852,43 @@ public class AddExchanges
                     node.getOutputSymbols(),
                     node.getFilter(),
                     node.getLeftHashSymbol(),
-                    node.getRightHashSymbol());
+                    node.getRightHashSymbol(),
+                    Optional.of(partitioned ? PARTITIONED : REPLICATED));
 
             return new PlanWithProperties(result, deriveProperties(result, ImmutableList.of(left.getProperties(), right.getProperties())));
         }
 
+        private boolean isDistributedJoin(PlanNode probe, PlanNode build)
+        {
+            if (!automaticJoinDistribution) {
+                return distributedJoins;
+            }
+
+            Estimate buildSize = getOutputSizeInBytes(build);
+            if (buildSize.isValueUnknown()) {
+                return distributedJoins;
+            }
+            if (buildSize.getValue() > getJoinMaxBroadcastTableSize(session).toBytes()) {
+                return true;
+            }
+
+            Estimate probeSize = getOutputSizeInBytes(probe);
+            if (probeSize.isValueUnknown()) {
+                return false;
+            }
+
+            // A broadcast join sends the build side to every node, while a partitioned
+            // join sends both sides over the network once.
+            double replicatedCost = buildSize.getValue() * getHashPartitionCount(session);
+            double partitionedCost = probeSize.getValue() + buildSize.getValue();
+            return partitionedCost < replicatedCost;
+        }
+
+        private Estimate getOutputSizeInBytes(PlanNode node)
+        {
+            return statsCalculator.calculateStats(node, session).getOutputSizeInBytes(node.getOutputSymbols(), types);
+        }
+
         @Override
         public PlanWithProperties visitUnnest(UnnestNode node, Context context)
         {
@@ -857,7 +903,9 @@ public class AddExchanges
             PlanWithProperties source;
             PlanWithProperties filteringSource;
 
-            if (distributedJoins && !context.isDownstreamIsDelete()) {
+            boolean distributedJoin = isDistributedJoin(node.getSource(), node.getFilteringSource());
+            boolean partitioned = distributedJoin && !context.isDownstreamIsDelete();
+            if (partitioned) {
                 List<Symbol> sourceSymbols = ImmutableList.of(node.getSourceJoinSymbol());
                 List<Symbol> filteringSourceSymbols = ImmutableList.of(node.getFilteringSourceJoinSymbol());
 
@@ -866,7 +914,7 @@ public class AddExchanges
 
                 source = node.getSource().accept(this, context.withPreferredProperties(PreferredProperties.partitioned(ImmutableSet.copyOf(sourceSymbols))));
 
-                if (source.getProperties().isNodePartitionedOn(sourceSymbols) && !(source.getProperties().isSingleNode() && distributedJoins)) {
+                if (source.getProperties().isNodePartitionedOn(sourceSymbols) && !(source.getProperties().isSingleNode() && distributedJoin)) {
                     Partitioning filteringPartitioning = source.getProperties().translate(createTranslator(sourceToFiltering)).getNodePartitioning().get();
                     filteringSource = node.getFilteringSource().accept(this, context.withPreferredProperties(PreferredProperties.partitionedWithNullsReplicated(filteringPartitioning)));
                     if (!source.getProperties().withReplicatedNulls(true).isNodePartitionedWith(filteringSource.getProperties(), sourceToFiltering::get)) {
@@ -883,7 +931,7 @@ public class AddExchanges
                 else {
                     filteringSource = node.getFilteringSource().accept(this, context.withPreferredProperties(PreferredProperties.partitionedWithNullsReplicated(ImmutableSet.copyOf(filteringSourceSymbols))));
 
-                    if (filteringSource.getProperties().isNodePartitionedOn(filteringSourceSymbols, true) && !(filteringSource.getProperties().isSingleNode() && distributedJoins)) {
+                    if (filteringSource.getProperties().isNodePartitionedOn(filteringSourceSymbols, true) && !(filteringSource.getProperties().isSingleNode() && distributedJoin)) {
                         Partitioning sourcePartitioning = filteringSource.getProperties().translate(createTranslator(filteringToSource)).getNodePartitioning().get();
                         source = withDerivedProperties(
                                 partitionedExchange(idAllocator.getNextId(), REMOTE, source.getNode(), new PartitioningScheme(sourcePartitioning, source.getNode().getOutputSymbols())),
@@ -936,7 +984,7 @@ public class AddExchanges
                 }
             }
 
-            return rebaseAndDeriveProperties(node, ImmutableList.of(source, filteringSource));
+            return rebaseAndDeriveProperties(node.withDistributionType(partitioned ? PARTITIONED : REPLICATED), ImmutableList.of(source, filteringSource));
         }
 
         @Override
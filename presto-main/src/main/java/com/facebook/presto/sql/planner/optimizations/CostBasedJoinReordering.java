@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.cost.StatsCalculator;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.SymbolAllocator;
+import com.facebook.presto.sql.planner.optimizations.joins.JoinGraph;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.SystemSessionProperties.isCostBasedJoinEnabled;
+import static com.facebook.presto.sql.planner.optimizations.EliminateCrossJoins.isOriginalOrder;
+import static com.facebook.presto.sql.planner.optimizations.EliminateCrossJoins.rewriteJoinOrder;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reorders inner joins based on the estimated row counts of the joined relations,
+ * so that the largest relation is streamed through the probe side and every
+ * join builds a hash table on the smallest relation that is connected by a join
+ * condition to the relations joined so far.
+ */
+public class CostBasedJoinReordering
+        implements PlanOptimizer
+{
+    private final StatsCalculator statsCalculator;
+
+    public CostBasedJoinReordering(Metadata metadata)
+    {
+        this.statsCalculator = new StatsCalculator(requireNonNull(metadata, "metadata is null"));
+    }
+
+    @Override
+    public PlanNode optimize(
+            PlanNode plan,
+            Session session,
+            Map<Symbol, Type> types,
+            SymbolAllocator symbolAllocator,
+            PlanNodeIdAllocator idAllocator)
+    {
+        if (!isCostBasedJoinEnabled(session)) {
+            return plan;
+        }
+
+        List<JoinGraph> joinGraphs = JoinGraph.buildFrom(plan);
+
+        for (int i = joinGraphs.size() - 1; i >= 0; i--) {
+            JoinGraph graph = joinGraphs.get(i);
+
+            ImmutableList.Builder<Double> rowCounts = ImmutableList.builder();
+            boolean rowCountsKnown = true;
+            for (PlanNode node : graph.getNodes()) {
+                Estimate rowCount = statsCalculator.calculateStats(node, session).getOutputRowCount();
+                if (rowCount.isValueUnknown()) {
+                    rowCountsKnown = false;
+                    break;
+                }
+                rowCounts.add(rowCount.getValue());
+            }
+            if (!rowCountsKnown) {
+                continue;
+            }
+
+            List<Integer> joinOrder = getJoinOrder(graph, rowCounts.build());
+            if (isOriginalOrder(joinOrder)) {
+                continue;
+            }
+
+            plan = rewriteJoinOrder(plan, graph, joinOrder, idAllocator);
+        }
+
+        return plan;
+    }
+
+    /**
+     * Orders the graph nodes starting from the node with the most rows. Every next node
+     * is the one with the fewest rows among the nodes which have a join condition with the
+     * nodes already joined, so that cross joins are only introduced for disconnected graphs.
+     */
+    public static List<Integer> getJoinOrder(JoinGraph graph, List<Double> rowCounts)
+    {
+        checkArgument(graph.size() == rowCounts.size(), "rowCounts does not match graph size");
+
+        Map<PlanNodeId, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < graph.size(); i++) {
+            indexes.put(graph.getNode(i).getId(), i);
+        }
+
+        int first = 0;
+        for (int i = 1; i < graph.size(); i++) {
+            if (rowCounts.get(i) > rowCounts.get(first)) {
+                first = i;
+            }
+        }
+
+        boolean[] joined = new boolean[graph.size()];
+        boolean[] connected = new boolean[graph.size()];
+        ImmutableList.Builder<Integer> joinOrder = ImmutableList.builder();
+
+        int next = first;
+        for (int count = 0; count < graph.size(); count++) {
+            joined[next] = true;
+            joinOrder.add(next);
+            for (JoinGraph.Edge edge : graph.getEdges(graph.getNode(next))) {
+                connected[indexes.get(edge.getTargetNode().getId())] = true;
+            }
+
+            next = -1;
+            boolean nextConnected = false;
+            for (int i = 0; i < graph.size(); i++) {
+                if (joined[i]) {
+                    continue;
+                }
+                // prefer nodes connected by a join condition, and then the smallest ones
+                if (next == -1 ||
+                        (connected[i] && !nextConnected) ||
+                        (connected[i] == nextConnected && rowCounts.get(i) < rowCounts.get(next))) {
+                    next = i;
+                    nextConnected = connected[i];
+                }
+            }
+        }
+
+        return joinOrder.build();
+    }
+}
@@ -68,12 +68,21 @@ public class EliminateCrossJoins
                 continue;
             }
 
-            plan = rewriteWith(new Rewriter(idAllocator, graph, joinOrder), plan);
+            plan = rewriteJoinOrder(plan, graph, joinOrder, idAllocator);
         }
 
         return plan;
     }
 
+    /**
+     * Replaces the joins of the graph in the plan with a left deep tree of
+     * joins of the graph nodes in the given order.
+     */
+    public static PlanNode rewriteJoinOrder(PlanNode plan, JoinGraph graph, List<Integer> joinOrder, PlanNodeIdAllocator idAllocator)
+    {
+        return rewriteWith(new Rewriter(idAllocator, graph, joinOrder), plan);
+    }
+
     public static boolean isOriginalOrder(List<Integer> joinOrder)
     {
         for (int i = 0; i < joinOrder.size(); i++) {
@@ -134,7 +143,7 @@ public class EliminateCrossJoins
                 .collect(toImmutableList());
     }
 
-    private class Rewriter
+    private static class Rewriter
             extends SimplePlanRewriter<PlanNode>
     {
         private final PlanNodeIdAllocator idAllocator;
@@ -187,6 +196,7 @@ public class EliminateCrossJoins
                                 .build(),
                         Optional.empty(),
                         Optional.empty(),
+                        Optional.empty(),
                         Optional.empty());
             }
 
@@ -344,7 +344,8 @@ public class HashGenerationOptimizer
                             outputSymbols,
                             node.getFilter(),
                             leftHashSymbol,
-                            rightHashSymbol),
+                            rightHashSymbol,
+                            node.getDistributionType()),
                     hashSymbolsWithParentPreferences);
         }
 
@@ -373,7 +374,8 @@ public class HashGenerationOptimizer
                             node.getFilteringSourceJoinSymbol(),
                             node.getSemiJoinOutput(),
                             Optional.of(sourceHashSymbol),
-                            Optional.of(filteringSourceHashSymbol)),
+                            Optional.of(filteringSourceHashSymbol),
+                            node.getDistributionType()),
                     source.getHashSymbols());
         }
 
@@ -65,6 +65,7 @@ public class TransformUncorrelatedScalarToJoin
                                 .build(),
                         Optional.empty(),
                         Optional.empty(),
+                        Optional.empty(),
                         Optional.empty());
             }
             return rewrittenNode;
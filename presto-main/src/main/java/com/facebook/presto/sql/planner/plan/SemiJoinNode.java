@@ -37,6 +37,7 @@ public class SemiJoinNode
     private final Symbol semiJoinOutput;
     private final Optional<Symbol> sourceHashSymbol;
     private final Optional<Symbol> filteringSourceHashSymbol;
+    private final Optional<JoinNode.DistributionType> distributionType;
 
     @JsonCreator
     public SemiJoinNode(@JsonProperty("id") PlanNodeId id,
@@ -46,7 +47,8 @@ public class SemiJoinNode
             @JsonProperty("filteringSourceJoinSymbol") Symbol filteringSourceJoinSymbol,
             @JsonProperty("semiJoinOutput") Symbol semiJoinOutput,
             @JsonProperty("sourceHashSymbol") Optional<Symbol> sourceHashSymbol,
-            @JsonProperty("filteringSourceHashSymbol") Optional<Symbol> filteringSourceHashSymbol)
+            @JsonProperty("filteringSourceHashSymbol") Optional<Symbol> filteringSourceHashSymbol,
+            @JsonProperty("distributionType") Optional<JoinNode.DistributionType> distributionType)
     {
         super(id);
         this.source = requireNonNull(source, "source is null");
@@ -56,6 +58,7 @@ public class SemiJoinNode
         this.semiJoinOutput = requireNonNull(semiJoinOutput, "semiJoinOutput is null");
         this.sourceHashSymbol = requireNonNull(sourceHashSymbol, "sourceHashSymbol is null");
         this.filteringSourceHashSymbol = requireNonNull(filteringSourceHashSymbol, "filteringSourceHashSymbol is null");
+        this.distributionType = requireNonNull(distributionType, "distributionType is null");
 
         checkArgument(source.getOutputSymbols().contains(sourceJoinSymbol), "Source does not contain join symbol");
         checkArgument(filteringSource.getOutputSymbols().contains(filteringSourceJoinSymbol), "Filtering source does not contain filtering join symbol");
@@ -103,6 +106,12 @@ public class SemiJoinNode
         return filteringSourceHashSymbol;
     }
 
+    @JsonProperty("distributionType")
+    public Optional<JoinNode.DistributionType> getDistributionType()
+    {
+        return distributionType;
+    }
+
     @Override
     public List<PlanNode> getSources()
     {
@@ -128,6 +137,11 @@ public class SemiJoinNode
     public PlanNode replaceChildren(List<PlanNode> newChildren)
     {
         checkArgument(newChildren.size() == 2, "expected newChildren to contain 2 nodes");
-        return new SemiJoinNode(getId(), newChildren.get(0), newChildren.get(1), sourceJoinSymbol, filteringSourceJoinSymbol, semiJoinOutput, sourceHashSymbol, filteringSourceHashSymbol);
+        return new SemiJoinNode(getId(), newChildren.get(0), newChildren.get(1), sourceJoinSymbol, filteringSourceJoinSymbol, semiJoinOutput, sourceHashSymbol, filteringSourceHashSymbol, distributionType);
+    }
+
+    public SemiJoinNode withDistributionType(JoinNode.DistributionType distributionType)
+    {
+        return new SemiJoinNode(getId(), source, filteringSource, sourceJoinSymbol, filteringSourceJoinSymbol, semiJoinOutput, sourceHashSymbol, filteringSourceHashSymbol, Optional.of(distributionType));
     }
 }
@@ -14,11 +14,11 @@
 package com.facebook.presto.type;
 
 import com.facebook.presto.spi.ConnectorSession;
-import com.facebook.presto.spi.block.ArrayBlockBuilder;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
-import com.facebook.presto.spi.block.InterleavedBlockBuilder;
+import com.facebook.presto.spi.block.MapBlockBuilder;
+import com.facebook.presto.spi.block.SingleMapBlock;
 import com.facebook.presto.spi.type.AbstractType;
 import com.facebook.presto.spi.type.StandardTypes;
 import com.facebook.presto.spi.type.Type;
@@ -57,10 +57,7 @@ public class MapType
     @Override
     public BlockBuilder createBlockBuilder(BlockBuilderStatus blockBuilderStatus, int expectedEntries, int expectedBytesPerEntry)
     {
-        return new ArrayBlockBuilder(
-                new InterleavedBlockBuilder(getTypeParameters(), blockBuilderStatus, expectedEntries * 2, expectedBytesPerEntry),
-                blockBuilderStatus,
-                expectedEntries);
+        return new MapBlockBuilder(keyType, valueType, blockBuilderStatus, expectedEntries, expectedBytesPerEntry);
     }
 
     @Override
@@ -108,6 +105,20 @@ public class MapType
             return false;
         }
 
+        if (leftMapBlock instanceof SingleMapBlock) {
+            SingleMapBlock leftSingleMapBlock = (SingleMapBlock) leftMapBlock;
+            for (int position = 0; position < rightMapBlock.getPositionCount(); position += 2) {
+                int leftValuePosition = leftSingleMapBlock.seekKey(rightMapBlock, position);
+                if (leftValuePosition == -1) {
+                    return false;
+                }
+                if (!valueEqualTo(leftMapBlock, leftValuePosition, rightMapBlock, position + 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         Map<KeyWrapper, Integer> wrappedLeftMap = new HashMap<>();
         for (int position = 0; position < leftMapBlock.getPositionCount(); position += 2) {
             wrappedLeftMap.put(new KeyWrapper(keyType, leftMapBlock, position), position + 1);
@@ -119,17 +130,21 @@ public class MapType
             if (leftValuePosition == null) {
                 return false;
             }
-            int rightValuePosition = position + 1;
-            checkElementNotNull(leftMapBlock.isNull(leftValuePosition), MAP_NULL_ELEMENT_MSG);
-            checkElementNotNull(rightMapBlock.isNull(rightValuePosition), MAP_NULL_ELEMENT_MSG);
-
-            if (!valueType.equalTo(leftMapBlock, leftValuePosition, rightMapBlock, rightValuePosition)) {
+            if (!valueEqualTo(leftMapBlock, leftValuePosition, rightMapBlock, position + 1)) {
                 return false;
             }
         }
         return true;
     }
 
+    private boolean valueEqualTo(Block leftMapBlock, int leftValuePosition, Block rightMapBlock, int rightValuePosition)
+    {
+        checkElementNotNull(leftMapBlock.isNull(leftValuePosition), MAP_NULL_ELEMENT_MSG);
+        checkElementNotNull(rightMapBlock.isNull(rightValuePosition), MAP_NULL_ELEMENT_MSG);
+
+        return valueType.equalTo(leftMapBlock, leftValuePosition, rightMapBlock, rightValuePosition);
+    }
+
     private static final class KeyWrapper
     {
         private final Type type;
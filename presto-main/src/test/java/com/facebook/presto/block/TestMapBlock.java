@@ -0,0 +1,232 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.SingleMapBlock;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.type.MapType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.TypeUtils.writeNativeValue;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestMapBlock
+        extends AbstractTestBlock
+{
+    private static final int[] MAP_SIZES = new int[] {16, 0, 13, 1, 2, 11, 4, 7};
+    private static final MapType MAP_TYPE = new MapType(VARCHAR, BIGINT);
+
+    @Test
+    public void testWithVarcharKeys()
+    {
+        Map<String, Long>[] expectedValues = createExpectedValues();
+
+        BlockBuilder blockBuilder = createBlockBuilderWithValues(expectedValues);
+        assertBlock(blockBuilder, expectedValues);
+        assertBlock(blockBuilder.build(), expectedValues);
+        assertBlockFilteredPositions(expectedValues, blockBuilder.build(), Ints.asList(0, 1, 3, 4, 7));
+        assertBlockFilteredPositions(expectedValues, blockBuilder.build(), Ints.asList(2, 3, 5, 6));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Long>[] expectedValuesWithNull = (Map<String, Long>[]) alternatingNullValues(expectedValues);
+        BlockBuilder blockBuilderWithNull = createBlockBuilderWithValues(expectedValuesWithNull);
+        assertBlock(blockBuilderWithNull, expectedValuesWithNull);
+        assertBlock(blockBuilderWithNull.build(), expectedValuesWithNull);
+        assertBlockFilteredPositions(expectedValuesWithNull, blockBuilderWithNull.build(), Ints.asList(0, 1, 5, 6, 7, 10, 11, 12, 15));
+        assertBlockFilteredPositions(expectedValuesWithNull, blockBuilderWithNull.build(), Ints.asList(2, 3, 4, 9, 13, 14));
+    }
+
+    @Test
+    public void testWriteInterleavedMaps()
+    {
+        Map<String, Long>[] expectedValues = createExpectedValues();
+
+        // maps written as interleaved key/value blocks, e.g. by map functions
+        BlockBuilder blockBuilder = MAP_TYPE.createBlockBuilder(new BlockBuilderStatus(), MAP_SIZES.length);
+        Block maps = createBlockBuilderWithValues(expectedValues).build();
+        for (int position = 0; position < maps.getPositionCount(); position++) {
+            Block map = MAP_TYPE.getObject(maps, position);
+            Block interleavedMap = map.copyRegion(0, map.getPositionCount());
+            MAP_TYPE.writeObject(blockBuilder, interleavedMap);
+        }
+        assertBlock(blockBuilder.build(), expectedValues);
+    }
+
+    @Test
+    public void testSeekKey()
+    {
+        Map<String, Long> expectedValue = new HashMap<>();
+        for (long i = 0; i < 1000; i++) {
+            expectedValue.put("key" + i, i);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Long>[] expectedValues = new Map[] {expectedValue};
+        SingleMapBlock map = (SingleMapBlock) MAP_TYPE.getObject(createBlockBuilderWithValues(expectedValues).build(), 0);
+
+        for (long i = 0; i < 1000; i++) {
+            int valuePosition = map.seekKey(utf8Slice("key" + i));
+            assertEquals(BIGINT.getLong(map, valuePosition), i);
+        }
+        assertEquals(map.seekKey(utf8Slice("key1000")), -1);
+        assertEquals(map.seekKey(utf8Slice("")), -1);
+    }
+
+    @Test
+    public void testSeekKeyExact()
+    {
+        // maps of a block builder are searched without hash tables
+        BlockBuilder doubleMaps = createMapBlockBuilder(new MapType(DOUBLE, BIGINT), DOUBLE, ImmutableList.of(-0.0, 1.5, -2.5));
+        assertSeekDoubleKeys(doubleMaps);
+        assertSeekDoubleKeys(doubleMaps.build());
+        doubleMaps = createMapBlockBuilder(new MapType(DOUBLE, BIGINT), DOUBLE, ImmutableList.of(0.0, 1.5, -2.5));
+        assertSeekDoubleKeys(doubleMaps);
+        assertSeekDoubleKeys(doubleMaps.build());
+
+        SingleMapBlock bigintMap = (SingleMapBlock) new MapType(BIGINT, BIGINT).getObject(createMapBlockBuilder(new MapType(BIGINT, BIGINT), BIGINT, ImmutableList.of(5L, -7L, 1L << 40)).build(), 0);
+        assertEquals(BIGINT.getLong(bigintMap, bigintMap.seekKeyExact(1L << 40)), 2L);
+        assertEquals(BIGINT.getLong(bigintMap, bigintMap.seekKeyExact(-7L)), 1L);
+        assertEquals(bigintMap.seekKeyExact(6L), -1);
+
+        SingleMapBlock integerMap = (SingleMapBlock) new MapType(INTEGER, BIGINT).getObject(createMapBlockBuilder(new MapType(INTEGER, BIGINT), INTEGER, ImmutableList.of(5L, -7L)).build(), 0);
+        assertEquals(BIGINT.getLong(integerMap, integerMap.seekKeyExact(-7L)), 1L);
+        assertEquals(integerMap.seekKeyExact(7L), -1);
+
+        SingleMapBlock booleanMap = (SingleMapBlock) new MapType(BOOLEAN, BIGINT).getObject(createMapBlockBuilder(new MapType(BOOLEAN, BIGINT), BOOLEAN, ImmutableList.of(true)).build(), 0);
+        assertEquals(BIGINT.getLong(booleanMap, booleanMap.seekKeyExact(true)), 0L);
+        assertEquals(booleanMap.seekKeyExact(false), -1);
+
+        SingleMapBlock varcharMap = (SingleMapBlock) MAP_TYPE.getObject(createMapBlockBuilder(MAP_TYPE, VARCHAR, ImmutableList.of(utf8Slice("a"), utf8Slice("bc"))).build(), 0);
+        assertEquals(BIGINT.getLong(varcharMap, varcharMap.seekKeyExact(utf8Slice("bc"))), 1L);
+        assertEquals(varcharMap.seekKeyExact(utf8Slice("b")), -1);
+    }
+
+    private static void assertSeekDoubleKeys(Block maps)
+    {
+        SingleMapBlock map = (SingleMapBlock) maps.getObject(0, Block.class);
+        // 0.0 and -0.0 are equal keys
+        assertEquals(BIGINT.getLong(map, map.seekKeyExact(0.0)), 0L);
+        assertEquals(BIGINT.getLong(map, map.seekKeyExact(-0.0)), 0L);
+        assertEquals(BIGINT.getLong(map, map.seekKeyExact(-2.5)), 2L);
+        assertEquals(map.seekKeyExact(2.5), -1);
+        assertEquals(map.seekKeyExact(Double.NaN), -1);
+    }
+
+    // a single map from the keys to their indexes
+    private static BlockBuilder createMapBlockBuilder(MapType mapType, Type keyType, List<?> keys)
+    {
+        BlockBuilder blockBuilder = mapType.createBlockBuilder(new BlockBuilderStatus(), 1);
+        BlockBuilder entryBuilder = blockBuilder.beginBlockEntry();
+        for (int i = 0; i < keys.size(); i++) {
+            writeNativeValue(keyType, entryBuilder, keys.get(i));
+            BIGINT.writeLong(entryBuilder, i);
+        }
+        blockBuilder.closeEntry();
+        return blockBuilder;
+    }
+
+    @Test
+    public void testRetainedSizeWithHashTables()
+    {
+        Map<String, Long> expectedValue = new HashMap<>();
+        for (long i = 0; i < 1000; i++) {
+            expectedValue.put("key" + i, i);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Long>[] expectedValues = new Map[] {expectedValue};
+        Block block = createBlockBuilderWithValues(expectedValues).build();
+        int retainedSizeWithoutHashTables = block.getRetainedSizeInBytes();
+
+        // the hash tables are built by the first lookup, with two slots per key
+        SingleMapBlock map = (SingleMapBlock) MAP_TYPE.getObject(block, 0);
+        assertTrue(map.seekKey(utf8Slice("key0")) > 0);
+        assertEquals(block.getRetainedSizeInBytes(), retainedSizeWithoutHashTables + sizeOf(new int[1000 * 2]));
+    }
+
+    @Override
+    protected <T> void assertPositionValue(Block block, int position, T expectedValue)
+    {
+        if (!(expectedValue instanceof Map)) {
+            super.assertPositionValue(block, position, expectedValue);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Long> expected = (Map<String, Long>) expectedValue;
+        Block actual = block.getObject(position, Block.class);
+        assertEquals(actual.getPositionCount(), expected.size() * 2);
+
+        Map<String, Long> actualValues = new HashMap<>();
+        for (int i = 0; i < actual.getPositionCount(); i += 2) {
+            actualValues.put(VARCHAR.getSlice(actual, i).toStringUtf8(), BIGINT.getLong(actual, i + 1));
+        }
+        assertEquals(actualValues, expected);
+
+        assertTrue(actual instanceof SingleMapBlock);
+        SingleMapBlock singleMapBlock = (SingleMapBlock) actual;
+        for (Map.Entry<String, Long> entry : expected.entrySet()) {
+            int valuePosition = singleMapBlock.seekKey(utf8Slice(entry.getKey()));
+            assertEquals(BIGINT.getLong(actual, valuePosition), (long) entry.getValue());
+        }
+        assertEquals(singleMapBlock.seekKey(utf8Slice("missing")), -1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Long>[] createExpectedValues()
+    {
+        Map<String, Long>[] expectedValues = new Map[MAP_SIZES.length];
+        for (int i = 0; i < MAP_SIZES.length; i++) {
+            expectedValues[i] = new HashMap<>();
+            for (int j = 0; j < MAP_SIZES[i]; j++) {
+                expectedValues[i].put(String.format("%d.%d", i, j), (long) (i * 100 + j));
+            }
+        }
+        return expectedValues;
+    }
+
+    private static BlockBuilder createBlockBuilderWithValues(Map<String, Long>[] expectedValues)
+    {
+        BlockBuilder blockBuilder = MAP_TYPE.createBlockBuilder(new BlockBuilderStatus(), 100);
+        for (Map<String, Long> expectedValue : expectedValues) {
+            if (expectedValue == null) {
+                blockBuilder.appendNull();
+            }
+            else {
+                BlockBuilder entryBuilder = blockBuilder.beginBlockEntry();
+                for (Map.Entry<String, Long> entry : expectedValue.entrySet()) {
+                    VARCHAR.writeSlice(entryBuilder, utf8Slice(entry.getKey()));
+                    BIGINT.writeLong(entryBuilder, entry.getValue());
+                }
+                blockBuilder.closeEntry();
+            }
+        }
+        return blockBuilder;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.LimitNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.facebook.presto.sql.tree.BooleanLiteral;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.LongLiteral;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.REMOTE;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.gatheringExchange;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestStatsCalculator
+{
+    private final StatsCalculator statsCalculator = new StatsCalculator(createTestMetadataManager());
+    private final PlanNodeIdAllocator idAllocator = new PlanNodeIdAllocator();
+
+    @Test
+    public void testValues()
+    {
+        PlanNodeStatsEstimate stats = calculateStats(values("a", 4));
+        assertEquals(stats.getOutputRowCount(), new Estimate(4));
+        assertTrue(stats.getDistinctValuesCount(new Symbol("a")).isValueUnknown());
+    }
+
+    @Test
+    public void testFilterAndLimit()
+    {
+        PlanNode filter = new FilterNode(idAllocator.getNextId(), values("a", 10), BooleanLiteral.TRUE_LITERAL);
+        assertEquals(calculateStats(filter).getOutputRowCount(), new Estimate(5));
+
+        assertEquals(calculateStats(new LimitNode(idAllocator.getNextId(), filter, 2, false)).getOutputRowCount(), new Estimate(2));
+        assertEquals(calculateStats(new LimitNode(idAllocator.getNextId(), filter, 20, false)).getOutputRowCount(), new Estimate(5));
+    }
+
+    @Test
+    public void testJoin()
+    {
+        assertEquals(calculateStats(join(JoinNode.Type.INNER, values("a", 10), values("b", 4), "a", "b")).getOutputRowCount(), new Estimate(10));
+        assertEquals(calculateStats(join(JoinNode.Type.INNER, values("a", 10), values("b", 4))).getOutputRowCount(), new Estimate(40));
+        assertEquals(calculateStats(join(JoinNode.Type.FULL, values("a", 10), values("b", 4), "a", "b")).getOutputRowCount(), new Estimate(14));
+    }
+
+    @Test
+    public void testExchange()
+    {
+        PlanNode exchange = gatheringExchange(idAllocator.getNextId(), REMOTE, join(JoinNode.Type.INNER, values("a", 10), values("b", 4), "a", "b"));
+        assertEquals(calculateStats(exchange).getOutputRowCount(), new Estimate(10));
+    }
+
+    @Test
+    public void testOutputSizeInBytes()
+    {
+        PlanNodeStatsEstimate stats = new PlanNodeStatsEstimate(new Estimate(10), ImmutableMap.of());
+        Symbol a = new Symbol("a");
+        Symbol b = new Symbol("b");
+        assertEquals(stats.getOutputSizeInBytes(ImmutableList.of(a, b), ImmutableMap.of(a, BIGINT, b, VARCHAR)), new Estimate(10 * (8 + 16)));
+        assertTrue(PlanNodeStatsEstimate.UNKNOWN_STATS.getOutputSizeInBytes(ImmutableList.of(a), ImmutableMap.of(a, BIGINT)).isValueUnknown());
+    }
+
+    private PlanNodeStatsEstimate calculateStats(PlanNode node)
+    {
+        return statsCalculator.calculateStats(node, TEST_SESSION);
+    }
+
+    private JoinNode join(JoinNode.Type type, PlanNode left, PlanNode right, String... symbols)
+    {
+        ImmutableList.Builder<JoinNode.EquiJoinClause> criteria = ImmutableList.builder();
+        for (int i = 0; i < symbols.length; i += 2) {
+            criteria.add(new JoinNode.EquiJoinClause(new Symbol(symbols[i]), new Symbol(symbols[i + 1])));
+        }
+
+        return new JoinNode(
+                idAllocator.getNextId(),
+                type,
+                left,
+                right,
+                criteria.build(),
+                ImmutableList.<Symbol>builder()
+                        .addAll(left.getOutputSymbols())
+                        .addAll(right.getOutputSymbols())
+                        .build(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty());
+    }
+
+    private ValuesNode values(String symbol, int rowCount)
+    {
+        ImmutableList.Builder<List<Expression>> rows = ImmutableList.builder();
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(ImmutableList.of(new LongLiteral(String.valueOf(i))));
+        }
+        return new ValuesNode(idAllocator.getNextId(), ImmutableList.of(new Symbol(symbol)), rows.build());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.memory.MemoryPool;
+import com.facebook.presto.memory.QueryContext;
+import com.facebook.presto.operator.DriverContext;
+import com.facebook.presto.operator.OperatorContext;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolId;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestMemoryRevokingScheduler
+{
+    private static final long ONE_MEGABYTE = new DataSize(1, MEGABYTE).toBytes();
+
+    private ScheduledExecutorService executor;
+    private MemoryPool memoryPool;
+    private QueryContext queryContext;
+    private DriverContext driverContext;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        executor = newSingleThreadScheduledExecutor(daemonThreadsNamed("test-%s"));
+        memoryPool = new MemoryPool(new MemoryPoolId("test"), new DataSize(10, MEGABYTE));
+        MemoryPool systemMemoryPool = new MemoryPool(new MemoryPoolId("testSystem"), new DataSize(10, MEGABYTE));
+        queryContext = new QueryContext(new QueryId("query"), new DataSize(10, MEGABYTE), memoryPool, systemMemoryPool, executor);
+        driverContext = createTaskContext(queryContext, executor, TEST_SESSION)
+                .addPipelineContext(0, true, true)
+                .addDriverContext();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRevokesLargestReservationsFirst()
+    {
+        OperatorContext small = addOperatorContext(0, 2 * ONE_MEGABYTE);
+        OperatorContext large = addOperatorContext(1, 5 * ONE_MEGABYTE);
+        OperatorContext medium = addOperatorContext(2, 3 * ONE_MEGABYTE);
+        assertEquals(memoryPool.getReservedRevocableBytes(), 10 * ONE_MEGABYTE);
+
+        MemoryRevokingScheduler scheduler = createScheduler();
+        scheduler.requestMemoryRevokingIfNeeded();
+
+        // 5MB have to be revoked to get back to the target of 50%
+        assertTrue(large.isMemoryRevokingRequested());
+        assertFalse(medium.isMemoryRevokingRequested());
+        assertFalse(small.isMemoryRevokingRequested());
+
+        // pending requests count towards the memory to revoke
+        scheduler.requestMemoryRevokingIfNeeded();
+        assertFalse(medium.isMemoryRevokingRequested());
+        assertFalse(small.isMemoryRevokingRequested());
+
+        // a memory increase while the request is pending requires more operators to spill
+        medium.setRevocableMemoryReservation(4 * ONE_MEGABYTE);
+        scheduler.requestMemoryRevokingIfNeeded();
+        assertTrue(medium.isMemoryRevokingRequested());
+        assertFalse(small.isMemoryRevokingRequested());
+    }
+
+    @Test
+    public void testNoRevokingBelowThreshold()
+    {
+        OperatorContext operatorContext = addOperatorContext(0, 8 * ONE_MEGABYTE);
+
+        createScheduler().requestMemoryRevokingIfNeeded();
+        assertFalse(operatorContext.isMemoryRevokingRequested());
+    }
+
+    @Test
+    public void testNoRevokingWithoutRevocableMemory()
+    {
+        OperatorContext operatorContext = driverContext.addOperatorContext(0, new PlanNodeId("test"), "test");
+        operatorContext.reserveMemory(9 * ONE_MEGABYTE);
+
+        createScheduler().requestMemoryRevokingIfNeeded();
+        assertFalse(operatorContext.isMemoryRevokingRequested());
+        assertEquals(operatorContext.requestMemoryRevoking(), 0);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testReservationTriggersRevoking()
+            throws Exception
+    {
+        OperatorContext operatorContext = addOperatorContext(0, ONE_MEGABYTE);
+
+        MemoryRevokingScheduler scheduler = createScheduler();
+        scheduler.start();
+        try {
+            operatorContext.setRevocableMemoryReservation(10 * ONE_MEGABYTE);
+            operatorContext.getMemoryRevokingRequestedFuture().get(10, SECONDS);
+            assertTrue(operatorContext.isMemoryRevokingRequested());
+
+            operatorContext.setRevocableMemoryReservation(0);
+            operatorContext.resetMemoryRevokingRequested();
+            assertFalse(operatorContext.isMemoryRevokingRequested());
+            assertEquals(memoryPool.getReservedRevocableBytes(), 0);
+        }
+        finally {
+            scheduler.stop();
+        }
+    }
+
+    private OperatorContext addOperatorContext(int operatorId, long revocableBytes)
+    {
+        OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, new PlanNodeId("test"), "test");
+        operatorContext.setRevocableMemoryReservation(revocableBytes);
+        return operatorContext;
+    }
+
+    private MemoryRevokingScheduler createScheduler()
+    {
+        return new MemoryRevokingScheduler(ImmutableList.of(memoryPool), () -> ImmutableList.of(queryContext), executor, 0.9, 0.5);
+    }
+}
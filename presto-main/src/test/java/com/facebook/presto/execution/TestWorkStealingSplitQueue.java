@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestWorkStealingSplitQueue
+{
+    @Test
+    public void testLevelPriority()
+            throws Exception
+    {
+        WorkStealingSplitQueue<String> queue = new WorkStealingSplitQueue<>(1, 3);
+        queue.offer("level2", 2, 0);
+        queue.offer("level1-a", 1, 0);
+        queue.offer("level0", 0, 0);
+        queue.offer("level1-b", 1, 0);
+        assertEquals(queue.size(), 4);
+        assertEquals(queue.size(1), 2);
+
+        assertEquals(queue.take(0), "level0");
+        assertEquals(queue.take(0), "level1-a");
+        assertEquals(queue.take(0), "level1-b");
+        assertEquals(queue.take(0), "level2");
+        assertEquals(queue.size(), 0);
+        assertEquals(queue.getSteals(), 0);
+    }
+
+    @Test
+    public void testSteal()
+            throws Exception
+    {
+        WorkStealingSplitQueue<String> queue = new WorkStealingSplitQueue<>(3, 2);
+        queue.offer("local", 1, 0);
+        queue.offer("remote", 0, 2);
+
+        // a lower level is taken from another runner before the local queue of a higher level
+        assertEquals(queue.take(0), "remote");
+        assertEquals(queue.getSteals(), 1);
+        assertEquals(queue.take(1), "local");
+        assertEquals(queue.getSteals(), 2);
+    }
+
+    @Test
+    public void testRoundRobin()
+            throws Exception
+    {
+        WorkStealingSplitQueue<Integer> queue = new WorkStealingSplitQueue<>(2, 1);
+        queue.offer(1, 0);
+        queue.offer(2, 0);
+        assertEquals(queue.take(0).intValue(), 1);
+        assertEquals(queue.take(1).intValue(), 2);
+        assertEquals(queue.getSteals(), 0);
+    }
+
+    @Test
+    public void testTakeWaitsForItem()
+            throws Exception
+    {
+        WorkStealingSplitQueue<String> queue = new WorkStealingSplitQueue<>(2, 1);
+        ExecutorService executor = newSingleThreadExecutor(daemonThreadsNamed("test-%s"));
+        try {
+            Future<String> taken = executor.submit(() -> queue.take(0));
+            MILLISECONDS.sleep(100);
+            assertFalse(taken.isDone());
+
+            queue.offer("split", 0, 1);
+            assertEquals(taken.get(10, SECONDS), "split");
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentOffersAndTakes()
+            throws Exception
+    {
+        int runners = 4;
+        int itemsPerRunner = 10_000;
+        WorkStealingSplitQueue<Integer> queue = new WorkStealingSplitQueue<>(runners, 2);
+        ExecutorService executor = newFixedThreadPool(runners * 2, daemonThreadsNamed("test-%s"));
+        try {
+            List<Future<Set<Integer>>> takers = new ArrayList<>();
+            for (int runner = 0; runner < runners; runner++) {
+                int offeringRunner = runner;
+                int takingRunner = runner;
+                executor.submit(() -> {
+                    for (int i = 0; i < itemsPerRunner; i++) {
+                        queue.offer(offeringRunner * itemsPerRunner + i, i % 2, offeringRunner);
+                    }
+                });
+                takers.add(executor.submit(() -> {
+                    Set<Integer> taken = new HashSet<>();
+                    for (int i = 0; i < itemsPerRunner; i++) {
+                        taken.add(queue.take(takingRunner));
+                    }
+                    return taken;
+                }));
+            }
+
+            // every item is taken exactly once
+            Set<Integer> taken = new HashSet<>();
+            for (Future<Set<Integer>> taker : takers) {
+                taken.addAll(taker.get(30, SECONDS));
+            }
+            assertEquals(taken.size(), runners * itemsPerRunner);
+            assertEquals(queue.size(), 0);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -18,22 +18,35 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.TestingBlockEncodingSerde;
+import com.facebook.presto.spi.type.TestingTypeManager;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
+import static com.facebook.presto.execution.buffer.PageCompression.LZ4;
+import static com.facebook.presto.execution.buffer.PageCompression.UNCOMPRESSED;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readPages;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readSerializedPages;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writePages;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeSerializedPages;
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.testing.Assertions.assertContains;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.fail;
 
 public class TestPagesSerde
 {
@@ -61,6 +74,89 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testCompressionCodecs()
+    {
+        Page page = createCompressiblePage();
+        // the receiver picks the decompressor from the page, regardless of its own codec
+        PagesSerde deserializer = createPagesSerde(UNCOMPRESSED, false);
+        for (PageCompression compression : PageCompression.values()) {
+            SerializedPage serializedPage = createPagesSerde(compression, false).serialize(page);
+            assertEquals(serializedPage.getCompression(), compression);
+            assertEquals(PageCompression.lookupCodecFromMarker(compression.getMarker()), compression);
+            assertPageEquals(ImmutableList.of(VARCHAR), deserializer.deserialize(serializedPage), page);
+        }
+    }
+
+    @Test
+    public void testAdaptiveCompression()
+    {
+        Page compressiblePage = createCompressiblePage();
+        Page randomPage = createRandomPage();
+
+        PagesSerde serde = createPagesSerde(LZ4, true);
+        assertEquals(serde.serialize(randomPage).getCompression(), UNCOMPRESSED);
+        // compression is skipped for the page after one that did not shrink
+        assertEquals(serde.serialize(compressiblePage).getCompression(), UNCOMPRESSED);
+        assertEquals(serde.serialize(compressiblePage).getCompression(), LZ4);
+
+        // back off longer after repeated failures
+        assertEquals(serde.serialize(randomPage).getCompression(), UNCOMPRESSED);
+        assertEquals(serde.serialize(compressiblePage).getCompression(), UNCOMPRESSED);
+        assertEquals(serde.serialize(randomPage).getCompression(), UNCOMPRESSED);
+        assertEquals(serde.serialize(compressiblePage).getCompression(), UNCOMPRESSED);
+        assertEquals(serde.serialize(compressiblePage).getCompression(), UNCOMPRESSED);
+        assertEquals(serde.serialize(compressiblePage).getCompression(), LZ4);
+
+        serde = createPagesSerde(LZ4, false);
+        assertEquals(serde.serialize(randomPage).getCompression(), UNCOMPRESSED);
+        assertEquals(serde.serialize(compressiblePage).getCompression(), LZ4);
+    }
+
+    @Test
+    public void testStreamRoundTrip()
+            throws Exception
+    {
+        PagesSerde serde = createPagesSerde(LZ4, false);
+        List<SerializedPage> pages = ImmutableList.of(serde.serialize(createCompressiblePage()), serde.serialize(createRandomPage()));
+
+        for (boolean checksumEnabled : new boolean[] {false, true}) {
+            byte[] bytes = writeToBytes(pages, checksumEnabled);
+            // the stream and slice readers understand the same format
+            List<SerializedPage> streamPages = ImmutableList.copyOf(readSerializedPages(new ByteArrayInputStream(bytes)));
+            List<SerializedPage> slicePages = ImmutableList.copyOf(readSerializedPages(Slices.wrappedBuffer(bytes).getInput()));
+            for (List<SerializedPage> actualPages : ImmutableList.of(streamPages, slicePages)) {
+                assertEquals(actualPages.size(), 2);
+                assertEquals(actualPages.get(0).getCompression(), LZ4);
+                assertEquals(actualPages.get(1).getCompression(), UNCOMPRESSED);
+                assertPageEquals(ImmutableList.of(VARCHAR), serde.deserialize(actualPages.get(0)), createCompressiblePage());
+                assertPageEquals(ImmutableList.of(BIGINT), serde.deserialize(actualPages.get(1)), createRandomPage());
+            }
+        }
+    }
+
+    @Test
+    public void testChecksumMismatch()
+            throws Exception
+    {
+        SerializedPage page = createPagesSerde(UNCOMPRESSED, false).serialize(createRandomPage());
+        byte[] bytes = writeToBytes(ImmutableList.of(page), true);
+        bytes[bytes.length - 1] ^= 1;
+
+        try {
+            readSerializedPages(new ByteArrayInputStream(bytes)).next();
+            fail("expected exception");
+        }
+        catch (PageChecksumMismatchException e) {
+            assertContains(e.getMessage(), "Checksum of page with 1000 positions does not match");
+        }
+
+        // without a checksum, the corruption is not detected
+        bytes = writeToBytes(ImmutableList.of(page), false);
+        bytes[bytes.length - 1] ^= 1;
+        assertEquals(readSerializedPages(new ByteArrayInputStream(bytes)).next().getPositionCount(), 1000);
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
@@ -125,4 +221,36 @@ public class TestPagesSerde
 
         return slice.length();
     }
+
+    private static byte[] writeToBytes(List<SerializedPage> pages, boolean checksumEnabled)
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeSerializedPages(output, pages, checksumEnabled);
+        return output.toByteArray();
+    }
+
+    private static PagesSerde createPagesSerde(PageCompression compression, boolean adaptiveCompression)
+    {
+        return new PagesSerde(new TestingBlockEncodingSerde(new TestingTypeManager()), compression, adaptiveCompression);
+    }
+
+    private static Page createCompressiblePage()
+    {
+        BlockBuilder builder = VARCHAR.createBlockBuilder(new BlockBuilderStatus(), 1000);
+        for (int i = 0; i < 1000; i++) {
+            VARCHAR.writeString(builder, "value " + (i % 10));
+        }
+        return new Page(builder.build());
+    }
+
+    private static Page createRandomPage()
+    {
+        Random random = new Random(42);
+        BlockBuilder builder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), 1000);
+        for (int i = 0; i < 1000; i++) {
+            BIGINT.writeLong(builder, random.nextLong());
+        }
+        return new Page(builder.build());
+    }
 }
@@ -18,12 +18,8 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.facebook.presto.spi.block.TestingBlockEncodingSerde;
 import com.facebook.presto.spi.type.TestingTypeManager;
-import io.airlift.compress.Compressor;
-import io.airlift.compress.Decompressor;
-import io.airlift.compress.lz4.Lz4Compressor;
-import io.airlift.compress.lz4.Lz4Decompressor;
 
-import java.util.Optional;
+import static com.facebook.presto.execution.buffer.PageCompression.LZ4;
 
 public class TestingPagesSerdeFactory
         extends PagesSerdeFactory
@@ -38,16 +34,16 @@ public class TestingPagesSerdeFactory
     {
         return new SynchronizedPagesSerde(
                 new TestingBlockEncodingSerde(new TestingTypeManager()),
-                Optional.of(new Lz4Compressor()),
-                Optional.of(new Lz4Decompressor()));
+                LZ4,
+                false);
     }
 
     private static class SynchronizedPagesSerde
             extends PagesSerde
     {
-        public SynchronizedPagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor)
+        public SynchronizedPagesSerde(BlockEncodingSerde blockEncodingSerde, PageCompression compression, boolean adaptiveCompression)
         {
-            super(blockEncodingSerde, compressor, decompressor);
+            super(blockEncodingSerde, compression, adaptiveCompression);
         }
 
         @Override
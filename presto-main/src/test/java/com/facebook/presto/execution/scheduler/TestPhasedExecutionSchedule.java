@@ -201,6 +201,7 @@ public class TestPhasedExecutionSchedule
                         .build(),
                 Optional.empty(),
                 Optional.empty(),
+                Optional.empty(),
                 Optional.empty());
 
         return createFragment(join);
@@ -222,6 +223,7 @@ public class TestPhasedExecutionSchedule
                         .build(),
                 Optional.empty(),
                 Optional.empty(),
+                Optional.empty(),
                 Optional.empty());
 
         return createFragment(planNode);
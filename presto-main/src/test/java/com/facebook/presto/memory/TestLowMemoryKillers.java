@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.memory.LowMemoryKiller.QueryMemoryInfo;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.memory.MemoryPoolInfo;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestLowMemoryKillers
+{
+    private static final QueryId NEARLY_DONE = new QueryId("nearly_done");
+    private static final QueryId JUST_STARTED = new QueryId("just_started");
+    private static final QueryId SMALL = new QueryId("small");
+
+    private static final List<QueryMemoryInfo> QUERIES = ImmutableList.of(
+            new QueryMemoryInfo(NEARLY_DONE, 1000, 0.95),
+            new QueryMemoryInfo(JUST_STARTED, 600, 0.05),
+            new QueryMemoryInfo(SMALL, 100, 0.0));
+
+    @Test
+    public void testTotalReservation()
+    {
+        LowMemoryKiller killer = new TotalReservationLowMemoryKiller();
+        assertEquals(killer.chooseQueryToKill(QUERIES, ImmutableList.of()), Optional.of(NEARLY_DONE));
+        assertEquals(killer.chooseQueryToKill(ImmutableList.of(), ImmutableList.of()), Optional.empty());
+    }
+
+    @Test
+    public void testTotalReservationOnBlockedNodes()
+    {
+        LowMemoryKiller killer = new TotalReservationOnBlockedNodesLowMemoryKiller();
+
+        // most of the memory of the biggest query is on nodes which are not blocked
+        List<MemoryPoolInfo> blockedNodes = ImmutableList.of(
+                blockedNode(ImmutableMap.of(NEARLY_DONE, 100L, JUST_STARTED, 300L, new QueryId("reserved_pool_query"), 500L)),
+                blockedNode(ImmutableMap.of(NEARLY_DONE, 100L, SMALL, 100L)));
+        assertEquals(killer.chooseQueryToKill(QUERIES, blockedNodes), Optional.of(JUST_STARTED));
+
+        // nothing to kill, when no node is blocked
+        assertEquals(killer.chooseQueryToKill(QUERIES, ImmutableList.of()), Optional.empty());
+    }
+
+    @Test
+    public void testLeastProgressPerByte()
+    {
+        LowMemoryKiller killer = new LeastProgressPerByteLowMemoryKiller();
+        assertEquals(killer.chooseQueryToKill(QUERIES, ImmutableList.of()), Optional.of(SMALL));
+
+        // among queries without progress the biggest one is killed
+        List<QueryMemoryInfo> queries = ImmutableList.<QueryMemoryInfo>builder()
+                .addAll(QUERIES)
+                .add(new QueryMemoryInfo(new QueryId("big_no_progress"), 500, 0.0))
+                .add(new QueryMemoryInfo(new QueryId("no_memory"), 0, 0.0))
+                .build();
+        assertEquals(killer.chooseQueryToKill(queries, ImmutableList.of()), Optional.of(new QueryId("big_no_progress")));
+    }
+
+    private static MemoryPoolInfo blockedNode(ImmutableMap<QueryId, Long> queryMemoryReservations)
+    {
+        long reservedBytes = queryMemoryReservations.values().stream().mapToLong(Long::longValue).sum();
+        return new MemoryPoolInfo(reservedBytes, 0, queryMemoryReservations);
+    }
+}
@@ -23,17 +23,25 @@ import com.facebook.presto.spi.memory.MemoryPoolId;
 import com.facebook.presto.testing.LocalQueryRunner;
 import com.facebook.presto.testing.PageConsumerOperator.PageConsumerOutputFactory;
 import com.facebook.presto.tpch.TpchConnectorFactory;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static com.facebook.presto.SystemSessionProperties.OPERATOR_MEMORY_LIMIT_BEFORE_SPILL;
+import static com.facebook.presto.SystemSessionProperties.SPILL_ENABLED;
 import static com.facebook.presto.testing.LocalQueryRunner.queryRunnerWithInitialTransaction;
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -95,6 +103,71 @@ public class TestMemoryPools
         } while (!drivers.stream().allMatch(Driver::isFinished));
     }
 
+    @Test
+    public void testMemoryRevoking()
+            throws Exception
+    {
+        Session session = testSessionBuilder()
+                .setCatalog("tpch")
+                .setSchema("tiny")
+                .setSystemProperty("task_default_concurrency", "1")
+                .setSystemProperty(SPILL_ENABLED, "true")
+                .setSystemProperty(OPERATOR_MEMORY_LIMIT_BEFORE_SPILL, "1GB")
+                .build();
+
+        LocalQueryRunner localQueryRunner = queryRunnerWithInitialTransaction(session);
+        localQueryRunner.createCatalog("tpch", new TpchConnectorFactory(1), ImmutableMap.of());
+
+        MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(1, GIGABYTE));
+        MemoryPool systemPool = new MemoryPool(new MemoryPoolId("testSystem"), new DataSize(1, GIGABYTE));
+        QueryContext queryContext = new QueryContext(new QueryId("query"), new DataSize(10, MEGABYTE), pool, systemPool, localQueryRunner.getExecutor());
+        OutputFactory outputFactory = new PageConsumerOutputFactory(types -> (page -> { }));
+        TaskContext taskContext = createTaskContext(queryContext, localQueryRunner.getExecutor(), session);
+        List<Driver> drivers = localQueryRunner.createDrivers("SELECT orderkey FROM orders ORDER BY orderkey", outputFactory, taskContext);
+
+        // ask every operator holding revocable memory to release it, while the query runs
+        long revokedBytes = 0;
+        while (!drivers.stream().allMatch(Driver::isFinished)) {
+            for (Driver driver : drivers) {
+                driver.processFor(new Duration(1, NANOSECONDS));
+                for (OperatorContext operatorContext : driver.getDriverContext().getOperatorContexts()) {
+                    revokedBytes += operatorContext.requestMemoryRevoking();
+                }
+            }
+        }
+
+        assertTrue(revokedBytes > 0);
+        long spilledRuns = drivers.stream()
+                .flatMap(driver -> driver.getDriverContext().getOperatorContexts().stream())
+                .mapToLong(operatorContext -> operatorContext.getOperatorStats().getSpilledRuns())
+                .sum();
+        assertTrue(spilledRuns > 0);
+        assertEquals(pool.getReservedRevocableBytes(), 0);
+    }
+
+    @Test
+    public void testRevocableMemory()
+    {
+        MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(10, MEGABYTE));
+        List<MemoryPool> notifiedPools = new ArrayList<>();
+        pool.addListener(notifiedPools::add);
+
+        pool.reserveRevocable(TEN_MEGABYTES);
+        assertEquals(pool.getReservedRevocableBytes(), TEN_MEGABYTES);
+        assertEquals(pool.getFreeBytes(), 0);
+        assertEquals(notifiedPools, ImmutableList.of(pool));
+
+        // revocable memory is released on request, so other reservations wait for it
+        ListenableFuture<?> future = pool.reserve(new QueryId("query"), 1);
+        assertFalse(future.isDone());
+        assertEquals(notifiedPools.size(), 2);
+
+        pool.freeRevocable(TEN_MEGABYTES);
+        assertTrue(future.isDone());
+        assertEquals(pool.getReservedRevocableBytes(), 0);
+        assertEquals(pool.getFreeBytes(), TEN_MEGABYTES - 1);
+    }
+
     public static boolean isWaitingForMemory(List<Driver> drivers)
     {
         for (Driver driver : drivers) {
@@ -0,0 +1,204 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.spi.Page;
+import com.google.common.collect.ImmutableList;
+import io.airlift.http.client.testing.TestingHttpClient;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Drains an exchange client fed by many upstream buffers, whose responses are
+ * delivered concurrently, while several operators poll it.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkExchangeClient
+{
+    private static final DataSize MAX_RESPONSE_SIZE = new DataSize(1, MEGABYTE);
+
+    @Benchmark
+    public long drainExchange(BenchmarkData data)
+            throws Exception
+    {
+        ExchangeClient exchangeClient = data.createExchangeClient();
+
+        ImmutableList.Builder<Future<Long>> consumers = ImmutableList.builder();
+        for (int i = 0; i < data.consumers; i++) {
+            consumers.add(data.consumerExecutor.submit(() -> consume(exchangeClient)));
+        }
+
+        long positions = 0;
+        for (Future<Long> consumer : consumers.build()) {
+            positions += consumer.get();
+        }
+        checkState(positions == data.getExpectedPositions(), "Expected %s positions, but got %s", data.getExpectedPositions(), positions);
+        exchangeClient.close();
+        return positions;
+    }
+
+    private static long consume(ExchangeClient exchangeClient)
+            throws Exception
+    {
+        long positions = 0;
+        while (true) {
+            SerializedPage page = exchangeClient.pollPage();
+            if (page != null) {
+                positions += page.getPositionCount();
+                continue;
+            }
+            if (exchangeClient.isClosed()) {
+                return positions;
+            }
+            exchangeClient.isBlocked().get();
+        }
+    }
+
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"16", "512"})
+        private int locations = 16;
+
+        @Param("8")
+        private int pagesPerLocation = 8;
+
+        @Param("4")
+        private int consumers = 4;
+
+        private final List<Page> pages = ImmutableList.of(new Page(createLongSequenceBlock(0, 100)));
+
+        private ScheduledExecutorService scheduler;
+        private ExecutorService httpExecutor;
+        private ExecutorService consumerExecutor;
+        private MockExchangeRequestProcessor processor;
+        private List<URI> uris;
+
+        @Setup
+        public void setup()
+        {
+            scheduler = newScheduledThreadPool(4, daemonThreadsNamed("exchange-scheduler-%s"));
+            // responses from different upstream buffers are delivered concurrently
+            httpExecutor = newFixedThreadPool(16, daemonThreadsNamed("exchange-http-%s"));
+            consumerExecutor = newCachedThreadPool(daemonThreadsNamed("exchange-consumer-%s"));
+
+            ImmutableList.Builder<URI> uris = ImmutableList.builder();
+            for (int i = 0; i < locations; i++) {
+                uris.add(URI.create("http://localhost:8080/task" + i));
+            }
+            this.uris = uris.build();
+        }
+
+        @Setup(Level.Invocation)
+        public void fillBuffers()
+        {
+            processor = new MockExchangeRequestProcessor(MAX_RESPONSE_SIZE);
+            for (URI uri : uris) {
+                for (int i = 0; i < pagesPerLocation; i++) {
+                    for (Page page : pages) {
+                        processor.addPage(uri, page);
+                    }
+                }
+                processor.setComplete(uri);
+            }
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            scheduler.shutdownNow();
+            httpExecutor.shutdownNow();
+            consumerExecutor.shutdownNow();
+        }
+
+        public ExchangeClient createExchangeClient()
+        {
+            ExchangeClient exchangeClient = new ExchangeClient(
+                    new DataSize(32, MEGABYTE),
+                    MAX_RESPONSE_SIZE,
+                    3,
+                    new Duration(1, MINUTES),
+                    new Duration(1, MINUTES),
+                    new TestingHttpClient(processor, httpExecutor),
+                    scheduler,
+                    deltaMemoryInBytes -> { });
+            uris.forEach(exchangeClient::addLocation);
+            exchangeClient.noMoreLocations();
+            return exchangeClient;
+        }
+
+        public long getExpectedPositions()
+        {
+            return (long) locations * pagesPerLocation * pages.stream().mapToInt(Page::getPositionCount).sum();
+        }
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        data.fillBuffers();
+        new BenchmarkExchangeClient().drainExchange(data);
+        data.tearDown();
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkExchangeClient.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.Session;
 import com.facebook.presto.operator.HashBuilderOperator.HashBuilderOperatorFactory;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.Type;
@@ -47,6 +48,7 @@ import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.SystemSessionProperties.OPEN_ADDRESSING_JOIN_HASH;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
@@ -83,6 +85,9 @@ public class BenchmarkHashBuildAndJoinOperators
         @Param({"false", "true"})
         protected boolean buildHashEnabled;
 
+        @Param({"false", "true"})
+        protected boolean openAddressingHashEnabled;
+
         protected ExecutorService executor;
         protected List<Page> buildPages;
         protected Optional<Integer> hashChannel;
@@ -112,7 +117,10 @@ public class BenchmarkHashBuildAndJoinOperators
 
         public TaskContext createTaskContext()
         {
-            return TestingTaskContext.createTaskContext(executor, TEST_SESSION, new DataSize(2, GIGABYTE));
+            Session session = Session.builder(TEST_SESSION)
+                    .setSystemProperty(OPEN_ADDRESSING_JOIN_HASH, String.valueOf(openAddressingHashEnabled))
+                    .build();
+            return TestingTaskContext.createTaskContext(executor, session, new DataSize(2, GIGABYTE));
         }
 
         public Optional<Integer> getHashChannel()
@@ -0,0 +1,205 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.gen.JoinCompiler;
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.type.TypeUtils.getHashBlock;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+
+/**
+ * Compares the {@link PagesHash} and {@link OpenAddressingPagesHash} layouts on their own,
+ * from hash tables which fit in the cpu caches up to ones much larger than them.
+ * See {@link BenchmarkHashBuildAndJoinOperators} for the layouts within the join operators.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class BenchmarkPagesHashTable
+{
+    private static final int ROWS_PER_PAGE = 1024;
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, BIGINT);
+    private static final List<Integer> JOIN_CHANNELS = ImmutableList.of(0);
+    private static final Optional<Integer> HASH_CHANNEL = Optional.of(1);
+
+    @State(Thread)
+    public static class BuildContext
+    {
+        @Param({"1000", "100000", "10000000", "100000000"})
+        protected int buildRows;
+
+        @Param({"chained", "chained_parallel", "open_addressing"})
+        protected String layout;
+
+        protected LongArrayList addresses;
+        protected PagesHashStrategy pagesHashStrategy;
+
+        @Setup
+        public void setup()
+        {
+            ImmutableList.Builder<Block> keyBlocks = ImmutableList.builder();
+            ImmutableList.Builder<Block> hashBlocks = ImmutableList.builder();
+            addresses = new LongArrayList(buildRows);
+            for (int start = 0; start < buildRows; start += ROWS_PER_PAGE) {
+                int blockIndex = start / ROWS_PER_PAGE;
+                Block keyBlock = createKeyBlock(start, Math.min(ROWS_PER_PAGE, buildRows - start));
+                keyBlocks.add(keyBlock);
+                hashBlocks.add(getHashBlock(ImmutableList.of(BIGINT), keyBlock));
+                for (int position = 0; position < keyBlock.getPositionCount(); position++) {
+                    addresses.add(encodeSyntheticAddress(blockIndex, position));
+                }
+            }
+
+            pagesHashStrategy = new JoinCompiler()
+                    .compilePagesHashStrategyFactory(TYPES, JOIN_CHANNELS)
+                    .createPagesHashStrategy(ImmutableList.of(keyBlocks.build(), hashBlocks.build()), HASH_CHANNEL);
+        }
+
+        public PagesHashTable createPagesHashTable()
+        {
+            switch (layout) {
+                case "chained":
+                    return new PagesHash(addresses, pagesHashStrategy, false);
+                case "chained_parallel":
+                    return new PagesHash(addresses, pagesHashStrategy, true);
+                case "open_addressing":
+                    return new OpenAddressingPagesHash(addresses, pagesHashStrategy);
+                default:
+                    throw new UnsupportedOperationException(format("Unknown layout value [%s]", layout));
+            }
+        }
+    }
+
+    @State(Thread)
+    public static class LookupContext
+            extends BuildContext
+    {
+        protected static final int PROBE_ROWS_NUMBER = 1_000_000;
+
+        protected PagesHashTable pagesHashTable;
+        protected Page[] probePages;
+        protected long[][] probeRawHashes;
+        protected int[] probePositions;
+
+        @Override
+        @Setup
+        public void setup()
+        {
+            super.setup();
+            pagesHashTable = createPagesHashTable();
+
+            // half of the probe rows have a match
+            Random random = new Random(42);
+            int pageCount = PROBE_ROWS_NUMBER / ROWS_PER_PAGE;
+            probePages = new Page[pageCount];
+            probeRawHashes = new long[pageCount][];
+            for (int page = 0; page < pageCount; page++) {
+                BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), ROWS_PER_PAGE);
+                for (int position = 0; position < ROWS_PER_PAGE; position++) {
+                    BIGINT.writeLong(blockBuilder, random.nextInt(buildRows * 2));
+                }
+                Block keyBlock = blockBuilder.build();
+                Block hashBlock = getHashBlock(ImmutableList.of(BIGINT), keyBlock);
+                probePages[page] = new Page(keyBlock);
+                probeRawHashes[page] = new long[ROWS_PER_PAGE];
+                for (int position = 0; position < ROWS_PER_PAGE; position++) {
+                    probeRawHashes[page][position] = BIGINT.getLong(hashBlock, position);
+                }
+            }
+
+            probePositions = new int[ROWS_PER_PAGE];
+            for (int position = 0; position < ROWS_PER_PAGE; position++) {
+                probePositions[position] = position;
+            }
+        }
+    }
+
+    @Benchmark
+    public PagesHashTable benchmarkBuild(BuildContext buildContext)
+    {
+        return buildContext.createPagesHashTable();
+    }
+
+    @Benchmark
+    public long benchmarkLookup(LookupContext lookupContext)
+    {
+        PagesHashTable pagesHashTable = lookupContext.pagesHashTable;
+        long[] addressIndexes = new long[ROWS_PER_PAGE];
+        long matches = 0;
+        for (int page = 0; page < lookupContext.probePages.length; page++) {
+            Page probePage = lookupContext.probePages[page];
+            pagesHashTable.getAddressIndexes(lookupContext.probePositions, 0, ROWS_PER_PAGE, probePage, probePage, lookupContext.probeRawHashes[page], addressIndexes);
+            for (long addressIndex : addressIndexes) {
+                if (addressIndex >= 0) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static Block createKeyBlock(int start, int positionCount)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), positionCount);
+        for (int i = start; i < start + positionCount; i++) {
+            BIGINT.writeLong(blockBuilder, i);
+        }
+        return blockBuilder.build();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPagesHashTable.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactoryWithStats;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
+
+/**
+ * Spiller factory for operator tests, which keeps the spilled pages in memory.
+ */
+public class InMemorySpillerFactory
+        extends SpillerFactoryWithStats
+{
+    private final AtomicInteger spillsCount = new AtomicInteger();
+
+    public int getSpillsCount()
+    {
+        return spillsCount.get();
+    }
+
+    @Override
+    public Spiller create(List<Type> types)
+    {
+        return new Spiller()
+        {
+            private final List<List<Page>> spills = new ArrayList<>();
+
+            @Override
+            public CompletableFuture<?> spill(Iterator<Page> pageIterator)
+            {
+                spillsCount.incrementAndGet();
+                spills.add(ImmutableList.copyOf(pageIterator));
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public List<Iterator<Page>> getSpills()
+            {
+                return spills.stream()
+                        .map(List::iterator)
+                        .collect(toImmutableList());
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
+}
@@ -223,6 +223,29 @@ public final class OperatorAssertion
         assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
     }
 
+    public static void assertOperatorEqualsIgnoreOrder(
+            OperatorFactory operatorFactory,
+            DriverContext driverContext,
+            List<Page> input,
+            MaterializedResult expected,
+            boolean hashEnabled,
+            List<Integer> hashChannels)
+    {
+        List<Page> pages = toPages(operatorFactory, driverContext, input);
+        MaterializedResult actual;
+        if (hashEnabled && !hashChannels.isEmpty()) {
+            // Drop the hashChannel for all pages
+            List<Page> actualPages = dropChannel(pages, hashChannels);
+            List<Type> expectedTypes = without(operatorFactory.getTypes(), hashChannels);
+            actual = toMaterializedResult(driverContext.getSession(), expectedTypes, actualPages);
+        }
+        else {
+            actual = toMaterializedResult(driverContext.getSession(), operatorFactory.getTypes(), pages);
+        }
+
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
     static <T> List<T> without(List<T> types, List<Integer> channels)
     {
         types = new ArrayList<>(types);
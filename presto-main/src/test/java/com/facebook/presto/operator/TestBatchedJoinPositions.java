@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static org.testng.Assert.assertEquals;
+
+public class TestBatchedJoinPositions
+{
+    @Test
+    public void testJoinPositions()
+    {
+        TestingLookupSource lookupSource = new TestingLookupSource(3);
+        Page page = new Page(createLongsBlock(2L, null, 5L, 0L), createLongsBlock(1L, 2L, 3L, 4L));
+
+        long[] joinPositions = BatchedJoinPositions.getJoinPositions(lookupSource, page, ImmutableList.of(0), Optional.empty());
+        assertEquals(joinPositions, new long[] {2, -1, -1, 0});
+        // null keys are not looked up
+        assertEquals(lookupSource.getLookupCount(), 3);
+    }
+
+    @Test
+    public void testPrecomputedHash()
+    {
+        TestingLookupSource lookupSource = new TestingLookupSource(3);
+        Page page = new Page(createLongsBlock(1L, 2L), createLongsBlock(42L, 43L));
+
+        long[] joinPositions = BatchedJoinPositions.getJoinPositions(lookupSource, page, ImmutableList.of(0), Optional.of(1));
+        assertEquals(joinPositions, new long[] {1, 2});
+    }
+
+    @Test
+    public void testDictionaryEntriesLookedUpOnce()
+    {
+        TestingLookupSource lookupSource = new TestingLookupSource(3);
+        Block dictionary = createLongsBlock(1L, null, 7L);
+        Block keys = new DictionaryBlock(6, dictionary, new int[] {0, 1, 2, 0, 0, 2});
+        Page page = new Page(keys);
+
+        long[] joinPositions = BatchedJoinPositions.getJoinPositions(lookupSource, page, ImmutableList.of(0), Optional.empty());
+        assertEquals(joinPositions, new long[] {1, -1, -1, 1, 1, -1});
+        assertEquals(lookupSource.getLookupCount(), 2);
+    }
+
+    @Test
+    public void testRunLengthEncodedKey()
+    {
+        TestingLookupSource lookupSource = new TestingLookupSource(3);
+        Page page = new Page(new RunLengthEncodedBlock(createLongsBlock(2L), 4));
+
+        long[] joinPositions = BatchedJoinPositions.getJoinPositions(lookupSource, page, ImmutableList.of(0), Optional.empty());
+        assertEquals(joinPositions, new long[] {2, 2, 2, 2});
+        assertEquals(lookupSource.getLookupCount(), 1);
+
+        Page nullPage = new Page(new RunLengthEncodedBlock(createLongsBlock((Long) null), 2));
+        assertEquals(BatchedJoinPositions.getJoinPositions(lookupSource, nullPage, ImmutableList.of(0), Optional.empty()), new long[] {-1, -1});
+        assertEquals(lookupSource.getLookupCount(), 1);
+    }
+}
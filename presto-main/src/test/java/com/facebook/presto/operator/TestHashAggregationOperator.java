@@ -92,7 +92,7 @@ public class TestHashAggregationOperator
 
     private ExecutorService executor;
     private DriverContext driverContext;
-    private SpillerFactory spillerFactory = new DummySpillerFactory();
+    private SpillerFactory spillerFactory = new InMemorySpillerFactory();
     private JoinCompiler joinCompiler = new JoinCompiler();
 
     @BeforeMethod
@@ -163,6 +163,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 new DataSize(16, MEGABYTE),
+                Optional.empty(),
                 memoryLimitBeforeSpill > 0,
                 succinctBytes(memoryLimitBeforeSpill),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -300,6 +301,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 new DataSize(16, MEGABYTE),
+                Optional.empty(),
                 memoryLimitBeforeSpill > 0,
                 succinctBytes(memoryLimitBeforeSpill),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -402,6 +404,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 new DataSize(1, Unit.KILOBYTE),
+                Optional.empty(),
                 memoryLimitBeforeSpill > 0,
                 succinctBytes(memoryLimitBeforeSpill),
                 succinctBytes(memoryLimitForMergeWithMemory),
@@ -461,6 +464,85 @@ public class TestHashAggregationOperator
         }
     }
 
+    @Test(dataProvider = "hashEnabled")
+    public void testAdaptivePartialAggregationPassThrough(boolean hashEnabled)
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(100, 0)
+                .addSequencePage(100, 100)
+                .addSequencePage(100, 200)
+                .addSequencePage(100, 300)
+                .build();
+
+        // every key is distinct, so grouping stops after the first two pages
+        OperatorStats stats = assertAdaptivePartialAggregation(
+                input,
+                rowPagesBuilder.getHashChannel(),
+                rowPagesBuilder(BIGINT, BIGINT).addSequencePage(400, 0, 0).build());
+        assertEquals(stats.getPassThroughPositions(), 200);
+    }
+
+    @Test(dataProvider = "hashEnabled")
+    public void testAdaptivePartialAggregationReducingInput(boolean hashEnabled)
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(100, 0)
+                .addSequencePage(100, 0)
+                .addSequencePage(100, 0)
+                .addSequencePage(100, 0)
+                .build();
+
+        RowPagesBuilder expected = rowPagesBuilder(BIGINT, BIGINT);
+        for (long key = 0; key < 100; key++) {
+            expected.row(key, 4 * key);
+        }
+        OperatorStats stats = assertAdaptivePartialAggregation(input, rowPagesBuilder.getHashChannel(), expected.build());
+        assertEquals(stats.getPassThroughPositions(), 0);
+    }
+
+    private OperatorStats assertAdaptivePartialAggregation(List<Page> input, Optional<Integer> hashChannel, List<Page> expectedPages)
+            throws Exception
+    {
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                Ints.asList(0),
+                ImmutableList.of(),
+                Step.PARTIAL,
+                ImmutableList.of(LONG_SUM.bind(ImmutableList.of(0), Optional.empty())),
+                hashChannel,
+                Optional.empty(),
+                100_000,
+                new DataSize(16, MEGABYTE),
+                Optional.of(new PartialAggregationController(150, 0.8)),
+                false,
+                succinctBytes(0),
+                spillerFactory,
+                joinCompiler);
+
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            List<Page> outputPages = toPages(operator, input.iterator());
+            List<Type> types = operator.getTypes();
+            if (hashChannel.isPresent()) {
+                outputPages = dropChannel(outputPages, ImmutableList.of(1));
+                types = without(types, ImmutableList.of(1));
+            }
+            MaterializedResult actual = toMaterializedResult(driverContext.getSession(), types, outputPages);
+            MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT)
+                    .pages(expectedPages)
+                    .build();
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+            return operator.getOperatorContext().getOperatorStats();
+        }
+    }
+
     @Test
     public void testMergeWithMemorySpill()
     {
@@ -486,6 +568,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 1,
                 new DataSize(16, MEGABYTE),
+                Optional.empty(),
                 true,
                 new DataSize(smallPagesSpillThresholdSize, Unit.BYTE),
                 succinctBytes(Integer.MAX_VALUE),
@@ -538,6 +621,7 @@ public class TestHashAggregationOperator
                 Optional.empty(),
                 100_000,
                 new DataSize(16, MEGABYTE),
+                Optional.empty(),
                 true,
                 succinctBytes(8),
                 succinctBytes(Integer.MAX_VALUE),
@@ -547,37 +631,6 @@ public class TestHashAggregationOperator
         toPages(operatorFactory, driverContext, input);
     }
 
-    private static class DummySpillerFactory
-            extends SpillerFactoryWithStats
-    {
-        @Override
-        public Spiller create(List<Type> types)
-        {
-            return new Spiller()
-            {
-                private final List<Iterator<Page>> spills = new ArrayList<>();
-
-                @Override
-                public CompletableFuture<?> spill(Iterator<Page> pageIterator)
-                {
-                    spills.add(pageIterator);
-                    return CompletableFuture.completedFuture(null);
-                }
-
-                @Override
-                public List<Iterator<Page>> getSpills()
-                {
-                    return spills;
-                }
-
-                @Override
-                public void close()
-                {
-                }
-            };
-        }
-    }
-
     private static class FailingSpillerFactory
             extends SpillerFactoryWithStats
     {
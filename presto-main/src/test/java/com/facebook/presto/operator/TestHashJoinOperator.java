@@ -15,6 +15,7 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.block.BlockEncodingManager;
 import com.facebook.presto.operator.HashBuilderOperator.HashBuilderOperatorFactory;
 import com.facebook.presto.operator.ValuesOperator.ValuesOperatorFactory;
 import com.facebook.presto.operator.exchange.LocalExchange;
@@ -24,23 +25,30 @@ import com.facebook.presto.operator.exchange.LocalExchangeSourceOperator.LocalEx
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.BinarySpillerFactory;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.gen.JoinFilterFunctionCompiler.JoinFilterFunctionFactory;
 import com.facebook.presto.sql.gen.JoinProbeCompiler;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
 import com.facebook.presto.testing.TestingTaskContext;
+import com.facebook.presto.type.TypeRegistry;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.units.DataSize;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.stream.IntStream;
@@ -48,14 +56,22 @@ import java.util.stream.IntStream;
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
 import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
 import static com.google.common.collect.Iterables.concat;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
+import static io.airlift.testing.FileUtils.deleteRecursively;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -786,6 +802,238 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testInnerJoinWithSpill(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
+            throws Exception
+    {
+        TaskContext taskContext = createTaskContext();
+
+        // build
+        RowPagesBuilder buildPages = rowPagesBuilder(buildHashEnabled, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT))
+                .addSequencePage(10, 20, 30)
+                .addSequencePage(10, 30, 40);
+        LookupSourceFactory lookupSourceFactory = buildHash(parallelBuild, taskContext, Ints.asList(0), buildPages, Optional.empty(), true);
+        assertFalse(lookupSourceFactory.getSpilledPartitions().isEmpty());
+
+        // probe
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT));
+        List<Page> probeInput = probePages
+                .addSequencePage(1000, 0, 1000)
+                .addSequencePage(1000, 0, 2000)
+                .build();
+        OperatorFactory joinOperatorFactory = LOOKUP_JOIN_OPERATORS.innerJoin(
+                0,
+                new PlanNodeId("test"),
+                lookupSourceFactory,
+                probePages.getTypes(),
+                Ints.asList(0),
+                probePages.getHashChannel(),
+                Optional.empty());
+
+        // expected
+        MaterializedResult.Builder expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probePages.getTypes(), buildPages.getTypes()));
+        for (long key = 20; key < 40; key++) {
+            expected.row(key, key + 1000, key, key + 10);
+            expected.row(key, key + 2000, key, key + 10);
+        }
+
+        assertOperatorEqualsIgnoreOrder(closeAfterCreate(joinOperatorFactory), taskContext.addPipelineContext(0, true, true).addDriverContext(), probeInput, expected.build(), true, getHashChannels(probePages, buildPages));
+    }
+
+    @Test
+    public void testInnerJoinWithSpillAndMultipleProbeOperators()
+            throws Exception
+    {
+        TaskContext taskContext = createTaskContext();
+
+        // build
+        RowPagesBuilder buildPages = rowPagesBuilder(false, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT))
+                .addSequencePage(10, 20, 30)
+                .addSequencePage(10, 30, 40);
+        LookupSourceFactory lookupSourceFactory = buildHash(false, taskContext, Ints.asList(0), buildPages, Optional.empty(), true);
+        assertFalse(lookupSourceFactory.getSpilledPartitions().isEmpty());
+
+        // probe
+        RowPagesBuilder probePages = rowPagesBuilder(false, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT));
+        OperatorFactory joinOperatorFactory = LOOKUP_JOIN_OPERATORS.innerJoin(
+                0,
+                new PlanNodeId("test"),
+                lookupSourceFactory,
+                probePages.getTypes(),
+                Ints.asList(0),
+                probePages.getHashChannel(),
+                Optional.empty());
+        PipelineContext pipelineContext = taskContext.addPipelineContext(0, true, true);
+        Operator firstOperator = joinOperatorFactory.createOperator(pipelineContext.addDriverContext());
+        Operator secondOperator = joinOperatorFactory.createOperator(pipelineContext.addDriverContext());
+        joinOperatorFactory.close();
+
+        ImmutableList.Builder<Page> output = ImmutableList.builder();
+        assertTrue(firstOperator.needsInput());
+        firstOperator.addInput(rowPagesBuilder(BIGINT, BIGINT).addSequencePage(1000, 0, 1000).build().get(0));
+        firstOperator.finish();
+        for (int loops = 0; firstOperator.isBlocked().isDone() && loops < 1_000; loops++) {
+            addOutput(output, firstOperator);
+        }
+        // spilled partitions are joined only after all probe operators are finished
+        assertFalse(firstOperator.isBlocked().isDone());
+        assertFalse(firstOperator.isFinished());
+
+        assertTrue(secondOperator.needsInput());
+        secondOperator.addInput(rowPagesBuilder(BIGINT, BIGINT).addSequencePage(1000, 0, 2000).build().get(0));
+        secondOperator.finish();
+        for (int loops = 0; !(firstOperator.isFinished() && secondOperator.isFinished()) && loops < 10_000; loops++) {
+            for (Operator operator : ImmutableList.of(firstOperator, secondOperator)) {
+                if (!operator.isFinished() && operator.isBlocked().isDone()) {
+                    addOutput(output, operator);
+                }
+            }
+        }
+        assertTrue(firstOperator.isFinished());
+        assertTrue(secondOperator.isFinished());
+
+        MaterializedResult.Builder expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probePages.getTypes(), buildPages.getTypes()));
+        for (long key = 20; key < 40; key++) {
+            expected.row(key, key + 1000, key, key + 10);
+            expected.row(key, key + 2000, key, key + 10);
+        }
+        MaterializedResult actual = toMaterializedResult(taskContext.getSession(), joinOperatorFactory.getTypes(), output.build());
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.build().getMaterializedRows());
+    }
+
+    @Test(dataProvider = "hashEnabledValues")
+    public void testInnerJoinWithProbeSpill(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
+            throws Exception
+    {
+        TaskContext taskContext = createTaskContext();
+        InMemorySpillerFactory spillerFactory = new InMemorySpillerFactory();
+
+        // build
+        RowPagesBuilder buildPages = rowPagesBuilder(buildHashEnabled, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT))
+                .addSequencePage(10, 20, 30)
+                .addSequencePage(10, 30, 40);
+        LookupSourceFactory lookupSourceFactory = buildHash(parallelBuild, taskContext, Ints.asList(0), buildPages, Optional.empty(), true, spillerFactory);
+        assertFalse(lookupSourceFactory.getSpilledPartitions().isEmpty());
+        int buildSpillsCount = spillerFactory.getSpillsCount();
+
+        // probe, the memory limit of the build side is below the size of a single probe page, so every page is spilled
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), ImmutableList.of(BIGINT, BIGINT));
+        for (int i = 0; i < 5; i++) {
+            probePages.addSequencePage(10, 20 + i * 5, i * 1000);
+        }
+        List<Page> probeInput = probePages.build();
+        OperatorFactory joinOperatorFactory = LOOKUP_JOIN_OPERATORS.innerJoin(
+                0,
+                new PlanNodeId("test"),
+                lookupSourceFactory,
+                probePages.getTypes(),
+                Ints.asList(0),
+                probePages.getHashChannel(),
+                Optional.empty());
+
+        // expected
+        MaterializedResult.Builder expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probePages.getTypes(), buildPages.getTypes()));
+        for (int i = 0; i < 5; i++) {
+            for (long key = 20 + i * 5; key < 30 + i * 5 && key < 40; key++) {
+                expected.row(key, key - 20 - i * 5 + i * 1000, key, key + 10);
+            }
+        }
+
+        assertOperatorEqualsIgnoreOrder(closeAfterCreate(joinOperatorFactory), taskContext.addPipelineContext(0, true, true).addDriverContext(), probeInput, expected.build(), true, getHashChannels(probePages, buildPages));
+        assertTrue(spillerFactory.getSpillsCount() > buildSpillsCount, "probe rows were not spilled");
+    }
+
+    @Test
+    public void testCloseBuildDuringSpill()
+            throws Exception
+    {
+        File spillDirectory = Files.createTempDir();
+        ListeningExecutorService spillExecutor = listeningDecorator(newSingleThreadExecutor(daemonThreadsNamed("test-spiller-%s")));
+        try {
+            // the spill is queued behind a blocked task, so it is still in progress when the operator is closed
+            CountDownLatch spillBlocked = new CountDownLatch(1);
+            spillExecutor.submit(() -> awaitUninterruptibly(spillBlocked));
+            BinarySpillerFactory spillerFactory = new BinarySpillerFactory(spillExecutor, new BlockEncodingManager(new TypeRegistry()), spillDirectory.toPath());
+
+            List<Type> types = ImmutableList.of(BIGINT);
+            HashBuilderOperatorFactory buildOperatorFactory = new HashBuilderOperatorFactory(
+                    1,
+                    new PlanNodeId("build"),
+                    types,
+                    Ints.asList(0),
+                    ImmutableMap.of(),
+                    Ints.asList(0),
+                    Optional.empty(),
+                    false,
+                    Optional.empty(),
+                    100,
+                    1,
+                    new PagesIndex.TestingFactory(),
+                    true,
+                    new DataSize(1, BYTE),
+                    spillerFactory,
+                    Optional.empty());
+            DriverContext driverContext = createTaskContext().addPipelineContext(0, true, true).addDriverContext();
+            Operator operator = buildOperatorFactory.createOperator(driverContext);
+
+            operator.addInput(rowPagesBuilder(types).addSequencePage(10, 0).build().get(0));
+            assertFalse(operator.isBlocked().isDone(), "build rows are not being spilled");
+
+            spillBlocked.countDown();
+            operator.close();
+            assertEquals(spillDirectory.list().length, 0, "spill files were not removed");
+        }
+        finally {
+            spillExecutor.shutdownNow();
+            deleteRecursively(spillDirectory);
+        }
+    }
+
+    @Test(dataProvider = "hashEnabledValues")
+    public void testOuterJoinWithSpill(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
+            throws Exception
+    {
+        TaskContext taskContext = createTaskContext();
+
+        // build
+        List<Type> buildTypes = ImmutableList.of(VARCHAR);
+        RowPagesBuilder buildPages = rowPagesBuilder(buildHashEnabled, Ints.asList(0), buildTypes)
+                .row("a")
+                .row("b")
+                .row("c");
+        LookupSourceFactory lookupSourceFactory = buildHash(parallelBuild, taskContext, Ints.asList(0), buildPages, Optional.empty(), true);
+
+        // probe
+        List<Type> probeTypes = ImmutableList.of(VARCHAR);
+        RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), probeTypes);
+        List<Page> probeInput = probePages
+                .row("a")
+                .row((String) null)
+                .row("d")
+                .row("a")
+                .row("b")
+                .build();
+        OperatorFactory joinOperatorFactory = LOOKUP_JOIN_OPERATORS.probeOuterJoin(
+                0,
+                new PlanNodeId("test"),
+                lookupSourceFactory,
+                probePages.getTypes(),
+                Ints.asList(0),
+                probePages.getHashChannel(),
+                Optional.empty());
+
+        // expected
+        MaterializedResult expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probeTypes, buildTypes))
+                .row("a", "a")
+                .row(null, null)
+                .row("d", null)
+                .row("a", "a")
+                .row("b", "b")
+                .build();
+
+        assertOperatorEqualsIgnoreOrder(closeAfterCreate(joinOperatorFactory), taskContext.addPipelineContext(0, true, true).addDriverContext(), probeInput, expected, true, getHashChannels(probePages, buildPages));
+    }
+
     @Test(expectedExceptions = ExceededMemoryLimitException.class, expectedExceptionsMessageRegExp = "Query exceeded local memory limit of.*", dataProvider = "hashEnabledValues")
     public void testMemoryLimit(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
             throws Exception
@@ -797,6 +1045,50 @@ public class TestHashJoinOperator
         buildHash(parallelBuild, taskContext, Ints.asList(0), buildPages, Optional.empty());
     }
 
+    /**
+     * Closes the factory once the operator is created, like the driver does, as operators
+     * joining spilled partitions wait until no more probe operators can be created.
+     */
+    private static OperatorFactory closeAfterCreate(OperatorFactory operatorFactory)
+    {
+        return new OperatorFactory()
+        {
+            @Override
+            public List<Type> getTypes()
+            {
+                return operatorFactory.getTypes();
+            }
+
+            @Override
+            public Operator createOperator(DriverContext driverContext)
+            {
+                Operator operator = operatorFactory.createOperator(driverContext);
+                operatorFactory.close();
+                return operator;
+            }
+
+            @Override
+            public void close()
+            {
+                operatorFactory.close();
+            }
+
+            @Override
+            public OperatorFactory duplicate()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static void addOutput(ImmutableList.Builder<Page> output, Operator operator)
+    {
+        Page page = operator.getOutput();
+        if (page != null) {
+            output.add(page);
+        }
+    }
+
     private TaskContext createTaskContext()
     {
         return TestingTaskContext.createTaskContext(executor, TEST_SESSION);
@@ -815,6 +1107,29 @@ public class TestHashJoinOperator
     }
 
     private static LookupSourceFactory buildHash(boolean parallelBuild, TaskContext taskContext, List<Integer> hashChannels, RowPagesBuilder buildPages, Optional<InternalJoinFilterFunction> filterFunction)
+    {
+        return buildHash(parallelBuild, taskContext, hashChannels, buildPages, filterFunction, false);
+    }
+
+    private static LookupSourceFactory buildHash(
+            boolean parallelBuild,
+            TaskContext taskContext,
+            List<Integer> hashChannels,
+            RowPagesBuilder buildPages,
+            Optional<InternalJoinFilterFunction> filterFunction,
+            boolean spillEnabled)
+    {
+        return buildHash(parallelBuild, taskContext, hashChannels, buildPages, filterFunction, spillEnabled, new InMemorySpillerFactory());
+    }
+
+    private static LookupSourceFactory buildHash(
+            boolean parallelBuild,
+            TaskContext taskContext,
+            List<Integer> hashChannels,
+            RowPagesBuilder buildPages,
+            Optional<InternalJoinFilterFunction> filterFunction,
+            boolean spillEnabled,
+            SpillerFactory spillerFactory)
     {
         Optional<JoinFilterFunctionFactory> filterFunctionFactory = filterFunction
                 .map(function -> ((session, addresses, channels) -> new StandardJoinFilterFunction(function, addresses, channels)));
@@ -852,7 +1167,11 @@ public class TestHashJoinOperator
                 filterFunctionFactory,
                 100,
                 partitionCount,
-                new PagesIndex.TestingFactory());
+                new PagesIndex.TestingFactory(),
+                spillEnabled,
+                new DataSize(1, BYTE),
+                spillerFactory,
+                Optional.empty());
         PipelineContext buildPipeline = taskContext.addPipelineContext(1, true, true);
 
         Driver[] buildDrivers = new Driver[partitionCount];
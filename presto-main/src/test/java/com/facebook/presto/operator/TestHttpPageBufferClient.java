@@ -18,6 +18,7 @@ import com.facebook.presto.execution.buffer.SerializedPage;
 import com.facebook.presto.operator.HttpPageBufferClient.ClientCallback;
 import com.facebook.presto.spi.Page;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import io.airlift.http.client.HttpStatus;
 import io.airlift.http.client.Request;
@@ -32,11 +33,13 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -46,6 +49,11 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_TASK_INSTANCE_ID;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeSerializedPages;
 import static com.facebook.presto.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
 import static com.facebook.presto.spi.StandardErrorCode.PAGE_TOO_LARGE;
 import static com.facebook.presto.spi.StandardErrorCode.PAGE_TRANSPORT_ERROR;
@@ -384,6 +392,62 @@ public class TestHttpPageBufferClient
         assertStatus(client, location, "queued", 0, 3, 3, 3, "not scheduled");
     }
 
+    @Test
+    public void testChecksumMismatchIsRetried()
+            throws Exception
+    {
+        Page expectedPage = new Page(100);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeSerializedPages(output, ImmutableList.of(PAGES_SERDE.serialize(expectedPage)), true);
+        byte[] validBytes = output.toByteArray();
+        byte[] corruptedBytes = validBytes.clone();
+        corruptedBytes[corruptedBytes.length - 1] ^= 1;
+
+        List<URI> requestUris = new CopyOnWriteArrayList<>();
+        AtomicInteger responses = new AtomicInteger();
+        TestingHttpClient.Processor processor = (request) -> {
+            requestUris.add(request.getUri());
+            byte[] bytes = responses.getAndIncrement() == 0 ? corruptedBytes : validBytes;
+            return new TestingResponse(
+                    HttpStatus.OK,
+                    ImmutableListMultimap.of(
+                            CONTENT_TYPE, PRESTO_PAGES,
+                            PRESTO_TASK_INSTANCE_ID, "task-instance-id",
+                            PRESTO_PAGE_TOKEN, "0",
+                            PRESTO_PAGE_NEXT_TOKEN, "1",
+                            PRESTO_BUFFER_COMPLETE, "false"),
+                    bytes);
+        };
+
+        CyclicBarrier requestComplete = new CyclicBarrier(2);
+        TestingClientCallback callback = new TestingClientCallback(requestComplete);
+
+        URI location = URI.create("http://localhost:8080");
+        HttpPageBufferClient client = new HttpPageBufferClient(new TestingHttpClient(processor, executor),
+                new DataSize(10, Unit.MEGABYTE),
+                new Duration(1, TimeUnit.MINUTES),
+                new Duration(1, TimeUnit.MINUTES),
+                location,
+                callback,
+                executor);
+
+        // the corrupted page is dropped, but the client does not fail
+        client.scheduleRequest();
+        requestComplete.await(10, TimeUnit.SECONDS);
+        assertEquals(callback.getPages().size(), 0);
+        assertEquals(callback.getFailedBuffers(), 0);
+        assertStatus(client, location, "queued", 0, 1, 1, 1, "not scheduled");
+
+        // the page is requested again with the same token
+        client.scheduleRequest();
+        requestComplete.await(10, TimeUnit.SECONDS);
+        assertEquals(callback.getPages().size(), 1);
+        assertPageEquals(expectedPage, callback.getPages().get(0));
+        assertEquals(callback.getFailedBuffers(), 0);
+        assertStatus(client, location, "queued", 1, 2, 2, 1, "not scheduled");
+        assertEquals(requestUris, ImmutableList.of(URI.create("http://localhost:8080/0"), URI.create("http://localhost:8080/0")));
+    }
+
     @Test
     public void testErrorCodes()
             throws Exception
@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.TestingColumnHandle;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestLocalDynamicFilter
+{
+    private static final ColumnHandle PROBE_KEY = new TestingColumnHandle("probe_key");
+    private static final ColumnHandle PROBE_NAME = new TestingColumnHandle("probe_name");
+    private static final List<Type> BUILD_TYPES = ImmutableList.of(VARCHAR, BIGINT);
+
+    @Test
+    public void testDistinctValues()
+    {
+        LocalDynamicFilter dynamicFilter = new LocalDynamicFilter(ImmutableMap.of(0, PROBE_KEY, 1, PROBE_NAME), 10);
+        dynamicFilter.setPartitionCount(1);
+
+        // join clauses are on build channels 1 and 0
+        LocalDynamicFilter.Collector collector = dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(1, 0));
+        rowPagesBuilder(BUILD_TYPES)
+                .row("a", 3L)
+                .row("b", 1L)
+                .row(null, null)
+                .row("a", 3L)
+                .build()
+                .forEach(collector::addPage);
+        assertEquals(dynamicFilter.getCurrentPredicate(), TupleDomain.all());
+
+        collector.finish();
+        assertEquals(dynamicFilter.getCurrentPredicate(), TupleDomain.withColumnDomains(ImmutableMap.of(
+                PROBE_KEY, Domain.multipleValues(BIGINT, ImmutableList.<Object>of(1L, 3L)),
+                PROBE_NAME, Domain.multipleValues(VARCHAR, ImmutableList.<Object>of(utf8Slice("a"), utf8Slice("b"))))));
+    }
+
+    @Test
+    public void testRangeAboveMaxDistinctValues()
+    {
+        LocalDynamicFilter dynamicFilter = new LocalDynamicFilter(ImmutableMap.of(0, PROBE_KEY), 2);
+        dynamicFilter.setPartitionCount(1);
+
+        LocalDynamicFilter.Collector collector = dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(1));
+        rowPagesBuilder(BUILD_TYPES)
+                .row("a", 5L)
+                .row("b", -7L)
+                .row("c", 12L)
+                .build()
+                .forEach(collector::addPage);
+        collector.finish();
+
+        assertEquals(dynamicFilter.getCurrentPredicate(), TupleDomain.withColumnDomains(ImmutableMap.of(
+                PROBE_KEY, Domain.create(ValueSet.ofRanges(Range.range(BIGINT, -7L, true, 12L, true)), false))));
+    }
+
+    @Test
+    public void testUnionOfPartitions()
+    {
+        LocalDynamicFilter dynamicFilter = new LocalDynamicFilter(ImmutableMap.of(0, PROBE_KEY), 10);
+        dynamicFilter.setPartitionCount(3);
+
+        LocalDynamicFilter.Collector first = dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(1));
+        LocalDynamicFilter.Collector second = dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(1));
+        LocalDynamicFilter.Collector empty = dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(1));
+
+        rowPagesBuilder(BUILD_TYPES).row("a", 1L).build().forEach(first::addPage);
+        rowPagesBuilder(BUILD_TYPES).row("b", 2L).build().forEach(second::addPage);
+
+        first.finish();
+        empty.finish();
+        assertEquals(dynamicFilter.getCurrentPredicate(), TupleDomain.all());
+
+        second.finish();
+        assertEquals(dynamicFilter.getCurrentPredicate(), TupleDomain.withColumnDomains(ImmutableMap.of(
+                PROBE_KEY, Domain.multipleValues(BIGINT, ImmutableList.<Object>of(1L, 2L)))));
+    }
+
+    @Test
+    public void testEmptyBuild()
+    {
+        LocalDynamicFilter dynamicFilter = new LocalDynamicFilter(ImmutableMap.of(0, PROBE_KEY), 10);
+        dynamicFilter.setPartitionCount(1);
+        dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(1)).finish();
+
+        assertTrue(dynamicFilter.getCurrentPredicate().isNone());
+    }
+
+    @Test
+    public void testSupportedTypes()
+    {
+        assertTrue(LocalDynamicFilter.isSupportedType(BIGINT));
+        assertTrue(LocalDynamicFilter.isSupportedType(VARCHAR));
+        assertTrue(LocalDynamicFilter.isSupportedType(BOOLEAN));
+        assertFalse(LocalDynamicFilter.isSupportedType(DOUBLE));
+        assertFalse(LocalDynamicFilter.isSupportedType(REAL));
+    }
+}
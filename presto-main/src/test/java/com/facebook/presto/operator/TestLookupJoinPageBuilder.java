@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.operator.SimpleJoinProbe.SimpleJoinProbeFactory;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestLookupJoinPageBuilder
+{
+    private static final List<Type> PROBE_TYPES = ImmutableList.of(BIGINT, VARCHAR);
+    private static final List<Type> OUTPUT_TYPES = ImmutableList.of(VARCHAR, BIGINT, BIGINT);
+
+    @Test
+    public void testSequentialPositions()
+    {
+        Page probePage = new Page(createLongsBlock(0L, 1L, 2L, 3L), createStringsBlock("a", "b", "c", "d"));
+        JoinProbe probe = createProbe(probePage);
+        TestingLookupSource lookupSource = new TestingLookupSource(10);
+
+        LookupJoinPageBuilder pageBuilder = new LookupJoinPageBuilder(ImmutableList.of(1, 0), ImmutableList.of(BIGINT));
+        assertTrue(pageBuilder.isEmpty());
+
+        probe.advanceNextPosition();
+        probe.advanceNextPosition();
+        pageBuilder.appendRow(probe, lookupSource, 7);
+        probe.advanceNextPosition();
+        pageBuilder.appendNullForBuild(probe);
+        assertFalse(pageBuilder.isEmpty());
+
+        Page output = pageBuilder.build();
+        assertPageEquals(OUTPUT_TYPES, output, new Page(createStringsBlock("b", "c"), createLongsBlock(1L, 2L), createLongsBlock(7L, null)));
+        // rows of consecutive probe positions share the probe block
+        assertFalse(output.getBlock(0) instanceof DictionaryBlock);
+        assertTrue(pageBuilder.isEmpty());
+    }
+
+    @Test
+    public void testDictionaryOutput()
+    {
+        Page probePage = new Page(createLongsBlock(0L, 1L, 2L), createStringsBlock("a", "b", "c"));
+        JoinProbe probe = createProbe(probePage);
+        TestingLookupSource lookupSource = new TestingLookupSource(10);
+
+        LookupJoinPageBuilder pageBuilder = new LookupJoinPageBuilder(ImmutableList.of(1, 0), ImmutableList.of(BIGINT));
+        probe.advanceNextPosition();
+        pageBuilder.appendRow(probe, lookupSource, 4);
+        pageBuilder.appendRow(probe, lookupSource, 5);
+        probe.advanceNextPosition();
+        probe.advanceNextPosition();
+        pageBuilder.appendRow(probe, lookupSource, 6);
+
+        Page output = pageBuilder.build();
+        assertPageEquals(OUTPUT_TYPES, output, new Page(createStringsBlock("a", "a", "c"), createLongsBlock(0L, 0L, 2L), createLongsBlock(4L, 5L, 6L)));
+        assertTrue(output.getBlock(0) instanceof DictionaryBlock);
+        assertTrue(output.getBlock(1) instanceof DictionaryBlock);
+    }
+
+    @Test
+    public void testDictionaryProbeBlockIsNotNested()
+    {
+        Block dictionary = createStringsBlock("x", "y");
+        Page probePage = new Page(createLongsBlock(0L, 1L, 2L), new DictionaryBlock(3, dictionary, new int[] {1, 0, 1}));
+        JoinProbe probe = createProbe(probePage);
+        TestingLookupSource lookupSource = new TestingLookupSource(10);
+
+        LookupJoinPageBuilder pageBuilder = new LookupJoinPageBuilder(ImmutableList.of(1), ImmutableList.of(BIGINT));
+        probe.advanceNextPosition();
+        pageBuilder.appendRow(probe, lookupSource, 1);
+        probe.advanceNextPosition();
+        probe.advanceNextPosition();
+        pageBuilder.appendRow(probe, lookupSource, 2);
+
+        Page output = pageBuilder.build();
+        assertPageEquals(ImmutableList.of(VARCHAR, BIGINT), output, new Page(createStringsBlock("y", "y"), createLongsBlock(1L, 2L)));
+        DictionaryBlock block = (DictionaryBlock) output.getBlock(0);
+        assertEquals(block.getDictionary(), dictionary);
+    }
+
+    private static JoinProbe createProbe(Page probePage)
+    {
+        return new SimpleJoinProbeFactory(PROBE_TYPES, ImmutableList.of(0, 1), ImmutableList.of(0), Optional.empty())
+                .createJoinProbe(new TestingLookupSource(10), probePage);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.type.TypeUtils.getHashBlock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestOpenAddressingPagesHash
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, BIGINT);
+
+    @Test
+    public void testMatchesPagesHash()
+    {
+        ImmutableList.Builder<Block> keyBlocks = ImmutableList.builder();
+        ImmutableList.Builder<Block> hashBlocks = ImmutableList.builder();
+        LongArrayList addresses = new LongArrayList();
+        for (int blockIndex = 0; blockIndex < 10; blockIndex++) {
+            Block keyBlock = createKeyBlock(blockIndex * 1000, 1000, 3_000);
+            keyBlocks.add(keyBlock);
+            hashBlocks.add(getHashBlock(ImmutableList.of(BIGINT), keyBlock));
+            for (int position = 0; position < keyBlock.getPositionCount(); position++) {
+                addresses.add(encodeSyntheticAddress(blockIndex, position));
+            }
+        }
+        List<List<Block>> channels = ImmutableList.of(keyBlocks.build(), hashBlocks.build());
+        PagesHashStrategy pagesHashStrategy = new SimplePagesHashStrategy(TYPES, ImmutableList.of(0), channels, ImmutableList.of(0), Optional.of(1));
+
+        PagesHashTable pagesHash = new PagesHash(addresses, pagesHashStrategy);
+        PagesHashTable openAddressingPagesHash = new OpenAddressingPagesHash(addresses, pagesHashStrategy);
+        assertEquals(openAddressingPagesHash.getPositionCount(), pagesHash.getPositionCount());
+        assertEquals(openAddressingPagesHash.getChannelCount(), pagesHash.getChannelCount());
+
+        // the probe keys include keys which are not in the build side
+        Block probeKeyBlock = createKeyBlock(0, 5_000, 6_000);
+        Block probeHashBlock = getHashBlock(ImmutableList.of(BIGINT), probeKeyBlock);
+        Page probePage = new Page(probeKeyBlock);
+        int positionCount = probeKeyBlock.getPositionCount();
+
+        int[] positions = new int[positionCount];
+        int nonNullPositionCount = 0;
+        long[] rawHashes = new long[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            rawHashes[position] = BIGINT.getLong(probeHashBlock, position);
+            if (!probeKeyBlock.isNull(position)) {
+                positions[nonNullPositionCount++] = position;
+            }
+        }
+        long[] batchedAddressIndexes = new long[positionCount];
+        openAddressingPagesHash.getAddressIndexes(positions, 0, nonNullPositionCount, probePage, probePage, rawHashes, batchedAddressIndexes);
+
+        int matchedRows = 0;
+        for (int i = 0; i < nonNullPositionCount; i++) {
+            int position = positions[i];
+            int addressIndex = openAddressingPagesHash.getAddressIndex(position, probePage, probePage, rawHashes[position]);
+            assertEquals(batchedAddressIndexes[position], addressIndex);
+            assertEquals(openAddressingPagesHash.getAddressIndex(position, probePage, probePage), addressIndex);
+
+            Set<Integer> expected = getMatchingAddressIndexes(pagesHash, pagesHash.getAddressIndex(position, probePage, probePage, rawHashes[position]));
+            assertEquals(getMatchingAddressIndexes(openAddressingPagesHash, addressIndex), expected);
+            if (!expected.isEmpty()) {
+                matchedRows++;
+            }
+        }
+        assertTrue(matchedRows > 0);
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        List<List<Block>> channels = ImmutableList.of(ImmutableList.of(), ImmutableList.of());
+        PagesHashStrategy pagesHashStrategy = new SimplePagesHashStrategy(TYPES, ImmutableList.of(0), channels, ImmutableList.of(0), Optional.of(1));
+        PagesHashTable openAddressingPagesHash = new OpenAddressingPagesHash(new LongArrayList(), pagesHashStrategy);
+
+        Block probeKeyBlock = createKeyBlock(0, 10, 100);
+        Page probePage = new Page(probeKeyBlock);
+        for (int position = 0; position < probeKeyBlock.getPositionCount(); position++) {
+            if (!probeKeyBlock.isNull(position)) {
+                assertEquals(openAddressingPagesHash.getAddressIndex(position, probePage, probePage), -1);
+            }
+        }
+    }
+
+    private static Set<Integer> getMatchingAddressIndexes(PagesHashTable pagesHash, int addressIndex)
+    {
+        Set<Integer> addressIndexes = new HashSet<>();
+        while (addressIndex >= 0) {
+            addressIndexes.add(addressIndex);
+            addressIndex = pagesHash.getNextAddressIndex(addressIndex);
+        }
+        return addressIndexes;
+    }
+
+    private static Block createKeyBlock(int start, int positionCount, int distinctKeys)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), positionCount);
+        for (int i = start; i < start + positionCount; i++) {
+            if (i % 97 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(blockBuilder, (i * 7919L) % distinctKeys);
+            }
+        }
+        return blockBuilder.build();
+    }
+}
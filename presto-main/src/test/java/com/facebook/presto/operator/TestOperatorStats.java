@@ -29,7 +29,7 @@ import static org.testng.Assert.assertEquals;
 
 public class TestOperatorStats
 {
-    private static final ExchangeClientStatus NON_MERGEABLE_INFO = new ExchangeClientStatus(0, 1, 2, false, ImmutableList.of());
+    private static final ExchangeClientStatus NON_MERGEABLE_INFO = new ExchangeClientStatus(0, 1, 2, 3, 4, false, ImmutableList.of());
     private static final PartitionedOutputInfo MERGEABLE_INFO = new PartitionedOutputInfo(1, 2);
 
     public static final OperatorStats EXPECTED = new OperatorStats(
@@ -64,6 +64,12 @@ public class TestOperatorStats
 
             new DataSize(20, BYTE),
             new DataSize(21, BYTE),
+            new DataSize(22, BYTE),
+            23,
+            24,
+            new DataSize(25, BYTE),
+            new DataSize(26, BYTE),
+            new DataSize(27, BYTE),
             Optional.empty(),
             NON_MERGEABLE_INFO);
 
@@ -99,6 +105,12 @@ public class TestOperatorStats
 
             new DataSize(20, BYTE),
             new DataSize(21, BYTE),
+            new DataSize(22, BYTE),
+            23,
+            24,
+            new DataSize(25, BYTE),
+            new DataSize(26, BYTE),
+            new DataSize(27, BYTE),
             Optional.empty(),
             MERGEABLE_INFO);
 
@@ -143,8 +155,15 @@ public class TestOperatorStats
 
         assertEquals(actual.getMemoryReservation(), new DataSize(20, BYTE));
         assertEquals(actual.getSystemMemoryReservation(), new DataSize(21, BYTE));
+        assertEquals(actual.getSpilledDataSize(), new DataSize(22, BYTE));
+        assertEquals(actual.getSpilledRuns(), 23);
+        assertEquals(actual.getPassThroughPositions(), 24);
+        assertEquals(actual.getExchangeDataSize(), new DataSize(25, BYTE));
+        assertEquals(actual.getExchangeUncompressedDataSize(), new DataSize(26, BYTE));
+        assertEquals(actual.getRevocableMemoryReservation(), new DataSize(27, BYTE));
         assertEquals(actual.getInfo().getClass(), ExchangeClientStatus.class);
         assertEquals(((ExchangeClientStatus) actual.getInfo()).getAverageBytesPerRequest(), NON_MERGEABLE_INFO.getAverageBytesPerRequest());
+        assertEquals(((ExchangeClientStatus) actual.getInfo()).getReceivedUncompressedBytes(), NON_MERGEABLE_INFO.getReceivedUncompressedBytes());
     }
 
     @Test
@@ -179,6 +198,12 @@ public class TestOperatorStats
         assertEquals(actual.getFinishUser(), new Duration(3 * 19, NANOSECONDS));
         assertEquals(actual.getMemoryReservation(), new DataSize(3 * 20, BYTE));
         assertEquals(actual.getSystemMemoryReservation(), new DataSize(3 * 21, BYTE));
+        assertEquals(actual.getSpilledDataSize(), new DataSize(3 * 22, BYTE));
+        assertEquals(actual.getSpilledRuns(), 3 * 23);
+        assertEquals(actual.getPassThroughPositions(), 3 * 24);
+        assertEquals(actual.getExchangeDataSize(), new DataSize(3 * 25, BYTE));
+        assertEquals(actual.getExchangeUncompressedDataSize(), new DataSize(3 * 26, BYTE));
+        assertEquals(actual.getRevocableMemoryReservation(), new DataSize(3 * 27, BYTE));
         assertEquals(actual.getInfo(), null);
     }
 
@@ -214,6 +239,12 @@ public class TestOperatorStats
         assertEquals(actual.getFinishUser(), new Duration(3 * 19, NANOSECONDS));
         assertEquals(actual.getMemoryReservation(), new DataSize(3 * 20, BYTE));
         assertEquals(actual.getSystemMemoryReservation(), new DataSize(3 * 21, BYTE));
+        assertEquals(actual.getSpilledDataSize(), new DataSize(3 * 22, BYTE));
+        assertEquals(actual.getSpilledRuns(), 3 * 23);
+        assertEquals(actual.getPassThroughPositions(), 3 * 24);
+        assertEquals(actual.getExchangeDataSize(), new DataSize(3 * 25, BYTE));
+        assertEquals(actual.getExchangeUncompressedDataSize(), new DataSize(3 * 26, BYTE));
+        assertEquals(actual.getRevocableMemoryReservation(), new DataSize(3 * 27, BYTE));
         assertEquals(actual.getInfo().getClass(), PartitionedOutputInfo.class);
         assertEquals(((PartitionedOutputInfo) actual.getInfo()).getPagesAdded(), 3 * MERGEABLE_INFO.getPagesAdded());
     }
@@ -31,6 +31,7 @@ import java.util.concurrent.ExecutorService;
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
 import static com.facebook.presto.operator.OperatorAssertion.toPages;
 import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
 import static com.facebook.presto.spi.block.SortOrder.DESC_NULLS_LAST;
@@ -39,8 +40,11 @@ import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestOrderByOperator
@@ -159,6 +163,104 @@ public class TestOrderByOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
+    @Test
+    public void testSpill()
+            throws Exception
+    {
+        List<Page> input = rowPagesBuilder(BIGINT, DOUBLE)
+                .row(1L, 0.1)
+                .row(2L, 0.2)
+                .pageBreak()
+                .row(-1L, -0.1)
+                .row(4L, 0.4)
+                .pageBreak()
+                .row(3L, 0.3)
+                .row(0L, 0.0)
+                .row(5L, 0.5)
+                .build();
+
+        OrderByOperatorFactory operatorFactory = new OrderByOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT, DOUBLE),
+                ImmutableList.of(1),
+                10,
+                ImmutableList.of(0),
+                ImmutableList.of(DESC_NULLS_LAST),
+                new PagesIndex.TestingFactory(),
+                true,
+                new DataSize(1, Unit.BYTE),
+                new InMemorySpillerFactory());
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), DOUBLE)
+                .row(0.5)
+                .row(0.4)
+                .row(0.3)
+                .row(0.2)
+                .row(0.1)
+                .row(0.0)
+                .row(-0.1)
+                .build();
+
+        assertOperatorEquals(operatorFactory, driverContext, input, expected);
+
+        OperatorStats operatorStats = getOnlyElement(driverContext.getOperatorContexts()).getOperatorStats();
+        assertEquals(operatorStats.getSpilledRuns(), input.size());
+        assertTrue(operatorStats.getSpilledDataSize().toBytes() > 0);
+    }
+
+    @Test
+    public void testMemoryRevoking()
+            throws Exception
+    {
+        List<Page> input = rowPagesBuilder(BIGINT, DOUBLE)
+                .row(1L, 0.1)
+                .row(2L, 0.2)
+                .pageBreak()
+                .row(-1L, -0.1)
+                .row(4L, 0.4)
+                .build();
+
+        OrderByOperatorFactory operatorFactory = new OrderByOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT, DOUBLE),
+                ImmutableList.of(1),
+                10,
+                ImmutableList.of(0),
+                ImmutableList.of(ASC_NULLS_LAST),
+                new PagesIndex.TestingFactory(),
+                true,
+                new DataSize(1, Unit.GIGABYTE),
+                new InMemorySpillerFactory());
+
+        Operator operator = operatorFactory.createOperator(driverContext);
+        OperatorContext operatorContext = operator.getOperatorContext();
+        operator.addInput(input.get(0));
+
+        // the buffered input is below the spill limit, but revocable
+        assertEquals(operatorContext.getOperatorStats().getSpilledRuns(), 0);
+        assertTrue(operatorContext.getRevocableMemoryReservation() > 0);
+        assertEquals(operatorContext.requestMemoryRevoking(), operatorContext.getRevocableMemoryReservation());
+        assertTrue(operatorContext.getMemoryRevokingRequestedFuture().isDone());
+
+        assertTrue(operator.startMemoryRevoking().isDone());
+        operator.finishMemoryRevoking();
+        operatorContext.resetMemoryRevokingRequested();
+        assertEquals(operatorContext.getRevocableMemoryReservation(), 0);
+        assertEquals(operatorContext.getOperatorStats().getSpilledRuns(), 1);
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), DOUBLE)
+                .row(-0.1)
+                .row(0.1)
+                .row(0.2)
+                .row(0.4)
+                .build();
+        List<Page> output = toPages(operator, input.subList(1, input.size()).iterator());
+        assertEquals(toMaterializedResult(driverContext.getSession(), expected.getTypes(), output), expected);
+        assertEquals(operatorContext.getRevocableMemoryReservation(), 0);
+    }
+
     @Test(expectedExceptions = ExceededMemoryLimitException.class, expectedExceptionsMessageRegExp = "Query exceeded local memory limit of 10B")
     public void testMemoryLimit()
             throws Exception
@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.type.TypeUtils.getHashBlock;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static org.testng.Assert.assertEquals;
+
+public class TestPagesHash
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, BIGINT);
+    private static final int ROWS_PER_BLOCK = 1024;
+
+    @Test
+    public void testParallelBuild()
+    {
+        // enough rows to build in parallel, with duplicate and null keys
+        ImmutableList.Builder<Block> keyBlocks = ImmutableList.builder();
+        ImmutableList.Builder<Block> hashBlocks = ImmutableList.builder();
+        LongArrayList addresses = new LongArrayList();
+        for (int blockIndex = 0; blockIndex < 300; blockIndex++) {
+            Block keyBlock = createKeyBlock(blockIndex * ROWS_PER_BLOCK, ROWS_PER_BLOCK, 100_000);
+            keyBlocks.add(keyBlock);
+            hashBlocks.add(getHashBlock(ImmutableList.of(BIGINT), keyBlock));
+            for (int position = 0; position < keyBlock.getPositionCount(); position++) {
+                addresses.add(encodeSyntheticAddress(blockIndex, position));
+            }
+        }
+        List<List<Block>> channels = ImmutableList.of(keyBlocks.build(), hashBlocks.build());
+        PagesHashStrategy pagesHashStrategy = new SimplePagesHashStrategy(TYPES, ImmutableList.of(0), channels, ImmutableList.of(0), Optional.of(1));
+
+        PagesHash serialPagesHash = new PagesHash(addresses, pagesHashStrategy, false);
+        PagesHash parallelPagesHash = new PagesHash(addresses, pagesHashStrategy, true);
+        assertEquals(parallelPagesHash.getPositionCount(), serialPagesHash.getPositionCount());
+        assertEquals(parallelPagesHash.getInMemorySizeInBytes(), serialPagesHash.getInMemorySizeInBytes());
+
+        // the probe keys include keys which are not in the build side
+        Block probeKeyBlock = createKeyBlock(0, 200_000, 200_000);
+        Page probePage = new Page(probeKeyBlock);
+        for (int position = 0; position < probeKeyBlock.getPositionCount(); position++) {
+            if (probeKeyBlock.isNull(position)) {
+                continue;
+            }
+            // the positions of a key are linked in the same order
+            assertEquals(getMatchingAddressIndexes(parallelPagesHash, parallelPagesHash.getAddressIndex(position, probePage, probePage)),
+                    getMatchingAddressIndexes(serialPagesHash, serialPagesHash.getAddressIndex(position, probePage, probePage)));
+        }
+    }
+
+    @Test
+    public void testParallelBuildTemporarySize()
+    {
+        assertEquals(PagesHash.getParallelBuildTemporarySizeInBytes(300 * ROWS_PER_BLOCK, false), 0);
+        assertEquals(PagesHash.getParallelBuildTemporarySizeInBytes(ROWS_PER_BLOCK, true), 0);
+        assertEquals(PagesHash.getParallelBuildTemporarySizeInBytes(300 * ROWS_PER_BLOCK, true), 2 * sizeOf(new int[300 * ROWS_PER_BLOCK]));
+    }
+
+    private static List<Integer> getMatchingAddressIndexes(PagesHash pagesHash, int addressIndex)
+    {
+        ImmutableList.Builder<Integer> addressIndexes = ImmutableList.builder();
+        while (addressIndex >= 0) {
+            addressIndexes.add(addressIndex);
+            addressIndex = pagesHash.getNextAddressIndex(addressIndex);
+        }
+        return addressIndexes.build();
+    }
+
+    private static Block createKeyBlock(int start, int positionCount, int distinctKeys)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), positionCount);
+        for (int i = start; i < start + positionCount; i++) {
+            if (i % 97 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(blockBuilder, (i * 7919L) % distinctKeys);
+            }
+        }
+        return blockBuilder.build();
+    }
+}
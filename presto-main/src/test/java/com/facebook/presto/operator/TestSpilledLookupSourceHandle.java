@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spiller.Spiller;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestSpilledLookupSourceHandle
+{
+    @Test
+    public void testUnspillDoesNotBlockAcquirer()
+            throws Exception
+    {
+        CompletableFuture<LookupSourceSupplier> unspilled = new CompletableFuture<>();
+        AtomicLong reservedBytes = new AtomicLong();
+        SpilledLookupSourceHandle handle = new SpilledLookupSourceHandle(new NoOpSpiller(), () -> new TestingLookupSource(0), () -> unspilled, reservedBytes::addAndGet);
+
+        ListenableFuture<Supplier<LookupSource>> acquired = handle.acquireLookupSource();
+        assertFalse(acquired.isDone());
+        assertEquals(reservedBytes.get(), 0);
+
+        unspilled.complete(lookupSourceSupplier(100));
+        assertTrue(acquired.isDone());
+        assertEquals(acquired.get().get().getInMemorySizeInBytes(), 100);
+        assertEquals(reservedBytes.get(), 100);
+
+        handle.setConsumerCount(1);
+        handle.releaseLookupSource();
+        assertEquals(reservedBytes.get(), 0);
+        handle.dispose();
+    }
+
+    @Test
+    public void testPartitionLoadedOnceForAllConsumers()
+            throws Exception
+    {
+        AtomicInteger unspillCount = new AtomicInteger();
+        AtomicLong reservedBytes = new AtomicLong();
+        SpilledLookupSourceHandle handle = new SpilledLookupSourceHandle(
+                new NoOpSpiller(),
+                () -> new TestingLookupSource(0),
+                () -> {
+                    unspillCount.incrementAndGet();
+                    return CompletableFuture.completedFuture(lookupSourceSupplier(100));
+                },
+                reservedBytes::addAndGet);
+        handle.setConsumerCount(2);
+
+        assertEquals(handle.acquireLookupSource().get().get().getInMemorySizeInBytes(), 100);
+        handle.releaseLookupSource();
+        // the partition stays in memory until the second consumer released it
+        assertEquals(reservedBytes.get(), 100);
+        assertFalse(handle.getReleasedFuture().isDone());
+
+        assertEquals(handle.acquireLookupSource().get().get().getInMemorySizeInBytes(), 100);
+        assertEquals(unspillCount.get(), 1);
+        handle.releaseLookupSource();
+        assertEquals(reservedBytes.get(), 0);
+        assertTrue(handle.getReleasedFuture().isDone());
+        handle.dispose();
+    }
+
+    @Test
+    public void testReleaseBeforeConsumerCountIsSet()
+    {
+        AtomicLong reservedBytes = new AtomicLong();
+        SpilledLookupSourceHandle handle = new SpilledLookupSourceHandle(
+                new NoOpSpiller(),
+                () -> new TestingLookupSource(0),
+                () -> CompletableFuture.completedFuture(lookupSourceSupplier(100)),
+                reservedBytes::addAndGet);
+
+        handle.acquireLookupSource();
+        handle.releaseLookupSource();
+        handle.releaseLookupSource();
+        assertEquals(reservedBytes.get(), 100);
+        assertFalse(handle.getReleasedFuture().isDone());
+
+        handle.setConsumerCount(2);
+        assertEquals(reservedBytes.get(), 0);
+        assertTrue(handle.getReleasedFuture().isDone());
+        handle.dispose();
+    }
+
+    @Test
+    public void testUnspillFailure()
+            throws Exception
+    {
+        CompletableFuture<LookupSourceSupplier> unspilled = new CompletableFuture<>();
+        SpilledLookupSourceHandle handle = new SpilledLookupSourceHandle(new NoOpSpiller(), () -> new TestingLookupSource(0), () -> unspilled, bytes -> { });
+
+        ListenableFuture<Supplier<LookupSource>> acquired = handle.acquireLookupSource();
+        unspilled.completeExceptionally(new IllegalStateException("read failed"));
+        try {
+            acquired.get();
+            fail("expected ExecutionException");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        handle.dispose();
+    }
+
+    private static LookupSourceSupplier lookupSourceSupplier(long sizeInBytes)
+    {
+        return new LookupSourceSupplier()
+        {
+            @Override
+            public LookupSource get()
+            {
+                return new TestingLookupSource(0)
+                {
+                    @Override
+                    public long getInMemorySizeInBytes()
+                    {
+                        return sizeInBytes;
+                    }
+                };
+            }
+
+            @Override
+            public long getHashCollisions()
+            {
+                return 0;
+            }
+
+            @Override
+            public double getExpectedHashCollisions()
+            {
+                return 0;
+            }
+        };
+    }
+
+    private static class NoOpSpiller
+            implements Spiller
+    {
+        @Override
+        public CompletableFuture<?> spill(Iterator<Page> pageIterator)
+        {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public List<Iterator<Page>> getSpills()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+
+/**
+ * Lookup source over the build keys {@code 0 .. joinPositionCount - 1}, where the join position
+ * of a key is the key itself. It counts the lookups and outputs the join position as the only build column.
+ */
+public class TestingLookupSource
+        implements LookupSource
+{
+    private final int joinPositionCount;
+    private int lookupCount;
+
+    public TestingLookupSource(int joinPositionCount)
+    {
+        this.joinPositionCount = joinPositionCount;
+    }
+
+    public int getLookupCount()
+    {
+        return lookupCount;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return joinPositionCount == 0;
+    }
+
+    @Override
+    public int getChannelCount()
+    {
+        return 1;
+    }
+
+    @Override
+    public long getInMemorySizeInBytes()
+    {
+        return 0;
+    }
+
+    @Override
+    public int getJoinPositionCount()
+    {
+        return joinPositionCount;
+    }
+
+    @Override
+    public long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage, long rawHash)
+    {
+        return getJoinPosition(position, hashChannelsPage, allChannelsPage);
+    }
+
+    @Override
+    public long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage)
+    {
+        lookupCount++;
+        Block block = hashChannelsPage.getBlock(0);
+        long key = BIGINT.getLong(block, position);
+        return key >= 0 && key < joinPositionCount ? key : -1;
+    }
+
+    @Override
+    public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
+    {
+        return -1;
+    }
+
+    @Override
+    public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset), position);
+    }
+
+    @Override
+    public boolean isJoinPositionEligible(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
+    {
+        return true;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
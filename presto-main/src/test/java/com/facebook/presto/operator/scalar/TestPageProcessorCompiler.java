@@ -17,7 +17,10 @@ import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.metadata.Signature;
 import com.facebook.presto.operator.PageProcessor;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.LazyBlock;
+import com.facebook.presto.spi.block.LazyBlockLoader;
 import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.block.SliceArrayBlock;
 import com.facebook.presto.spi.type.StandardTypes;
@@ -29,13 +32,16 @@ import com.facebook.presto.sql.relational.InputReferenceExpression;
 import com.facebook.presto.sql.relational.RowExpression;
 import com.facebook.presto.type.ArrayType;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import org.testng.annotations.Test;
 
 import static com.facebook.presto.block.BlockAssertions.createLongDictionaryBlock;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createRLEBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
 import static com.facebook.presto.metadata.FunctionKind.SCALAR;
 import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
 import static com.facebook.presto.metadata.Signature.internalOperator;
@@ -48,6 +54,8 @@ import static java.lang.Boolean.TRUE;
 import static java.util.Collections.singletonList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 public class TestPageProcessorCompiler
@@ -161,6 +169,52 @@ public class TestPageProcessorCompiler
         assertEquals(dictionaryBlock.getDictionary().getPositionCount(), 10);
     }
 
+    @Test
+    public void testColumnarLoadsSelectedPositions()
+            throws Exception
+    {
+        Signature lessThan = internalOperator(LESS_THAN, BOOLEAN, ImmutableList.of(BIGINT, BIGINT));
+        CallExpression filter = new CallExpression(lessThan, BOOLEAN, ImmutableList.of(new InputReferenceExpression(0, BIGINT), new ConstantExpression(10L, BIGINT)));
+
+        PageProcessor processor = new ExpressionCompiler(createTestMetadataManager())
+                .compilePageProcessor(filter, ImmutableList.of(new InputReferenceExpression(1, VARCHAR), new InputReferenceExpression(1, VARCHAR))).get();
+
+        Block values = createStringSequenceBlock(0, 100);
+        SelectedPositionsLoader loader = new SelectedPositionsLoader(values);
+        Page page = new Page(createLongSequenceBlock(0, 100), new LazyBlock(100, loader));
+        Page outputPage = processor.processColumnar(null, page, ImmutableList.of(VARCHAR, VARCHAR));
+
+        assertEquals(outputPage.getPositionCount(), 10);
+        assertEquals(loader.getLoadCount(), 1);
+        assertEquals(loader.getFullLoadCount(), 0);
+        for (int position = 0; position < 10; position++) {
+            assertEquals(VARCHAR.getSlice(outputPage.getBlock(0), position), VARCHAR.getSlice(values, position));
+            assertEquals(VARCHAR.getSlice(outputPage.getBlock(1), position), VARCHAR.getSlice(values, position));
+        }
+    }
+
+    @Test
+    public void testLazyBlockLoadableAfterSelectedPositions()
+    {
+        Block values = createStringSequenceBlock(0, 100);
+        SelectedPositionsLoader loader = new SelectedPositionsLoader(values);
+        LazyBlock lazyBlock = new LazyBlock(100, loader);
+
+        int[] positions = {1, 5, 42};
+        Block selected = lazyBlock.loadPositions(positions, positions.length);
+        assertEquals(selected.getPositionCount(), 3);
+        assertEquals(VARCHAR.getSlice(selected, 2), VARCHAR.getSlice(values, 42));
+        assertSame(lazyBlock.loadPositions(positions, positions.length), selected);
+        assertEquals(loader.getLoadCount(), 1);
+
+        // the whole block is still loaded on demand
+        for (int position = 0; position < 100; position++) {
+            assertEquals(VARCHAR.getSlice(lazyBlock, position), VARCHAR.getSlice(values, position));
+        }
+        assertEquals(loader.getFullLoadCount(), 1);
+        assertNull(lazyBlock.loadPositions(positions, positions.length));
+    }
+
     @Test
     public void testNonDeterministicProject()
             throws Exception
@@ -181,6 +235,43 @@ public class TestPageProcessorCompiler
         assertFalse(outputPage.getBlock(0) instanceof DictionaryBlock);
     }
 
+    private static class SelectedPositionsLoader
+            implements LazyBlockLoader<LazyBlock>
+    {
+        private final Block block;
+        private int loadCount;
+        private int fullLoadCount;
+
+        public SelectedPositionsLoader(Block block)
+        {
+            this.block = block;
+        }
+
+        @Override
+        public void load(LazyBlock lazyBlock)
+        {
+            fullLoadCount++;
+            lazyBlock.setBlock(block);
+        }
+
+        @Override
+        public Block loadPositions(LazyBlock lazyBlock, int[] positions, int positionCount)
+        {
+            loadCount++;
+            return block.copyPositions(Ints.asList(positions).subList(0, positionCount));
+        }
+
+        public int getLoadCount()
+        {
+            return loadCount;
+        }
+
+        public int getFullLoadCount()
+        {
+            return fullLoadCount;
+        }
+    }
+
     private static DictionaryBlock createDictionaryBlock(Slice[] expectedValues, int positionCount)
     {
         int dictionarySize = expectedValues.length;
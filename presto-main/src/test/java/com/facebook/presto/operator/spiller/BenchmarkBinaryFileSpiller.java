@@ -87,7 +87,13 @@ public class BenchmarkBinaryFileSpiller
     public static class BenchmarkData
     {
         private final ListeningExecutorService executor = MoreExecutors.newDirectExecutorService();
-        private final BinarySpillerFactory spillerFactory = new BinarySpillerFactory(executor, BLOCK_ENCODING_MANAGER, SPILL_PATH);
+        private BinarySpillerFactory spillerFactory;
+
+        @Param({"false", "true"})
+        private boolean compressionEnabled;
+
+        @Param({"false", "true"})
+        private boolean encryptionEnabled;
 
         @Param({"10000"})
         private int rowsPerPage = 10000;
@@ -102,6 +108,7 @@ public class BenchmarkBinaryFileSpiller
         public void setup()
                 throws ExecutionException, InterruptedException
         {
+            spillerFactory = new BinarySpillerFactory(executor, BLOCK_ENCODING_MANAGER, ImmutableList.of(SPILL_PATH), 1.0, compressionEnabled, encryptionEnabled);
             pages = createInputPages();
             readSpiller = spillerFactory.create(TYPES);
             readSpiller.spill(pages.iterator()).get();
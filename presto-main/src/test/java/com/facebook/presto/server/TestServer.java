@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.server;
 
+import com.facebook.presto.client.BinaryResults;
 import com.facebook.presto.client.QueryError;
 import com.facebook.presto.client.QueryResults;
 import com.facebook.presto.execution.QueryInfo;
@@ -33,12 +34,15 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.List;
 
 import static com.facebook.presto.SystemSessionProperties.DISTRIBUTED_JOIN;
 import static com.facebook.presto.SystemSessionProperties.HASH_PARTITION_COUNT;
 import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_MEMORY;
+import static com.facebook.presto.client.BinaryResults.BINARY_RESULTS;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CATALOG;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_CAPABILITIES;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CLIENT_INFO;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PREPARED_STATEMENT;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_SCHEMA;
@@ -177,6 +181,52 @@ public class TestServer
         assertEquals(rows, ImmutableList.of(ImmutableList.of("system")));
     }
 
+    @Test
+    public void testBinaryResults()
+            throws Exception
+    {
+        String sql = "SELECT * FROM (VALUES " +
+                "(true, TINYINT '1', SMALLINT '2', 3, BIGINT '4', REAL '5.5', 6.5E0, 'seven', X'08')," +
+                "(NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL))";
+
+        List<List<Object>> rows = executeBinaryResults(sql);
+        assertEquals(rows.size(), 2);
+        assertEquals(rows.get(0).subList(0, 8), ImmutableList.of(true, (byte) 1, (short) 2, 3, 4L, 5.5f, 6.5, "seven"));
+        assertEquals((byte[]) rows.get(0).get(8), new byte[] {8});
+        assertEquals(rows.get(1), Collections.nCopies(9, null));
+
+        // types without a binary representation fall back to JSON
+        assertEquals(executeBinaryResults("SELECT DATE '2001-08-22'"), ImmutableList.of(ImmutableList.of("2001-08-22")));
+    }
+
+    private List<List<Object>> executeBinaryResults(String sql)
+    {
+        Request request = preparePost()
+                .setUri(uriFor("/v1/statement"))
+                .setBodyGenerator(createStaticBodyGenerator(sql, UTF_8))
+                .setHeader(PRESTO_USER, "user")
+                .setHeader(PRESTO_SOURCE, "source")
+                .setHeader(PRESTO_CLIENT_CAPABILITIES, BINARY_RESULTS)
+                .build();
+
+        QueryResults queryResults = client.execute(request, createJsonResponseHandler(jsonCodec(QueryResults.class)));
+        ImmutableList.Builder<List<Object>> data = ImmutableList.builder();
+        boolean binary = false;
+        while (true) {
+            if (queryResults.getData() != null) {
+                data.addAll(queryResults.getData());
+                binary |= queryResults.getBinaryData() != null;
+            }
+            if (queryResults.getNextUri() == null) {
+                break;
+            }
+            queryResults = client.execute(prepareGet().setUri(queryResults.getNextUri()).build(), createJsonResponseHandler(jsonCodec(QueryResults.class)));
+        }
+        assertNull(queryResults.getError());
+        assertEquals(binary, queryResults.getColumns().stream().allMatch(column -> BinaryResults.isSupportedType(column.getTypeSignature())));
+        return data.build();
+    }
+
     @Test
     public void testTransactionSupport()
             throws Exception
@@ -16,6 +16,7 @@ package com.facebook.presto.spiller;
 import com.facebook.presto.RowPagesBuilder;
 import com.facebook.presto.block.BlockEncodingManager;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
@@ -24,19 +25,29 @@ import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.type.TypeRegistry;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
+import java.io.File;
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.testing.FileUtils.deleteRecursively;
 import static java.lang.Double.doubleToLongBits;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 @Test(singleThreaded = true)
 public class TestBinaryFileSpiller
@@ -44,13 +55,88 @@ public class TestBinaryFileSpiller
     private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, DOUBLE, BIGINT);
     private final BlockEncodingSerde blockEncodingSerde = new BlockEncodingManager(new TypeRegistry(ImmutableSet.of(BIGINT, DOUBLE, VARBINARY)));
     private final BinarySpillerFactory factory = new BinarySpillerFactory(blockEncodingSerde, new FeaturesConfig());
+    private final ListeningExecutorService executor = newDirectExecutorService();
+    private final File spillDirectory = Files.createTempDir();
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        deleteRecursively(spillDirectory);
+    }
 
     @Test
     public void testFileSpiller()
             throws Exception
     {
         try (Spiller spiller = factory.create(TYPES)) {
-            testSimpleSpiller(spiller);
+            testSimpleSpiller(factory, spiller);
+        }
+    }
+
+    @Test
+    public void testCompressedAndEncryptedSpiller()
+            throws Exception
+    {
+        BinarySpillerFactory factory = new BinarySpillerFactory(executor, blockEncodingSerde, ImmutableList.of(spillDirectory.toPath()), 1.0, true, true);
+        try (Spiller spiller = factory.create(TYPES)) {
+            testSimpleSpiller(factory, spiller);
+        }
+        assertTrue(factory.getStats().getWrittenBytes() > 0);
+        assertEquals(factory.getStats().getWriteTime().getAllTime().getCount(), 2.0);
+        assertEquals(factory.getStats().getPageReadTime().getAllTime().getCount(), 4.0);
+    }
+
+    @Test
+    public void testGetAllSpilledPages()
+            throws Exception
+    {
+        List<Page> firstSpill = RowPagesBuilder.rowPagesBuilder(TYPES)
+                .addSequencePage(10, 0, 5, 10, 15)
+                .build();
+        List<Page> secondSpill = RowPagesBuilder.rowPagesBuilder(TYPES)
+                .addSequencePage(10, 10, 15, 20, 25)
+                .build();
+        try (Spiller spiller = factory.create(TYPES)) {
+            spiller.spill(firstSpill.iterator()).get();
+            spiller.spill(secondSpill.iterator()).get();
+
+            List<Page> actual = spiller.getAllSpilledPages().get();
+            assertEquals(actual.size(), 2);
+            assertPageEquals(TYPES, actual.get(0), firstSpill.get(0));
+            assertPageEquals(TYPES, actual.get(1), secondSpill.get(0));
+        }
+    }
+
+    @Test
+    public void testSpillPathsRoundRobin()
+            throws Exception
+    {
+        Path first = new File(spillDirectory, "first").toPath();
+        Path second = new File(spillDirectory, "second").toPath();
+        BinarySpillerFactory factory = new BinarySpillerFactory(executor, blockEncodingSerde, ImmutableList.of(first, second), 1.0, false, false);
+        try (Spiller firstSpiller = factory.create(TYPES);
+                Spiller secondSpiller = factory.create(TYPES)) {
+            assertEquals(first.toFile().list().length, 1);
+            assertEquals(second.toFile().list().length, 1);
+            testSimpleSpiller(factory, firstSpiller);
+            testSimpleSpiller(factory, secondSpiller);
+        }
+        assertEquals(first.toFile().list().length, 0);
+        assertEquals(second.toFile().list().length, 0);
+    }
+
+    @Test
+    public void testNoFreeSpillSpace()
+    {
+        // no disk can have all of its space free, so no path is ever eligible
+        BinarySpillerFactory factory = new BinarySpillerFactory(executor, blockEncodingSerde, ImmutableList.of(spillDirectory.toPath()), 0.0, false, false);
+        try {
+            factory.create(TYPES).close();
+            fail("expected exception");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getErrorCode(), OUT_OF_SPILL_SPACE.toErrorCode());
         }
     }
 
@@ -71,11 +157,11 @@ public class TestBinaryFileSpiller
         Page page = new Page(col1.build(), col2.build(), col3.build());
 
         try (Spiller spiller = factory.create(TYPES)) {
-            testSpiller(types, spiller, ImmutableList.of(page));
+            testSpiller(factory, types, spiller, ImmutableList.of(page));
         }
     }
 
-    private void testSimpleSpiller(Spiller spiller)
+    private void testSimpleSpiller(SpillerFactory factory, Spiller spiller)
             throws ExecutionException, InterruptedException
     {
         RowPagesBuilder builder = RowPagesBuilder.rowPagesBuilder(TYPES);
@@ -90,10 +176,10 @@ public class TestBinaryFileSpiller
         builder.addSequencePage(10, -10, -15, -20, -25);
         List<Page> secondSpill = builder.build();
 
-        testSpiller(TYPES, spiller, firstSpill, secondSpill);
+        testSpiller(factory, TYPES, spiller, firstSpill, secondSpill);
     }
 
-    private void testSpiller(List<Type> types, Spiller spiller, List<Page>... spills)
+    private void testSpiller(SpillerFactory factory, List<Type> types, Spiller spiller, List<Page>... spills)
             throws ExecutionException, InterruptedException
     {
         long spilledBytesBefore = factory.getTotalSpilledBytes();
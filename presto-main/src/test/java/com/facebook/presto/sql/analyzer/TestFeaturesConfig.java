@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.sql.analyzer;
 
+import com.facebook.presto.execution.buffer.PageCompression;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
 import io.airlift.units.DataSize;
@@ -55,12 +56,29 @@ public class TestFeaturesConfig
                 .setRe2JDfaRetries(5)
                 .setSpillEnabled(false)
                 .setOperatorMemoryLimitBeforeSpill(DataSize.valueOf("4MB"))
-                .setSpillerSpillPath(Paths.get(System.getProperty("java.io.tmpdir"), "presto", "spills").toString())
+                .setSpillerSpillPaths(Paths.get(System.getProperty("java.io.tmpdir"), "presto", "spills").toString())
                 .setSpillerThreads(4)
+                .setSpillMaxUsedSpaceThreshold(0.9)
+                .setSpillCompressionEnabled(false)
+                .setSpillEncryptionEnabled(false)
+                .setMemoryRevokingThreshold(0.9)
+                .setMemoryRevokingTarget(0.5)
                 .setOptimizeMixedDistinctAggregations(false)
                 .setLegacyOrderBy(false)
                 .setIterativeOptimizerEnabled(false)
-                .setExchangeCompressionEnabled(false));
+                .setExchangeCompressionEnabled(false)
+                .setExchangeCompressionCodec(PageCompression.LZ4)
+                .setExchangeCompressionAdaptive(false)
+                .setExchangeChecksumEnabled(false)
+                .setDynamicFilteringEnabled(false)
+                .setCostBasedJoinEnabled(false)
+                .setAutomaticJoinDistributionEnabled(false)
+                .setJoinMaxBroadcastTableSize(DataSize.valueOf("100MB"))
+                .setAdaptivePartialAggregationEnabled(false)
+                .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.8)
+                .setDirectResultStreamingEnabled(false)
+                .setOpenAddressingJoinHashEnabled(false)
+                .setParallelHashBuildEnabled(false));
     }
 
     @Test
@@ -90,9 +108,26 @@ public class TestFeaturesConfig
                 .put("re2j.dfa-retries", "42")
                 .put("experimental.spill-enabled", "true")
                 .put("experimental.operator-memory-limit-before-spill", "100MB")
-                .put("experimental.spiller-spill-path", "/tmp/custom/spill/path")
+                .put("experimental.spiller-spill-path", "/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .put("experimental.spiller-threads", "42")
+                .put("experimental.spiller-max-used-space-threshold", "0.8")
+                .put("experimental.spill-compression-enabled", "true")
+                .put("experimental.spill-encryption-enabled", "true")
+                .put("experimental.memory-revoking-threshold", "0.2")
+                .put("experimental.memory-revoking-target", "0.8")
                 .put("exchange.compression-enabled", "true")
+                .put("exchange.compression-codec", "SNAPPY")
+                .put("exchange.compression-adaptive", "true")
+                .put("exchange.checksum-enabled", "true")
+                .put("experimental.dynamic-filtering-enabled", "true")
+                .put("experimental.cost-based-join-enabled", "true")
+                .put("automatic-join-distribution-enabled", "true")
+                .put("join-max-broadcast-table-size", "1GB")
+                .put("adaptive-partial-aggregation.enabled", "true")
+                .put("adaptive-partial-aggregation.unique-rows-ratio-threshold", "0.5")
+                .put("direct-result-streaming.enabled", "true")
+                .put("experimental.open-addressing-join-hash-enabled", "true")
+                .put("experimental.parallel-hash-build-enabled", "true")
                 .build();
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("experimental.resource-groups-enabled", "true")
@@ -118,9 +153,26 @@ public class TestFeaturesConfig
                 .put("re2j.dfa-retries", "42")
                 .put("experimental.spill-enabled", "true")
                 .put("experimental.operator-memory-limit-before-spill", "100MB")
-                .put("experimental.spiller-spill-path", "/tmp/custom/spill/path")
+                .put("experimental.spiller-spill-path", "/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .put("experimental.spiller-threads", "42")
+                .put("experimental.spiller-max-used-space-threshold", "0.8")
+                .put("experimental.spill-compression-enabled", "true")
+                .put("experimental.spill-encryption-enabled", "true")
+                .put("experimental.memory-revoking-threshold", "0.2")
+                .put("experimental.memory-revoking-target", "0.8")
                 .put("exchange.compression-enabled", "true")
+                .put("exchange.compression-codec", "SNAPPY")
+                .put("exchange.compression-adaptive", "true")
+                .put("exchange.checksum-enabled", "true")
+                .put("experimental.dynamic-filtering-enabled", "true")
+                .put("experimental.cost-based-join-enabled", "true")
+                .put("automatic-join-distribution-enabled", "true")
+                .put("join-max-broadcast-table-size", "1GB")
+                .put("adaptive-partial-aggregation.enabled", "true")
+                .put("adaptive-partial-aggregation.unique-rows-ratio-threshold", "0.5")
+                .put("direct-result-streaming.enabled", "true")
+                .put("experimental.open-addressing-join-hash-enabled", "true")
+                .put("experimental.parallel-hash-build-enabled", "true")
                 .build();
 
         FeaturesConfig expected = new FeaturesConfig()
@@ -146,10 +198,27 @@ public class TestFeaturesConfig
                 .setRe2JDfaRetries(42)
                 .setSpillEnabled(true)
                 .setOperatorMemoryLimitBeforeSpill(DataSize.valueOf("100MB"))
-                .setSpillerSpillPath("/tmp/custom/spill/path")
+                .setSpillerSpillPaths("/tmp/custom/spill/path1,/tmp/custom/spill/path2")
                 .setSpillerThreads(42)
+                .setSpillMaxUsedSpaceThreshold(0.8)
+                .setSpillCompressionEnabled(true)
+                .setSpillEncryptionEnabled(true)
+                .setMemoryRevokingThreshold(0.2)
+                .setMemoryRevokingTarget(0.8)
                 .setLegacyOrderBy(true)
-                .setExchangeCompressionEnabled(true);
+                .setExchangeCompressionEnabled(true)
+                .setExchangeCompressionCodec(PageCompression.SNAPPY)
+                .setExchangeCompressionAdaptive(true)
+                .setExchangeChecksumEnabled(true)
+                .setDynamicFilteringEnabled(true)
+                .setCostBasedJoinEnabled(true)
+                .setAutomaticJoinDistributionEnabled(true)
+                .setJoinMaxBroadcastTableSize(DataSize.valueOf("1GB"))
+                .setAdaptivePartialAggregationEnabled(true)
+                .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.5)
+                .setDirectResultStreamingEnabled(true)
+                .setOpenAddressingJoinHashEnabled(true)
+                .setParallelHashBuildEnabled(true);
 
         assertFullMapping(properties, expected);
         assertDeprecatedEquivalence(FeaturesConfig.class, properties, propertiesLegacy);
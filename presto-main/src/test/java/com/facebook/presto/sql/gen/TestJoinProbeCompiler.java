@@ -72,11 +72,11 @@ public class TestJoinProbeCompiler
     @DataProvider(name = "hashEnabledValues")
     public static Object[][] hashEnabledValuesProvider()
     {
-        return new Object[][] {{true}, {false}};
+        return new Object[][] {{true, false}, {false, false}, {true, true}, {false, true}};
     }
 
     @Test(dataProvider = "hashEnabledValues")
-    public void testSingleChannel(boolean hashEnabled)
+    public void testSingleChannel(boolean hashEnabled, boolean openAddressingHashEnabled)
             throws Exception
     {
         taskContext.addPipelineContext(0, true, true).addDriverContext();
@@ -122,7 +122,9 @@ public class TestJoinProbeCompiler
                 addresses,
                 channels,
                 hashChannel,
-                Optional.empty())
+                Optional.empty(),
+                openAddressingHashEnabled,
+                false)
                 .get();
 
         JoinProbeCompiler joinProbeCompiler = new JoinProbeCompiler();
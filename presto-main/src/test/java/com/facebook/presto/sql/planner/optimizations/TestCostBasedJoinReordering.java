@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.SystemSessionProperties;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.assertions.BasePlanTest;
+import com.facebook.presto.sql.planner.optimizations.joins.JoinGraph;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.anyTree;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.equiJoinClause;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.join;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.tableScan;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestCostBasedJoinReordering
+        extends BasePlanTest
+{
+    private final PlanNodeIdAllocator idAllocator = new PlanNodeIdAllocator();
+
+    public TestCostBasedJoinReordering()
+    {
+        super(ImmutableMap.of(SystemSessionProperties.COST_BASED_JOIN, "true"));
+    }
+
+    @Test
+    public void testBuildSmallerTable()
+    {
+        assertPlan("SELECT * FROM nation n JOIN customer c ON n.nationkey = c.nationkey",
+                anyTree(
+                        join(INNER, ImmutableList.of(equiJoinClause("C_NATIONKEY", "N_NATIONKEY")),
+                                anyTree(tableScan("customer", ImmutableMap.of("C_NATIONKEY", "nationkey"))),
+                                anyTree(tableScan("nation", ImmutableMap.of("N_NATIONKEY", "nationkey"))))));
+    }
+
+    @Test
+    public void testLargestRelationIsProbedFirst()
+    {
+        PlanNode plan =
+                innerJoin(
+                        innerJoin(
+                                values("a"),
+                                values("b"),
+                                "a", "b"),
+                        values("c"),
+                        "b", "c");
+
+        JoinGraph joinGraph = getOnlyElement(JoinGraph.buildFrom(plan));
+
+        assertEquals(
+                CostBasedJoinReordering.getJoinOrder(joinGraph, ImmutableList.of(10.0, 1000.0, 100.0)),
+                ImmutableList.of(1, 0, 2));
+    }
+
+    @Test
+    public void testKeepOriginalOrder()
+    {
+        PlanNode plan =
+                innerJoin(
+                        innerJoin(
+                                values("a"),
+                                values("b"),
+                                "a", "b"),
+                        values("c"),
+                        "b", "c");
+
+        JoinGraph joinGraph = getOnlyElement(JoinGraph.buildFrom(plan));
+
+        assertEquals(
+                CostBasedJoinReordering.getJoinOrder(joinGraph, ImmutableList.of(1000.0, 10.0, 100.0)),
+                ImmutableList.of(0, 1, 2));
+    }
+
+    @Test
+    public void testPreferConnectedRelations()
+    {
+        // c is the smallest relation, but it can only be joined with a
+        PlanNode plan =
+                innerJoin(
+                        innerJoin(
+                                values("a"),
+                                values("b"),
+                                "a", "b"),
+                        values("c"),
+                        "a", "c");
+
+        JoinGraph joinGraph = getOnlyElement(JoinGraph.buildFrom(plan));
+
+        assertEquals(
+                CostBasedJoinReordering.getJoinOrder(joinGraph, ImmutableList.of(10.0, 1000.0, 1.0)),
+                ImmutableList.of(1, 0, 2));
+    }
+
+    @Test
+    public void testDisconnectedGraph()
+    {
+        PlanNode plan =
+                innerJoin(
+                        innerJoin(
+                                values("a"),
+                                values("b"),
+                                "a", "b"),
+                        values("c"));
+
+        JoinGraph joinGraph = getOnlyElement(JoinGraph.buildFrom(plan));
+
+        assertEquals(
+                CostBasedJoinReordering.getJoinOrder(joinGraph, ImmutableList.of(10.0, 1.0, 1000.0)),
+                ImmutableList.of(2, 1, 0));
+    }
+
+    private JoinNode innerJoin(PlanNode left, PlanNode right, String... symbols)
+    {
+        checkArgument(symbols.length % 2 == 0);
+        ImmutableList.Builder<JoinNode.EquiJoinClause> criteria = ImmutableList.builder();
+
+        for (int i = 0; i < symbols.length; i += 2) {
+            criteria.add(new JoinNode.EquiJoinClause(new Symbol(symbols[i]), new Symbol(symbols[i + 1])));
+        }
+
+        return new JoinNode(
+                idAllocator.getNextId(),
+                INNER,
+                left,
+                right,
+                criteria.build(),
+                ImmutableList.<Symbol>builder()
+                        .addAll(left.getOutputSymbols())
+                        .addAll(right.getOutputSymbols())
+                        .build(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty());
+    }
+
+    private ValuesNode values(String symbol)
+    {
+        return new ValuesNode(idAllocator.getNextId(), ImmutableList.of(new Symbol(symbol)), ImmutableList.of());
+    }
+}
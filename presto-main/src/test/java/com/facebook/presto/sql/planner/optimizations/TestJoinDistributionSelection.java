@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.planner.LogicalPlanner;
+import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.PlanOptimizers;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.SemiJoinNode;
+import com.facebook.presto.testing.LocalQueryRunner;
+import com.facebook.presto.tpch.TpchConnectorFactory;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.weakref.jmx.MBeanExporter;
+import org.weakref.jmx.testing.TestingMBeanServer;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.AUTOMATIC_JOIN_DISTRIBUTION;
+import static com.facebook.presto.SystemSessionProperties.COST_BASED_JOIN;
+import static com.facebook.presto.SystemSessionProperties.JOIN_MAX_BROADCAST_TABLE_SIZE;
+import static com.facebook.presto.sql.planner.plan.JoinNode.DistributionType.PARTITIONED;
+import static com.facebook.presto.sql.planner.plan.JoinNode.DistributionType.REPLICATED;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+
+public class TestJoinDistributionSelection
+{
+    private LocalQueryRunner queryRunner;
+    private List<PlanOptimizer> optimizers;
+
+    @BeforeClass
+    public void setUp()
+    {
+        queryRunner = new LocalQueryRunner(testSessionBuilder()
+                .setCatalog("local")
+                .setSchema("tiny")
+                .setSystemProperty(AUTOMATIC_JOIN_DISTRIBUTION, "true")
+                .build());
+        queryRunner.createCatalog("local", new TpchConnectorFactory(1), ImmutableMap.of());
+        optimizers = new PlanOptimizers(queryRunner.getMetadata(), new SqlParser(), new FeaturesConfig(), new MBeanExporter(new TestingMBeanServer())).get();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        queryRunner.close();
+    }
+
+    @Test
+    public void testSmallBuildIsReplicated()
+    {
+        assertJoinDistribution(queryRunner.getDefaultSession(), "SELECT * FROM lineitem l JOIN nation n ON l.suppkey = n.nationkey", REPLICATED);
+    }
+
+    @Test
+    public void testLargeBuildIsPartitioned()
+    {
+        assertJoinDistribution(queryRunner.getDefaultSession(), "SELECT * FROM lineitem l JOIN orders o ON l.orderkey = o.orderkey", PARTITIONED);
+    }
+
+    @Test
+    public void testBuildAboveBroadcastLimitIsPartitioned()
+    {
+        Session session = Session.builder(queryRunner.getDefaultSession())
+                .setSystemProperty(JOIN_MAX_BROADCAST_TABLE_SIZE, "1kB")
+                .build();
+        assertJoinDistribution(session, "SELECT * FROM lineitem l JOIN nation n ON l.suppkey = n.nationkey", PARTITIONED);
+    }
+
+    @Test
+    public void testSemiJoin()
+    {
+        Session session = queryRunner.getDefaultSession();
+        assertSemiJoinDistribution(session, "SELECT * FROM lineitem WHERE suppkey IN (SELECT nationkey FROM nation)", REPLICATED);
+        assertSemiJoinDistribution(session, "SELECT * FROM lineitem WHERE orderkey IN (SELECT orderkey FROM orders)", PARTITIONED);
+    }
+
+    @Test
+    public void testOuterJoinIsPartitioned()
+    {
+        assertJoinDistribution(queryRunner.getDefaultSession(), "SELECT * FROM lineitem l FULL JOIN nation n ON l.suppkey = n.nationkey", PARTITIONED);
+    }
+
+    @Test
+    public void testCostBasedJoinDoesNotChooseDistribution()
+    {
+        Session session = Session.builder(queryRunner.getDefaultSession())
+                .setSystemProperty(AUTOMATIC_JOIN_DISTRIBUTION, "false")
+                .setSystemProperty(COST_BASED_JOIN, "true")
+                .build();
+        assertJoinDistribution(session, "SELECT * FROM lineitem l JOIN nation n ON l.suppkey = n.nationkey", PARTITIONED);
+    }
+
+    private void assertJoinDistribution(Session session, String sql, JoinNode.DistributionType expected)
+    {
+        Plan plan = plan(session, sql);
+        Optional<JoinNode> join = PlanNodeSearcher.searchFrom(plan.getRoot())
+                .where(JoinNode.class::isInstance)
+                .findFirst();
+        assertEquals(join.get().getDistributionType(), Optional.of(expected));
+    }
+
+    private void assertSemiJoinDistribution(Session session, String sql, JoinNode.DistributionType expected)
+    {
+        Plan plan = plan(session, sql);
+        Optional<SemiJoinNode> semiJoin = PlanNodeSearcher.searchFrom(plan.getRoot())
+                .where(SemiJoinNode.class::isInstance)
+                .findFirst();
+        assertEquals(semiJoin.get().getDistributionType(), Optional.of(expected));
+    }
+
+    private Plan plan(Session session, String sql)
+    {
+        return queryRunner.inTransaction(session, transactionSession -> queryRunner.createPlan(transactionSession, sql, optimizers, LogicalPlanner.Stage.OPTIMIZED_AND_VALIDATED));
+    }
+}
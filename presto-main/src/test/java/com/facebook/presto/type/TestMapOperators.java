@@ -245,6 +245,8 @@ public class TestMapOperators
         assertFunction("element_at(MAP(ARRAY[TRUE,FALSE],ARRAY[2,4]), TRUE)", INTEGER, 2);
         assertFunction("element_at(MAP(ARRAY['1', '100'], ARRAY[from_unixtime(1), from_unixtime(100)]), '1')", TIMESTAMP, new SqlTimestamp(1000, TEST_SESSION.getTimeZoneKey()));
         assertFunction("element_at(MAP(ARRAY[from_unixtime(1), from_unixtime(100)], ARRAY[1.0, 100.0]), from_unixtime(1))", DOUBLE, 1.0);
+        assertFunction("element_at(MAP(ARRAY[-0.0, 1.5], ARRAY[1, 2]), 0.0)", INTEGER, 1);
+        assertFunction("element_at(MAP(ARRAY[0.0, 1.5], ARRAY[1, 2]), -0.0)", INTEGER, 1);
     }
 
     @Test
@@ -270,6 +272,8 @@ public class TestMapOperators
         assertFunction("MAP(ARRAY[from_unixtime(1), from_unixtime(100)], ARRAY[1.0, 100.0])[from_unixtime(1)]", DOUBLE, 1.0);
         assertInvalidFunction("MAP(ARRAY [BIGINT '1'], ARRAY [BIGINT '2'])[3]", "Key not present in map: 3");
         assertInvalidFunction("MAP(ARRAY ['hi'], ARRAY [2])['missing']", "Key not present in map: missing");
+        assertFunction("MAP(ARRAY[-0.0, 1.5], ARRAY[1, 2])[0.0]", INTEGER, 1);
+        assertFunction("MAP(ARRAY[0.0, 1.5], ARRAY[1, 2])[-0.0]", INTEGER, 1);
     }
 
     @Test
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.Metadata;
+import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The decoded PostScript, Footer and Metadata of an ORC file. The tail does not
+ * reference the file it was read from, so it can be shared by readers of the same file.
+ */
+public final class OrcFileTail
+{
+    private final CompressionKind compressionKind;
+    private final HiveWriterVersion hiveWriterVersion;
+    private final int bufferSize;
+    private final Footer footer;
+    private final Metadata metadata;
+
+    public OrcFileTail(CompressionKind compressionKind, HiveWriterVersion hiveWriterVersion, int bufferSize, Footer footer, Metadata metadata)
+    {
+        checkArgument(bufferSize >= 0, "bufferSize is negative");
+
+        this.compressionKind = requireNonNull(compressionKind, "compressionKind is null");
+        this.hiveWriterVersion = requireNonNull(hiveWriterVersion, "hiveWriterVersion is null");
+        this.bufferSize = bufferSize;
+        this.footer = requireNonNull(footer, "footer is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+    }
+
+    public CompressionKind getCompressionKind()
+    {
+        return compressionKind;
+    }
+
+    public HiveWriterVersion getHiveWriterVersion()
+    {
+        return hiveWriterVersion;
+    }
+
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    public Footer getFooter()
+    {
+        return footer;
+    }
+
+    public Metadata getMetadata()
+    {
+        return metadata;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("compressionKind", compressionKind)
+                .add("hiveWriterVersion", hiveWriterVersion)
+                .add("bufferSize", bufferSize)
+                .toString();
+    }
+}
@@ -37,4 +37,13 @@ public interface OrcPredicate
      * in the file; this will match the field order from the hive metastore
      */
     boolean matches(long numberOfRows, Map<Integer, ColumnStatistics> statisticsByColumnIndex);
+
+    /**
+     * Does {@link #matches} use the bloom filter of the column at the specified ordinal
+     * position in the file. The bloom filter indexes of other columns are not read.
+     */
+    default boolean isBloomFilterUsed(int columnIndex)
+    {
+        return false;
+    }
 }
@@ -34,6 +34,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
 import static java.lang.Math.min;
@@ -61,9 +62,24 @@ public class OrcReader
     private final Footer footer;
     private final Metadata metadata;
 
-    // This is based on the Apache Hive ORC code
     public OrcReader(OrcDataSource orcDataSource, MetadataReader metadataReader, DataSize maxMergeDistance, DataSize maxReadSize)
             throws IOException
+    {
+        this(orcDataSource, metadataReader, maxMergeDistance, maxReadSize, Optional.empty());
+    }
+
+    /**
+     * Creates a reader using a file tail that was already read from the same file, for
+     * example with {@link #readFileTail}.
+     */
+    public OrcReader(OrcDataSource orcDataSource, MetadataReader metadataReader, DataSize maxMergeDistance, DataSize maxReadSize, OrcFileTail fileTail)
+            throws IOException
+    {
+        this(orcDataSource, metadataReader, maxMergeDistance, maxReadSize, Optional.of(requireNonNull(fileTail, "fileTail is null")));
+    }
+
+    private OrcReader(OrcDataSource orcDataSource, MetadataReader metadataReader, DataSize maxMergeDistance, DataSize maxReadSize, Optional<OrcFileTail> fileTail)
+            throws IOException
     {
         orcDataSource = wrapWithCacheIfTiny(requireNonNull(orcDataSource, "orcDataSource is null"), maxMergeDistance);
         this.orcDataSource = orcDataSource;
@@ -71,6 +87,18 @@ public class OrcReader
         this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
         this.maxReadSize = requireNonNull(maxReadSize, "maxReadSize is null");
 
+        OrcFileTail tail = fileTail.isPresent() ? fileTail.get() : readFileTail(orcDataSource, metadataReader);
+        this.compressionKind = tail.getCompressionKind();
+        this.hiveWriterVersion = tail.getHiveWriterVersion();
+        this.bufferSize = tail.getBufferSize();
+        this.footer = tail.getFooter();
+        this.metadata = tail.getMetadata();
+    }
+
+    // This is based on the Apache Hive ORC code
+    public static OrcFileTail readFileTail(OrcDataSource orcDataSource, MetadataReader metadataReader)
+            throws IOException
+    {
         //
         // Read the file tail:
         //
@@ -104,10 +132,10 @@ public class OrcReader
         checkOrcVersion(orcDataSource, postScript.getVersion());
 
         // check compression codec is supported
-        this.compressionKind = postScript.getCompression();
+        CompressionKind compressionKind = postScript.getCompression();
 
-        this.hiveWriterVersion = postScript.getHiveWriterVersion();
-        this.bufferSize = toIntExact(postScript.getCompressionBlockSize());
+        HiveWriterVersion hiveWriterVersion = postScript.getHiveWriterVersion();
+        int bufferSize = toIntExact(postScript.getCompressionBlockSize());
 
         int footerSize = toIntExact(postScript.getFooterLength());
         int metadataSize = toIntExact(postScript.getMetadataLength());
@@ -132,16 +160,20 @@ public class OrcReader
         }
 
         // read metadata
+        Metadata metadata;
         Slice metadataSlice = completeFooterSlice.slice(0, metadataSize);
         try (InputStream metadataInputStream = new OrcInputStream(orcDataSource.toString(), metadataSlice.getInput(), compressionKind, bufferSize, new AggregatedMemoryContext())) {
-            this.metadata = metadataReader.readMetadata(hiveWriterVersion, metadataInputStream);
+            metadata = metadataReader.readMetadata(hiveWriterVersion, metadataInputStream);
         }
 
         // read footer
+        Footer footer;
         Slice footerSlice = completeFooterSlice.slice(metadataSize, footerSize);
         try (InputStream footerInputStream = new OrcInputStream(orcDataSource.toString(), footerSlice.getInput(), compressionKind, bufferSize, new AggregatedMemoryContext())) {
-            this.footer = metadataReader.readFooter(hiveWriterVersion, footerInputStream);
+            footer = metadataReader.readFooter(hiveWriterVersion, footerInputStream);
         }
+
+        return new OrcFileTail(compressionKind, hiveWriterVersion, bufferSize, footer, metadata);
     }
 
     public List<String> getColumnNames()
@@ -207,7 +239,12 @@ public class OrcReader
                 systemMemoryUsage);
     }
 
-    private static OrcDataSource wrapWithCacheIfTiny(OrcDataSource dataSource, DataSize maxCacheSize)
+    /**
+     * Wraps a data source of a file no larger than {@code maxCacheSize}, so the whole file is read
+     * with a single request. Use it before {@link #readFileTail}, so that the tail and the stripes
+     * of a tiny file are not read separately.
+     */
+    public static OrcDataSource wrapWithCacheIfTiny(OrcDataSource dataSource, DataSize maxCacheSize)
     {
         if (dataSource instanceof CachingOrcDataSource) {
             return dataSource;
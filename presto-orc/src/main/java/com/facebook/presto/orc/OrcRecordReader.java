@@ -53,6 +53,7 @@ import static com.facebook.presto.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges
 import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
 import static com.facebook.presto.orc.OrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Comparator.comparingLong;
@@ -81,6 +82,7 @@ public class OrcRecordReader
     private long filePosition;
 
     private Iterator<RowGroup> rowGroups = ImmutableList.<RowGroup>of().iterator();
+    private RowGroup currentRowGroup;
     private long currentGroupRowCount;
     private long nextRowInGroup;
 
@@ -270,6 +272,15 @@ public class OrcRecordReader
         return totalRowCount;
     }
 
+    /**
+     * Returns the number of row groups of the stripes read so far, which were
+     * excluded due to row group statistics or bloom filters.
+     */
+    public long getPrunedRowGroupCount()
+    {
+        return stripeReader.getPrunedRowGroupCount();
+    }
+
     public float getProgress()
     {
         return ((float) currentPosition) / totalRowCount;
@@ -325,6 +336,42 @@ public class OrcRecordReader
         return streamReaders[columnIndex].readBlock(type);
     }
 
+    /**
+     * Reads only the values at the specified positions of the current batch, skipping
+     * over the other values in the column streams. The whole batch of the column can
+     * still be read afterwards with {@link #rereadBlock}, if {@link #canRereadBlock} is true.
+     */
+    public Block readBlock(Type type, int columnIndex, int[] positions, int positionCount)
+            throws IOException
+    {
+        return streamReaders[columnIndex].readBlock(type, positions, positionCount);
+    }
+
+    /**
+     * Returns true if the current batch of a column can be read again, after it was
+     * read in full or at selected positions.
+     */
+    public boolean canRereadBlock()
+    {
+        return currentRowGroup != null && currentRowGroup.isReopenable();
+    }
+
+    /**
+     * Reads the current batch of a column again, by reopening the column streams at the
+     * start of the row group and skipping over the rows before the batch.
+     */
+    public Block rereadBlock(Type type, int columnIndex)
+            throws IOException
+    {
+        checkState(canRereadBlock(), "Current batch cannot be read again");
+
+        StreamReader streamReader = streamReaders[columnIndex];
+        streamReader.startRowGroup(currentRowGroup.getStreamSources());
+        streamReader.prepareNextRead(toIntExact(nextRowInGroup - currentBatchSize));
+        streamReader.prepareNextRead(currentBatchSize);
+        return streamReader.readBlock(type);
+    }
+
     public StreamReader getStreamReader(int index)
     {
         checkArgument(index < streamReaders.length, "index does not exist");
@@ -346,11 +393,12 @@ public class OrcRecordReader
         }
 
         if (!rowGroups.hasNext()) {
+            currentRowGroup = null;
             currentGroupRowCount = 0;
             return false;
         }
 
-        RowGroup currentRowGroup = rowGroups.next();
+        currentRowGroup = rowGroups.next();
         currentGroupRowCount = currentRowGroup.getRowCount();
 
         currentPosition = currentStripePosition + currentRowGroup.getRowOffset();
@@ -0,0 +1,414 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.HiveBloomFilter;
+import com.facebook.presto.orc.metadata.Metadata;
+import com.facebook.presto.orc.metadata.OrcMetadataWriter;
+import com.facebook.presto.orc.metadata.OrcType;
+import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
+import com.facebook.presto.orc.metadata.PostScript;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.metadata.Stream;
+import com.facebook.presto.orc.metadata.StripeFooter;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.facebook.presto.orc.metadata.StripeStatistics;
+import com.facebook.presto.orc.stream.OrcOutputBuffer;
+import com.facebook.presto.orc.stream.StreamDataOutput;
+import com.facebook.presto.orc.writer.ColumnWriter;
+import com.facebook.presto.orc.writer.ColumnWriterOptions;
+import com.facebook.presto.orc.writer.ColumnWriters;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT;
+import static com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion.ORC_HIVE_8732;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.ROW_INDEX;
+import static com.facebook.presto.orc.writer.ColumnStatisticsMerger.mergeColumnStatistics;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes pages to an ORC file, using the ORC v1 encodings (RLE v1 and string dictionaries),
+ * with row group indexes, stripe and file statistics and optional bloom filters.
+ * <p>
+ * The file is written one stripe at a time, so the memory used is bounded by the
+ * stripe size, and the output is only written to when a stripe is complete.
+ */
+public class OrcWriter
+        implements Closeable
+{
+    private static final Slice MAGIC = Slices.utf8Slice("ORC");
+    private static final List<Integer> ORC_VERSION = ImmutableList.of(0, 12);
+
+    private final SliceOutput output;
+    private final List<Type> types;
+    private final CompressionKind compression;
+    private final OrcWriterOptions options;
+    private final int maxCompressionBufferSize;
+    private final Map<String, Slice> userMetadata;
+    private final OrcMetadataWriter metadataWriter = new OrcMetadataWriter();
+
+    private final List<OrcType> orcTypes;
+    private final List<ColumnWriter> columnWriters;
+    private final List<Boolean> bloomFilterColumns;
+
+    private final List<StripeInformation> closedStripes = new ArrayList<>();
+    private final List<StripeStatistics> closedStripeStatistics = new ArrayList<>();
+    private long fileRowCount;
+    private long fileSize;
+
+    private final IntArrayList rowGroupRowCounts = new IntArrayList();
+    private int stripeRowCount;
+    private int rowGroupRowCount;
+
+    private boolean closed;
+
+    public OrcWriter(
+            OutputStream outputStream,
+            List<String> columnNames,
+            List<Type> types,
+            CompressionKind compression,
+            OrcWriterOptions options,
+            Map<String, String> userMetadata)
+    {
+        requireNonNull(outputStream, "outputStream is null");
+        requireNonNull(columnNames, "columnNames is null");
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        checkArgument(columnNames.size() == types.size(), "columnNames and types must have the same size");
+        this.compression = requireNonNull(compression, "compression is null");
+        this.options = requireNonNull(options, "options is null");
+        this.maxCompressionBufferSize = toIntExact(options.getMaxCompressionBufferSize().toBytes());
+
+        ImmutableMap.Builder<String, Slice> metadata = ImmutableMap.builder();
+        for (Entry<String, String> entry : requireNonNull(userMetadata, "userMetadata is null").entrySet()) {
+            metadata.put(entry.getKey(), Slices.utf8Slice(entry.getValue()));
+        }
+        this.userMetadata = metadata.build();
+
+        // the root of the file is a struct with one field per column
+        ImmutableList.Builder<OrcType> orcTypes = ImmutableList.builder();
+        ImmutableList.Builder<Integer> fieldTypeIndexes = ImmutableList.builder();
+        for (int field = 0; field < types.size(); field++) {
+            fieldTypeIndexes.add(field + 1);
+        }
+        orcTypes.add(new OrcType(OrcTypeKind.STRUCT, fieldTypeIndexes.build(), columnNames, Optional.empty(), Optional.empty()));
+
+        ImmutableList.Builder<ColumnWriter> columnWriters = ImmutableList.builder();
+        ImmutableList.Builder<Boolean> bloomFilterColumns = ImmutableList.builder();
+        for (int field = 0; field < types.size(); field++) {
+            Type type = types.get(field);
+            OrcTypeKind orcTypeKind = ColumnWriters.getOrcTypeKind(type);
+            checkArgument(orcTypeKind != null, "Unsupported type: %s", type);
+            orcTypes.add(new OrcType(orcTypeKind, ImmutableList.of(), ImmutableList.of(), Optional.empty(), Optional.empty()));
+
+            boolean bloomFilterEnabled = isBloomFilterColumn(options, columnNames.get(field));
+            bloomFilterColumns.add(bloomFilterEnabled);
+            ColumnWriterOptions columnWriterOptions = new ColumnWriterOptions(
+                    compression,
+                    maxCompressionBufferSize,
+                    options.getDictionaryMaxMemory().toBytes(),
+                    options.getRowGroupMaxRowCount(),
+                    bloomFilterEnabled,
+                    options.getBloomFilterFpp());
+            columnWriters.add(ColumnWriters.createColumnWriter(field + 1, type, columnWriterOptions));
+        }
+        this.orcTypes = orcTypes.build();
+        this.columnWriters = columnWriters.build();
+        this.bloomFilterColumns = bloomFilterColumns.build();
+
+        this.output = new OutputStreamSliceOutput(outputStream);
+        writeSlice(MAGIC);
+    }
+
+    private static boolean isBloomFilterColumn(OrcWriterOptions options, String columnName)
+    {
+        return options.getBloomFilterColumns().stream()
+                .anyMatch(bloomFilterColumn -> bloomFilterColumn.toLowerCase(ENGLISH).equals(columnName.toLowerCase(ENGLISH)));
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        return ColumnWriters.isSupportedType(type);
+    }
+
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    /**
+     * Number of bytes written to the output so far.
+     */
+    public long getWrittenBytes()
+    {
+        return fileSize;
+    }
+
+    /**
+     * Number of bytes of the current stripe, which have not been written to the output yet.
+     */
+    public long getBufferedBytes()
+    {
+        long bufferedBytes = 0;
+        for (ColumnWriter columnWriter : columnWriters) {
+            bufferedBytes += columnWriter.getBufferedBytes();
+        }
+        return bufferedBytes;
+    }
+
+    public long getRetainedBytes()
+    {
+        long retainedBytes = 0;
+        for (ColumnWriter columnWriter : columnWriters) {
+            retainedBytes += columnWriter.getRetainedBytes();
+        }
+        return retainedBytes;
+    }
+
+    public void write(Page page)
+            throws IOException
+    {
+        requireNonNull(page, "page is null");
+        checkState(!closed, "Writer is closed");
+        checkArgument(page.getChannelCount() == columnWriters.size(), "Expected %s columns, but page has %s", columnWriters.size(), page.getChannelCount());
+
+        while (page.getPositionCount() > 0) {
+            // split the page at row group and stripe boundaries
+            int chunkRows = min(page.getPositionCount(), min(
+                    options.getRowGroupMaxRowCount() - rowGroupRowCount,
+                    options.getStripeMaxRowCount() - stripeRowCount));
+            Page chunk = page.getRegion(0, chunkRows);
+            writeChunk(chunk);
+            page = page.getRegion(chunkRows, page.getPositionCount() - chunkRows);
+
+            if (rowGroupRowCount == options.getRowGroupMaxRowCount()) {
+                finishRowGroup();
+            }
+            if (stripeRowCount == options.getStripeMaxRowCount() || getBufferedBytes() >= options.getStripeMaxSize().toBytes()) {
+                writeStripe();
+            }
+        }
+    }
+
+    private void writeChunk(Page chunk)
+    {
+        if (rowGroupRowCount == 0) {
+            columnWriters.forEach(ColumnWriter::beginRowGroup);
+        }
+        for (int channel = 0; channel < chunk.getChannelCount(); channel++) {
+            columnWriters.get(channel).writeBlock(chunk.getBlock(channel));
+        }
+        rowGroupRowCount += chunk.getPositionCount();
+        stripeRowCount += chunk.getPositionCount();
+    }
+
+    private void finishRowGroup()
+    {
+        columnWriters.forEach(ColumnWriter::finishRowGroup);
+        rowGroupRowCounts.add(rowGroupRowCount);
+        rowGroupRowCount = 0;
+    }
+
+    private void writeStripe()
+            throws IOException
+    {
+        if (stripeRowCount == 0) {
+            return;
+        }
+        if (rowGroupRowCount > 0) {
+            finishRowGroup();
+        }
+        columnWriters.forEach(ColumnWriter::close);
+
+        List<Stream> streams = new ArrayList<>();
+        List<Slice> streamData = new ArrayList<>();
+
+        // index streams: the root struct column has statistics but no positions
+        ImmutableList.Builder<RowGroupIndex> rootRowGroupIndexes = ImmutableList.builder();
+        for (int i = 0; i < rowGroupRowCounts.size(); i++) {
+            rootRowGroupIndexes.add(new RowGroupIndex(ImmutableList.of(), createRootStatistics(rowGroupRowCounts.getInt(i))));
+        }
+        addIndexStream(streams, streamData, 0, rootRowGroupIndexes.build());
+
+        for (int field = 0; field < columnWriters.size(); field++) {
+            int column = field + 1;
+            List<RowGroupIndex> rowGroupIndexes = columnWriters.get(field).getRowGroupIndexes();
+            addIndexStream(streams, streamData, column, rowGroupIndexes);
+
+            if (bloomFilterColumns.get(field)) {
+                ImmutableList.Builder<HiveBloomFilter> bloomFilters = ImmutableList.builder();
+                for (RowGroupIndex rowGroupIndex : rowGroupIndexes) {
+                    bloomFilters.add(rowGroupIndex.getColumnStatistics().getBloomFilter());
+                }
+                OrcOutputBuffer buffer = new OrcOutputBuffer(compression, maxCompressionBufferSize);
+                metadataWriter.writeBloomFilters(buffer, bloomFilters.build());
+                addStream(streams, streamData, buffer, column, BLOOM_FILTER);
+            }
+        }
+        long indexLength = totalLength(streams);
+
+        // data streams
+        for (ColumnWriter columnWriter : columnWriters) {
+            for (StreamDataOutput dataStream : columnWriter.getDataStreams()) {
+                streams.add(dataStream.getStream());
+                streamData.add(dataStream.getData());
+            }
+        }
+        long dataLength = totalLength(streams) - indexLength;
+
+        // stripe footer
+        ImmutableList.Builder<ColumnEncoding> columnEncodings = ImmutableList.builder();
+        columnEncodings.add(new ColumnEncoding(DIRECT, 0));
+        ImmutableList.Builder<ColumnStatistics> columnStatistics = ImmutableList.builder();
+        columnStatistics.add(createRootStatistics(stripeRowCount));
+        for (ColumnWriter columnWriter : columnWriters) {
+            columnEncodings.add(columnWriter.getColumnEncoding());
+            columnStatistics.add(columnWriter.getColumnStripeStatistics());
+        }
+        OrcOutputBuffer footerBuffer = new OrcOutputBuffer(compression, maxCompressionBufferSize);
+        metadataWriter.writeStripeFooter(footerBuffer, new StripeFooter(streams, columnEncodings.build()));
+        footerBuffer.close();
+
+        long stripeOffset = fileSize;
+        for (Slice data : streamData) {
+            writeSlice(data);
+        }
+        writeSlice(footerBuffer.getOutputData());
+
+        closedStripes.add(new StripeInformation(stripeRowCount, stripeOffset, indexLength, dataLength, footerBuffer.getOutputDataSize()));
+        closedStripeStatistics.add(new StripeStatistics(columnStatistics.build()));
+        fileRowCount += stripeRowCount;
+
+        columnWriters.forEach(ColumnWriter::reset);
+        rowGroupRowCounts.clear();
+        stripeRowCount = 0;
+    }
+
+    private void addIndexStream(List<Stream> streams, List<Slice> streamData, int column, List<RowGroupIndex> rowGroupIndexes)
+            throws IOException
+    {
+        OrcOutputBuffer buffer = new OrcOutputBuffer(compression, maxCompressionBufferSize);
+        metadataWriter.writeRowIndexes(buffer, rowGroupIndexes);
+        addStream(streams, streamData, buffer, column, ROW_INDEX);
+    }
+
+    private static void addStream(List<Stream> streams, List<Slice> streamData, OrcOutputBuffer buffer, int column, Stream.StreamKind streamKind)
+    {
+        buffer.close();
+        streams.add(new Stream(column, streamKind, buffer.getOutputDataSize(), true));
+        streamData.add(buffer.getOutputData());
+    }
+
+    private static long totalLength(List<Stream> streams)
+    {
+        long length = 0;
+        for (Stream stream : streams) {
+            length += stream.getLength();
+        }
+        return length;
+    }
+
+    private static ColumnStatistics createRootStatistics(long rowCount)
+    {
+        return new ColumnStatistics(rowCount, null, null, null, null, null, null, null);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            writeStripe();
+
+            // metadata
+            OrcOutputBuffer metadataBuffer = new OrcOutputBuffer(compression, maxCompressionBufferSize);
+            metadataWriter.writeMetadata(metadataBuffer, new Metadata(closedStripeStatistics));
+            metadataBuffer.close();
+            writeSlice(metadataBuffer.getOutputData());
+
+            // footer
+            ImmutableList.Builder<ColumnStatistics> fileStatistics = ImmutableList.builder();
+            fileStatistics.add(createRootStatistics(fileRowCount));
+            for (int column = 1; column < orcTypes.size(); column++) {
+                List<ColumnStatistics> stripeColumnStatistics = new ArrayList<>();
+                for (StripeStatistics stripeStatistics : closedStripeStatistics) {
+                    stripeColumnStatistics.add(stripeStatistics.getColumnStatistics().get(column));
+                }
+                fileStatistics.add(mergeColumnStatistics(stripeColumnStatistics));
+            }
+            Footer footer = new Footer(fileRowCount, options.getRowGroupMaxRowCount(), closedStripes, orcTypes, fileStatistics.build(), userMetadata);
+            OrcOutputBuffer footerBuffer = new OrcOutputBuffer(compression, maxCompressionBufferSize);
+            metadataWriter.writeFooter(footerBuffer, footer);
+            footerBuffer.close();
+            writeSlice(footerBuffer.getOutputData());
+
+            // post script, which is never compressed, followed by its length
+            DynamicSliceOutput postScriptOutput = new DynamicSliceOutput(64);
+            PostScript postScript = new PostScript(
+                    ORC_VERSION,
+                    footerBuffer.getOutputDataSize(),
+                    metadataBuffer.getOutputDataSize(),
+                    compression,
+                    maxCompressionBufferSize,
+                    ORC_HIVE_8732);
+            metadataWriter.writePostscript(postScriptOutput, postScript);
+            Slice postScriptData = postScriptOutput.slice();
+            checkState(postScriptData.length() < 256, "PostScript is too large: %s bytes", postScriptData.length());
+            writeSlice(postScriptData);
+            output.writeByte(postScriptData.length());
+            fileSize++;
+        }
+        finally {
+            output.close();
+        }
+    }
+
+    private void writeSlice(Slice slice)
+    {
+        output.writeBytes(slice);
+        fileSize += slice.length();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.Objects.requireNonNull;
+
+public class OrcWriterOptions
+{
+    private static final DataSize DEFAULT_STRIPE_MAX_SIZE = new DataSize(64, MEGABYTE);
+    private static final int DEFAULT_STRIPE_MAX_ROW_COUNT = 10_000_000;
+    private static final int DEFAULT_ROW_GROUP_MAX_ROW_COUNT = 10_000;
+    private static final DataSize DEFAULT_DICTIONARY_MAX_MEMORY = new DataSize(16, MEGABYTE);
+    private static final DataSize DEFAULT_MAX_COMPRESSION_BUFFER_SIZE = new DataSize(256, KILOBYTE);
+    private static final double DEFAULT_BLOOM_FILTER_FPP = 0.05;
+
+    private final DataSize stripeMaxSize;
+    private final int stripeMaxRowCount;
+    private final int rowGroupMaxRowCount;
+    private final DataSize dictionaryMaxMemory;
+    private final DataSize maxCompressionBufferSize;
+    private final Set<String> bloomFilterColumns;
+    private final double bloomFilterFpp;
+
+    public OrcWriterOptions()
+    {
+        this(
+                DEFAULT_STRIPE_MAX_SIZE,
+                DEFAULT_STRIPE_MAX_ROW_COUNT,
+                DEFAULT_ROW_GROUP_MAX_ROW_COUNT,
+                DEFAULT_DICTIONARY_MAX_MEMORY,
+                DEFAULT_MAX_COMPRESSION_BUFFER_SIZE,
+                ImmutableSet.of(),
+                DEFAULT_BLOOM_FILTER_FPP);
+    }
+
+    private OrcWriterOptions(
+            DataSize stripeMaxSize,
+            int stripeMaxRowCount,
+            int rowGroupMaxRowCount,
+            DataSize dictionaryMaxMemory,
+            DataSize maxCompressionBufferSize,
+            Set<String> bloomFilterColumns,
+            double bloomFilterFpp)
+    {
+        this.stripeMaxSize = requireNonNull(stripeMaxSize, "stripeMaxSize is null");
+        checkArgument(stripeMaxRowCount > 0, "stripeMaxRowCount must be positive");
+        checkArgument(rowGroupMaxRowCount > 0, "rowGroupMaxRowCount must be positive");
+        this.stripeMaxRowCount = stripeMaxRowCount;
+        this.rowGroupMaxRowCount = rowGroupMaxRowCount;
+        this.dictionaryMaxMemory = requireNonNull(dictionaryMaxMemory, "dictionaryMaxMemory is null");
+        this.maxCompressionBufferSize = requireNonNull(maxCompressionBufferSize, "maxCompressionBufferSize is null");
+        this.bloomFilterColumns = ImmutableSet.copyOf(requireNonNull(bloomFilterColumns, "bloomFilterColumns is null"));
+        checkArgument(bloomFilterFpp > 0.0 && bloomFilterFpp < 1.0, "bloomFilterFpp must be between 0 and 1");
+        this.bloomFilterFpp = bloomFilterFpp;
+    }
+
+    public DataSize getStripeMaxSize()
+    {
+        return stripeMaxSize;
+    }
+
+    public OrcWriterOptions withStripeMaxSize(DataSize stripeMaxSize)
+    {
+        return new OrcWriterOptions(stripeMaxSize, stripeMaxRowCount, rowGroupMaxRowCount, dictionaryMaxMemory, maxCompressionBufferSize, bloomFilterColumns, bloomFilterFpp);
+    }
+
+    public int getStripeMaxRowCount()
+    {
+        return stripeMaxRowCount;
+    }
+
+    public OrcWriterOptions withStripeMaxRowCount(int stripeMaxRowCount)
+    {
+        return new OrcWriterOptions(stripeMaxSize, stripeMaxRowCount, rowGroupMaxRowCount, dictionaryMaxMemory, maxCompressionBufferSize, bloomFilterColumns, bloomFilterFpp);
+    }
+
+    public int getRowGroupMaxRowCount()
+    {
+        return rowGroupMaxRowCount;
+    }
+
+    public OrcWriterOptions withRowGroupMaxRowCount(int rowGroupMaxRowCount)
+    {
+        return new OrcWriterOptions(stripeMaxSize, stripeMaxRowCount, rowGroupMaxRowCount, dictionaryMaxMemory, maxCompressionBufferSize, bloomFilterColumns, bloomFilterFpp);
+    }
+
+    public DataSize getDictionaryMaxMemory()
+    {
+        return dictionaryMaxMemory;
+    }
+
+    public OrcWriterOptions withDictionaryMaxMemory(DataSize dictionaryMaxMemory)
+    {
+        return new OrcWriterOptions(stripeMaxSize, stripeMaxRowCount, rowGroupMaxRowCount, dictionaryMaxMemory, maxCompressionBufferSize, bloomFilterColumns, bloomFilterFpp);
+    }
+
+    public DataSize getMaxCompressionBufferSize()
+    {
+        return maxCompressionBufferSize;
+    }
+
+    public OrcWriterOptions withMaxCompressionBufferSize(DataSize maxCompressionBufferSize)
+    {
+        return new OrcWriterOptions(stripeMaxSize, stripeMaxRowCount, rowGroupMaxRowCount, dictionaryMaxMemory, maxCompressionBufferSize, bloomFilterColumns, bloomFilterFpp);
+    }
+
+    public Set<String> getBloomFilterColumns()
+    {
+        return bloomFilterColumns;
+    }
+
+    public OrcWriterOptions withBloomFilterColumns(Set<String> bloomFilterColumns)
+    {
+        return new OrcWriterOptions(stripeMaxSize, stripeMaxRowCount, rowGroupMaxRowCount, dictionaryMaxMemory, maxCompressionBufferSize, bloomFilterColumns, bloomFilterFpp);
+    }
+
+    public double getBloomFilterFpp()
+    {
+        return bloomFilterFpp;
+    }
+
+    public OrcWriterOptions withBloomFilterFpp(double bloomFilterFpp)
+    {
+        return new OrcWriterOptions(stripeMaxSize, stripeMaxRowCount, rowGroupMaxRowCount, dictionaryMaxMemory, maxCompressionBufferSize, bloomFilterColumns, bloomFilterFpp);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("stripeMaxSize", stripeMaxSize)
+                .add("stripeMaxRowCount", stripeMaxRowCount)
+                .add("rowGroupMaxRowCount", rowGroupMaxRowCount)
+                .add("dictionaryMaxMemory", dictionaryMaxMemory)
+                .add("maxCompressionBufferSize", maxCompressionBufferSize)
+                .add("bloomFilterColumns", bloomFilterColumns)
+                .add("bloomFilterFpp", bloomFilterFpp)
+                .toString();
+    }
+}
@@ -24,13 +24,15 @@ public class RowGroup
     private final long rowOffset;
     private final long rowCount;
     private final StreamSources streamSources;
+    private final boolean reopenable;
 
-    public RowGroup(int groupId, long rowOffset, long rowCount, StreamSources streamSources)
+    public RowGroup(int groupId, long rowOffset, long rowCount, StreamSources streamSources, boolean reopenable)
     {
         this.groupId = groupId;
         this.rowOffset = rowOffset;
         this.rowCount = rowCount;
         this.streamSources = requireNonNull(streamSources, "streamSources is null");
+        this.reopenable = reopenable;
     }
 
     public int getGroupId()
@@ -53,6 +55,15 @@ public class RowGroup
         return streamSources;
     }
 
+    /**
+     * Returns true if the streams of this row group seek to its checkpoints when opened,
+     * so they can be opened again to read the row group a second time.
+     */
+    public boolean isReopenable()
+    {
+        return reopenable;
+    }
+
     @Override
     public String toString()
     {
@@ -61,6 +72,7 @@ public class RowGroup
                 .add("rowOffset", rowOffset)
                 .add("rowCount", rowCount)
                 .add("streamSources", streamSources)
+                .add("reopenable", reopenable)
                 .toString();
     }
 }
@@ -78,8 +78,11 @@ public class StripeReader
     private final Set<Integer> includedOrcColumns;
     private final int rowsInRowGroup;
     private final OrcPredicate predicate;
+    private final Set<Integer> bloomFilterOrcColumns;
     private final MetadataReader metadataReader;
 
+    private long prunedRowGroupCount;
+
     public StripeReader(OrcDataSource orcDataSource,
             CompressionKind compressionKind,
             List<OrcType> types,
@@ -97,6 +100,7 @@ public class StripeReader
         this.includedOrcColumns = getIncludedOrcColumns(types, requireNonNull(includedColumns, "includedColumns is null"));
         this.rowsInRowGroup = rowsInRowGroup;
         this.predicate = requireNonNull(predicate, "predicate is null");
+        this.bloomFilterOrcColumns = getBloomFilterOrcColumns(types, predicate);
         this.hiveWriterVersion = requireNonNull(hiveWriterVersion, "hiveWriterVersion is null");
         this.metadataReader = requireNonNull(metadataReader, "metadataReader is null");
     }
@@ -113,6 +117,10 @@ public class StripeReader
         boolean hasRowGroupDictionary = false;
         for (Stream stream : stripeFooter.getStreams()) {
             if (includedOrcColumns.contains(stream.getColumn())) {
+                if (stream.getStreamKind() == BLOOM_FILTER && !bloomFilterOrcColumns.contains(stream.getColumn())) {
+                    // the predicate does not use the bloom filter of this column
+                    continue;
+                }
                 streams.put(new StreamId(stream), stream);
 
                 ColumnEncodingKind columnEncoding = columnEncodings.get(stream.getColumn()).getColumnEncodingKind();
@@ -199,7 +207,7 @@ public class StripeReader
         for (Entry<StreamId, ValueStream<?>> entry : valueStreams.entrySet()) {
             builder.put(entry.getKey(), new ValueStreamSource<>(entry.getValue()));
         }
-        RowGroup rowGroup = new RowGroup(0, 0, stripe.getNumberOfRows(), new StreamSources(builder.build()));
+        RowGroup rowGroup = new RowGroup(0, 0, stripe.getNumberOfRows(), new StreamSources(builder.build()), false);
 
         return new Stripe(stripe.getNumberOfRows(), columnEncodings, ImmutableList.of(rowGroup), dictionaryStreamSources);
     }
@@ -318,7 +326,7 @@ public class StripeReader
             builder.put(streamId, createCheckpointStreamSource(valueStream, checkpoint));
         }
         StreamSources rowGroupStreams = new StreamSources(builder.build());
-        return new RowGroup(groupId, rowOffset, rowCount, rowGroupStreams);
+        return new RowGroup(groupId, rowOffset, rowCount, rowGroupStreams, true);
     }
 
     public StripeFooter readStripeFooter(StripeInformation stripe, AbstractAggregatedMemoryContext systemMemoryUsage)
@@ -391,7 +399,18 @@ public class StripeReader
             }
             remainingRows -= rows;
         }
-        return selectedRowGroups.build();
+        Set<Integer> result = selectedRowGroups.build();
+        prunedRowGroupCount += groupsInStripe - result.size();
+        return result;
+    }
+
+    /**
+     * Number of row groups of the stripes read so far, which were skipped because
+     * their statistics or bloom filters do not match the predicate.
+     */
+    public long getPrunedRowGroupCount()
+    {
+        return prunedRowGroupCount;
     }
 
     private static Map<Integer, ColumnStatistics> getRowGroupStatistics(OrcType rootStructType, Map<Integer, List<RowGroupIndex>> columnIndexes, int rowGroup)
@@ -445,6 +464,19 @@ public class StripeReader
         return includes;
     }
 
+    private static Set<Integer> getBloomFilterOrcColumns(List<OrcType> types, OrcPredicate predicate)
+    {
+        ImmutableSet.Builder<Integer> bloomFilterColumns = ImmutableSet.builder();
+
+        OrcType root = types.get(0);
+        for (int ordinal = 0; ordinal < root.getFieldCount(); ordinal++) {
+            if (predicate.isBloomFilterUsed(ordinal)) {
+                bloomFilterColumns.add(root.getFieldTypeIndex(ordinal));
+            }
+        }
+        return bloomFilterColumns.build();
+    }
+
     private static void includeOrcColumnsRecursive(List<OrcType> types, Set<Integer> result, int typeId)
     {
         result.add(typeId);
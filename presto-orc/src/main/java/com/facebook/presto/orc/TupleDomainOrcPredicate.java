@@ -28,10 +28,12 @@ import com.facebook.presto.spi.type.VarbinaryType;
 import com.facebook.presto.spi.type.VarcharType;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.Slice;
 import org.apache.hive.common.util.BloomFilter;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -59,16 +61,48 @@ import static java.util.Objects.requireNonNull;
 public class TupleDomainOrcPredicate<C>
         implements OrcPredicate
 {
+    // bloom filters are only consulted for small sets of values, as the chance of a false positive grows with every value
+    @VisibleForTesting
+    static final int MAX_BLOOM_FILTER_VALUES = 32;
+
     private final TupleDomain<C> effectivePredicate;
     private final List<ColumnReference<C>> columnReferences;
 
-    private final boolean orcBloomFiltersEnabled;
+    // predicate values by column ordinal, for the columns the bloom filters can be checked for
+    private final Map<Integer, Collection<Object>> bloomFilterValues;
 
     public TupleDomainOrcPredicate(TupleDomain<C> effectivePredicate, List<ColumnReference<C>> columnReferences, boolean orcBloomFiltersEnabled)
     {
         this.effectivePredicate = requireNonNull(effectivePredicate, "effectivePredicate is null");
         this.columnReferences = ImmutableList.copyOf(requireNonNull(columnReferences, "columnReferences is null"));
-        this.orcBloomFiltersEnabled = orcBloomFiltersEnabled;
+        this.bloomFilterValues = orcBloomFiltersEnabled ? getBloomFilterValues(effectivePredicate, this.columnReferences) : ImmutableMap.of();
+    }
+
+    private static <C> Map<Integer, Collection<Object>> getBloomFilterValues(TupleDomain<C> effectivePredicate, List<ColumnReference<C>> columnReferences)
+    {
+        if (!effectivePredicate.getDomains().isPresent()) {
+            return ImmutableMap.of();
+        }
+        Map<C, Domain> domains = effectivePredicate.getDomains().get();
+
+        Map<Integer, Collection<Object>> bloomFilterValues = new HashMap<>();
+        for (ColumnReference<C> columnReference : columnReferences) {
+            Domain domain = domains.get(columnReference.getColumn());
+            if (domain == null || !isBloomFilterSupported(columnReference.getType())) {
+                continue;
+            }
+            Optional<Collection<Object>> discreteValues = extractDiscreteValues(domain.getValues());
+            if (discreteValues.isPresent() && discreteValues.get().size() <= MAX_BLOOM_FILTER_VALUES) {
+                bloomFilterValues.put(columnReference.getOrdinal(), discreteValues.get());
+            }
+        }
+        return ImmutableMap.copyOf(bloomFilterValues);
+    }
+
+    @Override
+    public boolean isBloomFilterUsed(int columnIndex)
+    {
+        return bloomFilterValues.containsKey(columnIndex);
     }
 
     @Override
@@ -110,8 +144,9 @@ public class TupleDomainOrcPredicate<C>
             return false;
         }
 
-        // if bloom filters are not enabled, we can not restrict the range overlap
-        if (!orcBloomFiltersEnabled) {
+        // if bloom filters are not enabled, or the predicate is not a small set of discrete values, we can not restrict the range overlap
+        Collection<Object> discreteValues = bloomFilterValues.get(columnReference.getOrdinal());
+        if (discreteValues == null) {
             return true;
         }
 
@@ -120,13 +155,6 @@ public class TupleDomainOrcPredicate<C>
             return true;
         }
 
-        // extract the discrete values from the predicate
-        Optional<Collection<Object>> discreteValues = extractDiscreteValues(predicateDomain.getValues());
-        if (!discreteValues.isPresent()) {
-            // values are not discrete, so we can't exclude this section
-            return true;
-        }
-
         HiveBloomFilter bloomFilter = columnStatistics.getBloomFilter();
         if (bloomFilter == null) {
             // no bloom filter so we can't exclude this section
@@ -134,7 +162,7 @@ public class TupleDomainOrcPredicate<C>
         }
 
         // if none of the discrete predicate values are found in the bloom filter, there is no overlap and the section should be skipped
-        if (discreteValues.get().stream().noneMatch(value -> checkInBloomFilter(bloomFilter, value, stripeDomain.getType()))) {
+        if (discreteValues.stream().noneMatch(value -> checkInBloomFilter(bloomFilter, value, stripeDomain.getType()))) {
             return false;
         }
         return true;
@@ -158,6 +186,13 @@ public class TupleDomainOrcPredicate<C>
                 allOrNone -> allOrNone.isAll() ? Optional.empty() : Optional.of(ImmutableList.of()));
     }
 
+    private static boolean isBloomFilterSupported(Type sqlType)
+    {
+        // must match the types handled by checkInBloomFilter
+        return sqlType == TINYINT || sqlType == SMALLINT || sqlType == INTEGER || sqlType == BIGINT || sqlType == DOUBLE ||
+                sqlType instanceof VarcharType || sqlType instanceof VarbinaryType;
+    }
+
     // checks whether a value part of the effective predicate is likely to be part of this bloom filter
     @VisibleForTesting
     public static boolean checkInBloomFilter(BloomFilter bloomFilter, Object predicateValue, Type sqlType)
@@ -16,7 +16,10 @@ package com.facebook.presto.orc.checkpoint;
 import com.facebook.presto.orc.checkpoint.Checkpoints.ColumnPositionsList;
 import com.facebook.presto.orc.metadata.CompressionKind;
 
+import java.util.List;
+
 import static com.facebook.presto.orc.checkpoint.InputStreamCheckpoint.createInputStreamCheckpoint;
+import static com.facebook.presto.orc.checkpoint.InputStreamCheckpoint.createInputStreamPositionList;
 import static com.facebook.presto.orc.checkpoint.InputStreamCheckpoint.inputStreamCheckpointToString;
 import static com.google.common.base.MoreObjects.toStringHelper;
 
@@ -40,6 +43,11 @@ public final class ByteArrayStreamCheckpoint
         return inputStreamCheckpoint;
     }
 
+    public List<Integer> toPositionList(boolean compressed)
+    {
+        return createInputStreamPositionList(compressed, inputStreamCheckpoint);
+    }
+
     @Override
     public String toString()
     {
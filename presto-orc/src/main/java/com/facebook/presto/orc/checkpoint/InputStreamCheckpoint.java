@@ -15,6 +15,9 @@ package com.facebook.presto.orc.checkpoint;
 
 import com.facebook.presto.orc.checkpoint.Checkpoints.ColumnPositionsList;
 import com.facebook.presto.orc.metadata.CompressionKind;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
 
 import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -54,6 +57,16 @@ public final class InputStreamCheckpoint
         return (int) inputStreamCheckpoint;
     }
 
+    public static List<Integer> createInputStreamPositionList(boolean compressed, long inputStreamCheckpoint)
+    {
+        if (compressed) {
+            return ImmutableList.of(decodeCompressedBlockOffset(inputStreamCheckpoint), decodeDecompressedOffset(inputStreamCheckpoint));
+        }
+        else {
+            return ImmutableList.of(decodeDecompressedOffset(inputStreamCheckpoint));
+        }
+    }
+
     public static String inputStreamCheckpointToString(long inputStreamCheckpoint)
     {
         return toStringHelper(InputStreamCheckpoint.class)
@@ -0,0 +1,378 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.metadata;
+
+import com.facebook.presto.hive.protobuf.ByteString;
+import com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind;
+import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
+import com.facebook.presto.orc.metadata.PostScript.HiveWriterVersion;
+import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import com.google.common.primitives.Longs;
+import io.airlift.slice.Slice;
+import org.apache.hadoop.hive.ql.io.orc.OrcProto;
+import org.apache.hadoop.hive.ql.io.orc.OrcProto.RowIndexEntry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Writes the ORC metadata read by {@link OrcMetadataReader}.
+ */
+public class OrcMetadataWriter
+{
+    // the file starts with the magic
+    private static final int HEADER_LENGTH = 3;
+    private static final String MAGIC = "ORC";
+
+    public void writePostscript(OutputStream output, PostScript postScript)
+            throws IOException
+    {
+        OrcProto.PostScript.newBuilder()
+                .addAllVersion(postScript.getVersion())
+                .setFooterLength(postScript.getFooterLength())
+                .setMetadataLength(postScript.getMetadataLength())
+                .setCompression(toCompression(postScript.getCompression()))
+                .setCompressionBlockSize(postScript.getCompressionBlockSize())
+                .setWriterVersion(toWriterVersion(postScript.getHiveWriterVersion()))
+                .setMagic(MAGIC)
+                .build()
+                .writeTo(output);
+    }
+
+    public void writeMetadata(OutputStream output, Metadata metadata)
+            throws IOException
+    {
+        OrcProto.Metadata.newBuilder()
+                .addAllStripeStats(metadata.getStripeStatsList().stream()
+                        .map(OrcMetadataWriter::toStripeStatistics)
+                        .collect(toList()))
+                .build()
+                .writeTo(output);
+    }
+
+    private static OrcProto.StripeStatistics toStripeStatistics(StripeStatistics stripeStatistics)
+    {
+        return OrcProto.StripeStatistics.newBuilder()
+                .addAllColStats(stripeStatistics.getColumnStatistics().stream()
+                        .map(OrcMetadataWriter::toColumnStatistics)
+                        .collect(toList()))
+                .build();
+    }
+
+    public void writeFooter(OutputStream output, Footer footer)
+            throws IOException
+    {
+        long contentLength = HEADER_LENGTH;
+        for (StripeInformation stripe : footer.getStripes()) {
+            contentLength += stripe.getTotalLength();
+        }
+
+        OrcProto.Footer.Builder builder = OrcProto.Footer.newBuilder()
+                .setHeaderLength(HEADER_LENGTH)
+                .setContentLength(contentLength)
+                .setNumberOfRows(footer.getNumberOfRows())
+                .setRowIndexStride(footer.getRowsInRowGroup())
+                .addAllStripes(footer.getStripes().stream()
+                        .map(OrcMetadataWriter::toStripeInformation)
+                        .collect(toList()))
+                .addAllTypes(footer.getTypes().stream()
+                        .map(OrcMetadataWriter::toType)
+                        .collect(toList()))
+                .addAllStatistics(footer.getFileStats().stream()
+                        .map(OrcMetadataWriter::toColumnStatistics)
+                        .collect(toList()));
+
+        for (Entry<String, Slice> entry : footer.getUserMetadata().entrySet()) {
+            builder.addMetadata(OrcProto.UserMetadataItem.newBuilder()
+                    .setName(entry.getKey())
+                    .setValue(ByteString.copyFrom(entry.getValue().getBytes())));
+        }
+
+        builder.build().writeTo(output);
+    }
+
+    private static OrcProto.StripeInformation toStripeInformation(StripeInformation stripe)
+    {
+        return OrcProto.StripeInformation.newBuilder()
+                .setNumberOfRows(stripe.getNumberOfRows())
+                .setOffset(stripe.getOffset())
+                .setIndexLength(stripe.getIndexLength())
+                .setDataLength(stripe.getDataLength())
+                .setFooterLength(stripe.getFooterLength())
+                .build();
+    }
+
+    private static OrcProto.Type toType(OrcType type)
+    {
+        OrcProto.Type.Builder builder = OrcProto.Type.newBuilder()
+                .setKind(toTypeKind(type.getOrcTypeKind()))
+                .addAllFieldNames(type.getFieldNames());
+        for (int field = 0; field < type.getFieldCount(); field++) {
+            builder.addSubtypes(type.getFieldTypeIndex(field));
+        }
+        if (type.getPrecision().isPresent()) {
+            builder.setPrecision(type.getPrecision().get());
+        }
+        if (type.getScale().isPresent()) {
+            builder.setScale(type.getScale().get());
+        }
+        return builder.build();
+    }
+
+    public void writeStripeFooter(OutputStream output, StripeFooter footer)
+            throws IOException
+    {
+        OrcProto.StripeFooter.newBuilder()
+                .addAllStreams(footer.getStreams().stream()
+                        .map(OrcMetadataWriter::toStream)
+                        .collect(toList()))
+                .addAllColumns(footer.getColumnEncodings().stream()
+                        .map(OrcMetadataWriter::toColumnEncoding)
+                        .collect(toList()))
+                .build()
+                .writeTo(output);
+    }
+
+    private static OrcProto.Stream toStream(Stream stream)
+    {
+        return OrcProto.Stream.newBuilder()
+                .setColumn(stream.getColumn())
+                .setKind(toStreamKind(stream.getStreamKind()))
+                .setLength(stream.getLength())
+                .build();
+    }
+
+    private static OrcProto.ColumnEncoding toColumnEncoding(ColumnEncoding columnEncoding)
+    {
+        return OrcProto.ColumnEncoding.newBuilder()
+                .setKind(toColumnEncodingKind(columnEncoding.getColumnEncodingKind()))
+                .setDictionarySize(columnEncoding.getDictionarySize())
+                .build();
+    }
+
+    public void writeRowIndexes(OutputStream output, List<RowGroupIndex> rowGroupIndexes)
+            throws IOException
+    {
+        OrcProto.RowIndex.newBuilder()
+                .addAllEntry(rowGroupIndexes.stream()
+                        .map(OrcMetadataWriter::toRowGroupIndex)
+                        .collect(toList()))
+                .build()
+                .writeTo(output);
+    }
+
+    private static RowIndexEntry toRowGroupIndex(RowGroupIndex rowGroupIndex)
+    {
+        return RowIndexEntry.newBuilder()
+                .addAllPositions(rowGroupIndex.getPositions().stream()
+                        .map(Integer::longValue)
+                        .collect(toList()))
+                .setStatistics(toColumnStatistics(rowGroupIndex.getColumnStatistics()))
+                .build();
+    }
+
+    public void writeBloomFilters(OutputStream output, List<HiveBloomFilter> bloomFilters)
+            throws IOException
+    {
+        OrcProto.BloomFilterIndex.newBuilder()
+                .addAllBloomFilter(bloomFilters.stream()
+                        .map(OrcMetadataWriter::toBloomFilter)
+                        .collect(toList()))
+                .build()
+                .writeTo(output);
+    }
+
+    private static OrcProto.BloomFilter toBloomFilter(HiveBloomFilter bloomFilter)
+    {
+        return OrcProto.BloomFilter.newBuilder()
+                .addAllBitset(Longs.asList(bloomFilter.getBitSet()))
+                .setNumHashFunctions(bloomFilter.getNumHashFunctions())
+                .build();
+    }
+
+    private static OrcProto.ColumnStatistics toColumnStatistics(ColumnStatistics columnStatistics)
+    {
+        OrcProto.ColumnStatistics.Builder builder = OrcProto.ColumnStatistics.newBuilder();
+
+        if (columnStatistics.hasNumberOfValues()) {
+            builder.setNumberOfValues(columnStatistics.getNumberOfValues());
+        }
+
+        if (columnStatistics.getBooleanStatistics() != null) {
+            builder.setBucketStatistics(OrcProto.BucketStatistics.newBuilder()
+                    .addCount(columnStatistics.getBooleanStatistics().getTrueValueCount())
+                    .build());
+        }
+
+        IntegerStatistics integerStatistics = columnStatistics.getIntegerStatistics();
+        if (integerStatistics != null) {
+            OrcProto.IntegerStatistics.Builder integerBuilder = OrcProto.IntegerStatistics.newBuilder();
+            if (integerStatistics.getMin() != null) {
+                integerBuilder.setMinimum(integerStatistics.getMin());
+            }
+            if (integerStatistics.getMax() != null) {
+                integerBuilder.setMaximum(integerStatistics.getMax());
+            }
+            builder.setIntStatistics(integerBuilder.build());
+        }
+
+        DoubleStatistics doubleStatistics = columnStatistics.getDoubleStatistics();
+        if (doubleStatistics != null) {
+            OrcProto.DoubleStatistics.Builder doubleBuilder = OrcProto.DoubleStatistics.newBuilder();
+            if (doubleStatistics.getMin() != null) {
+                doubleBuilder.setMinimum(doubleStatistics.getMin());
+            }
+            if (doubleStatistics.getMax() != null) {
+                doubleBuilder.setMaximum(doubleStatistics.getMax());
+            }
+            builder.setDoubleStatistics(doubleBuilder.build());
+        }
+
+        StringStatistics stringStatistics = columnStatistics.getStringStatistics();
+        if (stringStatistics != null) {
+            OrcProto.StringStatistics.Builder stringBuilder = OrcProto.StringStatistics.newBuilder();
+            if (stringStatistics.getMin() != null) {
+                stringBuilder.setMinimum(stringStatistics.getMin().toStringUtf8());
+            }
+            if (stringStatistics.getMax() != null) {
+                stringBuilder.setMaximum(stringStatistics.getMax().toStringUtf8());
+            }
+            builder.setStringStatistics(stringBuilder.build());
+        }
+
+        DateStatistics dateStatistics = columnStatistics.getDateStatistics();
+        if (dateStatistics != null) {
+            OrcProto.DateStatistics.Builder dateBuilder = OrcProto.DateStatistics.newBuilder();
+            if (dateStatistics.getMin() != null) {
+                dateBuilder.setMinimum(dateStatistics.getMin());
+            }
+            if (dateStatistics.getMax() != null) {
+                dateBuilder.setMaximum(dateStatistics.getMax());
+            }
+            builder.setDateStatistics(dateBuilder.build());
+        }
+
+        return builder.build();
+    }
+
+    private static OrcProto.Type.Kind toTypeKind(OrcTypeKind type)
+    {
+        switch (type) {
+            case BOOLEAN:
+                return OrcProto.Type.Kind.BOOLEAN;
+            case BYTE:
+                return OrcProto.Type.Kind.BYTE;
+            case SHORT:
+                return OrcProto.Type.Kind.SHORT;
+            case INT:
+                return OrcProto.Type.Kind.INT;
+            case LONG:
+                return OrcProto.Type.Kind.LONG;
+            case DECIMAL:
+                return OrcProto.Type.Kind.DECIMAL;
+            case FLOAT:
+                return OrcProto.Type.Kind.FLOAT;
+            case DOUBLE:
+                return OrcProto.Type.Kind.DOUBLE;
+            case STRING:
+                return OrcProto.Type.Kind.STRING;
+            case VARCHAR:
+                return OrcProto.Type.Kind.VARCHAR;
+            case CHAR:
+                return OrcProto.Type.Kind.CHAR;
+            case BINARY:
+                return OrcProto.Type.Kind.BINARY;
+            case DATE:
+                return OrcProto.Type.Kind.DATE;
+            case TIMESTAMP:
+                return OrcProto.Type.Kind.TIMESTAMP;
+            case LIST:
+                return OrcProto.Type.Kind.LIST;
+            case MAP:
+                return OrcProto.Type.Kind.MAP;
+            case STRUCT:
+                return OrcProto.Type.Kind.STRUCT;
+            case UNION:
+                return OrcProto.Type.Kind.UNION;
+            default:
+                throw new IllegalArgumentException("Unsupported type: " + type);
+        }
+    }
+
+    private static OrcProto.Stream.Kind toStreamKind(StreamKind streamKind)
+    {
+        switch (streamKind) {
+            case PRESENT:
+                return OrcProto.Stream.Kind.PRESENT;
+            case DATA:
+                return OrcProto.Stream.Kind.DATA;
+            case LENGTH:
+                return OrcProto.Stream.Kind.LENGTH;
+            case DICTIONARY_DATA:
+                return OrcProto.Stream.Kind.DICTIONARY_DATA;
+            case DICTIONARY_COUNT:
+                return OrcProto.Stream.Kind.DICTIONARY_COUNT;
+            case SECONDARY:
+                return OrcProto.Stream.Kind.SECONDARY;
+            case ROW_INDEX:
+                return OrcProto.Stream.Kind.ROW_INDEX;
+            case BLOOM_FILTER:
+                return OrcProto.Stream.Kind.BLOOM_FILTER;
+            default:
+                throw new IllegalArgumentException("Unsupported stream kind: " + streamKind);
+        }
+    }
+
+    private static OrcProto.ColumnEncoding.Kind toColumnEncodingKind(ColumnEncodingKind columnEncodingKind)
+    {
+        switch (columnEncodingKind) {
+            case DIRECT:
+                return OrcProto.ColumnEncoding.Kind.DIRECT;
+            case DIRECT_V2:
+                return OrcProto.ColumnEncoding.Kind.DIRECT_V2;
+            case DICTIONARY:
+                return OrcProto.ColumnEncoding.Kind.DICTIONARY;
+            case DICTIONARY_V2:
+                return OrcProto.ColumnEncoding.Kind.DICTIONARY_V2;
+            default:
+                throw new IllegalArgumentException("Unsupported column encoding: " + columnEncodingKind);
+        }
+    }
+
+    private static OrcProto.CompressionKind toCompression(CompressionKind compressionKind)
+    {
+        switch (compressionKind) {
+            case UNCOMPRESSED:
+                return OrcProto.CompressionKind.NONE;
+            case ZLIB:
+                return OrcProto.CompressionKind.ZLIB;
+            case SNAPPY:
+                return OrcProto.CompressionKind.SNAPPY;
+            default:
+                throw new IllegalArgumentException("Unsupported compression: " + compressionKind);
+        }
+    }
+
+    private static int toWriterVersion(HiveWriterVersion hiveWriterVersion)
+    {
+        if (hiveWriterVersion == HiveWriterVersion.ORC_HIVE_8732) {
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -74,23 +74,7 @@ public class LongDirectStreamReader
     public Block readBlock(Type type)
             throws IOException
     {
-        if (!rowGroupOpen) {
-            openRowGroup();
-        }
-
-        if (readOffset > 0) {
-            if (presentStream != null) {
-                // skip ahead the present bit reader, but count the set bits
-                // and use this as the skip size for the data reader
-                readOffset = presentStream.countBitsSet(readOffset);
-            }
-            if (readOffset > 0) {
-                if (dataStream == null) {
-                    throw new OrcCorruptionException("Value is not null but data stream is not present");
-                }
-                dataStream.skip(readOffset);
-            }
-        }
+        skipToBatch();
 
         BlockBuilder builder = type.createBlockBuilder(new BlockBuilderStatus(), nextBatchSize);
         if (presentStream == null) {
@@ -123,6 +107,87 @@ public class LongDirectStreamReader
         return builder.build();
     }
 
+    @Override
+    public Block readBlock(Type type, int[] positions, int positionCount)
+            throws IOException
+    {
+        skipToBatch();
+
+        if (presentStream != null) {
+            if (nullVector.length < nextBatchSize) {
+                nullVector = new boolean[nextBatchSize];
+            }
+            presentStream.getUnsetBits(nextBatchSize, nullVector);
+        }
+
+        BlockBuilder builder = type.createBlockBuilder(new BlockBuilderStatus(), positionCount);
+        int position = 0;
+        for (int i = 0; i < positionCount; i++) {
+            skipValues(position, positions[i]);
+            position = positions[i];
+            if (presentStream != null && nullVector[position]) {
+                builder.appendNull();
+            }
+            else {
+                if (dataStream == null) {
+                    throw new OrcCorruptionException("Value is not null but data stream is not present");
+                }
+                type.writeLong(builder, dataStream.next());
+            }
+            position++;
+        }
+        skipValues(position, nextBatchSize);
+
+        readOffset = 0;
+        nextBatchSize = 0;
+
+        return builder.build();
+    }
+
+    private void skipToBatch()
+            throws IOException
+    {
+        if (!rowGroupOpen) {
+            openRowGroup();
+        }
+
+        if (readOffset > 0) {
+            if (presentStream != null) {
+                // skip ahead the present bit reader, but count the set bits
+                // and use this as the skip size for the data reader
+                readOffset = presentStream.countBitsSet(readOffset);
+            }
+            if (readOffset > 0) {
+                if (dataStream == null) {
+                    throw new OrcCorruptionException("Value is not null but data stream is not present");
+                }
+                dataStream.skip(readOffset);
+            }
+        }
+    }
+
+    /**
+     * Skips the non-null values of the current batch between the specified positions.
+     */
+    private void skipValues(int start, int end)
+            throws IOException
+    {
+        int valueCount = end - start;
+        if (presentStream != null) {
+            for (int position = start; position < end; position++) {
+                if (nullVector[position]) {
+                    valueCount--;
+                }
+            }
+        }
+        if (valueCount > 0) {
+            if (dataStream == null) {
+                throw new OrcCorruptionException("Value is not null but data stream is not present");
+            }
+            dataStream.skip(valueCount);
+        }
+    }
+
     private void openRowGroup()
             throws IOException
     {
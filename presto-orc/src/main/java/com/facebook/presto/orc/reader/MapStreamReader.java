@@ -20,10 +20,9 @@ import com.facebook.presto.orc.stream.BooleanStream;
 import com.facebook.presto.orc.stream.LongStream;
 import com.facebook.presto.orc.stream.StreamSource;
 import com.facebook.presto.orc.stream.StreamSources;
-import com.facebook.presto.spi.block.ArrayBlock;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
-import com.facebook.presto.spi.block.InterleavedBlock;
+import com.facebook.presto.spi.block.MapBlock;
 import com.facebook.presto.spi.type.Type;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.joda.time.DateTimeZone;
@@ -146,32 +145,28 @@ public class MapStreamReader
             values = valueType.createBlockBuilder(new BlockBuilderStatus(), 1).build();
         }
 
-        InterleavedBlock keyValueBlock = createKeyValueBlock(nextBatchSize, keys, values, lengthVector);
+        if (hasNull(keys)) {
+            // Map entries with a null key are skipped in the Hive ORC reader, so skip them here also
+            List<Integer> nonNullPositions = removeNullKeys(nextBatchSize, keys, lengthVector);
+            keys = keys.copyPositions(nonNullPositions);
+            values = values.copyPositions(nonNullPositions);
+        }
 
-        // convert lengths into offsets into the keyValueBlock (e.g., two positions per entry)
+        // convert lengths into offsets into the keys and values
         int[] offsets = new int[nextBatchSize + 1];
         for (int i = 1; i < offsets.length; i++) {
-            int length = lengthVector[i - 1] * 2;
-            offsets[i] = offsets[i - 1] + length;
+            offsets[i] = offsets[i - 1] + lengthVector[i - 1];
         }
-        ArrayBlock arrayBlock = new ArrayBlock(nextBatchSize, nullVector, offsets, keyValueBlock);
+        MapBlock mapBlock = new MapBlock(nextBatchSize, nullVector, offsets, keys, values, keyType);
 
         readOffset = 0;
         nextBatchSize = 0;
 
-        return arrayBlock;
+        return mapBlock;
     }
 
-    private static InterleavedBlock createKeyValueBlock(int positionCount, Block keys, Block values, int[] lengths)
+    private static List<Integer> removeNullKeys(int positionCount, Block keys, int[] lengths)
     {
-        if (!hasNull(keys)) {
-            return new InterleavedBlock(new Block[] {keys, values});
-        }
-
-        //
-        // Map entries with a null key are skipped in the Hive ORC reader, so skip them here also
-        //
-
         IntArrayList nonNullPositions = new IntArrayList(keys.getPositionCount());
 
         int position = 0;
@@ -188,10 +183,7 @@ public class MapStreamReader
                 position++;
             }
         }
-
-        Block newKeys = keys.copyPositions(nonNullPositions);
-        Block newValues = values.copyPositions(nonNullPositions);
-        return new InterleavedBlock(new Block[] {newKeys, newValues});
+        return nonNullPositions;
     }
 
     private static boolean hasNull(Block keys)
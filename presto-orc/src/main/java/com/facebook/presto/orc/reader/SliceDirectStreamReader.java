@@ -89,6 +89,77 @@ public class SliceDirectStreamReader
     @Override
     public Block readBlock(Type type)
             throws IOException
+    {
+        skipToBatch();
+        readLengthVector();
+
+        int totalLength = 0;
+        for (int i = 0; i < nextBatchSize; i++) {
+            if (!isNullVector[i]) {
+                totalLength += lengthVector[i];
+            }
+        }
+
+        byte[] data = EMPTY_BYTE_ARRAY;
+        if (totalLength > 0) {
+            if (dataStream == null) {
+                throw new OrcCorruptionException("Value is not null but data stream is not present");
+            }
+            data = dataStream.next(totalLength);
+        }
+
+        Slice[] sliceVector = new Slice[nextBatchSize];
+
+        int offset = 0;
+        for (int i = 0; i < nextBatchSize; i++) {
+            if (!isNullVector[i]) {
+                int length = lengthVector[i];
+                sliceVector[i] = truncate(Slices.wrappedBuffer(data, offset, length), type);
+                offset += length;
+            }
+        }
+
+        readOffset = 0;
+        nextBatchSize = 0;
+
+        return new SliceArrayBlock(sliceVector.length, sliceVector);
+    }
+
+    @Override
+    public Block readBlock(Type type, int[] positions, int positionCount)
+            throws IOException
+    {
+        skipToBatch();
+        readLengthVector();
+
+        Slice[] sliceVector = new Slice[positionCount];
+        int position = 0;
+        for (int i = 0; i < positionCount; i++) {
+            skipData(position, positions[i]);
+            position = positions[i];
+            if (!isNullVector[position]) {
+                int length = lengthVector[position];
+                byte[] data = EMPTY_BYTE_ARRAY;
+                if (length > 0) {
+                    if (dataStream == null) {
+                        throw new OrcCorruptionException("Value is not null but data stream is not present");
+                    }
+                    data = dataStream.next(length);
+                }
+                sliceVector[i] = truncate(Slices.wrappedBuffer(data), type);
+            }
+            position++;
+        }
+        skipData(position, nextBatchSize);
+
+        readOffset = 0;
+        nextBatchSize = 0;
+
+        return new SliceArrayBlock(positionCount, sliceVector);
+    }
+
+    private void skipToBatch()
+            throws IOException
     {
         if (!rowGroupOpen) {
             openRowGroup();
@@ -113,7 +184,11 @@ public class SliceDirectStreamReader
                 }
             }
         }
+    }
 
+    private void readLengthVector()
+            throws IOException
+    {
         if (isNullVector.length < nextBatchSize) {
             isNullVector = new boolean[nextBatchSize];
         }
@@ -136,44 +211,37 @@ public class SliceDirectStreamReader
                 lengthStream.nextIntVector(nextBatchSize, lengthVector, isNullVector);
             }
         }
+    }
 
-        int totalLength = 0;
-        for (int i = 0; i < nextBatchSize; i++) {
-            if (!isNullVector[i]) {
-                totalLength += lengthVector[i];
+    /**
+     * Skips the data of the non-null values of the current batch between the specified positions.
+     */
+    private void skipData(int start, int end)
+            throws IOException
+    {
+        long skipSize = 0;
+        for (int position = start; position < end; position++) {
+            if (!isNullVector[position]) {
+                skipSize += lengthVector[position];
             }
         }
-
-        byte[] data = EMPTY_BYTE_ARRAY;
-        if (totalLength > 0) {
+        if (skipSize > 0) {
             if (dataStream == null) {
                 throw new OrcCorruptionException("Value is not null but data stream is not present");
             }
-            data = dataStream.next(totalLength);
+            dataStream.skip(skipSize);
         }
+    }
 
-        Slice[] sliceVector = new Slice[nextBatchSize];
-
-        int offset = 0;
-        for (int i = 0; i < nextBatchSize; i++) {
-            if (!isNullVector[i]) {
-                int length = lengthVector[i];
-                Slice value = Slices.wrappedBuffer(data, offset, length);
-                if (isVarcharType(type)) {
-                    value = truncateToLength(value, type);
-                }
-                if (isCharType(type)) {
-                    value = trimSpacesAndTruncateToLength(value, type);
-                }
-                sliceVector[i] = value;
-                offset += length;
-            }
+    private static Slice truncate(Slice value, Type type)
+    {
+        if (isVarcharType(type)) {
+            value = truncateToLength(value, type);
         }
-
-        readOffset = 0;
-        nextBatchSize = 0;
-
-        return new SliceArrayBlock(sliceVector.length, sliceVector);
+        if (isCharType(type)) {
+            value = trimSpacesAndTruncateToLength(value, type);
+        }
+        return value;
     }
 
     private void openRowGroup()
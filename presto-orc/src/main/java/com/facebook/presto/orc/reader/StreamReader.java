@@ -17,6 +17,7 @@ import com.facebook.presto.orc.metadata.ColumnEncoding;
 import com.facebook.presto.orc.stream.StreamSources;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
+import com.google.common.primitives.Ints;
 
 import java.io.IOException;
 import java.util.List;
@@ -26,6 +27,17 @@ public interface StreamReader
     Block readBlock(Type type)
             throws IOException;
 
+    /**
+     * Reads only the values at the specified positions of the next batch, which are
+     * relative to the start of the batch and in increasing order. Readers that can skip
+     * values without decoding them should override this.
+     */
+    default Block readBlock(Type type, int[] positions, int positionCount)
+            throws IOException
+    {
+        return readBlock(type).copyPositions(Ints.asList(positions).subList(0, positionCount));
+    }
+
     void prepareNextRead(int batchSize);
 
     void startStripe(StreamSources dictionaryStreamSources, List<ColumnEncoding> encoding)
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.stream;
+
+import com.facebook.presto.orc.checkpoint.BooleanStreamCheckpoint;
+import com.facebook.presto.orc.checkpoint.ByteStreamCheckpoint;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkState;
+
+public class BooleanOutputStream
+        implements ValueOutputStream<BooleanStreamCheckpoint>
+{
+    private final ByteOutputStream byteOutputStream;
+    private final List<BooleanStreamCheckpoint> checkpoints = new ArrayList<>();
+
+    private int data;
+    private int bitsInData;
+
+    private boolean closed;
+
+    public BooleanOutputStream(CompressionKind compression, int bufferSize)
+    {
+        this(new OrcOutputBuffer(compression, bufferSize));
+    }
+
+    public BooleanOutputStream(OrcOutputBuffer buffer)
+    {
+        this.byteOutputStream = new ByteOutputStream(buffer);
+    }
+
+    public void writeBoolean(boolean value)
+    {
+        checkState(!closed);
+
+        // the first value is stored in the high bit, as in BooleanStream
+        data <<= 1;
+        if (value) {
+            data |= 1;
+        }
+        bitsInData++;
+
+        if (bitsInData == 8) {
+            flushData();
+        }
+    }
+
+    public void writeBooleans(int count, boolean value)
+    {
+        for (int i = 0; i < count; i++) {
+            writeBoolean(value);
+        }
+    }
+
+    private void flushData()
+    {
+        byteOutputStream.writeByte((byte) data);
+        data = 0;
+        bitsInData = 0;
+    }
+
+    @Override
+    public void recordCheckpoint()
+    {
+        checkState(!closed);
+        ByteStreamCheckpoint byteStreamCheckpoint = byteOutputStream.getCheckpoint();
+        checkpoints.add(new BooleanStreamCheckpoint(bitsInData, byteStreamCheckpoint));
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        if (bitsInData > 0) {
+            // pad the last byte with zeros
+            data <<= 8 - bitsInData;
+            flushData();
+        }
+        byteOutputStream.close();
+    }
+
+    @Override
+    public List<BooleanStreamCheckpoint> getCheckpoints()
+    {
+        checkState(closed);
+        return ImmutableList.copyOf(checkpoints);
+    }
+
+    @Override
+    public StreamDataOutput getStreamDataOutput(int column)
+    {
+        return byteOutputStream.getStreamDataOutput(column);
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return byteOutputStream.getBufferedBytes();
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return byteOutputStream.getRetainedBytes();
+    }
+
+    @Override
+    public void reset()
+    {
+        closed = false;
+        data = 0;
+        bitsInData = 0;
+        checkpoints.clear();
+        byteOutputStream.reset();
+    }
+}
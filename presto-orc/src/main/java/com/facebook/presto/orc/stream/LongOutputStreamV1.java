@@ -0,0 +1,213 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.stream;
+
+import com.facebook.presto.orc.checkpoint.LongStreamV1Checkpoint;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.Stream;
+import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.orc.stream.OrcStreamUtils.MIN_REPEAT_SIZE;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+public class LongOutputStreamV1
+        implements ValueOutputStream<LongStreamV1Checkpoint>
+{
+    private static final int MAX_LITERAL_SIZE = 128;
+    private static final int MAX_REPEAT_SIZE = 127 + MIN_REPEAT_SIZE;
+    private static final long MIN_DELTA = -128;
+    private static final long MAX_DELTA = 127;
+
+    private final StreamKind streamKind;
+    private final OrcOutputBuffer buffer;
+    private final boolean signed;
+    private final List<LongStreamV1Checkpoint> checkpoints = new ArrayList<>();
+
+    private final long[] literals = new long[MAX_LITERAL_SIZE];
+    private int numLiterals;
+    private long delta;
+    private boolean repeat;
+    private int tailRunLength;
+
+    private boolean closed;
+
+    public LongOutputStreamV1(CompressionKind compression, int bufferSize, boolean signed, StreamKind streamKind)
+    {
+        this.streamKind = requireNonNull(streamKind, "streamKind is null");
+        this.buffer = new OrcOutputBuffer(compression, bufferSize);
+        this.signed = signed;
+    }
+
+    // This comes from the Apache Hive ORC code
+    public void writeLong(long value)
+    {
+        checkState(!closed);
+
+        if (numLiterals == 0) {
+            literals[numLiterals++] = value;
+            tailRunLength = 1;
+        }
+        else if (repeat) {
+            if (value == literals[0] + delta * numLiterals) {
+                numLiterals++;
+                if (numLiterals == MAX_REPEAT_SIZE) {
+                    writeValues();
+                }
+            }
+            else {
+                writeValues();
+                literals[numLiterals++] = value;
+                tailRunLength = 1;
+            }
+        }
+        else {
+            if (tailRunLength == 1 || value != literals[numLiterals - 1] + delta) {
+                delta = value - literals[numLiterals - 1];
+                if (delta < MIN_DELTA || delta > MAX_DELTA) {
+                    tailRunLength = 1;
+                }
+                else {
+                    tailRunLength = 2;
+                }
+            }
+            else {
+                tailRunLength++;
+            }
+
+            if (tailRunLength == MIN_REPEAT_SIZE) {
+                if (numLiterals + 1 == MIN_REPEAT_SIZE) {
+                    repeat = true;
+                    numLiterals++;
+                }
+                else {
+                    // flush the literals before the run, and start a repeat with the tail
+                    numLiterals -= MIN_REPEAT_SIZE - 1;
+                    long base = literals[numLiterals];
+                    writeValues();
+                    literals[0] = base;
+                    repeat = true;
+                    numLiterals = MIN_REPEAT_SIZE;
+                }
+            }
+            else {
+                literals[numLiterals++] = value;
+                if (numLiterals == MAX_LITERAL_SIZE) {
+                    writeValues();
+                }
+            }
+        }
+    }
+
+    private void writeValues()
+    {
+        if (numLiterals == 0) {
+            return;
+        }
+
+        if (repeat) {
+            // the length of a repeat is stored as (length - MIN_REPEAT_SIZE) in a non-negative byte
+            buffer.write(numLiterals - MIN_REPEAT_SIZE);
+            buffer.write((byte) delta);
+            writeVLong(literals[0]);
+        }
+        else {
+            // the length of a literal sequence is stored as a negative byte
+            buffer.write(-numLiterals);
+            for (int i = 0; i < numLiterals; i++) {
+                writeVLong(literals[i]);
+            }
+        }
+        repeat = false;
+        tailRunLength = 0;
+        numLiterals = 0;
+    }
+
+    private void writeVLong(long value)
+    {
+        if (signed) {
+            // zigzag encoding, the inverse of LongDecode.zigzagDecode
+            value = (value << 1) ^ (value >> 63);
+        }
+        while ((value & ~0x7FL) != 0) {
+            buffer.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.write((int) value);
+    }
+
+    /**
+     * Position of the next value: the start of the pending run in the buffer, and the offset in that run.
+     */
+    public LongStreamV1Checkpoint getCheckpoint()
+    {
+        return new LongStreamV1Checkpoint(numLiterals, buffer.getCheckpoint());
+    }
+
+    @Override
+    public void recordCheckpoint()
+    {
+        checkState(!closed);
+        checkpoints.add(getCheckpoint());
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        writeValues();
+        buffer.close();
+    }
+
+    @Override
+    public List<LongStreamV1Checkpoint> getCheckpoints()
+    {
+        checkState(closed);
+        return ImmutableList.copyOf(checkpoints);
+    }
+
+    @Override
+    public StreamDataOutput getStreamDataOutput(int column)
+    {
+        return new StreamDataOutput(buffer.getOutputData(), new Stream(column, streamKind, buffer.getOutputDataSize(), true));
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return buffer.getBufferedBytes() + (Long.BYTES * numLiterals);
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return buffer.getRetainedSize() + (Long.BYTES * literals.length);
+    }
+
+    @Override
+    public void reset()
+    {
+        closed = false;
+        buffer.reset();
+        checkpoints.clear();
+        numLiterals = 0;
+        delta = 0;
+        repeat = false;
+        tailRunLength = 0;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.stream;
+
+import com.facebook.presto.orc.metadata.CompressionKind;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import org.iq80.snappy.Snappy;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static com.facebook.presto.orc.checkpoint.InputStreamCheckpoint.createInputStreamCheckpoint;
+import static com.facebook.presto.orc.metadata.CompressionKind.SNAPPY;
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Output side of {@link OrcInputStream}. Data is collected in chunks of at
+ * most {@code maxBufferSize} bytes, and each chunk is written to the output
+ * with the 3 byte ORC chunk header, compressed when that makes it smaller.
+ */
+public class OrcOutputBuffer
+        extends OutputStream
+{
+    // NOTE: this must match the 3 byte header read in OrcInputStream
+    private static final int CHUNK_HEADER_SIZE = 3;
+    private static final int MAX_CHUNK_LENGTH = (1 << 23) - 1;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final CompressionKind compressionKind;
+    private final int maxBufferSize;
+    private final DynamicSliceOutput compressedOutputStream;
+
+    private byte[] buffer = new byte[0];
+    private int bufferPosition;
+
+    private byte[] compressionBuffer = new byte[0];
+    private Deflater deflater;
+
+    public OrcOutputBuffer(CompressionKind compressionKind, int maxBufferSize)
+    {
+        this.compressionKind = requireNonNull(compressionKind, "compressionKind is null");
+        checkArgument(compressionKind == UNCOMPRESSED || compressionKind == ZLIB || compressionKind == SNAPPY, "%s compression not supported", compressionKind);
+        checkArgument(maxBufferSize > 0 && maxBufferSize <= MAX_CHUNK_LENGTH, "maxBufferSize must be between 1 and %s", MAX_CHUNK_LENGTH);
+        this.maxBufferSize = maxBufferSize;
+        this.compressedOutputStream = new DynamicSliceOutput(INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * Returns the position of the next byte written, in the format read by
+     * {@link OrcInputStream#seekToCheckpoint(long)}.
+     */
+    public long getCheckpoint()
+    {
+        if (compressionKind == UNCOMPRESSED) {
+            return createInputStreamCheckpoint(0, compressedOutputStream.size() + bufferPosition);
+        }
+        return createInputStreamCheckpoint(compressedOutputStream.size(), bufferPosition);
+    }
+
+    public boolean isCompressed()
+    {
+        return compressionKind != UNCOMPRESSED;
+    }
+
+    @Override
+    public void write(int value)
+    {
+        ensureWritable(1);
+        buffer[bufferPosition++] = (byte) value;
+        flushBufferIfFull();
+    }
+
+    @Override
+    public void write(byte[] source, int sourceIndex, int length)
+    {
+        while (length > 0) {
+            int chunkLength = ensureWritable(length);
+            System.arraycopy(source, sourceIndex, buffer, bufferPosition, chunkLength);
+            bufferPosition += chunkLength;
+            sourceIndex += chunkLength;
+            length -= chunkLength;
+            flushBufferIfFull();
+        }
+    }
+
+    public void writeBytes(Slice source, int sourceIndex, int length)
+    {
+        while (length > 0) {
+            int chunkLength = ensureWritable(length);
+            source.getBytes(sourceIndex, buffer, bufferPosition, chunkLength);
+            bufferPosition += chunkLength;
+            sourceIndex += chunkLength;
+            length -= chunkLength;
+            flushBufferIfFull();
+        }
+    }
+
+    public void writeFloat(float value)
+    {
+        writeLittleEndian(Float.floatToRawIntBits(value), 4);
+    }
+
+    public void writeDouble(double value)
+    {
+        writeLittleEndian(Double.doubleToRawLongBits(value), 8);
+    }
+
+    private void writeLittleEndian(long value, int length)
+    {
+        if (ensureWritable(length) == length) {
+            for (int i = 0; i < length; i++) {
+                buffer[bufferPosition++] = (byte) value;
+                value >>>= 8;
+            }
+            flushBufferIfFull();
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            write((int) value);
+            value >>>= 8;
+        }
+    }
+
+    /**
+     * Writes the buffered data to the output. The buffer can be reused after {@link #reset()}.
+     */
+    @Override
+    public void close()
+    {
+        flushBufferToOutputStream();
+    }
+
+    /**
+     * Size of the data in the output, which is only complete after {@link #close()}.
+     */
+    public int getOutputDataSize()
+    {
+        return compressedOutputStream.size();
+    }
+
+    /**
+     * Returns the data written so far, which is only complete after {@link #close()}.
+     * The slice is only valid until the next call to {@link #reset()}.
+     */
+    public Slice getOutputData()
+    {
+        return compressedOutputStream.slice();
+    }
+
+    public void writeDataTo(SliceOutput outputStream)
+    {
+        outputStream.writeBytes(compressedOutputStream.slice());
+    }
+
+    public long getBufferedBytes()
+    {
+        return compressedOutputStream.size() + bufferPosition;
+    }
+
+    public long getRetainedSize()
+    {
+        return compressedOutputStream.getRetainedSize() + buffer.length + compressionBuffer.length;
+    }
+
+    public void reset()
+    {
+        compressedOutputStream.reset();
+        bufferPosition = 0;
+    }
+
+    /**
+     * Makes room for up to {@code length} bytes in the current chunk, and returns the number of bytes that fit.
+     */
+    private int ensureWritable(int length)
+    {
+        int writableBytes = min(length, maxBufferSize - bufferPosition);
+        if (buffer.length < bufferPosition + writableBytes) {
+            int newSize = min(maxBufferSize, Math.max(buffer.length * 2, Math.max(INITIAL_BUFFER_SIZE, bufferPosition + writableBytes)));
+            buffer = Arrays.copyOf(buffer, newSize);
+        }
+        return writableBytes;
+    }
+
+    private void flushBufferIfFull()
+    {
+        if (bufferPosition == maxBufferSize) {
+            flushBufferToOutputStream();
+        }
+    }
+
+    private void flushBufferToOutputStream()
+    {
+        if (bufferPosition == 0) {
+            return;
+        }
+
+        if (compressionKind == UNCOMPRESSED) {
+            compressedOutputStream.writeBytes(buffer, 0, bufferPosition);
+        }
+        else {
+            int compressedSize = compress(buffer, bufferPosition);
+            if (compressedSize >= 0) {
+                writeChunkHeader(compressedSize, false);
+                compressedOutputStream.writeBytes(compressionBuffer, 0, compressedSize);
+            }
+            else {
+                // compression did not make the chunk smaller, so it is stored as is
+                writeChunkHeader(bufferPosition, true);
+                compressedOutputStream.writeBytes(buffer, 0, bufferPosition);
+            }
+        }
+        bufferPosition = 0;
+    }
+
+    // This comes from the Apache Hive ORC code
+    private void writeChunkHeader(int length, boolean isOriginal)
+    {
+        int header = (length << 1) | (isOriginal ? 1 : 0);
+        compressedOutputStream.writeByte(header);
+        compressedOutputStream.writeByte(header >>> 8);
+        compressedOutputStream.writeByte(header >>> 16);
+    }
+
+    /**
+     * Compresses the data into the compression buffer, and returns the compressed
+     * size, or -1 if the compressed data is not smaller than the input.
+     */
+    private int compress(byte[] input, int length)
+    {
+        if (compressionKind == ZLIB) {
+            if (deflater == null) {
+                deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            }
+            if (compressionBuffer.length < length) {
+                compressionBuffer = new byte[length];
+            }
+
+            deflater.reset();
+            deflater.setInput(input, 0, length);
+            deflater.finish();
+            int compressedSize = 0;
+            while (!deflater.finished() && compressedSize < length) {
+                compressedSize += deflater.deflate(compressionBuffer, compressedSize, length - compressedSize);
+            }
+            if (!deflater.finished() || compressedSize >= length) {
+                return -1;
+            }
+            return compressedSize;
+        }
+
+        int maxCompressedLength = Snappy.maxCompressedLength(length);
+        if (compressionBuffer.length < maxCompressedLength) {
+            compressionBuffer = new byte[maxCompressedLength];
+        }
+        int compressedSize = Snappy.compress(input, 0, length, compressionBuffer, 0);
+        if (compressedSize >= length) {
+            return -1;
+        }
+        return compressedSize;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("compression", compressionKind)
+                .add("outputSize", compressedOutputStream.size())
+                .add("bufferedSize", bufferPosition)
+                .toString();
+    }
+}
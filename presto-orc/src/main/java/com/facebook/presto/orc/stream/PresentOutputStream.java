@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.stream;
+
+import com.facebook.presto.orc.checkpoint.BooleanStreamCheckpoint;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.Stream;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.PRESENT;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * The PRESENT stream of a column. The stream is only created when the first
+ * null is written, so columns without nulls in a stripe do not have one.
+ */
+public class PresentOutputStream
+{
+    private final CompressionKind compression;
+    private final int bufferSize;
+
+    // number of values written before each checkpoint, used to create the checkpoints when the stream is created
+    private final IntList checkpointValueCounts = new IntArrayList();
+    private int valueCount;
+
+    private BooleanOutputStream booleanOutputStream;
+
+    private boolean closed;
+
+    public PresentOutputStream(CompressionKind compression, int bufferSize)
+    {
+        this.compression = compression;
+        this.bufferSize = bufferSize;
+    }
+
+    public void writeBoolean(boolean value)
+    {
+        checkState(!closed);
+        if (!value && booleanOutputStream == null) {
+            createBooleanOutputStream();
+        }
+
+        if (booleanOutputStream != null) {
+            booleanOutputStream.writeBoolean(value);
+        }
+        valueCount++;
+    }
+
+    private void createBooleanOutputStream()
+    {
+        booleanOutputStream = new BooleanOutputStream(compression, bufferSize);
+
+        // all values before the first null are present
+        int written = 0;
+        for (int i = 0; i < checkpointValueCounts.size(); i++) {
+            int checkpointValueCount = checkpointValueCounts.getInt(i);
+            booleanOutputStream.writeBooleans(checkpointValueCount - written, true);
+            booleanOutputStream.recordCheckpoint();
+            written = checkpointValueCount;
+        }
+        booleanOutputStream.writeBooleans(valueCount - written, true);
+    }
+
+    public void recordCheckpoint()
+    {
+        checkState(!closed);
+        checkpointValueCounts.add(valueCount);
+        if (booleanOutputStream != null) {
+            booleanOutputStream.recordCheckpoint();
+        }
+    }
+
+    public void close()
+    {
+        closed = true;
+        if (booleanOutputStream != null) {
+            booleanOutputStream.close();
+        }
+    }
+
+    public Optional<List<BooleanStreamCheckpoint>> getCheckpoints()
+    {
+        checkState(closed);
+        if (booleanOutputStream == null) {
+            return Optional.empty();
+        }
+        return Optional.of(booleanOutputStream.getCheckpoints());
+    }
+
+    public Optional<StreamDataOutput> getStreamDataOutput(int column)
+    {
+        checkState(closed);
+        if (booleanOutputStream == null) {
+            return Optional.empty();
+        }
+        StreamDataOutput streamDataOutput = booleanOutputStream.getStreamDataOutput(column);
+        return Optional.of(new StreamDataOutput(streamDataOutput.getData(), new Stream(column, PRESENT, streamDataOutput.size(), true)));
+    }
+
+    public long getBufferedBytes()
+    {
+        if (booleanOutputStream == null) {
+            return 0;
+        }
+        return booleanOutputStream.getBufferedBytes();
+    }
+
+    public long getRetainedBytes()
+    {
+        if (booleanOutputStream == null) {
+            return 0;
+        }
+        return booleanOutputStream.getRetainedBytes();
+    }
+
+    public void reset()
+    {
+        closed = false;
+        booleanOutputStream = null;
+        checkpointValueCounts.clear();
+        valueCount = 0;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.stream;
+
+import com.facebook.presto.orc.metadata.Stream;
+import io.airlift.slice.Slice;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The encoded data of a stream in a stripe and the stream metadata describing it.
+ */
+public final class StreamDataOutput
+{
+    private final Slice data;
+    private final Stream stream;
+
+    public StreamDataOutput(Slice data, Stream stream)
+    {
+        this.data = requireNonNull(data, "data is null");
+        this.stream = requireNonNull(stream, "stream is null");
+    }
+
+    public Slice getData()
+    {
+        return data;
+    }
+
+    public Stream getStream()
+    {
+        return stream;
+    }
+
+    public int size()
+    {
+        return data.length();
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("stream", stream)
+                .toString();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.stream;
+
+import com.facebook.presto.orc.checkpoint.StreamCheckpoint;
+
+import java.util.List;
+
+public interface ValueOutputStream<C extends StreamCheckpoint>
+{
+    /**
+     * Records the position of the next value written, which is where the next row group starts.
+     */
+    void recordCheckpoint();
+
+    /**
+     * Flushes all buffered values. No values can be written until the stream is reset.
+     */
+    void close();
+
+    List<C> getCheckpoints();
+
+    StreamDataOutput getStreamDataOutput(int column);
+
+    /**
+     * Size of the encoded data, including data not yet flushed to the output.
+     */
+    long getBufferedBytes();
+
+    long getRetainedBytes();
+
+    void reset();
+}
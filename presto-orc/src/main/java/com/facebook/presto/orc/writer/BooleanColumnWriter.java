@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.checkpoint.BooleanStreamCheckpoint;
+import com.facebook.presto.orc.metadata.BooleanStatistics;
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.HiveBloomFilter;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.stream.BooleanOutputStream;
+import com.facebook.presto.orc.stream.PresentOutputStream;
+import com.facebook.presto.orc.stream.StreamDataOutput;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT;
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static com.facebook.presto.orc.writer.ColumnStatisticsMerger.mergeColumnStatistics;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+public class BooleanColumnWriter
+        implements ColumnWriter
+{
+    private final int column;
+    private final Type type;
+    private final boolean compressed;
+    private final BooleanOutputStream dataStream;
+    private final PresentOutputStream presentStream;
+    private final ColumnBloomFilterBuilder bloomFilterBuilder;
+
+    private final List<ColumnStatistics> rowGroupColumnStatistics = new ArrayList<>();
+
+    private long nonNullValueCount;
+    private long trueValueCount;
+
+    private boolean closed;
+
+    public BooleanColumnWriter(int column, Type type, ColumnWriterOptions options)
+    {
+        checkArgument(column >= 0, "column is negative");
+        this.column = column;
+        this.type = requireNonNull(type, "type is null");
+        this.compressed = options.getCompression() != UNCOMPRESSED;
+        this.dataStream = new BooleanOutputStream(options.getCompression(), options.getMaxCompressionBufferSize());
+        this.presentStream = new PresentOutputStream(options.getCompression(), options.getMaxCompressionBufferSize());
+        this.bloomFilterBuilder = new ColumnBloomFilterBuilder(options);
+    }
+
+    @Override
+    public void beginRowGroup()
+    {
+        checkState(!closed);
+        presentStream.recordCheckpoint();
+        dataStream.recordCheckpoint();
+    }
+
+    @Override
+    public void writeBlock(Block block)
+    {
+        checkState(!closed);
+        checkArgument(block.getPositionCount() > 0, "Block is empty");
+
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                presentStream.writeBoolean(false);
+                continue;
+            }
+            presentStream.writeBoolean(true);
+
+            boolean value = type.getBoolean(block, position);
+            dataStream.writeBoolean(value);
+            bloomFilterBuilder.addLong(value ? 1 : 0);
+            nonNullValueCount++;
+            if (value) {
+                trueValueCount++;
+            }
+        }
+    }
+
+    @Override
+    public void finishRowGroup()
+    {
+        checkState(!closed);
+
+        BooleanStatistics booleanStatistics = nonNullValueCount == 0 ? null : new BooleanStatistics(trueValueCount);
+        ColumnStatistics statistics = new ColumnStatistics(nonNullValueCount, booleanStatistics, null, null, null, null, null, null);
+        Optional<HiveBloomFilter> bloomFilter = bloomFilterBuilder.buildAndReset();
+        if (bloomFilter.isPresent()) {
+            statistics = statistics.withBloomFilter(bloomFilter.get());
+        }
+        rowGroupColumnStatistics.add(statistics);
+
+        nonNullValueCount = 0;
+        trueValueCount = 0;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        dataStream.close();
+        presentStream.close();
+    }
+
+    @Override
+    public ColumnEncoding getColumnEncoding()
+    {
+        return new ColumnEncoding(DIRECT, 0);
+    }
+
+    @Override
+    public ColumnStatistics getColumnStripeStatistics()
+    {
+        checkState(closed);
+        return mergeColumnStatistics(rowGroupColumnStatistics);
+    }
+
+    @Override
+    public List<RowGroupIndex> getRowGroupIndexes()
+    {
+        checkState(closed);
+
+        List<BooleanStreamCheckpoint> dataCheckpoints = dataStream.getCheckpoints();
+        Optional<List<BooleanStreamCheckpoint>> presentCheckpoints = presentStream.getCheckpoints();
+
+        ImmutableList.Builder<RowGroupIndex> rowGroupIndexes = ImmutableList.builder();
+        for (int i = 0; i < rowGroupColumnStatistics.size(); i++) {
+            ImmutableList.Builder<Integer> positions = ImmutableList.builder();
+            if (presentCheckpoints.isPresent()) {
+                positions.addAll(presentCheckpoints.get().get(i).toPositionList(compressed));
+            }
+            positions.addAll(dataCheckpoints.get(i).toPositionList(compressed));
+            rowGroupIndexes.add(new RowGroupIndex(positions.build(), rowGroupColumnStatistics.get(i)));
+        }
+        return rowGroupIndexes.build();
+    }
+
+    @Override
+    public List<StreamDataOutput> getDataStreams()
+    {
+        checkState(closed);
+
+        ImmutableList.Builder<StreamDataOutput> dataStreams = ImmutableList.builder();
+        presentStream.getStreamDataOutput(column).ifPresent(dataStreams::add);
+        dataStreams.add(dataStream.getStreamDataOutput(column));
+        return dataStreams.build();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return dataStream.getBufferedBytes() + presentStream.getBufferedBytes();
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return dataStream.getRetainedBytes() + presentStream.getRetainedBytes() + bloomFilterBuilder.getRetainedBytes();
+    }
+
+    @Override
+    public void reset()
+    {
+        closed = false;
+        dataStream.reset();
+        presentStream.reset();
+        rowGroupColumnStatistics.clear();
+        nonNullValueCount = 0;
+        trueValueCount = 0;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.HiveBloomFilter;
+import io.airlift.slice.Slice;
+import org.apache.hive.common.util.BloomFilter;
+
+import java.util.Optional;
+
+/**
+ * Collects the bloom filter of the current row group of a column, when bloom
+ * filters are enabled for the column. A new filter is used for each row group.
+ */
+class ColumnBloomFilterBuilder
+{
+    private final boolean enabled;
+    private final int expectedEntries;
+    private final double fpp;
+
+    private BloomFilter bloomFilter;
+
+    public ColumnBloomFilterBuilder(ColumnWriterOptions options)
+    {
+        this.enabled = options.isBloomFilterEnabled();
+        this.expectedEntries = options.getRowGroupMaxRowCount();
+        this.fpp = options.getBloomFilterFpp();
+    }
+
+    public void addLong(long value)
+    {
+        if (enabled) {
+            getBloomFilter().addLong(value);
+        }
+    }
+
+    public void addDouble(double value)
+    {
+        if (enabled) {
+            getBloomFilter().addDouble(value);
+        }
+    }
+
+    public void addSlice(Slice value)
+    {
+        if (enabled) {
+            getBloomFilter().add(value.getBytes());
+        }
+    }
+
+    /**
+     * Returns the bloom filter of the row group, which is empty if no values were added.
+     */
+    public Optional<HiveBloomFilter> buildAndReset()
+    {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        HiveBloomFilter result = new HiveBloomFilter(getBloomFilter());
+        bloomFilter = null;
+        return Optional.of(result);
+    }
+
+    public long getRetainedBytes()
+    {
+        if (bloomFilter == null) {
+            return 0;
+        }
+        return bloomFilter.getBitSet().length * (long) Long.BYTES;
+    }
+
+    private BloomFilter getBloomFilter()
+    {
+        if (bloomFilter == null) {
+            bloomFilter = new BloomFilter(expectedEntries, fpp);
+        }
+        return bloomFilter;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.BooleanStatistics;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.DateStatistics;
+import com.facebook.presto.orc.metadata.DoubleStatistics;
+import com.facebook.presto.orc.metadata.IntegerStatistics;
+import com.facebook.presto.orc.metadata.StringStatistics;
+import com.google.common.collect.Ordering;
+import io.airlift.slice.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public final class ColumnStatisticsMerger
+{
+    private ColumnStatisticsMerger()
+    {
+    }
+
+    /**
+     * Merges the statistics of row groups into the statistics of a stripe, or the
+     * statistics of stripes into the statistics of a file. A typed statistic is only
+     * kept if all the inputs that contain values have it. Bloom filters are not merged.
+     */
+    public static ColumnStatistics mergeColumnStatistics(List<ColumnStatistics> statistics)
+    {
+        long numberOfValues = 0;
+        List<ColumnStatistics> statisticsWithValues = new ArrayList<>();
+        for (ColumnStatistics columnStatistics : statistics) {
+            numberOfValues += columnStatistics.getNumberOfValues();
+            if (columnStatistics.getNumberOfValues() > 0) {
+                statisticsWithValues.add(columnStatistics);
+            }
+        }
+
+        return new ColumnStatistics(
+                numberOfValues,
+                mergeBooleanStatistics(statisticsWithValues),
+                mergeIntegerStatistics(statisticsWithValues),
+                mergeDoubleStatistics(statisticsWithValues),
+                mergeStringStatistics(statisticsWithValues),
+                mergeDateStatistics(statisticsWithValues),
+                null,
+                null);
+    }
+
+    private static BooleanStatistics mergeBooleanStatistics(List<ColumnStatistics> statistics)
+    {
+        List<BooleanStatistics> values = extract(statistics, ColumnStatistics::getBooleanStatistics);
+        if (values == null) {
+            return null;
+        }
+        long trueValueCount = 0;
+        for (BooleanStatistics value : values) {
+            trueValueCount += value.getTrueValueCount();
+        }
+        return new BooleanStatistics(trueValueCount);
+    }
+
+    private static IntegerStatistics mergeIntegerStatistics(List<ColumnStatistics> statistics)
+    {
+        List<IntegerStatistics> values = extract(statistics, ColumnStatistics::getIntegerStatistics);
+        if (values == null) {
+            return null;
+        }
+        return new IntegerStatistics(
+                min(values, IntegerStatistics::getMin),
+                max(values, IntegerStatistics::getMax));
+    }
+
+    private static DoubleStatistics mergeDoubleStatistics(List<ColumnStatistics> statistics)
+    {
+        List<DoubleStatistics> values = extract(statistics, ColumnStatistics::getDoubleStatistics);
+        if (values == null) {
+            return null;
+        }
+        return new DoubleStatistics(
+                min(values, DoubleStatistics::getMin),
+                max(values, DoubleStatistics::getMax));
+    }
+
+    private static StringStatistics mergeStringStatistics(List<ColumnStatistics> statistics)
+    {
+        List<StringStatistics> values = extract(statistics, ColumnStatistics::getStringStatistics);
+        if (values == null) {
+            return null;
+        }
+        Slice min = min(values, StringStatistics::getMin);
+        Slice max = max(values, StringStatistics::getMax);
+        return new StringStatistics(min, max);
+    }
+
+    private static DateStatistics mergeDateStatistics(List<ColumnStatistics> statistics)
+    {
+        List<DateStatistics> values = extract(statistics, ColumnStatistics::getDateStatistics);
+        if (values == null) {
+            return null;
+        }
+        return new DateStatistics(
+                min(values, DateStatistics::getMin),
+                max(values, DateStatistics::getMax));
+    }
+
+    /**
+     * Returns the typed statistics of all inputs, or null if any input does not have them.
+     */
+    private static <T> List<T> extract(List<ColumnStatistics> statistics, Function<ColumnStatistics, T> extractor)
+    {
+        if (statistics.isEmpty()) {
+            return null;
+        }
+        List<T> values = new ArrayList<>(statistics.size());
+        for (ColumnStatistics columnStatistics : statistics) {
+            T value = extractor.apply(columnStatistics);
+            if (value == null) {
+                return null;
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    private static <S, T extends Comparable<? super T>> T min(List<S> statistics, Function<S, T> extractor)
+    {
+        List<T> values = new ArrayList<>(statistics.size());
+        for (S value : statistics) {
+            T extracted = extractor.apply(value);
+            if (extracted == null) {
+                // an unbounded minimum stays unbounded
+                return null;
+            }
+            values.add(extracted);
+        }
+        return Ordering.natural().min(values);
+    }
+
+    private static <S, T extends Comparable<? super T>> T max(List<S> statistics, Function<S, T> extractor)
+    {
+        List<T> values = new ArrayList<>(statistics.size());
+        for (S value : statistics) {
+            T extracted = extractor.apply(value);
+            if (extracted == null) {
+                // an unbounded maximum stays unbounded
+                return null;
+            }
+            values.add(extracted);
+        }
+        return Ordering.natural().max(values);
+    }
+}
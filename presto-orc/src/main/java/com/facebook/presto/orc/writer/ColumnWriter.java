@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.stream.StreamDataOutput;
+import com.facebook.presto.spi.block.Block;
+
+import java.util.List;
+
+/**
+ * Writes the values of a single column of a stripe. Values are written one row
+ * group at a time, and once the stripe is closed, the data streams and row group
+ * indexes are collected by the {@link com.facebook.presto.orc.OrcWriter}.
+ */
+public interface ColumnWriter
+{
+    void beginRowGroup();
+
+    void writeBlock(Block block);
+
+    void finishRowGroup();
+
+    void close();
+
+    ColumnEncoding getColumnEncoding();
+
+    ColumnStatistics getColumnStripeStatistics();
+
+    /**
+     * Indexes of the row groups of the stripe. When bloom filters are enabled
+     * for the column, the statistics of each row group contain its bloom filter.
+     */
+    List<RowGroupIndex> getRowGroupIndexes();
+
+    /**
+     * Data streams of the stripe, in the order they are written to the file.
+     */
+    List<StreamDataOutput> getDataStreams();
+
+    long getBufferedBytes();
+
+    long getRetainedBytes();
+
+    void reset();
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.CompressionKind;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+public class ColumnWriterOptions
+{
+    private final CompressionKind compression;
+    private final int maxCompressionBufferSize;
+    private final long dictionaryMaxMemory;
+    private final int rowGroupMaxRowCount;
+    private final boolean bloomFilterEnabled;
+    private final double bloomFilterFpp;
+
+    public ColumnWriterOptions(
+            CompressionKind compression,
+            int maxCompressionBufferSize,
+            long dictionaryMaxMemory,
+            int rowGroupMaxRowCount,
+            boolean bloomFilterEnabled,
+            double bloomFilterFpp)
+    {
+        this.compression = requireNonNull(compression, "compression is null");
+        checkArgument(maxCompressionBufferSize > 0, "maxCompressionBufferSize must be positive");
+        checkArgument(dictionaryMaxMemory >= 0, "dictionaryMaxMemory is negative");
+        checkArgument(rowGroupMaxRowCount > 0, "rowGroupMaxRowCount must be positive");
+        checkArgument(bloomFilterFpp > 0.0 && bloomFilterFpp < 1.0, "bloomFilterFpp must be between 0 and 1");
+        this.maxCompressionBufferSize = maxCompressionBufferSize;
+        this.dictionaryMaxMemory = dictionaryMaxMemory;
+        this.rowGroupMaxRowCount = rowGroupMaxRowCount;
+        this.bloomFilterEnabled = bloomFilterEnabled;
+        this.bloomFilterFpp = bloomFilterFpp;
+    }
+
+    public CompressionKind getCompression()
+    {
+        return compression;
+    }
+
+    public int getMaxCompressionBufferSize()
+    {
+        return maxCompressionBufferSize;
+    }
+
+    public long getDictionaryMaxMemory()
+    {
+        return dictionaryMaxMemory;
+    }
+
+    public int getRowGroupMaxRowCount()
+    {
+        return rowGroupMaxRowCount;
+    }
+
+    public boolean isBloomFilterEnabled()
+    {
+        return bloomFilterEnabled;
+    }
+
+    public double getBloomFilterFpp()
+    {
+        return bloomFilterFpp;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("compression", compression)
+                .add("maxCompressionBufferSize", maxCompressionBufferSize)
+                .add("dictionaryMaxMemory", dictionaryMaxMemory)
+                .add("rowGroupMaxRowCount", rowGroupMaxRowCount)
+                .add("bloomFilterEnabled", bloomFilterEnabled)
+                .add("bloomFilterFpp", bloomFilterFpp)
+                .toString();
+    }
+}
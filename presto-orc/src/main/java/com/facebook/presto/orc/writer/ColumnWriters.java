@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.VarbinaryType;
+import com.facebook.presto.spi.type.VarcharType;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+
+public final class ColumnWriters
+{
+    private ColumnWriters()
+    {
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        return getOrcTypeKind(type) != null;
+    }
+
+    /**
+     * Returns the ORC type of the column, or null if columns of the type can not be written.
+     */
+    public static OrcTypeKind getOrcTypeKind(Type type)
+    {
+        if (BOOLEAN.equals(type)) {
+            return OrcTypeKind.BOOLEAN;
+        }
+        if (TINYINT.equals(type)) {
+            return OrcTypeKind.BYTE;
+        }
+        if (SMALLINT.equals(type)) {
+            return OrcTypeKind.SHORT;
+        }
+        if (INTEGER.equals(type)) {
+            return OrcTypeKind.INT;
+        }
+        if (BIGINT.equals(type)) {
+            return OrcTypeKind.LONG;
+        }
+        if (DATE.equals(type)) {
+            return OrcTypeKind.DATE;
+        }
+        if (REAL.equals(type)) {
+            return OrcTypeKind.FLOAT;
+        }
+        if (DOUBLE.equals(type)) {
+            return OrcTypeKind.DOUBLE;
+        }
+        // bounded varchar columns are declared with a maximum length in the ORC type, which is not supported yet
+        if (type instanceof VarcharType && ((VarcharType) type).isUnbounded()) {
+            return OrcTypeKind.STRING;
+        }
+        if (type instanceof VarbinaryType) {
+            return OrcTypeKind.BINARY;
+        }
+        return null;
+    }
+
+    public static ColumnWriter createColumnWriter(int column, Type type, ColumnWriterOptions options)
+    {
+        OrcTypeKind orcTypeKind = getOrcTypeKind(type);
+        if (orcTypeKind == null) {
+            throw new IllegalArgumentException("Unsupported type: " + type);
+        }
+
+        switch (orcTypeKind) {
+            case BOOLEAN:
+                return new BooleanColumnWriter(column, type, options);
+            case BYTE:
+                return new ByteColumnWriter(column, type, options);
+            case SHORT:
+            case INT:
+            case LONG:
+            case DATE:
+                return new LongColumnWriter(column, type, options);
+            case FLOAT:
+                return new FloatColumnWriter(column, type, options);
+            case DOUBLE:
+                return new DoubleColumnWriter(column, type, options);
+            case STRING:
+            case BINARY:
+                return new SliceColumnWriter(column, type, options);
+            default:
+                throw new IllegalArgumentException("Unsupported type: " + type);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.checkpoint.BooleanStreamCheckpoint;
+import com.facebook.presto.orc.checkpoint.DoubleStreamCheckpoint;
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.DoubleStatistics;
+import com.facebook.presto.orc.metadata.HiveBloomFilter;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.stream.DoubleOutputStream;
+import com.facebook.presto.orc.stream.PresentOutputStream;
+import com.facebook.presto.orc.stream.StreamDataOutput;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT;
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static com.facebook.presto.orc.writer.ColumnStatisticsMerger.mergeColumnStatistics;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+public class DoubleColumnWriter
+        implements ColumnWriter
+{
+    private final int column;
+    private final Type type;
+    private final boolean compressed;
+    private final DoubleOutputStream dataStream;
+    private final PresentOutputStream presentStream;
+    private final ColumnBloomFilterBuilder bloomFilterBuilder;
+
+    private final List<ColumnStatistics> rowGroupColumnStatistics = new ArrayList<>();
+
+    private long nonNullValueCount;
+    private double minimum = Double.POSITIVE_INFINITY;
+    private double maximum = Double.NEGATIVE_INFINITY;
+    private boolean hasNan;
+
+    private boolean closed;
+
+    public DoubleColumnWriter(int column, Type type, ColumnWriterOptions options)
+    {
+        checkArgument(column >= 0, "column is negative");
+        this.column = column;
+        this.type = requireNonNull(type, "type is null");
+        this.compressed = options.getCompression() != UNCOMPRESSED;
+        this.dataStream = new DoubleOutputStream(options.getCompression(), options.getMaxCompressionBufferSize());
+        this.presentStream = new PresentOutputStream(options.getCompression(), options.getMaxCompressionBufferSize());
+        this.bloomFilterBuilder = new ColumnBloomFilterBuilder(options);
+    }
+
+    @Override
+    public void beginRowGroup()
+    {
+        checkState(!closed);
+        presentStream.recordCheckpoint();
+        dataStream.recordCheckpoint();
+    }
+
+    @Override
+    public void writeBlock(Block block)
+    {
+        checkState(!closed);
+        checkArgument(block.getPositionCount() > 0, "Block is empty");
+
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                presentStream.writeBoolean(false);
+                continue;
+            }
+            presentStream.writeBoolean(true);
+
+            double value = type.getDouble(block, position);
+            dataStream.writeDouble(value);
+            bloomFilterBuilder.addDouble(value);
+            nonNullValueCount++;
+            if (Double.isNaN(value)) {
+                hasNan = true;
+            }
+            else {
+                minimum = Math.min(minimum, value);
+                maximum = Math.max(maximum, value);
+            }
+        }
+    }
+
+    @Override
+    public void finishRowGroup()
+    {
+        checkState(!closed);
+
+        ColumnStatistics statistics;
+        if (nonNullValueCount == 0 || hasNan) {
+            // the range of values with NaN can not be represented, as NaN is not ordered
+            statistics = new ColumnStatistics(nonNullValueCount, null, null, null, null, null, null, null);
+        }
+        else {
+            statistics = new ColumnStatistics(nonNullValueCount, null, null, new DoubleStatistics(minimum, maximum), null, null, null, null);
+        }
+        Optional<HiveBloomFilter> bloomFilter = bloomFilterBuilder.buildAndReset();
+        if (bloomFilter.isPresent()) {
+            statistics = statistics.withBloomFilter(bloomFilter.get());
+        }
+        rowGroupColumnStatistics.add(statistics);
+
+        nonNullValueCount = 0;
+        minimum = Double.POSITIVE_INFINITY;
+        maximum = Double.NEGATIVE_INFINITY;
+        hasNan = false;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        dataStream.close();
+        presentStream.close();
+    }
+
+    @Override
+    public ColumnEncoding getColumnEncoding()
+    {
+        return new ColumnEncoding(DIRECT, 0);
+    }
+
+    @Override
+    public ColumnStatistics getColumnStripeStatistics()
+    {
+        checkState(closed);
+        return mergeColumnStatistics(rowGroupColumnStatistics);
+    }
+
+    @Override
+    public List<RowGroupIndex> getRowGroupIndexes()
+    {
+        checkState(closed);
+
+        List<DoubleStreamCheckpoint> dataCheckpoints = dataStream.getCheckpoints();
+        Optional<List<BooleanStreamCheckpoint>> presentCheckpoints = presentStream.getCheckpoints();
+
+        ImmutableList.Builder<RowGroupIndex> rowGroupIndexes = ImmutableList.builder();
+        for (int i = 0; i < rowGroupColumnStatistics.size(); i++) {
+            ImmutableList.Builder<Integer> positions = ImmutableList.builder();
+            if (presentCheckpoints.isPresent()) {
+                positions.addAll(presentCheckpoints.get().get(i).toPositionList(compressed));
+            }
+            positions.addAll(dataCheckpoints.get(i).toPositionList(compressed));
+            rowGroupIndexes.add(new RowGroupIndex(positions.build(), rowGroupColumnStatistics.get(i)));
+        }
+        return rowGroupIndexes.build();
+    }
+
+    @Override
+    public List<StreamDataOutput> getDataStreams()
+    {
+        checkState(closed);
+
+        ImmutableList.Builder<StreamDataOutput> dataStreams = ImmutableList.builder();
+        presentStream.getStreamDataOutput(column).ifPresent(dataStreams::add);
+        dataStreams.add(dataStream.getStreamDataOutput(column));
+        return dataStreams.build();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return dataStream.getBufferedBytes() + presentStream.getBufferedBytes();
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return dataStream.getRetainedBytes() + presentStream.getRetainedBytes() + bloomFilterBuilder.getRetainedBytes();
+    }
+
+    @Override
+    public void reset()
+    {
+        closed = false;
+        dataStream.reset();
+        presentStream.reset();
+        rowGroupColumnStatistics.clear();
+        nonNullValueCount = 0;
+        minimum = Double.POSITIVE_INFINITY;
+        maximum = Double.NEGATIVE_INFINITY;
+        hasNan = false;
+    }
+}
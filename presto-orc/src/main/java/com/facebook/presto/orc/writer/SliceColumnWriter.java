@@ -0,0 +1,374 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.checkpoint.BooleanStreamCheckpoint;
+import com.facebook.presto.orc.checkpoint.ByteArrayStreamCheckpoint;
+import com.facebook.presto.orc.checkpoint.LongStreamV1Checkpoint;
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.HiveBloomFilter;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.metadata.StringStatistics;
+import com.facebook.presto.orc.stream.ByteArrayOutputStream;
+import com.facebook.presto.orc.stream.LongOutputStreamV1;
+import com.facebook.presto.orc.stream.PresentOutputStream;
+import com.facebook.presto.orc.stream.StreamDataOutput;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.VarcharType;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DICTIONARY;
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT;
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.DATA;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.DICTIONARY_DATA;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.LENGTH;
+import static com.facebook.presto.orc.writer.ColumnStatisticsMerger.mergeColumnStatistics;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes VARCHAR and VARBINARY columns. Values are collected in a dictionary for
+ * the stripe, and the column switches to the direct encoding when the dictionary
+ * uses too much memory or does not compress the values.
+ */
+public class SliceColumnWriter
+        implements ColumnWriter
+{
+    // same threshold as the Hive writer: the dictionary is only kept if it has fewer entries than 80% of the values
+    private static final double DICTIONARY_KEY_SIZE_THRESHOLD = 0.8;
+    private static final int EXPECTED_DICTIONARY_ENTRIES = 10_000;
+
+    private final int column;
+    private final Type type;
+    private final boolean compressed;
+    private final long dictionaryMaxMemory;
+    private final boolean stringStatisticsEnabled;
+
+    private final PresentOutputStream presentStream;
+    private final ColumnBloomFilterBuilder bloomFilterBuilder;
+
+    // direct encoding
+    private final ByteArrayOutputStream directDataStream;
+    private final LongOutputStreamV1 directLengthStream;
+
+    // dictionary encoding
+    private final LongOutputStreamV1 dictionaryDataStream;
+    private final ByteArrayOutputStream dictionaryEntryStream;
+    private final LongOutputStreamV1 dictionaryLengthStream;
+    private SliceDictionaryBuilder dictionary = new SliceDictionaryBuilder(EXPECTED_DICTIONARY_ENTRIES);
+    private final IntArrayList values = new IntArrayList();
+    private final IntArrayList rowGroupValueCounts = new IntArrayList();
+
+    private boolean directEncoded;
+
+    private final List<ColumnStatistics> rowGroupColumnStatistics = new ArrayList<>();
+
+    private boolean inRowGroup;
+    private int rowGroupValueCount;
+    private Slice minimum;
+    private Slice maximum;
+
+    private boolean closed;
+
+    public SliceColumnWriter(int column, Type type, ColumnWriterOptions options)
+    {
+        checkArgument(column >= 0, "column is negative");
+        this.column = column;
+        this.type = requireNonNull(type, "type is null");
+        this.compressed = options.getCompression() != UNCOMPRESSED;
+        this.dictionaryMaxMemory = options.getDictionaryMaxMemory();
+        // binary values are not ordered as strings, so they do not have min and max statistics
+        this.stringStatisticsEnabled = type instanceof VarcharType;
+
+        this.presentStream = new PresentOutputStream(options.getCompression(), options.getMaxCompressionBufferSize());
+        this.bloomFilterBuilder = new ColumnBloomFilterBuilder(options);
+
+        this.directDataStream = new ByteArrayOutputStream(options.getCompression(), options.getMaxCompressionBufferSize());
+        this.directLengthStream = new LongOutputStreamV1(options.getCompression(), options.getMaxCompressionBufferSize(), false, LENGTH);
+
+        this.dictionaryDataStream = new LongOutputStreamV1(options.getCompression(), options.getMaxCompressionBufferSize(), false, DATA);
+        this.dictionaryEntryStream = new ByteArrayOutputStream(options.getCompression(), options.getMaxCompressionBufferSize(), DICTIONARY_DATA);
+        this.dictionaryLengthStream = new LongOutputStreamV1(options.getCompression(), options.getMaxCompressionBufferSize(), false, LENGTH);
+    }
+
+    @Override
+    public void beginRowGroup()
+    {
+        checkState(!closed);
+        checkState(!inRowGroup);
+        inRowGroup = true;
+
+        presentStream.recordCheckpoint();
+        if (directEncoded) {
+            directDataStream.recordCheckpoint();
+            directLengthStream.recordCheckpoint();
+        }
+    }
+
+    @Override
+    public void writeBlock(Block block)
+    {
+        checkState(!closed);
+        checkState(inRowGroup);
+        checkArgument(block.getPositionCount() > 0, "Block is empty");
+
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                presentStream.writeBoolean(false);
+                continue;
+            }
+            presentStream.writeBoolean(true);
+
+            Slice value = type.getSlice(block, position);
+            if (directEncoded) {
+                directDataStream.writeSlice(value);
+                directLengthStream.writeLong(value.length());
+            }
+            else {
+                values.add(dictionary.putIfAbsent(value));
+            }
+            rowGroupValueCount++;
+            bloomFilterBuilder.addSlice(value);
+
+            if (stringStatisticsEnabled) {
+                if (minimum == null || value.compareTo(minimum) < 0) {
+                    minimum = Slices.copyOf(value);
+                }
+                if (maximum == null || value.compareTo(maximum) > 0) {
+                    maximum = Slices.copyOf(value);
+                }
+            }
+        }
+
+        if (!directEncoded && getDictionaryBytes() > dictionaryMaxMemory) {
+            convertToDirect();
+        }
+    }
+
+    @Override
+    public void finishRowGroup()
+    {
+        checkState(!closed);
+        checkState(inRowGroup);
+        inRowGroup = false;
+
+        ColumnStatistics statistics;
+        if (rowGroupValueCount > 0 && stringStatisticsEnabled) {
+            statistics = new ColumnStatistics((long) rowGroupValueCount, null, null, null, new StringStatistics(minimum, maximum), null, null, null);
+        }
+        else {
+            statistics = new ColumnStatistics((long) rowGroupValueCount, null, null, null, null, null, null, null);
+        }
+        Optional<HiveBloomFilter> bloomFilter = bloomFilterBuilder.buildAndReset();
+        if (bloomFilter.isPresent()) {
+            statistics = statistics.withBloomFilter(bloomFilter.get());
+        }
+        rowGroupColumnStatistics.add(statistics);
+
+        if (!directEncoded) {
+            rowGroupValueCounts.add(rowGroupValueCount);
+        }
+        rowGroupValueCount = 0;
+        minimum = null;
+        maximum = null;
+    }
+
+    private void convertToDirect()
+    {
+        checkState(!directEncoded);
+        directEncoded = true;
+
+        int valueIndex = 0;
+        for (int rowGroup = 0; rowGroup < rowGroupValueCounts.size(); rowGroup++) {
+            valueIndex = writeDirectValues(valueIndex, rowGroupValueCounts.getInt(rowGroup));
+        }
+        if (inRowGroup) {
+            writeDirectValues(valueIndex, rowGroupValueCount);
+        }
+
+        dictionary = null;
+        values.clear();
+        values.trim();
+        rowGroupValueCounts.clear();
+    }
+
+    private int writeDirectValues(int valueIndex, int valueCount)
+    {
+        directDataStream.recordCheckpoint();
+        directLengthStream.recordCheckpoint();
+        for (int i = 0; i < valueCount; i++) {
+            int id = values.getInt(valueIndex + i);
+            directDataStream.writeSlice(dictionary.getEntry(id));
+            directLengthStream.writeLong(dictionary.getEntryLength(id));
+        }
+        return valueIndex + valueCount;
+    }
+
+    @Override
+    public void close()
+    {
+        checkState(!inRowGroup);
+        closed = true;
+
+        if (!directEncoded && dictionary.getEntryCount() > DICTIONARY_KEY_SIZE_THRESHOLD * values.size()) {
+            convertToDirect();
+        }
+
+        if (directEncoded) {
+            directDataStream.close();
+            directLengthStream.close();
+        }
+        else {
+            int valueIndex = 0;
+            for (int rowGroup = 0; rowGroup < rowGroupValueCounts.size(); rowGroup++) {
+                dictionaryDataStream.recordCheckpoint();
+                int valueCount = rowGroupValueCounts.getInt(rowGroup);
+                for (int i = 0; i < valueCount; i++) {
+                    dictionaryDataStream.writeLong(values.getInt(valueIndex + i));
+                }
+                valueIndex += valueCount;
+            }
+            dictionaryEntryStream.writeSlice(dictionary.getEntryData());
+            for (int id = 0; id < dictionary.getEntryCount(); id++) {
+                dictionaryLengthStream.writeLong(dictionary.getEntryLength(id));
+            }
+            dictionaryDataStream.close();
+            dictionaryEntryStream.close();
+            dictionaryLengthStream.close();
+        }
+        presentStream.close();
+    }
+
+    @Override
+    public ColumnEncoding getColumnEncoding()
+    {
+        checkState(closed);
+        if (directEncoded) {
+            return new ColumnEncoding(DIRECT, 0);
+        }
+        return new ColumnEncoding(DICTIONARY, dictionary.getEntryCount());
+    }
+
+    @Override
+    public ColumnStatistics getColumnStripeStatistics()
+    {
+        checkState(closed);
+        return mergeColumnStatistics(rowGroupColumnStatistics);
+    }
+
+    @Override
+    public List<RowGroupIndex> getRowGroupIndexes()
+    {
+        checkState(closed);
+
+        Optional<List<BooleanStreamCheckpoint>> presentCheckpoints = presentStream.getCheckpoints();
+        List<ByteArrayStreamCheckpoint> directDataCheckpoints = directEncoded ? directDataStream.getCheckpoints() : ImmutableList.of();
+        List<LongStreamV1Checkpoint> lengthOrIdCheckpoints = directEncoded ? directLengthStream.getCheckpoints() : dictionaryDataStream.getCheckpoints();
+
+        ImmutableList.Builder<RowGroupIndex> rowGroupIndexes = ImmutableList.builder();
+        for (int i = 0; i < rowGroupColumnStatistics.size(); i++) {
+            ImmutableList.Builder<Integer> positions = ImmutableList.builder();
+            if (presentCheckpoints.isPresent()) {
+                positions.addAll(presentCheckpoints.get().get(i).toPositionList(compressed));
+            }
+            if (directEncoded) {
+                positions.addAll(directDataCheckpoints.get(i).toPositionList(compressed));
+            }
+            positions.addAll(lengthOrIdCheckpoints.get(i).toPositionList(compressed));
+            rowGroupIndexes.add(new RowGroupIndex(positions.build(), rowGroupColumnStatistics.get(i)));
+        }
+        return rowGroupIndexes.build();
+    }
+
+    @Override
+    public List<StreamDataOutput> getDataStreams()
+    {
+        checkState(closed);
+
+        ImmutableList.Builder<StreamDataOutput> dataStreams = ImmutableList.builder();
+        presentStream.getStreamDataOutput(column).ifPresent(dataStreams::add);
+        if (directEncoded) {
+            dataStreams.add(directDataStream.getStreamDataOutput(column));
+            dataStreams.add(directLengthStream.getStreamDataOutput(column));
+        }
+        else {
+            dataStreams.add(dictionaryDataStream.getStreamDataOutput(column));
+            dataStreams.add(dictionaryLengthStream.getStreamDataOutput(column));
+            dataStreams.add(dictionaryEntryStream.getStreamDataOutput(column));
+        }
+        return dataStreams.build();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        long bufferedBytes = presentStream.getBufferedBytes();
+        if (directEncoded) {
+            return bufferedBytes + directDataStream.getBufferedBytes() + directLengthStream.getBufferedBytes();
+        }
+        return bufferedBytes + getDictionaryBytes() +
+                dictionaryDataStream.getBufferedBytes() + dictionaryEntryStream.getBufferedBytes() + dictionaryLengthStream.getBufferedBytes();
+    }
+
+    private long getDictionaryBytes()
+    {
+        return dictionary.getSizeInBytes() + (long) values.size() * Integer.BYTES;
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        long retainedBytes = presentStream.getRetainedBytes() + bloomFilterBuilder.getRetainedBytes() +
+                directDataStream.getRetainedBytes() + directLengthStream.getRetainedBytes() +
+                dictionaryDataStream.getRetainedBytes() + dictionaryEntryStream.getRetainedBytes() + dictionaryLengthStream.getRetainedBytes() +
+                sizeOf(values.elements()) + sizeOf(rowGroupValueCounts.elements());
+        if (dictionary != null) {
+            retainedBytes += dictionary.getRetainedSizeInBytes();
+        }
+        return retainedBytes;
+    }
+
+    @Override
+    public void reset()
+    {
+        checkState(!inRowGroup);
+        closed = false;
+        presentStream.reset();
+        directDataStream.reset();
+        directLengthStream.reset();
+        dictionaryDataStream.reset();
+        dictionaryEntryStream.reset();
+        dictionaryLengthStream.reset();
+        dictionary = new SliceDictionaryBuilder(EXPECTED_DICTIONARY_ENTRIES);
+        values.clear();
+        rowGroupValueCounts.clear();
+        directEncoded = false;
+        rowGroupColumnStatistics.clear();
+        rowGroupValueCount = 0;
+        minimum = null;
+        maximum = null;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.XxHash64;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+
+/**
+ * Assigns dense ids to distinct slices, in the order they are first seen.
+ */
+class SliceDictionaryBuilder
+{
+    private static final int EMPTY_SLOT = -1;
+    private static final float FILL_RATIO = 0.75f;
+
+    private final DynamicSliceOutput entryData;
+    // entry i is stored at [offsets[i], offsets[i + 1]) in the entry data
+    private final IntArrayList offsets = new IntArrayList();
+
+    private int[] slots;
+    private int mask;
+    private int maxFill;
+
+    public SliceDictionaryBuilder(int expectedEntries)
+    {
+        checkArgument(expectedEntries >= 0, "expectedEntries is negative");
+        this.entryData = new DynamicSliceOutput(Math.max(expectedEntries * 8, 1024));
+        initializeSlots(Math.max(16, Integer.highestOneBit((int) (expectedEntries / FILL_RATIO)) * 2));
+        offsets.add(0);
+    }
+
+    public int getEntryCount()
+    {
+        return offsets.size() - 1;
+    }
+
+    public Slice getEntry(int id)
+    {
+        int offset = offsets.getInt(id);
+        return entryData.getUnderlyingSlice().slice(offset, offsets.getInt(id + 1) - offset);
+    }
+
+    public int getEntryLength(int id)
+    {
+        return offsets.getInt(id + 1) - offsets.getInt(id);
+    }
+
+    /**
+     * Returns the raw entry data; entries are stored one after another in id order.
+     */
+    public Slice getEntryData()
+    {
+        return entryData.slice();
+    }
+
+    /**
+     * Returns the id of the value, adding it to the dictionary if it is not present.
+     */
+    public int putIfAbsent(Slice value)
+    {
+        int slot = getHashPosition(value);
+        while (true) {
+            int id = slots[slot];
+            if (id == EMPTY_SLOT) {
+                break;
+            }
+            if (entryEquals(id, value)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = getEntryCount();
+        entryData.writeBytes(value);
+        offsets.add(entryData.size());
+        slots[slot] = id;
+
+        if (getEntryCount() >= maxFill) {
+            rehash(slots.length * 2);
+        }
+        return id;
+    }
+
+    public long getSizeInBytes()
+    {
+        return entryData.size() + (long) offsets.size() * Integer.BYTES + sizeOf(slots);
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return entryData.getRetainedSize() + sizeOf(offsets.elements()) + sizeOf(slots);
+    }
+
+    private boolean entryEquals(int id, Slice value)
+    {
+        int offset = offsets.getInt(id);
+        int length = offsets.getInt(id + 1) - offset;
+        return length == value.length() && entryData.getUnderlyingSlice().equals(offset, length, value, 0, length);
+    }
+
+    private int getHashPosition(Slice value)
+    {
+        return (int) XxHash64.hash(value, 0, value.length()) & mask;
+    }
+
+    private void rehash(int slotCount)
+    {
+        initializeSlots(slotCount);
+        for (int id = 0; id < getEntryCount(); id++) {
+            int slot = getHashPosition(getEntry(id));
+            while (slots[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+    }
+
+    private void initializeSlots(int slotCount)
+    {
+        slots = new int[slotCount];
+        Arrays.fill(slots, EMPTY_SLOT);
+        mask = slotCount - 1;
+        maxFill = (int) (slotCount * FILL_RATIO);
+    }
+}
@@ -21,7 +21,9 @@ import com.facebook.presto.orc.metadata.OrcMetadataReader;
 import com.facebook.presto.orc.proto.OrcProto;
 import com.facebook.presto.orc.protobuf.CodedInputStream;
 import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
 import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -42,6 +44,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static com.facebook.presto.orc.TupleDomainOrcPredicate.checkInBloomFilter;
 import static com.facebook.presto.orc.TupleDomainOrcPredicate.extractDiscreteValues;
@@ -54,6 +57,7 @@ import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.util.stream.Collectors.toList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -323,6 +327,44 @@ public class TestOrcBloomFilters
         assertTrue(emptyPredicate.matches(1L, matchingStatisticsByColumnIndex));
     }
 
+    @Test
+    public void testBloomFilterUsed()
+    {
+        List<ColumnReference<String>> columnReferences = ImmutableList.<ColumnReference<String>>builder()
+                .add(new ColumnReference<>(COLUMN_0, 0, BIGINT))
+                .add(new ColumnReference<>(COLUMN_1, 1, BIGINT))
+                .build();
+
+        // bigint_0 = 1234 and bigint_1 > 10
+        TupleDomain<String> effectivePredicate = TupleDomain.withColumnDomains(ImmutableMap.of(
+                COLUMN_0, Domain.singleValue(BIGINT, 1234L),
+                COLUMN_1, Domain.create(ValueSet.ofRanges(Range.greaterThan(BIGINT, 10L)), false)));
+
+        TupleDomainOrcPredicate<String> predicate = new TupleDomainOrcPredicate<>(effectivePredicate, columnReferences, true);
+        assertTrue(predicate.isBloomFilterUsed(0));
+        assertFalse(predicate.isBloomFilterUsed(1));
+        assertFalse(predicate.isBloomFilterUsed(2));
+
+        assertFalse(new TupleDomainOrcPredicate<>(effectivePredicate, columnReferences, false).isBloomFilterUsed(0));
+        assertFalse(new TupleDomainOrcPredicate<>(TupleDomain.<String>all(), columnReferences, true).isBloomFilterUsed(0));
+
+        // large IN lists are only checked against the column statistics
+        List<Object> values = LongStream.range(0, TupleDomainOrcPredicate.MAX_BLOOM_FILTER_VALUES + 1)
+                .boxed()
+                .collect(toList());
+        TupleDomain<String> smallInList = TupleDomain.withColumnDomains(ImmutableMap.of(
+                COLUMN_0, Domain.multipleValues(BIGINT, values.subList(0, TupleDomainOrcPredicate.MAX_BLOOM_FILTER_VALUES))));
+        TupleDomain<String> largeInList = TupleDomain.withColumnDomains(ImmutableMap.of(
+                COLUMN_0, Domain.multipleValues(BIGINT, values)));
+        assertTrue(new TupleDomainOrcPredicate<>(smallInList, columnReferences, true).isBloomFilterUsed(0));
+        assertFalse(new TupleDomainOrcPredicate<>(largeInList, columnReferences, true).isBloomFilterUsed(0));
+
+        // types that are not stored in the bloom filter
+        List<ColumnReference<String>> dateColumnReferences = ImmutableList.of(new ColumnReference<>(COLUMN_0, 0, DATE));
+        TupleDomain<String> datePredicate = TupleDomain.withColumnDomains(ImmutableMap.of(COLUMN_0, Domain.singleValue(DATE, 17000L)));
+        assertFalse(new TupleDomainOrcPredicate<>(datePredicate, dateColumnReferences, true).isBloomFilterUsed(0));
+    }
+
     private static HiveBloomFilter toHiveBloomFilter(OrcProto.BloomFilter emptyOrcBloomFilter)
     {
         return new HiveBloomFilter(emptyOrcBloomFilter.getBitsetList(), emptyOrcBloomFilter.getBitsetCount() * 64, emptyOrcBloomFilter.getNumHashFunctions());
@@ -44,6 +44,7 @@ import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.util.Map;
 
+import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
 import static com.facebook.presto.orc.OrcTester.Format.ORC_12;
 import static com.facebook.presto.orc.OrcTester.createCustomOrcRecordReader;
 import static com.facebook.presto.orc.OrcTester.createOrcRecordWriter;
@@ -53,6 +54,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.hadoop.hive.ql.io.orc.CompressionKind.SNAPPY;
 import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestOrcReaderPositions
 {
@@ -174,6 +176,60 @@ public class TestOrcReaderPositions
         }
     }
 
+    @Test
+    public void testReadSelectedPositions()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            int rowCount = 42_000;
+            createSequentialFile(tempFile.getFile(), rowCount);
+
+            OrcRecordReader reader = createCustomOrcRecordReader(tempFile, new OrcMetadataReader(), OrcPredicate.TRUE, BIGINT);
+
+            int[] positions = new int[MAX_BATCH_SIZE];
+            long position = 0;
+            int batch = 0;
+            while (true) {
+                int batchSize = reader.nextBatch();
+                if (batchSize == -1) {
+                    break;
+                }
+
+                // read every third value, the full batch, or nothing
+                if (batch % 3 == 0) {
+                    int positionCount = 0;
+                    for (int i = 1; i < batchSize; i += 3) {
+                        positions[positionCount++] = i;
+                    }
+                    Block block = reader.readBlock(BIGINT, 0, positions, positionCount);
+                    assertEquals(block.getPositionCount(), positionCount);
+                    for (int i = 0; i < positionCount; i++) {
+                        assertEquals(BIGINT.getLong(block, i), position + positions[i]);
+                    }
+
+                    // the whole batch can still be read after the selected positions
+                    assertTrue(reader.canRereadBlock());
+                    block = reader.rereadBlock(BIGINT, 0);
+                    assertEquals(block.getPositionCount(), batchSize);
+                    for (int i = 0; i < batchSize; i++) {
+                        assertEquals(BIGINT.getLong(block, i), position + i);
+                    }
+                }
+                else if (batch % 3 == 1) {
+                    Block block = reader.readBlock(BIGINT, 0);
+                    for (int i = 0; i < batchSize; i++) {
+                        assertEquals(BIGINT.getLong(block, i), position + i);
+                    }
+                }
+                position += batchSize;
+                batch++;
+            }
+
+            assertEquals(position, rowCount);
+            reader.close();
+        }
+    }
+
     @Test
     public void testReadUserMetadata()
             throws Exception
@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.OrcTester.TempFile;
+import com.facebook.presto.orc.memory.AggregatedMemoryContext;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.OrcMetadataReader;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestOrcWriter
+{
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("id", "name", "value", "flag");
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, DOUBLE, BOOLEAN);
+    private static final int ROW_COUNT = 25_000;
+
+    @Test
+    public void testRoundTrip()
+            throws Exception
+    {
+        for (CompressionKind compression : CompressionKind.values()) {
+            // small stripes and dictionary memory to cover multiple stripes and the direct string encoding
+            assertRoundTrip(compression, new OrcWriterOptions()
+                    .withStripeMaxRowCount(12_000)
+                    .withRowGroupMaxRowCount(1_000)
+                    .withBloomFilterColumns(ImmutableSet.of("ID", "name")));
+            assertRoundTrip(compression, new OrcWriterOptions()
+                    .withDictionaryMaxMemory(new DataSize(1, KILOBYTE)));
+        }
+    }
+
+    private static void assertRoundTrip(CompressionKind compression, OrcWriterOptions options)
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            try (OrcWriter writer = new OrcWriter(new FileOutputStream(tempFile.getFile()), COLUMN_NAMES, TYPES, compression, options, ImmutableMap.of("key", "value"))) {
+                // write in uneven pages so row groups and stripes do not align with the pages
+                for (int start = 0; start < ROW_COUNT; start += 3_001) {
+                    writer.write(createPage(start, Math.min(3_001, ROW_COUNT - start)));
+                }
+            }
+
+            OrcDataSource orcDataSource = new FileOrcDataSource(tempFile.getFile(), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE));
+            OrcReader orcReader = new OrcReader(orcDataSource, new OrcMetadataReader(), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE));
+            assertEquals(orcReader.getColumnNames(), COLUMN_NAMES);
+            assertEquals(orcReader.getFooter().getNumberOfRows(), ROW_COUNT);
+            assertEquals(orcReader.getFooter().getRowsInRowGroup(), options.getRowGroupMaxRowCount());
+            assertEquals(orcReader.getFooter().getUserMetadata().get("key"), utf8Slice("value"));
+
+            ImmutableMap.Builder<Integer, Type> includedColumns = ImmutableMap.builder();
+            for (int column = 0; column < TYPES.size(); column++) {
+                includedColumns.put(column, TYPES.get(column));
+            }
+            OrcRecordReader recordReader = orcReader.createRecordReader(includedColumns.build(), OrcPredicate.TRUE, HIVE_STORAGE_TIME_ZONE, new AggregatedMemoryContext());
+
+            int row = 0;
+            for (int batchSize = recordReader.nextBatch(); batchSize >= 0; batchSize = recordReader.nextBatch()) {
+                List<Block> blocks = new ArrayList<>();
+                for (int column = 0; column < TYPES.size(); column++) {
+                    blocks.add(recordReader.readBlock(TYPES.get(column), column));
+                }
+                for (int position = 0; position < batchSize; position++) {
+                    assertRow(blocks, position, row);
+                    row++;
+                }
+            }
+            assertEquals(row, ROW_COUNT);
+            recordReader.close();
+        }
+    }
+
+    private static Page createPage(int start, int length)
+    {
+        BlockBuilder ids = BIGINT.createBlockBuilder(new BlockBuilderStatus(), length);
+        BlockBuilder names = VARCHAR.createBlockBuilder(new BlockBuilderStatus(), length);
+        BlockBuilder values = DOUBLE.createBlockBuilder(new BlockBuilderStatus(), length);
+        BlockBuilder flags = BOOLEAN.createBlockBuilder(new BlockBuilderStatus(), length);
+        for (int row = start; row < start + length; row++) {
+            BIGINT.writeLong(ids, row);
+            if (row % 7 == 0) {
+                names.appendNull();
+            }
+            else {
+                VARCHAR.writeSlice(names, utf8Slice(getName(row)));
+            }
+            if (row % 5 == 0) {
+                values.appendNull();
+            }
+            else {
+                DOUBLE.writeDouble(values, row * 0.5);
+            }
+            BOOLEAN.writeBoolean(flags, row % 3 == 0);
+        }
+        return new Page(ids.build(), names.build(), values.build(), flags.build());
+    }
+
+    private static String getName(int row)
+    {
+        return "name_" + (row % 100) + (row % 13 == 0 ? "_" + row : "");
+    }
+
+    private static void assertRow(List<Block> blocks, int position, int row)
+    {
+        assertEquals(BIGINT.getLong(blocks.get(0), position), row);
+        if (row % 7 == 0) {
+            assertTrue(blocks.get(1).isNull(position));
+        }
+        else {
+            assertEquals(VARCHAR.getSlice(blocks.get(1), position).toStringUtf8(), getName(row));
+        }
+        if (row % 5 == 0) {
+            assertTrue(blocks.get(2).isNull(position));
+        }
+        else {
+            assertEquals(DOUBLE.getDouble(blocks.get(2), position), row * 0.5);
+        }
+        assertEquals(BOOLEAN.getBoolean(blocks.get(3), position), row % 3 == 0);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.rcfile;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
+
+import java.io.IOException;
+
+import static java.util.Objects.requireNonNull;
+
+public class AircompressorCompressor
+        implements RcFileCompressor
+{
+    private final CompressionCodec codec;
+
+    public AircompressorCompressor(CompressionCodec codec)
+    {
+        this.codec = requireNonNull(codec, "codec is null");
+    }
+
+    @Override
+    public void compress(Slice uncompressed, SliceOutput compressed)
+            throws IOException
+    {
+        try (CompressionOutputStream compressionStream = codec.createOutputStream(compressed)) {
+            uncompressed.getBytes(0, compressionStream, uncompressed.length());
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+    }
+}
@@ -14,9 +14,16 @@
 package com.facebook.presto.rcfile;
 
 import com.facebook.presto.spi.block.Block;
+import io.airlift.slice.SliceOutput;
 
 public interface ColumnEncoding
 {
+    /**
+     * Writes the value of every position of the block to the output, calling
+     * {@link EncodeOutput#closeEntry()} after each value.
+     */
+    void encodeColumn(Block block, SliceOutput output, EncodeOutput encodeOutput);
+
     Block decodeColumn(ColumnData columnData)
             throws RcFileCorruptionException;
 }
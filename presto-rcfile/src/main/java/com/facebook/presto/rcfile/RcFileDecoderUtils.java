@@ -18,6 +18,7 @@ import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.VarcharType;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 
 import java.io.IOException;
@@ -112,6 +113,34 @@ public final class RcFileDecoderUtils
         return isNegativeVInt(slice.getByte(start)) ? ~value : value;
     }
 
+    public static void writeVInt(SliceOutput out, int value)
+    {
+        writeVLong(out, value);
+    }
+
+    public static void writeVLong(SliceOutput out, long value)
+    {
+        if (value >= -112 && value <= 127) {
+            out.writeByte((int) value);
+            return;
+        }
+
+        int length = -112;
+        if (value < 0) {
+            value = ~value;
+            length = -120;
+        }
+        for (long tmp = value; tmp != 0; tmp >>= 8) {
+            length--;
+        }
+        out.writeByte(length);
+
+        length = (length < -120) ? -(length + 120) : -(length + 112);
+        for (int i = length - 1; i >= 0; i--) {
+            out.writeByte((int) (value >> (i * 8)));
+        }
+    }
+
     /**
      * Find the beginning of the first full sync sequence that starts within the specified range.
      */
@@ -0,0 +1,396 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.rcfile;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Closer;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.facebook.presto.rcfile.RcFileDecoderUtils.writeVInt;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes pages to an RCFile, encoding the blocks directly with the column encodings
+ * used by {@link RcFileReader}.
+ * <p>
+ * Rows are buffered in memory until the row group reaches the target size, and
+ * each row group is preceded by a sync sequence, so the file can be split.
+ */
+public class RcFileWriter
+        implements Closeable
+{
+    private static final Slice RCFILE_MAGIC = Slices.utf8Slice("RCF");
+    private static final int CURRENT_VERSION = 1;
+    private static final String COLUMN_COUNT_METADATA_KEY = "hive.io.rcfile.column.number";
+
+    // same as the default hive.io.rcfile.record.buffer.size
+    private static final DataSize DEFAULT_TARGET_ROW_GROUP_SIZE = new DataSize(4, MEGABYTE);
+
+    private final SliceOutput output;
+    private final List<Type> types;
+    private final RcFileCompressor compressor;
+    private final long targetRowGroupSize;
+
+    private final long syncFirst;
+    private final long syncSecond;
+
+    private final ColumnEncoder[] columnEncoders;
+    private final DynamicSliceOutput keyOutput = new DynamicSliceOutput(1024);
+    private final DynamicSliceOutput compressedKeyOutput = new DynamicSliceOutput(1024);
+
+    private int bufferedRows;
+    private boolean firstRowGroup = true;
+    private long writtenBytes;
+    private boolean closed;
+
+    public RcFileWriter(
+            OutputStream outputStream,
+            List<Type> types,
+            RcFileEncoding encoding,
+            Optional<String> codecName,
+            RcFileCodecFactory codecFactory,
+            Map<String, String> metadata)
+            throws IOException
+    {
+        this(outputStream, types, encoding, codecName, codecFactory, metadata, DEFAULT_TARGET_ROW_GROUP_SIZE);
+    }
+
+    public RcFileWriter(
+            OutputStream outputStream,
+            List<Type> types,
+            RcFileEncoding encoding,
+            Optional<String> codecName,
+            RcFileCodecFactory codecFactory,
+            Map<String, String> metadata,
+            DataSize targetRowGroupSize)
+            throws IOException
+    {
+        requireNonNull(outputStream, "outputStream is null");
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        checkArgument(!types.isEmpty(), "types is empty");
+        requireNonNull(encoding, "encoding is null");
+        requireNonNull(codecName, "codecName is null");
+        requireNonNull(codecFactory, "codecFactory is null");
+        requireNonNull(metadata, "metadata is null");
+        checkArgument(!metadata.containsKey(COLUMN_COUNT_METADATA_KEY), "Cannot set property %s", COLUMN_COUNT_METADATA_KEY);
+        this.targetRowGroupSize = requireNonNull(targetRowGroupSize, "targetRowGroupSize is null").toBytes();
+
+        this.output = new OutputStreamSliceOutput(outputStream);
+        this.compressor = codecName.map(codecFactory::createCompressor).orElse(null);
+
+        ImmutableList.Builder<ColumnEncoder> columnEncoders = ImmutableList.builder();
+        for (Type type : types) {
+            columnEncoders.add(new ColumnEncoder(encoding.getEncoding(type)));
+        }
+        this.columnEncoders = columnEncoders.build().toArray(new ColumnEncoder[0]);
+
+        UUID sync = UUID.randomUUID();
+        this.syncFirst = sync.getMostSignificantBits();
+        this.syncSecond = sync.getLeastSignificantBits();
+
+        // write header
+        DynamicSliceOutput header = new DynamicSliceOutput(1024);
+        header.writeBytes(RCFILE_MAGIC);
+        header.writeByte(CURRENT_VERSION);
+        header.writeBoolean(compressor != null);
+        if (codecName.isPresent()) {
+            writeLengthPrefixedString(header, Slices.utf8Slice(codecName.get()));
+        }
+
+        // write metadata, with the column count first
+        Map<String, String> fileMetadata = ImmutableMap.<String, String>builder()
+                .put(COLUMN_COUNT_METADATA_KEY, String.valueOf(types.size()))
+                .putAll(metadata)
+                .build();
+        header.writeInt(Integer.reverseBytes(fileMetadata.size()));
+        for (Entry<String, String> entry : fileMetadata.entrySet()) {
+            writeLengthPrefixedString(header, Slices.utf8Slice(entry.getKey()));
+            writeLengthPrefixedString(header, Slices.utf8Slice(entry.getValue()));
+        }
+
+        // write sync sequence
+        header.writeLong(syncFirst);
+        header.writeLong(syncSecond);
+
+        output.writeBytes(header.slice());
+        writtenBytes += header.size();
+    }
+
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    /**
+     * Number of bytes written to the output so far.
+     */
+    public long getWrittenBytes()
+    {
+        return writtenBytes;
+    }
+
+    /**
+     * Number of bytes of the current row group, which have not been written to the output yet.
+     */
+    public long getBufferedBytes()
+    {
+        long bufferedBytes = 0;
+        for (ColumnEncoder columnEncoder : columnEncoders) {
+            bufferedBytes += columnEncoder.getBufferedBytes();
+        }
+        return bufferedBytes;
+    }
+
+    public long getRetainedBytes()
+    {
+        long retainedBytes = keyOutput.getRetainedSize() + compressedKeyOutput.getRetainedSize();
+        for (ColumnEncoder columnEncoder : columnEncoders) {
+            retainedBytes += columnEncoder.getRetainedBytes();
+        }
+        return retainedBytes;
+    }
+
+    public void write(Page page)
+            throws IOException
+    {
+        checkState(!closed, "Writer is closed");
+        checkArgument(page.getChannelCount() == columnEncoders.length, "Expected %s blocks, but page has %s", columnEncoders.length, page.getChannelCount());
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+
+        for (int channel = 0; channel < columnEncoders.length; channel++) {
+            columnEncoders[channel].writeBlock(page.getBlock(channel));
+        }
+        bufferedRows += page.getPositionCount();
+
+        if (getBufferedBytes() >= targetRowGroupSize) {
+            writeRowGroup();
+        }
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try (Closer closer = Closer.create()) {
+            closer.register(output);
+            if (compressor != null) {
+                closer.register(compressor::destroy);
+            }
+            writeRowGroup();
+        }
+    }
+
+    private void writeRowGroup()
+            throws IOException
+    {
+        if (bufferedRows == 0) {
+            return;
+        }
+
+        // the header is followed by a sync sequence, so only the later row groups need one
+        if (!firstRowGroup) {
+            output.writeInt(-1);
+            output.writeLong(syncFirst);
+            output.writeLong(syncSecond);
+            writtenBytes += SIZE_OF_INT + SIZE_OF_LONG + SIZE_OF_LONG;
+        }
+        firstRowGroup = false;
+
+        // the key contains the row count and, for each column, the data sizes and the value lengths
+        keyOutput.reset();
+        writeVInt(keyOutput, bufferedRows);
+        long totalDataSize = 0;
+        for (ColumnEncoder columnEncoder : columnEncoders) {
+            columnEncoder.closeColumn(compressor);
+
+            writeVInt(keyOutput, columnEncoder.getCompressedData().length());
+            writeVInt(keyOutput, columnEncoder.getUncompressedDataSize());
+            Slice lengths = columnEncoder.getLengths();
+            writeVInt(keyOutput, lengths.length());
+            keyOutput.writeBytes(lengths);
+
+            totalDataSize += columnEncoder.getCompressedData().length();
+        }
+
+        Slice key = keyOutput.slice();
+        Slice compressedKey = key;
+        if (compressor != null) {
+            compressedKeyOutput.reset();
+            compressor.compress(key, compressedKeyOutput);
+            compressedKey = compressedKeyOutput.slice();
+        }
+
+        // the record length is the size of the compressed key and the column data
+        output.writeInt(Integer.reverseBytes(toIntExact(compressedKey.length() + totalDataSize)));
+        output.writeInt(Integer.reverseBytes(key.length()));
+        output.writeInt(Integer.reverseBytes(compressedKey.length()));
+        output.writeBytes(compressedKey);
+        writtenBytes += SIZE_OF_INT + SIZE_OF_INT + SIZE_OF_INT + compressedKey.length() + totalDataSize;
+
+        for (ColumnEncoder columnEncoder : columnEncoders) {
+            output.writeBytes(columnEncoder.getCompressedData());
+            columnEncoder.reset();
+        }
+        bufferedRows = 0;
+    }
+
+    private static void writeLengthPrefixedString(SliceOutput output, Slice value)
+    {
+        writeVInt(output, value.length());
+        output.writeBytes(value);
+    }
+
+    private static class ColumnEncoder
+            implements EncodeOutput
+    {
+        private final ColumnEncoding encoding;
+
+        private final DynamicSliceOutput dataOutput = new DynamicSliceOutput(1024);
+        private final DynamicSliceOutput lengthsOutput = new DynamicSliceOutput(1024);
+        private final DynamicSliceOutput compressedDataOutput = new DynamicSliceOutput(1024);
+
+        private Slice compressedData;
+
+        private int previousOffset;
+
+        // value lengths are run length encoded
+        private int lastValueLength = -1;
+        private int runLength;
+
+        public ColumnEncoder(ColumnEncoding encoding)
+        {
+            this.encoding = encoding;
+        }
+
+        public void writeBlock(Block block)
+        {
+            checkState(compressedData == null, "Column is closed");
+            encoding.encodeColumn(block, dataOutput, this);
+        }
+
+        @Override
+        public void closeEntry()
+        {
+            int valueLength = dataOutput.size() - previousOffset;
+            previousOffset = dataOutput.size();
+
+            if (valueLength == lastValueLength) {
+                runLength++;
+            }
+            else {
+                flushLengthRun();
+                lastValueLength = valueLength;
+            }
+        }
+
+        private void flushLengthRun()
+        {
+            if (lastValueLength < 0) {
+                return;
+            }
+
+            // a run of repeated lengths is written as the complement of the number of repeats
+            writeVInt(lengthsOutput, lastValueLength);
+            if (runLength > 0) {
+                writeVInt(lengthsOutput, ~runLength);
+            }
+            lastValueLength = -1;
+            runLength = 0;
+        }
+
+        public void closeColumn(RcFileCompressor compressor)
+                throws IOException
+        {
+            flushLengthRun();
+
+            if (compressor == null) {
+                compressedData = dataOutput.slice();
+            }
+            else {
+                compressor.compress(dataOutput.slice(), compressedDataOutput);
+                compressedData = compressedDataOutput.slice();
+            }
+        }
+
+        public Slice getLengths()
+        {
+            checkState(compressedData != null, "Column is not closed");
+            return lengthsOutput.slice();
+        }
+
+        public int getUncompressedDataSize()
+        {
+            checkState(compressedData != null, "Column is not closed");
+            return dataOutput.size();
+        }
+
+        public Slice getCompressedData()
+        {
+            checkState(compressedData != null, "Column is not closed");
+            return compressedData;
+        }
+
+        public long getBufferedBytes()
+        {
+            return dataOutput.size() + lengthsOutput.size();
+        }
+
+        public long getRetainedBytes()
+        {
+            return dataOutput.getRetainedSize() + lengthsOutput.getRetainedSize() + compressedDataOutput.getRetainedSize();
+        }
+
+        public void reset()
+        {
+            dataOutput.reset();
+            lengthsOutput.reset();
+            compressedDataOutput.reset();
+            compressedData = null;
+            previousOffset = 0;
+            lastValueLength = -1;
+            runLength = 0;
+        }
+    }
+}
@@ -14,14 +14,17 @@
 package com.facebook.presto.rcfile.binary;
 
 import com.facebook.presto.rcfile.ColumnData;
+import com.facebook.presto.rcfile.EncodeOutput;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.decodeVIntSize;
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.readVInt;
+import static com.facebook.presto.rcfile.RcFileDecoderUtils.writeVInt;
 import static java.lang.Math.toIntExact;
 
 public class BinaryEncoding
@@ -34,6 +37,17 @@ public class BinaryEncoding
         this.type = type;
     }
 
+    @Override
+    public void encodeColumn(Block block, SliceOutput output, EncodeOutput encodeOutput)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (!block.isNull(position)) {
+                output.writeBytes(type.getSlice(block, position));
+            }
+            encodeOutput.closeEntry();
+        }
+    }
+
     @Override
     public Block decodeColumn(ColumnData columnData)
     {
@@ -66,6 +80,14 @@ public class BinaryEncoding
         return toIntExact(readVInt(slice, offset));
     }
 
+    @Override
+    public void encodeValueInto(Block block, int position, SliceOutput output)
+    {
+        Slice slice = type.getSlice(block, position);
+        writeVInt(output, slice.length());
+        output.writeBytes(slice);
+    }
+
     @Override
     public void decodeValueInto(BlockBuilder builder, Slice slice, int offset, int length)
     {
@@ -14,11 +14,13 @@
 package com.facebook.presto.rcfile.binary;
 
 import com.facebook.presto.rcfile.ColumnData;
+import com.facebook.presto.rcfile.EncodeOutput;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 
 import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 
@@ -32,6 +34,34 @@ public abstract class BlockEncoding
         this.type = type;
     }
 
+    @Override
+    public final void encodeColumn(Block block, SliceOutput output, EncodeOutput encodeOutput)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (!block.isNull(position)) {
+                encodeValue(block, position, output);
+            }
+            encodeOutput.closeEntry();
+        }
+    }
+
+    @Override
+    public final void encodeValueInto(Block block, int position, SliceOutput output)
+    {
+        // nested values are prefixed with the big endian size, which is only known after the value is written,
+        // so the output must be an in memory buffer
+        int sizeOffset = output.size();
+        output.writeInt(0);
+        encodeValue(block, position, output);
+        int size = output.size() - sizeOffset - SIZE_OF_INT;
+        output.getUnderlyingSlice().setInt(sizeOffset, Integer.reverseBytes(size));
+    }
+
+    /**
+     * Writes the value without the size prefix used for nested values.
+     */
+    protected abstract void encodeValue(Block block, int position, SliceOutput output);
+
     @Override
     public final Block decodeColumn(ColumnData columnData)
     {
@@ -64,4 +94,18 @@ public abstract class BlockEncoding
     {
         return SIZE_OF_INT;
     }
+
+    protected static void writeNullBits(Block block, SliceOutput output)
+    {
+        // one bit per element, set when the element is not null
+        for (int byteStart = 0; byteStart < block.getPositionCount(); byteStart += 8) {
+            int nullByte = 0;
+            for (int bit = 0; bit < 8 && byteStart + bit < block.getPositionCount(); bit++) {
+                if (!block.isNull(byteStart + bit)) {
+                    nullByte |= 1 << bit;
+                }
+            }
+            output.writeByte(nullByte);
+        }
+    }
 }
@@ -14,18 +14,22 @@
 package com.facebook.presto.rcfile.binary;
 
 import com.facebook.presto.rcfile.ColumnData;
+import com.facebook.presto.rcfile.EncodeOutput;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.DecimalType;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 
 import java.math.BigInteger;
 
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.decodeVIntSize;
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.readVInt;
+import static com.facebook.presto.rcfile.RcFileDecoderUtils.writeVInt;
+import static com.facebook.presto.spi.type.Decimals.decodeUnscaledValue;
 import static com.facebook.presto.spi.type.Decimals.encodeUnscaledValue;
 import static com.facebook.presto.spi.type.Decimals.isShortDecimal;
 import static com.facebook.presto.spi.type.Decimals.rescale;
@@ -44,6 +48,17 @@ public class DecimalEncoding
         this.type = (DecimalType) type;
     }
 
+    @Override
+    public void encodeColumn(Block block, SliceOutput output, EncodeOutput encodeOutput)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (!block.isNull(position)) {
+                encodeValueInto(block, position, output);
+            }
+            encodeOutput.closeEntry();
+        }
+    }
+
     @Override
     public Block decodeColumn(ColumnData columnData)
     {
@@ -86,6 +101,21 @@ public class DecimalEncoding
         return scaleLength + dataLengthLength + dataLength;
     }
 
+    @Override
+    public void encodeValueInto(Block block, int position, SliceOutput output)
+    {
+        writeVInt(output, type.getScale());
+        if (isShortDecimal(type)) {
+            writeLong(output, type.getLong(block, position));
+        }
+        else {
+            // big endian two's complement, as produced by BigInteger.toByteArray()
+            byte[] bytes = decodeUnscaledValue(type.getSlice(block, position)).toByteArray();
+            writeVInt(output, bytes.length);
+            output.writeBytes(bytes);
+        }
+    }
+
     @Override
     public void decodeValueInto(BlockBuilder builder, Slice slice, int offset, int length)
     {
@@ -156,4 +186,14 @@ public class DecimalEncoding
         }
         return resultSlice;
     }
+
+    private static void writeLong(SliceOutput output, long value)
+    {
+        // minimal big endian two's complement, as produced by BigInteger.toByteArray()
+        int length = (Long.SIZE - Long.numberOfLeadingZeros(value ^ (value >> 63))) / Byte.SIZE + 1;
+        writeVInt(output, length);
+        for (int i = length - 1; i >= 0; i--) {
+            output.writeByte((int) (value >> (i * Byte.SIZE)));
+        }
+    }
 }
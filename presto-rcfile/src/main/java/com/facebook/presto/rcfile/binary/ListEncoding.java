@@ -13,12 +13,15 @@
  */
 package com.facebook.presto.rcfile.binary;
 
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.decodeVIntSize;
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.readVInt;
+import static com.facebook.presto.rcfile.RcFileDecoderUtils.writeVInt;
 import static java.lang.Math.toIntExact;
 
 public class ListEncoding
@@ -32,6 +35,23 @@ public class ListEncoding
         this.elementReader = elementReader;
     }
 
+    @Override
+    protected void encodeValue(Block block, int position, SliceOutput output)
+    {
+        Block list = block.getObject(position, Block.class);
+        writeVInt(output, list.getPositionCount());
+
+        // null bits
+        writeNullBits(list, output);
+
+        // elements
+        for (int i = 0; i < list.getPositionCount(); i++) {
+            if (!list.isNull(i)) {
+                elementReader.encodeValueInto(list, i, output);
+            }
+        }
+    }
+
     @Override
     public void decodeValueInto(BlockBuilder builder, Slice slice, int offset, int length)
     {
@@ -13,12 +13,15 @@
  */
 package com.facebook.presto.rcfile.binary;
 
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.decodeVIntSize;
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.readVInt;
+import static com.facebook.presto.rcfile.RcFileDecoderUtils.writeVInt;
 import static java.lang.Math.toIntExact;
 
 public class MapEncoding
@@ -34,6 +37,25 @@ public class MapEncoding
         this.valueReader = valueReader;
     }
 
+    @Override
+    protected void encodeValue(Block block, int position, SliceOutput output)
+    {
+        // the keys and values of the entries are interleaved in the map block
+        Block map = block.getObject(position, Block.class);
+        writeVInt(output, map.getPositionCount() / 2);
+
+        // null bits, with a key bit followed by a value bit for each entry
+        writeNullBits(map, output);
+
+        // entries
+        for (int i = 0; i < map.getPositionCount(); i += 2) {
+            keyReader.encodeValueInto(map, i, output);
+            if (!map.isNull(i + 1)) {
+                valueReader.encodeValueInto(map, i + 1, output);
+            }
+        }
+    }
+
     @Override
     public void decodeValueInto(BlockBuilder builder, Slice slice, int offset, int length)
     {
@@ -14,15 +14,20 @@
 package com.facebook.presto.rcfile.binary;
 
 import com.facebook.presto.rcfile.ColumnData;
+import com.facebook.presto.rcfile.EncodeOutput;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.CharType;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.calculateTruncationLength;
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.decodeVIntSize;
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.readVInt;
+import static com.facebook.presto.rcfile.RcFileDecoderUtils.writeVInt;
+import static com.facebook.presto.spi.type.Chars.padSpaces;
 import static io.airlift.slice.Slices.EMPTY_SLICE;
 import static java.lang.Math.toIntExact;
 
@@ -38,6 +43,23 @@ public class StringEncoding
         this.type = type;
     }
 
+    @Override
+    public void encodeColumn(Block block, SliceOutput output, EncodeOutput encodeOutput)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (!block.isNull(position)) {
+                Slice slice = getSlice(block, position);
+                if (slice.length() == 0) {
+                    output.writeByte(HIVE_EMPTY_STRING_BYTE);
+                }
+                else {
+                    output.writeBytes(slice);
+                }
+            }
+            encodeOutput.closeEntry();
+        }
+    }
+
     @Override
     public Block decodeColumn(ColumnData columnData)
     {
@@ -76,6 +98,25 @@ public class StringEncoding
         return toIntExact(readVInt(slice, offset));
     }
 
+    @Override
+    public void encodeValueInto(Block block, int position, SliceOutput output)
+    {
+        // nested strings are length prefixed, so the empty string marker is not needed
+        Slice slice = getSlice(block, position);
+        writeVInt(output, slice.length());
+        output.writeBytes(slice);
+    }
+
+    private Slice getSlice(Block block, int position)
+    {
+        // hive stores char values padded with spaces
+        Slice slice = type.getSlice(block, position);
+        if (type instanceof CharType) {
+            slice = padSpaces(slice, (CharType) type);
+        }
+        return slice;
+    }
+
     @Override
     public void decodeValueInto(BlockBuilder builder, Slice slice, int offset, int length)
     {
@@ -13,10 +13,12 @@
  */
 package com.facebook.presto.rcfile.binary;
 
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 
 import java.util.List;
 
@@ -31,6 +33,28 @@ public class StructEncoding
         this.structFields = ImmutableList.copyOf(structFields);
     }
 
+    @Override
+    protected void encodeValue(Block block, int position, SliceOutput output)
+    {
+        Block row = block.getObject(position, Block.class);
+        for (int fieldId = 0; fieldId < structFields.size(); fieldId++) {
+            // null byte prefixes every 8 fields
+            if ((fieldId % 8) == 0) {
+                int nullByte = 0;
+                for (int bit = 0; bit < 8 && fieldId + bit < structFields.size(); bit++) {
+                    if (!row.isNull(fieldId + bit)) {
+                        nullByte |= 1 << bit;
+                    }
+                }
+                output.writeByte(nullByte);
+            }
+
+            if (!row.isNull(fieldId)) {
+                structFields.get(fieldId).encodeValueInto(row, fieldId, output);
+            }
+        }
+    }
+
     @Override
     public void decodeValueInto(BlockBuilder builder, Slice slice, int offset, int length)
     {
@@ -14,16 +14,22 @@
 package com.facebook.presto.rcfile.binary;
 
 import com.facebook.presto.rcfile.ColumnData;
+import com.facebook.presto.rcfile.EncodeOutput;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.decodeVIntSize;
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.isNegativeVInt;
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.readVInt;
+import static com.facebook.presto.rcfile.RcFileDecoderUtils.writeVInt;
+import static com.facebook.presto.rcfile.RcFileDecoderUtils.writeVLong;
 import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
 
 public class TimestampEncoding
         implements BinaryColumnEncoding
@@ -35,6 +41,17 @@ public class TimestampEncoding
         this.type = type;
     }
 
+    @Override
+    public void encodeColumn(Block block, SliceOutput output, EncodeOutput encodeOutput)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (!block.isNull(position)) {
+                writeTimestamp(type.getLong(block, position), output);
+            }
+            encodeOutput.closeEntry();
+        }
+    }
+
     @Override
     public Block decodeColumn(ColumnData columnData)
     {
@@ -78,6 +95,12 @@ public class TimestampEncoding
         return length;
     }
 
+    @Override
+    public void encodeValueInto(Block block, int position, SliceOutput output)
+    {
+        writeTimestamp(type.getLong(block, position), output);
+    }
+
     @Override
     public void decodeValueInto(BlockBuilder builder, Slice slice, int offset, int length)
     {
@@ -144,4 +167,46 @@ public class TimestampEncoding
         }
         return nanos;
     }
+
+    private static void writeTimestamp(long millis, SliceOutput output)
+    {
+        long seconds = floorDiv(millis, 1000);
+        int nanos = (int) (floorMod(millis, 1000) * 1_000_000);
+
+        // the lowest 31 bits of the seconds are always written, and the high bits
+        // are only written in a second VInt when they are not zero
+        boolean hasSecondsHighBits = seconds < 0 || seconds > Integer.MAX_VALUE;
+        int reversedNanos = encodeNanos(nanos);
+        boolean hasNanosVInt = reversedNanos != 0 || hasSecondsHighBits;
+
+        int lowest31BitsOfSecondsAndFlag = (int) (seconds & 0x7FFF_FFFF);
+        if (hasNanosVInt) {
+            lowest31BitsOfSecondsAndFlag |= 0x8000_0000;
+        }
+        output.writeInt(Integer.reverseBytes(lowest31BitsOfSecondsAndFlag));
+
+        if (hasNanosVInt) {
+            // a negative nanos value signals the second VInt
+            writeVInt(output, hasSecondsHighBits ? -reversedNanos - 1 : reversedNanos);
+            if (hasSecondsHighBits) {
+                writeVLong(output, seconds >> 31);
+            }
+        }
+    }
+
+    private static int encodeNanos(int nanos)
+    {
+        if (nanos == 0) {
+            return 0;
+        }
+
+        // Reverse all nine nanos digits (base 10), so trailing zeros do not take space
+        int reversed = 0;
+        for (int i = 0; i < 9; i++) {
+            reversed *= 10;
+            reversed += nanos % 10;
+            nanos /= 10;
+        }
+        return reversed;
+    }
 }
@@ -14,12 +14,14 @@
 package com.facebook.presto.rcfile.text;
 
 import com.facebook.presto.rcfile.ColumnData;
+import com.facebook.presto.rcfile.EncodeOutput;
 import com.facebook.presto.rcfile.RcFileCorruptionException;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 
 public abstract class BlockEncoding
         implements TextColumnEncoding
@@ -37,6 +39,20 @@ public abstract class BlockEncoding
         this.escapeByte = escapeByte;
     }
 
+    @Override
+    public final void encodeColumn(Block block, SliceOutput output, EncodeOutput encodeOutput)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                writeNullSequence(output);
+            }
+            else {
+                encodeValueInto(1, block, position, output);
+            }
+            encodeOutput.closeEntry();
+        }
+    }
+
     @Override
     public final Block decodeColumn(ColumnData columnData)
             throws RcFileCorruptionException
@@ -64,6 +80,11 @@ public abstract class BlockEncoding
         return nullSequence.equals(0, nullSequence.length(), slice, offset, length);
     }
 
+    protected final void writeNullSequence(SliceOutput output)
+    {
+        output.writeBytes(nullSequence);
+    }
+
     protected final boolean isEscapeByte(byte currentByte)
     {
         return escapeByte != null && currentByte == escapeByte;
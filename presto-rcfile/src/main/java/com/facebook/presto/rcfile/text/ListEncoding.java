@@ -14,9 +14,11 @@
 package com.facebook.presto.rcfile.text;
 
 import com.facebook.presto.rcfile.RcFileCorruptionException;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 
 public class ListEncoding
@@ -31,6 +33,26 @@ public class ListEncoding
         this.elementReader = elementReader;
     }
 
+    @Override
+    public void encodeValueInto(int depth, Block block, int position, SliceOutput output)
+    {
+        byte separator = getSeparator(depth);
+
+        Block list = block.getObject(position, Block.class);
+        for (int i = 0; i < list.getPositionCount(); i++) {
+            if (i > 0) {
+                output.writeByte(separator);
+            }
+
+            if (list.isNull(i)) {
+                writeNullSequence(output);
+            }
+            else {
+                elementReader.encodeValueInto(depth + 1, list, i, output);
+            }
+        }
+    }
+
     @Override
     public void decodeValueInto(int depth, BlockBuilder builder, Slice slice, int offset, int length)
             throws RcFileCorruptionException
@@ -14,9 +14,11 @@
 package com.facebook.presto.rcfile.text;
 
 import com.facebook.presto.rcfile.RcFileCorruptionException;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 
 public class MapEncoding
         extends BlockEncoding
@@ -35,6 +37,30 @@ public class MapEncoding
         this.valueReader = valueReader;
     }
 
+    @Override
+    public void encodeValueInto(int depth, Block block, int position, SliceOutput output)
+    {
+        byte elementSeparator = getSeparator(depth);
+        byte keyValueSeparator = getSeparator(depth + 1);
+
+        // the keys and values of the entries are interleaved in the map block
+        Block map = block.getObject(position, Block.class);
+        for (int i = 0; i < map.getPositionCount(); i += 2) {
+            if (i > 0) {
+                output.writeByte(elementSeparator);
+            }
+
+            keyReader.encodeValueInto(depth + 2, map, i, output);
+            output.writeByte(keyValueSeparator);
+            if (map.isNull(i + 1)) {
+                writeNullSequence(output);
+            }
+            else {
+                valueReader.encodeValueInto(depth + 2, map, i + 1, output);
+            }
+        }
+    }
+
     @Override
     public void decodeValueInto(int depth, BlockBuilder builder, Slice slice, int offset, int length)
             throws RcFileCorruptionException
@@ -14,15 +14,18 @@
 package com.facebook.presto.rcfile.text;
 
 import com.facebook.presto.rcfile.ColumnData;
+import com.facebook.presto.rcfile.EncodeOutput;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.CharType;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 
 import static com.facebook.presto.rcfile.RcFileDecoderUtils.calculateTruncationLength;
+import static com.facebook.presto.spi.type.Chars.padSpaces;
 
 public class StringEncoding
         implements TextColumnEncoding
@@ -30,12 +33,36 @@ public class StringEncoding
     private final Type type;
     private final Slice nullSequence;
     private final Byte escapeByte;
+    private final boolean[] needsEscape;
 
-    public StringEncoding(Type type, Slice nullSequence, Byte escapeChar)
+    public StringEncoding(Type type, Slice nullSequence, byte[] separators, Byte escapeChar)
     {
         this.type = type;
         this.nullSequence = nullSequence;
         this.escapeByte = escapeChar;
+
+        // the escape byte and the separators must be escaped when writing
+        needsEscape = new boolean[256];
+        if (escapeChar != null) {
+            needsEscape[escapeChar & 0xFF] = true;
+            for (byte separator : separators) {
+                needsEscape[separator & 0xFF] = true;
+            }
+        }
+    }
+
+    @Override
+    public void encodeColumn(Block block, SliceOutput output, EncodeOutput encodeOutput)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                output.writeBytes(nullSequence);
+            }
+            else {
+                encodeValueInto(1, block, position, output);
+            }
+            encodeOutput.closeEntry();
+        }
     }
 
     @Override
@@ -93,6 +120,34 @@ public class StringEncoding
         return new ColumnData(newOffsets, output.slice());
     }
 
+    @Override
+    public void encodeValueInto(int depth, Block block, int position, SliceOutput output)
+    {
+        Slice slice = getSlice(block, position);
+        if (escapeByte == null) {
+            output.writeBytes(slice);
+            return;
+        }
+
+        for (int i = 0; i < slice.length(); i++) {
+            byte value = slice.getByte(i);
+            if (needsEscape[value & 0xFF]) {
+                output.writeByte(escapeByte);
+            }
+            output.writeByte(value);
+        }
+    }
+
+    private Slice getSlice(Block block, int position)
+    {
+        // hive stores char values padded with spaces
+        Slice slice = type.getSlice(block, position);
+        if (type instanceof CharType) {
+            slice = padSpaces(slice, (CharType) type);
+        }
+        return slice;
+    }
+
     @Override
     public void decodeValueInto(int depth, BlockBuilder builder, Slice slice, int offset, int length)
     {
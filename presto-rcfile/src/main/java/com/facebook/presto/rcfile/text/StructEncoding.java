@@ -14,9 +14,11 @@
 package com.facebook.presto.rcfile.text;
 
 import com.facebook.presto.rcfile.RcFileCorruptionException;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
 
 import java.util.List;
 
@@ -37,6 +39,26 @@ public class StructEncoding
         this.structFields = structFields;
     }
 
+    @Override
+    public void encodeValueInto(int depth, Block block, int position, SliceOutput output)
+    {
+        byte separator = getSeparator(depth);
+
+        Block row = block.getObject(position, Block.class);
+        for (int fieldId = 0; fieldId < structFields.size(); fieldId++) {
+            if (fieldId > 0) {
+                output.writeByte(separator);
+            }
+
+            if (row.isNull(fieldId)) {
+                writeNullSequence(output);
+            }
+            else {
+                structFields.get(fieldId).encodeValueInto(depth + 1, row, fieldId, output);
+            }
+        }
+    }
+
     @Override
     public void decodeValueInto(int depth, BlockBuilder builder, Slice slice, int offset, int length)
             throws RcFileCorruptionException
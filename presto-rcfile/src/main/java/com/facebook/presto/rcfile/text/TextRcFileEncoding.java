@@ -88,7 +88,7 @@ public class TextRcFileEncoding
     @Override
     public ColumnEncoding booleanEncoding(Type type)
     {
-        return new BooleanEncoding(type);
+        return new BooleanEncoding(type, nullSequence);
     }
 
     @Override
@@ -136,7 +136,7 @@ public class TextRcFileEncoding
     @Override
     public ColumnEncoding stringEncoding(Type type)
     {
-        return new StringEncoding(type, nullSequence, escapeByte);
+        return new StringEncoding(type, nullSequence, separators, escapeByte);
     }
 
     @Override
@@ -16,8 +16,12 @@ package com.facebook.presto.rcfile;
 import com.facebook.presto.hadoop.HadoopNative;
 import com.facebook.presto.rcfile.binary.BinaryRcFileEncoding;
 import com.facebook.presto.rcfile.text.TextRcFileEncoding;
+import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.DecimalType;
+import com.facebook.presto.spi.type.Decimals;
 import com.facebook.presto.spi.type.SqlDate;
 import com.facebook.presto.spi.type.SqlDecimal;
 import com.facebook.presto.spi.type.SqlTimestamp;
@@ -62,8 +66,10 @@ import org.joda.time.DateTimeZone;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigInteger;
 import java.sql.Date;
 import java.sql.Timestamp;
 import java.time.LocalDate;
@@ -109,6 +115,7 @@ import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
 import static io.airlift.testing.FileUtils.deleteRecursively;
 import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.Math.toIntExact;
 import static java.util.stream.Collectors.toList;
@@ -371,6 +378,12 @@ public class RcFileTester
                         assertFileContentsNew(type, tempFile, format, finalValues, true);
                     }
                 }
+
+                try (TempFile tempFile = new TempFile()) {
+                    writeRcFileColumnNew(tempFile.getFile(), format, compression, type, finalValues.iterator());
+
+                    assertFileContentsNew(type, tempFile, format, finalValues, false);
+                }
             }
         }
     }
@@ -598,6 +611,101 @@ public class RcFileTester
         return new DataSize(outputFile.length(), BYTE).convertToMostSuccinctDataSize();
     }
 
+    private static void writeRcFileColumnNew(File outputFile, Format format, Compression compression, Type type, Iterator<?> values)
+            throws Exception
+    {
+        try (RcFileWriter writer = new RcFileWriter(
+                new FileOutputStream(outputFile),
+                ImmutableList.of(type),
+                format.getVectorEncoding(),
+                compression.getCodecName(),
+                new AircompressorCodecFactory(new HadoopCodecFactory(RcFileTester.class.getClassLoader())),
+                ImmutableMap.of(),
+                new DataSize(100, KILOBYTE))) {
+            // write small pages, so row groups span several pages
+            BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), 1024);
+            while (values.hasNext()) {
+                writeValue(type, blockBuilder, values.next());
+                if (blockBuilder.getPositionCount() == 1024) {
+                    writer.write(new Page(blockBuilder.build()));
+                    blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), 1024);
+                }
+            }
+            writer.write(new Page(blockBuilder.build()));
+        }
+    }
+
+    private static void writeValue(Type type, BlockBuilder blockBuilder, Object value)
+    {
+        if (value == null) {
+            blockBuilder.appendNull();
+        }
+        else if (type.equals(BOOLEAN)) {
+            type.writeBoolean(blockBuilder, (Boolean) value);
+        }
+        else if (type.equals(TINYINT) || type.equals(SMALLINT) || type.equals(INTEGER) || type.equals(BIGINT)) {
+            type.writeLong(blockBuilder, ((Number) value).longValue());
+        }
+        else if (type.equals(REAL)) {
+            type.writeLong(blockBuilder, Float.floatToRawIntBits(((Number) value).floatValue()));
+        }
+        else if (type.equals(DOUBLE)) {
+            type.writeDouble(blockBuilder, ((Number) value).doubleValue());
+        }
+        else if (type instanceof VarcharType) {
+            type.writeSlice(blockBuilder, Slices.utf8Slice((String) value));
+        }
+        else if (type.equals(VARBINARY)) {
+            type.writeSlice(blockBuilder, Slices.wrappedBuffer(((SqlVarbinary) value).getBytes()));
+        }
+        else if (type.equals(DATE)) {
+            type.writeLong(blockBuilder, ((SqlDate) value).getDays());
+        }
+        else if (type.equals(TIMESTAMP)) {
+            type.writeLong(blockBuilder, ((SqlTimestamp) value).getMillisUtc());
+        }
+        else if (type instanceof DecimalType) {
+            DecimalType decimalType = (DecimalType) type;
+            BigInteger unscaledValue = ((SqlDecimal) value).toBigDecimal().unscaledValue();
+            if (decimalType.isShort()) {
+                type.writeLong(blockBuilder, unscaledValue.longValueExact());
+            }
+            else {
+                type.writeSlice(blockBuilder, Decimals.encodeUnscaledValue(unscaledValue));
+            }
+        }
+        else if (type.getTypeSignature().getBase().equals(ARRAY)) {
+            Type elementType = type.getTypeParameters().get(0);
+            BlockBuilder elementBuilder = blockBuilder.beginBlockEntry();
+            for (Object element : (List<?>) value) {
+                writeValue(elementType, elementBuilder, element);
+            }
+            blockBuilder.closeEntry();
+        }
+        else if (type.getTypeSignature().getBase().equals(MAP)) {
+            Type keyType = type.getTypeParameters().get(0);
+            Type valueType = type.getTypeParameters().get(1);
+            BlockBuilder entryBuilder = blockBuilder.beginBlockEntry();
+            for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writeValue(keyType, entryBuilder, entry.getKey());
+                writeValue(valueType, entryBuilder, entry.getValue());
+            }
+            blockBuilder.closeEntry();
+        }
+        else if (type.getTypeSignature().getBase().equals(ROW)) {
+            List<?> fieldValues = (List<?>) value;
+            List<Type> fieldTypes = type.getTypeParameters();
+            BlockBuilder fieldBuilder = blockBuilder.beginBlockEntry();
+            for (int fieldId = 0; fieldId < fieldValues.size(); fieldId++) {
+                writeValue(fieldTypes.get(fieldId), fieldBuilder, fieldValues.get(fieldId));
+            }
+            blockBuilder.closeEntry();
+        }
+        else {
+            throw new IllegalArgumentException("unsupported type: " + type);
+        }
+    }
+
     private static ObjectInspector getJavaObjectInspector(Type type)
     {
         if (type.equals(BOOLEAN)) {
@@ -59,6 +59,24 @@ public class TestRcFileDecoderUtils
         assertEquals(readValueOld, value);
         long readValueNew = RcFileDecoderUtils.readVInt(oldBytes, 0);
         assertEquals(readValueNew, value);
+
+        Slice newBytes = writeVintNew(output, value);
+        assertEquals(newBytes, oldBytes);
+    }
+
+    private static Slice writeVintNew(SliceOutput output, long value)
+    {
+        output.reset();
+        RcFileDecoderUtils.writeVLong(output, value);
+        Slice vLong = Slices.copyOf(output.slice());
+
+        if (value == (int) value) {
+            output.reset();
+            RcFileDecoderUtils.writeVInt(output, (int) value);
+            Slice vInt = Slices.copyOf(output.slice());
+            assertEquals(vInt, vLong);
+        }
+        return vLong;
     }
 
     private static Slice writeVintOld(SliceOutput output, long value)
@@ -85,6 +85,7 @@ public enum StandardErrorCode
     EXCEEDED_TIME_LIMIT(0x0002_0003, INSUFFICIENT_RESOURCES),
     CLUSTER_OUT_OF_MEMORY(0x0002_0004, INSUFFICIENT_RESOURCES),
     EXCEEDED_CPU_LIMIT(0x0002_0005, INSUFFICIENT_RESOURCES),
+    OUT_OF_SPILL_SPACE(0x0002_0006, INSUFFICIENT_RESOURCES),
 
     // Connectors can use error codes starting at EXTERNAL
     // See https://github.com/prestodb/presto/wiki/Error-Codes
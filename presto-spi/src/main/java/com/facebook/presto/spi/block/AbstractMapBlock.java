@@ -0,0 +1,233 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import com.facebook.presto.spi.type.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+public abstract class AbstractMapBlock
+        implements Block
+{
+    // the hash table of a map has twice as many slots as the map has entries
+    static final int HASH_MULTIPLIER = 2;
+
+    protected final Type keyType;
+
+    protected AbstractMapBlock(Type keyType)
+    {
+        this.keyType = requireNonNull(keyType, "keyType is null");
+    }
+
+    protected abstract Block getKeys();
+
+    protected abstract Block getValues();
+
+    protected abstract int[] getOffsets();
+
+    protected abstract int getOffsetBase();
+
+    protected abstract boolean[] getMapIsNull();
+
+    /**
+     * Returns the hash tables of all maps in this block, or null if this block can not be indexed.
+     * The hash table of the map with key positions [start, end) occupies the slots
+     * [(start - getOffsets()[getOffsetBase()]) * 2, (end - getOffsets()[getOffsetBase()]) * 2),
+     * and each slot holds the position of a key relative to start, or -1 if the slot is empty.
+     */
+    protected abstract int[] getHashTables();
+
+    private int getOffset(int position)
+    {
+        return getOffsets()[position + getOffsetBase()];
+    }
+
+    @Override
+    public BlockEncoding getEncoding()
+    {
+        return new MapBlockEncoding(keyType, getKeys().getEncoding(), getValues().getEncoding());
+    }
+
+    @Override
+    public Block copyPositions(List<Integer> positions)
+    {
+        int[] newOffsets = new int[positions.size() + 1];
+        boolean[] newMapIsNull = new boolean[positions.size()];
+
+        List<Integer> entriesPositions = new ArrayList<>();
+        int newPosition = 0;
+        for (int position : positions) {
+            if (isNull(position)) {
+                newMapIsNull[newPosition] = true;
+                newOffsets[newPosition + 1] = newOffsets[newPosition];
+            }
+            else {
+                int entriesStartOffset = getOffset(position);
+                int entriesEndOffset = getOffset(position + 1);
+                int entryCount = entriesEndOffset - entriesStartOffset;
+
+                newOffsets[newPosition + 1] = newOffsets[newPosition] + entryCount;
+
+                for (int elementIndex = entriesStartOffset; elementIndex < entriesEndOffset; elementIndex++) {
+                    entriesPositions.add(elementIndex);
+                }
+            }
+            newPosition++;
+        }
+        Block newKeys = getKeys().copyPositions(entriesPositions);
+        Block newValues = getValues().copyPositions(entriesPositions);
+        return new MapBlock(positions.size(), newMapIsNull, newOffsets, newKeys, newValues, keyType);
+    }
+
+    @Override
+    public Block getRegion(int position, int length)
+    {
+        int positionCount = getPositionCount();
+        if (position < 0 || length < 0 || position + length > positionCount) {
+            throw new IndexOutOfBoundsException("Invalid position " + position + " in block with " + positionCount + " positions");
+        }
+
+        if (position == 0 && length == positionCount) {
+            return this;
+        }
+
+        return new MapBlock(
+                position + getOffsetBase(),
+                length,
+                getMapIsNull(),
+                getOffsets(),
+                getKeys(),
+                getValues(),
+                keyType);
+    }
+
+    @Override
+    public int getRegionSizeInBytes(int position, int length)
+    {
+        int positionCount = getPositionCount();
+        if (position < 0 || length < 0 || position + length > positionCount) {
+            throw new IndexOutOfBoundsException("Invalid position " + position + " in block with " + positionCount + " positions");
+        }
+
+        int entriesStart = getOffsets()[getOffsetBase() + position];
+        int entriesEnd = getOffsets()[getOffsetBase() + position + length];
+        int entryCount = entriesEnd - entriesStart;
+
+        return getKeys().getRegionSizeInBytes(entriesStart, entryCount) +
+                getValues().getRegionSizeInBytes(entriesStart, entryCount) +
+                ((Integer.BYTES + Byte.BYTES) * length);
+    }
+
+    @Override
+    public Block copyRegion(int position, int length)
+    {
+        int positionCount = getPositionCount();
+        if (position < 0 || length < 0 || position + length > positionCount) {
+            throw new IndexOutOfBoundsException("Invalid position " + position + " in block with " + positionCount + " positions");
+        }
+
+        int startEntryOffset = getOffset(position);
+        int endEntryOffset = getOffset(position + length);
+        Block newKeys = getKeys().copyRegion(startEntryOffset, endEntryOffset - startEntryOffset);
+        Block newValues = getValues().copyRegion(startEntryOffset, endEntryOffset - startEntryOffset);
+
+        int[] newOffsets = new int[length + 1];
+        for (int i = 1; i < newOffsets.length; i++) {
+            newOffsets[i] = getOffset(position + i) - startEntryOffset;
+        }
+
+        boolean[] newMapIsNull = Arrays.copyOfRange(getMapIsNull(), position + getOffsetBase(), position + getOffsetBase() + length);
+
+        return new MapBlock(length, newMapIsNull, newOffsets, newKeys, newValues, keyType);
+    }
+
+    @Override
+    public <T> T getObject(int position, Class<T> clazz)
+    {
+        if (clazz != Block.class) {
+            throw new IllegalArgumentException("clazz must be Block.class");
+        }
+        checkReadablePosition(position);
+
+        int startEntryOffset = getOffset(position);
+        int endEntryOffset = getOffset(position + 1);
+        return clazz.cast(new SingleMapBlock(this, startEntryOffset, (endEntryOffset - startEntryOffset) * 2));
+    }
+
+    @Override
+    public void writePositionTo(int position, BlockBuilder blockBuilder)
+    {
+        checkReadablePosition(position);
+        BlockBuilder entryBuilder = blockBuilder.beginBlockEntry();
+        int startEntryOffset = getOffset(position);
+        int endEntryOffset = getOffset(position + 1);
+        for (int i = startEntryOffset; i < endEntryOffset; i++) {
+            writeElementTo(getKeys(), i, entryBuilder);
+            writeElementTo(getValues(), i, entryBuilder);
+        }
+    }
+
+    private static void writeElementTo(Block block, int position, BlockBuilder blockBuilder)
+    {
+        if (block.isNull(position)) {
+            blockBuilder.appendNull();
+        }
+        else {
+            block.writePositionTo(position, blockBuilder);
+            blockBuilder.closeEntry();
+        }
+    }
+
+    @Override
+    public Block getSingleValueBlock(int position)
+    {
+        checkReadablePosition(position);
+
+        int startEntryOffset = getOffset(position);
+        int entryCount = getOffset(position + 1) - startEntryOffset;
+        Block newKeys = getKeys().copyRegion(startEntryOffset, entryCount);
+        Block newValues = getValues().copyRegion(startEntryOffset, entryCount);
+
+        return new MapBlock(
+                1,
+                new boolean[] {isNull(position)},
+                new int[] {0, entryCount},
+                newKeys,
+                newValues,
+                keyType);
+    }
+
+    @Override
+    public boolean isNull(int position)
+    {
+        checkReadablePosition(position);
+        return getMapIsNull()[position + getOffsetBase()];
+    }
+
+    private void checkReadablePosition(int position)
+    {
+        if (position < 0 || position >= getPositionCount()) {
+            throw new IllegalArgumentException("position is not valid");
+        }
+    }
+
+    static int computePosition(long hashCode, int hashTableSize)
+    {
+        return (int) ((Integer.toUnsignedLong(Long.hashCode(hashCode)) * hashTableSize) >> 32);
+    }
+}
@@ -30,6 +30,10 @@ public class LazyBlock
 
     private Block block;
 
+    private int[] selectedPositions;
+    private int selectedPositionCount;
+    private Block selectedBlock;
+
     public LazyBlock(int positionCount, LazyBlockLoader<LazyBlock> loader)
     {
         this.positionCount = positionCount;
@@ -233,6 +237,35 @@ public class LazyBlock
         this.block = requireNonNull(block, "block is null");
     }
 
+    /**
+     * Returns a block with only the values at the specified positions, which must be in
+     * increasing order, if the loader can decode just those values. Returns {@code null}
+     * if this block is already loaded or the loader can only load the whole block.
+     * This block itself is left unloaded, and can still be loaded in full.
+     */
+    public Block loadPositions(int[] positions, int positionCount)
+    {
+        if (block != null) {
+            return null;
+        }
+        if (selectedBlock != null && positions == selectedPositions && positionCount == selectedPositionCount) {
+            return selectedBlock;
+        }
+
+        Block selected = loader.loadPositions(this, positions, positionCount);
+        if (selected == null) {
+            return null;
+        }
+        if (selected.getPositionCount() != positionCount) {
+            throw new IllegalArgumentException("Lazy block loader did not load the selected positions");
+        }
+
+        selectedPositions = positions;
+        selectedPositionCount = positionCount;
+        selectedBlock = selected;
+        return selected;
+    }
+
     @Override
     public void assureLoaded()
     {
@@ -245,7 +278,9 @@ public class LazyBlock
             throw new IllegalArgumentException("Lazy block loader did not load this block");
         }
 
-        // clear reference to loader to free resources, since load was successful
+        // clear reference to loader and selected positions to free resources, since load was successful
         loader = null;
+        selectedPositions = null;
+        selectedBlock = null;
     }
 }
@@ -16,4 +16,15 @@ package com.facebook.presto.spi.block;
 public interface LazyBlockLoader<T extends Block>
 {
     void load(T block);
+
+    /**
+     * Loads only the values at the specified positions of the block, which are in
+     * increasing order. Returns {@code null} if the loader can only load the whole block.
+     * The whole block must still be loadable by {@link #load} afterwards, so a loader that
+     * cannot load the values again should return {@code null}.
+     */
+    default Block loadPositions(T block, int[] positions, int positionCount)
+    {
+        return null;
+    }
 }
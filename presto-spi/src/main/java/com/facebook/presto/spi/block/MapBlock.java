@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import com.facebook.presto.spi.type.Type;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static com.facebook.presto.spi.block.BlockUtil.intSaturatedCast;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+public class MapBlock
+        extends AbstractMapBlock
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(MapBlock.class).instanceSize();
+
+    private final int offsetBase;
+    private final int positionCount;
+    private final boolean[] mapIsNull;
+    private final int[] offsets;
+    private final Block keys;
+    private final Block values;
+
+    private volatile int[] hashTables;
+
+    private int sizeInBytes;
+    private final int retainedSizeInBytes;
+
+    public MapBlock(int positionCount, boolean[] mapIsNull, int[] offsets, Block keys, Block values, Type keyType)
+    {
+        this(0, positionCount, mapIsNull, offsets, keys, values, keyType);
+    }
+
+    MapBlock(int offsetBase, int positionCount, boolean[] mapIsNull, int[] offsets, Block keys, Block values, Type keyType)
+    {
+        super(keyType);
+
+        if (offsetBase < 0) {
+            throw new IllegalArgumentException("offsetBase is negative");
+        }
+        this.offsetBase = offsetBase;
+
+        if (positionCount < 0) {
+            throw new IllegalArgumentException("positionCount is negative");
+        }
+        this.positionCount = positionCount;
+
+        requireNonNull(mapIsNull, "mapIsNull is null");
+        if (mapIsNull.length - offsetBase < positionCount) {
+            throw new IllegalArgumentException("mapIsNull length is less than positionCount");
+        }
+        this.mapIsNull = mapIsNull;
+
+        requireNonNull(offsets, "offsets is null");
+        if (offsets.length - offsetBase < positionCount + 1) {
+            throw new IllegalArgumentException("offsets length is less than positionCount");
+        }
+        this.offsets = offsets;
+
+        this.keys = requireNonNull(keys, "keys is null");
+        this.values = requireNonNull(values, "values is null");
+        if (keys.getPositionCount() != values.getPositionCount()) {
+            throw new IllegalArgumentException("keys and values have different position counts: " + keys.getPositionCount() + " and " + values.getPositionCount());
+        }
+
+        sizeInBytes = -1;
+        retainedSizeInBytes = intSaturatedCast(INSTANCE_SIZE + keys.getRetainedSizeInBytes() + values.getRetainedSizeInBytes() + sizeOf(offsets) + sizeOf(mapIsNull));
+    }
+
+    @Override
+    public int getPositionCount()
+    {
+        return positionCount;
+    }
+
+    @Override
+    public int getSizeInBytes()
+    {
+        // this is racy but is safe because sizeInBytes is an int and the calculation is stable
+        if (sizeInBytes < 0) {
+            sizeInBytes = getRegionSizeInBytes(0, positionCount);
+        }
+        return sizeInBytes;
+    }
+
+    @Override
+    public int getRetainedSizeInBytes()
+    {
+        // the hash tables are built on demand, so they are accounted for once they exist
+        int[] hashTables = this.hashTables;
+        if (hashTables == null) {
+            return retainedSizeInBytes;
+        }
+        return intSaturatedCast(retainedSizeInBytes + sizeOf(hashTables));
+    }
+
+    @Override
+    protected Block getKeys()
+    {
+        return keys;
+    }
+
+    @Override
+    protected Block getValues()
+    {
+        return values;
+    }
+
+    @Override
+    protected int[] getOffsets()
+    {
+        return offsets;
+    }
+
+    @Override
+    protected int getOffsetBase()
+    {
+        return offsetBase;
+    }
+
+    @Override
+    protected boolean[] getMapIsNull()
+    {
+        return mapIsNull;
+    }
+
+    @Override
+    protected int[] getHashTables()
+    {
+        // this is racy but is safe because the hash tables are only published once fully built,
+        // and a concurrent build produces identical tables
+        int[] hashTables = this.hashTables;
+        if (hashTables == null) {
+            hashTables = buildHashTables();
+            this.hashTables = hashTables;
+        }
+        return hashTables;
+    }
+
+    private int[] buildHashTables()
+    {
+        int keysStart = offsets[offsetBase];
+        int[] hashTables = new int[(offsets[offsetBase + positionCount] - keysStart) * HASH_MULTIPLIER];
+        Arrays.fill(hashTables, -1);
+
+        for (int position = 0; position < positionCount; position++) {
+            int keysOffset = offsets[offsetBase + position];
+            int keyCount = offsets[offsetBase + position + 1] - keysOffset;
+            int hashTableOffset = (keysOffset - keysStart) * HASH_MULTIPLIER;
+            int hashTableSize = keyCount * HASH_MULTIPLIER;
+            for (int i = 0; i < keyCount; i++) {
+                if (keys.isNull(keysOffset + i)) {
+                    // null keys can never be found
+                    continue;
+                }
+                int slot = computePosition(keyType.hash(keys, keysOffset + i), hashTableSize);
+                while (hashTables[hashTableOffset + slot] != -1) {
+                    slot++;
+                    if (slot == hashTableSize) {
+                        slot = 0;
+                    }
+                }
+                hashTables[hashTableOffset + slot] = i;
+            }
+        }
+        return hashTables;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("MapBlock{");
+        sb.append("positionCount=").append(getPositionCount());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import com.facebook.presto.spi.type.Type;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static com.facebook.presto.spi.block.BlockUtil.calculateBlockResetSize;
+import static com.facebook.presto.spi.block.BlockUtil.intSaturatedCast;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+public class MapBlockBuilder
+        extends AbstractMapBlock
+        implements BlockBuilder
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(MapBlockBuilder.class).instanceSize() + BlockBuilderStatus.INSTANCE_SIZE;
+
+    private int positionCount;
+
+    private BlockBuilderStatus blockBuilderStatus;
+
+    private int[] offsets;
+    private boolean[] mapIsNull;
+
+    private final BlockBuilder keyBlockBuilder;
+    private final BlockBuilder valueBlockBuilder;
+    private boolean currentEntryOpened;
+
+    private int retainedSizeInBytes;
+
+    public MapBlockBuilder(Type keyType, Type valueType, BlockBuilderStatus blockBuilderStatus, int expectedEntries, int expectedBytesPerEntry)
+    {
+        this(
+                keyType,
+                blockBuilderStatus,
+                keyType.createBlockBuilder(blockBuilderStatus, expectedEntries, expectedBytesPerEntry),
+                valueType.createBlockBuilder(blockBuilderStatus, expectedEntries, expectedBytesPerEntry),
+                new int[expectedEntries + 1],
+                new boolean[expectedEntries]);
+    }
+
+    public MapBlockBuilder(Type keyType, Type valueType, BlockBuilderStatus blockBuilderStatus, int expectedEntries)
+    {
+        this(
+                keyType,
+                blockBuilderStatus,
+                keyType.createBlockBuilder(blockBuilderStatus, expectedEntries),
+                valueType.createBlockBuilder(blockBuilderStatus, expectedEntries),
+                new int[expectedEntries + 1],
+                new boolean[expectedEntries]);
+    }
+
+    /**
+     * Caller of this private constructor is responsible for making sure `keyBlockBuilder` and `valueBlockBuilder` are constructed with the same `blockBuilderStatus` as the one in the argument
+     */
+    private MapBlockBuilder(Type keyType, BlockBuilderStatus blockBuilderStatus, BlockBuilder keyBlockBuilder, BlockBuilder valueBlockBuilder, int[] offsets, boolean[] mapIsNull)
+    {
+        super(keyType);
+        this.blockBuilderStatus = requireNonNull(blockBuilderStatus, "blockBuilderStatus is null");
+        this.keyBlockBuilder = requireNonNull(keyBlockBuilder, "keyBlockBuilder is null");
+        this.valueBlockBuilder = requireNonNull(valueBlockBuilder, "valueBlockBuilder is null");
+        this.offsets = requireNonNull(offsets, "offsets is null");
+        this.mapIsNull = requireNonNull(mapIsNull, "mapIsNull is null");
+        if (offsets.length != mapIsNull.length + 1) {
+            throw new IllegalArgumentException("expected offsets and mapIsNull to have same length");
+        }
+
+        updateDataSize();
+    }
+
+    @Override
+    public int getPositionCount()
+    {
+        return positionCount;
+    }
+
+    @Override
+    public int getSizeInBytes()
+    {
+        return keyBlockBuilder.getSizeInBytes() + valueBlockBuilder.getSizeInBytes() + ((Integer.BYTES + Byte.BYTES) * positionCount);
+    }
+
+    @Override
+    public int getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes + keyBlockBuilder.getRetainedSizeInBytes() + valueBlockBuilder.getRetainedSizeInBytes();
+    }
+
+    @Override
+    protected Block getKeys()
+    {
+        return keyBlockBuilder;
+    }
+
+    @Override
+    protected Block getValues()
+    {
+        return valueBlockBuilder;
+    }
+
+    @Override
+    protected int[] getOffsets()
+    {
+        return offsets;
+    }
+
+    @Override
+    protected int getOffsetBase()
+    {
+        return 0;
+    }
+
+    @Override
+    protected boolean[] getMapIsNull()
+    {
+        return mapIsNull;
+    }
+
+    @Override
+    protected int[] getHashTables()
+    {
+        // maps are not indexed while the block is still growing
+        return null;
+    }
+
+    @Override
+    public BlockBuilder writeObject(Object value)
+    {
+        if (currentEntryOpened) {
+            throw new IllegalStateException("Expected current entry to be closed but was opened");
+        }
+
+        Block block = (Block) value;
+        if (block.getPositionCount() % 2 != 0) {
+            throw new IllegalArgumentException("map block must have an even number of positions: " + block.getPositionCount());
+        }
+        for (int i = 0; i < block.getPositionCount(); i += 2) {
+            writeElementTo(block, i, keyBlockBuilder);
+            writeElementTo(block, i + 1, valueBlockBuilder);
+        }
+
+        currentEntryOpened = true;
+        return this;
+    }
+
+    private static void writeElementTo(Block block, int position, BlockBuilder blockBuilder)
+    {
+        if (block.isNull(position)) {
+            blockBuilder.appendNull();
+        }
+        else {
+            block.writePositionTo(position, blockBuilder);
+            blockBuilder.closeEntry();
+        }
+    }
+
+    @Override
+    public SingleMapBlockWriter beginBlockEntry()
+    {
+        if (currentEntryOpened) {
+            throw new IllegalStateException("Expected current entry to be closed but was opened");
+        }
+        currentEntryOpened = true;
+        return new SingleMapBlockWriter(keyBlockBuilder, valueBlockBuilder, keyBlockBuilder.getPositionCount());
+    }
+
+    @Override
+    public BlockBuilder closeEntry()
+    {
+        if (!currentEntryOpened) {
+            throw new IllegalStateException("Expected entry to be opened but was closed");
+        }
+        if (keyBlockBuilder.getPositionCount() != valueBlockBuilder.getPositionCount()) {
+            throw new IllegalStateException("Expected the same number of keys and values but got " + keyBlockBuilder.getPositionCount() + " keys and " + valueBlockBuilder.getPositionCount() + " values");
+        }
+
+        entryAdded(false);
+        currentEntryOpened = false;
+        return this;
+    }
+
+    @Override
+    public BlockBuilder appendNull()
+    {
+        if (currentEntryOpened) {
+            throw new IllegalStateException("Current entry must be closed before a null can be written");
+        }
+
+        entryAdded(true);
+        return this;
+    }
+
+    private void entryAdded(boolean isNull)
+    {
+        if (mapIsNull.length <= positionCount) {
+            growCapacity();
+        }
+        offsets[positionCount + 1] = keyBlockBuilder.getPositionCount();
+        mapIsNull[positionCount] = isNull;
+        positionCount++;
+
+        blockBuilderStatus.addBytes(Integer.BYTES + Byte.BYTES);
+    }
+
+    private void growCapacity()
+    {
+        int newSize = BlockUtil.calculateNewArraySize(mapIsNull.length);
+        mapIsNull = Arrays.copyOf(mapIsNull, newSize);
+        offsets = Arrays.copyOf(offsets, newSize + 1);
+        updateDataSize();
+    }
+
+    private void updateDataSize()
+    {
+        retainedSizeInBytes = intSaturatedCast(INSTANCE_SIZE + sizeOf(mapIsNull) + sizeOf(offsets));
+    }
+
+    @Override
+    public MapBlock build()
+    {
+        if (currentEntryOpened) {
+            throw new IllegalStateException("Current entry must be closed before the block can be built");
+        }
+        return new MapBlock(positionCount, mapIsNull, offsets, keyBlockBuilder.build(), valueBlockBuilder.build(), keyType);
+    }
+
+    @Override
+    public void reset(BlockBuilderStatus blockBuilderStatus)
+    {
+        this.blockBuilderStatus = requireNonNull(blockBuilderStatus, "blockBuilderStatus is null");
+
+        int newSize = calculateBlockResetSize(getPositionCount());
+        mapIsNull = new boolean[newSize];
+        offsets = new int[newSize + 1];
+        keyBlockBuilder.reset(blockBuilderStatus);
+        valueBlockBuilder.reset(blockBuilderStatus);
+
+        currentEntryOpened = false;
+        positionCount = 0;
+
+        updateDataSize();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("MapBlockBuilder{");
+        sb.append("positionCount=").append(getPositionCount());
+        sb.append('}');
+        return sb.toString();
+    }
+}
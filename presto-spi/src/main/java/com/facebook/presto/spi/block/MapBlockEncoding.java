@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+
+import static com.facebook.presto.spi.type.TypeSignature.parseTypeSignature;
+import static java.util.Objects.requireNonNull;
+
+public class MapBlockEncoding
+        implements BlockEncoding
+{
+    public static final BlockEncodingFactory<MapBlockEncoding> FACTORY = new MapBlockEncodingFactory();
+    private static final String NAME = "MAP";
+
+    private final Type keyType;
+    private final BlockEncoding keyBlockEncoding;
+    private final BlockEncoding valueBlockEncoding;
+
+    public MapBlockEncoding(Type keyType, BlockEncoding keyBlockEncoding, BlockEncoding valueBlockEncoding)
+    {
+        this.keyType = requireNonNull(keyType, "keyType is null");
+        this.keyBlockEncoding = requireNonNull(keyBlockEncoding, "keyBlockEncoding is null");
+        this.valueBlockEncoding = requireNonNull(valueBlockEncoding, "valueBlockEncoding is null");
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public void writeBlock(SliceOutput sliceOutput, Block block)
+    {
+        AbstractMapBlock mapBlock = (AbstractMapBlock) block;
+
+        int positionCount = mapBlock.getPositionCount();
+
+        int offsetBase = mapBlock.getOffsetBase();
+        int[] offsets = mapBlock.getOffsets();
+
+        int entriesStartOffset = offsets[offsetBase];
+        int entriesEndOffset = offsets[offsetBase + positionCount];
+        keyBlockEncoding.writeBlock(sliceOutput, mapBlock.getKeys().getRegion(entriesStartOffset, entriesEndOffset - entriesStartOffset));
+        valueBlockEncoding.writeBlock(sliceOutput, mapBlock.getValues().getRegion(entriesStartOffset, entriesEndOffset - entriesStartOffset));
+
+        sliceOutput.appendInt(positionCount);
+        for (int position = 0; position < positionCount + 1; position++) {
+            sliceOutput.writeInt(offsets[offsetBase + position] - entriesStartOffset);
+        }
+        EncoderUtil.encodeNullsAsBits(sliceOutput, block);
+    }
+
+    @Override
+    public Block readBlock(SliceInput sliceInput)
+    {
+        Block keys = keyBlockEncoding.readBlock(sliceInput);
+        Block values = valueBlockEncoding.readBlock(sliceInput);
+
+        int positionCount = sliceInput.readInt();
+        int[] offsets = new int[positionCount + 1];
+        sliceInput.readBytes(Slices.wrappedIntArray(offsets));
+        boolean[] mapIsNull = EncoderUtil.decodeNullBits(sliceInput, positionCount);
+        return new MapBlock(positionCount, mapIsNull, offsets, keys, values, keyType);
+    }
+
+    @Override
+    public BlockEncodingFactory getFactory()
+    {
+        return FACTORY;
+    }
+
+    public static class MapBlockEncodingFactory
+            implements BlockEncodingFactory<MapBlockEncoding>
+    {
+        @Override
+        public String getName()
+        {
+            return NAME;
+        }
+
+        @Override
+        public MapBlockEncoding readEncoding(TypeManager manager, BlockEncodingSerde serde, SliceInput input)
+        {
+            // the key type is needed to index the maps after they are read
+            int keyTypeLength = input.readInt();
+            String keyTypeSignature = input.readSlice(keyTypeLength).toStringUtf8();
+            Type keyType = manager.getType(parseTypeSignature(keyTypeSignature));
+            if (keyType == null) {
+                throw new IllegalArgumentException("Unknown map key type " + keyTypeSignature);
+            }
+
+            BlockEncoding keyBlockEncoding = serde.readBlockEncoding(input);
+            BlockEncoding valueBlockEncoding = serde.readBlockEncoding(input);
+            return new MapBlockEncoding(keyType, keyBlockEncoding, valueBlockEncoding);
+        }
+
+        @Override
+        public void writeEncoding(BlockEncodingSerde serde, SliceOutput output, MapBlockEncoding blockEncoding)
+        {
+            Slice keyTypeSignature = Slices.utf8Slice(blockEncoding.keyType.getTypeSignature().toString());
+            output.writeInt(keyTypeSignature.length());
+            output.writeBytes(keyTypeSignature);
+
+            serde.writeBlockEncoding(output, blockEncoding.keyBlockEncoding);
+            serde.writeBlockEncoding(output, blockEncoding.valueBlockEncoding);
+        }
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import com.facebook.presto.spi.type.AbstractLongType;
+import com.facebook.presto.spi.type.CharType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.VarcharType;
+import io.airlift.slice.Slice;
+import io.airlift.slice.XxHash64;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.facebook.presto.spi.block.AbstractMapBlock.HASH_MULTIPLIER;
+import static com.facebook.presto.spi.block.AbstractMapBlock.computePosition;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TimeType.TIME;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.facebook.presto.spi.type.TypeUtils.writeNativeValue;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static java.lang.Double.doubleToLongBits;
+
+/**
+ * A single map of a {@link MapBlock}, exposed as an interleaved block of its keys (even positions)
+ * and values (odd positions). Keys can be looked up with {@code seekKey} in constant time.
+ */
+public class SingleMapBlock
+        extends AbstractInterleavedBlock
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(SingleMapBlock.class).instanceSize();
+
+    private final AbstractMapBlock mapBlock;
+    private final int offset;
+    private final int positionCount;
+
+    SingleMapBlock(AbstractMapBlock mapBlock, int offset, int positionCount)
+    {
+        super(2);
+        this.mapBlock = mapBlock;
+        this.offset = offset;
+        this.positionCount = positionCount;
+    }
+
+    @Override
+    protected Block getBlock(int blockIndex)
+    {
+        if (blockIndex == 0) {
+            return mapBlock.getKeys();
+        }
+        if (blockIndex == 1) {
+            return mapBlock.getValues();
+        }
+        throw new IllegalArgumentException("position is not valid");
+    }
+
+    @Override
+    protected int toAbsolutePosition(int position)
+    {
+        return position + offset * 2;
+    }
+
+    @Override
+    public InterleavedBlockEncoding getEncoding()
+    {
+        return computeBlockEncoding();
+    }
+
+    @Override
+    public int getPositionCount()
+    {
+        return positionCount;
+    }
+
+    @Override
+    public int getSizeInBytes()
+    {
+        return getRegionSizeInBytes(0, positionCount);
+    }
+
+    @Override
+    public int getRegionSizeInBytes(int position, int length)
+    {
+        validateRange(position, length);
+        int entryOffset = offset + position / 2;
+        int entryCount = length / 2;
+        return mapBlock.getKeys().getRegionSizeInBytes(entryOffset, entryCount) +
+                mapBlock.getValues().getRegionSizeInBytes(entryOffset, entryCount);
+    }
+
+    @Override
+    public int getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + mapBlock.getRetainedSizeInBytes();
+    }
+
+    @Override
+    public Block getRegion(int position, int length)
+    {
+        validateRange(position, length);
+        return sliceRange(position, length, false);
+    }
+
+    /**
+     * Returns the position of the value of the key at {@code position} in {@code block},
+     * or -1 if this map does not contain the key.
+     */
+    public int seekKey(Block block, int position)
+    {
+        if (positionCount == 0) {
+            return -1;
+        }
+
+        Type keyType = mapBlock.keyType;
+        Block keys = mapBlock.getKeys();
+        int[] hashTables = mapBlock.getHashTables();
+        if (hashTables == null) {
+            // the map is still being built
+            for (int i = 0; i < positionCount / 2; i++) {
+                if (!keys.isNull(offset + i) && keyType.equalTo(keys, offset + i, block, position)) {
+                    return i * 2 + 1;
+                }
+            }
+            return -1;
+        }
+
+        int hashTableOffset = getHashTableOffset();
+        int hashTableSize = getHashTableSize();
+        int slot = computePosition(keyType.hash(block, position), hashTableSize);
+        while (true) {
+            int keyPosition = hashTables[hashTableOffset + slot];
+            if (keyPosition == -1) {
+                return -1;
+            }
+            if (keyType.equalTo(keys, offset + keyPosition, block, position)) {
+                return keyPosition * 2 + 1;
+            }
+            slot++;
+            if (slot == hashTableSize) {
+                slot = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the value of {@code nativeKey}, which is a value of the
+     * Java type of the key type, or -1 if this map does not contain the key.
+     */
+    public int seekKey(Object nativeKey)
+    {
+        if (positionCount == 0) {
+            return -1;
+        }
+
+        BlockBuilder keyBlockBuilder = mapBlock.keyType.createBlockBuilder(new BlockBuilderStatus(), 1);
+        writeNativeValue(mapBlock.keyType, keyBlockBuilder, nativeKey);
+        return seekKey(keyBlockBuilder, 0);
+    }
+
+    /**
+     * Same as {@link #seekKey(Object)} for a key of Java type {@code long}, but
+     * without allocating for the common integral, date and time key types.
+     */
+    public int seekKeyExact(long nativeKey)
+    {
+        if (positionCount == 0) {
+            return -1;
+        }
+
+        Type keyType = mapBlock.keyType;
+        if (!isLongKeyType(keyType)) {
+            return seekKey((Object) nativeKey);
+        }
+
+        Block keys = mapBlock.getKeys();
+        int[] hashTables = mapBlock.getHashTables();
+        if (hashTables == null) {
+            for (int i = 0; i < positionCount / 2; i++) {
+                if (!keys.isNull(offset + i) && keyType.getLong(keys, offset + i) == nativeKey) {
+                    return i * 2 + 1;
+                }
+            }
+            return -1;
+        }
+
+        int hashTableOffset = getHashTableOffset();
+        int hashTableSize = getHashTableSize();
+        int slot = computePosition(AbstractLongType.hash(nativeKey), hashTableSize);
+        while (true) {
+            int keyPosition = hashTables[hashTableOffset + slot];
+            if (keyPosition == -1) {
+                return -1;
+            }
+            if (keyType.getLong(keys, offset + keyPosition) == nativeKey) {
+                return keyPosition * 2 + 1;
+            }
+            slot++;
+            if (slot == hashTableSize) {
+                slot = 0;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #seekKey(Object)} for a key of Java type {@code double}, but
+     * without allocating for {@code DOUBLE} keys.
+     */
+    public int seekKeyExact(double nativeKey)
+    {
+        if (positionCount == 0) {
+            return -1;
+        }
+
+        if (!mapBlock.keyType.equals(DOUBLE)) {
+            return seekKey((Object) nativeKey);
+        }
+
+        if (nativeKey == 0) {
+            // 0.0 and -0.0 are equal but hash differently, so the key may be stored with either sign
+            int valuePosition = seekDoubleKey(0.0);
+            if (valuePosition != -1) {
+                return valuePosition;
+            }
+            return seekDoubleKey(-0.0);
+        }
+        return seekDoubleKey(nativeKey);
+    }
+
+    private int seekDoubleKey(double nativeKey)
+    {
+        Block keys = mapBlock.getKeys();
+        int[] hashTables = mapBlock.getHashTables();
+        if (hashTables == null) {
+            for (int i = 0; i < positionCount / 2; i++) {
+                if (!keys.isNull(offset + i) && DOUBLE.getDouble(keys, offset + i) == nativeKey) {
+                    return i * 2 + 1;
+                }
+            }
+            return -1;
+        }
+
+        int hashTableOffset = getHashTableOffset();
+        int hashTableSize = getHashTableSize();
+        int slot = computePosition(AbstractLongType.hash(doubleToLongBits(nativeKey)), hashTableSize);
+        while (true) {
+            int keyPosition = hashTables[hashTableOffset + slot];
+            if (keyPosition == -1) {
+                return -1;
+            }
+            // direct equality is correct here
+            // noinspection FloatingPointEquality
+            if (DOUBLE.getDouble(keys, offset + keyPosition) == nativeKey) {
+                return keyPosition * 2 + 1;
+            }
+            slot++;
+            if (slot == hashTableSize) {
+                slot = 0;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #seekKey(Object)} for a key of Java type {@code boolean}, but
+     * without allocating for {@code BOOLEAN} keys.
+     */
+    public int seekKeyExact(boolean nativeKey)
+    {
+        if (positionCount == 0) {
+            return -1;
+        }
+
+        if (!mapBlock.keyType.equals(BOOLEAN)) {
+            return seekKey((Object) nativeKey);
+        }
+
+        Block keys = mapBlock.getKeys();
+        int[] hashTables = mapBlock.getHashTables();
+        if (hashTables == null) {
+            for (int i = 0; i < positionCount / 2; i++) {
+                if (!keys.isNull(offset + i) && BOOLEAN.getBoolean(keys, offset + i) == nativeKey) {
+                    return i * 2 + 1;
+                }
+            }
+            return -1;
+        }
+
+        int hashTableOffset = getHashTableOffset();
+        int hashTableSize = getHashTableSize();
+        // same hash as BooleanType
+        int slot = computePosition(nativeKey ? 1231 : 1237, hashTableSize);
+        while (true) {
+            int keyPosition = hashTables[hashTableOffset + slot];
+            if (keyPosition == -1) {
+                return -1;
+            }
+            if (BOOLEAN.getBoolean(keys, offset + keyPosition) == nativeKey) {
+                return keyPosition * 2 + 1;
+            }
+            slot++;
+            if (slot == hashTableSize) {
+                slot = 0;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #seekKey(Object)} for a key of Java type {@link Slice}, but
+     * without allocating for varchar, char and varbinary keys.
+     */
+    public int seekKeyExact(Slice nativeKey)
+    {
+        if (positionCount == 0) {
+            return -1;
+        }
+
+        Type keyType = mapBlock.keyType;
+        if (!isBytesKeyType(keyType)) {
+            return seekKey((Object) nativeKey);
+        }
+
+        Block keys = mapBlock.getKeys();
+        int[] hashTables = mapBlock.getHashTables();
+        if (hashTables == null) {
+            for (int i = 0; i < positionCount / 2; i++) {
+                if (!keys.isNull(offset + i) && keyBytesEqual(keys, offset + i, nativeKey)) {
+                    return i * 2 + 1;
+                }
+            }
+            return -1;
+        }
+
+        int hashTableOffset = getHashTableOffset();
+        int hashTableSize = getHashTableSize();
+        int slot = computePosition(XxHash64.hash(nativeKey), hashTableSize);
+        while (true) {
+            int keyPosition = hashTables[hashTableOffset + slot];
+            if (keyPosition == -1) {
+                return -1;
+            }
+            if (keyBytesEqual(keys, offset + keyPosition, nativeKey)) {
+                return keyPosition * 2 + 1;
+            }
+            slot++;
+            if (slot == hashTableSize) {
+                slot = 0;
+            }
+        }
+    }
+
+    private int getHashTableOffset()
+    {
+        return (offset - mapBlock.getOffsets()[mapBlock.getOffsetBase()]) * HASH_MULTIPLIER;
+    }
+
+    private int getHashTableSize()
+    {
+        return positionCount / 2 * HASH_MULTIPLIER;
+    }
+
+    private static boolean keyBytesEqual(Block keys, int position, Slice nativeKey)
+    {
+        int length = keys.getSliceLength(position);
+        return length == nativeKey.length() && keys.bytesEqual(position, 0, nativeKey, 0, length);
+    }
+
+    // types which hash the value with AbstractLongType.hash and compare it directly
+    private static boolean isLongKeyType(Type type)
+    {
+        return type.equals(BIGINT) ||
+                type.equals(INTEGER) ||
+                type.equals(SMALLINT) ||
+                type.equals(TINYINT) ||
+                type.equals(DATE) ||
+                type.equals(TIME) ||
+                type.equals(TIMESTAMP);
+    }
+
+    // types which hash the value with XxHash64 and compare its bytes
+    private static boolean isBytesKeyType(Type type)
+    {
+        return type instanceof VarcharType || type instanceof CharType || type.equals(VARBINARY);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("SingleMapBlock{");
+        sb.append("positionCount=").append(getPositionCount());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
+
+/**
+ * Writes the entries of a single map of a {@link MapBlockBuilder}. Positions alternate
+ * between keys and values, as in the interleaved block returned by {@link SingleMapBlock}.
+ */
+public class SingleMapBlockWriter
+        extends AbstractInterleavedBlock
+        implements BlockBuilder
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(SingleMapBlockWriter.class).instanceSize();
+
+    private final BlockBuilder keyBlockBuilder;
+    private final BlockBuilder valueBlockBuilder;
+    private final int start;
+    private final int initialBlockBuilderSize;
+    private int positionsWritten;
+
+    SingleMapBlockWriter(BlockBuilder keyBlockBuilder, BlockBuilder valueBlockBuilder, int start)
+    {
+        super(2);
+        this.keyBlockBuilder = keyBlockBuilder;
+        this.valueBlockBuilder = valueBlockBuilder;
+        this.start = start;
+        this.initialBlockBuilderSize = keyBlockBuilder.getSizeInBytes() + valueBlockBuilder.getSizeInBytes();
+    }
+
+    @Override
+    protected Block getBlock(int blockIndex)
+    {
+        if (blockIndex == 0) {
+            return keyBlockBuilder;
+        }
+        if (blockIndex == 1) {
+            return valueBlockBuilder;
+        }
+        throw new IllegalArgumentException("position is not valid");
+    }
+
+    @Override
+    protected int toAbsolutePosition(int position)
+    {
+        return position + start * 2;
+    }
+
+    @Override
+    public InterleavedBlockEncoding getEncoding()
+    {
+        return computeBlockEncoding();
+    }
+
+    private BlockBuilder getCurrentBlockBuilder()
+    {
+        return positionsWritten % 2 == 0 ? keyBlockBuilder : valueBlockBuilder;
+    }
+
+    @Override
+    public int getSizeInBytes()
+    {
+        return keyBlockBuilder.getSizeInBytes() + valueBlockBuilder.getSizeInBytes() - initialBlockBuilderSize;
+    }
+
+    @Override
+    public int getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + keyBlockBuilder.getRetainedSizeInBytes() + valueBlockBuilder.getRetainedSizeInBytes();
+    }
+
+    @Override
+    public BlockBuilder writeByte(int value)
+    {
+        getCurrentBlockBuilder().writeByte(value);
+        return this;
+    }
+
+    @Override
+    public BlockBuilder writeShort(int value)
+    {
+        getCurrentBlockBuilder().writeShort(value);
+        return this;
+    }
+
+    @Override
+    public BlockBuilder writeInt(int value)
+    {
+        getCurrentBlockBuilder().writeInt(value);
+        return this;
+    }
+
+    @Override
+    public BlockBuilder writeLong(long value)
+    {
+        getCurrentBlockBuilder().writeLong(value);
+        return this;
+    }
+
+    @Override
+    public BlockBuilder writeBytes(Slice source, int sourceIndex, int length)
+    {
+        getCurrentBlockBuilder().writeBytes(source, sourceIndex, length);
+        return this;
+    }
+
+    @Override
+    public BlockBuilder writeObject(Object value)
+    {
+        getCurrentBlockBuilder().writeObject(value);
+        return this;
+    }
+
+    @Override
+    public BlockBuilder beginBlockEntry()
+    {
+        return getCurrentBlockBuilder().beginBlockEntry();
+    }
+
+    @Override
+    public BlockBuilder appendNull()
+    {
+        getCurrentBlockBuilder().appendNull();
+        entryAdded();
+        return this;
+    }
+
+    @Override
+    public BlockBuilder closeEntry()
+    {
+        getCurrentBlockBuilder().closeEntry();
+        entryAdded();
+        return this;
+    }
+
+    private void entryAdded()
+    {
+        positionsWritten++;
+    }
+
+    @Override
+    public int getPositionCount()
+    {
+        return positionsWritten;
+    }
+
+    @Override
+    public Block getRegion(int position, int length)
+    {
+        validateRange(position, length);
+        return sliceRange(position, length, false);
+    }
+
+    @Override
+    public Block build()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void reset(BlockBuilderStatus blockBuilderStatus)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("SingleMapBlockWriter{");
+        sb.append("positionCount=").append(getPositionCount());
+        sb.append('}');
+        return sb.toString();
+    }
+}
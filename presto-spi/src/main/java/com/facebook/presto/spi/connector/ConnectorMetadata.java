@@ -34,6 +34,7 @@ import com.facebook.presto.spi.SchemaTablePrefix;
 import com.facebook.presto.spi.TableIdentity;
 import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.security.Privilege;
+import com.facebook.presto.spi.statistics.TableStatistics;
 import io.airlift.slice.Slice;
 
 import java.util.Collection;
@@ -101,6 +102,14 @@ public interface ConnectorMetadata
         return Optional.empty();
     }
 
+    /**
+     * Get statistics for the table, restricted to the data that may satisfy the given constraint.
+     */
+    default TableStatistics getTableStatistics(ConnectorSession session, ConnectorTableHandle tableHandle, Constraint<ColumnHandle> constraint)
+    {
+        return TableStatistics.EMPTY_STATISTICS;
+    }
+
     /**
      * List table names, possibly filtered by schema. An empty list is returned if none match.
      */
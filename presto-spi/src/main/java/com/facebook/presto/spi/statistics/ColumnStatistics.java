@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.statistics;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+public final class ColumnStatistics
+{
+    private static final ColumnStatistics UNKNOWN = new ColumnStatistics(
+            Estimate.unknownValue(),
+            Estimate.unknownValue(),
+            Estimate.unknownValue(),
+            Optional.empty(),
+            Optional.empty());
+
+    private final Estimate nullsFraction;
+    private final Estimate distinctValuesCount;
+    private final Estimate dataSize;
+    private final Optional<Object> lowValue;
+    private final Optional<Object> highValue;
+
+    public static ColumnStatistics unknown()
+    {
+        return UNKNOWN;
+    }
+
+    /**
+     * @param lowValue lowest non-null value, in the native representation of the column type
+     * @param highValue highest non-null value, in the native representation of the column type
+     */
+    public ColumnStatistics(
+            Estimate nullsFraction,
+            Estimate distinctValuesCount,
+            Estimate dataSize,
+            Optional<Object> lowValue,
+            Optional<Object> highValue)
+    {
+        this.nullsFraction = requireNonNull(nullsFraction, "nullsFraction is null");
+        this.distinctValuesCount = requireNonNull(distinctValuesCount, "distinctValuesCount is null");
+        this.dataSize = requireNonNull(dataSize, "dataSize is null");
+        this.lowValue = requireNonNull(lowValue, "lowValue is null");
+        this.highValue = requireNonNull(highValue, "highValue is null");
+    }
+
+    public Estimate getNullsFraction()
+    {
+        return nullsFraction;
+    }
+
+    public Estimate getDistinctValuesCount()
+    {
+        return distinctValuesCount;
+    }
+
+    /**
+     * Total size in bytes of the column values.
+     */
+    public Estimate getDataSize()
+    {
+        return dataSize;
+    }
+
+    public Optional<Object> getLowValue()
+    {
+        return lowValue;
+    }
+
+    public Optional<Object> getHighValue()
+    {
+        return highValue;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ColumnStatistics that = (ColumnStatistics) o;
+        return Objects.equals(nullsFraction, that.nullsFraction) &&
+                Objects.equals(distinctValuesCount, that.distinctValuesCount) &&
+                Objects.equals(dataSize, that.dataSize) &&
+                Objects.equals(lowValue, that.lowValue) &&
+                Objects.equals(highValue, that.highValue);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(nullsFraction, distinctValuesCount, dataSize, lowValue, highValue);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ColumnStatistics{" +
+                "nullsFraction=" + nullsFraction +
+                ", distinctValuesCount=" + distinctValuesCount +
+                ", dataSize=" + dataSize +
+                ", lowValue=" + lowValue +
+                ", highValue=" + highValue +
+                '}';
+    }
+}
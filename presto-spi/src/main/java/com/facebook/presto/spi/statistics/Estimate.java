@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.statistics;
+
+import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
+
+import static java.lang.Double.isNaN;
+
+/**
+ * A statistic value which may be unknown.
+ */
+public final class Estimate
+{
+    // unknown value is represented by NaN
+    private static final double UNKNOWN_VALUE = Double.NaN;
+
+    private final double value;
+
+    public static Estimate unknownValue()
+    {
+        return new Estimate(UNKNOWN_VALUE);
+    }
+
+    public static Estimate zeroValue()
+    {
+        return new Estimate(0);
+    }
+
+    public Estimate(double value)
+    {
+        this.value = value;
+    }
+
+    public boolean isValueUnknown()
+    {
+        return isNaN(value);
+    }
+
+    public double getValue()
+    {
+        return value;
+    }
+
+    public Estimate map(DoubleUnaryOperator mappingFunction)
+    {
+        if (isValueUnknown()) {
+            return this;
+        }
+        return new Estimate(mappingFunction.applyAsDouble(value));
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Estimate estimate = (Estimate) o;
+        return Double.compare(estimate.value, value) == 0;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(value);
+    }
+
+    @Override
+    public String toString()
+    {
+        return isValueUnknown() ? "unknown" : Double.toString(value);
+    }
+}
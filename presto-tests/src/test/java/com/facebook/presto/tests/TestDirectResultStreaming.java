@@ -0,0 +1,170 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.tests;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.client.ClientSession;
+import com.facebook.presto.client.QueryResults;
+import com.facebook.presto.client.StatementClient;
+import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.jetty.JettyHttpClient;
+import io.airlift.units.Duration;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static com.facebook.presto.SystemSessionProperties.DIRECT_RESULT_STREAMING;
+import static com.facebook.presto.tests.QueryAssertions.assertEqualsIgnoreOrder;
+import static com.facebook.presto.tests.tpch.TpchQueryRunner.createQueryRunner;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestDirectResultStreaming
+{
+    private DistributedQueryRunner queryRunner;
+    private HttpClient httpClient;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        queryRunner = createQueryRunner();
+        httpClient = new JettyHttpClient();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        queryRunner.close();
+        httpClient.close();
+    }
+
+    @Test
+    public void testResults()
+    {
+        assertSameResults("SELECT orderkey, custkey, totalprice, orderpriority FROM orders");
+        assertSameResults("SELECT o.orderkey, l.linenumber FROM orders o JOIN lineitem l ON o.orderkey = l.orderkey WHERE l.quantity > 45");
+        assertSameResults("SELECT custkey, count(*) FROM orders GROUP BY custkey");
+        assertSameResults("SELECT orderkey FROM orders WHERE orderkey < 0");
+    }
+
+    @Test
+    public void testResultsReadFromTasks()
+    {
+        List<QueryResults> results = execute("SELECT orderkey, comment FROM orders");
+
+        // the output stage is distributed, so several nodes serve results
+        QueryResults last = results.get(results.size() - 1);
+        assertNull(last.getError());
+        assertNotNull(last.getResultLocations());
+        assertTrue(last.getResultLocations().size() > 1);
+
+        long rows = results.stream()
+                .filter(result -> result.getData() != null)
+                .peek(result -> assertNull(result.getBinaryData()))
+                .mapToLong(result -> ImmutableList.copyOf(result.getData()).size())
+                .sum();
+        assertEquals(rows, 15000L);
+    }
+
+    @Test
+    public void testResultsWithChecksums()
+            throws Exception
+    {
+        try (DistributedQueryRunner checksumQueryRunner = createQueryRunner(ImmutableMap.of("exchange.checksum-enabled", "true"))) {
+            List<QueryResults> results = execute(checksumQueryRunner, "SELECT orderkey, comment FROM orders");
+
+            QueryResults last = results.get(results.size() - 1);
+            assertNull(last.getError());
+            assertNotNull(last.getResultLocations());
+
+            long rows = results.stream()
+                    .filter(result -> result.getData() != null)
+                    .mapToLong(result -> ImmutableList.copyOf(result.getData()).size())
+                    .sum();
+            assertEquals(rows, 15000L);
+        }
+    }
+
+    @Test
+    public void testFallbackToCoordinator()
+    {
+        // dates are not sent in binary format, so the coordinator reads the distributed output
+        List<QueryResults> results = execute("SELECT orderkey, orderdate FROM orders");
+        assertTrue(results.stream().allMatch(result -> result.getResultLocations() == null));
+        assertSameResults("SELECT orderkey, orderdate FROM orders");
+
+        // ordered results are produced by a single task
+        assertSameResults("SELECT orderkey FROM orders ORDER BY orderkey DESC LIMIT 100");
+    }
+
+    private void assertSameResults(@Language("SQL") String sql)
+    {
+        Session directSession = Session.builder(queryRunner.getDefaultSession())
+                .setSystemProperty(DIRECT_RESULT_STREAMING, "true")
+                .build();
+        MaterializedResult expected = queryRunner.execute(sql);
+        MaterializedResult actual = queryRunner.execute(directSession, sql);
+        assertEquals(actual.getTypes(), expected.getTypes());
+        if (sql.contains("ORDER BY")) {
+            assertEquals(actual.getMaterializedRows(), expected.getMaterializedRows());
+        }
+        else {
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+        }
+    }
+
+    private List<QueryResults> execute(@Language("SQL") String sql)
+    {
+        return execute(queryRunner, sql);
+    }
+
+    private List<QueryResults> execute(DistributedQueryRunner queryRunner, @Language("SQL") String sql)
+    {
+        ClientSession session = new ClientSession(
+                queryRunner.getCoordinator().getBaseUrl(),
+                "user",
+                "test",
+                null,
+                "tpch",
+                "tiny",
+                "UTC",
+                Locale.ENGLISH,
+                ImmutableMap.of(DIRECT_RESULT_STREAMING, "true"),
+                null,
+                false,
+                new Duration(2, MINUTES));
+
+        ImmutableList.Builder<QueryResults> results = ImmutableList.builder();
+        try (StatementClient client = new StatementClient(httpClient, jsonCodec(QueryResults.class), session, sql)) {
+            while (client.isValid()) {
+                results.add(client.current());
+                client.advance();
+            }
+        }
+        return results.build();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.tests;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.QueryInfo;
+import com.facebook.presto.execution.buffer.PageCompression;
+import com.facebook.presto.operator.OperatorStats;
+import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.collect.ImmutableMap;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.facebook.presto.SystemSessionProperties.EXCHANGE_COMPRESSION;
+import static com.facebook.presto.SystemSessionProperties.EXCHANGE_COMPRESSION_ADAPTIVE;
+import static com.facebook.presto.SystemSessionProperties.EXCHANGE_COMPRESSION_CODEC;
+import static com.facebook.presto.tests.QueryAssertions.assertEqualsIgnoreOrder;
+import static com.facebook.presto.tests.tpch.TpchQueryRunner.createQueryRunner;
+import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestExchangeCompression
+{
+    @Language("SQL")
+    private static final String QUERY = "SELECT orderkey, orderstatus, comment FROM orders";
+
+    private DistributedQueryRunner queryRunner;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        // every page is checksummed, so the checksum is verified with each codec
+        queryRunner = createQueryRunner(ImmutableMap.of("exchange.checksum-enabled", "true"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        queryRunner.close();
+    }
+
+    @Test
+    public void testCodecs()
+            throws Exception
+    {
+        MaterializedResult expected = queryRunner.execute(QUERY);
+        for (PageCompression compression : PageCompression.values()) {
+            for (boolean adaptive : new boolean[] {false, true}) {
+                Session session = Session.builder(queryRunner.getDefaultSession())
+                        .setSystemProperty(EXCHANGE_COMPRESSION, "true")
+                        .setSystemProperty(EXCHANGE_COMPRESSION_CODEC, compression.name().toLowerCase(ENGLISH))
+                        .setSystemProperty(EXCHANGE_COMPRESSION_ADAPTIVE, String.valueOf(adaptive))
+                        .build();
+                // a distinct query text per run to find its stats
+                String sql = format("%s WHERE '%s' <> '%s'", QUERY, compression, adaptive);
+                MaterializedResult actual = queryRunner.execute(session, sql);
+                assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+
+                long exchangeBytes = 0;
+                long exchangeUncompressedBytes = 0;
+                for (OperatorStats operatorStats : getFinalQueryInfo(sql).getQueryStats().getOperatorSummaries()) {
+                    exchangeBytes += operatorStats.getExchangeDataSize().toBytes();
+                    exchangeUncompressedBytes += operatorStats.getExchangeUncompressedDataSize().toBytes();
+                }
+                assertTrue(exchangeBytes > 0);
+                if (compression.isCompressed() && !adaptive) {
+                    assertTrue(exchangeBytes < exchangeUncompressedBytes, format("%s did not compress: %s >= %s", compression, exchangeBytes, exchangeUncompressedBytes));
+                }
+                else if (!compression.isCompressed()) {
+                    assertEquals(exchangeBytes, exchangeUncompressedBytes);
+                }
+            }
+        }
+    }
+
+    private QueryInfo getFinalQueryInfo(String sql)
+            throws InterruptedException
+    {
+        long deadline = System.nanoTime() + SECONDS.toNanos(30);
+        while (true) {
+            List<QueryInfo> queries = queryRunner.getCoordinator().getQueryManager().getAllQueryInfo();
+            for (QueryInfo queryInfo : queries) {
+                if (queryInfo.getQuery().equals(sql) && queryInfo.isFinalQueryInfo()) {
+                    return queryInfo;
+                }
+            }
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for final query info");
+            MILLISECONDS.sleep(50);
+        }
+    }
+}
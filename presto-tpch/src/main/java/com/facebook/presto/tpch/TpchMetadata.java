@@ -30,6 +30,9 @@ import com.facebook.presto.spi.SortingProperty;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.connector.ConnectorMetadata;
 import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.statistics.ColumnStatistics;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.statistics.TableStatistics;
 import com.facebook.presto.spi.type.BigintType;
 import com.facebook.presto.spi.type.DateType;
 import com.facebook.presto.spi.type.DoubleType;
@@ -38,9 +41,17 @@ import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import io.airlift.tpch.CustomerColumn;
+import io.airlift.tpch.CustomerGenerator;
 import io.airlift.tpch.LineItemColumn;
+import io.airlift.tpch.NationColumn;
 import io.airlift.tpch.OrderColumn;
 import io.airlift.tpch.OrderGenerator;
+import io.airlift.tpch.PartColumn;
+import io.airlift.tpch.PartGenerator;
+import io.airlift.tpch.RegionColumn;
+import io.airlift.tpch.SupplierColumn;
+import io.airlift.tpch.SupplierGenerator;
 import io.airlift.tpch.TpchColumn;
 import io.airlift.tpch.TpchColumnType;
 import io.airlift.tpch.TpchEntity;
@@ -173,6 +184,80 @@ public class TpchMetadata
         return getTableMetadata(schemaName, tpchTable);
     }
 
+    @Override
+    public TableStatistics getTableStatistics(ConnectorSession session, ConnectorTableHandle tableHandle, Constraint<ColumnHandle> constraint)
+    {
+        TpchTableHandle tpchTableHandle = (TpchTableHandle) tableHandle;
+        String tableName = tpchTableHandle.getTableName();
+        double scaleFactor = tpchTableHandle.getScaleFactor();
+
+        long rowCount = getRowCount(tableName, scaleFactor);
+        Optional<String> keyColumn = getKeyColumnName(tableName);
+
+        // the primary key of every table is unique and not null
+        ImmutableMap.Builder<ColumnHandle, ColumnStatistics> columnStatistics = ImmutableMap.builder();
+        if (keyColumn.isPresent()) {
+            columnStatistics.put(
+                    getColumnHandles(session, tableHandle).get(keyColumn.get()),
+                    new ColumnStatistics(Estimate.zeroValue(), new Estimate(rowCount), Estimate.unknownValue(), Optional.empty(), Optional.empty()));
+        }
+        return new TableStatistics(new Estimate(rowCount), columnStatistics.build());
+    }
+
+    private long getRowCount(String tableName, double scaleFactor)
+    {
+        if (tableName.equals(TpchTable.CUSTOMER.getTableName())) {
+            return calculateTotalRows(CustomerGenerator.SCALE_BASE, scaleFactor);
+        }
+        if (tableName.equals(TpchTable.ORDERS.getTableName())) {
+            return calculateTotalRows(OrderGenerator.SCALE_BASE, scaleFactor);
+        }
+        if (tableName.equals(TpchTable.LINE_ITEM.getTableName())) {
+            // every order has 1 to 7 line items, 4 on average
+            return 4 * calculateTotalRows(OrderGenerator.SCALE_BASE, scaleFactor);
+        }
+        if (tableName.equals(TpchTable.PART.getTableName())) {
+            return calculateTotalRows(PartGenerator.SCALE_BASE, scaleFactor);
+        }
+        if (tableName.equals(TpchTable.PART_SUPPLIER.getTableName())) {
+            // every part has 4 suppliers
+            return 4 * calculateTotalRows(PartGenerator.SCALE_BASE, scaleFactor);
+        }
+        if (tableName.equals(TpchTable.SUPPLIER.getTableName())) {
+            return calculateTotalRows(SupplierGenerator.SCALE_BASE, scaleFactor);
+        }
+        if (tableName.equals(TpchTable.NATION.getTableName())) {
+            return 25;
+        }
+        if (tableName.equals(TpchTable.REGION.getTableName())) {
+            return 5;
+        }
+        throw new IllegalArgumentException("Unknown table " + tableName);
+    }
+
+    private static Optional<String> getKeyColumnName(String tableName)
+    {
+        if (tableName.equals(TpchTable.CUSTOMER.getTableName())) {
+            return Optional.of(CustomerColumn.CUSTOMER_KEY.getColumnName());
+        }
+        if (tableName.equals(TpchTable.ORDERS.getTableName())) {
+            return Optional.of(OrderColumn.ORDER_KEY.getColumnName());
+        }
+        if (tableName.equals(TpchTable.PART.getTableName())) {
+            return Optional.of(PartColumn.PART_KEY.getColumnName());
+        }
+        if (tableName.equals(TpchTable.SUPPLIER.getTableName())) {
+            return Optional.of(SupplierColumn.SUPPLIER_KEY.getColumnName());
+        }
+        if (tableName.equals(TpchTable.NATION.getTableName())) {
+            return Optional.of(NationColumn.NATION_KEY.getColumnName());
+        }
+        if (tableName.equals(TpchTable.REGION.getTableName())) {
+            return Optional.of(RegionColumn.REGION_KEY.getColumnName());
+        }
+        return Optional.empty();
+    }
+
     private static ConnectorTableMetadata getTableMetadata(String schemaName, TpchTable<?> tpchTable)
     {
         ImmutableList.Builder<ColumnMetadata> columns = ImmutableList.builder();